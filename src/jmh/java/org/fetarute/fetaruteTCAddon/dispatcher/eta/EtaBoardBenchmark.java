@@ -0,0 +1,245 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.eta;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.bukkit.World;
+import org.fetarute.fetaruteTCAddon.company.model.Line;
+import org.fetarute.fetaruteTCAddon.company.model.LineServiceType;
+import org.fetarute.fetaruteTCAddon.company.model.LineStatus;
+import org.fetarute.fetaruteTCAddon.company.model.Operator;
+import org.fetarute.fetaruteTCAddon.company.model.Route;
+import org.fetarute.fetaruteTCAddon.company.model.RouteOperationType;
+import org.fetarute.fetaruteTCAddon.company.model.RoutePatternType;
+import org.fetarute.fetaruteTCAddon.company.model.RouteStop;
+import org.fetarute.fetaruteTCAddon.company.model.RouteStopPassType;
+import org.fetarute.fetaruteTCAddon.company.repository.RouteStopRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime.TrainRuntimeSnapshot;
+import org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime.TrainSnapshotStore;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphService;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SyntheticRailNetwork;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinitionCache;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.HeadwayRule;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SyntheticDispatchFixture;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 站牌基准：在合成线网上对单个站点计算站牌（绕过 1.5s 站牌缓存）。
+ *
+ * <p>列车沿各自路线分散在不同 routeIndex 上；RouteDefinition 通过 {@link RouteDefinitionCache#refresh} 从合成停靠表构建，
+ * 图快照通过 {@link RailGraphService#putSnapshot} 注入，与运行时数据路径一致。未绑定票据来源，只测运行中列车部分。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EtaBoardBenchmark {
+
+  private static final Duration HORIZON = Duration.ofMinutes(10);
+
+  @Param({"60"})
+  public int stations;
+
+  @Param({"150", "400"})
+  public int trains;
+
+  private EtaService etaService;
+  private List<String> stationIds;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    SyntheticDispatchFixture fixture =
+        SyntheticDispatchFixture.create(
+            new SyntheticRailNetwork.Spec(stations, 8, 0.3, 0.15, trains, 12, 20260101L));
+    SyntheticRailNetwork network = fixture.network();
+    Instant now = Instant.now();
+
+    UUID worldId = UUID.randomUUID();
+    World world =
+        proxy(World.class, method -> "getUID".equals(method.getName()) ? worldId : null);
+    RailGraphService railGraphService = new RailGraphService(ignored -> network.graph());
+    railGraphService.putSnapshot(world, network.graph(), now);
+
+    Map<UUID, List<RouteStop>> stopsByRoute = new HashMap<>();
+    for (SyntheticRailNetwork.TrainRoute route : network.routes()) {
+      stopsByRoute.put(route.routeUuid(), stops(route));
+    }
+    RouteStopRepository stopRepository =
+        proxyWithArgs(
+            RouteStopRepository.class,
+            (method, args) ->
+                "listByRoute".equals(method.getName())
+                    ? stopsByRoute.getOrDefault((UUID) args[0], List.of())
+                    : null);
+    StorageProvider provider =
+        proxy(
+            StorageProvider.class,
+            method -> "routeStops".equals(method.getName()) ? stopRepository : null);
+
+    Operator operator =
+        new Operator(
+            UUID.randomUUID(),
+            SyntheticRailNetwork.OPERATOR,
+            UUID.randomUUID(),
+            "Synthetic",
+            Optional.empty(),
+            Optional.empty(),
+            0,
+            Optional.empty(),
+            Map.of(),
+            now,
+            now);
+    Line line =
+        new Line(
+            UUID.randomUUID(),
+            SyntheticRailNetwork.LINE,
+            operator.id(),
+            "Synthetic Line",
+            Optional.empty(),
+            LineServiceType.METRO,
+            Optional.empty(),
+            LineStatus.ACTIVE,
+            Optional.of(300),
+            Map.of(),
+            now,
+            now);
+    RouteDefinitionCache routeDefinitions = new RouteDefinitionCache(message -> {});
+    TrainSnapshotStore snapshotStore = new TrainSnapshotStore();
+    int tick = 0;
+    for (SyntheticRailNetwork.TrainRoute trainRoute : network.routes()) {
+      String routeId = trainRoute.routeId().value();
+      Route route =
+          new Route(
+              trainRoute.routeUuid(),
+              routeId.substring(routeId.lastIndexOf(':') + 1),
+              line.id(),
+              trainRoute.trainName(),
+              Optional.empty(),
+              RoutePatternType.LOCAL,
+              RouteOperationType.OPERATION,
+              Optional.empty(),
+              Optional.empty(),
+              Map.of(),
+              now,
+              now);
+      Optional<RouteDefinition> definition =
+          routeDefinitions.refresh(provider, operator, line, route);
+      if (definition.isEmpty()) {
+        continue;
+      }
+      List<NodeId> nodes = trainRoute.nodes();
+      // 列车分散在路线前半段，使各站牌同时包含临近与较远的列车
+      int routeIndex = tick++ % Math.max(1, nodes.size() / 2);
+      snapshotStore.update(
+          trainRoute.trainName(),
+          new TrainRuntimeSnapshot(
+              tick,
+              now,
+              worldId,
+              trainRoute.routeUuid(),
+              definition.get().id(),
+              routeIndex,
+              Optional.of(nodes.get(routeIndex)),
+              routeIndex > 0 ? Optional.of(nodes.get(routeIndex - 1)) : Optional.empty(),
+              Optional.empty(),
+              Optional.of(SignalAspect.PROCEED),
+              Optional.empty(),
+              OptionalDouble.empty(),
+              OptionalInt.empty(),
+              OptionalInt.empty()));
+    }
+
+    etaService =
+        new EtaService(
+            snapshotStore,
+            railGraphService,
+            routeDefinitions,
+            fixture.manager(),
+            HeadwayRule.fixed(Duration.ZERO),
+            () -> SyntheticDispatchFixture.LOOKAHEAD_EDGES,
+            () -> 0,
+            () -> SyntheticDispatchFixture.REAR_GUARD_EDGES,
+            () -> SyntheticDispatchFixture.SWITCHER_ZONE_EDGES);
+    stationIds = new ArrayList<>();
+    for (String code : network.stationCodes()) {
+      stationIds.add(SyntheticRailNetwork.OPERATOR + ":" + code);
+    }
+  }
+
+  @Benchmark
+  public BoardResult board() {
+    int i = cursor;
+    cursor = (i + 1) % stationIds.size();
+    return etaService.computeBoardUncached(stationIds.get(i), null, HORIZON);
+  }
+
+  private static List<RouteStop> stops(SyntheticRailNetwork.TrainRoute route) {
+    List<RouteStop> stops = new ArrayList<>(route.nodes().size());
+    int sequence = 0;
+    for (NodeId node : route.nodes()) {
+      boolean platform = node.value().startsWith(SyntheticRailNetwork.OPERATOR + ":S:");
+      stops.add(
+          new RouteStop(
+              route.routeUuid(),
+              sequence++,
+              Optional.empty(),
+              Optional.of(node.value()),
+              platform ? Optional.of(20) : Optional.empty(),
+              platform ? RouteStopPassType.STOP : RouteStopPassType.PASS,
+              Optional.empty()));
+    }
+    return stops;
+  }
+
+  private static <T> T proxy(Class<T> type, Function<Method, Object> answer) {
+    return proxyWithArgs(type, (method, args) -> answer.apply(method));
+  }
+
+  private static <T> T proxyWithArgs(
+      Class<T> type, BiFunction<Method, Object[], Object> answer) {
+    Object instance =
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (self, method, args) -> {
+              if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                  case "hashCode" -> System.identityHashCode(self);
+                  case "equals" -> self == args[0];
+                  default -> type.getSimpleName() + "Proxy";
+                };
+              }
+              return answer.apply(method, args);
+            });
+    return type.cast(instance);
+  }
+}
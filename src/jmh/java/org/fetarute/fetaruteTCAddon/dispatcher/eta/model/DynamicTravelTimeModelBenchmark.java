@@ -0,0 +1,74 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.eta.model;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SyntheticRailNetwork;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 动态行程时间基准：ETA 对整条剩余路线调用 {@link DynamicTravelTimeModel#pathTravelTime} 的耗时。
+ *
+ * <p>路线长度由 {@code routeStations} 控制（每站间 {@code corridorNodes + 1} 条边），并启用站台 approaching 限速。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DynamicTravelTimeModelBenchmark {
+
+  @Param({"12", "40"})
+  public int routeStations;
+
+  @Param({"8"})
+  public int corridorNodes;
+
+  private SimpleRailGraph graph;
+  private DynamicTravelTimeModel model;
+  private List<List<NodeId>> paths;
+  private List<List<RailEdge>> edges;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    SyntheticRailNetwork network =
+        SyntheticRailNetwork.generate(
+            new SyntheticRailNetwork.Spec(
+                60, corridorNodes, 0.3, 0.15, 64, routeStations, 20260101L));
+    graph = network.graph();
+    Predicate<NodeId> isStation =
+        node -> graph.findNode(node).map(n -> n.type() == NodeType.STATION).orElse(false);
+    model =
+        new DynamicTravelTimeModel(
+            DynamicTravelTimeModel.TrainMotionParams.defaults(),
+            6.0,
+            ApproachingConfig.withDefaults(isStation, node -> false));
+    paths = network.routes().stream().map(SyntheticRailNetwork.TrainRoute::nodes).toList();
+    edges = paths.stream().map(network::edgesAlong).toList();
+  }
+
+  @Benchmark
+  public Optional<Duration> pathTravelTime() {
+    int i = cursor;
+    cursor = (i + 1) % paths.size();
+    return model.pathTravelTime(graph, paths.get(i), edges.get(i));
+  }
+}
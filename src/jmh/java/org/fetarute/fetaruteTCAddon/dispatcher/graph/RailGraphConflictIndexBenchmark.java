@@ -0,0 +1,56 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 冲突索引构建基准：图重建/热更新后 {@link RailGraphConflictIndex#fromGraph} 的耗时。
+ *
+ * <p>单线区间占比与支线密度决定走廊数量与边界节点数，是该构建的主要成本来源。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RailGraphConflictIndexBenchmark {
+
+  @Param({"60", "240"})
+  public int stations;
+
+  @Param({"8"})
+  public int corridorNodes;
+
+  @Param({"0.0", "0.5"})
+  public double singleTrackRatio;
+
+  @Param({"0.15"})
+  public double junctionDensity;
+
+  private SimpleRailGraph graph;
+
+  @Setup
+  public void setup() {
+    graph =
+        SyntheticRailNetwork.generate(
+                new SyntheticRailNetwork.Spec(
+                    stations, corridorNodes, singleTrackRatio, junctionDensity, 0, 2, 20260101L))
+            .graph();
+  }
+
+  @Benchmark
+  public RailGraphConflictIndex fromGraph() {
+    return RailGraphConflictIndex.fromGraph(graph);
+  }
+}
@@ -0,0 +1,326 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointMetadata;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteId;
+
+/**
+ * 基准用合成线网：环线 + 区间点 + 单线/复线区间 + 支线，节点命名遵循牌子格式，可直接被 ETA/冲突索引解析。
+ *
+ * <p>拓扑：
+ *
+ * <ul>
+ *   <li>{@code stations} 个车站按环线排列，每站两个站台节点 {@code SYN:S:STn:1/2}
+ *   <li>相邻车站之间为 {@code corridorNodes} 个区间点；复线区间两条走廊各走一个站台，单线区间在两端经 SWITCHER 收束为一条走廊
+ *   <li>每站以 {@code junctionDensity} 的概率从 1 站台接出一条支线（尽头站 {@code SYN:S:BRn:1}）
+ *   <li>{@code trains} 条列车路线均匀分布在环上，偶数列车走 1 站台顺行，奇数列车走 2 站台逆行
+ * </ul>
+ *
+ * <p>同一 {@link Spec} 生成的线网完全确定（固定随机种子），便于对比不同版本的基准结果。
+ */
+public final class SyntheticRailNetwork {
+
+  public static final String OPERATOR = "SYN";
+  public static final String LINE = "L1";
+
+  private static final int NODE_SPACING_BLOCKS = 24;
+  private static final double MAIN_SPEED_BPS = 8.0;
+  private static final double BRANCH_SPEED_BPS = 5.0;
+
+  private final Spec spec;
+  private final SimpleRailGraph graph;
+  private final List<String> stationCodes;
+  private final List<TrainRoute> routes;
+  private final List<NodeId> nodeIds;
+
+  private SyntheticRailNetwork(
+      Spec spec,
+      SimpleRailGraph graph,
+      List<String> stationCodes,
+      List<TrainRoute> routes,
+      List<NodeId> nodeIds) {
+    this.spec = spec;
+    this.graph = graph;
+    this.stationCodes = List.copyOf(stationCodes);
+    this.routes = List.copyOf(routes);
+    this.nodeIds = List.copyOf(nodeIds);
+  }
+
+  public Spec spec() {
+    return spec;
+  }
+
+  public SimpleRailGraph graph() {
+    return graph;
+  }
+
+  /** 环线车站 code（ST0..STn-1，不含支线尽头站）。 */
+  public List<String> stationCodes() {
+    return stationCodes;
+  }
+
+  /** 每列车一条路线（节点序列从首站站台到末站站台）。 */
+  public List<TrainRoute> routes() {
+    return routes;
+  }
+
+  /** 全部节点 ID（按生成顺序）。 */
+  public List<NodeId> nodeIds() {
+    return nodeIds;
+  }
+
+  /** 按节点序列依次取相邻节点之间的边（缺边时抛出，说明生成器有误）。 */
+  public List<RailEdge> edgesAlong(List<NodeId> path) {
+    List<RailEdge> out = new ArrayList<>(Math.max(0, path.size() - 1));
+    for (int i = 0; i + 1 < path.size(); i++) {
+      NodeId from = path.get(i);
+      NodeId to = path.get(i + 1);
+      RailEdge match = null;
+      for (RailEdge edge : graph.edgesFrom(from)) {
+        if (edge.from().equals(to) || edge.to().equals(to)) {
+          match = edge;
+          break;
+        }
+      }
+      if (match == null) {
+        throw new IllegalStateException("缺少边: " + from + " -> " + to);
+      }
+      out.add(match);
+    }
+    return out;
+  }
+
+  public static NodeId platform(String stationCode, int track) {
+    return NodeId.of(OPERATOR + ":S:" + stationCode + ":" + track);
+  }
+
+  public static SyntheticRailNetwork generate(Spec spec) {
+    Objects.requireNonNull(spec, "spec");
+    return new Generator(spec).generate();
+  }
+
+  /**
+   * 线网生成参数。
+   *
+   * @param stations 环线车站数（≥ 2）
+   * @param corridorNodes 相邻车站之间的区间点数量
+   * @param singleTrackRatio 单线区间占比（0~1）
+   * @param junctionDensity 每站接出支线的概率（0~1）
+   * @param trains 列车（路线）数量
+   * @param routeStations 每条路线经过的车站数（含首末站）
+   * @param seed 随机种子
+   */
+  public record Spec(
+      int stations,
+      int corridorNodes,
+      double singleTrackRatio,
+      double junctionDensity,
+      int trains,
+      int routeStations,
+      long seed) {
+
+    public Spec {
+      if (stations < 2) {
+        throw new IllegalArgumentException("stations 必须 ≥ 2");
+      }
+      if (corridorNodes < 0 || trains < 0) {
+        throw new IllegalArgumentException("corridorNodes/trains 不能为负数");
+      }
+      singleTrackRatio = Math.max(0.0, Math.min(1.0, singleTrackRatio));
+      junctionDensity = Math.max(0.0, Math.min(1.0, junctionDensity));
+      routeStations = Math.max(2, Math.min(stations, routeStations));
+    }
+
+    /** 默认规模：约 150 列车服务器的线网量级。 */
+    public static Spec defaults() {
+      return new Spec(60, 8, 0.3, 0.15, 150, 12, 20260101L);
+    }
+  }
+
+  /**
+   * 列车路线。
+   *
+   * @param trainName 列车名
+   * @param routeUuid 线路 UUID
+   * @param routeId 线路 ID（OP:LINE:Rn）
+   * @param nodes 节点序列
+   */
+  public record TrainRoute(String trainName, UUID routeUuid, RouteId routeId, List<NodeId> nodes) {
+    public TrainRoute {
+      nodes = List.copyOf(nodes);
+    }
+  }
+
+  private static final class Generator {
+
+    private final Spec spec;
+    private final Random random;
+    private final Map<NodeId, RailNode> nodes = new HashMap<>();
+    private final Map<EdgeId, RailEdge> edges = new HashMap<>();
+    private final List<NodeId> order = new ArrayList<>();
+
+    /** 下标 i：从站 i 到站 i+1 的节点序列（含两端站台），分别对应 1/2 站台。 */
+    private final List<List<NodeId>> track1Segments = new ArrayList<>();
+
+    private final List<List<NodeId>> track2Segments = new ArrayList<>();
+
+    private Generator(Spec spec) {
+      this.spec = spec;
+      this.random = new Random(spec.seed());
+    }
+
+    private SyntheticRailNetwork generate() {
+      int count = spec.stations();
+      List<String> codes = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        String code = "ST" + i;
+        codes.add(code);
+        addNode(platform(code, 1), NodeType.STATION, i, 0, stationMeta(code, 1));
+        addNode(platform(code, 2), NodeType.STATION, i, 2, stationMeta(code, 2));
+      }
+      for (int i = 0; i < count; i++) {
+        String from = codes.get(i);
+        String to = codes.get((i + 1) % count);
+        if (random.nextDouble() < spec.singleTrackRatio()) {
+          buildSingleTrack(i, from, to);
+        } else {
+          track1Segments.add(buildCorridor(i, from, to, 1, platform(from, 1), platform(to, 1)));
+          track2Segments.add(buildCorridor(i, from, to, 2, platform(from, 2), platform(to, 2)));
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        if (random.nextDouble() < spec.junctionDensity()) {
+          buildBranch(i, codes.get(i));
+        }
+      }
+      return new SyntheticRailNetwork(
+          spec, new SimpleRailGraph(nodes, edges, Set.of()), codes, buildRoutes(), order);
+    }
+
+    private void buildSingleTrack(int index, String from, String to) {
+      NodeId out = NodeId.of(OPERATOR + ":" + from + ":" + to + ":0:SWO");
+      NodeId in = NodeId.of(OPERATOR + ":" + from + ":" + to + ":0:SWI");
+      addNode(out, NodeType.SWITCHER, index, 1, Optional.empty());
+      addNode(in, NodeType.SWITCHER, index + 1, 1, Optional.empty());
+      List<NodeId> trunk = buildCorridor(index, from, to, 0, out, in);
+      for (int track = 1; track <= 2; track++) {
+        NodeId start = platform(from, track);
+        NodeId end = platform(to, track);
+        addEdge(start, out, MAIN_SPEED_BPS);
+        addEdge(in, end, MAIN_SPEED_BPS);
+        List<NodeId> path = new ArrayList<>(trunk.size() + 2);
+        path.add(start);
+        path.addAll(trunk);
+        path.add(end);
+        (track == 1 ? track1Segments : track2Segments).add(path);
+      }
+    }
+
+    private List<NodeId> buildCorridor(
+        int index, String from, String to, int track, NodeId start, NodeId end) {
+      List<NodeId> path = new ArrayList<>(spec.corridorNodes() + 2);
+      path.add(start);
+      NodeId previous = start;
+      for (int k = 0; k < spec.corridorNodes(); k++) {
+        NodeId id = NodeId.of(OPERATOR + ":" + from + ":" + to + ":" + track + ":" + k);
+        addNode(id, NodeType.WAYPOINT, index, track, Optional.empty());
+        addEdge(previous, id, MAIN_SPEED_BPS);
+        path.add(id);
+        previous = id;
+      }
+      addEdge(previous, end, MAIN_SPEED_BPS);
+      path.add(end);
+      return path;
+    }
+
+    private void buildBranch(int index, String code) {
+      String branchCode = "BR" + index;
+      NodeId previous = platform(code, 1);
+      for (int k = 0; k < spec.corridorNodes(); k++) {
+        NodeId id = NodeId.of(OPERATOR + ":" + code + ":" + branchCode + ":1:" + k);
+        addNode(id, NodeType.WAYPOINT, index, 4 + k, Optional.empty());
+        addEdge(previous, id, BRANCH_SPEED_BPS);
+        previous = id;
+      }
+      NodeId terminal = platform(branchCode, 1);
+      addNode(
+          terminal,
+          NodeType.STATION,
+          index,
+          4 + spec.corridorNodes(),
+          stationMeta(branchCode, 1));
+      addEdge(previous, terminal, BRANCH_SPEED_BPS);
+    }
+
+    private List<TrainRoute> buildRoutes() {
+      int count = spec.stations();
+      List<TrainRoute> out = new ArrayList<>(spec.trains());
+      for (int t = 0; t < spec.trains(); t++) {
+        int startStation = (int) ((long) t * count / Math.max(1, spec.trains()));
+        boolean forward = t % 2 == 0;
+        List<NodeId> path = new ArrayList<>();
+        int station = startStation;
+        for (int leg = 0; leg < spec.routeStations() - 1; leg++) {
+          List<NodeId> segment;
+          if (forward) {
+            segment = track1Segments.get(station);
+            station = (station + 1) % count;
+          } else {
+            int previous = (station - 1 + count) % count;
+            segment = reversed(track2Segments.get(previous));
+            station = previous;
+          }
+          int skip = path.isEmpty() ? 0 : 1;
+          path.addAll(segment.subList(skip, segment.size()));
+        }
+        UUID routeUuid = new UUID(spec.seed(), t);
+        out.add(
+            new TrainRoute(
+                "syn-" + t, routeUuid, RouteId.of(OPERATOR + ":" + LINE + ":R" + t), path));
+      }
+      return out;
+    }
+
+    private void addNode(
+        NodeId id, NodeType type, int station, int offset, Optional<WaypointMetadata> meta) {
+      double angle = 2.0 * Math.PI * station / spec.stations();
+      double radius = spec.stations() * NODE_SPACING_BLOCKS * (spec.corridorNodes() + 1) / Math.PI;
+      Vector position =
+          new Vector(
+              Math.cos(angle) * radius + offset * NODE_SPACING_BLOCKS,
+              64,
+              Math.sin(angle) * radius + offset * NODE_SPACING_BLOCKS);
+      nodes.put(id, new SignRailNode(id, type, position, Optional.empty(), meta));
+      order.add(id);
+    }
+
+    private void addEdge(NodeId from, NodeId to, double speedBps) {
+      EdgeId id = EdgeId.undirected(from, to);
+      int length = NODE_SPACING_BLOCKS + random.nextInt(NODE_SPACING_BLOCKS);
+      edges.put(id, new RailEdge(id, id.a(), id.b(), length, speedBps, true, Optional.empty()));
+    }
+
+    private static Optional<WaypointMetadata> stationMeta(String code, int track) {
+      return Optional.of(WaypointMetadata.station(OPERATOR, code, track));
+    }
+
+    private static List<NodeId> reversed(List<NodeId> nodes) {
+      List<NodeId> out = new ArrayList<>(nodes);
+      Collections.reverse(out);
+      return out;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRailNode;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SyntheticRailNetwork;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 最短路基准：在合成网格线网上比较通用 Dijkstra（HashMap + 装箱）、CSR 编译图与路径缓存三种实现。
+ *
+ * <p>{@code legacy} 通过包装代价模型绕开快速路径，作为对照组；{@code compiled} 直接查询编译图（不经缓存）；
+ * {@code cached} 走生产路径（{@link RailGraphPathFinder#shortestPath}，命中路径缓存）。
+ *
+ * <p>{@code network*} 使用 {@link SyntheticRailNetwork}（环线 + 单线区间 + 支线），查询取自列车路线首末站，更接近运行时的实际查询分布。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RailGraphPathFinderBenchmark {
+
+  private static final int QUERY_COUNT = 256;
+
+  /** 网格边长：100 → 10k 节点。 */
+  @Param({"100"})
+  public int gridSize;
+
+  private SimpleRailGraph graph;
+  private final RailGraphPathFinder finder = new RailGraphPathFinder();
+  private RailGraphPathFinder.Options compiledOptions;
+  private RailGraphPathFinder.Options legacyOptions;
+  private NodeId[] sources;
+  private NodeId[] targets;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(20260101L);
+    Map<NodeId, RailNode> nodes = new HashMap<>();
+    Map<EdgeId, RailEdge> edges = new HashMap<>();
+    for (int x = 0; x < gridSize; x++) {
+      for (int z = 0; z < gridSize; z++) {
+        NodeId id = nodeId(x, z);
+        nodes.put(
+            id,
+            new SignRailNode(
+                id,
+                NodeType.WAYPOINT,
+                new Vector(x * 32, 64, z * 32),
+                Optional.empty(),
+                Optional.empty()));
+        if (x > 0) {
+          putEdge(edges, nodeId(x - 1, z), id, random);
+        }
+        if (z > 0) {
+          putEdge(edges, nodeId(x, z - 1), id, random);
+        }
+      }
+    }
+    graph = new SimpleRailGraph(nodes, edges, Set.of());
+    graph.compiled();
+
+    RailEdgeCostModel lengthBlocks = RailEdgeCostModels.lengthBlocks();
+    compiledOptions = new RailGraphPathFinder.Options(lengthBlocks, false);
+    legacyOptions =
+        new RailGraphPathFinder.Options(
+            (g, edge, from, to) -> lengthBlocks.cost(g, edge, from, to), false);
+
+    sources = new NodeId[QUERY_COUNT];
+    targets = new NodeId[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      sources[i] = nodeId(random.nextInt(gridSize), random.nextInt(gridSize));
+      targets[i] = nodeId(random.nextInt(gridSize), random.nextInt(gridSize));
+    }
+  }
+
+  @Benchmark
+  public Optional<RailGraphPath> legacy() {
+    int i = nextQuery();
+    return finder.shortestPath(graph, sources[i], targets[i], legacyOptions);
+  }
+
+  @Benchmark
+  public Optional<RailGraphPath> compiled() {
+    int i = nextQuery();
+    return graph.compiled().shortestPath(sources[i], targets[i], false);
+  }
+
+  @Benchmark
+  public Optional<RailGraphPath> cached() {
+    int i = nextQuery();
+    return finder.shortestPath(graph, sources[i], targets[i], compiledOptions);
+  }
+
+  @Benchmark
+  public Optional<RailGraphPath> networkCompiled(NetworkState network) {
+    int i = network.nextQuery();
+    return network.graph.compiled().shortestPath(network.sources[i], network.targets[i], false);
+  }
+
+  @Benchmark
+  public Optional<RailGraphPath> networkCached(NetworkState network) {
+    int i = network.nextQuery();
+    return finder.shortestPath(
+        network.graph, network.sources[i], network.targets[i], compiledOptions);
+  }
+
+  /** 合成线网上的查询集：每列车路线的首末站台。 */
+  @State(Scope.Benchmark)
+  public static class NetworkState {
+
+    @Param({"60", "240"})
+    public int stations;
+
+    @Param({"0.3"})
+    public double singleTrackRatio;
+
+    @Param({"0.15"})
+    public double junctionDensity;
+
+    SimpleRailGraph graph;
+    NodeId[] sources;
+    NodeId[] targets;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+      SyntheticRailNetwork network =
+          SyntheticRailNetwork.generate(
+              new SyntheticRailNetwork.Spec(
+                  stations, 8, singleTrackRatio, junctionDensity, 150, 12, 20260101L));
+      graph = network.graph();
+      graph.compiled();
+      List<SyntheticRailNetwork.TrainRoute> routes = network.routes();
+      sources = new NodeId[routes.size()];
+      targets = new NodeId[routes.size()];
+      for (int i = 0; i < routes.size(); i++) {
+        List<NodeId> nodes = routes.get(i).nodes();
+        sources[i] = nodes.get(0);
+        targets[i] = nodes.get(nodes.size() - 1);
+      }
+    }
+
+    int nextQuery() {
+      int i = cursor;
+      cursor = (i + 1) % sources.length;
+      return i;
+    }
+  }
+
+  private int nextQuery() {
+    int i = cursor;
+    cursor = (i + 1) % QUERY_COUNT;
+    return i;
+  }
+
+  private static void putEdge(Map<EdgeId, RailEdge> edges, NodeId from, NodeId to, Random random) {
+    EdgeId id = EdgeId.undirected(from, to);
+    int length = 16 + random.nextInt(48);
+    edges.put(id, new RailEdge(id, id.a(), id.b(), length, 0.0, true, Optional.empty()));
+  }
+
+  private static NodeId nodeId(int x, int z) {
+    return NodeId.of("G:" + x + ":" + z);
+  }
+}
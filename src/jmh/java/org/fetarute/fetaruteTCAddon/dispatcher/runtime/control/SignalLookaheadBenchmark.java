@@ -0,0 +1,75 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime.control;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SyntheticRailNetwork;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SyntheticDispatchFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 信号前瞻基准：控车 tick 中 {@link SignalLookahead#computeWithEdgeSpeed} 的耗时。
+ *
+ * <p>输入为合成线网上每列车首站的 lookahead 请求上下文与其背景 acquire 判定（部分列车因前车占用被阻塞）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignalLookaheadBenchmark {
+
+  @Param({"150"})
+  public int trains;
+
+  @Param({"0.3"})
+  public double singleTrackRatio;
+
+  private List<SyntheticDispatchFixture.TrainState> states;
+  private Predicate<NodeId> approachPredicate;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    SyntheticDispatchFixture fixture =
+        SyntheticDispatchFixture.create(
+            new SyntheticRailNetwork.Spec(60, 8, singleTrackRatio, 0.15, trains, 12, 20260101L));
+    states = fixture.trains();
+    approachPredicate =
+        node ->
+            fixture
+                .network()
+                .graph()
+                .findNode(node)
+                .map(n -> n.type() == NodeType.STATION)
+                .orElse(false);
+  }
+
+  @Benchmark
+  public SignalLookahead.LookaheadResult computeWithEdgeSpeed() {
+    int i = cursor;
+    cursor = (i + 1) % states.size();
+    SyntheticDispatchFixture.TrainState state = states.get(i);
+    return SignalLookahead.computeWithEdgeSpeed(
+        state.decision(),
+        state.context(),
+        SignalAspect.PROCEED,
+        approachPredicate,
+        RailEdge::baseSpeedLimit);
+  }
+}
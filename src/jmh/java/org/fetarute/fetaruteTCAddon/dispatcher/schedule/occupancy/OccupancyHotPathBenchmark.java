@@ -0,0 +1,96 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SyntheticRailNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 单线程占用热路径基准：每 tick 每列车都会经历的请求构建、判定、申请与释放。
+ *
+ * <p>管理器中已有全部列车的背景占用；{@code releaseAndAcquire} 释放后立即重新申请，使每次迭代前后状态一致。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OccupancyHotPathBenchmark {
+
+  @Param({"60"})
+  public int stations;
+
+  @Param({"150", "400"})
+  public int trains;
+
+  @Param({"0.3"})
+  public double singleTrackRatio;
+
+  @Param({"0.15"})
+  public double junctionDensity;
+
+  private SyntheticDispatchFixture fixture;
+  private List<SyntheticDispatchFixture.TrainState> states;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    fixture =
+        SyntheticDispatchFixture.create(
+            new SyntheticRailNetwork.Spec(
+                stations, 8, singleTrackRatio, junctionDensity, trains, 12, 20260101L));
+    states = fixture.trains();
+  }
+
+  @Benchmark
+  public Optional<OccupancyRequestContext> buildRequest() {
+    SyntheticDispatchFixture.TrainState state = next();
+    SyntheticRailNetwork.TrainRoute route = state.route();
+    // 在路线前半段轮换起点，覆盖区间/站台/道岔等不同位置
+    int index = cursor % Math.max(1, route.nodes().size() / 2);
+    return fixture
+        .builder()
+        .buildContextFromNodes(
+            route.trainName(),
+            Optional.of(route.routeId()),
+            route.nodes(),
+            index,
+            fixture.now(),
+            0);
+  }
+
+  @Benchmark
+  public OccupancyDecision canEnter() {
+    return fixture.manager().canEnter(next().context().request());
+  }
+
+  @Benchmark
+  public OccupancyDecision canEnterPreview() {
+    return fixture.manager().canEnterPreview(next().context().request());
+  }
+
+  @Benchmark
+  public OccupancyDecision releaseAndAcquire() {
+    SyntheticDispatchFixture.TrainState state = next();
+    fixture.manager().releaseByTrain(state.route().trainName());
+    return fixture.manager().acquire(state.context().request());
+  }
+
+  private SyntheticDispatchFixture.TrainState next() {
+    int i = cursor;
+    cursor = (i + 1) % states.size();
+    return states.get(i);
+  }
+}
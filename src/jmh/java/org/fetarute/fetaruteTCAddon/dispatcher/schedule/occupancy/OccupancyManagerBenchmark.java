@@ -0,0 +1,124 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 占用管理器并发基准：多条互不相交的走廊同时 acquire/release，另有线程做预览与快照读取。
+ *
+ * <p>{@code lockStripes=1} 等价于旧版整管理器一把锁，用作对照组。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OccupancyManagerBenchmark {
+
+  /** 每条走廊包含的区间数量（每个区间 = 1 条边 + 1 个节点）。 */
+  private static final int SEGMENTS_PER_CORRIDOR = 6;
+
+  @Param({"1", "64"})
+  public int lockStripes;
+
+  /** 预先占用的背景列车数量，模拟线网上其它列车的 claim。 */
+  @Param({"150"})
+  public int backgroundTrains;
+
+  private SimpleOccupancyManager manager;
+  private final AtomicInteger corridorSequence = new AtomicInteger();
+  private final Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Setup
+  public void setup() {
+    manager =
+        new SimpleOccupancyManager(
+            HeadwayRule.fixed(Duration.ZERO),
+            SignalAspectPolicy.defaultPolicy(),
+            null,
+            lockStripes);
+    for (int i = 0; i < backgroundTrains; i++) {
+      manager.acquire(request("bg-" + i, corridor("bg" + i)));
+    }
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(6)
+  public boolean acquireRelease(CorridorState corridor) {
+    OccupancyDecision decision = manager.acquire(corridor.request);
+    for (OccupancyResource resource : corridor.resources) {
+      manager.releaseResource(resource, Optional.of(corridor.trainName));
+    }
+    return decision.allowed();
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public boolean preview(CorridorState corridor) {
+    return manager.canEnterPreview(corridor.request).allowed();
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(1)
+  public void snapshot(Blackhole blackhole) {
+    blackhole.consume(manager.snapshotClaims());
+  }
+
+  /** 每个线程独占一条走廊，使写入之间没有真实的资源冲突，只剩锁竞争。 */
+  @State(Scope.Thread)
+  public static class CorridorState {
+
+    String trainName;
+    List<OccupancyResource> resources;
+    OccupancyRequest request;
+
+    @Setup
+    public void setup(OccupancyManagerBenchmark benchmark) {
+      int index = benchmark.corridorSequence.getAndIncrement();
+      trainName = "bench-" + index;
+      resources = corridor("c" + index);
+      request = benchmark.request(trainName, resources);
+    }
+  }
+
+  private OccupancyRequest request(String trainName, List<OccupancyResource> resources) {
+    return new OccupancyRequest(trainName, Optional.empty(), now, resources, Map.of());
+  }
+
+  private static List<OccupancyResource> corridor(String prefix) {
+    List<OccupancyResource> resources = new ArrayList<>(SEGMENTS_PER_CORRIDOR * 2);
+    for (int i = 0; i < SEGMENTS_PER_CORRIDOR; i++) {
+      NodeId from = NodeId.of(prefix + ":N" + i);
+      NodeId to = NodeId.of(prefix + ":N" + (i + 1));
+      resources.add(OccupancyResource.forEdge(EdgeId.undirected(from, to)));
+      resources.add(OccupancyResource.forNode(to));
+    }
+    return List.copyOf(resources);
+  }
+}
@@ -0,0 +1,100 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SyntheticRailNetwork;
+
+/**
+ * 基准共用的调度现场：合成线网 + 请求构建器 + 已为每列车占好前方资源的占用管理器。
+ *
+ * <p>每列车在路线首站生成一次 lookahead 请求并 acquire，作为背景占用；各基准在此基础上测量单次热路径调用。
+ */
+public final class SyntheticDispatchFixture {
+
+  /** 运行时默认参数：lookahead 4 段、rear guard 1 段、道岔区 2 段。 */
+  public static final int LOOKAHEAD_EDGES = 4;
+
+  public static final int REAR_GUARD_EDGES = 1;
+  public static final int SWITCHER_ZONE_EDGES = 2;
+
+  private final SyntheticRailNetwork network;
+  private final OccupancyRequestBuilder builder;
+  private final SimpleOccupancyManager manager;
+  private final List<TrainState> trains;
+  private final Instant now;
+
+  private SyntheticDispatchFixture(
+      SyntheticRailNetwork network,
+      OccupancyRequestBuilder builder,
+      SimpleOccupancyManager manager,
+      List<TrainState> trains,
+      Instant now) {
+    this.network = network;
+    this.builder = builder;
+    this.manager = manager;
+    this.trains = List.copyOf(trains);
+    this.now = now;
+  }
+
+  public static SyntheticDispatchFixture create(SyntheticRailNetwork.Spec spec) {
+    Objects.requireNonNull(spec, "spec");
+    SyntheticRailNetwork network = SyntheticRailNetwork.generate(spec);
+    network.graph().compiled();
+    OccupancyRequestBuilder builder =
+        new OccupancyRequestBuilder(
+            network.graph(), LOOKAHEAD_EDGES, 0, REAR_GUARD_EDGES, SWITCHER_ZONE_EDGES);
+    SimpleOccupancyManager manager =
+        new SimpleOccupancyManager(
+            HeadwayRule.fixed(Duration.ZERO), SignalAspectPolicy.defaultPolicy());
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    List<TrainState> trains = new ArrayList<>();
+    for (SyntheticRailNetwork.TrainRoute route : network.routes()) {
+      Optional<OccupancyRequestContext> context =
+          builder.buildContextFromNodes(
+              route.trainName(), Optional.of(route.routeId()), route.nodes(), 0, now, 0);
+      if (context.isEmpty()) {
+        continue;
+      }
+      OccupancyDecision decision = manager.acquire(context.get().request());
+      trains.add(new TrainState(route, context.get(), decision));
+    }
+    return new SyntheticDispatchFixture(network, builder, manager, trains, now);
+  }
+
+  public SyntheticRailNetwork network() {
+    return network;
+  }
+
+  public OccupancyRequestBuilder builder() {
+    return builder;
+  }
+
+  public SimpleOccupancyManager manager() {
+    return manager;
+  }
+
+  /** 成功构建请求的列车（按路线顺序）。 */
+  public List<TrainState> trains() {
+    return trains;
+  }
+
+  public Instant now() {
+    return now;
+  }
+
+  /**
+   * 单列车的基准现场。
+   *
+   * @param route 路线
+   * @param context 首站 lookahead 请求上下文
+   * @param decision 背景 acquire 的判定结果
+   */
+  public record TrainState(
+      SyntheticRailNetwork.TrainRoute route,
+      OccupancyRequestContext context,
+      OccupancyDecision decision) {}
+}
@@ -0,0 +1,95 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarHudTemplateRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * HUD 渲染基准：一次调用模拟一个 tick 内渲染 500 条 BossBar 标题。
+ *
+ * <p>乘客平均分布在 {@code 500 / passengersPerTrain} 列车上；每个 tick 每列车的速度/进度占位符都会变化（最坏情况），
+ * 同车乘客共享占位符。{@code legacyRender} 为逐次替换 + MiniMessage 解析的旧路径， {@code cachedRender}
+ * 为编译模板 + 按文本缓存组件。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HudTemplateRenderBenchmark {
+
+  private static final int BARS = 500;
+  private static final String TEMPLATE =
+      "<color:{line_color}>{line}</color> <gray>|</gray> <white>下一站 {next_station}</white>"
+          + " <gray>|</gray> {eta_status} <gray>|</gray> <yellow>{speed}</yellow>"
+          + " <gray>{progress_percent}</gray>";
+
+  @Param({"1", "10"})
+  public int passengersPerTrain;
+
+  private List<Map<String, String>> trainPlaceholders;
+  private HudTemplateRenderCache renderCache;
+  private int tick;
+
+  @Setup
+  public void setup() {
+    int trains = Math.max(1, BARS / passengersPerTrain);
+    trainPlaceholders = new ArrayList<>(trains);
+    for (int i = 0; i < trains; i++) {
+      Map<String, String> placeholders = new HashMap<>();
+      placeholders.put("line_color", i % 2 == 0 ? "#e4002b" : "#0072ce");
+      placeholders.put("line", "L" + (i % 12 + 1));
+      placeholders.put("next_station", "Station-" + (i % 60));
+      placeholders.put("eta_status", (i % 7) + "m");
+      trainPlaceholders.add(placeholders);
+    }
+    renderCache = new HudTemplateRenderCache("Benchmark", null);
+  }
+
+  @Benchmark
+  public void legacyRender(Blackhole blackhole) {
+    advanceTick();
+    for (int bar = 0; bar < BARS; bar++) {
+      Map<String, String> placeholders = trainPlaceholders.get(bar / passengersPerTrain);
+      Component title = BossBarHudTemplateRenderer.render(TEMPLATE, placeholders, null);
+      blackhole.consume(title);
+    }
+  }
+
+  @Benchmark
+  public void cachedRender(Blackhole blackhole) {
+    advanceTick();
+    for (int bar = 0; bar < BARS; bar++) {
+      Map<String, String> placeholders = trainPlaceholders.get(bar / passengersPerTrain);
+      Component title = renderCache.render(TEMPLATE, placeholders);
+      blackhole.consume(title);
+    }
+  }
+
+  private void advanceTick() {
+    tick++;
+    for (int i = 0; i < trainPlaceholders.size(); i++) {
+      Map<String, String> placeholders = trainPlaceholders.get(i);
+      int value = (tick + i) % 120;
+      placeholders.put("speed", value + " km/h");
+      placeholders.put("progress_percent", (value * 100 / 120) + "%");
+    }
+  }
+}
@@ -37,7 +37,10 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphService;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRegistryRailGraphBuilder;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.control.SpeedSettingStickListener;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.debug.GraphDebugStickListener;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphBinaryCache;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphDeltaWriter;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.sync.RailGraphIncrementalUpdateScheduler;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.sync.RailNodeIncrementalSync;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
@@ -64,15 +67,17 @@ import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.TrainCartsDepotSpa
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.RouteEditorAppendListener;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeDefinition;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeRegistry;
-import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeStorageSynchronizer;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignRemoveListener;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.TrainSignBypassListener;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.action.AutoStationSignAction;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.action.DepotSignAction;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.action.WaypointSignAction;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.DispatchFlightRecorder;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.RuntimeDispatchRequestProvider;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalComputationTrace;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalEvaluator;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.TrainController;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.OccupancyReleasedEvent;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.SignalEventBus;
 import org.fetarute.fetaruteTCAddon.display.DisplayService;
 import org.fetarute.fetaruteTCAddon.display.SimpleDisplayService;
@@ -101,6 +106,8 @@ public final class FetaruteTCAddon extends JavaPlugin {
   private LoggerManager loggerManager;
   private SignNodeRegistry signNodeRegistry;
   private RailGraphService railGraphService;
+  private RailGraphDeltaWriter railGraphWriter;
+  private RailGraphIncrementalUpdateScheduler graphUpdateScheduler;
   private WaypointSignAction waypointSignAction;
   private AutoStationSignAction autoStationSignAction;
   private DepotSignAction depotSignAction;
@@ -114,9 +121,12 @@ public final class FetaruteTCAddon extends JavaPlugin {
   private LayoverRegistry layoverRegistry;
   private DwellRegistry dwellRegistry;
   private RuntimeDispatchService runtimeDispatchService;
+  private DispatchFlightRecorder dispatchFlightRecorder;
   private ReclaimManager reclaimManager;
   private org.bukkit.scheduler.BukkitTask runtimeMonitorTask;
+  private RuntimeSignalMonitor runtimeSignalMonitor;
   private org.bukkit.scheduler.BukkitTask healthMonitorTask;
+  private org.bukkit.scheduler.BukkitTask progressTagFlushTask;
   private SpawnManager spawnManager;
   private TicketAssigner spawnTicketAssigner;
   private org.bukkit.scheduler.BukkitTask spawnMonitorTask;
@@ -186,10 +196,15 @@ public final class FetaruteTCAddon extends JavaPlugin {
       runtimeMonitorTask.cancel();
       runtimeMonitorTask = null;
     }
+    runtimeSignalMonitor = null;
     if (healthMonitorTask != null) {
       healthMonitorTask.cancel();
       healthMonitorTask = null;
     }
+    if (progressTagFlushTask != null) {
+      progressTagFlushTask.cancel();
+      progressTagFlushTask = null;
+    }
     if (healthMonitor != null) {
       healthMonitor.clear();
       healthMonitor = null;
@@ -206,6 +221,20 @@ public final class FetaruteTCAddon extends JavaPlugin {
       reclaimManager.stop();
       reclaimManager = null;
     }
+    if (runtimeDispatchService != null) {
+      runtimeDispatchService.shutdown();
+    }
+    if (graphUpdateScheduler != null) {
+      graphUpdateScheduler.close();
+      graphUpdateScheduler = null;
+    }
+    if (railGraphService != null) {
+      railGraphService.close();
+    }
+    if (dispatchFlightRecorder != null) {
+      dispatchFlightRecorder.clear();
+      dispatchFlightRecorder = null;
+    }
     if (storageManager != null) {
       storageManager.shutdown();
     }
@@ -265,6 +294,7 @@ public final class FetaruteTCAddon extends JavaPlugin {
     initHealthMonitor();
     restartHealthMonitorTask();
     restartRuntimeMonitor();
+    restartProgressTagFlush();
     initSpawnScheduler();
     initReclaimManager();
     initDisplayService();
@@ -303,10 +333,20 @@ public final class FetaruteTCAddon extends JavaPlugin {
     return Optional.ofNullable(runtimeDispatchService);
   }
 
+  /** 返回调度决策飞行记录器（占用管理器未初始化时为 null）。 */
+  public DispatchFlightRecorder getDispatchFlightRecorder() {
+    return dispatchFlightRecorder;
+  }
+
   public RailGraphService getRailGraphService() {
     return railGraphService;
   }
 
+  /** 调度图增量写入器：/fta graph build 与建牌/拆牌的局部更新共用，保证同一世界的写入串行。 */
+  public RailGraphDeltaWriter getRailGraphWriter() {
+    return railGraphWriter;
+  }
+
   /** 返回限速设置棍监听器；插件未完成初始化时为空。 */
   public Optional<SpeedSettingStickListener> getSpeedSettingStickListener() {
     return Optional.ofNullable(speedSettingStickListener);
@@ -434,8 +474,28 @@ public final class FetaruteTCAddon extends JavaPlugin {
             new SignRegistryRailGraphBuilder(
                 signNodeRegistry, loggerManager::debug, graphSettings.signAnchorSearchRadius()),
             loggerManager::debug);
-    SignNodeStorageSynchronizer storageSync =
+    // 二进制快照缓存：启动时优先从文件还原调度图，跳过逐行 JDBC 读取
+    railGraphService.setBinaryCache(
+        new RailGraphBinaryCache(
+            getDataFolder().toPath().resolve("graph-cache"),
+            task -> getServer().getScheduler().runTaskAsynchronously(this, task),
+            loggerManager::debug));
+    this.railGraphWriter =
+        new RailGraphDeltaWriter(
+            task -> getServer().getScheduler().runTaskAsynchronously(this, task),
+            loggerManager::debug);
+    RailNodeIncrementalSync storageSync =
         new RailNodeIncrementalSync(storageManager, railGraphService, loggerManager::debug);
+    // 建牌/拆牌时局部重探索并拼接调度图，避免整图 stale；探索在工作线程读取轨道快照
+    this.graphUpdateScheduler =
+        new RailGraphIncrementalUpdateScheduler(
+            this,
+            type ->
+                type == NodeType.SWITCHER
+                    ? graphSettings.switcherAnchorSearchRadius()
+                    : graphSettings.signAnchorSearchRadius(),
+            RailGraphIncrementalUpdateScheduler.DEFAULT_TICK_BUDGET_NANOS);
+    storageSync.enableGraphSplice(graphUpdateScheduler, railGraphWriter);
     this.waypointSignAction =
         new WaypointSignAction(signNodeRegistry, loggerManager::debug, localeManager, storageSync);
     this.autoStationSignAction =
@@ -477,17 +537,36 @@ public final class FetaruteTCAddon extends JavaPlugin {
   private void initOccupancyManager() {
     this.headwayRule = HeadwayRule.fixed(Duration.ZERO);
     this.signalEventBus = new SignalEventBus(loggerManager::debug);
+    this.dispatchFlightRecorder = new DispatchFlightRecorder();
     this.occupancyManager =
-        new SimpleOccupancyManager(headwayRule, SignalAspectPolicy.defaultPolicy(), signalEventBus);
+        new SimpleOccupancyManager(
+            headwayRule,
+            SignalAspectPolicy.defaultPolicy(),
+            signalEventBus,
+            new SignalComputationTrace.Sink(
+                loggerManager::debug, loggerManager::isDebugEnabled, dispatchFlightRecorder));
   }
 
   private void initRouteDefinitionCache() {
     if (this.routeDefinitionCache == null) {
       this.routeDefinitionCache = new RouteDefinitionCache(loggerManager::debug);
     }
+    if (railGraphService != null) {
+      RouteDefinitionCache routes = routeDefinitionCache;
+      railGraphService.setPathPrewarmSource(
+          () -> routes.snapshot().values().stream().map(RouteDefinition::waypoints).toList());
+    }
     if (storageManager != null && storageManager.isReady()) {
       storageManager.provider().ifPresent(provider -> routeDefinitionCache.reload(provider));
     }
+    prewarmRoutePaths();
+  }
+
+  /** 线路定义变化后在后台预热各快照的相邻 waypoint 最短路缓存。 */
+  private void prewarmRoutePaths() {
+    if (railGraphService != null) {
+      railGraphService.prewarmRoutePaths();
+    }
   }
 
   /**
@@ -500,6 +579,7 @@ public final class FetaruteTCAddon extends JavaPlugin {
       return;
     }
     routeDefinitionCache.reload(provider);
+    prewarmRoutePaths();
   }
 
   /**
@@ -516,7 +596,10 @@ public final class FetaruteTCAddon extends JavaPlugin {
     if (provider == null || routeDefinitionCache == null) {
       return Optional.empty();
     }
-    return routeDefinitionCache.refresh(provider, operator, line, route);
+    Optional<RouteDefinition> refreshed =
+        routeDefinitionCache.refresh(provider, operator, line, route);
+    prewarmRoutePaths();
+    return refreshed;
   }
 
   /**
@@ -557,7 +640,9 @@ public final class FetaruteTCAddon extends JavaPlugin {
             configManager,
             storageManager,
             new TrainConfigResolver(),
-            loggerManager::debug);
+            loggerManager::debug,
+            dispatchFlightRecorder);
+    runtimeDispatchService.setDebugEnabled(loggerManager::isDebugEnabled);
     getServer()
         .getPluginManager()
         .registerEvents(new RuntimeDispatchListener(runtimeDispatchService), this);
@@ -568,6 +653,7 @@ public final class FetaruteTCAddon extends JavaPlugin {
     initHealthMonitor();
     restartHealthMonitorTask();
     restartRuntimeMonitor();
+    restartProgressTagFlush();
     initSignalEventDrivenComponents();
     getServer()
         .getScheduler()
@@ -631,6 +717,15 @@ public final class FetaruteTCAddon extends JavaPlugin {
             },
             loggerManager::debug);
     trainController.start();
+    // 资源释放只标记受影响列车为 dirty，由下一轮周期巡检评估
+    signalEventBus.subscribe(
+        OccupancyReleasedEvent.class,
+        event -> {
+          if (runtimeDispatchService != null) {
+            runtimeDispatchService.markSignalDirtyForResources(
+                event.releasedResources(), event.trainName());
+          }
+        });
     loggerManager.debug("信号事件驱动组件已启动");
   }
 
@@ -643,7 +738,7 @@ public final class FetaruteTCAddon extends JavaPlugin {
       return;
     }
     if (trainSnapshotStore == null) {
-      trainSnapshotStore = new TrainSnapshotStore();
+      trainSnapshotStore = new TrainSnapshotStore(loggerManager::warn);
     }
     etaRuntimeSampler = new EtaRuntimeSampler(routeProgressRegistry, trainSnapshotStore);
     etaService =
@@ -682,24 +777,59 @@ public final class FetaruteTCAddon extends JavaPlugin {
       runtimeMonitorTask.cancel();
       runtimeMonitorTask = null;
     }
+    runtimeSignalMonitor = null;
     if (runtimeDispatchService == null || configManager == null) {
       return;
     }
-    int interval = configManager.current().runtimeSettings().dispatchTickIntervalTicks();
+    ConfigManager.RuntimeSettings runtimeSettings = configManager.current().runtimeSettings();
+    runtimeDispatchService
+        .signalTickScheduler()
+        .configure(
+            runtimeSettings.signalDirtyScheduling(),
+            runtimeSettings.signalIdleRecheckTicks(),
+            runtimeSettings.signalSafetySweepTicks());
+    runtimeDispatchService.signalTickPlanner().configure(runtimeSettings.signalPlanWorkers());
+    int interval = runtimeSettings.dispatchTickIntervalTicks();
+    long tickBudgetNanos = (long) (runtimeSettings.monitorTickBudgetMs() * 1_000_000L);
+    runtimeSignalMonitor =
+        new RuntimeSignalMonitor(
+            runtimeDispatchService,
+            etaRuntimeSampler,
+            trainSnapshotStore,
+            dwellRegistry,
+            routeProgressRegistry,
+            routeDefinitionCache,
+            tickBudgetNanos,
+            interval);
+    // 分片模式需每 tick 调度，由巡检器自行按 interval 开始新一轮
+    long period = tickBudgetNanos > 0L ? 1L : interval;
     runtimeMonitorTask =
+        getServer().getScheduler().runTaskTimer(this, runtimeSignalMonitor, interval, period);
+  }
+
+  /**
+   * 重启进度 tag 刷新任务。
+   *
+   * <p>间隔为 0 时关闭 write-behind（推进时直接写 tag）；否则推进只更新内存，按间隔批量写回 TrainProperties。
+   */
+  private void restartProgressTagFlush() {
+    if (progressTagFlushTask != null) {
+      progressTagFlushTask.cancel();
+      progressTagFlushTask = null;
+    }
+    if (routeProgressRegistry == null || configManager == null) {
+      return;
+    }
+    int interval = configManager.current().runtimeSettings().progressTagFlushIntervalTicks();
+    RouteProgressRegistry registry = routeProgressRegistry;
+    registry.setWriteBehind(interval > 0);
+    if (interval <= 0) {
+      return;
+    }
+    progressTagFlushTask =
         getServer()
             .getScheduler()
-            .runTaskTimer(
-                this,
-                new RuntimeSignalMonitor(
-                    runtimeDispatchService,
-                    etaRuntimeSampler,
-                    trainSnapshotStore,
-                    dwellRegistry,
-                    routeProgressRegistry,
-                    routeDefinitionCache),
-                interval,
-                interval);
+            .runTaskTimer(this, () -> registry.flushPendingTags(), interval, interval);
   }
 
   /** 重启健康检查定时任务（与 RuntimeSignalMonitor 解耦，避免遗漏初始化或异常链路影响）。 */
@@ -716,6 +846,16 @@ public final class FetaruteTCAddon extends JavaPlugin {
         getServer().getScheduler().runTaskTimer(this, healthMonitor::tick, 20L, 20L);
   }
 
+  /** 返回运行时巡检器（若未启动则为空）。 */
+  public Optional<RuntimeSignalMonitor> getRuntimeSignalMonitor() {
+    return Optional.ofNullable(runtimeSignalMonitor);
+  }
+
+  /** 返回列车进度注册表（若未初始化则为空）。 */
+  public Optional<RouteProgressRegistry> getRouteProgressRegistry() {
+    return Optional.ofNullable(routeProgressRegistry);
+  }
+
   public Optional<DwellRegistry> getDwellRegistry() {
     return Optional.ofNullable(dwellRegistry);
   }
@@ -768,6 +908,17 @@ public final class FetaruteTCAddon extends JavaPlugin {
     healthMonitor.setAutoFixEnabled(settings.autoFixEnabled());
     healthMonitor.setOrphanCleanupEnabled(settings.orphanCleanupEnabled());
     healthMonitor.setTimeoutCleanupEnabled(settings.timeoutCleanupEnabled());
+    if (dispatchFlightRecorder != null) {
+      // 列车告警时把飞行记录落盘，便于事后复盘
+      healthMonitor
+          .alertBus()
+          .subscribe(
+              new org.fetarute.fetaruteTCAddon.dispatcher.health.FlightRecorderDumpListener(
+                  dispatchFlightRecorder,
+                  getDataFolder().toPath().resolve("flight-recorder"),
+                  task -> getServer().getScheduler().runTaskAsynchronously(this, task),
+                  loggerManager::debug));
+    }
     debug("健康监控器已初始化: enabled=" + settings.enabled());
   }
 
@@ -790,7 +941,12 @@ public final class FetaruteTCAddon extends JavaPlugin {
             spawnSettings.maxGeneratePerTick(),
             Math.max(1, spawnSettings.maxSpawnPerTick()),
             java.time.Duration.ofSeconds(spawnSettings.queuedTicketMaxAgeSeconds()));
-    this.spawnManager = new StorageSpawnManager(managerSettings, loggerManager::debug);
+    // 计划刷新会批量查询线网，放到异步线程构建，结果在 SpawnMonitor tick 中发布
+    this.spawnManager =
+        new StorageSpawnManager(
+            managerSettings,
+            loggerManager::debug,
+            task -> getServer().getScheduler().runTaskAsynchronously(this, task));
     TrainCartsDepotSpawner depotSpawner =
         new TrainCartsDepotSpawner(this, signNodeRegistry, loggerManager::debug);
     depotSpawner.setOccupancyManager(occupancyManager);
@@ -958,10 +1114,15 @@ public final class FetaruteTCAddon extends JavaPlugin {
       runtimeMonitorTask.cancel();
       runtimeMonitorTask = null;
     }
+    runtimeSignalMonitor = null;
     if (healthMonitorTask != null) {
       healthMonitorTask.cancel();
       healthMonitorTask = null;
     }
+    if (progressTagFlushTask != null) {
+      progressTagFlushTask.cancel();
+      progressTagFlushTask = null;
+    }
   }
 
   /** 初始化外部 API 模块，供外部插件访问调度数据。 */
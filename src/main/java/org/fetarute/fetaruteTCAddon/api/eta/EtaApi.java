@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -66,6 +67,17 @@ public interface EtaApi {
    */
   BoardResult getBoard(String stationId, String lineId, Duration horizon);
 
+  /**
+   * 批量查询站牌列表：一次计算多个站点，共享票据与预测快照。
+   *
+   * @param stationIds 站点标识（格式同 {@link #getBoard(String, String, Duration)}）
+   * @param lineId 线路代码（可选）
+   * @param horizon 时间窗口（可选，默认 10 分钟）
+   * @return stationId → 站牌列表（按入参顺序，不可变）
+   */
+  Map<String, BoardResult> getBoards(
+      Collection<String> stationIds, String lineId, Duration horizon);
+
   // ─────────────────────────────────────────────────────────────────────────────
   // 数据模型
   // ─────────────────────────────────────────────────────────────────────────────
@@ -3,7 +3,10 @@ package org.fetarute.fetaruteTCAddon.api.internal;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.fetarute.fetaruteTCAddon.api.eta.EtaApi;
@@ -66,6 +69,19 @@ public final class EtaApiImpl implements EtaApi {
     return convertBoard(board);
   }
 
+  @Override
+  public Map<String, BoardResult> getBoards(
+      Collection<String> stationIds, String lineId, Duration horizon) {
+    Duration useHorizon = horizon == null ? DEFAULT_BOARD_HORIZON : horizon;
+    Map<String, org.fetarute.fetaruteTCAddon.dispatcher.eta.BoardResult> boards =
+        etaService.getBoards(stationIds, lineId, useHorizon);
+    Map<String, BoardResult> out = new LinkedHashMap<>();
+    for (var entry : boards.entrySet()) {
+      out.put(entry.getKey(), convertBoard(entry.getValue()));
+    }
+    return Collections.unmodifiableMap(out);
+  }
+
   @Override
   public Optional<RuntimeSnapshot> getRuntimeSnapshot(String trainName) {
     if (trainName == null) {
@@ -48,11 +48,8 @@ public final class TrainApiImpl implements TrainApi {
     }
 
     List<TrainSnapshot> result = new ArrayList<>();
-    for (var entry : snapshotStore.snapshot().entrySet()) {
-      TrainRuntimeSnapshot snap = entry.getValue();
-      if (worldId.equals(snap.worldId())) {
-        result.add(convertSnapshot(entry.getKey(), snap));
-      }
+    for (var entry : snapshotStore.generation().inWorld(worldId).entrySet()) {
+      result.add(convertSnapshot(entry.getKey(), entry.getValue()));
     }
     return List.copyOf(result);
   }
@@ -76,7 +73,7 @@ public final class TrainApiImpl implements TrainApi {
 
   @Override
   public int activeTrainCount() {
-    return snapshotStore.snapshot().size();
+    return snapshotStore.size();
   }
 
   @Override
@@ -84,10 +81,7 @@ public final class TrainApiImpl implements TrainApi {
     if (worldId == null) {
       return 0;
     }
-    return (int)
-        snapshotStore.snapshot().values().stream()
-            .filter(snap -> worldId.equals(snap.worldId()))
-            .count();
+    return snapshotStore.generation().inWorld(worldId).size();
   }
 
   private TrainSnapshot convertSnapshot(String trainName, TrainRuntimeSnapshot snap) {
@@ -798,8 +798,7 @@ public final class FtaDepotCommand {
           if (registry == null) {
             return suggestions;
           }
-          registry.snapshotInfos().values().stream()
-              .filter(info -> info != null && info.definition() != null)
+          registry.infos().stream()
               .filter(info -> info.definition().nodeType() == NodeType.DEPOT)
               .map(info -> info.definition().nodeId().value())
               .filter(Objects::nonNull)
@@ -873,8 +872,7 @@ public final class FtaDepotCommand {
   }
 
   private static Optional<SignNodeInfo> findDepotNode(SignNodeRegistry registry, NodeId nodeId) {
-    return registry.snapshotInfos().values().stream()
-        .filter(info -> info != null && info.definition() != null)
+    return registry.findAllByNodeId(nodeId.value()).stream()
         .filter(info -> nodeId.equals(info.definition().nodeId()))
         .findFirst();
   }
@@ -1090,6 +1088,7 @@ public final class FtaDepotCommand {
     }
     if (!out.isEmpty()) {
       properties.addTags(out.toArray(new String[0]));
+      TrainTagHelper.invalidate(properties);
     }
   }
 
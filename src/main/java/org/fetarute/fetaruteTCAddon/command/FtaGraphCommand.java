@@ -72,6 +72,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailGraphExplorer;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.TrainCartsRailBlockAccess;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeOverrideRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphDeltaWriter;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphSnapshotRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
@@ -133,6 +134,7 @@ public final class FtaGraphCommand {
 
   private final FetaruteTCAddon plugin;
   private static final int VALIDATION_ISSUE_LIMIT = 20;
+  private static final Duration GRAPH_WRITE_AWAIT_TIMEOUT = Duration.ofSeconds(10);
 
   /** 世界维度的构建任务：同一世界同一时间只允许一个 build/continue 任务运行。 */
   private final ConcurrentMap<UUID, RailGraphBuildJob> jobs = new ConcurrentHashMap<>();
@@ -145,8 +147,22 @@ public final class FtaGraphCommand {
   private final ConcurrentMap<GraphBuildCacheKey, RailGraphBuildContinuation> continuations =
       new ConcurrentHashMap<>();
 
+  /**
+   * 调度图增量写入器：差异计算与 SQL 写入在异步线程执行，同一世界串行。
+   *
+   * <p>优先复用插件级写入器（与建牌/拆牌的局部更新共用队列）。
+   */
+  private final RailGraphDeltaWriter graphWriter;
+
   public FtaGraphCommand(FetaruteTCAddon plugin) {
     this.plugin = Objects.requireNonNull(plugin, "plugin");
+    RailGraphDeltaWriter shared = plugin.getRailGraphWriter();
+    this.graphWriter =
+        shared != null
+            ? shared
+            : new RailGraphDeltaWriter(
+                task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task),
+                message -> plugin.getLoggerManager().debug(message));
   }
 
   /**
@@ -6355,6 +6371,7 @@ public final class FtaGraphCommand {
           case APPEND -> "append";
           case UPSERT -> "upsert";
           case REPLACE_COMPONENTS -> "replace";
+          case SPLICE -> "splice";
         };
     return locale.component(
         "command.graph.build.merged",
@@ -6420,7 +6437,10 @@ public final class FtaGraphCommand {
   /**
    * 把调度图快照写入存储（SQL）。
    *
-   * <p>实现为“按世界 replace”：每次写入会覆盖该世界原有的 rail_nodes/rail_edges/rail_graph_snapshots 记录。
+   * <p>主线程只准备记录，差异计算与写入交给 {@link RailGraphDeltaWriter} 异步执行：只 upsert/delete 变化的
+   * rail_nodes/rail_edges 行，并更新 rail_graph_snapshots（含分量签名）。写入结果与旧版“按世界 replace”一致。
+   *
+   * <p>写入成功后刷新二进制快照缓存，供下次启动直接加载。
    *
    * <p>当存储未就绪（例如启动失败回退为占位存储）时，该方法会直接 no-op。
    */
@@ -6449,23 +6469,24 @@ public final class FtaGraphCommand {
             .toList();
     List<RailNodeRecord> nodes = result.nodes();
 
-    try {
-      provider
-          .transactionManager()
-          .execute(
-              () -> {
-                provider.railNodes().replaceWorld(worldId, nodes);
-                provider.railEdges().replaceWorld(worldId, edges);
-                provider
-                    .railGraphSnapshots()
-                    .save(
-                        new RailGraphSnapshotRecord(
-                            worldId, builtAt, nodes.size(), edges.size(), result.nodeSignature()));
-                return null;
-              });
-    } catch (Exception ex) {
-      plugin.getLogger().warning("持久化调度图失败: " + ex.getMessage());
-    }
+    RailGraphSnapshotRecord snapshot =
+        new RailGraphSnapshotRecord(
+            worldId, builtAt, nodes.size(), edges.size(), result.nodeSignature());
+    RailGraphService railGraphService = plugin.getRailGraphService();
+    long cacheStamp = railGraphService != null ? railGraphService.binarySnapshotStamp(worldId) : 0L;
+    graphWriter
+        .submit(provider, snapshot, nodes, edges)
+        .whenComplete(
+            (delta, error) -> {
+              if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                plugin.getLogger().warning("持久化调度图失败: " + cause.getMessage());
+                return;
+              }
+              if (railGraphService != null) {
+                railGraphService.writeBinarySnapshot(cacheStamp, snapshot, nodes, edges);
+              }
+            });
   }
 
   /**
@@ -6484,6 +6505,12 @@ public final class FtaGraphCommand {
     }
     StorageProvider provider = providerOpt.get();
     UUID worldId = world.getUID();
+    if (!graphWriter.awaitPending(worldId, GRAPH_WRITE_AWAIT_TIMEOUT)) {
+      plugin.getLogger().warning("等待调度图写入超时，仍继续删除: world=" + world.getName());
+    }
+    if (plugin.getRailGraphService() != null) {
+      plugin.getRailGraphService().invalidateBinarySnapshot(worldId);
+    }
     try {
       return provider
           .transactionManager()
@@ -5,6 +5,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -14,6 +15,8 @@ import org.fetarute.fetaruteTCAddon.FetaruteTCAddon;
 import org.fetarute.fetaruteTCAddon.dispatcher.health.HealthAlert;
 import org.fetarute.fetaruteTCAddon.dispatcher.health.HealthMonitor;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RuntimeDispatchService.TrainRuntimeState;
+import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RuntimeSignalMonitor;
+import org.fetarute.fetaruteTCAddon.dispatcher.runtime.SignalTickPlanner;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
 import org.incendo.cloud.CommandManager;
 import org.incendo.cloud.parser.standard.IntegerParser;
@@ -173,9 +176,92 @@ public final class FtaHealthCommand {
         Component.text("最近告警数: ", NamedTextColor.GRAY)
             .append(
                 Component.text(String.valueOf(diag.recentAlerts().size()), NamedTextColor.YELLOW)));
+    sendMonitorTimings(sender);
     sender.sendMessage(healthActions());
   }
 
+  /** 输出运行时巡检最近一轮的分片与各阶段耗时。 */
+  private void sendMonitorTimings(CommandSender sender) {
+    Optional<RuntimeSignalMonitor> monitorOpt = plugin.getRuntimeSignalMonitor();
+    if (monitorOpt.isEmpty() || monitorOpt.get().completedCycles() == 0L) {
+      return;
+    }
+    RuntimeSignalMonitor.CycleStats stats = monitorOpt.get().lastCycleStats();
+    String budget = stats.sliced() ? formatMillis(stats.tickBudgetNanos()) + "ms" : "不分片";
+    sender.sendMessage(
+        Component.text("巡检周期: ", NamedTextColor.GRAY)
+            .append(
+                Component.text(
+                    "列车="
+                        + stats.trains()
+                        + " 紧急="
+                        + stats.urgentTrains()
+                        + " 评估/跳过="
+                        + stats.evaluated()
+                        + "/"
+                        + stats.skipped()
+                        + " 跨 tick="
+                        + stats.slices()
+                        + " 预算="
+                        + budget,
+                    NamedTextColor.WHITE)));
+    sender.sendMessage(
+        Component.text("巡检耗时: ", NamedTextColor.GRAY)
+            .append(
+                Component.text(
+                    "收集="
+                        + formatMillis(stats.collectNanos())
+                        + "ms 信号="
+                        + formatMillis(stats.signalNanos())
+                        + "ms 采样="
+                        + formatMillis(stats.sampleNanos())
+                        + "ms 清理="
+                        + formatMillis(stats.cleanupNanos())
+                        + "ms",
+                    NamedTextColor.WHITE)));
+    NamedTextColor sliceColor =
+        stats.overBudgetSlices() > 0 ? NamedTextColor.YELLOW : NamedTextColor.WHITE;
+    sender.sendMessage(
+        Component.text("单 tick 最长: ", NamedTextColor.GRAY)
+            .append(Component.text(formatMillis(stats.maxSliceNanos()) + "ms", sliceColor))
+            .append(
+                Component.text(
+                    " 超预算=" + stats.overBudgetSlices() + " 清理推迟=" + stats.cleanupDeferrals(),
+                    sliceColor)));
+    Optional<SignalTickPlanner.Stats> planOpt =
+        plugin.getRuntimeDispatchService().map(dispatch -> dispatch.signalTickPlanner().stats());
+    if (planOpt.isEmpty()) {
+      return;
+    }
+    SignalTickPlanner.Stats plan = planOpt.get();
+    String workers = plan.workers() > 0 ? "线程=" + plan.workers() : "关闭";
+    sender.sendMessage(
+        Component.text("并行预计算: ", NamedTextColor.GRAY)
+            .append(
+                Component.text(
+                    workers
+                        + " 命中="
+                        + plan.hits()
+                        + " 主线程接管="
+                        + plan.stolen()
+                        + " 失效="
+                        + plan.stale()
+                        + " 同步="
+                        + plan.inline()
+                        + " 放弃计算中="
+                        + plan.abandoned()
+                        + " 队列拒绝="
+                        + plan.rejected()
+                        + " 命中率="
+                        + String.format(Locale.ROOT, "%.0f%%", plan.offloadRatio() * 100.0)
+                        + " 累计耗时(工作线程/主线程)="
+                        + formatMillis(plan.workerNanos())
+                        + "/"
+                        + formatMillis(plan.mainNanos())
+                        + "ms",
+                    NamedTextColor.WHITE)));
+  }
+
   private void handleAlerts(CommandSender sender, int limit) {
     Optional<HealthMonitor> monitorOpt = plugin.getHealthMonitor();
     if (monitorOpt.isEmpty()) {
@@ -330,6 +416,10 @@ public final class FtaHealthCommand {
                 CommandUx.suggestAction("[heal]", "/fta health heal ", "填充修复命令；可补列车名")));
   }
 
+  private static String formatMillis(long nanos) {
+    return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+  }
+
   private String formatDuration(Duration d) {
     if (d.toHours() > 0) {
       return d.toHours() + "小时";
@@ -126,6 +126,11 @@ public final class FtaInfoCommand {
         locale.component("command.help.entry-template"),
         ClickEvent.suggestCommand("/fta template "),
         locale.component("command.help.hover-template"));
+    sendHelpEntry(
+        sender,
+        locale.component("command.help.entry-storage"),
+        ClickEvent.runCommand("/fta storage stats"),
+        locale.component("command.help.hover-storage"));
     sendHelpEntry(
         sender,
         locale.component("command.help.entry-reload"),
@@ -1253,10 +1253,8 @@ public final class FtaLineCommand {
       return false;
     }
     String trimmed = nodeId.trim();
-    return registry.snapshotInfos().values().stream()
-        .filter(info -> info != null && info.definition() != null)
-        .filter(info -> info.definition().nodeType() == NodeType.DEPOT)
-        .anyMatch(info -> trimmed.equalsIgnoreCase(info.definition().nodeId().value()));
+    return registry.findAllByNodeId(trimmed).stream()
+        .anyMatch(info -> info.definition().nodeType() == NodeType.DEPOT);
   }
 
   private SuggestionProvider<CommandSender> placeholderSuggestion(String placeholder) {
@@ -23,6 +23,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RuntimeDispatchService;
+import org.fetarute.fetaruteTCAddon.dispatcher.runtime.SignalTickScheduler;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.AuthorizationPurpose;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.CorridorDirection;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyClaim;
@@ -343,25 +344,42 @@ public final class FtaOccupancyCommand {
     sender.sendMessage(
         locale.component(
             "command.occupancy.stats.signal",
-            Map.of(
-                "path_hit",
-                String.valueOf(signalStats.pathCacheHit()),
-                "path_miss",
-                String.valueOf(signalStats.pathCacheMiss()),
-                "direction_hit",
-                String.valueOf(signalStats.directionCacheHit()),
-                "direction_miss",
-                String.valueOf(signalStats.directionCacheMiss()),
-                "envelope_builds",
-                String.valueOf(signalStats.envelopeBuildCount()),
-                "dirty",
-                String.valueOf(signalStats.dirtyTrainCount()),
-                "coalesced",
-                String.valueOf(signalStats.coalescedEventCount()),
-                "reentrant_stop",
-                String.valueOf(signalStats.reentrantStopSuppressed()),
-                "stale_queue",
-                String.valueOf(signalStats.staleQueueCleanupCount()))));
+            Map.ofEntries(
+                Map.entry("path_hit", String.valueOf(signalStats.pathCacheHit())),
+                Map.entry("path_miss", String.valueOf(signalStats.pathCacheMiss())),
+                Map.entry("path_evict", String.valueOf(signalStats.pathCacheEvictions())),
+                Map.entry("path_stale", String.valueOf(signalStats.pathCacheStaleServes())),
+                Map.entry("path_invalid", String.valueOf(signalStats.pathCacheInvalidations())),
+                Map.entry("direction_hit", String.valueOf(signalStats.directionCacheHit())),
+                Map.entry("direction_miss", String.valueOf(signalStats.directionCacheMiss())),
+                Map.entry("envelope_builds", String.valueOf(signalStats.envelopeBuildCount())),
+                Map.entry("dirty", String.valueOf(signalStats.dirtyTrainCount())),
+                Map.entry("coalesced", String.valueOf(signalStats.coalescedEventCount())),
+                Map.entry("reentrant_stop", String.valueOf(signalStats.reentrantStopSuppressed())),
+                Map.entry("stale_queue", String.valueOf(signalStats.staleQueueCleanupCount())),
+                Map.entry("resource_query_hit", String.valueOf(signalStats.resourceQueryHits())),
+                Map.entry("resource_query", String.valueOf(signalStats.resourceQueryCount())),
+                Map.entry(
+                    "resource_query_avg_us",
+                    String.format(Locale.ROOT, "%.1f", signalStats.resourceQueryAvgMicros())))));
+    if (dispatch != null) {
+      SignalTickScheduler.Stats scheduleStats = dispatch.signalTickScheduler().stats();
+      sender.sendMessage(
+          locale.component(
+              "command.occupancy.stats.signal-schedule",
+              Map.ofEntries(
+                  Map.entry("mode", scheduleStats.enabled() ? "dirty" : "full"),
+                  Map.entry("evaluated", String.valueOf(scheduleStats.lastRun().evaluated())),
+                  Map.entry("skipped", String.valueOf(scheduleStats.lastRun().skipped())),
+                  Map.entry("dirty", String.valueOf(scheduleStats.lastRun().dirty())),
+                  Map.entry("sweep", String.valueOf(scheduleStats.lastRun().safetySweep())),
+                  Map.entry("pending", String.valueOf(scheduleStats.pendingDirty())),
+                  Map.entry("total_evaluated", String.valueOf(scheduleStats.totalEvaluated())),
+                  Map.entry("total_skipped", String.valueOf(scheduleStats.totalSkipped())),
+                  Map.entry(
+                      "skip_ratio",
+                      String.format(Locale.ROOT, "%.1f", scheduleStats.skipRatio() * 100.0)))));
+    }
 
     for (var entry : topSpawnErrors) {
       sender.sendMessage(
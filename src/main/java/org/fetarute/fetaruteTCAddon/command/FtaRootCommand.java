@@ -121,6 +121,9 @@ public final class FtaRootCommand implements CommandExecutor, TabCompleter {
     if (sender.hasPermission("fetarute.reload")) {
       options.add("reload");
     }
+    if (sender.hasPermission("fetarute.storage") || sender.hasPermission("fetarute.admin")) {
+      options.add("storage");
+    }
 
     if (args.length == 0) {
       return options;
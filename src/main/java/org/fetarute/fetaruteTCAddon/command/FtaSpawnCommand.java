@@ -36,6 +36,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.SpawnGroup;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.SpawnPlan;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.SpawnService;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.SpawnTicket;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.StorageSpawnManager;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
 import org.fetarute.fetaruteTCAddon.utils.LocaleManager;
 import org.incendo.cloud.CommandManager;
@@ -507,6 +508,20 @@ public final class FtaSpawnCommand {
                 Map.entry("max_generate", String.valueOf(settings.maxGeneratePerTick())),
                 Map.entry("success", String.valueOf(success)),
                 Map.entry("retries", String.valueOf(retries)))));
+    if (mgrOpt.get() instanceof StorageSpawnManager storageSpawnManager) {
+      StorageSpawnManager.PlanBuildStats build = storageSpawnManager.planBuildStats();
+      sender.sendMessage(
+          locale.component(
+              "command.spawn.debug.plan-build",
+              Map.of(
+                  "builds", String.valueOf(build.builds()),
+                  "failures", String.valueOf(build.failures()),
+                  "routes", String.valueOf(build.lastRoutes()),
+                  "load_ms", formatNanosMillis(build.lastLoadNanos()),
+                  "build_ms", formatNanosMillis(build.lastBuildNanos()),
+                  "avg_ms", formatNanosMillis(build.averageTotalNanos()),
+                  "max_ms", formatNanosMillis(build.maxTotalNanos()))));
+    }
     sender.sendMessage(spawnNavigationActions());
 
     Instant now = Instant.now();
@@ -1294,6 +1309,10 @@ public final class FtaSpawnCommand {
     return instant.toString();
   }
 
+  private static String formatNanosMillis(long nanos) {
+    return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+  }
+
   /**
    * 格式化 Duration 为人类可读字符串（如 "2m30s"）。
    *
@@ -1,13 +1,21 @@
 package org.fetarute.fetaruteTCAddon.command;
 
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import org.bukkit.command.CommandSender;
 import org.fetarute.fetaruteTCAddon.FetaruteTCAddon;
+import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RouteProgressRegistry;
+import org.fetarute.fetaruteTCAddon.storage.StorageManager;
+import org.fetarute.fetaruteTCAddon.storage.async.AsyncStorage;
+import org.fetarute.fetaruteTCAddon.storage.async.AsyncStorageExecutor;
+import org.fetarute.fetaruteTCAddon.utils.LocaleManager;
 import org.incendo.cloud.CommandManager;
 
 /**
- * 存储与配置相关命令入口：/fta reload。
+ * 存储与配置相关命令入口：/fta reload、/fta storage stats。
  *
- * <p>用于触发配置与语言文件的重载。
+ * <p>用于触发配置与语言文件的重载，以及查看存储异步队列的深度与耗时、列车进度 tag 的批量写回情况。
  */
 public final class FtaStorageCommand {
 
@@ -28,5 +36,108 @@ public final class FtaStorageCommand {
                   // 主动触发配置与语言重载，供运维快速刷新生效。
                   plugin.reloadFromCommand(ctx.sender());
                 }));
+
+    manager.command(
+        manager
+            .commandBuilder("fta")
+            .literal("storage")
+            .literal("stats")
+            .permission("fetarute.storage")
+            .handler(ctx -> sendStats(ctx.sender())));
+  }
+
+  private void sendStats(CommandSender sender) {
+    LocaleManager locale = plugin.getLocaleManager();
+    StorageManager storageManager = plugin.getStorageManager();
+    Optional<AsyncStorage> asyncOpt =
+        storageManager == null ? Optional.empty() : storageManager.async();
+    if (asyncOpt.isEmpty()) {
+      sender.sendMessage(locale.component("command.storage.stats.not-ready"));
+      sendProgressTagStats(sender, locale);
+      return;
+    }
+    AsyncStorageExecutor.Stats stats = asyncOpt.get().stats();
+    sender.sendMessage(
+        locale.component(
+            "command.storage.stats.header",
+            Map.of("backend", storageManager.backend().name().toLowerCase(Locale.ROOT))));
+    sender.sendMessage(
+        locale.component(
+            "command.storage.stats.workers",
+            Map.of(
+                "workers",
+                String.valueOf(stats.workers()),
+                "active",
+                String.valueOf(stats.active()),
+                "mode",
+                stats.virtualThreads() ? "virtual" : "platform")));
+    sender.sendMessage(
+        locale.component(
+            "command.storage.stats.queue",
+            Map.of(
+                "depth",
+                String.valueOf(stats.queueDepth()),
+                "pending",
+                String.valueOf(stats.pendingWriteKeys()))));
+    sender.sendMessage(
+        locale.component(
+            "command.storage.stats.counters",
+            Map.of(
+                "submitted",
+                String.valueOf(stats.submitted()),
+                "completed",
+                String.valueOf(stats.completed()),
+                "failed",
+                String.valueOf(stats.failed()),
+                "rejected",
+                String.valueOf(stats.rejected()),
+                "coalesced",
+                String.valueOf(stats.coalesced()))));
+    sender.sendMessage(
+        locale.component(
+            "command.storage.stats.latency",
+            Map.of(
+                "wait",
+                formatMillis(stats.avgWaitMillis()),
+                "run",
+                formatMillis(stats.avgRunMillis()),
+                "max",
+                formatMillis(stats.maxRunMillis()))));
+    sendProgressTagStats(sender, locale);
+  }
+
+  /** 列车进度 tag 的 write-behind 刷新指标（与存储后端无关，后端未就绪时也输出）。 */
+  private void sendProgressTagStats(CommandSender sender, LocaleManager locale) {
+    Optional<RouteProgressRegistry> registryOpt = plugin.getRouteProgressRegistry();
+    if (registryOpt.isEmpty()) {
+      return;
+    }
+    RouteProgressRegistry.WriteBehindStats stats = registryOpt.get().writeBehindStats();
+    sender.sendMessage(
+        locale.component(
+            "command.storage.stats.progress-tags",
+            Map.of(
+                "mode",
+                stats.enabled() ? "write-behind" : "write-through",
+                "pending",
+                String.valueOf(stats.pending()),
+                "deferred",
+                String.valueOf(stats.deferredWrites()),
+                "batches",
+                String.valueOf(stats.flushBatches()),
+                "flushed",
+                String.valueOf(stats.flushedEntries()))));
+    sender.sendMessage(
+        locale.component(
+            "command.storage.stats.progress-tags-lag",
+            Map.of(
+                "last",
+                String.valueOf(stats.lastFlushLagMillis()),
+                "max",
+                String.valueOf(stats.maxFlushLagMillis()))));
+  }
+
+  private static String formatMillis(double millis) {
+    return String.format(Locale.ROOT, "%.2f", millis);
   }
 }
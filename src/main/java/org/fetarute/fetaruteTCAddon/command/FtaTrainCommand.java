@@ -37,6 +37,8 @@ import org.fetarute.fetaruteTCAddon.dispatcher.runtime.TrainTagHelper;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.config.TrainConfig;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.config.TrainConfigResolver;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.config.TrainType;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.TrainNameNormalizer;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.DispatchFlightRecorder;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
 import org.fetarute.fetaruteTCAddon.utils.LocaleManager;
 import org.incendo.cloud.CommandManager;
@@ -50,6 +52,7 @@ import org.incendo.cloud.suggestion.SuggestionProvider;
 public final class FtaTrainCommand {
 
   private static final int SUGGESTION_LIMIT = 20;
+  private static final int TRACE_LIMIT = 20;
   private static final String TRAIN_SELECTOR_PREFIX = "@train[";
   private static final List<String> TRAIN_SELECTOR_KEYS =
       List.of(
@@ -290,7 +293,21 @@ public final class FtaTrainCommand {
                         ((String) ctx.get("route")).trim(),
                         ctx.optional("index_or_node").map(String.class::cast))));
 
-    // debug 子命令：显示控车诊断数据。泛化的 [train] 放在具体子命令之后注册，避免吞掉 list/set。
+    // debug trace 子命令：显示飞行记录器中最近的信号决策
+    manager.command(
+        manager
+            .commandBuilder("fta")
+            .literal("train")
+            .literal("debug")
+            .literal("trace")
+            .permission("fetarute.train.debug")
+            .optional("train", StringParser.quotedStringParser(), trainSuggestions)
+            .handler(
+                ctx ->
+                    handleDebugTrace(
+                        ctx.sender(), ctx.optional("train").map(String.class::cast))));
+
+    // debug 子命令：显示控车诊断数据。泛化的 [train] 放在具体子命令之后注册，避免吞掉 list/set/trace。
     manager.command(
         manager
             .commandBuilder("fta")
@@ -334,6 +351,39 @@ public final class FtaTrainCommand {
     }
   }
 
+  /** 输出飞行记录器中最近的信号决策（按时间从旧到新，最多 {@link #TRACE_LIMIT} 条）。 */
+  private void handleDebugTrace(CommandSender sender, Optional<String> trainArg) {
+    LocaleManager locale = plugin.getLocaleManager();
+    DispatchFlightRecorder recorder = plugin.getDispatchFlightRecorder();
+    if (recorder == null) {
+      sender.sendMessage(locale.component("command.train.debug.unavailable"));
+      return;
+    }
+    List<TrainProperties> targets = resolveTrainTargets(sender, trainArg, locale);
+    if (targets.isEmpty()) {
+      return;
+    }
+    for (TrainProperties properties : targets) {
+      String trainName = properties.getTrainName();
+      List<DispatchFlightRecorder.Entry> entries =
+          recorder.snapshot(TrainNameNormalizer.normalizeKey(trainName));
+      if (entries.isEmpty()) {
+        sender.sendMessage(
+            locale.component("command.train.debug.trace-empty", Map.of("train", trainName)));
+        continue;
+      }
+      sender.sendMessage(
+          locale.component(
+              "command.train.debug.trace-header",
+              Map.of("train", trainName, "count", String.valueOf(entries.size()))));
+      int from = Math.max(0, entries.size() - TRACE_LIMIT);
+      for (DispatchFlightRecorder.Entry entry : entries.subList(from, entries.size())) {
+        sender.sendMessage(
+            locale.component("command.train.debug.trace-entry", Map.of("entry", entry.format())));
+      }
+    }
+  }
+
   /**
    * 手动写入 route tags（company/operator/line/route + index），用于在线调试与复现问题。
    *
@@ -1110,6 +1160,11 @@ public final class FtaTrainCommand {
         locale.component("command.train.help.entry-debug-list"),
         ClickEvent.suggestCommand("/fta train debug list"),
         locale.component("command.train.help.hover-debug-list"));
+    sendHelpEntry(
+        sender,
+        locale.component("command.train.help.entry-debug-trace"),
+        ClickEvent.suggestCommand("/fta train debug trace "),
+        locale.component("command.train.help.hover-debug-trace"));
     sendHelpEntry(
         sender,
         locale.component("command.train.help.entry-debug-set-route"),
@@ -14,6 +14,9 @@ public interface LineRepository {
 
   List<Line> listByOperator(UUID operatorId);
 
+  /** 一次性列出全部线路（用于批量构建内存模型，避免按运营商逐个查询）。 */
+  List<Line> listAll();
+
   Line save(Line line);
 
   void delete(UUID id);
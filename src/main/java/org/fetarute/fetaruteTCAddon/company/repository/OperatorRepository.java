@@ -14,6 +14,9 @@ public interface OperatorRepository {
 
   List<Operator> listByCompany(UUID companyId);
 
+  /** 一次性列出全部运营商（用于批量构建内存模型，避免按公司逐个查询）。 */
+  List<Operator> listAll();
+
   Operator save(Operator operator);
 
   void delete(UUID id);
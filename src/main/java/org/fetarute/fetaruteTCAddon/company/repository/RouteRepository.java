@@ -14,6 +14,9 @@ public interface RouteRepository {
 
   List<Route> listByLine(UUID lineId);
 
+  /** 一次性列出全部 Route（用于批量构建内存模型，避免按线路逐个查询）。 */
+  List<Route> listAll();
+
   Route save(Route route);
 
   void delete(UUID id);
@@ -9,6 +9,9 @@ public interface RouteStopRepository {
 
   List<RouteStop> listByRoute(UUID routeId);
 
+  /** 一次性列出全部 RouteStop，按 routeId、sequence 升序（调用方自行按 route 分组）。 */
+  List<RouteStop> listAll();
+
   RouteStop save(RouteStop stop);
 
   void delete(UUID routeId, int sequence);
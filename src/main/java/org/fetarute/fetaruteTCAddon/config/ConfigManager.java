@@ -15,7 +15,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.runtime.config.TrainType;
  */
 public final class ConfigManager {
 
-  private static final int EXPECTED_CONFIG_VERSION = 24;
+  private static final int EXPECTED_CONFIG_VERSION = 28;
   private static final String DEFAULT_LOCALE = "zh_CN";
   private static final double DEFAULT_GRAPH_SPEED_BLOCKS_PER_SECOND = 8.0;
   private static final int DEFAULT_GRAPH_SIGN_ANCHOR_SEARCH_RADIUS = 6;
@@ -67,6 +67,13 @@ public final class ConfigManager {
   private static final int DEFAULT_STALE_QUEUE_ENTRY_TTL_SECONDS = 30;
   private static final int DEFAULT_FOLLOWING_MIN_CLEAR_BLOCKS = 2;
   private static final int DEFAULT_FOLLOWING_STOP_MARGIN_BLOCKS = 4;
+  private static final int DEFAULT_PROGRESS_TAG_FLUSH_INTERVAL_TICKS = 20;
+  private static final boolean DEFAULT_SIGNAL_DIRTY_SCHEDULING = true;
+  private static final int DEFAULT_SIGNAL_IDLE_RECHECK_TICKS = 40;
+  private static final int DEFAULT_SIGNAL_SAFETY_SWEEP_TICKS = 200;
+  private static final double DEFAULT_MONITOR_TICK_BUDGET_MS = 2.0;
+  private static final int DEFAULT_SIGNAL_PLAN_WORKERS = 2;
+  private static final int MAX_SIGNAL_PLAN_WORKERS = 8;
   private static final double DEFAULT_EMU_ACCEL_BPS2 = 0.8;
   private static final double DEFAULT_EMU_DECEL_BPS2 = 1.0;
   private static final double DEFAULT_DMU_ACCEL_BPS2 = 0.7;
@@ -510,6 +517,12 @@ public final class ConfigManager {
     int staleQueueEntryTtlSeconds = DEFAULT_STALE_QUEUE_ENTRY_TTL_SECONDS;
     int followingMinClearBlocks = DEFAULT_FOLLOWING_MIN_CLEAR_BLOCKS;
     int followingStopMarginBlocks = DEFAULT_FOLLOWING_STOP_MARGIN_BLOCKS;
+    int progressTagFlushIntervalTicks = DEFAULT_PROGRESS_TAG_FLUSH_INTERVAL_TICKS;
+    boolean signalDirtyScheduling = DEFAULT_SIGNAL_DIRTY_SCHEDULING;
+    int signalIdleRecheckTicks = DEFAULT_SIGNAL_IDLE_RECHECK_TICKS;
+    int signalSafetySweepTicks = DEFAULT_SIGNAL_SAFETY_SWEEP_TICKS;
+    double monitorTickBudgetMs = DEFAULT_MONITOR_TICK_BUDGET_MS;
+    int signalPlanWorkers = DEFAULT_SIGNAL_PLAN_WORKERS;
     if (section != null) {
       ConfigurationSection hud = section.getConfigurationSection("hud");
       if (hud != null) {
@@ -772,6 +785,34 @@ public final class ConfigManager {
         logger.warning("runtime.following-stop-margin-blocks 配置无效: " + followingStopMarginBlocks);
         followingStopMarginBlocks = DEFAULT_FOLLOWING_STOP_MARGIN_BLOCKS;
       }
+      progressTagFlushIntervalTicks =
+          section.getInt("progress-tag-flush-interval-ticks", progressTagFlushIntervalTicks);
+      if (progressTagFlushIntervalTicks < 0) {
+        logger.warning(
+            "runtime.progress-tag-flush-interval-ticks 配置无效: " + progressTagFlushIntervalTicks);
+        progressTagFlushIntervalTicks = DEFAULT_PROGRESS_TAG_FLUSH_INTERVAL_TICKS;
+      }
+      signalDirtyScheduling = section.getBoolean("signal-dirty-scheduling", signalDirtyScheduling);
+      signalIdleRecheckTicks = section.getInt("signal-idle-recheck-ticks", signalIdleRecheckTicks);
+      if (signalIdleRecheckTicks <= 0) {
+        logger.warning("runtime.signal-idle-recheck-ticks 配置无效: " + signalIdleRecheckTicks);
+        signalIdleRecheckTicks = DEFAULT_SIGNAL_IDLE_RECHECK_TICKS;
+      }
+      signalSafetySweepTicks = section.getInt("signal-safety-sweep-ticks", signalSafetySweepTicks);
+      if (signalSafetySweepTicks <= 0) {
+        logger.warning("runtime.signal-safety-sweep-ticks 配置无效: " + signalSafetySweepTicks);
+        signalSafetySweepTicks = DEFAULT_SIGNAL_SAFETY_SWEEP_TICKS;
+      }
+      monitorTickBudgetMs = section.getDouble("monitor-tick-budget-ms", monitorTickBudgetMs);
+      if (!Double.isFinite(monitorTickBudgetMs) || monitorTickBudgetMs < 0.0) {
+        logger.warning("runtime.monitor-tick-budget-ms 配置无效: " + monitorTickBudgetMs);
+        monitorTickBudgetMs = DEFAULT_MONITOR_TICK_BUDGET_MS;
+      }
+      signalPlanWorkers = section.getInt("signal-plan-workers", signalPlanWorkers);
+      if (signalPlanWorkers < 0 || signalPlanWorkers > MAX_SIGNAL_PLAN_WORKERS) {
+        logger.warning("runtime.signal-plan-workers 配置无效: " + signalPlanWorkers);
+        signalPlanWorkers = DEFAULT_SIGNAL_PLAN_WORKERS;
+      }
     }
     return new RuntimeSettings(
         tickInterval,
@@ -809,6 +850,12 @@ public final class ConfigManager {
         staleQueueEntryTtlSeconds,
         followingMinClearBlocks,
         followingStopMarginBlocks,
+        progressTagFlushIntervalTicks,
+        signalDirtyScheduling,
+        signalIdleRecheckTicks,
+        signalSafetySweepTicks,
+        monitorTickBudgetMs,
+        signalPlanWorkers,
         hudBossBarEnabled,
         hudBossBarTickInterval,
         hudBossBarTemplate,
@@ -1136,6 +1183,12 @@ public final class ConfigManager {
       int staleQueueEntryTtlSeconds,
       int followingMinClearBlocks,
       int followingStopMarginBlocks,
+      int progressTagFlushIntervalTicks,
+      boolean signalDirtyScheduling,
+      int signalIdleRecheckTicks,
+      int signalSafetySweepTicks,
+      double monitorTickBudgetMs,
+      int signalPlanWorkers,
       boolean hudBossBarEnabled,
       int hudBossBarTickIntervalTicks,
       Optional<String> hudBossBarTemplate,
@@ -1236,6 +1289,21 @@ public final class ConfigManager {
       if (followingStopMarginBlocks < 0) {
         throw new IllegalArgumentException("followingStopMarginBlocks 必须为非负数");
       }
+      if (progressTagFlushIntervalTicks < 0) {
+        throw new IllegalArgumentException("progressTagFlushIntervalTicks 必须为非负数");
+      }
+      if (signalIdleRecheckTicks <= 0) {
+        throw new IllegalArgumentException("signalIdleRecheckTicks 必须为正数");
+      }
+      if (signalSafetySweepTicks <= 0) {
+        throw new IllegalArgumentException("signalSafetySweepTicks 必须为正数");
+      }
+      if (!Double.isFinite(monitorTickBudgetMs) || monitorTickBudgetMs < 0.0) {
+        throw new IllegalArgumentException("monitorTickBudgetMs 必须为非负数");
+      }
+      if (signalPlanWorkers < 0) {
+        throw new IllegalArgumentException("signalPlanWorkers 必须为非负数");
+      }
       if (hudBossBarTickIntervalTicks <= 0) {
         throw new IllegalArgumentException("hudBossBarTickIntervalTicks 必须为正数");
       }
@@ -1325,6 +1393,12 @@ public final class ConfigManager {
           DEFAULT_STALE_QUEUE_ENTRY_TTL_SECONDS,
           DEFAULT_FOLLOWING_MIN_CLEAR_BLOCKS,
           DEFAULT_FOLLOWING_STOP_MARGIN_BLOCKS,
+          DEFAULT_PROGRESS_TAG_FLUSH_INTERVAL_TICKS,
+          DEFAULT_SIGNAL_DIRTY_SCHEDULING,
+          DEFAULT_SIGNAL_IDLE_RECHECK_TICKS,
+          DEFAULT_SIGNAL_SAFETY_SWEEP_TICKS,
+          DEFAULT_MONITOR_TICK_BUDGET_MS,
+          DEFAULT_SIGNAL_PLAN_WORKERS,
           hudBossBarEnabled,
           hudBossBarTickIntervalTicks,
           hudBossBarTemplate,
@@ -3,9 +3,12 @@ package org.fetarute.fetaruteTCAddon.dispatcher.eta;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -30,6 +33,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.eta.model.PathProgressModel;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.model.SpawnTrainConfigResolver;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.model.TravelTimeModel;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.model.WaitEstimator;
+import org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime.StationApproachIndex;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime.TrainRuntimeSnapshot;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime.TrainSnapshotStore;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
@@ -80,6 +84,9 @@ import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
  *
  * <p>注意：站牌会合并未出票服务预测（见 {@link SpawnForecastSupport}）；若 SpawnMonitor 未运行或计划为空，站牌仍可能为空。
  *
+ * <p>站牌：运行中列车经 {@link StationApproachIndex} 预筛，只计算前方仍会经过该站的列车；多站点可用 {@link
+ * #getBoards(Collection, String, Duration)} 一次计算，共享票据/预测快照。
+ *
  * <p>Layover：若起点存在待命列车，未发车 ETA 会使用候选的 readyAt 修正最早发车时间。
  *
  * <h2>动态速度模型</h2>
@@ -106,6 +113,7 @@ public final class EtaService {
   private final RailGraphService railGraphService;
   private final RouteDefinitionCache routeDefinitions;
   private final OccupancyManager occupancyManager;
+  private final StationApproachIndex approachIndex;
 
   private final PathProgressModel pathProgressModel = new PathProgressModel();
   private final DwellModel dwellModel = new DwellModel();
@@ -154,6 +162,9 @@ public final class EtaService {
     this.minClearEdges = minClearEdges != null ? minClearEdges : () -> 0;
     this.rearGuardEdges = rearGuardEdges != null ? rearGuardEdges : () -> 0;
     this.switcherZoneEdges = switcherZoneEdges != null ? switcherZoneEdges : () -> 2;
+    this.approachIndex = new StationApproachIndex(routeDefinitions::findById);
+    snapshotStore.subscribe(approachIndex::onChange);
+    approachIndex.rebuild(snapshotStore.snapshot());
 
     // 初始化动态旅行时间模型（使用默认加减速参数）
     this.dynamicTravelTimeModel =
@@ -336,22 +347,66 @@ public final class EtaService {
    */
   public BoardResult getBoard(String stationId, String lineId, Duration horizon) {
     Instant now = Instant.now();
-    String key =
-        (stationId == null ? "null" : stationId.trim())
-            + "|"
-            + (lineId == null ? "null" : lineId.trim())
-            + "|"
-            + (horizon == null ? "null" : horizon.toString());
+    String key = boardCacheKey(stationId, lineId, horizon);
     return boardCache
         .getIfFresh(key, now)
         .orElseGet(
             () -> {
-              BoardResult r = computeBoard(stationId, lineId, horizon, now);
+              BoardResult r = computeBoard(stationId, lineId, newBoardContext(horizon, now));
               boardCache.put(key, r, now);
               return r;
             });
   }
 
+  /**
+   * 批量站牌：一次计算多个站点（如整条线路的站牌墙）。
+   *
+   * <p>未命中缓存的站点共享同一份票据/预测快照与终点解析缓存，避免逐站重复采集；结果同样写入单站缓存。
+   *
+   * @param stationIds 站点标识（格式同 {@link #getBoard(String, String, Duration)}）
+   * @return stationId → 站牌，按入参顺序排列；重复或 null 的站点会被忽略
+   */
+  public Map<String, BoardResult> getBoards(
+      Collection<String> stationIds, String lineId, Duration horizon) {
+    if (stationIds == null || stationIds.isEmpty()) {
+      return Map.of();
+    }
+    Instant now = Instant.now();
+    Map<String, BoardResult> out = new LinkedHashMap<>();
+    BoardContext context = null;
+    for (String stationId : stationIds) {
+      if (stationId == null || out.containsKey(stationId)) {
+        continue;
+      }
+      String key = boardCacheKey(stationId, lineId, horizon);
+      Optional<BoardResult> cached = boardCache.getIfFresh(key, now);
+      if (cached.isPresent()) {
+        out.put(stationId, cached.get());
+        continue;
+      }
+      if (context == null) {
+        context = newBoardContext(horizon, now);
+      }
+      BoardResult result = computeBoard(stationId, lineId, context);
+      boardCache.put(key, result, now);
+      out.put(stationId, result);
+    }
+    return Collections.unmodifiableMap(out);
+  }
+
+  /** 绕过站牌缓存直接计算（基准测试用）。 */
+  BoardResult computeBoardUncached(String stationId, String lineId, Duration horizon) {
+    return computeBoard(stationId, lineId, newBoardContext(horizon, Instant.now()));
+  }
+
+  private static String boardCacheKey(String stationId, String lineId, Duration horizon) {
+    return (stationId == null ? "null" : stationId.trim())
+        + "|"
+        + (lineId == null ? "null" : lineId.trim())
+        + "|"
+        + (horizon == null ? "null" : horizon.toString());
+  }
+
   /**
    * 站牌列表（推荐形式）：显式传入 operator + stationCode，避免同名站点冲突。
    *
@@ -374,7 +429,7 @@ public final class EtaService {
 
   /** 获取当前采样到的列车名集合（用于补全）。 */
   public Set<String> snapshotTrainNames() {
-    return Set.copyOf(snapshotStore.snapshot().keySet());
+    return snapshotStore.snapshot().keySet();
   }
 
   /**
@@ -564,23 +619,46 @@ public final class EtaService {
     return computeForSpawnTicket(ticketOpt.get(), EtaTarget.nextStop(), now);
   }
 
-  private BoardResult computeBoard(String stationId, String lineId, Duration horizon, Instant now) {
+  /** 一次站牌计算（单站或批量）共享的快照：时间窗口、票据/预测列表与终点解析缓存。 */
+  private BoardContext newBoardContext(Duration horizon, Instant now) {
+    Duration window = horizon == null ? Duration.ofMinutes(10) : horizon;
+    List<SpawnTicket> pendingTickets = collectPendingTickets();
+    Set<String> reservedSlots = new HashSet<>();
+    for (SpawnTicket ticket : pendingTickets) {
+      RouteDefinition route = resolveRouteDefinition(ticket).orElse(null);
+      buildTicketSlotKey(ticket, route).ifPresent(reservedSlots::add);
+    }
+    List<SpawnTicket> forecastTickets = List.of();
+    SpawnManager manager = this.spawnManager;
+    if (manager instanceof SpawnForecastSupport forecastSupport) {
+      forecastTickets = forecastSupport.snapshotForecast(now, window, FORECAST_LIMIT_PER_SERVICE);
+    }
+    return new BoardContext(
+        now,
+        now.plus(window),
+        new HashMap<>(),
+        new TerminalResolveContext(
+            storageProvider, new HashMap<>(), new HashMap<>(), new HashMap<>()),
+        pendingTickets,
+        reservedSlots,
+        forecastTickets);
+  }
+
+  private BoardResult computeBoard(String stationId, String lineId, BoardContext context) {
     if (stationId == null || stationId.isBlank()) {
       return new BoardResult(List.of());
     }
-    Duration window = horizon == null ? Duration.ofMinutes(10) : horizon;
-    Instant cutoff = now.plus(window);
+    Instant now = context.now();
+    Instant cutoff = context.cutoff();
     List<BoardRowEntry> rows = new ArrayList<>();
-    Map<UUID, TerminalInfo> terminalCache = new HashMap<>();
-    TerminalResolveContext terminalContext =
-        new TerminalResolveContext(
-            storageProvider, new HashMap<>(), new HashMap<>(), new HashMap<>());
+    Map<UUID, TerminalInfo> terminalCache = context.terminalCache();
+    TerminalResolveContext terminalContext = context.terminalContext();
     Set<UUID> returnTicketSeen = new HashSet<>();
 
-    for (var entry : snapshotStore.snapshot().entrySet()) {
-      String trainName = entry.getKey();
-      TrainRuntimeSnapshot snap = entry.getValue();
-      if (trainName == null || snap == null) {
+    // 索引只返回前方仍会经过该站的列车（超集），下方 resolveTargetSelection 仍做精确判定
+    for (String trainName : approachIndex.candidates(stationId)) {
+      TrainRuntimeSnapshot snap = snapshotStore.getSnapshot(trainName).orElse(null);
+      if (snap == null) {
         continue;
       }
       Optional<RouteDefinition> routeOpt = routeDefinitions.findById(snap.routeUuid());
@@ -627,14 +705,7 @@ public final class EtaService {
                   result.reasons())));
     }
 
-    List<SpawnTicket> pendingTickets = collectPendingTickets();
-    Set<String> reservedSlots = new HashSet<>();
-    for (SpawnTicket ticket : pendingTickets) {
-      RouteDefinition route = resolveRouteDefinition(ticket).orElse(null);
-      buildTicketSlotKey(ticket, route).ifPresent(reservedSlots::add);
-    }
-
-    for (SpawnTicket ticket : pendingTickets) {
+    for (SpawnTicket ticket : context.pendingTickets()) {
       UUID routeUuid =
           ticket != null && ticket.service() != null ? ticket.service().routeId() : null;
       if (routeUuid != null && isReturnRoute(routeUuid, terminalContext)) {
@@ -646,28 +717,22 @@ public final class EtaService {
           .ifPresent(rows::add);
     }
 
-    SpawnManager manager = this.spawnManager;
-    if (manager instanceof SpawnForecastSupport forecastSupport) {
-      Set<String> seenSlots = new HashSet<>(reservedSlots);
-      List<SpawnTicket> forecastTickets =
-          forecastSupport.snapshotForecast(now, window, FORECAST_LIMIT_PER_SERVICE);
-      for (SpawnTicket ticket : forecastTickets) {
-        RouteDefinition route = resolveRouteDefinition(ticket).orElse(null);
-        Optional<String> slotKeyOpt = buildTicketSlotKey(ticket, route);
-        if (slotKeyOpt.isPresent() && !seenSlots.add(slotKeyOpt.get())) {
+    Set<String> seenSlots = new HashSet<>(context.reservedSlots());
+    for (SpawnTicket ticket : context.forecastTickets()) {
+      RouteDefinition route = resolveRouteDefinition(ticket).orElse(null);
+      Optional<String> slotKeyOpt = buildTicketSlotKey(ticket, route);
+      if (slotKeyOpt.isPresent() && !seenSlots.add(slotKeyOpt.get())) {
+        continue;
+      }
+      UUID routeUuid =
+          ticket != null && ticket.service() != null ? ticket.service().routeId() : null;
+      if (routeUuid != null && isReturnRoute(routeUuid, terminalContext)) {
+        if (!returnTicketSeen.add(routeUuid)) {
           continue;
         }
-        UUID routeUuid =
-            ticket != null && ticket.service() != null ? ticket.service().routeId() : null;
-        if (routeUuid != null && isReturnRoute(routeUuid, terminalContext)) {
-          if (!returnTicketSeen.add(routeUuid)) {
-            continue;
-          }
-        }
-        buildBoardRowForTicket(
-                ticket, stationId, lineId, now, cutoff, terminalCache, terminalContext)
-            .ifPresent(rows::add);
       }
+      buildBoardRowForTicket(ticket, stationId, lineId, now, cutoff, terminalCache, terminalContext)
+          .ifPresent(rows::add);
     }
 
     rows.sort(Comparator.comparingLong(BoardRowEntry::etaMillis));
@@ -678,6 +743,15 @@ public final class EtaService {
     return new BoardResult(out);
   }
 
+  private record BoardContext(
+      Instant now,
+      Instant cutoff,
+      Map<UUID, TerminalInfo> terminalCache,
+      TerminalResolveContext terminalContext,
+      List<SpawnTicket> pendingTickets,
+      Set<String> reservedSlots,
+      List<SpawnTicket> forecastTickets) {}
+
   private Optional<BoardRowEntry> buildBoardRowForTicket(
       SpawnTicket ticket,
       String stationId,
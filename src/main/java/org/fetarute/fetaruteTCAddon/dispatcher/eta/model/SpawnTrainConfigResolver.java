@@ -112,8 +112,7 @@ public final class SpawnTrainConfigResolver {
 
     NodeId depotNodeId = NodeId.of(depotNodeIdStr);
     Optional<SignNodeRegistry.SignNodeInfo> infoOpt =
-        signNodeRegistry.snapshotInfos().values().stream()
-            .filter(info -> info != null && info.definition() != null)
+        signNodeRegistry.findAllByNodeId(depotNodeIdStr).stream()
             .filter(info -> depotNodeId.equals(info.definition().nodeId()))
             .filter(info -> info.definition().nodeType() == NodeType.DEPOT)
             .findFirst();
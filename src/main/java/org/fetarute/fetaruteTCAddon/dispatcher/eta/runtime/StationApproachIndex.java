@@ -0,0 +1,247 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointKind;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointMetadata;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
+import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeDefinition;
+import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignTextParser;
+
+/**
+ * 站点 → 即将到达列车的增量索引：站牌查询只需遍历“前方仍会经过该站”的列车。
+ *
+ * <p>索引订阅 {@link TrainSnapshotStore} 的变更事件维护：仅当列车的 routeUuid/routeIndex 变化或线路定义被重载（实例变化）时，才按
+ * routeIndex 之后的 waypoint 重新计算该列车的站点 key；其余采样只做一次比较。
+ *
+ * <p>key 与 ETA 的站点匹配规则对应：
+ *
+ * <ul>
+ *   <li>{@code node:<节点 ID>}：对应“按节点 ID 精确匹配”
+ *   <li>{@code station:<站点 code>}：对应 STATION/STATION_THROAT waypoint 的 originStation 匹配
+ * </ul>
+ *
+ * <p>索引只保证返回匹配列车的超集（不区分 operator），调用方仍需按原规则做精确判定。线路定义暂不可解析的列车始终作为候选返回，避免漏报。
+ */
+public final class StationApproachIndex {
+
+  private static final String NODE_PREFIX = "node:";
+  private static final String STATION_PREFIX = "station:";
+
+  private final Function<UUID, Optional<RouteDefinition>> routeResolver;
+
+  private final Map<String, TrainEntry> trains = new HashMap<>();
+  private final Map<String, Set<String>> trainsByKey = new HashMap<>();
+  private final Set<String> unresolved = new HashSet<>();
+  private final Map<UUID, RouteKeys> routeKeys = new HashMap<>();
+
+  private long reindexCount;
+
+  /**
+   * @param routeResolver routeUuid → 线路定义（通常为 {@code RouteDefinitionCache::findById}）
+   */
+  public StationApproachIndex(Function<UUID, Optional<RouteDefinition>> routeResolver) {
+    this.routeResolver = Objects.requireNonNull(routeResolver, "routeResolver");
+  }
+
+  /** 快照变更回调（通过 {@link TrainSnapshotStore#subscribe} 注册）。 */
+  public void onChange(TrainSnapshotChange change) {
+    if (change == null) {
+      return;
+    }
+    if (change.kind() == TrainSnapshotChange.Kind.REMOVED) {
+      remove(change.trainName());
+      return;
+    }
+    change.current().ifPresent(snapshot -> onUpdate(change.trainName(), snapshot));
+  }
+
+  /** 以给定快照全量重建索引（绑定时调用）。 */
+  public synchronized void rebuild(Map<String, TrainRuntimeSnapshot> snapshots) {
+    clear();
+    if (snapshots == null) {
+      return;
+    }
+    for (var entry : snapshots.entrySet()) {
+      onUpdate(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /** 列车快照更新：线路或进度未变化时不做重算。 */
+  public synchronized void onUpdate(String trainName, TrainRuntimeSnapshot snapshot) {
+    if (trainName == null || snapshot == null) {
+      return;
+    }
+    RouteDefinition route = routeResolver.apply(snapshot.routeUuid()).orElse(null);
+    TrainEntry previous = trains.get(trainName);
+    if (previous != null
+        && previous.route() == route
+        && previous.routeIndex() == snapshot.routeIndex()
+        && previous.routeUuid().equals(snapshot.routeUuid())) {
+      return;
+    }
+    unindex(trainName, previous);
+    reindexCount++;
+    if (route == null) {
+      trains.put(
+          trainName, new TrainEntry(snapshot.routeUuid(), snapshot.routeIndex(), null, Set.of()));
+      unresolved.add(trainName);
+      return;
+    }
+    Set<String> keys = remainingKeys(snapshot.routeUuid(), route, snapshot.routeIndex());
+    trains.put(trainName, new TrainEntry(snapshot.routeUuid(), snapshot.routeIndex(), route, keys));
+    for (String key : keys) {
+      trainsByKey.computeIfAbsent(key, ignored -> new HashSet<>()).add(trainName);
+    }
+  }
+
+  /** 列车移除（卸载/销毁）。 */
+  public synchronized void remove(String trainName) {
+    if (trainName == null) {
+      return;
+    }
+    unindex(trainName, trains.remove(trainName));
+  }
+
+  /** 清空索引（重建前调用）。 */
+  public synchronized void clear() {
+    trains.clear();
+    trainsByKey.clear();
+    unresolved.clear();
+    routeKeys.clear();
+  }
+
+  /**
+   * 返回可能在前方经过该站点的列车名（超集）。
+   *
+   * @param stationId StationCode / Operator:StationCode / 节点 ID
+   */
+  public synchronized Set<String> candidates(String stationId) {
+    if (stationId == null || stationId.isBlank()) {
+      return Set.of();
+    }
+    Set<String> out = new LinkedHashSet<>();
+    for (String key : queryKeys(stationId)) {
+      Set<String> names = trainsByKey.get(key);
+      if (names != null) {
+        out.addAll(names);
+      }
+    }
+    out.addAll(unresolved);
+    return out;
+  }
+
+  /** 当前已索引列车数。 */
+  public synchronized int trainCount() {
+    return trains.size();
+  }
+
+  /** 累计重算次数（诊断用）。 */
+  public synchronized long reindexCount() {
+    return reindexCount;
+  }
+
+  /**
+   * 查询用 key：节点 ID 精确 key + 站点 code key。
+   *
+   * <p>站点 code 的解析与 ETA 一致：首个 ':' 之前视为 operator。
+   */
+  static List<String> queryKeys(String stationId) {
+    String trimmed = stationId.trim();
+    String station = trimmed;
+    int idx = trimmed.indexOf(':');
+    if (idx > 0 && idx < trimmed.length() - 1) {
+      station = trimmed.substring(idx + 1).trim();
+    }
+    return List.of(NODE_PREFIX + normalize(trimmed), STATION_PREFIX + normalize(station));
+  }
+
+  private Set<String> remainingKeys(UUID routeUuid, RouteDefinition route, int routeIndex) {
+    RouteKeys cached = routeKeys.get(routeUuid);
+    if (cached == null || cached.route != route) {
+      cached = RouteKeys.of(route);
+      routeKeys.put(routeUuid, cached);
+    }
+    Set<String> keys = new HashSet<>();
+    for (int i = Math.max(0, routeIndex + 1); i < cached.nodeKeys.length; i++) {
+      if (cached.nodeKeys[i] != null) {
+        keys.add(cached.nodeKeys[i]);
+      }
+      if (cached.stationKeys[i] != null) {
+        keys.add(cached.stationKeys[i]);
+      }
+    }
+    return keys;
+  }
+
+  private void unindex(String trainName, TrainEntry entry) {
+    unresolved.remove(trainName);
+    if (entry == null) {
+      return;
+    }
+    for (String key : entry.keys()) {
+      Set<String> names = trainsByKey.get(key);
+      if (names == null) {
+        continue;
+      }
+      names.remove(trainName);
+      if (names.isEmpty()) {
+        trainsByKey.remove(key);
+      }
+    }
+  }
+
+  private static String normalize(String raw) {
+    return raw.toLowerCase(Locale.ROOT);
+  }
+
+  private record TrainEntry(
+      UUID routeUuid, int routeIndex, RouteDefinition route, Set<String> keys) {}
+
+  /** 单条线路按 waypoint 下标预计算的 key（同一线路定义实例只解析一次）。 */
+  private static final class RouteKeys {
+
+    private final RouteDefinition route;
+    private final String[] nodeKeys;
+    private final String[] stationKeys;
+
+    private RouteKeys(RouteDefinition route, String[] nodeKeys, String[] stationKeys) {
+      this.route = route;
+      this.nodeKeys = nodeKeys;
+      this.stationKeys = stationKeys;
+    }
+
+    static RouteKeys of(RouteDefinition route) {
+      List<NodeId> waypoints = route.waypoints();
+      String[] nodeKeys = new String[waypoints.size()];
+      String[] stationKeys = new String[waypoints.size()];
+      for (int i = 0; i < waypoints.size(); i++) {
+        NodeId node = waypoints.get(i);
+        if (node == null) {
+          continue;
+        }
+        nodeKeys[i] = NODE_PREFIX + normalize(node.value().trim());
+        Optional<WaypointMetadata> meta =
+            SignTextParser.parseWaypointLike(node.value(), NodeType.WAYPOINT)
+                .flatMap(SignNodeDefinition::waypointMetadata);
+        if (meta.isPresent()
+            && (meta.get().kind() == WaypointKind.STATION
+                || meta.get().kind() == WaypointKind.STATION_THROAT)) {
+          stationKeys[i] = STATION_PREFIX + normalize(meta.get().originStation());
+        }
+      }
+      return new RouteKeys(route, nodeKeys, stationKeys);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 快照变更事件：由 {@link TrainSnapshotStore} 在写入/移除时分发，供站牌索引、HUD 等增量消费。
+ *
+ * @param kind 变更类型
+ * @param trainName 列车名
+ * @param previous 变更前快照（ADDED 时为空）
+ * @param current 变更后快照（REMOVED 时为空）
+ * @param version 变更后的存储版本号
+ */
+public record TrainSnapshotChange(
+    Kind kind,
+    String trainName,
+    Optional<TrainRuntimeSnapshot> previous,
+    Optional<TrainRuntimeSnapshot> current,
+    long version) {
+
+  public TrainSnapshotChange {
+    Objects.requireNonNull(kind, "kind");
+    Objects.requireNonNull(trainName, "trainName");
+    previous = previous == null ? Optional.empty() : previous;
+    current = current == null ? Optional.empty() : current;
+  }
+
+  /** 变更类型。 */
+  public enum Kind {
+    /** 新列车首次写入快照。 */
+    ADDED,
+    /** routeUuid 或 routeIndex 变化（进入新区间/换线）。 */
+    ADVANCED,
+    /** 线路进度不变，仅刷新位置/速度等字段。 */
+    UPDATED,
+    /** 列车快照被移除。 */
+    REMOVED
+  }
+
+  static Kind classify(TrainRuntimeSnapshot previous, TrainRuntimeSnapshot current) {
+    if (previous == null) {
+      return Kind.ADDED;
+    }
+    if (previous.routeIndex() != current.routeIndex()
+        || !previous.routeUuid().equals(current.routeUuid())) {
+      return Kind.ADVANCED;
+    }
+    return Kind.UPDATED;
+  }
+}
@@ -1,15 +1,51 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
-/** 运行时列车快照存储：trainId -> {@link TrainRuntimeSnapshot}。 */
+/**
+ * 运行时列车快照存储：trainId -> {@link TrainRuntimeSnapshot}。
+ *
+ * <p>读取走不可变的 {@link Generation}：每次写入/移除只递增版本号，首个读者发现版本落后时才复制一次并发布新 generation，
+ * 之后同版本的所有读者共享该实例（采样器一轮批量写入后至多复制一次），读取本身不再分配。
+ *
+ * <p>变更通过 {@link #subscribe(Consumer)} 以 {@link TrainSnapshotChange} 分发（在写入线程同步回调），供站点索引/HUD 等增量消费。
+ * 监听器异常不会中断写入与其他监听器，但会计数并输出告警：增量索引只靠该变更流维护，静默吞掉异常会让索引悄悄失步。
+ */
 public final class TrainSnapshotStore {
 
+  /** 监听器异常告警间隔：首次失败立即告警，之后每累计该次数再告警一次，避免采样频率下刷屏。 */
+  private static final long FAILURE_LOG_INTERVAL = 100L;
+
   private final ConcurrentMap<String, TrainRuntimeSnapshot> snapshots = new ConcurrentHashMap<>();
+  private final AtomicLong version = new AtomicLong();
+  private final List<Consumer<TrainSnapshotChange>> listeners = new CopyOnWriteArrayList<>();
+  private final Object generationLock = new Object();
+  private final LongAdder listenerFailures = new LongAdder();
+  private final Consumer<String> failureLogger;
+
+  private volatile Generation generation = Generation.EMPTY;
+
+  public TrainSnapshotStore() {
+    this(null);
+  }
+
+  /**
+   * @param failureLogger 监听器异常告警输出（可为空）
+   */
+  public TrainSnapshotStore(Consumer<String> failureLogger) {
+    this.failureLogger = failureLogger != null ? failureLogger : message -> {};
+  }
 
   public Optional<TrainRuntimeSnapshot> getSnapshot(String trainName) {
     if (trainName == null || trainName.isBlank()) {
@@ -23,17 +59,163 @@ public final class TrainSnapshotStore {
     if (trainName == null || trainName.isBlank()) {
       return;
     }
-    snapshots.put(trainName, snapshot);
+    TrainRuntimeSnapshot previous = snapshots.put(trainName, snapshot);
+    long newVersion = version.incrementAndGet();
+    if (!listeners.isEmpty()) {
+      publish(
+          new TrainSnapshotChange(
+              TrainSnapshotChange.classify(previous, snapshot),
+              trainName,
+              Optional.ofNullable(previous),
+              Optional.of(snapshot),
+              newVersion));
+    }
   }
 
   public void remove(String trainName) {
     if (trainName == null || trainName.isBlank()) {
       return;
     }
-    snapshots.remove(trainName);
+    TrainRuntimeSnapshot previous = snapshots.remove(trainName);
+    if (previous == null) {
+      return;
+    }
+    long newVersion = version.incrementAndGet();
+    if (!listeners.isEmpty()) {
+      publish(
+          new TrainSnapshotChange(
+              TrainSnapshotChange.Kind.REMOVED,
+              trainName,
+              Optional.of(previous),
+              Optional.empty(),
+              newVersion));
+    }
   }
 
+  /** 当前全部快照（不可变，同版本共享同一实例）。 */
   public Map<String, TrainRuntimeSnapshot> snapshot() {
-    return Map.copyOf(snapshots);
+    return generation().trains();
+  }
+
+  /** 当前快照数量（不触发 generation 重建）。 */
+  public int size() {
+    return snapshots.size();
+  }
+
+  /** 当前版本号：每次写入/移除递增，可用于判断“自上次读取后是否有变化”。 */
+  public long version() {
+    return version.get();
+  }
+
+  /** 获取与当前版本一致的不可变 generation（版本落后时重建一次）。 */
+  public Generation generation() {
+    Generation current = generation;
+    if (current.version() == version.get()) {
+      return current;
+    }
+    synchronized (generationLock) {
+      current = generation;
+      long target = version.get();
+      if (current.version() == target) {
+        return current;
+      }
+      // 先取版本再复制：复制期间的新写入会使版本再次前进，下次读取时重建
+      current = Generation.build(target, snapshots);
+      generation = current;
+      return current;
+    }
+  }
+
+  /** 注册变更监听器（在写入线程同步回调，应保持轻量）。 */
+  public void subscribe(Consumer<TrainSnapshotChange> listener) {
+    if (listener != null) {
+      listeners.add(listener);
+    }
+  }
+
+  /** 移除变更监听器。 */
+  public void unsubscribe(Consumer<TrainSnapshotChange> listener) {
+    if (listener != null) {
+      listeners.remove(listener);
+    }
+  }
+
+  /** 监听器回调抛出异常的累计次数。 */
+  public long listenerFailures() {
+    return listenerFailures.sum();
+  }
+
+  private void publish(TrainSnapshotChange change) {
+    for (Consumer<TrainSnapshotChange> listener : listeners) {
+      try {
+        listener.accept(change);
+      } catch (RuntimeException e) {
+        // 防止单个监听器异常影响采样写入与其他监听器
+        listenerFailures.increment();
+        long failures = listenerFailures.sum();
+        if (failures == 1L || failures % FAILURE_LOG_INTERVAL == 0L) {
+          failureLogger.accept(
+              "列车快照监听器处理失败: train="
+                  + change.trainName()
+                  + " kind="
+                  + change.kind()
+                  + " error="
+                  + e
+                  + " failures="
+                  + failures);
+        }
+      }
+    }
+  }
+
+  /**
+   * 某一版本的不可变快照视图，附带按世界与按线路的二级视图。
+   *
+   * @param version 生成时的存储版本号
+   * @param trains trainName → 快照
+   * @param byWorld worldId → (trainName → 快照)
+   * @param byRoute routeUuid → (trainName → 快照)
+   */
+  public record Generation(
+      long version,
+      Map<String, TrainRuntimeSnapshot> trains,
+      Map<UUID, Map<String, TrainRuntimeSnapshot>> byWorld,
+      Map<UUID, Map<String, TrainRuntimeSnapshot>> byRoute) {
+
+    static final Generation EMPTY = new Generation(0L, Map.of(), Map.of(), Map.of());
+
+    public Generation {
+      trains = trains == null ? Map.of() : Map.copyOf(trains);
+      byWorld = byWorld == null ? Map.of() : Map.copyOf(byWorld);
+      byRoute = byRoute == null ? Map.of() : Map.copyOf(byRoute);
+    }
+
+    /** 指定世界内的列车快照。 */
+    public Map<String, TrainRuntimeSnapshot> inWorld(UUID worldId) {
+      return worldId == null ? Map.of() : byWorld.getOrDefault(worldId, Map.of());
+    }
+
+    /** 运行在指定线路上的列车快照。 */
+    public Map<String, TrainRuntimeSnapshot> onRoute(UUID routeUuid) {
+      return routeUuid == null ? Map.of() : byRoute.getOrDefault(routeUuid, Map.of());
+    }
+
+    static Generation build(long version, Map<String, TrainRuntimeSnapshot> source) {
+      Map<String, TrainRuntimeSnapshot> trains = Map.copyOf(source);
+      Map<UUID, Map<String, TrainRuntimeSnapshot>> byWorld = new HashMap<>();
+      Map<UUID, Map<String, TrainRuntimeSnapshot>> byRoute = new HashMap<>();
+      for (var entry : trains.entrySet()) {
+        TrainRuntimeSnapshot snap = entry.getValue();
+        byWorld
+            .computeIfAbsent(snap.worldId(), ignored -> new HashMap<>())
+            .put(entry.getKey(), snap);
+        byRoute
+            .computeIfAbsent(snap.routeUuid(), ignored -> new HashMap<>())
+            .put(entry.getKey(), snap);
+      }
+      byWorld.replaceAll((ignored, view) -> Map.copyOf(view));
+      byRoute.replaceAll((ignored, view) -> Map.copyOf(view));
+      return new Generation(version, trains, byWorld, byRoute);
+    }
   }
 }
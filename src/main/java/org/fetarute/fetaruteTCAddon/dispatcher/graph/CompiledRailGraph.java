@@ -0,0 +1,436 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+
+/**
+ * {@link SimpleRailGraph} 的编译形式：CSR（压缩稀疏行）邻接表，供最短路等热路径在原始数组上运行。
+ *
+ * <p>节点 ID 驻留为 {@code int} 下标（按 NodeId 字典序，保证同一张图的编译结果稳定）。节点 i 的邻接槽位为 offsets[i] 到
+ * offsets[i + 1]，槽位上的 targets 为相邻节点、slotEdges 为边下标；边长度、限速与封锁状态分别存放在 {@code int[]}、{@code
+ * double[]} 与 {@link BitSet} 中。
+ *
+ * <p>实例不可变、线程安全。查询所需的距离/前驱/堆数组按线程复用，并以代数戳（generation）代替每次清零。
+ */
+public final class CompiledRailGraph {
+
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private final NodeId[] nodeIds;
+  private final Map<NodeId, Integer> indexByNode;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] slotEdges;
+  private final RailEdge[] edges;
+  private final Map<EdgeId, Integer> indexByEdge;
+  private final int[] edgeLengths;
+  private final double[] edgeSpeedLimits;
+  private final BitSet blockedEdges;
+
+  private CompiledRailGraph(
+      NodeId[] nodeIds,
+      Map<NodeId, Integer> indexByNode,
+      int[] offsets,
+      int[] targets,
+      int[] slotEdges,
+      RailEdge[] edges,
+      Map<EdgeId, Integer> indexByEdge,
+      int[] edgeLengths,
+      double[] edgeSpeedLimits,
+      BitSet blockedEdges) {
+    this.nodeIds = nodeIds;
+    this.indexByNode = indexByNode;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.slotEdges = slotEdges;
+    this.edges = edges;
+    this.indexByEdge = indexByEdge;
+    this.edgeLengths = edgeLengths;
+    this.edgeSpeedLimits = edgeSpeedLimits;
+    this.blockedEdges = blockedEdges;
+  }
+
+  /**
+   * 从节点/边集合编译 CSR 图。
+   *
+   * <p>与 {@link SimpleRailGraph#edgesFrom} 一致按无向图处理；边端点即使未注册为节点也会被驻留，以保持可达性语义不变。
+   */
+  static CompiledRailGraph compile(
+      Collection<RailNode> nodes, Collection<RailEdge> edges, Set<EdgeId> blockedEdges) {
+    Objects.requireNonNull(nodes, "nodes");
+    Objects.requireNonNull(edges, "edges");
+    Objects.requireNonNull(blockedEdges, "blockedEdges");
+
+    List<NodeId> ids = new ArrayList<>(nodes.size());
+    Set<NodeId> seen = new HashSet<>();
+    for (RailNode node : nodes) {
+      if (node != null && node.id() != null && seen.add(node.id())) {
+        ids.add(node.id());
+      }
+    }
+    List<RailEdge> edgeList = new ArrayList<>(edges.size());
+    for (RailEdge edge : edges) {
+      if (edge == null || edge.from() == null || edge.to() == null) {
+        continue;
+      }
+      edgeList.add(edge);
+      if (seen.add(edge.from())) {
+        ids.add(edge.from());
+      }
+      if (seen.add(edge.to())) {
+        ids.add(edge.to());
+      }
+    }
+    ids.sort(Comparator.comparing(NodeId::value));
+
+    int nodeCount = ids.size();
+    NodeId[] nodeIds = ids.toArray(new NodeId[0]);
+    Map<NodeId, Integer> indexByNode = new HashMap<>(Math.max(16, nodeCount * 2));
+    for (int i = 0; i < nodeCount; i++) {
+      indexByNode.put(nodeIds[i], i);
+    }
+
+    edgeList.sort(
+        Comparator.comparingInt((RailEdge edge) -> indexByNode.get(edge.from()))
+            .thenComparingInt(edge -> indexByNode.get(edge.to())));
+    int edgeCount = edgeList.size();
+    RailEdge[] edgeArray = edgeList.toArray(new RailEdge[0]);
+    int[] edgeLengths = new int[edgeCount];
+    double[] edgeSpeedLimits = new double[edgeCount];
+    BitSet blocked = new BitSet(edgeCount);
+    Map<EdgeId, Integer> indexByEdge = new HashMap<>(Math.max(16, edgeCount * 2));
+    int[] degree = new int[nodeCount];
+    for (int e = 0; e < edgeCount; e++) {
+      RailEdge edge = edgeArray[e];
+      if (edge.id() != null) {
+        indexByEdge.putIfAbsent(edge.id(), e);
+      }
+      edgeLengths[e] = edge.lengthBlocks();
+      edgeSpeedLimits[e] = edge.baseSpeedLimit();
+      if (blockedEdges.contains(edge.id())) {
+        blocked.set(e);
+      }
+      int from = indexByNode.get(edge.from());
+      int to = indexByNode.get(edge.to());
+      if (from == to) {
+        continue;
+      }
+      degree[from]++;
+      degree[to]++;
+    }
+
+    int[] offsets = new int[nodeCount + 1];
+    for (int i = 0; i < nodeCount; i++) {
+      offsets[i + 1] = offsets[i] + degree[i];
+    }
+    int[] cursor = Arrays.copyOf(offsets, nodeCount);
+    int[] targets = new int[offsets[nodeCount]];
+    int[] slotEdges = new int[offsets[nodeCount]];
+    for (int e = 0; e < edgeCount; e++) {
+      int from = indexByNode.get(edgeArray[e].from());
+      int to = indexByNode.get(edgeArray[e].to());
+      if (from == to) {
+        continue;
+      }
+      targets[cursor[from]] = to;
+      slotEdges[cursor[from]++] = e;
+      targets[cursor[to]] = from;
+      slotEdges[cursor[to]++] = e;
+    }
+    return new CompiledRailGraph(
+        nodeIds,
+        Map.copyOf(indexByNode),
+        offsets,
+        targets,
+        slotEdges,
+        edgeArray,
+        Map.copyOf(indexByEdge),
+        edgeLengths,
+        edgeSpeedLimits,
+        blocked);
+  }
+
+  public int nodeCount() {
+    return nodeIds.length;
+  }
+
+  public int edgeCount() {
+    return edges.length;
+  }
+
+  /** 查询节点的驻留下标；节点不在图中时返回 empty。 */
+  public OptionalInt indexOf(NodeId nodeId) {
+    Integer index = nodeId == null ? null : indexByNode.get(nodeId);
+    return index == null ? OptionalInt.empty() : OptionalInt.of(index);
+  }
+
+  /** 查询边的驻留下标；边不在图中时返回 empty。 */
+  public OptionalInt edgeIndexOf(EdgeId edgeId) {
+    Integer index = edgeId == null ? null : indexByEdge.get(edgeId);
+    return index == null ? OptionalInt.empty() : OptionalInt.of(index);
+  }
+
+  /** 把边 ID 集合转换为边下标位图（不在图中的边忽略），供带额外封锁的最短路查询使用。 */
+  public BitSet edgeMask(Collection<EdgeId> edgeIds) {
+    BitSet mask = new BitSet(edges.length);
+    if (edgeIds != null) {
+      for (EdgeId edgeId : edgeIds) {
+        Integer index = edgeId == null ? null : indexByEdge.get(edgeId);
+        if (index != null) {
+          mask.set(index);
+        }
+      }
+    }
+    return mask;
+  }
+
+  public NodeId nodeId(int index) {
+    return nodeIds[index];
+  }
+
+  public RailEdge edge(int edgeIndex) {
+    return edges[edgeIndex];
+  }
+
+  public int edgeLength(int edgeIndex) {
+    return edgeLengths[edgeIndex];
+  }
+
+  public double edgeSpeedLimit(int edgeIndex) {
+    return edgeSpeedLimits[edgeIndex];
+  }
+
+  public boolean isBlocked(int edgeIndex) {
+    return blockedEdges.get(edgeIndex);
+  }
+
+  /**
+   * 按区间长度（blocks）计算最短路径，语义与 {@code RailGraphPathFinder.Options.shortestDistance()} 一致：长度非正的边不可通行。
+   *
+   * @param allowBlockedEdges 是否允许穿越被封锁的边
+   * @return empty 表示不可达或节点不存在
+   */
+  public Optional<RailGraphPath> shortestPath(NodeId from, NodeId to, boolean allowBlockedEdges) {
+    return shortestPath(from, to, allowBlockedEdges, null);
+  }
+
+  /**
+   * 同 {@link #shortestPath(NodeId, NodeId, boolean)}，并把 {@code extraBlocked} 中的边也视为封锁（如运维覆盖层的封锁）。
+   *
+   * @param extraBlocked 由 {@link #edgeMask(Collection)} 生成的边下标位图；为 null 表示无额外封锁
+   */
+  public Optional<RailGraphPath> shortestPath(
+      NodeId from, NodeId to, boolean allowBlockedEdges, BitSet extraBlocked) {
+    OptionalInt source = indexOf(from);
+    OptionalInt target = indexOf(to);
+    if (source.isEmpty() || target.isEmpty()) {
+      return Optional.empty();
+    }
+    int src = source.getAsInt();
+    int dst = target.getAsInt();
+    if (src == dst) {
+      return Optional.of(new RailGraphPath(from, to, List.of(from), List.of(), 0L));
+    }
+    Scratch scratch = SCRATCH.get();
+    if (!run(scratch, src, dst, allowBlockedEdges, extraBlocked)) {
+      return Optional.empty();
+    }
+    int hops = 0;
+    for (int node = dst; node != src; node = scratch.prevNode[node]) {
+      hops++;
+    }
+    NodeId[] pathNodes = new NodeId[hops + 1];
+    RailEdge[] pathEdges = new RailEdge[hops];
+    int node = dst;
+    for (int i = hops; i > 0; i--) {
+      pathNodes[i] = nodeIds[node];
+      pathEdges[i - 1] = edges[scratch.prevEdge[node]];
+      node = scratch.prevNode[node];
+    }
+    pathNodes[0] = nodeIds[src];
+    return Optional.of(
+        new RailGraphPath(
+            from, to, Arrays.asList(pathNodes), Arrays.asList(pathEdges), scratch.dist[dst]));
+  }
+
+  /** 只计算最短距离（blocks），不构建路径对象。 */
+  public OptionalLong shortestDistance(NodeId from, NodeId to, boolean allowBlockedEdges) {
+    OptionalInt source = indexOf(from);
+    OptionalInt target = indexOf(to);
+    if (source.isEmpty() || target.isEmpty()) {
+      return OptionalLong.empty();
+    }
+    if (source.getAsInt() == target.getAsInt()) {
+      return OptionalLong.of(0L);
+    }
+    Scratch scratch = SCRATCH.get();
+    if (!run(scratch, source.getAsInt(), target.getAsInt(), allowBlockedEdges, null)) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(scratch.dist[target.getAsInt()]);
+  }
+
+  /** Dijkstra 主循环；返回 target 是否可达，结果留在 scratch 中。 */
+  private boolean run(
+      Scratch scratch, int source, int target, boolean allowBlockedEdges, BitSet extraBlocked) {
+    scratch.prepare(nodeIds.length);
+    scratch.reach(source, 0L, -1, -1);
+    scratch.push(source);
+    while (scratch.heapSize > 0) {
+      int current = scratch.poll();
+      if (current == target) {
+        return true;
+      }
+      long base = scratch.dist[current];
+      for (int slot = offsets[current], end = offsets[current + 1]; slot < end; slot++) {
+        int edge = slotEdges[slot];
+        int length = edgeLengths[edge];
+        if (length <= 0) {
+          continue;
+        }
+        if (!allowBlockedEdges
+            && (blockedEdges.get(edge) || (extraBlocked != null && extraBlocked.get(edge)))) {
+          continue;
+        }
+        int neighbor = targets[slot];
+        long next = base + length;
+        if (!scratch.isReached(neighbor)) {
+          scratch.reach(neighbor, next, current, edge);
+          scratch.push(neighbor);
+        } else if (scratch.heapIndex[neighbor] >= 0 && next < scratch.dist[neighbor]) {
+          scratch.reach(neighbor, next, current, edge);
+          scratch.siftUp(scratch.heapIndex[neighbor]);
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 单线程复用的 Dijkstra 工作区：距离/前驱数组 + 带位置索引的二叉最小堆。
+   *
+   * <p>{@code stamp[i] == generation} 表示节点 i 在本次查询中已被触达；{@code heapIndex[i] < 0} 表示已出堆（定标）。
+   */
+  private static final class Scratch {
+
+    private long[] dist = new long[0];
+    private int[] prevNode = new int[0];
+    private int[] prevEdge = new int[0];
+    private int[] stamp = new int[0];
+    private int[] heapIndex = new int[0];
+    private int[] heap = new int[0];
+    private int heapSize;
+    private int generation;
+
+    void prepare(int nodeCount) {
+      if (dist.length < nodeCount) {
+        int capacity = Math.max(nodeCount, dist.length * 2);
+        dist = new long[capacity];
+        prevNode = new int[capacity];
+        prevEdge = new int[capacity];
+        stamp = new int[capacity];
+        heapIndex = new int[capacity];
+        heap = new int[capacity];
+        generation = 0;
+      }
+      generation++;
+      if (generation == Integer.MAX_VALUE) {
+        Arrays.fill(stamp, 0);
+        generation = 1;
+      }
+      heapSize = 0;
+    }
+
+    boolean isReached(int node) {
+      return stamp[node] == generation;
+    }
+
+    void reach(int node, long distance, int parent, int edge) {
+      if (stamp[node] != generation) {
+        stamp[node] = generation;
+        heapIndex[node] = -1;
+      }
+      dist[node] = distance;
+      prevNode[node] = parent;
+      prevEdge[node] = edge;
+    }
+
+    void push(int node) {
+      heap[heapSize] = node;
+      heapIndex[node] = heapSize;
+      heapSize++;
+      siftUp(heapSize - 1);
+    }
+
+    int poll() {
+      int top = heap[0];
+      heapIndex[top] = -1;
+      heapSize--;
+      if (heapSize > 0) {
+        int last = heap[heapSize];
+        heap[0] = last;
+        heapIndex[last] = 0;
+        siftDown(0);
+      }
+      return top;
+    }
+
+    void siftUp(int position) {
+      int node = heap[position];
+      while (position > 0) {
+        int parentPosition = (position - 1) >>> 1;
+        int parent = heap[parentPosition];
+        if (!less(node, parent)) {
+          break;
+        }
+        heap[position] = parent;
+        heapIndex[parent] = position;
+        position = parentPosition;
+      }
+      heap[position] = node;
+      heapIndex[node] = position;
+    }
+
+    private void siftDown(int position) {
+      int node = heap[position];
+      int half = heapSize >>> 1;
+      while (position < half) {
+        int child = 2 * position + 1;
+        int right = child + 1;
+        if (right < heapSize && less(heap[right], heap[child])) {
+          child = right;
+        }
+        if (!less(heap[child], node)) {
+          break;
+        }
+        heap[position] = heap[child];
+        heapIndex[heap[position]] = position;
+        position = child;
+      }
+      heap[position] = node;
+      heapIndex[node] = position;
+    }
+
+    /** 距离相同时按节点下标排序，使结果与线程/调用次序无关。 */
+    private boolean less(int left, int right) {
+      long dl = dist[left];
+      long dr = dist[right];
+      return dl < dr || (dl == dr && left < right);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.graph;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -26,16 +27,23 @@ public final class RailGraphConflictIndex {
   private final Map<EdgeId, String> conflictByEdge;
   private final Map<EdgeId, RailGraphCorridorInfo> corridorByEdge;
 
+  /** 冲突组 key → 生成该 key 时的连通分量 key；增量更新据此判断分量改名导致的 key 失效。 */
+  private final Map<String, String> componentByConflict;
+
   private RailGraphConflictIndex(
-      Map<EdgeId, String> conflictByEdge, Map<EdgeId, RailGraphCorridorInfo> corridorByEdge) {
+      Map<EdgeId, String> conflictByEdge,
+      Map<EdgeId, RailGraphCorridorInfo> corridorByEdge,
+      Map<String, String> componentByConflict) {
     this.conflictByEdge = Map.copyOf(conflictByEdge);
     this.corridorByEdge = Map.copyOf(corridorByEdge);
+    this.componentByConflict = Map.copyOf(componentByConflict);
   }
 
   public static RailGraphConflictIndex fromGraph(RailGraph graph) {
     Objects.requireNonNull(graph, "graph");
     Map<EdgeId, String> conflictByEdge = new HashMap<>();
     Map<EdgeId, RailGraphCorridorInfo> corridorByEdge = new HashMap<>();
+    Map<String, String> componentByConflict = new HashMap<>();
     Set<EdgeId> assigned = new HashSet<>();
     Map<NodeId, RailNode> nodesById = new HashMap<>();
     Map<NodeId, Integer> degrees = new HashMap<>();
@@ -61,7 +69,103 @@ public final class RailGraphConflictIndex {
     }
 
     RailGraphComponentIndex componentIndex = RailGraphComponentIndex.fromGraph(graph);
+    assignCorridors(
+        graph,
+        componentIndex,
+        boundaries,
+        graph.edges(),
+        assigned,
+        conflictByEdge,
+        corridorByEdge,
+        componentByConflict);
+    return new RailGraphConflictIndex(conflictByEdge, corridorByEdge, componentByConflict);
+  }
+
+  /**
+   * 局部重算：复用 previous 中未受影响的走廊，只重新遍历与 touchedNodes 相连的走廊。
+   *
+   * <p>touchedNodes 必须覆盖所有“关联边集合或节点类型发生变化”的节点（含已删除节点）。其余节点的度数与类型不变，因此不含
+   * touched 节点的走廊在新图中仍是同一条走廊；若其连通分量 key 因合并/拆分而改变，该走廊也会被重算。结果与 {@link
+   * #fromGraph(RailGraph)} 一致。
+   *
+   * @param previous 变更前图的索引
+   * @param graph 变更后的图
+   * @param touchedNodes 受影响节点
+   */
+  public static RailGraphConflictIndex incremental(
+      RailGraphConflictIndex previous, RailGraph graph, Set<NodeId> touchedNodes) {
+    Objects.requireNonNull(previous, "previous");
+    Objects.requireNonNull(graph, "graph");
+    Objects.requireNonNull(touchedNodes, "touchedNodes");
+    RailGraphComponentIndex componentIndex = RailGraphComponentIndex.fromGraph(graph);
+
+    Set<String> dirtyKeys = new HashSet<>();
+    for (Map.Entry<EdgeId, String> entry : previous.conflictByEdge.entrySet()) {
+      EdgeId edgeId = entry.getKey();
+      String key = entry.getValue();
+      if (touchedNodes.contains(edgeId.a())
+          || touchedNodes.contains(edgeId.b())
+          || !edgeExists(graph, edgeId)) {
+        dirtyKeys.add(key);
+        continue;
+      }
+      String componentKey = componentIndex.componentKey(edgeId.a());
+      if (componentKey == null || !componentKey.equals(previous.componentByConflict.get(key))) {
+        dirtyKeys.add(key);
+      }
+    }
 
+    Map<EdgeId, String> conflictByEdge = new HashMap<>();
+    Map<EdgeId, RailGraphCorridorInfo> corridorByEdge = new HashMap<>();
+    Map<String, String> componentByConflict = new HashMap<>();
+    Set<EdgeId> assigned = new HashSet<>();
+    for (Map.Entry<EdgeId, String> entry : previous.conflictByEdge.entrySet()) {
+      String key = entry.getValue();
+      if (dirtyKeys.contains(key)) {
+        continue;
+      }
+      EdgeId edgeId = entry.getKey();
+      conflictByEdge.put(edgeId, key);
+      corridorByEdge.put(edgeId, previous.corridorByEdge.get(edgeId));
+      componentByConflict.put(key, previous.componentByConflict.get(key));
+      assigned.add(edgeId);
+    }
+
+    // 未复用的边构成若干完整走廊：走廊端点必然是这些边的端点之一，因此只需在这些端点上判定边界
+    List<RailEdge> pending = new ArrayList<>();
+    Set<NodeId> boundaries = new HashSet<>();
+    for (RailEdge edge : graph.edges()) {
+      if (edge == null || assigned.contains(EdgeId.undirected(edge.from(), edge.to()))) {
+        continue;
+      }
+      pending.add(edge);
+      for (NodeId endpoint : List.of(edge.from(), edge.to())) {
+        if (isBoundary(graph, endpoint)) {
+          boundaries.add(endpoint);
+        }
+      }
+    }
+    assignCorridors(
+        graph,
+        componentIndex,
+        boundaries,
+        pending,
+        assigned,
+        conflictByEdge,
+        corridorByEdge,
+        componentByConflict);
+    return new RailGraphConflictIndex(conflictByEdge, corridorByEdge, componentByConflict);
+  }
+
+  private static void assignCorridors(
+      RailGraph graph,
+      RailGraphComponentIndex componentIndex,
+      Set<NodeId> boundaries,
+      Collection<RailEdge> candidates,
+      Set<EdgeId> assigned,
+      Map<EdgeId, String> conflictByEdge,
+      Map<EdgeId, RailGraphCorridorInfo> corridorByEdge,
+      Map<String, String> componentByConflict) {
     for (NodeId boundary : boundaries) {
       for (RailEdge edge : graph.edgesFrom(boundary)) {
         EdgeId edgeId = EdgeId.undirected(edge.from(), edge.to());
@@ -69,8 +173,10 @@ public final class RailGraphConflictIndex {
           continue;
         }
         Corridor corridor = walkCorridor(graph, boundary, edge, boundaries);
-        String key = buildCorridorKey(componentIndex, corridor.start(), corridor.end());
+        String componentKey = resolveComponentKey(componentIndex, corridor.start(), corridor.end());
+        String key = buildCorridorKey(componentKey, corridor.start(), corridor.end());
         RailGraphCorridorInfo info = buildCorridorInfo(key, corridor);
+        componentByConflict.put(key, componentKey);
         for (EdgeId id : corridor.edges()) {
           conflictByEdge.put(id, key);
           corridorByEdge.put(id, info);
@@ -79,22 +185,43 @@ public final class RailGraphConflictIndex {
       }
     }
 
-    for (RailEdge edge : graph.edges()) {
+    for (RailEdge edge : candidates) {
       EdgeId edgeId = EdgeId.undirected(edge.from(), edge.to());
       if (assigned.contains(edgeId)) {
         continue;
       }
       Cycle cycle = walkCycle(graph, edge);
-      String key = buildCycleKey(componentIndex, cycle.minNode());
+      String componentKey = resolveComponentKey(componentIndex, cycle.minNode(), cycle.minNode());
+      String key = buildCycleKey(componentKey, cycle.minNode());
       RailGraphCorridorInfo info = buildCycleInfo(key);
+      componentByConflict.put(key, componentKey);
       for (EdgeId id : cycle.edges()) {
         conflictByEdge.put(id, key);
         corridorByEdge.put(id, info);
         assigned.add(id);
       }
     }
+  }
+
+  private static boolean isBoundary(RailGraph graph, NodeId nodeId) {
+    if (nodeId == null) {
+      return false;
+    }
+    // 与 fromGraph 一致：不在节点表中的端点不视为边界
+    Optional<RailNode> node = graph.findNode(nodeId);
+    if (node.isEmpty()) {
+      return false;
+    }
+    return graph.edgesFrom(nodeId).size() != 2 || node.get().type() == NodeType.SWITCHER;
+  }
 
-    return new RailGraphConflictIndex(conflictByEdge, corridorByEdge);
+  private static boolean edgeExists(RailGraph graph, EdgeId edgeId) {
+    for (RailEdge edge : graph.edgesFrom(edgeId.a())) {
+      if (edge != null && EdgeId.undirected(edge.from(), edge.to()).equals(edgeId)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public Optional<String> conflictKeyForEdge(EdgeId edgeId) {
@@ -203,9 +330,7 @@ public final class RailGraphConflictIndex {
     return null;
   }
 
-  private static String buildCorridorKey(
-      RailGraphComponentIndex componentIndex, NodeId start, NodeId end) {
-    String componentKey = resolveComponentKey(componentIndex, start, end);
+  private static String buildCorridorKey(String componentKey, NodeId start, NodeId end) {
     String left = start != null ? start.value() : "unknown";
     String right = end != null ? end.value() : "unknown";
     // 按字典序排序，避免 A~B 与 B~A 生成不同 key。
@@ -217,8 +342,7 @@ public final class RailGraphConflictIndex {
     return SINGLE_PREFIX + componentKey + ":" + left + "~" + right;
   }
 
-  private static String buildCycleKey(RailGraphComponentIndex componentIndex, NodeId minNode) {
-    String componentKey = resolveComponentKey(componentIndex, minNode, minNode);
+  private static String buildCycleKey(String componentKey, NodeId minNode) {
     String nodeValue = minNode != null ? minNode.value() : "unknown";
     // 闭环以最小节点名归一化，确保不同遍历路径生成同一 key。
     return SINGLE_PREFIX + componentKey + ":" + CYCLE_SEGMENT + nodeValue;
@@ -168,6 +168,94 @@ public final class RailGraphMerger {
         merged.edges().size());
   }
 
+  /**
+   * 局部拼接：用 update 替换 base 中 refreshedNodes 的全部关联边，并删除 removedNodes。
+   *
+   * <p>用途：建牌/拆牌后只从受影响节点重新探索。update 必须包含 refreshedNodes 的完整关联边（探索结果），其余节点之间的边原样保留。
+   *
+   * <p>若 base 的冲突索引已构建，会基于受影响节点增量计算新图的冲突索引，只重走被触及的走廊。
+   *
+   * @param refreshedNodes 已重新探索的节点（其旧边全部作废）
+   * @param removedNodes 需要删除的节点（连同关联边）
+   */
+  public static MergeResult splice(
+      RailGraph base, RailGraph update, Set<NodeId> refreshedNodes, Set<NodeId> removedNodes) {
+    Objects.requireNonNull(base, "base");
+    Objects.requireNonNull(update, "update");
+    Set<NodeId> refreshed = refreshedNodes != null ? Set.copyOf(refreshedNodes) : Set.of();
+    Set<NodeId> removed = removedNodes != null ? Set.copyOf(removedNodes) : Set.of();
+
+    Map<NodeId, RailNode> nodesById = new HashMap<>();
+    for (RailNode node : base.nodes()) {
+      if (node != null && !removed.contains(node.id())) {
+        nodesById.put(node.id(), node);
+      }
+    }
+    int removedNodeCount = base.nodes().size() - nodesById.size();
+    for (RailNode updateNode : update.nodes()) {
+      if (removed.contains(updateNode.id())) {
+        continue;
+      }
+      RailNode existing = nodesById.get(updateNode.id());
+      nodesById.put(
+          updateNode.id(),
+          existing != null ? mergeNodeAttributes(existing, updateNode) : updateNode);
+    }
+
+    // touched：关联边集合可能变化的节点，供冲突索引增量计算
+    Set<NodeId> touched = new HashSet<>(refreshed);
+    touched.addAll(removed);
+    Map<EdgeId, RailEdge> edgesById = new HashMap<>();
+    int removedEdges = 0;
+    for (RailEdge edge : base.edges()) {
+      if (refreshed.contains(edge.from())
+          || refreshed.contains(edge.to())
+          || removed.contains(edge.from())
+          || removed.contains(edge.to())) {
+        touched.add(edge.from());
+        touched.add(edge.to());
+        removedEdges++;
+        continue;
+      }
+      edgesById.put(edge.id(), edge);
+    }
+    for (RailEdge edge : update.edges()) {
+      if (!nodesById.containsKey(edge.from()) || !nodesById.containsKey(edge.to())) {
+        continue;
+      }
+      RailEdge existing = edgesById.get(edge.id());
+      if (existing == null || edge.lengthBlocks() < existing.lengthBlocks()) {
+        edgesById.put(edge.id(), edge);
+        touched.add(edge.from());
+        touched.add(edge.to());
+      }
+    }
+
+    Set<EdgeId> blockedEdges = new HashSet<>();
+    for (RailEdge edge : edgesById.values()) {
+      EdgeId edgeId = edge.id();
+      if (base.isBlocked(edgeId) || update.isBlocked(edgeId)) {
+        blockedEdges.add(edgeId);
+      }
+    }
+
+    SimpleRailGraph merged = new SimpleRailGraph(nodesById, edgesById, blockedEdges);
+    if (base instanceof SimpleRailGraph simpleBase) {
+      RailGraphConflictIndex previous = simpleBase.conflictIndexIfBuilt();
+      if (previous != null) {
+        merged.primeConflictIndex(RailGraphConflictIndex.incremental(previous, merged, touched));
+      }
+    }
+    return new MergeResult(
+        merged,
+        MergeAction.SPLICE,
+        0,
+        removedNodeCount,
+        removedEdges,
+        merged.nodes().size(),
+        merged.edges().size());
+  }
+
   /**
    * 合并节点属性：新节点覆盖旧节点，但保留旧节点的运维元数据。
    *
@@ -330,7 +418,9 @@ public final class RailGraphMerger {
     /** update 覆盖 base 中同 ID 的节点/边，不做删除。 */
     UPSERT,
     /** update 与 base 有重叠，替换对应连通分量后再追加。 */
-    REPLACE_COMPONENTS
+    REPLACE_COMPONENTS,
+    /** 只替换受影响节点的关联边（增量重探索）。 */
+    SPLICE
   }
 
   /** 合并结果：包含最终图与统计信息（用于命令回显与诊断）。 */
@@ -0,0 +1,95 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+
+/**
+ * 单个图快照上的最短路结果缓存（完整 {@link RailGraphPath}，含不可达结果）。
+ *
+ * <p>由 {@link SimpleRailGraph} 持有：快照不可变，图重建/替换后旧缓存随旧快照一起失效，因此 key 无需携带图版本。运维覆盖层的封锁边作为 key
+ * 的一部分（{@code extraBlocked}），封锁集合变化时自然落到新 key 上，旧 key 随 LRU 淘汰。
+ *
+ * <p>按访问顺序做 LRU，容量有界。计算在锁外进行，并发未命中时可能重复计算同一对节点，但结果一致。
+ */
+public final class RailGraphPathCache {
+
+  /** 默认容量：覆盖数百条线路的相邻 waypoint 对。 */
+  public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+  private final int maxEntries;
+  private final Map<PathKey, Optional<RailGraphPath>> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  RailGraphPathCache(int maxEntries) {
+    this.maxEntries = maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES;
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<PathKey, Optional<RailGraphPath>> eldest) {
+            if (size() > RailGraphPathCache.this.maxEntries) {
+              evictions.increment();
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  Optional<RailGraphPath> resolve(PathKey key, Supplier<Optional<RailGraphPath>> loader) {
+    Optional<RailGraphPath> cached;
+    synchronized (entries) {
+      cached = entries.get(key);
+    }
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+    Optional<RailGraphPath> computed = Objects.requireNonNull(loader.get(), "loader");
+    synchronized (entries) {
+      entries.put(key, computed);
+    }
+    return computed;
+  }
+
+  /** 清空缓存（如运维覆盖层变更后主动失效）。 */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  /** 返回缓存运行统计。 */
+  public Stats stats() {
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, maxEntries);
+  }
+
+  /**
+   * 缓存 key。
+   *
+   * @param extraBlocked 覆盖层额外封锁的边；{@code allowBlockedEdges=true} 时应为空集
+   */
+  record PathKey(NodeId from, NodeId to, boolean allowBlockedEdges, Set<EdgeId> extraBlocked) {
+    PathKey {
+      Objects.requireNonNull(from, "from");
+      Objects.requireNonNull(to, "to");
+      extraBlocked = extraBlocked == null ? Set.of() : Set.copyOf(extraBlocked);
+    }
+  }
+
+  /** 缓存运行统计。 */
+  public record Stats(long hits, long misses, long evictions, int size, int maxEntries) {}
+}
@@ -0,0 +1,19 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph;
+
+import java.util.Optional;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+
+/** 提供按区间长度最短路（可缓存）的调度图扩展接口。 */
+public interface RailGraphPathSupport {
+
+  /**
+   * 按区间长度（blocks）查询最短路，语义与 {@code RailGraphPathFinder.Options.shortestDistance()} 一致。
+   *
+   * <p>实现可缓存结果；返回的 {@link RailGraphPath} 不可变，可跨线程共享。
+   *
+   * @param allowBlockedEdges 是否允许穿越被封锁的边
+   * @return empty 表示不可达或节点不存在
+   */
+  Optional<RailGraphPath> shortestPathByLength(NodeId from, NodeId to, boolean allowBlockedEdges);
+}
@@ -1,22 +1,38 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.graph;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalDouble;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 import org.bukkit.World;
 import org.bukkit.util.Vector;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.build.RailGraphSignature;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.control.EdgeOverrideRailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailComponentCautionRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeOverrideRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphBinaryCache;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphBinarySnapshot;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphSnapshotRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailComponentCautionRepository;
@@ -29,8 +45,17 @@ import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeRegistry;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
 
-/** 管理各世界的 RailGraph 快照，供命令与运行时调度复用。 */
-public final class RailGraphService {
+/**
+ * 管理各世界的 RailGraph 快照，供命令与运行时调度复用。
+ *
+ * <p>最短路预热在专用单线程上执行：每个世界同一时刻最多排队一次预热，快照安装、封锁变化与线路刷新的连续触发会合并为一次全网预热。
+ */
+public final class RailGraphService implements AutoCloseable {
+
+  /** 预热队列容量：每个世界最多占一个槽位，超出时丢弃本次预热（运行时按需计算）。 */
+  private static final int PREWARM_QUEUE_CAPACITY = 16;
+
+  private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
 
   private final RailGraphBuilder builder;
   private final Consumer<String> debugLogger;
@@ -42,6 +67,12 @@ public final class RailGraphService {
       new ConcurrentHashMap<>();
   private final ConcurrentMap<UUID, ConcurrentMap<String, RailComponentCautionRecord>>
       componentCautions = new ConcurrentHashMap<>();
+  private volatile Supplier<? extends Collection<List<NodeId>>> pathPrewarmSource = List::of;
+  private volatile RailGraphBinaryCache binaryCache;
+  private final Executor prewarmExecutor;
+  private final Set<UUID> prewarmPending = ConcurrentHashMap.newKeySet();
+  private final AtomicLong snapshotVersion = new AtomicLong();
+  private final List<LongConsumer> snapshotListeners = new CopyOnWriteArrayList<>();
 
   public RailGraphService(SignNodeRegistry registry, Consumer<String> debugLogger) {
     this(new SignRegistryRailGraphBuilder(registry, debugLogger), debugLogger);
@@ -52,17 +83,80 @@ public final class RailGraphService {
   }
 
   public RailGraphService(RailGraphBuilder builder, Consumer<String> debugLogger) {
+    this(builder, debugLogger, newPrewarmExecutor());
+  }
+
+  /**
+   * @param prewarmExecutor 最短路预热执行器（测试可注入同步或延迟执行器）；拒绝执行时丢弃本次预热
+   */
+  RailGraphService(
+      RailGraphBuilder builder, Consumer<String> debugLogger, Executor prewarmExecutor) {
     this.builder = Objects.requireNonNull(builder, "builder");
     this.debugLogger = debugLogger != null ? debugLogger : message -> {};
+    this.prewarmExecutor = Objects.requireNonNull(prewarmExecutor, "prewarmExecutor");
+  }
+
+  /** 关闭预热线程（插件卸载时调用）；排队中的预热会被丢弃。 */
+  @Override
+  public void close() {
+    if (prewarmExecutor instanceof ExecutorService service) {
+      service.shutdownNow();
+    }
+    prewarmPending.clear();
+  }
+
+  /**
+   * 快照版本：任一世界安装、替换或移除快照时递增。
+   *
+   * <p>派生缓存用该版本（而不是图实例引用）标记缓存项，避免旧快照及其路径缓存被缓存项长期持有。
+   */
+  public long snapshotVersion() {
+    return snapshotVersion.get();
+  }
+
+  /** 注册快照变更监听（参数为变更后的 {@link #snapshotVersion()}），在变更发生的线程上同步回调。 */
+  public void addSnapshotListener(LongConsumer listener) {
+    if (listener != null) {
+      snapshotListeners.add(listener);
+    }
+  }
+
+  /** 移除快照变更监听。 */
+  public void removeSnapshotListener(LongConsumer listener) {
+    snapshotListeners.remove(listener);
+  }
+
+  /**
+   * 安装世界快照并通知监听：版本号在写入前分配，快照对象与其 {@link RailGraphSnapshot#version()} 始终一致。
+   */
+  private void installSnapshot(UUID worldId, RailGraph graph, Instant builtAt) {
+    long version = snapshotVersion.incrementAndGet();
+    snapshots.put(worldId, new RailGraphSnapshot(graph, builtAt, version));
+    componentIndexes.put(worldId, RailGraphComponentIndex.fromGraph(graph));
+    staleStates.remove(worldId);
+    notifySnapshotListeners(version);
+    prewarmRoutePaths(worldId);
+  }
+
+  /** 移除快照：推进版本并通知监听。 */
+  private void snapshotChanged() {
+    notifySnapshotListeners(snapshotVersion.incrementAndGet());
+  }
+
+  private void notifySnapshotListeners(long version) {
+    for (LongConsumer listener : snapshotListeners) {
+      try {
+        listener.accept(version);
+      } catch (RuntimeException ex) {
+        debugLogger.accept("快照变更监听处理失败: error=" + ex.getClass().getSimpleName());
+      }
+    }
   }
 
   public RailGraph rebuild(World world) {
     Objects.requireNonNull(world, "world");
     RailGraph graph = builder.build(world);
-    UUID worldId = world.getUID();
-    snapshots.put(worldId, new RailGraphSnapshot(graph, Instant.now()));
-    componentIndexes.put(worldId, RailGraphComponentIndex.fromGraph(graph));
-    staleStates.remove(worldId);
+    installSnapshot(world.getUID(), graph, Instant.now());
     return graph;
   }
 
@@ -70,10 +164,7 @@ public final class RailGraphService {
     Objects.requireNonNull(world, "world");
     Objects.requireNonNull(graph, "graph");
     Objects.requireNonNull(builtAt, "builtAt");
-    UUID worldId = world.getUID();
-    snapshots.put(worldId, new RailGraphSnapshot(graph, builtAt));
-    componentIndexes.put(worldId, RailGraphComponentIndex.fromGraph(graph));
-    staleStates.remove(worldId);
+    installSnapshot(world.getUID(), graph, builtAt);
   }
 
   public Optional<RailGraphSnapshot> getSnapshot(World world) {
@@ -157,6 +248,23 @@ public final class RailGraphService {
     return Optional.empty();
   }
 
+  /**
+   * 按图实例反查所属世界：仅匹配当前已安装的快照实例（引用相等），已被替换的旧快照返回 empty。
+   *
+   * <p>覆盖视图（{@code EdgeOverrideRailGraph}）需由调用方先取出底层快照再查询。
+   */
+  public Optional<UUID> findWorldIdForGraph(RailGraph graph) {
+    if (graph == null) {
+      return Optional.empty();
+    }
+    for (Map.Entry<UUID, RailGraphSnapshot> entry : snapshots.entrySet()) {
+      if (entry.getValue().graph() == graph) {
+        return Optional.of(entry.getKey());
+      }
+    }
+    return Optional.empty();
+  }
+
   public Optional<RailGraphStaleState> getStaleState(World world) {
     Objects.requireNonNull(world, "world");
     return Optional.ofNullable(staleStates.get(world.getUID()));
@@ -205,7 +313,9 @@ public final class RailGraphService {
     Objects.requireNonNull(world, "world");
     Objects.requireNonNull(state, "state");
     UUID worldId = world.getUID();
-    snapshots.remove(worldId);
+    if (snapshots.remove(worldId) != null) {
+      snapshotChanged();
+    }
     componentIndexes.remove(worldId);
     staleStates.put(worldId, state);
   }
@@ -222,7 +332,11 @@ public final class RailGraphService {
     UUID worldId = world.getUID();
     staleStates.remove(worldId);
     componentIndexes.remove(worldId);
-    return snapshots.remove(worldId) != null;
+    if (snapshots.remove(worldId) == null) {
+      return false;
+    }
+    snapshotChanged();
+    return true;
   }
 
   /** 返回节点所属连通分量的 key（不存在则 empty）。 */
@@ -305,13 +419,21 @@ public final class RailGraphService {
         edgeOverrides.getOrDefault(worldId, new ConcurrentHashMap<>()).get(normalized));
   }
 
-  /** 写入或更新某条边的运维覆盖（仅更新内存）。 */
+  /**
+   * 写入或更新某条边的运维覆盖（仅更新内存）。
+   *
+   * <p>若新旧记录任一带封锁字段，会清空该世界快照的最短路缓存并重新预热。
+   */
   public void putEdgeOverride(RailEdgeOverrideRecord override) {
     Objects.requireNonNull(override, "override");
     EdgeId normalized = EdgeId.undirected(override.edgeId().a(), override.edgeId().b());
-    edgeOverrides
-        .computeIfAbsent(override.worldId(), ignored -> new ConcurrentHashMap<>())
-        .put(normalized, override);
+    RailEdgeOverrideRecord previous =
+        edgeOverrides
+            .computeIfAbsent(override.worldId(), ignored -> new ConcurrentHashMap<>())
+            .put(normalized, override);
+    if (affectsBlocking(previous) || affectsBlocking(override)) {
+      invalidateRoutePaths(override.worldId());
+    }
   }
 
   /** 删除某条边的运维覆盖（仅更新内存）。 */
@@ -323,10 +445,158 @@ public final class RailGraphService {
     if (byWorld == null) {
       return;
     }
-    byWorld.remove(normalized);
+    RailEdgeOverrideRecord previous = byWorld.remove(normalized);
     if (byWorld.isEmpty()) {
       edgeOverrides.remove(worldId, byWorld);
     }
+    if (affectsBlocking(previous)) {
+      invalidateRoutePaths(worldId);
+    }
+  }
+
+  /**
+   * 设置最短路预热来源：返回各线路的 waypoint 序列（通常取自 RouteDefinitionCache）。
+   *
+   * <p>安装新快照、封锁覆盖变更或线路定义重载后，会在后台按相邻 waypoint 对预先填充快照的路径缓存，使运行时热路径直接命中。
+   */
+  public void setPathPrewarmSource(Supplier<? extends Collection<List<NodeId>>> source) {
+    this.pathPrewarmSource = source != null ? source : List::of;
+  }
+
+  /**
+   * 设置二进制快照缓存：启动加载时在 rail_nodes 签名校验通过后优先从缓存文件还原调度图，跳过 rail_edges 的逐行读取。
+   *
+   * <p>传入 null 表示禁用缓存（始终走 JDBC）。
+   */
+  public void setBinaryCache(RailGraphBinaryCache cache) {
+    this.binaryCache = cache;
+  }
+
+  /** 当前二进制快照缓存的写入戳（未启用缓存时返回 0）。 */
+  public long binarySnapshotStamp(UUID worldId) {
+    RailGraphBinaryCache cache = binaryCache;
+    return cache != null ? cache.stamp(worldId) : 0L;
+  }
+
+  /**
+   * 在快照记录落盘后刷新二进制缓存（后台写入）。
+   *
+   * @param stamp 准备记录时通过 {@link #binarySnapshotStamp} 取得的写入戳
+   */
+  public void writeBinarySnapshot(
+      long stamp,
+      RailGraphSnapshotRecord snapshot,
+      List<RailNodeRecord> nodes,
+      List<RailEdgeRecord> edges) {
+    RailGraphBinaryCache cache = binaryCache;
+    if (cache != null) {
+      cache.writeAsync(stamp, snapshot, nodes, edges);
+    }
+  }
+
+  /** 使该世界的二进制缓存失效（rail_nodes 被直接改写或快照被删除时调用）。 */
+  public void invalidateBinarySnapshot(UUID worldId) {
+    RailGraphBinaryCache cache = binaryCache;
+    if (cache != null) {
+      cache.invalidate(worldId);
+    }
+  }
+
+  /** 在后台为所有已加载快照预热线路相邻 waypoint 的最短路缓存。 */
+  public void prewarmRoutePaths() {
+    for (UUID worldId : snapshots.keySet()) {
+      prewarmRoutePaths(worldId);
+    }
+  }
+
+  private void invalidateRoutePaths(UUID worldId) {
+    RailGraphSnapshot snapshot = snapshots.get(worldId);
+    if (snapshot != null && snapshot.graph() instanceof SimpleRailGraph simple) {
+      simple.pathCache().clear();
+      prewarmRoutePaths(worldId);
+    }
+  }
+
+  /**
+   * 为指定世界排队一次最短路预热。
+   *
+   * <p>已有排队中的预热时直接返回；预热开始执行时才清除排队标记，因此执行期间的新触发会在其后再排一次，保证最终基于最新快照与封锁状态。
+   */
+  private void prewarmRoutePaths(UUID worldId) {
+    RailGraphSnapshot snapshot = snapshots.get(worldId);
+    if (snapshot == null || !(snapshot.graph() instanceof SimpleRailGraph)) {
+      return;
+    }
+    if (!prewarmPending.add(worldId)) {
+      return;
+    }
+    try {
+      prewarmExecutor.execute(() -> runPrewarm(worldId));
+    } catch (RejectedExecutionException ex) {
+      prewarmPending.remove(worldId);
+      debugLogger.accept("最短路缓存预热已丢弃（队列已满或已关闭）: world=" + worldId);
+    }
+  }
+
+  private void runPrewarm(UUID worldId) {
+    prewarmPending.remove(worldId);
+    try {
+      RailGraphSnapshot current = snapshots.get(worldId);
+      if (current == null || !(current.graph() instanceof SimpleRailGraph graph)) {
+        return;
+      }
+      Set<EdgeId> blocked =
+          EdgeOverrideRailGraph.collectBlockedOverrides(
+              edgeOverrides.getOrDefault(worldId, new ConcurrentHashMap<>()), Instant.now());
+      int pairs = 0;
+      for (List<NodeId> waypoints : pathPrewarmSource.get()) {
+        if (waypoints == null) {
+          continue;
+        }
+        for (int i = 0; i + 1 < waypoints.size(); i++) {
+          NodeId from = waypoints.get(i);
+          NodeId to = waypoints.get(i + 1);
+          if (from == null
+              || to == null
+              || graph.findNode(from).isEmpty()
+              || graph.findNode(to).isEmpty()) {
+            continue;
+          }
+          graph.shortestPathByLength(from, to, false, blocked);
+          pairs++;
+        }
+      }
+      if (pairs > 0) {
+        debugLogger.accept("最短路缓存预热完成: world=" + worldId + " pairs=" + pairs);
+      }
+    } catch (RuntimeException ex) {
+      debugLogger.accept(
+          "最短路缓存预热失败: world=" + worldId + " error=" + ex.getClass().getSimpleName());
+    }
+  }
+
+  private static ExecutorService newPrewarmExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            30L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(PREWARM_QUEUE_CAPACITY),
+            runnable -> {
+              Thread thread =
+                  new Thread(
+                      runnable, "FetaruteTCAddon-PathPrewarm-" + THREAD_SEQUENCE.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static boolean affectsBlocking(RailEdgeOverrideRecord override) {
+    return override != null && (override.blockedManual() || override.blockedUntil().isPresent());
   }
 
   /**
@@ -382,7 +652,8 @@ public final class RailGraphService {
   /**
    * 从存储后端加载每个世界的持久化调度图到内存。
    *
-   * <p>若某世界没有快照记录，将跳过加载。
+   * <p>若某世界没有快照记录，将跳过加载。rail_nodes 签名过期检查总会执行；通过后若二进制缓存与快照记录一致、且缓存头签名等于当前 rail_nodes
+   * 签名，直接从缓存还原（跳过 rail_edges 读取）；否则走 JDBC，成功后回写缓存。
    */
   public void loadFromStorage(StorageProvider provider, java.util.List<World> worlds) {
     Objects.requireNonNull(provider, "provider");
@@ -440,6 +711,8 @@ public final class RailGraphService {
         continue;
       }
       RailGraphSnapshotRecord snapshot = snapshotOpt.get();
+      RailGraphBinaryCache cache = binaryCache;
+      long cacheStamp = cache != null ? cache.stamp(worldId) : 0L;
       java.util.List<RailNodeRecord> nodeRecords = nodeRepo.listByWorld(worldId);
       String currentSignature = RailGraphSignature.signatureForNodes(nodeRecords);
       if (snapshot.nodeSignature().isEmpty()
@@ -454,7 +727,9 @@ public final class RailGraphService {
                 snapshot.nodeCount(),
                 snapshot.edgeCount(),
                 nodeRecords.size()));
-        snapshots.remove(worldId);
+        if (snapshots.remove(worldId) != null) {
+          snapshotChanged();
+        }
         continue;
       }
 
@@ -470,9 +745,24 @@ public final class RailGraphService {
                 snapshot.nodeCount(),
                 snapshot.edgeCount(),
                 nodeRecords.size()));
-        snapshots.remove(worldId);
+        if (snapshots.remove(worldId) != null) {
+          snapshotChanged();
+        }
+        continue;
+      }
+
+      // 二进制缓存只替代 rail_edges 读取：rail_nodes 签名仍须与缓存头一致，否则回退 JDBC
+      Optional<RailGraphBinarySnapshot> cached =
+          cache != null ? cache.read(snapshot) : Optional.empty();
+      if (cached.isPresent() && cached.get().nodeSignature().equals(currentSignature)) {
+        debugLogger.accept("调度图从二进制缓存加载: world=" + worldId);
+        installLoadedGraph(
+            worldId, snapshot, buildGraphFromRecords(cached.get().nodes(), cached.get().edges()));
         continue;
       }
+      if (cached.isPresent()) {
+        debugLogger.accept("调度图二进制缓存与 rail_nodes 不一致，回退 JDBC: world=" + worldId);
+      }
 
       java.util.List<RailEdgeRecord> edgeRecords = edgeRepo.listByWorld(worldId);
       if (snapshot.nodeSignature().isEmpty() && !currentSignature.isEmpty()) {
@@ -482,7 +772,8 @@ public final class RailGraphService {
                 snapshot.builtAt(),
                 snapshot.nodeCount(),
                 snapshot.edgeCount(),
-                currentSignature);
+                currentSignature,
+                snapshot.componentSignatures());
         try {
           snapshotRepo.save(updated);
           snapshot = updated;
@@ -494,13 +785,17 @@ public final class RailGraphService {
                   + ex.getMessage());
         }
       }
-      RailGraph graph = buildGraphFromRecords(nodeRecords, edgeRecords);
-      snapshots.put(worldId, new RailGraphSnapshot(graph, snapshot.builtAt()));
-      componentIndexes.put(worldId, RailGraphComponentIndex.fromGraph(graph));
-      staleStates.remove(worldId);
+      installLoadedGraph(worldId, snapshot, buildGraphFromRecords(nodeRecords, edgeRecords));
+      if (cache != null) {
+        cache.writeAsync(cacheStamp, snapshot, nodeRecords, edgeRecords);
+      }
     }
   }
 
+  private void installLoadedGraph(UUID worldId, RailGraphSnapshotRecord snapshot, RailGraph graph) {
+    installSnapshot(worldId, graph, snapshot.builtAt());
+  }
+
   /**
    * 从存储记录还原一张 {@link RailGraph}。
    *
@@ -543,11 +838,21 @@ public final class RailGraphService {
     return new SimpleRailGraph(nodesById, edgesById, java.util.Set.of());
   }
 
-  public record RailGraphSnapshot(RailGraph graph, Instant builtAt) {
+  /**
+   * 世界图快照。
+   *
+   * @param version 安装时分配的 {@link #snapshotVersion()}；与 graph 同属一个对象，派生缓存据此标记缓存项
+   */
+  public record RailGraphSnapshot(RailGraph graph, Instant builtAt, long version) {
     public RailGraphSnapshot {
       Objects.requireNonNull(graph, "graph");
       Objects.requireNonNull(builtAt, "builtAt");
     }
+
+    /** 未经本服务安装的快照（测试/外部构造），版本为 0。 */
+    public RailGraphSnapshot(RailGraph graph, Instant builtAt) {
+      this(graph, builtAt, 0L);
+    }
   }
 
   /** 快照已失效：节点集合（签名）与当前 rail_nodes 不一致，旧图应提示重建。 */
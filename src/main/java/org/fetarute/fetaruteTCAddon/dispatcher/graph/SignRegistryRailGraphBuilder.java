@@ -67,10 +67,7 @@ public final class SignRegistryRailGraphBuilder implements RailGraphBuilder {
     Map<NodeId, Set<RailBlockPos>> anchorsByNode = new HashMap<>();
 
     TrainCartsRailBlockAccess railAccess = new TrainCartsRailBlockAccess(world);
-    for (SignNodeRegistry.SignNodeInfo info : registry.snapshotInfos().values()) {
-      if (!worldId.equals(info.worldId())) {
-        continue;
-      }
+    for (SignNodeRegistry.SignNodeInfo info : registry.findInWorld(worldId)) {
 
       SignNodeDefinition def = info.definition();
       Vector position = new Vector(info.x(), info.y(), info.z());
@@ -1,5 +1,6 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.graph;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -7,17 +8,22 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
 
 /** 线程安全的不可变调度图快照实现。 */
-public final class SimpleRailGraph implements RailGraph, RailGraphCorridorSupport {
+public final class SimpleRailGraph
+    implements RailGraph, RailGraphCorridorSupport, RailGraphPathSupport {
 
   private final Map<NodeId, RailNode> nodesById;
   private final Map<EdgeId, RailEdge> edgesById;
   private final Map<NodeId, Set<RailEdge>> edgesFrom;
   private final Set<EdgeId> blockedEdges;
   private volatile RailGraphConflictIndex conflictIndex;
+  private volatile CompiledRailGraph compiled;
+  private final RailGraphPathCache pathCache =
+      new RailGraphPathCache(RailGraphPathCache.DEFAULT_MAX_ENTRIES);
 
   public SimpleRailGraph(
       Map<NodeId, RailNode> nodesById, Map<EdgeId, RailEdge> edgesById, Set<EdgeId> blockedEdges) {
@@ -111,6 +117,82 @@ public final class SimpleRailGraph implements RailGraph, RailGraphCorridorSuppor
     return index.corridorInfoForEdge(edgeId);
   }
 
+  /** 返回已构建的冲突索引；尚未懒构建时返回 null（不会触发构建）。 */
+  RailGraphConflictIndex conflictIndexIfBuilt() {
+    return conflictIndex;
+  }
+
+  /**
+   * 预先设置冲突索引（由局部合并按旧索引增量计算得到），避免首次查询时全图重算。
+   *
+   * <p>仅在索引尚未构建时生效。
+   */
+  void primeConflictIndex(RailGraphConflictIndex index) {
+    Objects.requireNonNull(index, "index");
+    synchronized (this) {
+      if (conflictIndex == null) {
+        conflictIndex = index;
+      }
+    }
+  }
+
+  /**
+   * 返回该快照的 CSR 编译形式，供最短路等热路径使用。
+   *
+   * <p>与冲突索引相同：首次访问时懒构建并缓存，快照不可变因此无需失效。
+   */
+  public CompiledRailGraph compiled() {
+    CompiledRailGraph result = compiled;
+    if (result == null) {
+      synchronized (this) {
+        result = compiled;
+        if (result == null) {
+          result = CompiledRailGraph.compile(nodesById.values(), edgesById.values(), blockedEdges);
+          compiled = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 按区间长度查询最短路，结果缓存在本快照的 {@link #pathCache()} 中。
+   *
+   * <p>热路径（信号/占用/ETA 每 tick 反复查询相同的相邻 waypoint 对）在图稳定时不再重复跑 Dijkstra。
+   */
+  @Override
+  public Optional<RailGraphPath> shortestPathByLength(
+      NodeId from, NodeId to, boolean allowBlockedEdges) {
+    return shortestPathByLength(from, to, allowBlockedEdges, Set.of());
+  }
+
+  /**
+   * 同 {@link #shortestPathByLength(NodeId, NodeId, boolean)}，并额外封锁 {@code extraBlockedEdges}（覆盖层）。
+   *
+   * <p>额外封锁集合参与缓存 key；{@code allowBlockedEdges=true} 时忽略该集合。
+   */
+  public Optional<RailGraphPath> shortestPathByLength(
+      NodeId from, NodeId to, boolean allowBlockedEdges, Set<EdgeId> extraBlockedEdges) {
+    Objects.requireNonNull(from, "from");
+    Objects.requireNonNull(to, "to");
+    Set<EdgeId> extraBlocked =
+        allowBlockedEdges || extraBlockedEdges == null ? Set.of() : extraBlockedEdges;
+    RailGraphPathCache.PathKey key =
+        new RailGraphPathCache.PathKey(from, to, allowBlockedEdges, extraBlocked);
+    return pathCache.resolve(
+        key,
+        () -> {
+          CompiledRailGraph graph = compiled();
+          BitSet mask = key.extraBlocked().isEmpty() ? null : graph.edgeMask(key.extraBlocked());
+          return graph.shortestPath(from, to, allowBlockedEdges, mask);
+        });
+  }
+
+  /** 返回本快照的最短路缓存（统计/主动失效用）。 */
+  public RailGraphPathCache pathCache() {
+    return pathCache;
+  }
+
   /** 构建邻接表（无向图）。 */
   private static Map<NodeId, Set<RailEdge>> buildAdjacency(
       Map<NodeId, RailNode> nodes, Map<EdgeId, RailEdge> edges) {
@@ -9,6 +9,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import org.bukkit.World;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -23,6 +28,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRailNode;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailBlockPos;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailGraphMultiSourceExplorerSession;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.SnapshotRailBlockAccess;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.TrainCartsRailBlockAccess;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
@@ -36,6 +42,9 @@ import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
  *
  * <p>当启用 {@link ChunkLoadOptions} 时，会在 HERE 模式沿轨道按需异步加载相邻区块（不会随便扩张）。
  *
+ * <p>BFS 边探索阶段在异步线程运行：多源 Dijkstra 读取 {@link SnapshotRailBlockAccess} 的不可变轨道快照，主线程每 tick
+ * 只在预算内捕获快照单元。节点到节点模式依赖 TrainCarts 的 TrackWalkingPoint（直接访问 live 方块），仍在主线程分段执行。
+ *
  * <p>节点来源（按优先级合并去重）：
  *
  * <ul>
@@ -86,12 +95,22 @@ public final class RailGraphBuildJob implements Runnable {
   private TrainCartsRailBlockAccess access;
   private ConnectedRailNodeDiscoverySession connectedDiscovery;
   private LoadedChunkNodeScanSession loadedChunkDiscovery;
-  private RailGraphMultiSourceExplorerSession edgeSession;
+  private SnapshotRailBlockAccess edgeSnapshot;
+  private CompletableFuture<Map<EdgeId, Integer>> edgeWork;
   private NodeToNodeEdgeExplorer nodeToNodeExplorer;
   private List<RailNodeRecord> finalNodes = List.of();
   private List<DuplicateNodeId> duplicateNodeIds = List.of();
   private RailGraphBuildStatus status;
 
+  /** 构建期间采样到的已用堆峰值（主线程 tick 与探索线程都会采样）。 */
+  private final AtomicLong heapPeakBytes = new AtomicLong();
+
+  /** 边探索统计（heapPeakBytes 在完成时补齐）；由探索线程或主线程在探索完成时写入。 */
+  private RailGraphBuildStats exploreStats = RailGraphBuildStats.empty();
+
+  private long nodeExploreStartNanos;
+  private long nodeExploreSteps;
+
   /**
    * @param seedRails HERE 模式的起始轨道锚点集合（优先来自 TCC 编辑器选中位置，其次来自牌子/脚下轨道）
    * @param preseedNodes 预置节点列表（用于把 TCC TrackNode 注入为 Node）
@@ -273,6 +292,9 @@ public final class RailGraphBuildJob implements Runnable {
     }
     task.cancel();
     task = null;
+    if (edgeSnapshot != null) {
+      edgeSnapshot.close();
+    }
     // 取消时也释放 chunk tickets
     if (connectedDiscovery != null) {
       connectedDiscovery.releaseChunkTickets();
@@ -287,7 +309,8 @@ public final class RailGraphBuildJob implements Runnable {
       TrainCartsRailBlockAccess currentAccess;
       ConnectedRailNodeDiscoverySession currentConnectedDiscovery;
       LoadedChunkNodeScanSession currentLoadedDiscovery;
-      RailGraphMultiSourceExplorerSession currentEdgeSession;
+      SnapshotRailBlockAccess currentEdgeSnapshot;
+      CompletableFuture<Map<EdgeId, Integer>> currentEdgeWork;
       NodeToNodeEdgeExplorer currentNodeExplorer;
       List<RailNodeRecord> currentFinalNodes;
       List<DuplicateNodeId> currentDuplicateNodeIds;
@@ -296,7 +319,8 @@ public final class RailGraphBuildJob implements Runnable {
         currentAccess = this.access;
         currentConnectedDiscovery = this.connectedDiscovery;
         currentLoadedDiscovery = this.loadedChunkDiscovery;
-        currentEdgeSession = this.edgeSession;
+        currentEdgeSnapshot = this.edgeSnapshot;
+        currentEdgeWork = this.edgeWork;
         currentNodeExplorer = this.nodeToNodeExplorer;
         currentFinalNodes = this.finalNodes;
         currentDuplicateNodeIds = this.duplicateNodeIds;
@@ -306,6 +330,7 @@ public final class RailGraphBuildJob implements Runnable {
         return;
       }
 
+      sampleHeap();
       long deadline = System.nanoTime() + tickBudgetNanos;
       if (currentPhase == Phase.DISCOVER_NODES) {
         runDiscovery(deadline, currentAccess, currentConnectedDiscovery, currentLoadedDiscovery);
@@ -326,12 +351,10 @@ public final class RailGraphBuildJob implements Runnable {
             runNodeToNodeEdgeExplore(
                 deadline, currentNodeExplorer, currentFinalNodes, currentDuplicateNodeIds);
       } else {
-        if (currentEdgeSession == null) {
+        if (currentEdgeSnapshot == null || currentEdgeWork == null) {
           return;
         }
-        edgeLengths =
-            runBfsEdgeExplore(
-                deadline, currentEdgeSession, currentFinalNodes, currentDuplicateNodeIds);
+        edgeLengths = runBfsEdgeExplore(deadline, currentEdgeSnapshot, currentEdgeWork);
       }
 
       if (edgeLengths == null) {
@@ -344,9 +367,29 @@ public final class RailGraphBuildJob implements Runnable {
       Instant builtAt = Instant.now();
       String signature = RailGraphSignature.signatureForNodes(currentFinalNodes);
       cancel();
+      RailGraphBuildStats stats = finishStats();
+      debugLogger.accept(
+          "调度图构建统计: visitedRails="
+              + stats.visitedRailBlocks()
+              + " steps="
+              + stats.processedSteps()
+              + " exploreMs="
+              + (stats.exploreNanos() / 1_000_000L)
+              + " blocksPerSec="
+              + Math.round(stats.blocksPerSecond())
+              + " explorerPeakKiB="
+              + (stats.explorerPeakBytes() >> 10)
+              + " heapPeakMiB="
+              + (stats.heapPeakBytes() >> 20));
       RailGraphBuildResult result =
           new RailGraphBuildResult(
-              graph, builtAt, signature, currentFinalNodes, List.of(), currentDuplicateNodeIds);
+              graph,
+              builtAt,
+              signature,
+              currentFinalNodes,
+              List.of(),
+              currentDuplicateNodeIds,
+              stats);
       RailGraphBuildCompletion completion = computeCompletion();
       Optional<RailGraphBuildContinuation> nextContinuation = Optional.empty();
       if (mode == BuildMode.HERE && connectedDiscovery != null && connectedDiscovery.isPaused()) {
@@ -366,51 +409,81 @@ public final class RailGraphBuildJob implements Runnable {
   }
 
   /**
-   * 使用 BFS 多源探索执行边探索。
+   * BFS 多源探索的主线程部分：在预算内捕获轨道快照，并检查异步探索是否完成。
    *
    * @return 边长映射（如果完成），或 null（如果还在进行中）
    */
   private Map<EdgeId, Integer> runBfsEdgeExplore(
       long deadline,
-      RailGraphMultiSourceExplorerSession currentEdgeSession,
-      List<RailNodeRecord> currentFinalNodes,
-      List<DuplicateNodeId> currentDuplicateNodeIds) {
-
-    // 限制每 tick 最大步数，确保即使单步操作慢也不会卡住太久
-    int maxStepsPerTick = 128;
-    int stepsThisTick = 0;
-    while (System.nanoTime() < deadline
-        && !currentEdgeSession.isDone()
-        && stepsThisTick < maxStepsPerTick) {
-      // 每次只处理一小批，然后检查时间预算
-      int stepped = currentEdgeSession.step(DEFAULT_STEP_BATCH);
-      stepsThisTick += stepped;
-      // 如果时间紧张就提前退出，避免超出预算
-      if (System.nanoTime() >= deadline) {
-        break;
-      }
+      SnapshotRailBlockAccess currentEdgeSnapshot,
+      CompletableFuture<Map<EdgeId, Integer>> currentEdgeWork) {
+    currentEdgeSnapshot.capture(deadline);
+    if (!currentEdgeWork.isDone()) {
+      return null;
     }
-    synchronized (this) {
-      if (status != null) {
-        status =
-            new RailGraphBuildStatus(
-                status.startedAt(),
-                Phase.EXPLORE_EDGES.name().toLowerCase(java.util.Locale.ROOT),
-                currentFinalNodes.size(),
-                status.nodesWithAnchors(),
-                status.nodesMissingAnchors(),
-                status.scannedChunks(),
-                status.scannedSigns(),
-                currentEdgeSession.visitedRailBlocks(),
-                currentEdgeSession.queueSize(),
-                currentEdgeSession.processedSteps());
+    try {
+      return currentEdgeWork.join();
+    } catch (CompletionException ex) {
+      Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+      if (cause instanceof RuntimeException runtime) {
+        throw runtime;
       }
+      throw new IllegalStateException("异步边探索失败", cause);
     }
-    if (!currentEdgeSession.isDone()) {
-      return null;
-    }
+  }
 
-    return currentEdgeSession.edgeLengths();
+  /**
+   * BFS 多源探索的异步部分：在工作线程推进 Dijkstra，直到完成或快照被关闭（任务取消）。
+   *
+   * <p>进度通过 {@link #status} 发布（与主线程同一把锁）。
+   */
+  private Map<EdgeId, Integer> exploreEdgesOffThread(
+      Map<NodeId, Set<RailBlockPos>> anchorsByNode,
+      SnapshotRailBlockAccess snapshot,
+      int nodeCount) {
+    long startNanos = System.nanoTime();
+    RailGraphMultiSourceExplorerSession session =
+        new RailGraphMultiSourceExplorerSession(
+            anchorsByNode, snapshot, edgeExploreMode.maxDistanceBlocks());
+    while (!session.isDone()) {
+      session.step(DEFAULT_STEP_BATCH);
+      sampleHeap();
+      synchronized (this) {
+        if (task == null) {
+          throw new CancellationException("构建任务已取消");
+        }
+        if (status != null) {
+          status =
+              new RailGraphBuildStatus(
+                  status.startedAt(),
+                  Phase.EXPLORE_EDGES.name().toLowerCase(java.util.Locale.ROOT),
+                  nodeCount,
+                  status.nodesWithAnchors(),
+                  status.nodesMissingAnchors(),
+                  status.scannedChunks(),
+                  status.scannedSigns(),
+                  session.visitedRailBlocks(),
+                  session.queueSize(),
+                  session.processedSteps());
+        }
+      }
+    }
+    debugLogger.accept(
+        "异步边探索完成: visitedRails="
+            + session.visitedRailBlocks()
+            + " capturedCells="
+            + snapshot.capturedCells());
+    Map<EdgeId, Integer> lengths = session.edgeLengths();
+    synchronized (this) {
+      exploreStats =
+          new RailGraphBuildStats(
+              session.visitedRailBlocks(),
+              session.processedSteps(),
+              System.nanoTime() - startNanos,
+              session.estimatedBytes(),
+              0L);
+    }
+    return lengths;
   }
 
   /**
@@ -425,6 +498,7 @@ public final class RailGraphBuildJob implements Runnable {
       List<DuplicateNodeId> currentDuplicateNodeIds) {
 
     int stepsThisTick = currentNodeExplorer.step(deadline);
+    nodeExploreSteps += stepsThisTick;
     synchronized (this) {
       if (status != null) {
         status =
@@ -444,11 +518,32 @@ public final class RailGraphBuildJob implements Runnable {
     if (!currentNodeExplorer.isDone()) {
       return null;
     }
+    synchronized (this) {
+      exploreStats =
+          new RailGraphBuildStats(
+              0, nodeExploreSteps, System.nanoTime() - nodeExploreStartNanos, 0L, 0L);
+    }
 
     debugLogger.accept("节点到节点探索完成: edges=" + currentNodeExplorer.discoveredEdgeCount());
     return currentNodeExplorer.getDiscoveredEdges();
   }
 
+  private void sampleHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = runtime.totalMemory() - runtime.freeMemory();
+    heapPeakBytes.accumulateAndGet(used, Math::max);
+  }
+
+  private synchronized RailGraphBuildStats finishStats() {
+    sampleHeap();
+    return new RailGraphBuildStats(
+        exploreStats.visitedRailBlocks(),
+        exploreStats.processedSteps(),
+        exploreStats.exploreNanos(),
+        exploreStats.explorerPeakBytes(),
+        heapPeakBytes.get());
+  }
+
   private RailGraphBuildCompletion computeCompletion() {
     if (mode != BuildMode.HERE) {
       return RailGraphBuildCompletion.PARTIAL_UNLOADED_CHUNKS;
@@ -605,25 +700,34 @@ public final class RailGraphBuildJob implements Runnable {
       Map<NodeId, Set<RailBlockPos>> anchorsByNode,
       int missingAnchors,
       TrainCartsRailBlockAccess currentAccess) {
-    RailGraphMultiSourceExplorerSession newSession =
-        new RailGraphMultiSourceExplorerSession(
-            anchorsByNode, currentAccess, edgeExploreMode.maxDistanceBlocks());
+    SnapshotRailBlockAccess snapshot =
+        new SnapshotRailBlockAccess(currentAccess, SnapshotRailBlockAccess.DEFAULT_PREFETCH_HOPS);
+    for (Set<RailBlockPos> anchors : anchorsByNode.values()) {
+      snapshot.seed(anchors);
+    }
+    Map<NodeId, Set<RailBlockPos>> anchors = Map.copyOf(anchorsByNode);
+    int nodeCount = nodes.size();
+    Executor worker =
+        runnable -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable);
     synchronized (this) {
-      this.edgeSession = newSession;
+      this.edgeSnapshot = snapshot;
       if (status != null) {
         status =
             new RailGraphBuildStatus(
                 status.startedAt(),
                 Phase.EXPLORE_EDGES.name().toLowerCase(java.util.Locale.ROOT),
-                nodes.size(),
+                nodeCount,
                 anchorsByNode.size(),
                 missingAnchors,
                 status.scannedChunks(),
                 status.scannedSigns(),
-                newSession.visitedRailBlocks(),
-                newSession.queueSize(),
-                newSession.processedSteps());
+                0,
+                0,
+                0);
       }
+      this.edgeWork =
+          CompletableFuture.supplyAsync(
+              () -> exploreEdgesOffThread(anchors, snapshot, nodeCount), worker);
     }
   }
 
@@ -668,6 +772,8 @@ public final class RailGraphBuildJob implements Runnable {
 
     synchronized (this) {
       this.nodeToNodeExplorer = explorer;
+      this.nodeExploreStartNanos = System.nanoTime();
+      this.nodeExploreSteps = 0L;
       if (status != null) {
         status =
             new RailGraphBuildStatus(
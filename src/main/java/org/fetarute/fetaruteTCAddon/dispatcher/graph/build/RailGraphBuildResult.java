@@ -12,6 +12,8 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
  *
  * <p>{@code missingSwitcherJunctions} 预留字段：历史上用于输出“道岔附近缺少 switcher 牌子”的运维提示。
  * 当前版本不再生成该提示，因此该列表通常为空；保留字段仅用于兼容与未来扩展。
+ *
+ * <p>{@code stats} 为构建规模与性能统计；合并/同步路径等非分段构建结果为 {@link RailGraphBuildStats#empty()}。
  */
 public record RailGraphBuildResult(
     RailGraph graph,
@@ -19,7 +21,25 @@ public record RailGraphBuildResult(
     String nodeSignature,
     List<RailNodeRecord> nodes,
     List<RailBlockPos> missingSwitcherJunctions,
-    List<DuplicateNodeId> duplicateNodeIds) {
+    List<DuplicateNodeId> duplicateNodeIds,
+    RailGraphBuildStats stats) {
+
+  public RailGraphBuildResult(
+      RailGraph graph,
+      Instant builtAt,
+      String nodeSignature,
+      List<RailNodeRecord> nodes,
+      List<RailBlockPos> missingSwitcherJunctions,
+      List<DuplicateNodeId> duplicateNodeIds) {
+    this(
+        graph,
+        builtAt,
+        nodeSignature,
+        nodes,
+        missingSwitcherJunctions,
+        duplicateNodeIds,
+        RailGraphBuildStats.empty());
+  }
 
   public RailGraphBuildResult {
     Objects.requireNonNull(graph, "graph");
@@ -29,5 +49,6 @@ public record RailGraphBuildResult(
     missingSwitcherJunctions =
         missingSwitcherJunctions != null ? List.copyOf(missingSwitcherJunctions) : List.of();
     duplicateNodeIds = duplicateNodeIds != null ? List.copyOf(duplicateNodeIds) : List.of();
+    stats = stats != null ? stats : RailGraphBuildStats.empty();
   }
 }
@@ -0,0 +1,40 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.build;
+
+/**
+ * 图构建的规模与性能统计，用于评估大型线网的构建耗时与内存需求。
+ *
+ * @param visitedRailBlocks 边探索阶段访问过的轨道方块数（节点到节点模式为 0）
+ * @param processedSteps 边探索阶段处理的步数（BFS 为出队次数；节点到节点为 walker 步数）
+ * @param exploreNanos 边探索阶段耗时（纳秒，墙钟时间）
+ * @param explorerPeakBytes 探索器内部原始数组/哈希表的估算峰值字节数
+ * @param heapPeakBytes 构建期间采样到的 JVM 已用堆峰值（包含服务器其他负载，仅供参考）
+ */
+public record RailGraphBuildStats(
+    int visitedRailBlocks,
+    long processedSteps,
+    long exploreNanos,
+    long explorerPeakBytes,
+    long heapPeakBytes) {
+
+  public RailGraphBuildStats {
+    if (visitedRailBlocks < 0
+        || processedSteps < 0
+        || exploreNanos < 0
+        || explorerPeakBytes < 0
+        || heapPeakBytes < 0) {
+      throw new IllegalArgumentException("build stats 不能为负");
+    }
+  }
+
+  public static RailGraphBuildStats empty() {
+    return new RailGraphBuildStats(0, 0L, 0L, 0L, 0L);
+  }
+
+  /** 每秒处理的轨道方块数（按 processedSteps 计）；耗时为 0 时返回 0。 */
+  public double blocksPerSecond() {
+    if (exploreNanos <= 0L) {
+      return 0.0;
+    }
+    return processedSteps * 1_000_000_000.0 / exploreNanos;
+  }
+}
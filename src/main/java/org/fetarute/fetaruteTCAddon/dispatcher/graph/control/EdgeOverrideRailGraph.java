@@ -2,6 +2,7 @@ package org.fetarute.fetaruteTCAddon.dispatcher.graph.control;
 
 import java.time.Instant;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -11,20 +12,27 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphCorridorInfo;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphCorridorSupport;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphPathSupport;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeOverrideRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailEdgeCostModels;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
 
 /**
  * RailGraph 覆盖视图：在“图快照（rail_edges）”之上叠加 edge overrides（封锁等），不修改原图实例。
  *
- * <p>当前仅覆盖 {@link #isBlocked(EdgeId)}，其余方法均委托给底层图。
+ * <p>当前仅覆盖 {@link #isBlocked(EdgeId)}，其余方法均委托给底层图。按长度的最短路会把“生效中的封锁覆盖”作为额外封锁集合转交底层快照的路径缓存。
  */
-public final class EdgeOverrideRailGraph implements RailGraph, RailGraphCorridorSupport {
+public final class EdgeOverrideRailGraph
+    implements RailGraph, RailGraphCorridorSupport, RailGraphPathSupport {
 
   private final RailGraph delegate;
   private final Map<EdgeId, RailEdgeOverrideRecord> overrides;
   private final Instant now;
+  private volatile Set<EdgeId> blockedOverrides;
 
   public EdgeOverrideRailGraph(
       RailGraph delegate, Map<EdgeId, RailEdgeOverrideRecord> overrides, Instant now) {
@@ -33,6 +41,11 @@ public final class EdgeOverrideRailGraph implements RailGraph, RailGraphCorridor
     this.now = Objects.requireNonNull(now, "now");
   }
 
+  /** 返回被覆盖的底层图快照。 */
+  public RailGraph delegate() {
+    return delegate;
+  }
+
   /**
    * @return 底层图的节点快照。
    */
@@ -102,4 +115,54 @@ public final class EdgeOverrideRailGraph implements RailGraph, RailGraphCorridor
     }
     return Optional.empty();
   }
+
+  /**
+   * 按区间长度查询最短路（叠加 overrides 封锁）。
+   *
+   * <p>底层为 {@link SimpleRailGraph} 时复用其快照级路径缓存；否则在本视图上运行通用 Dijkstra。
+   */
+  @Override
+  public Optional<RailGraphPath> shortestPathByLength(
+      NodeId from, NodeId to, boolean allowBlockedEdges) {
+    if (delegate instanceof SimpleRailGraph simple) {
+      return simple.shortestPathByLength(from, to, allowBlockedEdges, blockedOverrides());
+    }
+    return new RailGraphPathFinder()
+        .shortestPathGeneric(
+            this,
+            from,
+            to,
+            new RailGraphPathFinder.Options(RailEdgeCostModels.lengthBlocks(), allowBlockedEdges));
+  }
+
+  /** 返回在 {@code now} 时刻生效的封锁覆盖边集合（懒计算并缓存于本视图）。 */
+  public Set<EdgeId> blockedOverrides() {
+    Set<EdgeId> result = blockedOverrides;
+    if (result == null) {
+      result = collectBlockedOverrides(overrides, now);
+      blockedOverrides = result;
+    }
+    return result;
+  }
+
+  /** 计算给定时刻生效的封锁覆盖边集合。 */
+  public static Set<EdgeId> collectBlockedOverrides(
+      Map<EdgeId, RailEdgeOverrideRecord> overrides, Instant now) {
+    Objects.requireNonNull(now, "now");
+    if (overrides == null || overrides.isEmpty()) {
+      return Set.of();
+    }
+    Set<EdgeId> blocked = new HashSet<>();
+    for (Map.Entry<EdgeId, RailEdgeOverrideRecord> entry : overrides.entrySet()) {
+      EdgeId edgeId = entry.getKey();
+      RailEdgeOverrideRecord override = entry.getValue();
+      if (edgeId == null || override == null || edgeId.a() == null || edgeId.b() == null) {
+        continue;
+      }
+      if (override.isBlockedEffective(now)) {
+        blocked.add(EdgeId.undirected(edgeId.a(), edgeId.b()));
+      }
+    }
+    return Set.copyOf(blocked);
+  }
 }
@@ -0,0 +1,40 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+/** 开放寻址哈希表的公共参数：容量为 2 的幂，装载因子 0.5（线性探测在此负载下探测链很短）。 */
+final class HashSupport {
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private HashSupport() {}
+
+  /** 混合 long 的高低位（murmur3 finalizer），打包坐标的低位集中在 y，需要充分扩散。 */
+  static int mix(long key) {
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  static int capacityFor(int expectedSize) {
+    long needed = Math.max(2L, (long) expectedSize * 2L);
+    long capacity = Long.highestOneBit(needed - 1L) << 1;
+    if (capacity > MAX_CAPACITY) {
+      throw new IllegalStateException("哈希表容量超限: " + expectedSize);
+    }
+    return (int) capacity;
+  }
+
+  static int grow(int capacity) {
+    if (capacity >= MAX_CAPACITY) {
+      throw new IllegalStateException("哈希表容量超限: " + capacity);
+    }
+    return capacity << 1;
+  }
+
+  static int resizeThreshold(int capacity) {
+    return capacity >>> 1;
+  }
+}
@@ -0,0 +1,140 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+import java.util.Arrays;
+
+/**
+ * 以 int 槽位为元素、double 为优先级的二叉最小堆，支持 decrease-key。
+ *
+ * <p>Dijkstra 中每个轨道方块只占一个槽位：松弛时原地降低优先级，不再像 {@code PriorityQueue<Entry>} 那样为每次松弛分配新元素并留下过期项。
+ *
+ * <p>非线程安全。
+ */
+final class IndexedMinHeap {
+
+  private static final int ABSENT = -1;
+
+  private int[] heap;
+  private double[] priorities;
+  private int[] positions;
+  private int size;
+
+  IndexedMinHeap() {
+    heap = new int[16];
+    priorities = new double[16];
+    positions = new int[16];
+    Arrays.fill(positions, ABSENT);
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean contains(int slot) {
+    return slot < positions.length && positions[slot] != ABSENT;
+  }
+
+  /** 插入槽位；若已在堆中则在优先级更小时更新（decrease-key）。 */
+  void insertOrDecrease(int slot, double priority) {
+    if (slot < 0) {
+      throw new IllegalArgumentException("slot 不能为负");
+    }
+    ensureSlotCapacity(slot);
+    int position = positions[slot];
+    if (position != ABSENT) {
+      if (priority < priorities[slot]) {
+        priorities[slot] = priority;
+        siftUp(position);
+      }
+      return;
+    }
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size << 1);
+    }
+    priorities[slot] = priority;
+    heap[size] = slot;
+    positions[slot] = size;
+    size++;
+    siftUp(size - 1);
+  }
+
+  /**
+   * 弹出优先级最小的槽位。
+   *
+   * @throws IllegalStateException 堆为空时抛出
+   */
+  int poll() {
+    if (size == 0) {
+      throw new IllegalStateException("堆为空");
+    }
+    int min = heap[0];
+    positions[min] = ABSENT;
+    size--;
+    if (size > 0) {
+      int last = heap[size];
+      heap[0] = last;
+      positions[last] = 0;
+      siftDown(0);
+    }
+    return min;
+  }
+
+  /** 估算占用字节数（仅数组本体）。 */
+  long estimatedBytes() {
+    return (long) heap.length * Integer.BYTES
+        + (long) positions.length * (Integer.BYTES + Double.BYTES);
+  }
+
+  private void ensureSlotCapacity(int slot) {
+    if (slot < positions.length) {
+      return;
+    }
+    int capacity = Math.max(slot + 1, positions.length << 1);
+    int previous = positions.length;
+    positions = Arrays.copyOf(positions, capacity);
+    Arrays.fill(positions, previous, capacity, ABSENT);
+    priorities = Arrays.copyOf(priorities, capacity);
+  }
+
+  private void siftUp(int position) {
+    int slot = heap[position];
+    double priority = priorities[slot];
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      int parentSlot = heap[parent];
+      if (priorities[parentSlot] <= priority) {
+        break;
+      }
+      heap[position] = parentSlot;
+      positions[parentSlot] = position;
+      position = parent;
+    }
+    heap[position] = slot;
+    positions[slot] = position;
+  }
+
+  private void siftDown(int position) {
+    int slot = heap[position];
+    double priority = priorities[slot];
+    int half = size >>> 1;
+    while (position < half) {
+      int child = (position << 1) + 1;
+      int right = child + 1;
+      if (right < size && priorities[heap[right]] < priorities[heap[child]]) {
+        child = right;
+      }
+      int childSlot = heap[child];
+      if (priority <= priorities[childSlot]) {
+        break;
+      }
+      heap[position] = childSlot;
+      positions[childSlot] = position;
+      position = child;
+    }
+    heap[position] = slot;
+    positions[slot] = position;
+  }
+}
@@ -0,0 +1,91 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+/**
+ * long → double 的开放寻址哈希表（线性探测），用于轨道段长度等按坐标缓存的数值。
+ *
+ * <p>不支持删除；非线程安全。
+ */
+final class LongDoubleHashMap {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private double[] values;
+  private boolean[] used;
+  private int size;
+  private int resizeAt;
+
+  LongDoubleHashMap() {
+    allocate(HashSupport.capacityFor(MIN_CAPACITY));
+  }
+
+  /**
+   * @return key 对应的值；不存在时返回 {@code missing}
+   */
+  double get(long key, double missing) {
+    int mask = keys.length - 1;
+    int slot = HashSupport.mix(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return missing;
+  }
+
+  /** 写入或覆盖。 */
+  void put(long key, double value) {
+    int mask = keys.length - 1;
+    int slot = HashSupport.mix(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    used[slot] = true;
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size >= resizeAt) {
+      rehash(HashSupport.grow(keys.length));
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** 估算占用字节数（仅数组本体）。 */
+  long estimatedBytes() {
+    return (long) keys.length * (Long.BYTES + Double.BYTES + 1);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new double[capacity];
+    used = new boolean[capacity];
+    resizeAt = HashSupport.resizeThreshold(capacity);
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    double[] oldValues = values;
+    boolean[] oldUsed = used;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (!oldUsed[i]) {
+        continue;
+      }
+      int slot = HashSupport.mix(oldKeys[i]) & mask;
+      while (used[slot]) {
+        slot = (slot + 1) & mask;
+      }
+      used[slot] = true;
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+/**
+ * long → int 的开放寻址哈希表（线性探测），用于以 {@link PackedRailPos} 为 key 的大规模探索状态。
+ *
+ * <p>不支持删除；非线程安全。
+ */
+final class LongIntHashMap {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] values;
+  private boolean[] used;
+  private int size;
+  private int resizeAt;
+
+  LongIntHashMap() {
+    this(MIN_CAPACITY);
+  }
+
+  LongIntHashMap(int expectedSize) {
+    allocate(HashSupport.capacityFor(Math.max(MIN_CAPACITY, expectedSize)));
+  }
+
+  /**
+   * @return key 对应的值；不存在时返回 {@code missing}
+   */
+  int get(long key, int missing) {
+    int mask = keys.length - 1;
+    int slot = HashSupport.mix(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        return values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return missing;
+  }
+
+  boolean containsKey(long key) {
+    int mask = keys.length - 1;
+    int slot = HashSupport.mix(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  /** 写入或覆盖。 */
+  void put(long key, int value) {
+    int mask = keys.length - 1;
+    int slot = HashSupport.mix(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        values[slot] = value;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    used[slot] = true;
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size >= resizeAt) {
+      rehash(HashSupport.grow(keys.length));
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** 估算占用字节数（仅数组本体）。 */
+  long estimatedBytes() {
+    return (long) keys.length * (Long.BYTES + Integer.BYTES + 1);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    used = new boolean[capacity];
+    resizeAt = HashSupport.resizeThreshold(capacity);
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    boolean[] oldUsed = used;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (!oldUsed[i]) {
+        continue;
+      }
+      int slot = HashSupport.mix(oldKeys[i]) & mask;
+      while (used[slot]) {
+        slot = (slot + 1) & mask;
+      }
+      used[slot] = true;
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+  }
+}
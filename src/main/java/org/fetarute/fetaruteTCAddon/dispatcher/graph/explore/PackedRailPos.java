@@ -0,0 +1,46 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+import java.util.Objects;
+
+/**
+ * 轨道方块坐标的 long 打包表示，供探索阶段的原始类型集合使用（避免每个方块分配 {@link RailBlockPos}）。
+ *
+ * <p>布局与原版 BlockPos 一致：x 占 26 位、z 占 26 位、y 占 12 位（均为有符号）。可表示 x/z ∈ [-33554432,
+ * 33554431]、y ∈ [-2048, 2047]，覆盖原版世界边界与高度范围。
+ */
+public final class PackedRailPos {
+
+  private static final int XZ_BITS = 26;
+  private static final int Y_BITS = 12;
+  private static final long XZ_MASK = (1L << XZ_BITS) - 1L;
+  private static final long Y_MASK = (1L << Y_BITS) - 1L;
+  private static final int X_SHIFT = Y_BITS + XZ_BITS;
+  private static final int Z_SHIFT = Y_BITS;
+
+  private PackedRailPos() {}
+
+  public static long pack(int x, int y, int z) {
+    return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+  }
+
+  public static long pack(RailBlockPos pos) {
+    Objects.requireNonNull(pos, "pos");
+    return pack(pos.x(), pos.y(), pos.z());
+  }
+
+  public static int x(long packed) {
+    return (int) (packed >> X_SHIFT);
+  }
+
+  public static int y(long packed) {
+    return (int) (packed << (64 - Y_BITS) >> (64 - Y_BITS));
+  }
+
+  public static int z(long packed) {
+    return (int) (packed << (64 - X_SHIFT) >> (64 - XZ_BITS));
+  }
+
+  public static RailBlockPos unpack(long packed) {
+    return new RailBlockPos(x(packed), y(packed), z(packed));
+  }
+}
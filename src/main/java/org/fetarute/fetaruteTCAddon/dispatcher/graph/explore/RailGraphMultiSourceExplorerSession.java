@@ -1,9 +1,11 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.function.Consumer;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
@@ -19,25 +21,63 @@ import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
  *   <li>反复调用 {@link #step(int)} 分段处理，直到 {@link #isDone()}
  *   <li>完成后用 {@link #edgeLengths()} 获取区间长度结果
  * </ul>
+ *
+ * <p>内部状态使用原始类型：坐标打包为 long（{@link PackedRailPos}），每个已访问方块占一个 int 槽位（owner 下标 +
+ * 距离存放在平行数组中），优先队列为支持 decrease-key 的 {@link IndexedMinHeap}。百万级轨道方块时不再为每次松弛分配
+ * Visit/Entry/RailBlockPos 对象。
  */
 public final class RailGraphMultiSourceExplorerSession {
 
+  private static final int NO_SLOT = -1;
+  private static final int NO_OWNER = -1;
+
   private final RailBlockAccess access;
   private final int maxDistanceBlocks;
   private final Consumer<RailBlockPos> onJunction;
-  private final PriorityQueue<Entry> queue =
-      new PriorityQueue<>(java.util.Comparator.comparingDouble(Entry::distance));
-  private final Map<RailBlockPos, Visit> visits = new HashMap<>();
+  private final IndexedMinHeap queue = new IndexedMinHeap();
+
+  /** 打包坐标 → 槽位。 */
+  private final LongIntHashMap slotsByPos = new LongIntHashMap();
+
+  private long[] slotPos = new long[64];
+  private int[] slotOwner = new int[64];
+  private double[] slotDistance = new double[64];
+  private int slotCount;
+
+  /** owner 下标表：同一 NodeId 只占一个下标，比较 owner 退化为 int 比较。 */
+  private final List<NodeId> owners = new ArrayList<>();
+
+  private final Map<NodeId, Integer> ownerIndexes = new HashMap<>();
   private final Map<EdgeId, Integer> bestLengths = new HashMap<>();
 
-  /** 记录每个锚点位置所属的节点，用于判断波前是否到达了另一个节点的锚点。 */
-  private final Map<RailBlockPos, NodeId> anchorOwners = new HashMap<>();
+  /** 记录每个锚点位置所属的节点（owner 下标），用于判断波前是否到达了另一个节点的锚点。 */
+  private final LongIntHashMap anchorOwners = new LongIntHashMap();
 
   private long processed;
 
   public RailGraphMultiSourceExplorerSession(
       Map<NodeId, Set<RailBlockPos>> anchorsByNode, RailBlockAccess access, int maxDistanceBlocks) {
-    this(anchorsByNode, access, maxDistanceBlocks, null);
+    this(anchorsByNode, null, access, maxDistanceBlocks, null);
+  }
+
+  /**
+   * 局部探索：只从 sourceNodes 的锚点出发扩展，其余节点的锚点仅作为“终点”。
+   *
+   * <p>用于建牌/拆牌后的增量重探索：结果只包含至少一端位于 sourceNodes 的区间，非源节点之间的区间不会被发现。
+   *
+   * @param sourceNodes 波前起点；不在 anchorsByNode 中的节点会被忽略
+   */
+  public RailGraphMultiSourceExplorerSession(
+      Map<NodeId, Set<RailBlockPos>> anchorsByNode,
+      Set<NodeId> sourceNodes,
+      RailBlockAccess access,
+      int maxDistanceBlocks) {
+    this(
+        anchorsByNode,
+        Objects.requireNonNull(sourceNodes, "sourceNodes"),
+        access,
+        maxDistanceBlocks,
+        null);
   }
 
   /**
@@ -50,6 +90,15 @@ public final class RailGraphMultiSourceExplorerSession {
       RailBlockAccess access,
       int maxDistanceBlocks,
       Consumer<RailBlockPos> onJunction) {
+    this(anchorsByNode, null, access, maxDistanceBlocks, onJunction);
+  }
+
+  private RailGraphMultiSourceExplorerSession(
+      Map<NodeId, Set<RailBlockPos>> anchorsByNode,
+      Set<NodeId> sourceNodes,
+      RailBlockAccess access,
+      int maxDistanceBlocks,
+      Consumer<RailBlockPos> onJunction) {
     Objects.requireNonNull(anchorsByNode, "anchorsByNode");
     this.access = Objects.requireNonNull(access, "access");
     if (maxDistanceBlocks <= 0) {
@@ -63,6 +112,8 @@ public final class RailGraphMultiSourceExplorerSession {
       if (owner == null) {
         continue;
       }
+      int ownerIndex = ownerIndex(owner);
+      boolean source = sourceNodes == null || sourceNodes.contains(owner);
       for (RailBlockPos anchor : entry.getValue()) {
         if (anchor == null) {
           continue;
@@ -70,12 +121,22 @@ public final class RailGraphMultiSourceExplorerSession {
         if (!access.isRail(anchor)) {
           continue;
         }
+        long packed = PackedRailPos.pack(anchor);
         // 记录锚点归属，用于后续判断"波前是否到达了另一个节点的锚点"
-        anchorOwners.putIfAbsent(anchor, owner);
-        Visit existing = visits.get(anchor);
-        if (existing == null || existing.distance > 0.0) {
-          visits.put(anchor, new Visit(owner, 0.0));
-          queue.add(new Entry(anchor, owner, 0.0));
+        if (!anchorOwners.containsKey(packed)) {
+          anchorOwners.put(packed, ownerIndex);
+        }
+        if (!source) {
+          continue;
+        }
+        int slot = slotsByPos.get(packed, NO_SLOT);
+        if (slot == NO_SLOT) {
+          slot = newSlot(packed, ownerIndex, 0.0);
+          queue.insertOrDecrease(slot, 0.0);
+        } else if (slotDistance[slot] > 0.0) {
+          slotOwner[slot] = ownerIndex;
+          slotDistance[slot] = 0.0;
+          queue.insertOrDecrease(slot, 0.0);
         }
       }
     }
@@ -90,36 +151,28 @@ public final class RailGraphMultiSourceExplorerSession {
     }
     int consumed = 0;
     while (consumed < budget && !queue.isEmpty()) {
-      Entry entry = queue.poll();
-      if (entry == null) {
-        continue;
-      }
-      RailBlockPos current = entry.pos;
-      Visit currentVisit = visits.get(current);
-      if (currentVisit == null) {
-        continue;
-      }
-      if (!currentVisit.owner.equals(entry.owner)
-          || Math.abs(currentVisit.distance - entry.distance) > 1e-9) {
-        continue;
-      }
+      int slot = queue.poll();
+      long currentPacked = slotPos[slot];
+      int currentOwner = slotOwner[slot];
+      double currentDistance = slotDistance[slot];
       processed++;
       consumed++;
-      if (currentVisit.distance >= maxDistanceBlocks) {
+      if (currentDistance >= maxDistanceBlocks) {
         continue;
       }
 
       // 如果当前位置是另一个节点的锚点（不是自己的锚点），则停止扩展
       // 这确保波前不会"穿越"其他节点，从而只连接轨道上直接相邻的节点
-      NodeId currentAnchorOwner = anchorOwners.get(current);
-      if (currentAnchorOwner != null
-          && !currentAnchorOwner.value().equals(currentVisit.owner.value())
-          && currentVisit.distance > 0.0) {
+      int currentAnchorOwner = anchorOwners.get(currentPacked, NO_OWNER);
+      if (currentAnchorOwner != NO_OWNER
+          && currentAnchorOwner != currentOwner
+          && currentDistance > 0.0) {
         // 当前位置是另一个节点的锚点，且我们是从远处走过来的（distance > 0）
         // 说明我们刚好"到达"了另一个节点，应该停止继续扩展
         continue;
       }
 
+      RailBlockPos current = PackedRailPos.unpack(currentPacked);
       Set<RailBlockPos> neighbors = access.neighbors(current);
       if (onJunction != null && isJunction(access, current, neighbors)) {
         onJunction.accept(current);
@@ -133,62 +186,41 @@ public final class RailGraphMultiSourceExplorerSession {
         if (!Double.isFinite(stepCost) || stepCost <= 0.0) {
           continue;
         }
-        double nextDistance = currentVisit.distance + stepCost;
+        double nextDistance = currentDistance + stepCost;
         if (!Double.isFinite(nextDistance)
             || nextDistance <= 0.0
             || nextDistance > maxDistanceBlocks) {
           continue;
         }
 
+        long neighborPacked = PackedRailPos.pack(neighbor);
         // 检查邻居是否是另一个节点的锚点
-        NodeId neighborAnchorOwner = anchorOwners.get(neighbor);
-        boolean neighborIsOtherNodeAnchor =
-            neighborAnchorOwner != null
-                && !neighborAnchorOwner.value().equals(currentVisit.owner.value());
-
-        if (neighborIsOtherNodeAnchor) {
+        int neighborAnchorOwner = anchorOwners.get(neighborPacked, NO_OWNER);
+        if (neighborAnchorOwner != NO_OWNER && neighborAnchorOwner != currentOwner) {
           // 邻居是另一个节点的锚点：记录边，但不继续扩展
-          if (!currentVisit.owner.value().equals(neighborAnchorOwner.value())) {
-            int candidateInt = (int) Math.round(nextDistance);
-            if (candidateInt > 0) {
-              EdgeId edgeId = EdgeId.undirected(currentVisit.owner, neighborAnchorOwner);
-              Integer existingBest = bestLengths.get(edgeId);
-              if (existingBest == null || candidateInt < existingBest) {
-                bestLengths.put(edgeId, candidateInt);
-              }
-            }
-          }
+          recordEdge(currentOwner, neighborAnchorOwner, nextDistance);
           // 不将邻居加入队列，因为它是另一个节点的锚点，该节点会自己从那里开始扩展
           continue;
         }
 
-        Visit neighborVisit = visits.get(neighbor);
-        if (neighborVisit == null || nextDistance + 1e-9 < neighborVisit.distance) {
-          visits.put(neighbor, new Visit(currentVisit.owner, nextDistance));
-          queue.add(new Entry(neighbor, currentVisit.owner, nextDistance));
+        int neighborSlot = slotsByPos.get(neighborPacked, NO_SLOT);
+        if (neighborSlot == NO_SLOT) {
+          neighborSlot = newSlot(neighborPacked, currentOwner, nextDistance);
+          queue.insertOrDecrease(neighborSlot, nextDistance);
+          continue;
+        }
+        if (nextDistance + 1e-9 < slotDistance[neighborSlot]) {
+          slotOwner[neighborSlot] = currentOwner;
+          slotDistance[neighborSlot] = nextDistance;
+          queue.insertOrDecrease(neighborSlot, nextDistance);
           continue;
         }
 
-        if (!neighborVisit.owner.equals(currentVisit.owner)) {
+        int neighborOwner = slotOwner[neighborSlot];
+        if (neighborOwner != currentOwner) {
           // 两个不同源的波前在非锚点的轨道上相遇：说明它们之间没有其他节点
-          // 注意：如果两个 owner 的 NodeId 值相同（同一节点的多个 anchor），会形成自环，需要跳过
-          if (currentVisit.owner.value().equals(neighborVisit.owner.value())) {
-            // 同一节点的不同 anchor 之间存在轨道路径，不应创建自环边
-            continue;
-          }
-          double candidate = nextDistance + neighborVisit.distance;
-          if (!Double.isFinite(candidate) || candidate <= 0.0) {
-            continue;
-          }
-          int candidateInt = (int) Math.round(candidate);
-          if (candidateInt <= 0) {
-            continue;
-          }
-          EdgeId edgeId = EdgeId.undirected(currentVisit.owner, neighborVisit.owner);
-          Integer existingBest = bestLengths.get(edgeId);
-          if (existingBest == null || candidateInt < existingBest) {
-            bestLengths.put(edgeId, candidateInt);
-          }
+          // owner 按 NodeId 去重，因此同一节点的多个 anchor 不会在这里形成自环
+          recordEdge(currentOwner, neighborOwner, nextDistance + slotDistance[neighborSlot]);
         }
       }
     }
@@ -208,7 +240,15 @@ public final class RailGraphMultiSourceExplorerSession {
   }
 
   public int visitedRailBlocks() {
-    return visits.size();
+    return slotCount;
+  }
+
+  /** 估算探索状态占用的字节数（原始数组与哈希表本体，不含 bestLengths 等小对象）。 */
+  public long estimatedBytes() {
+    return (long) slotPos.length * (Long.BYTES + Integer.BYTES + Double.BYTES)
+        + slotsByPos.estimatedBytes()
+        + anchorOwners.estimatedBytes()
+        + queue.estimatedBytes();
   }
 
   public Map<EdgeId, Integer> edgeLengths() {
@@ -228,22 +268,44 @@ public final class RailGraphMultiSourceExplorerSession {
     return neighbors.size() >= 3;
   }
 
-  private record Visit(NodeId owner, double distance) {
-    private Visit {
-      Objects.requireNonNull(owner, "owner");
-      if (!Double.isFinite(distance) || distance < 0.0) {
-        throw new IllegalArgumentException("distance 不能为负");
-      }
+  private int ownerIndex(NodeId owner) {
+    Integer existing = ownerIndexes.get(owner);
+    if (existing != null) {
+      return existing;
     }
+    int index = owners.size();
+    owners.add(owner);
+    ownerIndexes.put(owner, index);
+    return index;
   }
 
-  private record Entry(RailBlockPos pos, NodeId owner, double distance) {
-    private Entry {
-      Objects.requireNonNull(pos, "pos");
-      Objects.requireNonNull(owner, "owner");
-      if (!Double.isFinite(distance) || distance < 0.0) {
-        throw new IllegalArgumentException("distance 不能为负");
-      }
+  private int newSlot(long packed, int owner, double distance) {
+    if (slotCount == slotPos.length) {
+      int capacity = slotPos.length << 1;
+      slotPos = Arrays.copyOf(slotPos, capacity);
+      slotOwner = Arrays.copyOf(slotOwner, capacity);
+      slotDistance = Arrays.copyOf(slotDistance, capacity);
+    }
+    int slot = slotCount++;
+    slotPos[slot] = packed;
+    slotOwner[slot] = owner;
+    slotDistance[slot] = distance;
+    slotsByPos.put(packed, slot);
+    return slot;
+  }
+
+  private void recordEdge(int ownerA, int ownerB, double length) {
+    if (!Double.isFinite(length) || length <= 0.0) {
+      return;
+    }
+    int candidate = (int) Math.round(length);
+    if (candidate <= 0) {
+      return;
+    }
+    EdgeId edgeId = EdgeId.undirected(owners.get(ownerA), owners.get(ownerB));
+    Integer existingBest = bestLengths.get(edgeId);
+    if (existingBest == null || candidate < existingBest) {
+      bestLengths.put(edgeId, candidate);
     }
   }
 }
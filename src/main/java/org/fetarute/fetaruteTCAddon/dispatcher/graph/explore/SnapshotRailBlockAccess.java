@@ -0,0 +1,279 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于“已捕获轨道快照”的访问实现：让区间探索（多源 Dijkstra）在工作线程运行。
+ *
+ * <p>线程模型：
+ *
+ * <ul>
+ *   <li>主线程：反复调用 {@link #capture(long)}，在 tick 预算内通过 live 访问器（通常为 {@link
+ *       TrainCartsRailBlockAccess}）把轨道方块的连通邻居与步进代价写成不可变单元
+ *   <li>工作线程：探索会话只读快照；遇到尚未捕获的位置时提交请求并阻塞，直到主线程在下一个 tick 捕获
+ * </ul>
+ *
+ * <p>为减少往返，主线程捕获请求位置后会沿已捕获邻居向外预取（最多 {@code prefetchHops} 跳），预取队列跨 tick
+ * 保留，因此探索前沿通常已在快照内。单元一经捕获即不再变化：探索期间的轨道改动不会影响本次结果（与分段构建的语义一致）。
+ *
+ * <p>锚点查询（{@link #findNearestRailBlocks}）同样整体交给主线程执行一次，避免工作线程逐格请求搜索立方体；找到的锚点会作为预取起点。
+ *
+ * <p>未加载区块由 live 访问器判定为“非轨道”，快照同样视为不可达。
+ */
+public final class SnapshotRailBlockAccess implements RailBlockAccess {
+
+  /** 默认预取深度（跳数）：约等于探索前沿一个 tick 内的推进量。 */
+  public static final int DEFAULT_PREFETCH_HOPS = 64;
+
+  private static final Cell NOT_RAIL = new Cell(false, Set.of(), Map.of());
+
+  private final RailBlockAccess source;
+  private final int prefetchHops;
+  private final ConcurrentMap<RailBlockPos, Cell> cells = new ConcurrentHashMap<>();
+  private final ConcurrentMap<RailBlockPos, CompletableFuture<Cell>> requests =
+      new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<RailBlockPos> requestQueue = new ConcurrentLinkedQueue<>();
+  private final ConcurrentMap<AnchorQuery, Set<RailBlockPos>> anchors = new ConcurrentHashMap<>();
+  private final ConcurrentMap<AnchorQuery, CompletableFuture<Set<RailBlockPos>>> anchorRequests =
+      new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<AnchorQuery> anchorQueue = new ConcurrentLinkedQueue<>();
+
+  /** 预取队列：仅主线程访问。 */
+  private final ArrayDeque<Prefetch> prefetch = new ArrayDeque<>();
+
+  private volatile boolean closed;
+
+  /**
+   * @param source live 访问器（只会在 {@link #capture(long)} 中、即主线程上调用）
+   * @param prefetchHops 每个请求位置向外预取的跳数；0 表示只捕获请求位置
+   */
+  public SnapshotRailBlockAccess(RailBlockAccess source, int prefetchHops) {
+    this.source = Objects.requireNonNull(source, "source");
+    if (prefetchHops < 0) {
+      throw new IllegalArgumentException("prefetchHops 不能为负");
+    }
+    this.prefetchHops = prefetchHops;
+  }
+
+  /** 预置需要捕获的位置（通常为各节点锚点）；需在主线程调用。 */
+  public void seed(Collection<RailBlockPos> positions) {
+    if (positions == null) {
+      return;
+    }
+    for (RailBlockPos pos : positions) {
+      if (pos != null) {
+        prefetch.add(new Prefetch(pos, 0));
+      }
+    }
+  }
+
+  /**
+   * 在主线程捕获快照单元：先处理工作线程的锚点查询与单元请求，再在预算内继续预取。
+   *
+   * <p>即使预算已耗尽也至少处理一个请求，保证探索不会饿死。
+   *
+   * @return 本次新捕获的单元数
+   */
+  public int capture(long deadlineNanos) {
+    if (closed) {
+      return 0;
+    }
+    int captured = 0;
+    boolean first = true;
+    AnchorQuery query;
+    while ((first || System.nanoTime() < deadlineNanos) && (query = anchorQueue.poll()) != null) {
+      first = false;
+      if (!anchors.containsKey(query)) {
+        Set<RailBlockPos> found =
+            Set.copyOf(source.findNearestRailBlocks(query.center(), query.radius()));
+        anchors.put(query, found);
+        seed(found);
+        captured++;
+      }
+      CompletableFuture<Set<RailBlockPos>> future = anchorRequests.remove(query);
+      if (future != null) {
+        future.complete(anchors.get(query));
+      }
+    }
+    RailBlockPos requested;
+    while ((first || System.nanoTime() < deadlineNanos)
+        && (requested = requestQueue.poll()) != null) {
+      first = false;
+      Cell existing = cells.get(requested);
+      if (existing == null) {
+        captureInto(requested, 0);
+        captured++;
+      }
+      complete(requested);
+    }
+    while (System.nanoTime() < deadlineNanos && !prefetch.isEmpty()) {
+      Prefetch next = prefetch.poll();
+      if (cells.containsKey(next.pos())) {
+        continue;
+      }
+      captureInto(next.pos(), next.hops());
+      captured++;
+      complete(next.pos());
+    }
+    return captured;
+  }
+
+  /** 结束快照：唤醒仍在等待的工作线程（以取消异常结束）。 */
+  public void close() {
+    closed = true;
+    prefetch.clear();
+    requestQueue.clear();
+    anchorQueue.clear();
+    for (CompletableFuture<Cell> future : requests.values()) {
+      future.completeExceptionally(new CancellationException("轨道快照已关闭"));
+    }
+    requests.clear();
+    for (CompletableFuture<Set<RailBlockPos>> future : anchorRequests.values()) {
+      future.completeExceptionally(new CancellationException("轨道快照已关闭"));
+    }
+    anchorRequests.clear();
+  }
+
+  /** 已捕获的单元数（含非轨道位置）。 */
+  public int capturedCells() {
+    return cells.size();
+  }
+
+  /** 等待主线程处理的请求数（含锚点查询）。 */
+  public int pendingRequests() {
+    return requests.size() + anchorRequests.size();
+  }
+
+  @Override
+  public boolean isRail(RailBlockPos pos) {
+    return cell(pos).rail;
+  }
+
+  @Override
+  public Set<RailBlockPos> neighbors(RailBlockPos pos) {
+    return cell(pos).neighbors;
+  }
+
+  @Override
+  public double stepCost(RailBlockPos from, RailBlockPos to) {
+    Objects.requireNonNull(from, "from");
+    Objects.requireNonNull(to, "to");
+    Double cost = cell(from).costs.get(to);
+    return cost != null ? cost : 1.0;
+  }
+
+  /** 锚点查询：首次查询交给主线程用 live 访问器执行，结果缓存后直接复用。 */
+  @Override
+  public Set<RailBlockPos> findNearestRailBlocks(RailBlockPos center, int radius) {
+    Objects.requireNonNull(center, "center");
+    if (radius < 0) {
+      throw new IllegalArgumentException("radius 不能为负");
+    }
+    AnchorQuery query = new AnchorQuery(center, radius);
+    Set<RailBlockPos> found = anchors.get(query);
+    if (found != null) {
+      return found;
+    }
+    CompletableFuture<Set<RailBlockPos>> future =
+        anchorRequests.computeIfAbsent(
+            query,
+            key -> {
+              anchorQueue.add(key);
+              return new CompletableFuture<>();
+            });
+    found = anchors.get(query);
+    if (found != null) {
+      anchorRequests.remove(query, future);
+      return found;
+    }
+    if (closed) {
+      future.completeExceptionally(new CancellationException("轨道快照已关闭"));
+    }
+    return future.join();
+  }
+
+  private Cell cell(RailBlockPos pos) {
+    Objects.requireNonNull(pos, "pos");
+    Cell cell = cells.get(pos);
+    if (cell != null) {
+      return cell;
+    }
+    CompletableFuture<Cell> future =
+        requests.computeIfAbsent(
+            pos,
+            key -> {
+              requestQueue.add(key);
+              return new CompletableFuture<>();
+            });
+    // 主线程可能在登记前已完成捕获并清理请求：再查一次，避免等待一个不会被处理的请求
+    cell = cells.get(pos);
+    if (cell != null) {
+      requests.remove(pos, future);
+      return cell;
+    }
+    if (closed) {
+      future.completeExceptionally(new CancellationException("轨道快照已关闭"));
+    }
+    return future.join();
+  }
+
+  private void captureInto(RailBlockPos pos, int hops) {
+    Cell cell = captureCell(pos);
+    cells.put(pos, cell);
+    if (!cell.rail || hops >= prefetchHops) {
+      return;
+    }
+    for (RailBlockPos neighbor : cell.neighbors) {
+      if (!cells.containsKey(neighbor)) {
+        prefetch.add(new Prefetch(neighbor, hops + 1));
+      }
+    }
+  }
+
+  private Cell captureCell(RailBlockPos pos) {
+    if (!source.isRail(pos)) {
+      return NOT_RAIL;
+    }
+    Set<RailBlockPos> neighbors = Set.copyOf(source.neighbors(pos));
+    Map<RailBlockPos, Double> costs = new HashMap<>();
+    for (RailBlockPos neighbor : neighbors) {
+      costs.put(neighbor, source.stepCost(pos, neighbor));
+    }
+    return new Cell(true, neighbors, Map.copyOf(costs));
+  }
+
+  private void complete(RailBlockPos pos) {
+    CompletableFuture<Cell> future = requests.remove(pos);
+    if (future != null) {
+      future.complete(cells.get(pos));
+    }
+  }
+
+  /** 单个轨道位置的不可变快照。 */
+  private static final class Cell {
+
+    private final boolean rail;
+    private final Set<RailBlockPos> neighbors;
+    private final Map<RailBlockPos, Double> costs;
+
+    private Cell(boolean rail, Set<RailBlockPos> neighbors, Map<RailBlockPos, Double> costs) {
+      this.rail = rail;
+      this.neighbors = neighbors;
+      this.costs = costs;
+    }
+  }
+
+  private record Prefetch(RailBlockPos pos, int hops) {}
+
+  private record AnchorQuery(RailBlockPos center, int radius) {}
+}
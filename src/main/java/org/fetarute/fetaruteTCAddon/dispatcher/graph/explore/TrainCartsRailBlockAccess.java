@@ -8,10 +8,8 @@ import com.bergerkiller.bukkit.tc.controller.components.RailState;
 import com.bergerkiller.bukkit.tc.rails.RailLookup.TrackedSign;
 import com.bergerkiller.bukkit.tc.rails.logic.RailLogic;
 import com.bergerkiller.bukkit.tc.rails.type.RailType;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.bukkit.World;
@@ -35,7 +33,8 @@ public final class TrainCartsRailBlockAccess implements RailBlockAccess {
   };
 
   private final World world;
-  private final Map<RailBlockPos, Double> segmentLengthCache = new HashMap<>();
+  /** 打包坐标 → 轨道段长度；NaN 表示未缓存。 */
+  private final LongDoubleHashMap segmentLengthCache = new LongDoubleHashMap();
 
   public TrainCartsRailBlockAccess(World world) {
     this.world = Objects.requireNonNull(world, "world");
@@ -379,8 +378,9 @@ public final class TrainCartsRailBlockAccess implements RailBlockAccess {
   }
 
   private double segmentLength(RailBlockPos pos) {
-    Double cached = segmentLengthCache.get(pos);
-    if (cached != null) {
+    long packed = PackedRailPos.pack(pos);
+    double cached = segmentLengthCache.get(packed, Double.NaN);
+    if (!Double.isNaN(cached)) {
       return cached;
     }
     double length = 1.0;
@@ -397,7 +397,7 @@ public final class TrainCartsRailBlockAccess implements RailBlockAccess {
         }
       }
     }
-    segmentLengthCache.put(pos, length);
+    segmentLengthCache.put(packed, length);
     return length;
   }
 }
@@ -0,0 +1,168 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 按世界管理调度图二进制快照文件（{@code <worldId>.ftgraph}），用于启动时跳过 rail_nodes/rail_edges 的逐行读取。
+ *
+ * <p>文件只在“与 rail_graph_snapshots 记录一致”时才会被采用（见 {@link
+ * RailGraphBinarySnapshot#matches}）；任何读取失败都视为未命中。
+ *
+ * <p>rail_nodes 可能被建牌/拆牌的增量同步直接改写而不更新快照记录，因此同步路径必须调用 {@link #invalidate}。为避免“失效后，排队中的旧写入又把文件写回”，
+ * 写入需携带提交时取得的 {@link #stamp}：失效会推进戳，过期戳的写入会被丢弃。
+ */
+public final class RailGraphBinaryCache {
+
+  private static final String SUFFIX = ".ftgraph";
+
+  private final Path directory;
+  private final Executor executor;
+  private final Consumer<String> debugLogger;
+  private final ConcurrentMap<UUID, AtomicLong> stamps = new ConcurrentHashMap<>();
+
+  /**
+   * @param directory 缓存目录（不存在时写入时创建）
+   * @param executor 文件写入执行器
+   * @param debugLogger 调试日志输出
+   */
+  public RailGraphBinaryCache(Path directory, Executor executor, Consumer<String> debugLogger) {
+    this.directory = Objects.requireNonNull(directory, "directory");
+    this.executor = Objects.requireNonNull(executor, "executor");
+    this.debugLogger = debugLogger != null ? debugLogger : message -> {};
+  }
+
+  /** 当前世界的写入戳：在准备写入数据时取得，随写入一并提交。 */
+  public long stamp(UUID worldId) {
+    return stampOf(worldId).get();
+  }
+
+  /**
+   * 读取与快照记录一致的缓存。
+   *
+   * @return 文件缺失、损坏或与记录不一致时返回 empty
+   */
+  public Optional<RailGraphBinarySnapshot> read(RailGraphSnapshotRecord record) {
+    Objects.requireNonNull(record, "record");
+    Optional<RailGraphBinarySnapshot> cached = RailGraphBinarySnapshot.read(file(record.worldId()));
+    if (cached.isEmpty()) {
+      return Optional.empty();
+    }
+    if (!cached.get().matches(record)) {
+      debugLogger.accept("调度图二进制缓存与快照记录不一致，回退 JDBC: world=" + record.worldId());
+      return Optional.empty();
+    }
+    return cached;
+  }
+
+  /**
+   * 在执行器上写入缓存文件。
+   *
+   * @param stamp 准备数据时取得的 {@link #stamp}；若期间发生过失效则丢弃本次写入
+   */
+  public void writeAsync(
+      long stamp,
+      RailGraphSnapshotRecord record,
+      List<RailNodeRecord> nodes,
+      List<RailEdgeRecord> edges) {
+    Objects.requireNonNull(record, "record");
+    RailGraphBinarySnapshot snapshot =
+        new RailGraphBinarySnapshot(
+            record.worldId(),
+            record.builtAt(),
+            record.nodeSignature(),
+            nodes,
+            RailGraphPersistDelta.canonicalEdges(edges));
+    executor.execute(() -> write(stamp, snapshot));
+  }
+
+  /**
+   * 在当前线程写入缓存文件。
+   *
+   * @return 是否落盘（戳过期或 IO 失败时为 false）
+   */
+  public boolean write(long stamp, RailGraphBinarySnapshot snapshot) {
+    Objects.requireNonNull(snapshot, "snapshot");
+    if (snapshot.nodeSignature().isEmpty()) {
+      return false;
+    }
+    UUID worldId = snapshot.worldId();
+    Path target = file(worldId);
+    Path staging = directory.resolve(worldId + SUFFIX + ".staging");
+    try {
+      snapshot.write(staging);
+      synchronized (stampOf(worldId)) {
+        if (stamp(worldId) != stamp) {
+          Files.deleteIfExists(staging);
+          return false;
+        }
+        Files.move(staging, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      debugLogger.accept(
+          "调度图二进制缓存已写入: world="
+              + worldId
+              + " nodes="
+              + snapshot.nodes().size()
+              + " edges="
+              + snapshot.edges().size());
+      return true;
+    } catch (IOException ex) {
+      debugLogger.accept("写入调度图二进制缓存失败: world=" + worldId + " msg=" + ex.getMessage());
+      try {
+        Files.deleteIfExists(staging);
+      } catch (IOException ignored) {
+        // 暂存文件残留不影响正确性：下次写入会覆盖
+      }
+      return false;
+    }
+  }
+
+  /**
+   * 使该世界的缓存失效：删除文件并推进写入戳。
+   *
+   * <p>快照记录不随增量同步更新，删除失败的旧文件仍能通过 {@link RailGraphBinarySnapshot#matches} 校验；因此删除失败时改为清空文件内容，
+   * 使其在下次启动时因长度/CRC 校验失败而被视为未命中。
+   */
+  public void invalidate(UUID worldId) {
+    Objects.requireNonNull(worldId, "worldId");
+    AtomicLong stamp = stampOf(worldId);
+    synchronized (stamp) {
+      stamp.incrementAndGet();
+      Path target = file(worldId);
+      try {
+        Files.deleteIfExists(target);
+      } catch (IOException ex) {
+        try {
+          Files.write(target, new byte[0], StandardOpenOption.TRUNCATE_EXISTING);
+          debugLogger.accept("删除调度图二进制缓存失败，已清空文件: world=" + worldId + " msg=" + ex.getMessage());
+        } catch (IOException truncateEx) {
+          debugLogger.accept(
+              "调度图二进制缓存失效失败（删除与清空均失败）: world="
+                  + worldId
+                  + " msg="
+                  + truncateEx.getMessage());
+        }
+      }
+    }
+  }
+
+  Path file(UUID worldId) {
+    return directory.resolve(worldId + SUFFIX);
+  }
+
+  private AtomicLong stampOf(UUID worldId) {
+    return stamps.computeIfAbsent(worldId, ignored -> new AtomicLong());
+  }
+}
@@ -0,0 +1,338 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointKind;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointMetadata;
+
+/**
+ * 调度图快照的二进制格式：启动时一次性读入堆内缓冲区解码，替代逐行 JDBC 查询。
+ *
+ * <p>文件布局（大端序）：
+ *
+ * <ul>
+ *   <li>头部：magic、版本、worldId、builtAt、nodeSignature（与 {@link RailGraphSnapshotRecord#nodeSignature()}
+ *       对应，加载时用于校验）
+ *   <li>字符串表：节点 ID、目的地、waypoint 字段与枚举名统一驻留，节点/边只保存 int 下标
+ *   <li>节点区：每个节点固定字段为 int/byte 原始值
+ *   <li>边区：端点下标 + 长度/限速/双向
+ *   <li>尾部：除尾部外全部内容的 CRC32
+ * </ul>
+ *
+ * <p>任何格式/校验错误都返回 empty，由调用方回退到 JDBC 加载；文件只是缓存，不是数据源。
+ */
+public final class RailGraphBinarySnapshot {
+
+  private static final int MAGIC = 0x46544753; // "FTGS"
+  private static final int VERSION = 1;
+  private static final int NONE = -1;
+
+  private final UUID worldId;
+  private final Instant builtAt;
+  private final String nodeSignature;
+  private final List<RailNodeRecord> nodes;
+  private final List<RailEdgeRecord> edges;
+
+  public RailGraphBinarySnapshot(
+      UUID worldId,
+      Instant builtAt,
+      String nodeSignature,
+      List<RailNodeRecord> nodes,
+      List<RailEdgeRecord> edges) {
+    this.worldId = Objects.requireNonNull(worldId, "worldId");
+    this.builtAt = Objects.requireNonNull(builtAt, "builtAt");
+    this.nodeSignature = nodeSignature == null ? "" : nodeSignature;
+    this.nodes = List.copyOf(nodes);
+    this.edges = List.copyOf(edges);
+  }
+
+  public UUID worldId() {
+    return worldId;
+  }
+
+  public Instant builtAt() {
+    return builtAt;
+  }
+
+  public String nodeSignature() {
+    return nodeSignature;
+  }
+
+  public List<RailNodeRecord> nodes() {
+    return nodes;
+  }
+
+  public List<RailEdgeRecord> edges() {
+    return edges;
+  }
+
+  /**
+   * 是否与存储中的快照元信息一致（签名、构建时间与行数）。
+   *
+   * <p>builtAt 按毫秒比较：SQLite 以 epoch millis 存储时间戳。
+   */
+  public boolean matches(RailGraphSnapshotRecord record) {
+    if (record == null || nodeSignature.isEmpty()) {
+      return false;
+    }
+    return worldId.equals(record.worldId())
+        && nodeSignature.equals(record.nodeSignature())
+        && builtAt.toEpochMilli() == record.builtAt().toEpochMilli()
+        && nodes.size() == record.nodeCount()
+        && edges.size() == record.edgeCount();
+  }
+
+  /** 写入文件：先写临时文件再原子替换，避免进程中断留下半截文件。 */
+  public void write(Path file) throws IOException {
+    Objects.requireNonNull(file, "file");
+    Path dir = file.toAbsolutePath().getParent();
+    if (dir != null) {
+      Files.createDirectories(dir);
+    }
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    CRC32 crc = new CRC32();
+    try (OutputStream raw = Files.newOutputStream(temp);
+        BufferedOutputStream buffered = new BufferedOutputStream(raw, 1 << 16);
+        CheckedOutputStream checked = new CheckedOutputStream(buffered, crc);
+        DataOutputStream out = new DataOutputStream(checked)) {
+      encode(out);
+      out.flush();
+      // CRC 自身不参与校验：直接写入底层流
+      buffered.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).array());
+    }
+    try {
+      Files.move(
+          temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException ex) {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * 读取文件；不存在、损坏或版本不符时返回 empty。
+   *
+   * <p>整文件读入堆内缓冲区后立即关闭，不保留内存映射：Windows 上映射中的文件无法删除或替换，会使失效与重写静默失败。
+   */
+  public static Optional<RailGraphBinarySnapshot> read(Path file) {
+    Objects.requireNonNull(file, "file");
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    try {
+      long size = Files.size(file);
+      if (size < Long.BYTES || size > Integer.MAX_VALUE) {
+        return Optional.empty();
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+      int bodyLength = buffer.capacity() - Long.BYTES;
+      if (bodyLength < 0) {
+        return Optional.empty();
+      }
+      CRC32 crc = new CRC32();
+      crc.update(buffer.duplicate().limit(bodyLength));
+      if (crc.getValue() != buffer.getLong(bodyLength)) {
+        return Optional.empty();
+      }
+      return decode(buffer.limit(bodyLength));
+    } catch (IOException | RuntimeException ex) {
+      return Optional.empty();
+    }
+  }
+
+  private void encode(DataOutputStream out) throws IOException {
+    StringTable strings = new StringTable();
+    for (RailNodeRecord node : nodes) {
+      strings.intern(node.nodeId().value());
+      strings.intern(node.nodeType().name());
+      node.trainCartsDestination().ifPresent(strings::intern);
+      node.waypointMetadata()
+          .ifPresent(
+              meta -> {
+                strings.intern(meta.operator());
+                strings.intern(meta.originStation());
+                meta.destinationStation().ifPresent(strings::intern);
+                meta.sequence().ifPresent(strings::intern);
+                strings.intern(meta.kind().name());
+              });
+    }
+    for (RailEdgeRecord edge : edges) {
+      strings.intern(edge.edgeId().a().value());
+      strings.intern(edge.edgeId().b().value());
+    }
+
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(worldId.getMostSignificantBits());
+    out.writeLong(worldId.getLeastSignificantBits());
+    out.writeLong(builtAt.getEpochSecond());
+    out.writeInt(builtAt.getNano());
+    writeString(out, nodeSignature);
+
+    out.writeInt(strings.values.size());
+    for (String value : strings.values) {
+      writeString(out, value);
+    }
+
+    out.writeInt(nodes.size());
+    for (RailNodeRecord node : nodes) {
+      out.writeInt(strings.index(node.nodeId().value()));
+      out.writeInt(strings.index(node.nodeType().name()));
+      out.writeInt(node.x());
+      out.writeInt(node.y());
+      out.writeInt(node.z());
+      out.writeInt(node.trainCartsDestination().map(strings::index).orElse(NONE));
+      Optional<WaypointMetadata> metaOpt = node.waypointMetadata();
+      out.writeBoolean(metaOpt.isPresent());
+      if (metaOpt.isPresent()) {
+        WaypointMetadata meta = metaOpt.get();
+        out.writeInt(strings.index(meta.operator()));
+        out.writeInt(strings.index(meta.originStation()));
+        out.writeInt(meta.destinationStation().map(strings::index).orElse(NONE));
+        out.writeInt(meta.trackNumber());
+        out.writeInt(meta.sequence().map(strings::index).orElse(NONE));
+        out.writeInt(strings.index(meta.kind().name()));
+      }
+    }
+
+    out.writeInt(edges.size());
+    for (RailEdgeRecord edge : edges) {
+      out.writeInt(strings.index(edge.edgeId().a().value()));
+      out.writeInt(strings.index(edge.edgeId().b().value()));
+      out.writeInt(edge.lengthBlocks());
+      out.writeDouble(edge.baseSpeedLimit());
+      out.writeBoolean(edge.bidirectional());
+    }
+  }
+
+  private static Optional<RailGraphBinarySnapshot> decode(ByteBuffer in) {
+    try {
+      if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+        return Optional.empty();
+      }
+      UUID worldId = new UUID(in.getLong(), in.getLong());
+      Instant builtAt = Instant.ofEpochSecond(in.getLong(), in.getInt());
+      String nodeSignature = readString(in);
+
+      int stringCount = in.getInt();
+      String[] strings = new String[stringCount];
+      // NodeId 按下标共享实例，节点与边端点不重复构造
+      NodeId[] nodeIds = new NodeId[stringCount];
+      for (int i = 0; i < stringCount; i++) {
+        strings[i] = readString(in);
+      }
+
+      int nodeCount = in.getInt();
+      List<RailNodeRecord> nodes = new ArrayList<>(nodeCount);
+      for (int i = 0; i < nodeCount; i++) {
+        NodeId nodeId = nodeId(strings, nodeIds, in.getInt());
+        NodeType type = NodeType.valueOf(strings[in.getInt()]);
+        int x = in.getInt();
+        int y = in.getInt();
+        int z = in.getInt();
+        Optional<String> destination = optionalString(strings, in.getInt());
+        Optional<WaypointMetadata> metadata = Optional.empty();
+        if (in.get() != 0) {
+          String operator = strings[in.getInt()];
+          String origin = strings[in.getInt()];
+          Optional<String> destinationStation = optionalString(strings, in.getInt());
+          int track = in.getInt();
+          Optional<String> sequence = optionalString(strings, in.getInt());
+          WaypointKind kind = WaypointKind.valueOf(strings[in.getInt()]);
+          metadata =
+              Optional.of(
+                  new WaypointMetadata(
+                      operator, origin, destinationStation, track, sequence, kind));
+        }
+        nodes.add(new RailNodeRecord(worldId, nodeId, type, x, y, z, destination, metadata));
+      }
+
+      int edgeCount = in.getInt();
+      List<RailEdgeRecord> edges = new ArrayList<>(edgeCount);
+      for (int i = 0; i < edgeCount; i++) {
+        NodeId a = nodeId(strings, nodeIds, in.getInt());
+        NodeId b = nodeId(strings, nodeIds, in.getInt());
+        int length = in.getInt();
+        double speed = in.getDouble();
+        boolean bidirectional = in.get() != 0;
+        edges.add(new RailEdgeRecord(worldId, new EdgeId(a, b), length, speed, bidirectional));
+      }
+      if (in.hasRemaining()) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          new RailGraphBinarySnapshot(worldId, builtAt, nodeSignature, nodes, edges));
+    } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException ex) {
+      return Optional.empty();
+    }
+  }
+
+  private static NodeId nodeId(String[] strings, NodeId[] cache, int index) {
+    NodeId id = cache[index];
+    if (id == null) {
+      id = NodeId.of(strings[index]);
+      cache[index] = id;
+    }
+    return id;
+  }
+
+  private static Optional<String> optionalString(String[] strings, int index) {
+    return index == NONE ? Optional.empty() : Optional.of(strings[index]);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0 || length > in.remaining()) {
+      throw new IllegalArgumentException("字符串长度无效: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** 写入时的字符串驻留表（按首次出现顺序编号）。 */
+  private static final class StringTable {
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    void intern(String value) {
+      indexes.computeIfAbsent(
+          value,
+          key -> {
+            values.add(key);
+            return values.size() - 1;
+          });
+    }
+
+    int index(String value) {
+      return indexes.get(value);
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+
+/**
+ * 按连通分量计算持久化行的签名，用于增量写入时识别“未变化的分量”。
+ *
+ * <p>分量划分只依赖 rail_nodes/rail_edges 行本身（边端点并查集），key 与 {@code RailGraphComponentIndex}
+ * 一致：取分量内字典序最小的节点 ID。签名覆盖分量内所有节点与边的全部持久化字段，任一字段变化都会改变签名。
+ */
+public final class RailGraphComponentSignatures {
+
+  private RailGraphComponentSignatures() {}
+
+  /**
+   * 计算节点/边集合的分量划分与签名。
+   *
+   * <p>边应已归一化为 {@link EdgeId#undirected}（见 {@link RailGraphPersistDelta#canonicalEdges}），
+   * 否则同一区间的两种端点顺序会得到不同签名。
+   */
+  public static Partition compute(
+      Collection<RailNodeRecord> nodes, Collection<RailEdgeRecord> edges) {
+    Objects.requireNonNull(nodes, "nodes");
+    Objects.requireNonNull(edges, "edges");
+    Map<NodeId, NodeId> parent = new HashMap<>();
+    for (RailNodeRecord node : nodes) {
+      if (node != null) {
+        parent.putIfAbsent(node.nodeId(), node.nodeId());
+      }
+    }
+    for (RailEdgeRecord edge : edges) {
+      if (edge == null) {
+        continue;
+      }
+      parent.putIfAbsent(edge.edgeId().a(), edge.edgeId().a());
+      parent.putIfAbsent(edge.edgeId().b(), edge.edgeId().b());
+      union(parent, edge.edgeId().a(), edge.edgeId().b());
+    }
+
+    Map<NodeId, String> rootKeys = new HashMap<>();
+    for (NodeId id : parent.keySet()) {
+      NodeId root = find(parent, id);
+      String current = rootKeys.get(root);
+      if (current == null || id.value().compareTo(current) < 0) {
+        rootKeys.put(root, id.value());
+      }
+    }
+    Map<NodeId, String> componentByNode = new HashMap<>();
+    for (NodeId id : parent.keySet()) {
+      componentByNode.put(id, rootKeys.get(find(parent, id)));
+    }
+
+    Map<String, List<String>> rowsByComponent = new HashMap<>();
+    for (RailNodeRecord node : nodes) {
+      if (node != null) {
+        rowsByComponent
+            .computeIfAbsent(componentByNode.get(node.nodeId()), ignored -> new ArrayList<>())
+            .add(nodeLine(node));
+      }
+    }
+    for (RailEdgeRecord edge : edges) {
+      if (edge != null) {
+        rowsByComponent
+            .computeIfAbsent(componentByNode.get(edge.edgeId().a()), ignored -> new ArrayList<>())
+            .add(edgeLine(edge));
+      }
+    }
+    Map<String, String> signatures = new HashMap<>();
+    for (Map.Entry<String, List<String>> entry : rowsByComponent.entrySet()) {
+      signatures.put(entry.getKey(), digest(entry.getValue()));
+    }
+    return new Partition(componentByNode, signatures);
+  }
+
+  /**
+   * 编码为单个文本列：每行 {@code <签名> <分量 key>}，按 key 排序。
+   *
+   * <p>签名为十六进制串不含空格，因此 key 可包含任意字符（换行除外）。
+   */
+  public static String encode(Map<String, String> signatures) {
+    if (signatures == null || signatures.isEmpty()) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, String> entry : new TreeMap<>(signatures).entrySet()) {
+      if (sb.length() > 0) {
+        sb.append('\n');
+      }
+      sb.append(entry.getValue()).append(' ').append(entry.getKey());
+    }
+    return sb.toString();
+  }
+
+  /** 解析 {@link #encode(Map)} 的输出；无法解析的行会被忽略。 */
+  public static Map<String, String> decode(String raw) {
+    if (raw == null || raw.isBlank()) {
+      return Map.of();
+    }
+    Map<String, String> signatures = new HashMap<>();
+    for (String line : raw.split("\n")) {
+      int idx = line.indexOf(' ');
+      if (idx <= 0 || idx >= line.length() - 1) {
+        continue;
+      }
+      signatures.put(line.substring(idx + 1), line.substring(0, idx));
+    }
+    return Map.copyOf(signatures);
+  }
+
+  private static String nodeLine(RailNodeRecord node) {
+    StringBuilder sb = new StringBuilder("N|");
+    sb.append(node.nodeId().value())
+        .append('|')
+        .append(node.nodeType().name())
+        .append('|')
+        .append(node.x())
+        .append(',')
+        .append(node.y())
+        .append(',')
+        .append(node.z())
+        .append('|')
+        .append(node.trainCartsDestination().orElse(""))
+        .append('|');
+    node.waypointMetadata()
+        .ifPresent(
+            meta ->
+                sb.append(meta.operator())
+                    .append('/')
+                    .append(meta.originStation())
+                    .append('/')
+                    .append(meta.destinationStation().orElse(""))
+                    .append('/')
+                    .append(meta.trackNumber())
+                    .append('/')
+                    .append(meta.sequence().orElse(""))
+                    .append('/')
+                    .append(meta.kind().name()));
+    return sb.toString();
+  }
+
+  private static String edgeLine(RailEdgeRecord edge) {
+    return "E|"
+        + edge.edgeId().a().value()
+        + '|'
+        + edge.edgeId().b().value()
+        + '|'
+        + edge.lengthBlocks()
+        + '|'
+        + Double.doubleToLongBits(edge.baseSpeedLimit())
+        + '|'
+        + edge.bidirectional();
+  }
+
+  private static String digest(List<String> lines) {
+    lines.sort(Comparator.naturalOrder());
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (String line : lines) {
+        digest.update(line.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException ex) {
+      // 理论上不会发生：SHA-256 总是可用
+      return "";
+    }
+  }
+
+  private static NodeId find(Map<NodeId, NodeId> parent, NodeId id) {
+    NodeId root = id;
+    while (!parent.get(root).equals(root)) {
+      root = parent.get(root);
+    }
+    NodeId current = id;
+    while (!current.equals(root)) {
+      NodeId next = parent.get(current);
+      parent.put(current, root);
+      current = next;
+    }
+    return root;
+  }
+
+  private static void union(Map<NodeId, NodeId> parent, NodeId a, NodeId b) {
+    NodeId rootA = find(parent, a);
+    NodeId rootB = find(parent, b);
+    if (!rootA.equals(rootB)) {
+      parent.put(rootA, rootB);
+    }
+  }
+
+  /**
+   * 分量划分结果。
+   *
+   * @param componentByNode 节点 → 分量 key（包含仅作为边端点出现的节点）
+   * @param signatures 分量 key → 签名
+   */
+  public record Partition(Map<NodeId, String> componentByNode, Map<String, String> signatures) {
+    public Partition {
+      componentByNode = componentByNode == null ? Map.of() : Map.copyOf(componentByNode);
+      signatures = signatures == null ? Map.of() : Map.copyOf(signatures);
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.build.RailGraphSignature;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+
+/**
+ * 调度图快照的增量写入器：在异步执行器上按行级差异更新 rail_nodes/rail_edges，并记录分量签名。
+ *
+ * <p>取代旧版“按世界 DELETE 后全量 INSERT”：一次局部重建（HERE 模式、分量合并）只会写入真正变化的行，主线程只负责准备记录。
+ *
+ * <p>同一世界的写入按提交顺序串行执行（后一次以前一次的落盘结果为比较基准）；不同世界之间互不阻塞。
+ *
+ * <p>已记录的分量签名仅在“存储中的节点签名仍与快照一致”时才被信任：建牌/拆牌的增量同步会直接改写 rail_nodes，此时退化为全部分量逐行比较。
+ */
+public final class RailGraphDeltaWriter {
+
+  private final Executor executor;
+  private final Consumer<String> debugLogger;
+  private final ConcurrentMap<UUID, CompletableFuture<RailGraphPersistDelta>> pending =
+      new ConcurrentHashMap<>();
+
+  /**
+   * @param executor 存储写入执行器（通常为 Bukkit 异步调度器）
+   * @param debugLogger 调试日志输出
+   */
+  public RailGraphDeltaWriter(Executor executor, Consumer<String> debugLogger) {
+    this.executor = Objects.requireNonNull(executor, "executor");
+    this.debugLogger = debugLogger != null ? debugLogger : message -> {};
+  }
+
+  /**
+   * 提交一次写入。
+   *
+   * @param snapshot 快照元信息（分量签名由写入器计算后填充）
+   * @param nodes 新图的节点行
+   * @param edges 新图的区间行
+   * @return 写入完成后返回实际应用的差异；失败时异常完成
+   */
+  public CompletableFuture<RailGraphPersistDelta> submit(
+      StorageProvider provider,
+      RailGraphSnapshotRecord snapshot,
+      List<RailNodeRecord> nodes,
+      List<RailEdgeRecord> edges) {
+    Objects.requireNonNull(provider, "provider");
+    Objects.requireNonNull(snapshot, "snapshot");
+    List<RailNodeRecord> nodeRows = List.copyOf(nodes);
+    List<RailEdgeRecord> edgeRows = List.copyOf(edges);
+    UUID worldId = snapshot.worldId();
+    CompletableFuture<RailGraphPersistDelta> next =
+        pending.compute(
+            worldId,
+            (id, previous) -> {
+              CompletableFuture<?> base =
+                  previous == null
+                      ? CompletableFuture.completedFuture(null)
+                      : previous.handle((ignored, error) -> null);
+              return base.thenApplyAsync(
+                  ignored -> write(provider, snapshot, nodeRows, edgeRows), executor);
+            });
+    next.whenComplete(
+        (delta, error) -> {
+          pending.remove(worldId, next);
+          if (delta != null) {
+            debugLogger.accept(
+                "调度图增量写入完成: world="
+                    + worldId
+                    + " nodes=+"
+                    + delta.nodeUpserts().size()
+                    + "/-"
+                    + delta.nodeDeletes().size()
+                    + " edges=+"
+                    + delta.edgeUpserts().size()
+                    + "/-"
+                    + delta.edgeDeletes().size()
+                    + " components="
+                    + delta.changedComponents()
+                    + " skipped="
+                    + delta.skippedComponents());
+          }
+        });
+    return next;
+  }
+
+  /**
+   * 等待该世界已提交的写入结束（删除快照等同步写操作前调用，避免排队中的写入在其后重新落盘）。
+   *
+   * @return 是否在超时前结束
+   */
+  public boolean awaitPending(UUID worldId, Duration timeout) {
+    CompletableFuture<RailGraphPersistDelta> future = pending.get(worldId);
+    if (future == null) {
+      return true;
+    }
+    try {
+      future.handle((ignored, error) -> null).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (Exception ex) {
+      return false;
+    }
+  }
+
+  /**
+   * 在当前线程同步执行一次增量写入（单事务）。
+   *
+   * @throws org.fetarute.fetaruteTCAddon.storage.api.StorageException 写入失败时抛出
+   */
+  public static RailGraphPersistDelta write(
+      StorageProvider provider,
+      RailGraphSnapshotRecord snapshot,
+      List<RailNodeRecord> nodes,
+      List<RailEdgeRecord> edges) {
+    Objects.requireNonNull(provider, "provider");
+    Objects.requireNonNull(snapshot, "snapshot");
+    UUID worldId = snapshot.worldId();
+    List<RailEdgeRecord> canonicalEdges = RailGraphPersistDelta.canonicalEdges(edges);
+    RailGraphComponentSignatures.Partition partition =
+        RailGraphComponentSignatures.compute(nodes, canonicalEdges);
+    return provider
+        .transactionManager()
+        .execute(
+            () -> {
+              Optional<RailGraphSnapshotRecord> previous =
+                  provider.railGraphSnapshots().findByWorld(worldId);
+              List<RailNodeRecord> storedNodes = provider.railNodes().listByWorld(worldId);
+              List<RailEdgeRecord> storedEdges = provider.railEdges().listByWorld(worldId);
+              Map<String, String> trusted = trustedSignatures(previous, storedNodes);
+              RailGraphPersistDelta delta =
+                  RailGraphPersistDelta.compute(
+                      storedNodes, storedEdges, trusted, nodes, canonicalEdges, partition);
+              provider.railNodes().applyDelta(worldId, delta.nodeUpserts(), delta.nodeDeletes());
+              provider.railEdges().applyDelta(worldId, delta.edgeUpserts(), delta.edgeDeletes());
+              provider
+                  .railGraphSnapshots()
+                  .save(
+                      new RailGraphSnapshotRecord(
+                          worldId,
+                          snapshot.builtAt(),
+                          snapshot.nodeCount(),
+                          snapshot.edgeCount(),
+                          snapshot.nodeSignature(),
+                          partition.signatures()));
+              return delta;
+            });
+  }
+
+  private static Map<String, String> trustedSignatures(
+      Optional<RailGraphSnapshotRecord> previous, List<RailNodeRecord> storedNodes) {
+    if (previous.isEmpty() || previous.get().componentSignatures().isEmpty()) {
+      return Map.of();
+    }
+    String storedSignature = RailGraphSignature.signatureForNodes(storedNodes);
+    if (!previous.get().nodeSignature().equals(storedSignature)) {
+      return Map.of();
+    }
+    return previous.get().componentSignatures();
+  }
+}
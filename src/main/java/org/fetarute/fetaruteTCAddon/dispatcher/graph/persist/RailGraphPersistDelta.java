@@ -0,0 +1,166 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+
+/**
+ * 调度图持久化的行级差异：只包含需要 upsert/delete 的 rail_nodes/rail_edges 行。
+ *
+ * <p>比较基准为存储中现有的行。签名与已记录签名一致的分量直接跳过逐行比较（其行集合与上次写入完全相同）；
+ * 删除判定始终覆盖全部已存储行，确保被移除的分量与被外部写入的孤儿行都会被清理。
+ *
+ * @param nodeUpserts 新增或字段变化的节点
+ * @param nodeDeletes 不再存在的节点
+ * @param edgeUpserts 新增或字段变化的区间
+ * @param edgeDeletes 不再存在的区间
+ * @param changedComponents 需要逐行比较的分量数
+ * @param skippedComponents 签名未变化而跳过的分量数
+ */
+public record RailGraphPersistDelta(
+    List<RailNodeRecord> nodeUpserts,
+    List<NodeId> nodeDeletes,
+    List<RailEdgeRecord> edgeUpserts,
+    List<EdgeId> edgeDeletes,
+    int changedComponents,
+    int skippedComponents) {
+
+  public RailGraphPersistDelta {
+    nodeUpserts = nodeUpserts == null ? List.of() : List.copyOf(nodeUpserts);
+    nodeDeletes = nodeDeletes == null ? List.of() : List.copyOf(nodeDeletes);
+    edgeUpserts = edgeUpserts == null ? List.of() : List.copyOf(edgeUpserts);
+    edgeDeletes = edgeDeletes == null ? List.of() : List.copyOf(edgeDeletes);
+  }
+
+  /** 是否没有任何行需要写入。 */
+  public boolean isEmpty() {
+    return nodeUpserts.isEmpty()
+        && nodeDeletes.isEmpty()
+        && edgeUpserts.isEmpty()
+        && edgeDeletes.isEmpty();
+  }
+
+  /** 需要写入的总行数。 */
+  public int rowCount() {
+    return nodeUpserts.size() + nodeDeletes.size() + edgeUpserts.size() + edgeDeletes.size();
+  }
+
+  /**
+   * 计算差异。
+   *
+   * @param storedNodes 存储中现有的节点行
+   * @param storedEdges 存储中现有的区间行（主键已归一化）
+   * @param storedSignatures 上次写入记录的分量签名；不可信时传空表，此时所有分量都逐行比较
+   * @param nextNodes 新图的节点行
+   * @param nextEdges 新图的区间行（需先经 {@link #canonicalEdges} 归一化）
+   * @param nextPartition 新图行的分量划分与签名
+   */
+  public static RailGraphPersistDelta compute(
+      Collection<RailNodeRecord> storedNodes,
+      Collection<RailEdgeRecord> storedEdges,
+      Map<String, String> storedSignatures,
+      Collection<RailNodeRecord> nextNodes,
+      Collection<RailEdgeRecord> nextEdges,
+      RailGraphComponentSignatures.Partition nextPartition) {
+    Objects.requireNonNull(storedNodes, "storedNodes");
+    Objects.requireNonNull(storedEdges, "storedEdges");
+    Objects.requireNonNull(nextNodes, "nextNodes");
+    Objects.requireNonNull(nextEdges, "nextEdges");
+    Objects.requireNonNull(nextPartition, "nextPartition");
+    Map<String, String> trusted = storedSignatures == null ? Map.of() : storedSignatures;
+
+    Set<String> unchanged = new HashSet<>();
+    for (Map.Entry<String, String> entry : nextPartition.signatures().entrySet()) {
+      if (entry.getValue().equals(trusted.get(entry.getKey()))) {
+        unchanged.add(entry.getKey());
+      }
+    }
+    int changedComponents = nextPartition.signatures().size() - unchanged.size();
+
+    Map<NodeId, RailNodeRecord> storedNodeById = new HashMap<>();
+    for (RailNodeRecord node : storedNodes) {
+      if (node != null) {
+        storedNodeById.put(node.nodeId(), node);
+      }
+    }
+    Map<EdgeId, RailEdgeRecord> storedEdgeById = new HashMap<>();
+    for (RailEdgeRecord edge : storedEdges) {
+      if (edge != null) {
+        storedEdgeById.put(edge.edgeId(), edge);
+      }
+    }
+
+    Set<NodeId> nextNodeIds = new HashSet<>();
+    List<RailNodeRecord> nodeUpserts = new ArrayList<>();
+    for (RailNodeRecord node : nextNodes) {
+      if (node == null) {
+        continue;
+      }
+      nextNodeIds.add(node.nodeId());
+      if (unchanged.contains(nextPartition.componentByNode().get(node.nodeId()))) {
+        continue;
+      }
+      if (!node.equals(storedNodeById.get(node.nodeId()))) {
+        nodeUpserts.add(node);
+      }
+    }
+    Set<EdgeId> nextEdgeIds = new HashSet<>();
+    List<RailEdgeRecord> edgeUpserts = new ArrayList<>();
+    for (RailEdgeRecord edge : nextEdges) {
+      if (edge == null) {
+        continue;
+      }
+      nextEdgeIds.add(edge.edgeId());
+      if (unchanged.contains(nextPartition.componentByNode().get(edge.edgeId().a()))) {
+        continue;
+      }
+      if (!edge.equals(storedEdgeById.get(edge.edgeId()))) {
+        edgeUpserts.add(edge);
+      }
+    }
+
+    List<NodeId> nodeDeletes = new ArrayList<>();
+    for (NodeId id : storedNodeById.keySet()) {
+      if (!nextNodeIds.contains(id)) {
+        nodeDeletes.add(id);
+      }
+    }
+    List<EdgeId> edgeDeletes = new ArrayList<>();
+    for (EdgeId id : storedEdgeById.keySet()) {
+      if (!nextEdgeIds.contains(id)) {
+        edgeDeletes.add(id);
+      }
+    }
+    return new RailGraphPersistDelta(
+        nodeUpserts, nodeDeletes, edgeUpserts, edgeDeletes, changedComponents, unchanged.size());
+  }
+
+  /** 把区间主键归一化为 {@link EdgeId#undirected}，与存储读出的行保持一致。 */
+  public static List<RailEdgeRecord> canonicalEdges(Collection<RailEdgeRecord> edges) {
+    Objects.requireNonNull(edges, "edges");
+    List<RailEdgeRecord> out = new ArrayList<>(edges.size());
+    for (RailEdgeRecord edge : edges) {
+      if (edge == null) {
+        continue;
+      }
+      EdgeId canonical = EdgeId.undirected(edge.edgeId().a(), edge.edgeId().b());
+      out.add(
+          canonical.equals(edge.edgeId())
+              ? edge
+              : new RailEdgeRecord(
+                  edge.worldId(),
+                  canonical,
+                  edge.lengthBlocks(),
+                  edge.baseSpeedLimit(),
+                  edge.bidirectional()));
+    }
+    return out;
+  }
+}
@@ -1,17 +1,28 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
-/** 持久化的调度图快照元信息（每世界一条）。 */
+/**
+ * 持久化的调度图快照元信息（每世界一条）。
+ *
+ * <p>{@code componentSignatures} 为“连通分量 key → 分量签名”，用于增量写入时跳过未变化的分量；旧版快照为空表，此时按全量差异处理。
+ */
 public record RailGraphSnapshotRecord(
-    UUID worldId, Instant builtAt, int nodeCount, int edgeCount, String nodeSignature) {
+    UUID worldId,
+    Instant builtAt,
+    int nodeCount,
+    int edgeCount,
+    String nodeSignature,
+    Map<String, String> componentSignatures) {
 
   public RailGraphSnapshotRecord {
     Objects.requireNonNull(worldId, "worldId");
     Objects.requireNonNull(builtAt, "builtAt");
     nodeSignature = nodeSignature == null ? "" : nodeSignature;
+    componentSignatures = componentSignatures == null ? Map.of() : Map.copyOf(componentSignatures);
     if (nodeCount < 0) {
       throw new IllegalArgumentException("nodeCount 不能为负");
     }
@@ -19,4 +30,9 @@ public record RailGraphSnapshotRecord(
       throw new IllegalArgumentException("edgeCount 不能为负");
     }
   }
+
+  public RailGraphSnapshotRecord(
+      UUID worldId, Instant builtAt, int nodeCount, int edgeCount, String nodeSignature) {
+    this(worldId, builtAt, nodeCount, edgeCount, nodeSignature, Map.of());
+  }
 }
@@ -8,18 +8,25 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
 /** {@link RailEdgeCostModel} 的常用实现集合。 */
 public final class RailEdgeCostModels {
 
+  private static final RailEdgeCostModel LENGTH_BLOCKS =
+      (graph, edge, from, to) -> {
+        Objects.requireNonNull(edge, "edge");
+        int length = edge.lengthBlocks();
+        if (length <= 0) {
+          return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(length);
+      };
+
   private RailEdgeCostModels() {}
 
-  /** 基于区间长度（blocks）的最短路：代价为 {@link RailEdge#lengthBlocks()}。 */
+  /**
+   * 基于区间长度（blocks）的最短路：代价为 {@link RailEdge#lengthBlocks()}。
+   *
+   * <p>返回共享单例，{@link RailGraphPathFinder} 据此识别可走编译图快速路径的查询。
+   */
   public static RailEdgeCostModel lengthBlocks() {
-    return (graph, edge, from, to) -> {
-      Objects.requireNonNull(edge, "edge");
-      int length = edge.lengthBlocks();
-      if (length <= 0) {
-        return OptionalDouble.empty();
-      }
-      return OptionalDouble.of(length);
-    };
+    return LENGTH_BLOCKS;
   }
 
   /**
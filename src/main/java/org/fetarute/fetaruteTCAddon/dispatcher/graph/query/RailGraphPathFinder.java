@@ -11,6 +11,8 @@ import java.util.OptionalDouble;
 import java.util.PriorityQueue;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphPathSupport;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 
 /**
@@ -20,6 +22,9 @@ import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
  * 为后续“按时间最短/按距离最短/按权重”扩展预留接口。
  *
  * <p>注意：本类不负责解释代价值的单位；单位由 {@link RailEdgeCostModel} 的实现定义（blocks/meters/ms 等）。
+ *
+ * <p>当代价模型为 {@link RailEdgeCostModels#lengthBlocks()} 且图实现了 {@link RailGraphPathSupport} 时，查询转交图自身：
+ * {@link SimpleRailGraph} 在 CSR 编译图上计算并按快照缓存结果；其余情况走通用实现。
  */
 public final class RailGraphPathFinder {
 
@@ -57,6 +62,39 @@ public final class RailGraphPathFinder {
       return Optional.of(new RailGraphPath(from, to, List.of(from), List.of(), 0L));
     }
 
+    if (graph instanceof RailGraphPathSupport support
+        && options.costModel() == RailEdgeCostModels.lengthBlocks()) {
+      return support.shortestPathByLength(from, to, options.allowBlockedEdges());
+    }
+    return dijkstra(graph, from, to, options);
+  }
+
+  /**
+   * 始终使用通用 Dijkstra 计算最短路径，不经过编译图与路径缓存。
+   *
+   * <p>供无法走快速路径的图视图回退使用，也便于对照验证。
+   *
+   * @return empty 表示不可达或输入节点不存在
+   */
+  public Optional<RailGraphPath> shortestPathGeneric(
+      RailGraph graph, NodeId from, NodeId to, Options options) {
+    Objects.requireNonNull(graph, "graph");
+    Objects.requireNonNull(from, "from");
+    Objects.requireNonNull(to, "to");
+    Objects.requireNonNull(options, "options");
+
+    if (graph.findNode(from).isEmpty() || graph.findNode(to).isEmpty()) {
+      return Optional.empty();
+    }
+
+    if (from.equals(to)) {
+      return Optional.of(new RailGraphPath(from, to, List.of(from), List.of(), 0L));
+    }
+    return dijkstra(graph, from, to, options);
+  }
+
+  private Optional<RailGraphPath> dijkstra(
+      RailGraph graph, NodeId from, NodeId to, Options options) {
     Map<NodeId, Double> dist = new HashMap<>();
     Map<NodeId, NodeId> prev = new HashMap<>();
     Map<NodeId, RailEdge> prevEdge = new HashMap<>();
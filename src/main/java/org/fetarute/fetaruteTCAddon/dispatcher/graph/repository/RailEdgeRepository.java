@@ -3,6 +3,7 @@ package org.fetarute.fetaruteTCAddon.dispatcher.graph.repository;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeRecord;
 
 /** RailEdge（区间）仓库接口。 */
@@ -12,5 +13,12 @@ public interface RailEdgeRepository {
 
   void replaceWorld(UUID worldId, Collection<RailEdgeRecord> edges);
 
+  /**
+   * 增量写入：按主键 upsert/delete 指定区间，其余行保持不变。
+   *
+   * <p>区间主键需为 {@link EdgeId#undirected} 归一化形式；实现应分块批量执行。
+   */
+  void applyDelta(UUID worldId, Collection<RailEdgeRecord> upserts, Collection<EdgeId> deletes);
+
   void deleteWorld(UUID worldId);
 }
@@ -19,5 +19,12 @@ public interface RailNodeRepository {
 
   void replaceWorld(UUID worldId, Collection<RailNodeRecord> nodes);
 
+  /**
+   * 增量写入：按主键 upsert/delete 指定行，其余行保持不变。
+   *
+   * <p>调用方负责计算差异（见 {@code RailGraphPersistDelta}）；实现应分块批量执行，避免单个批次过大。
+   */
+  void applyDelta(UUID worldId, Collection<RailNodeRecord> upserts, Collection<NodeId> deletes);
+
   void deleteWorld(UUID worldId);
 }
@@ -0,0 +1,129 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.sync;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.ToIntFunction;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.SnapshotRailBlockAccess;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.TrainCartsRailBlockAccess;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+
+/**
+ * 局部重探索的异步执行：与 {@code RailGraphBuildJob} 的 BFS 阶段相同，探索在工作线程读取 {@link
+ * SnapshotRailBlockAccess}，主线程每 tick 在预算内捕获轨道快照。
+ *
+ * <p>建牌/拆牌不再在主线程同步跑多源探索；返回的 future 在主线程完成，调用方可直接在回调中拼接内存快照。
+ *
+ * <p>仅主线程调用。
+ */
+public final class RailGraphIncrementalUpdateScheduler
+    implements RailNodeIncrementalSync.SpliceExplorer, AutoCloseable {
+
+  /** 每 tick 捕获轨道快照的默认预算（纳秒）。 */
+  public static final long DEFAULT_TICK_BUDGET_NANOS = 2_000_000L;
+
+  private final Plugin plugin;
+  private final ToIntFunction<NodeType> anchorRadius;
+  private final long tickBudgetNanos;
+  private final Set<Job> active = new HashSet<>();
+
+  /**
+   * @param anchorRadius 按节点类型返回锚点搜索半径（与 build 的 anchorSearchRadius 配置一致）
+   */
+  public RailGraphIncrementalUpdateScheduler(
+      Plugin plugin, ToIntFunction<NodeType> anchorRadius, long tickBudgetNanos) {
+    this.plugin = Objects.requireNonNull(plugin, "plugin");
+    this.anchorRadius = Objects.requireNonNull(anchorRadius, "anchorRadius");
+    if (tickBudgetNanos <= 0L) {
+      throw new IllegalArgumentException("tickBudgetNanos 必须为正数");
+    }
+    this.tickBudgetNanos = tickBudgetNanos;
+  }
+
+  @Override
+  public CompletableFuture<Optional<RailGraphIncrementalUpdater.Update>> submit(
+      World world, RailGraph base, List<RailNode> upserted, Set<NodeId> removed) {
+    Objects.requireNonNull(world, "world");
+    Objects.requireNonNull(base, "base");
+    List<RailNode> seeds = List.copyOf(upserted);
+    Set<NodeId> removedIds = Set.copyOf(removed);
+    SnapshotRailBlockAccess snapshot =
+        new SnapshotRailBlockAccess(
+            new TrainCartsRailBlockAccess(world), SnapshotRailBlockAccess.DEFAULT_PREFETCH_HOPS);
+    RailGraphIncrementalUpdater updater = new RailGraphIncrementalUpdater(snapshot, anchorRadius);
+    Executor worker =
+        runnable -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable);
+    Job job =
+        new Job(
+            snapshot,
+            CompletableFuture.supplyAsync(() -> updater.apply(base, seeds, removedIds), worker));
+    active.add(job);
+    job.task = plugin.getServer().getScheduler().runTaskTimer(plugin, job, 1L, 1L);
+    return job.result;
+  }
+
+  /** 取消所有进行中的局部探索（插件卸载时调用）；等待中的工作线程以取消异常结束。 */
+  @Override
+  public void close() {
+    for (Job job : new ArrayList<>(active)) {
+      job.finish(new CancellationException("局部重探索已取消"));
+    }
+  }
+
+  /** 单次局部探索：主线程 tick 捕获快照，工作线程完成后在主线程发布结果。 */
+  private final class Job implements Runnable {
+
+    private final SnapshotRailBlockAccess snapshot;
+    private final CompletableFuture<Optional<RailGraphIncrementalUpdater.Update>> work;
+    private final CompletableFuture<Optional<RailGraphIncrementalUpdater.Update>> result =
+        new CompletableFuture<>();
+    private BukkitTask task;
+
+    private Job(
+        SnapshotRailBlockAccess snapshot,
+        CompletableFuture<Optional<RailGraphIncrementalUpdater.Update>> work) {
+      this.snapshot = snapshot;
+      this.work = work;
+    }
+
+    @Override
+    public void run() {
+      snapshot.capture(System.nanoTime() + tickBudgetNanos);
+      if (!work.isDone()) {
+        return;
+      }
+      try {
+        Optional<RailGraphIncrementalUpdater.Update> update = work.join();
+        finish(null);
+        result.complete(update);
+      } catch (CompletionException | CancellationException ex) {
+        finish(ex.getCause() != null ? ex.getCause() : ex);
+      }
+    }
+
+    private void finish(Throwable error) {
+      active.remove(this);
+      if (task != null) {
+        task.cancel();
+        task = null;
+      }
+      snapshot.close();
+      if (error != null) {
+        result.completeExceptionally(error);
+      }
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.sync;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdgeMetadata;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdgeValidator;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphMerger;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailBlockAccess;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailBlockPos;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailGraphMultiSourceExplorerSession;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+
+/**
+ * 调度图局部重探索：建牌/拆牌后只从受影响节点出发重新探索区间，并拼接进现有快照，无需整图 build。
+ *
+ * <p>流程：
+ *
+ * <ol>
+ *   <li>源节点 = 新增/变更节点 + 它们（以及被删除节点）在旧图中的邻居
+ *   <li>以源节点为波前起点、附近其他节点锚点为终点做有界多源探索（{@link
+ *       RailGraphMultiSourceExplorerSession} 的局部模式）
+ *   <li>新节点若发现了旧图中的邻居（例如插入到 A~B 区间中），把这些邻居加入源节点再探索一次，使其旧边（A~B）被替换
+ *   <li>用 {@link RailGraphMerger#splice} 替换源节点的全部关联边；冲突索引只重算被触及的走廊
+ * </ol>
+ *
+ * <p>探索步数超过上限时放弃并返回 empty，由调用方退回“标记失效 + 运维 build”。
+ *
+ * <p>插件内访问器为轨道快照（{@code SnapshotRailBlockAccess}），由 {@link
+ * RailGraphIncrementalUpdateScheduler} 在工作线程调用；直接使用 live 访问器时需在主线程调用。
+ */
+public final class RailGraphIncrementalUpdater {
+
+  /** 单条区间的最大探索距离（与 build 的 BFS 模式一致）。 */
+  public static final int DEFAULT_MAX_DISTANCE_BLOCKS = 512;
+
+  /** 单次局部更新允许处理的轨道方块步数上限，避免局部更新退化成整图探索。 */
+  public static final long DEFAULT_MAX_STEPS = 200_000L;
+
+  private static final int STEP_BATCH = 4_096;
+
+  private final RailBlockAccess access;
+  private final ToIntFunction<NodeType> anchorRadius;
+  private final int maxDistanceBlocks;
+  private final long maxSteps;
+
+  /**
+   * @param access 轨道访问器（同一世界）
+   * @param anchorRadius 按节点类型返回锚点搜索半径（与 build 的 anchorSearchRadius 配置一致）
+   */
+  public RailGraphIncrementalUpdater(RailBlockAccess access, ToIntFunction<NodeType> anchorRadius) {
+    this(access, anchorRadius, DEFAULT_MAX_DISTANCE_BLOCKS, DEFAULT_MAX_STEPS);
+  }
+
+  public RailGraphIncrementalUpdater(
+      RailBlockAccess access,
+      ToIntFunction<NodeType> anchorRadius,
+      int maxDistanceBlocks,
+      long maxSteps) {
+    this.access = Objects.requireNonNull(access, "access");
+    this.anchorRadius = Objects.requireNonNull(anchorRadius, "anchorRadius");
+    if (maxDistanceBlocks <= 0) {
+      throw new IllegalArgumentException("maxDistanceBlocks 必须为正数");
+    }
+    if (maxSteps <= 0L) {
+      throw new IllegalArgumentException("maxSteps 必须为正数");
+    }
+    this.maxDistanceBlocks = maxDistanceBlocks;
+    this.maxSteps = maxSteps;
+  }
+
+  /**
+   * 计算局部更新后的图。
+   *
+   * <p>与 upserted 节点位于同一坐标、但 ID 不同的旧节点视为被替换（重写牌子），会一并删除。
+   *
+   * @param base 当前内存快照
+   * @param upserted 新增或变更的节点
+   * @param removed 被删除的节点 ID
+   * @return 拼接结果；探索超出步数上限时返回 empty
+   */
+  public Optional<Update> apply(
+      RailGraph base, Collection<? extends RailNode> upserted, Set<NodeId> removed) {
+    Objects.requireNonNull(base, "base");
+    Objects.requireNonNull(upserted, "upserted");
+    Objects.requireNonNull(removed, "removed");
+
+    Set<NodeId> upsertedIds = new HashSet<>();
+    for (RailNode node : upserted) {
+      upsertedIds.add(node.id());
+    }
+    Set<NodeId> removedIds = new HashSet<>(removed);
+    removedIds.removeAll(upsertedIds);
+    Map<RailBlockPos, List<NodeId>> baseByBlock = new HashMap<>();
+    for (RailNode existing : base.nodes()) {
+      baseByBlock
+          .computeIfAbsent(blockPos(existing), ignored -> new ArrayList<>())
+          .add(existing.id());
+    }
+    for (RailNode node : upserted) {
+      for (NodeId existing : baseByBlock.getOrDefault(blockPos(node), List.of())) {
+        if (!existing.equals(node.id())) {
+          removedIds.add(existing);
+        }
+      }
+    }
+
+    Map<NodeId, RailNode> nodesById = new HashMap<>();
+    for (RailNode node : base.nodes()) {
+      if (!removedIds.contains(node.id())) {
+        nodesById.put(node.id(), node);
+      }
+    }
+    for (RailNode node : upserted) {
+      nodesById.put(node.id(), node);
+    }
+
+    Set<NodeId> sources = new HashSet<>(upsertedIds);
+    Set<NodeId> changed = new HashSet<>(upsertedIds);
+    changed.addAll(removedIds);
+    for (NodeId id : changed) {
+      if (base.findNode(id).isEmpty()) {
+        continue;
+      }
+      for (RailEdge edge : base.edgesFrom(id)) {
+        sources.add(id.equals(edge.from()) ? edge.to() : edge.from());
+      }
+    }
+    sources.removeAll(removedIds);
+    sources.retainAll(nodesById.keySet());
+
+    Exploration exploration = new Exploration(nodesById);
+    Map<EdgeId, Integer> lengths = Map.of();
+    if (!sources.isEmpty()) {
+      Optional<Map<EdgeId, Integer>> first = exploration.explore(sources);
+      if (first.isEmpty()) {
+        return Optional.empty();
+      }
+      lengths = first.get();
+      // 新节点插入既有区间时，两侧邻居的旧边（跨过新节点）也需要重探索才能被替换
+      Set<NodeId> expanded = new HashSet<>(sources);
+      for (EdgeId edgeId : lengths.keySet()) {
+        if (upsertedIds.contains(edgeId.a())) {
+          expanded.add(edgeId.b());
+        }
+        if (upsertedIds.contains(edgeId.b())) {
+          expanded.add(edgeId.a());
+        }
+      }
+      if (expanded.size() > sources.size()) {
+        sources = expanded;
+        Optional<Map<EdgeId, Integer>> second = exploration.explore(sources);
+        if (second.isEmpty()) {
+          return Optional.empty();
+        }
+        lengths = second.get();
+      }
+    }
+
+    Map<EdgeId, RailEdge> edges = new HashMap<>();
+    Map<EdgeId, Integer> filtered = RailEdgeValidator.filterCrossTrackEdges(lengths, nodesById);
+    for (Map.Entry<EdgeId, Integer> entry : filtered.entrySet()) {
+      EdgeId edgeId = entry.getKey();
+      if (!sources.contains(edgeId.a()) && !sources.contains(edgeId.b())) {
+        continue;
+      }
+      RailNode a = nodesById.get(edgeId.a());
+      RailNode b = nodesById.get(edgeId.b());
+      if (a == null || b == null) {
+        continue;
+      }
+      // 重新发现的旧边沿用原有限速/方向属性，只更新长度
+      Optional<RailEdge> previous = findEdge(base, edgeId);
+      edges.put(
+          edgeId,
+          new RailEdge(
+              edgeId,
+              edgeId.a(),
+              edgeId.b(),
+              entry.getValue(),
+              previous.map(RailEdge::baseSpeedLimit).orElse(0.0),
+              previous.map(RailEdge::bidirectional).orElse(true),
+              Optional.of(new RailEdgeMetadata(a.waypointMetadata(), b.waypointMetadata()))));
+    }
+
+    Map<NodeId, RailNode> updateNodes = new HashMap<>();
+    for (RailNode node : upserted) {
+      updateNodes.put(node.id(), node);
+    }
+    RailGraph update = new SimpleRailGraph(updateNodes, edges, Set.of());
+    RailGraphMerger.MergeResult merge = RailGraphMerger.splice(base, update, sources, removedIds);
+    return Optional.of(
+        new Update(merge, Set.copyOf(sources), Set.copyOf(removedIds), exploration.steps));
+  }
+
+  private static Optional<RailEdge> findEdge(RailGraph graph, EdgeId edgeId) {
+    if (graph.findNode(edgeId.a()).isEmpty()) {
+      return Optional.empty();
+    }
+    for (RailEdge edge : graph.edgesFrom(edgeId.a())) {
+      if (edge.id().equals(edgeId)) {
+        return Optional.of(edge);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static RailBlockPos blockPos(RailNode node) {
+    Vector pos = node.worldPosition();
+    return new RailBlockPos(pos.getBlockX(), pos.getBlockY(), pos.getBlockZ());
+  }
+
+  /** 两次探索共享锚点缓存与步数预算。 */
+  private final class Exploration {
+
+    private final Map<NodeId, RailNode> nodesById;
+    private final Map<NodeId, Set<RailBlockPos>> anchorCache = new HashMap<>();
+    private long steps;
+
+    private Exploration(Map<NodeId, RailNode> nodesById) {
+      this.nodesById = nodesById;
+    }
+
+    /** 只为源节点附近（直线距离可达）的节点解析锚点：轨道距离不小于直线距离，更远的节点不可能成为终点。 */
+    private Optional<Map<EdgeId, Integer>> explore(Set<NodeId> sources) {
+      List<RailBlockPos> centers =
+          sources.stream().map(nodesById::get).map(RailGraphIncrementalUpdater::blockPos).toList();
+      long reach = (long) maxDistanceBlocks * 2L;
+      long reachSquared = reach * reach;
+      Map<NodeId, Set<RailBlockPos>> anchorsByNode = new HashMap<>();
+      for (RailNode node : nodesById.values()) {
+        RailBlockPos pos = blockPos(node);
+        boolean near = sources.contains(node.id());
+        for (int i = 0; !near && i < centers.size(); i++) {
+          near = distanceSquared(pos, centers.get(i)) <= reachSquared;
+        }
+        if (!near) {
+          continue;
+        }
+        Set<RailBlockPos> anchors =
+            anchorCache.computeIfAbsent(
+                node.id(),
+                ignored ->
+                    access.findNearestRailBlocks(pos, anchorRadius.applyAsInt(node.type())));
+        if (!anchors.isEmpty()) {
+          anchorsByNode.put(node.id(), anchors);
+        }
+      }
+
+      RailGraphMultiSourceExplorerSession session =
+          new RailGraphMultiSourceExplorerSession(
+              anchorsByNode, sources, access, maxDistanceBlocks);
+      while (!session.isDone()) {
+        steps += session.step(STEP_BATCH);
+        if (steps > maxSteps) {
+          return Optional.empty();
+        }
+      }
+      return Optional.of(session.edgeLengths());
+    }
+
+    private long distanceSquared(RailBlockPos a, RailBlockPos b) {
+      long dx = (long) a.x() - b.x();
+      long dy = (long) a.y() - b.y();
+      long dz = (long) a.z() - b.z();
+      return dx * dx + dy * dy + dz * dz;
+    }
+  }
+
+  /**
+   * 局部更新结果。
+   *
+   * @param merge 拼接后的图与统计
+   * @param refreshedNodes 关联边已重新探索的节点
+   * @param removedNodes 被删除的节点（含被同坐标新牌子替换的旧节点）
+   * @param processedSteps 探索处理的轨道方块步数
+   */
+  public record Update(
+      RailGraphMerger.MergeResult merge,
+      Set<NodeId> refreshedNodes,
+      Set<NodeId> removedNodes,
+      long processedSteps) {
+    public Update {
+      Objects.requireNonNull(merge, "merge");
+      refreshedNodes = refreshedNodes == null ? Set.of() : Set.copyOf(refreshedNodes);
+      removedNodes = removedNodes == null ? Set.of() : Set.copyOf(removedNodes);
+    }
+  }
+}
@@ -1,33 +1,74 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.graph.sync;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphService;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphService.RailGraphSnapshot;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphService.RailGraphStaleState;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRailNode;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.build.RailGraphSignature;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphDeltaWriter;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphSnapshotRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeDefinition;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeStorageSynchronizer;
 import org.fetarute.fetaruteTCAddon.storage.StorageManager;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+import org.fetarute.fetaruteTCAddon.storage.async.AsyncStorage;
 
 /**
- * rail_nodes 增量同步：在建牌/拆牌时按单节点 upsert/delete 更新存储，并在节点集合变化时标记旧图失效。
+ * rail_nodes 增量同步：在建牌/拆牌时按单节点 upsert/delete 更新存储，并在节点集合变化时更新或标记旧图失效。
  *
- * <p>注意：这里只同步“节点牌子类节点”（waypoint/autostation/depot）。轨道拓扑/边变化仍需运维执行 /fta graph build。
+ * <p>启用 {@link #enableGraphSplice} 后，节点集合变化会先尝试局部重探索（{@link
+ * RailGraphIncrementalUpdater}）：只从变更节点及其邻居重新探索区间并拼接进内存快照，随后按行级差异异步落盘，调度不经历 stale
+ * 窗口。探索由 {@link SpliceExplorer} 在工作线程执行，结果回到主线程后再拼接；同一世界同时只有一个探索在跑，期间的改动累积为下一轮种子。
+ * 局部探索超限或内存图与 rail_nodes 不一致时，退回标记失效。
+ *
+ * <p>存储异步执行器可用时，rail_nodes 事务与签名检查不在主线程执行，结果经 {@code AsyncStorage#onMain} 回到主线程后再更新内存图。
+ * 同一世界的写入进入按世界的串行通道（{@code AsyncStorage#write} 的同 key 串行语义），多 worker 的 MySQL 下也按提交顺序落盘。
+ *
+ * <p>二进制快照缓存在提交写入前就失效：即使服务器在事务提交后、主线程回调前停止，下次启动也不会信任旧缓存。
+ *
+ * <p>注意：这里只同步“节点牌子类节点”（waypoint/autostation/depot）。纯轨道改动（不涉及节点牌子）仍需运维执行 /fta graph build。
  */
 public final class RailNodeIncrementalSync implements SignNodeStorageSynchronizer {
 
   private final StorageManager storageManager;
   private final RailGraphService railGraphService;
   private final Consumer<String> debugLogger;
+  private volatile SpliceExplorer spliceExplorer;
+  private volatile RailGraphDeltaWriter graphWriter;
+  // 仅主线程访问：异步写入尚未应用的节点种子（按世界累积）
+  private final Map<UUID, PendingSeeds> pendingByWorld = new HashMap<>();
+  // 按世界的串行写入通道：主线程入队，存储线程在同 key 串行的写入中按序取出执行
+  private final ConcurrentMap<UUID, ConcurrentLinkedQueue<NodeWrite>> writeLanes =
+      new ConcurrentHashMap<>();
+  // 仅主线程访问：按世界串行的局部重探索（进行中时新改动累积为下一轮种子）
+  private final Map<UUID, SpliceLane> spliceLanes = new HashMap<>();
 
   public RailNodeIncrementalSync(
       StorageManager storageManager,
@@ -38,6 +79,17 @@ public final class RailNodeIncrementalSync implements SignNodeStorageSynchronize
     this.debugLogger = debugLogger != null ? debugLogger : message -> {};
   }
 
+  /**
+   * 启用局部重探索：节点变化时直接更新内存调度图并增量落盘，而不是标记 stale 等待运维 build。
+   *
+   * @param spliceExplorer 局部重探索执行器（探索不在主线程运行，结果在主线程回调）
+   * @param graphWriter 调度图增量写入器（与 /fta graph build 共用，保证同一世界写入串行）
+   */
+  public void enableGraphSplice(SpliceExplorer spliceExplorer, RailGraphDeltaWriter graphWriter) {
+    this.spliceExplorer = Objects.requireNonNull(spliceExplorer, "spliceExplorer");
+    this.graphWriter = Objects.requireNonNull(graphWriter, "graphWriter");
+  }
+
   @Override
   public void upsert(Block block, SignNodeDefinition definition) {
     Objects.requireNonNull(block, "block");
@@ -56,30 +108,16 @@ public final class RailNodeIncrementalSync implements SignNodeStorageSynchronize
             definition.trainCartsDestination(),
             definition.waypointMetadata());
 
-    provider()
-        .ifPresent(
-            provider -> {
-              try {
-                SignatureCheckResult check =
-                    provider
-                        .transactionManager()
-                        .execute(
-                            () -> {
-                              provider
-                                  .railNodes()
-                                  .deleteByPosition(worldId, record.x(), record.y(), record.z());
-                              provider.railNodes().upsert(record);
-                              return checkSignature(provider, worldId);
-                            });
-                applySignatureCheck(provider, world, worldId, check);
-              } catch (Exception ex) {
-                debugLogger.accept(
-                    "rail_nodes 增量同步失败: op=upsert node="
-                        + record.nodeId().value()
-                        + " msg="
-                        + ex.getMessage());
-              }
-            });
+    sync(
+        world,
+        "upsert",
+        record.nodeId(),
+        provider -> {
+          provider.railNodes().deleteByPosition(worldId, record.x(), record.y(), record.z());
+          provider.railNodes().upsert(record);
+        },
+        List.of(toRailNode(record)),
+        Set.of());
   }
 
   @Override
@@ -89,29 +127,144 @@ public final class RailNodeIncrementalSync implements SignNodeStorageSynchronize
     World world = block.getWorld();
     UUID worldId = world.getUID();
 
+    sync(
+        world,
+        "delete",
+        definition.nodeId(),
+        provider -> provider.railNodes().delete(worldId, definition.nodeId()),
+        List.of(),
+        Set.of(definition.nodeId()));
+  }
+
+  /**
+   * 写入 rail_nodes 并检查签名。
+   *
+   * <p>异步存储可用时事务在存储线程执行，签名检查结果回到主线程后再更新内存图；同一世界的连续改动会把节点种子累积起来，
+   * 只由最后一次提交的结果统一应用（较早完成的结果直接丢弃，避免对中间状态做局部重探索）。异步存储不可用时退回同步执行。
+   */
+  private void sync(
+      World world,
+      String op,
+      NodeId nodeId,
+      NodeWrite write,
+      List<RailNode> upserted,
+      Set<NodeId> removed) {
+    UUID worldId = world.getUID();
+    Optional<AsyncStorage> asyncOpt = storageManager.async();
+    if (asyncOpt.isPresent()) {
+      syncAsync(asyncOpt.get(), world, worldId, op, nodeId, write, upserted, removed);
+      return;
+    }
     provider()
         .ifPresent(
             provider -> {
+              railGraphService.invalidateBinarySnapshot(worldId);
               try {
                 SignatureCheckResult check =
                     provider
                         .transactionManager()
                         .execute(
                             () -> {
-                              provider.railNodes().delete(worldId, definition.nodeId());
+                              write.apply(provider);
                               return checkSignature(provider, worldId);
                             });
-                applySignatureCheck(provider, world, worldId, check);
+                applySignatureCheck(provider, world, worldId, check, upserted, removed);
               } catch (Exception ex) {
-                debugLogger.accept(
-                    "rail_nodes 增量同步失败: op=delete node="
-                        + definition.nodeId().value()
-                        + " msg="
-                        + ex.getMessage());
+                logFailure(op, nodeId, ex);
+                markStaleAfterFailure(world, worldId);
+              }
+            });
+  }
+
+  private void syncAsync(
+      AsyncStorage async,
+      World world,
+      UUID worldId,
+      String op,
+      NodeId nodeId,
+      NodeWrite write,
+      List<RailNode> upserted,
+      Set<NodeId> removed) {
+    // 先失效二进制缓存再提交：提交后、回调前停服也不会留下被信任的旧缓存
+    railGraphService.invalidateBinarySnapshot(worldId);
+    PendingSeeds pending = pendingByWorld.computeIfAbsent(worldId, id -> new PendingSeeds());
+    pending.add(upserted, removed);
+    long generation = ++pending.generation;
+    ConcurrentLinkedQueue<NodeWrite> lane =
+        writeLanes.computeIfAbsent(worldId, id -> new ConcurrentLinkedQueue<>());
+    lane.add(write);
+    async
+        .onMain(
+            async
+                .write("rail-nodes:" + worldId, provider -> drainLane(lane, provider))
+                .thenCompose(ignored -> async.query(provider -> checkSignature(provider, worldId))))
+        .whenComplete(
+            (check, error) -> {
+              boolean latest =
+                  pendingByWorld.get(worldId) == pending && pending.generation == generation;
+              if (error != null) {
+                logFailure(op, nodeId, error.getCause() != null ? error.getCause() : error);
+                if (latest) {
+                  // 最新一次提交失败：累积的种子无法再应用，内存图也未拼接，必须标记失效
+                  pendingByWorld.remove(worldId);
+                  markStaleAfterFailure(world, worldId);
+                }
+                return;
               }
+              if (!latest) {
+                return;
+              }
+              pendingByWorld.remove(worldId);
+              provider()
+                  .ifPresent(
+                      provider ->
+                          applySignatureCheck(
+                              provider,
+                              world,
+                              worldId,
+                              check,
+                              List.copyOf(pending.upserted.values()),
+                              Set.copyOf(pending.removed)));
             });
   }
 
+  /**
+   * 在存储线程按入队顺序执行该世界积压的写入（同一事务内）。
+   *
+   * <p>同 key 的合并写入可能由较晚的一次调用统一取出执行，因此每次调用都把通道取空。
+   */
+  private static void drainLane(ConcurrentLinkedQueue<NodeWrite> lane, StorageProvider provider) {
+    NodeWrite next;
+    while ((next = lane.poll()) != null) {
+      next.apply(provider);
+    }
+  }
+
+  /** 写入或签名检查失败后，内存图无法确认与 rail_nodes 一致：按当前内存图标记失效，提示运维重建。 */
+  private void markStaleAfterFailure(World world, UUID worldId) {
+    Optional<RailGraphSnapshot> current = railGraphService.getSnapshot(world);
+    if (current.isEmpty()) {
+      return;
+    }
+    RailGraph graph = current.get().graph();
+    List<RailNodeRecord> nodes = nodeRecords(worldId, graph);
+    railGraphService.markStale(
+        world,
+        new RailGraphStaleState(
+            current.get().builtAt(),
+            RailGraphSignature.signatureForNodes(nodes),
+            "",
+            nodes.size(),
+            graph.edges().size(),
+            nodes.size()));
+    debugLogger.accept("rail_nodes 增量同步失败，调度图已标记失效: world=" + world.getName());
+  }
+
+  private void logFailure(String op, NodeId nodeId, Throwable error) {
+    debugLogger.accept(
+        "rail_nodes 增量同步失败: op=" + op + " node=" + nodeId.value() + " msg=" + error.getMessage());
+  }
+
   private Optional<StorageProvider> provider() {
     if (!storageManager.isReady()) {
       return Optional.empty();
@@ -136,7 +289,12 @@ public final class RailNodeIncrementalSync implements SignNodeStorageSynchronize
   }
 
   private void applySignatureCheck(
-      StorageProvider provider, World world, UUID worldId, SignatureCheckResult check) {
+      StorageProvider provider,
+      World world,
+      UUID worldId,
+      SignatureCheckResult check,
+      List<RailNode> upserted,
+      Set<NodeId> removed) {
     Objects.requireNonNull(provider, "provider");
     Objects.requireNonNull(world, "world");
     Objects.requireNonNull(worldId, "worldId");
@@ -145,18 +303,22 @@ public final class RailNodeIncrementalSync implements SignNodeStorageSynchronize
     if (check.snapshot().isEmpty()) {
       return;
     }
+    // 提交前已失效过一次；这里再推进写入戳，丢弃提交期间以旧 rail_nodes 排队的缓存写入
+    railGraphService.invalidateBinarySnapshot(worldId);
     RailGraphSnapshotRecord snapshot = check.snapshot().get();
 
     if (check.mismatch()) {
-      railGraphService.markStale(
-          world,
+      RailGraphStaleState staleState =
           new RailGraphStaleState(
               snapshot.builtAt(),
               snapshot.nodeSignature(),
               check.currentSignature(),
               snapshot.nodeCount(),
               snapshot.edgeCount(),
-              check.currentNodeCount()));
+              check.currentNodeCount());
+      if (!requestSplice(provider, world, worldId, check, staleState, upserted, removed)) {
+        railGraphService.markStale(world, staleState);
+      }
       return;
     }
 
@@ -167,6 +329,245 @@ public final class RailNodeIncrementalSync implements SignNodeStorageSynchronize
     }
   }
 
+  /**
+   * 请求局部重探索；同一世界已有探索在跑时只累积种子，待其完成后以最新签名再跑一轮。
+   *
+   * @return 是否已受理（false 表示未启用局部重探索，需要调用方标记失效）
+   */
+  private boolean requestSplice(
+      StorageProvider provider,
+      World world,
+      UUID worldId,
+      SignatureCheckResult check,
+      RailGraphStaleState staleState,
+      List<RailNode> upserted,
+      Set<NodeId> removed) {
+    if (spliceExplorer == null || graphWriter == null) {
+      return false;
+    }
+    SpliceLane lane = spliceLanes.computeIfAbsent(worldId, id -> new SpliceLane());
+    lane.seeds.add(upserted, removed);
+    lane.provider = provider;
+    lane.check = check;
+    lane.staleState = staleState;
+    if (!lane.running) {
+      startSplice(world, worldId, lane);
+    }
+    return true;
+  }
+
+  private void startSplice(World world, UUID worldId, SpliceLane lane) {
+    SpliceExplorer explorer = spliceExplorer;
+    Optional<RailGraphSnapshot> current = railGraphService.getSnapshot(world);
+    if (explorer == null
+        || current.isEmpty()
+        || railGraphService.getStaleState(world).isPresent()) {
+      spliceLanes.remove(worldId);
+      railGraphService.markStale(world, lane.staleState);
+      return;
+    }
+    PendingSeeds seeds = lane.seeds;
+    lane.seeds = new PendingSeeds();
+    StorageProvider provider = lane.provider;
+    SignatureCheckResult check = lane.check;
+    RailGraph base = current.get().graph();
+    lane.running = true;
+    CompletableFuture<Optional<RailGraphIncrementalUpdater.Update>> future;
+    try {
+      future =
+          explorer.submit(
+              world, base, List.copyOf(seeds.upserted.values()), Set.copyOf(seeds.removed));
+    } catch (RuntimeException ex) {
+      future = CompletableFuture.failedFuture(ex);
+    }
+    future.whenComplete(
+        (updateOpt, error) -> {
+          lane.running = false;
+          Optional<RailGraphSnapshot> latest = railGraphService.getSnapshot(world);
+          if (error == null
+              && latest.isPresent()
+              && latest.get().graph() != base
+              && railGraphService.getStaleState(world).isEmpty()) {
+            // 探索期间快照被替换（例如 /fta graph build）：同一批种子对新快照重跑
+            seeds.addAll(lane.seeds);
+            lane.seeds = seeds;
+            startSplice(world, worldId, lane);
+            return;
+          }
+          boolean applied;
+          if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            debugLogger.accept(
+                "调度图局部重探索失败，退回标记失效: world=" + world.getName() + " msg=" + cause.getMessage());
+            applied = false;
+          } else {
+            applied = applySplice(provider, world, worldId, check, updateOpt);
+          }
+          if (!applied) {
+            spliceLanes.remove(worldId);
+            railGraphService.markStale(world, lane.staleState);
+            return;
+          }
+          if (lane.seeds.isEmpty()) {
+            spliceLanes.remove(worldId);
+            return;
+          }
+          startSplice(world, worldId, lane);
+        });
+  }
+
+  /**
+   * 把局部探索结果拼接进内存调度图并提交增量落盘（主线程）。
+   *
+   * @return 是否已更新（false 表示需要退回标记失效）
+   */
+  private boolean applySplice(
+      StorageProvider provider,
+      World world,
+      UUID worldId,
+      SignatureCheckResult check,
+      Optional<RailGraphIncrementalUpdater.Update> updateOpt) {
+    RailGraphDeltaWriter writer = graphWriter;
+    if (writer == null || provider == null) {
+      return false;
+    }
+    if (updateOpt.isEmpty()) {
+      debugLogger.accept("调度图局部重探索超出步数上限，退回标记失效: world=" + world.getName());
+      return false;
+    }
+    RailGraphIncrementalUpdater.Update update = updateOpt.get();
+    RailGraph graph = update.merge().graph();
+    List<RailNodeRecord> nodes = nodeRecords(worldId, graph);
+    String signature = RailGraphSignature.signatureForNodes(nodes);
+    if (!signature.equals(check.currentSignature())) {
+      // 内存图与 rail_nodes 不一致（例如此前只 build 了部分区域）：局部结果不可信
+      debugLogger.accept("调度图局部重探索结果与 rail_nodes 不一致，退回标记失效: world=" + world.getName());
+      return false;
+    }
+
+    Instant builtAt = Instant.now();
+    railGraphService.putSnapshot(world, graph, builtAt);
+    List<RailEdgeRecord> edges = new ArrayList<>();
+    for (RailEdge edge : graph.edges()) {
+      edges.add(
+          new RailEdgeRecord(
+              worldId,
+              edge.id(),
+              edge.lengthBlocks(),
+              edge.baseSpeedLimit(),
+              edge.bidirectional()));
+    }
+    RailGraphSnapshotRecord snapshot =
+        new RailGraphSnapshotRecord(worldId, builtAt, nodes.size(), edges.size(), signature);
+    long cacheStamp = railGraphService.binarySnapshotStamp(worldId);
+    writer
+        .submit(provider, snapshot, nodes, edges)
+        .whenComplete(
+            (delta, error) -> {
+              if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                debugLogger.accept("调度图局部更新落盘失败: " + cause.getMessage());
+                return;
+              }
+              railGraphService.writeBinarySnapshot(cacheStamp, snapshot, nodes, edges);
+            });
+    debugLogger.accept(
+        "调度图局部重探索完成: world="
+            + world.getName()
+            + " refreshed="
+            + update.refreshedNodes().size()
+            + " removed="
+            + update.removedNodes().size()
+            + " steps="
+            + update.processedSteps()
+            + " nodes="
+            + graph.nodes().size()
+            + " edges="
+            + graph.edges().size());
+    return true;
+  }
+
+  private static RailNode toRailNode(RailNodeRecord record) {
+    return new SignRailNode(
+        record.nodeId(),
+        record.nodeType(),
+        new Vector(record.x(), record.y(), record.z()),
+        record.trainCartsDestination(),
+        record.waypointMetadata());
+  }
+
+  private static List<RailNodeRecord> nodeRecords(UUID worldId, RailGraph graph) {
+    List<RailNodeRecord> records = new ArrayList<>();
+    for (RailNode node : graph.nodes()) {
+      Vector pos = node.worldPosition();
+      records.add(
+          new RailNodeRecord(
+              worldId,
+              node.id(),
+              node.type(),
+              pos.getBlockX(),
+              pos.getBlockY(),
+              pos.getBlockZ(),
+              node.trainCartsDestination(),
+              node.waypointMetadata()));
+    }
+    records.sort(Comparator.comparing(record -> record.nodeId().value()));
+    return List.copyOf(records);
+  }
+
+  /** 局部重探索执行器：探索可在工作线程进行，但返回的 future 必须在主线程完成。 */
+  @FunctionalInterface
+  public interface SpliceExplorer {
+
+    /**
+     * @param base 提交时的内存快照
+     * @return 拼接结果；探索超出步数上限时为 empty
+     */
+    CompletableFuture<Optional<RailGraphIncrementalUpdater.Update>> submit(
+        World world, RailGraph base, List<RailNode> upserted, Set<NodeId> removed);
+  }
+
+  @FunctionalInterface
+  private interface NodeWrite {
+    void apply(StorageProvider provider);
+  }
+
+  /** 同一世界尚未应用的节点变更（后到的变更覆盖先到的）。 */
+  private static final class PendingSeeds {
+    private final Map<NodeId, RailNode> upserted = new LinkedHashMap<>();
+    private final Set<NodeId> removed = new LinkedHashSet<>();
+    private long generation;
+
+    private boolean isEmpty() {
+      return upserted.isEmpty() && removed.isEmpty();
+    }
+
+    /** 追加较晚的一批变更（后到的覆盖先到的）。 */
+    private void addAll(PendingSeeds later) {
+      add(List.copyOf(later.upserted.values()), later.removed);
+    }
+
+    private void add(List<RailNode> nodes, Set<NodeId> removedIds) {
+      for (RailNode node : nodes) {
+        removed.remove(node.id());
+        upserted.put(node.id(), node);
+      }
+      for (NodeId id : removedIds) {
+        upserted.remove(id);
+        removed.add(id);
+      }
+    }
+  }
+
+  /** 同一世界的局部重探索状态：记录最新一次签名检查，失败时据此标记失效。 */
+  private static final class SpliceLane {
+    private PendingSeeds seeds = new PendingSeeds();
+    private StorageProvider provider;
+    private SignatureCheckResult check;
+    private RailGraphStaleState staleState;
+    private boolean running;
+  }
+
   private record SignatureCheckResult(
       Optional<RailGraphSnapshotRecord> snapshot,
       String currentSignature,
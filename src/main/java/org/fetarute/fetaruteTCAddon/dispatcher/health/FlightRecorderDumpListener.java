@@ -0,0 +1,133 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.health;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.TrainNameNormalizer;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.DispatchFlightRecorder;
+
+/**
+ * 健康告警落盘：列车告警时把飞行记录器中该列车最近的决策写入文件。
+ *
+ * <p>快照在告警线程（主线程）上读取，格式化与写文件交给异步 executor。同一列车在 {@link #MIN_INTERVAL_MS} 内只落盘一次，
+ * 目录内最多保留 {@link #MAX_FILES} 个文件（按修改时间淘汰最旧的）。
+ */
+public final class FlightRecorderDumpListener implements Consumer<HealthAlert> {
+
+  /** 同一列车两次落盘的最小间隔（毫秒）。 */
+  static final long MIN_INTERVAL_MS = 60_000L;
+
+  /** 目录内最多保留的文件数。 */
+  static final int MAX_FILES = 100;
+
+  private static final DateTimeFormatter FILE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+  private final DispatchFlightRecorder recorder;
+  private final Path directory;
+  private final Executor ioExecutor;
+  private final Consumer<String> debugLogger;
+  private final ConcurrentMap<String, Long> lastDumpAtMs = new ConcurrentHashMap<>();
+
+  /**
+   * @param recorder 飞行记录器
+   * @param directory 落盘目录（不存在时自动创建）
+   * @param ioExecutor 写文件使用的异步 executor
+   * @param debugLogger 调试日志输出（可为 null）
+   */
+  public FlightRecorderDumpListener(
+      DispatchFlightRecorder recorder,
+      Path directory,
+      Executor ioExecutor,
+      Consumer<String> debugLogger) {
+    this.recorder = Objects.requireNonNull(recorder, "recorder");
+    this.directory = Objects.requireNonNull(directory, "directory");
+    this.ioExecutor = Objects.requireNonNull(ioExecutor, "ioExecutor");
+    this.debugLogger = debugLogger != null ? debugLogger : msg -> {};
+  }
+
+  @Override
+  public void accept(HealthAlert alert) {
+    if (alert == null || alert.train().isEmpty()) {
+      return;
+    }
+    String trainName = alert.train().get();
+    String key = TrainNameNormalizer.normalizeKey(trainName);
+    long now = alert.timestamp().toEpochMilli();
+    Long last = lastDumpAtMs.get(key);
+    if (last != null && now - last < MIN_INTERVAL_MS) {
+      return;
+    }
+    List<DispatchFlightRecorder.Entry> entries = recorder.snapshot(key);
+    if (entries.isEmpty()) {
+      return;
+    }
+    lastDumpAtMs.put(key, now);
+    Path file = directory.resolve(fileName(trainName, alert));
+    ioExecutor.execute(() -> write(file, alert, entries));
+  }
+
+  private void write(Path file, HealthAlert alert, List<DispatchFlightRecorder.Entry> entries) {
+    List<String> lines = new ArrayList<>(entries.size() + 3);
+    lines.add("# alert=" + alert.type().name() + " train=" + alert.trainName());
+    lines.add("# time=" + alert.timestamp() + " autoFixed=" + alert.autoFixed());
+    lines.add("# message=" + alert.message().replace('\n', ' '));
+    for (DispatchFlightRecorder.Entry entry : entries) {
+      lines.add(entry.format());
+    }
+    try {
+      Files.createDirectories(directory);
+      Files.write(file, lines, StandardCharsets.UTF_8);
+      pruneOldFiles();
+      debugLogger.accept("飞行记录已落盘: " + file.getFileName() + " entries=" + entries.size());
+    } catch (IOException ex) {
+      debugLogger.accept("飞行记录落盘失败: " + file.getFileName() + " error=" + ex.getMessage());
+    }
+  }
+
+  private void pruneOldFiles() throws IOException {
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream.filter(path -> path.toString().endsWith(".log")).toList();
+    }
+    if (files.size() <= MAX_FILES) {
+      return;
+    }
+    List<Path> sorted = new ArrayList<>(files);
+    sorted.sort(Comparator.comparingLong(FlightRecorderDumpListener::lastModified));
+    for (int i = 0; i < sorted.size() - MAX_FILES; i++) {
+      Files.deleteIfExists(sorted.get(i));
+    }
+  }
+
+  private static long lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path).toMillis();
+    } catch (IOException ex) {
+      return 0L;
+    }
+  }
+
+  static String fileName(String trainName, HealthAlert alert) {
+    String safeTrain = trainName.replaceAll("[^A-Za-z0-9_.-]", "_");
+    return safeTrain
+        + "-"
+        + FILE_TIME.format(alert.timestamp())
+        + "-"
+        + alert.type().name().toLowerCase(Locale.ROOT)
+        + ".log";
+  }
+}
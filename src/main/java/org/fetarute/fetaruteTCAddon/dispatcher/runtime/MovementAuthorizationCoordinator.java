@@ -18,12 +18,17 @@ import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalComputationTrace;
 final class MovementAuthorizationCoordinator {
 
   private final OccupancyManager occupancyManager;
-  private final Consumer<String> debugLogger;
+  private final SignalComputationTrace.Sink traceSink;
 
   MovementAuthorizationCoordinator(
       OccupancyManager occupancyManager, Consumer<String> debugLogger) {
+    this(occupancyManager, new SignalComputationTrace.Sink(debugLogger, null, null));
+  }
+
+  MovementAuthorizationCoordinator(
+      OccupancyManager occupancyManager, SignalComputationTrace.Sink traceSink) {
     this.occupancyManager = Objects.requireNonNull(occupancyManager, "occupancyManager");
-    this.debugLogger = debugLogger != null ? debugLogger : message -> {};
+    this.traceSink = Objects.requireNonNull(traceSink, "traceSink");
   }
 
   /** 执行普通移动授权。 */
@@ -47,13 +52,17 @@ final class MovementAuthorizationCoordinator {
             .evaluator()
             .evaluate(request.trainName(), acquired, request.now(), request.acquireScope());
     if (!acquireEvaluation.proceedAllowed()) {
-      debugLogger.accept(
-          "移动授权 acquire 阻塞: train="
-              + request.trainName()
-              + " signal="
-              + acquired.signal()
-              + " blockers="
-              + acquired.blockers().size());
+      if (traceSink.enabled().getAsBoolean()) {
+        traceSink
+            .logger()
+            .accept(
+                "移动授权 acquire 阻塞: train="
+                    + request.trainName()
+                    + " signal="
+                    + acquired.signal()
+                    + " blockers="
+                    + acquired.blockers().size());
+      }
       return AuthorizationResult.blocked(acquired, acquireEvaluation, true);
     }
     return AuthorizationResult.allowed(acquired, acquireEvaluation);
@@ -123,16 +132,16 @@ final class MovementAuthorizationCoordinator {
   record ProceedEvaluation(boolean proceedAllowed, boolean rawAllowed, boolean hardBlockerBypass) {}
 
   private void trace(AuthorizationRequest request, OccupancyDecision decision, String scope) {
-    SignalComputationTrace.emit(
-        SignalComputationTrace.builder(
+    traceSink.emit(
+        traceSink
+            .builder(
                 request.trainName(),
                 request.trainName(),
                 sourceForScope(scope),
                 decision == null ? null : decision.signal())
             .primaryReason("movement-authorization:" + scope)
             .request(request.request())
-            .decision(decision, request.request()),
-        debugLogger);
+            .decision(decision, request.request()));
   }
 
   private static SignalComputationTrace.Source sourceForScope(String scope) {
@@ -10,6 +10,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteId;
@@ -21,6 +22,10 @@ import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.TrainNameNorma
  * 运行时 RouteProgress 缓存：按列车名追踪 routeId 与当前索引。
  *
  * <p>RouteProgress 常驻内存以获得更高更新频率；同时把 index 写回 TrainProperties tag，便于重启恢复。
+ *
+ * <p>写回策略：默认每次 {@link #advance} 立即写 tag；启用 write-behind（{@link #setWriteBehind}）后只记录脏条目，由
+ * {@link #flushPendingTags()} 按周期批量写回，列车卸载/世界保存/插件关闭时也会主动 flush。write-behind 期间内存进度是权威值，
+ * 需要读取 index tag 的调用方应使用 {@link #readRouteIndex}，以便看到尚未落到 tag 的最新值。
  */
 public final class RouteProgressRegistry {
 
@@ -34,6 +39,13 @@ public final class RouteProgressRegistry {
 
   private final ConcurrentMap<String, RouteProgressEntry> entries = new ConcurrentHashMap<>();
   private final AtomicLong version = new AtomicLong();
+  private final ConcurrentMap<String, PendingTags> pendingTags = new ConcurrentHashMap<>();
+  private volatile boolean writeBehind;
+  private final LongAdder deferredWrites = new LongAdder();
+  private final LongAdder flushBatches = new LongAdder();
+  private final LongAdder flushedEntries = new LongAdder();
+  private volatile long lastFlushLagMillis;
+  private volatile long maxFlushLagMillis;
 
   /** 返回进度快照版本。每次 route index、lastPassedGraphNode 或 signal 提交都会递增。 */
   public long version() {
@@ -78,12 +90,141 @@ public final class RouteProgressRegistry {
       Instant now) {
     String normalizedName = requireTrainName(trainName);
     RouteProgressEntry entry = upsert(normalizedName, routeUuid, route, currentIndex, now);
-    TrainTagHelper.writeTag(properties, TAG_TRAIN_NAME, normalizedName);
-    TrainTagHelper.writeTag(properties, TAG_ROUTE_INDEX, String.valueOf(currentIndex));
-    TrainTagHelper.writeTag(properties, TAG_ROUTE_UPDATED_AT, String.valueOf(now.toEpochMilli()));
+    long updatedAtMillis = now.toEpochMilli();
+    if (writeBehind && properties != null) {
+      String key = keyOf(normalizedName);
+      PendingTags previous = pendingTags.get(key);
+      long dirtySince =
+          previous != null && previous.properties() == properties
+              ? previous.dirtySinceMillis()
+              : System.currentTimeMillis();
+      pendingTags.put(
+          key,
+          new PendingTags(properties, normalizedName, currentIndex, updatedAtMillis, dirtySince));
+      deferredWrites.increment();
+      return entry;
+    }
+    writeProgressTags(properties, normalizedName, currentIndex, updatedAtMillis);
     return entry;
   }
 
+  /**
+   * 切换 write-behind 模式；关闭时立即写回所有待写条目。
+   *
+   * @param enabled true 表示推进时只记录脏条目，由 {@link #flushPendingTags()} 批量写回
+   */
+  public void setWriteBehind(boolean enabled) {
+    this.writeBehind = enabled;
+    if (!enabled) {
+      flushPendingTags();
+    }
+  }
+
+  public boolean writeBehind() {
+    return writeBehind;
+  }
+
+  /**
+   * 读取列车的 route index：优先返回尚未写回的待写值，否则读取 tag。
+   *
+   * <p>待写条目按 TrainProperties 实例匹配，避免同名新车读到旧车进度。
+   */
+  public Optional<Integer> readRouteIndex(TrainProperties properties) {
+    if (properties != null && !pendingTags.isEmpty()) {
+      String key = keyOf(properties.getTrainName());
+      PendingTags pending = key != null ? pendingTags.get(key) : null;
+      if (pending != null && pending.properties() == properties) {
+        return Optional.of(pending.routeIndex());
+      }
+    }
+    return TrainTagHelper.readIntTag(properties, TAG_ROUTE_INDEX);
+  }
+
+  /**
+   * 批量写回所有待写条目。
+   *
+   * @return 本次写回的列车数
+   */
+  public int flushPendingTags() {
+    if (pendingTags.isEmpty()) {
+      return 0;
+    }
+    long nowMillis = System.currentTimeMillis();
+    long maxLag = 0L;
+    int flushed = 0;
+    for (Map.Entry<String, PendingTags> entry : pendingTags.entrySet()) {
+      PendingTags pending = entry.getValue();
+      if (!pendingTags.remove(entry.getKey(), pending)) {
+        continue;
+      }
+      writePending(pending);
+      maxLag = Math.max(maxLag, nowMillis - pending.dirtySinceMillis());
+      flushed++;
+    }
+    recordFlush(flushed, maxLag);
+    return flushed;
+  }
+
+  /**
+   * 写回单列车的待写条目（列车卸载前调用，保证 TrainCarts 保存到的是最新进度）。
+   *
+   * @return 是否有待写条目被写回
+   */
+  public boolean flushPendingTags(String trainName) {
+    String key = keyOf(trainName);
+    if (key == null) {
+      return false;
+    }
+    PendingTags pending = pendingTags.remove(key);
+    if (pending == null) {
+      return false;
+    }
+    writePending(pending);
+    recordFlush(1, System.currentTimeMillis() - pending.dirtySinceMillis());
+    return true;
+  }
+
+  /** write-behind 统计快照。 */
+  public WriteBehindStats writeBehindStats() {
+    return new WriteBehindStats(
+        writeBehind,
+        pendingTags.size(),
+        deferredWrites.sum(),
+        flushBatches.sum(),
+        flushedEntries.sum(),
+        lastFlushLagMillis,
+        maxFlushLagMillis);
+  }
+
+  private void recordFlush(int flushed, long lagMillis) {
+    if (flushed <= 0) {
+      return;
+    }
+    flushBatches.increment();
+    flushedEntries.add(flushed);
+    lastFlushLagMillis = lagMillis;
+    if (lagMillis > maxFlushLagMillis) {
+      maxFlushLagMillis = lagMillis;
+    }
+  }
+
+  private static void writePending(PendingTags pending) {
+    writeProgressTags(
+        pending.properties(), pending.trainName(), pending.routeIndex(), pending.updatedAtMillis());
+  }
+
+  private static void writeProgressTags(
+      TrainProperties properties, String trainName, int routeIndex, long updatedAtMillis) {
+    // TAG_TRAIN_NAME 通常不变：跳过重写，减少 TrainCarts 属性变更
+    if (!TrainTagHelper.readTagValue(properties, TAG_TRAIN_NAME)
+        .map(trainName::equals)
+        .orElse(false)) {
+      TrainTagHelper.writeTag(properties, TAG_TRAIN_NAME, trainName);
+    }
+    TrainTagHelper.writeTag(properties, TAG_ROUTE_INDEX, String.valueOf(routeIndex));
+    TrainTagHelper.writeTag(properties, TAG_ROUTE_UPDATED_AT, String.valueOf(updatedAtMillis));
+  }
+
   /**
    * 迁移列车名：保持进度与信号状态，但更新 key 与记录中的 trainName。
    *
@@ -120,6 +261,17 @@ public final class RouteProgressRegistry {
     if (existing == null) {
       return false;
     }
+    PendingTags pending = pendingTags.remove(oldKey);
+    if (pending != null) {
+      pendingTags.put(
+          newKey,
+          new PendingTags(
+              pending.properties(),
+              normalizedNewName,
+              pending.routeIndex(),
+              pending.updatedAtMillis(),
+              pending.dirtySinceMillis()));
+    }
     RouteProgressEntry migrated =
         new RouteProgressEntry(
             normalizedNewName,
@@ -199,11 +351,18 @@ public final class RouteProgressRegistry {
     return false;
   }
 
+  /**
+   * 移除列车进度。
+   *
+   * <p>同时丢弃该列车尚未写回的 tag：调用方通常随后会清理或重写 tag，不能让延迟写回覆盖回去；列车卸载时应先 {@link
+   * #flushPendingTags(String)}。
+   */
   public void remove(String trainName) {
     String key = keyOf(trainName);
     if (key == null) {
       return;
     }
+    pendingTags.remove(key);
     if (entries.remove(key) != null) {
       version.incrementAndGet();
     }
@@ -322,6 +481,33 @@ public final class RouteProgressRegistry {
     }
   }
 
+  /**
+   * write-behind 统计。
+   *
+   * @param pending 当前待写列车数
+   * @param deferredWrites 被延迟（未立即写 tag）的推进次数
+   * @param flushBatches 产生写回的 flush 次数
+   * @param flushedEntries 累计写回的列车条目数
+   * @param lastFlushLagMillis 最近一次 flush 中最早脏条目的滞后
+   * @param maxFlushLagMillis 历史最大滞后
+   */
+  public record WriteBehindStats(
+      boolean enabled,
+      int pending,
+      long deferredWrites,
+      long flushBatches,
+      long flushedEntries,
+      long lastFlushLagMillis,
+      long maxFlushLagMillis) {}
+
+  /** 尚未写回 tag 的进度（保存 TrainProperties 引用，flush 时直接写入）。 */
+  private record PendingTags(
+      TrainProperties properties,
+      String trainName,
+      int routeIndex,
+      long updatedAtMillis,
+      long dirtySinceMillis) {}
+
   private record RouteProgressSnapshot(
       RouteId routeId, int currentIndex, Optional<NodeId> nextTarget) implements RouteProgress {}
 }
@@ -16,6 +16,7 @@ import org.bukkit.block.Sign;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldSaveEvent;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.NodeSignDefinitionParser;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeDefinition;
@@ -30,7 +31,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.sign.SwitcherSignDefinitionParser
  * RuntimeDispatchService#handleStationArrival} 在列车停稳后处理；PASS 不会停稳，因此在牌子触发时即时推进，避免 destination
  * 卡在已通过的站台。
  *
- * <p>列车卸载/移除事件会主动释放占用，防止资源遗留。
+ * <p>列车卸载/移除事件会主动释放占用，防止资源遗留；卸载与世界保存前会刷新 write-behind 中的进度 tag。
  */
 public final class RuntimeDispatchListener implements Listener {
 
@@ -92,9 +93,20 @@ public final class RuntimeDispatchListener implements Listener {
     refreshGroup(event != null ? event.getGroup() : null);
   }
 
+  /** 区块卸载：先把 write-behind 中该列车的进度 tag 落到 properties（随列车一起保存），再释放运行时状态。 */
   @EventHandler(priority = EventPriority.MONITOR)
   public void onGroupUnload(GroupUnloadEvent event) {
-    handleGroupRemoved(event != null ? event.getGroup() : null);
+    MinecartGroup group = event != null ? event.getGroup() : null;
+    if (group != null) {
+      dispatchService.flushProgressTags(group.getProperties());
+    }
+    handleGroupRemoved(group);
+  }
+
+  /** 世界保存：TrainCarts 在此时写出列车存档，需先刷新全部待写进度 tag。 */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onWorldSave(WorldSaveEvent event) {
+    dispatchService.flushProgressTags();
   }
 
   @EventHandler(priority = EventPriority.MONITOR)
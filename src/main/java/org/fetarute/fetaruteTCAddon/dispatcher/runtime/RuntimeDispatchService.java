@@ -26,7 +26,9 @@ import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.fetarute.fetaruteTCAddon.company.model.Company;
 import org.fetarute.fetaruteTCAddon.company.model.Operator;
@@ -86,6 +88,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.TrainNameNorma
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeDefinition;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeRegistry;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignTextParser;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.DispatchFlightRecorder;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalComputationTrace;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalDecisionInputClassifier;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalDecisionInputType;
@@ -148,9 +151,12 @@ public final class RuntimeDispatchService {
   private final TrainConfigResolver trainConfigResolver;
   private final RuntimeTrainController runtimeTrainController = new RuntimeTrainController();
   private final Consumer<String> debugLogger;
+  private volatile BooleanSupplier debugEnabled = () -> true;
+  private final SignalComputationTrace.Sink signalTraceSink;
   private Consumer<LayoverRegistry.LayoverCandidate> layoverListener = candidate -> {};
   private final RailGraphPathFinder pathFinder = new RailGraphPathFinder();
   private final ShortestPathDistanceCache shortestPathDistanceCache;
+  private final java.util.function.LongConsumer snapshotListener;
   private final MovementAuthorityService movementAuthorityService = new MovementAuthorityService();
   private final java.util.Map<String, StallState> stallStates = new java.util.HashMap<>();
   private final java.util.Set<String> missingSignalWarned = new HashSet<>();
@@ -212,12 +218,26 @@ public final class RuntimeDispatchService {
       new java.util.concurrent.atomic.AtomicLong();
   private final java.util.concurrent.ConcurrentMap<String, SignalAspect> dirtyEventSignals =
       new java.util.concurrent.ConcurrentHashMap<>();
+
+  /** 周期巡检的 dirty 列车调度；事件侧只打标记，由 {@link RuntimeSignalMonitor} 决定本轮评估哪些列车。 */
+  private final SignalTickScheduler signalTickScheduler = new SignalTickScheduler();
+
+  /** 信号 tick 的并行 plan 阶段；未启用或未预提交时在主线程同步计算。 */
+  private final SignalTickPlanner signalTickPlanner;
   private final java.util.Set<String> applyingEventSignals =
       java.util.concurrent.ConcurrentHashMap.newKeySet();
   private final java.util.concurrent.atomic.LongAdder coalescedEventCount =
       new java.util.concurrent.atomic.LongAdder();
   private final java.util.concurrent.atomic.LongAdder reentrantStopSuppressed =
       new java.util.concurrent.atomic.LongAdder();
+
+  /** 资源联动刷新查询次数 / 命中（至少找到一列受影响列车）次数 / 累计耗时。 */
+  private final java.util.concurrent.atomic.LongAdder resourceRefreshQueries =
+      new java.util.concurrent.atomic.LongAdder();
+  private final java.util.concurrent.atomic.LongAdder resourceRefreshHits =
+      new java.util.concurrent.atomic.LongAdder();
+  private final java.util.concurrent.atomic.LongAdder resourceRefreshNanos =
+      new java.util.concurrent.atomic.LongAdder();
   private final java.util.concurrent.ConcurrentMap<String, String> healthTraceFingerprints =
       new java.util.concurrent.ConcurrentHashMap<>();
   private final java.util.concurrent.ConcurrentMap<String, Long> healthTraceLastAtMs =
@@ -247,6 +267,14 @@ public final class RuntimeDispatchService {
    *
    * <p>基础速度由信号等级与边限速决定；这里仅承载运行时额外限制，例如 STOP/TERM 停靠点 approach 速度，以及移动授权反推出的最大速度。
    */
+  /** 信号 tick 保持状态，见 {@link #resolveSignalHold}。 */
+  private enum SignalHold {
+    NONE,
+    LAYOVER,
+    DEPARTURE_GATE,
+    DWELL
+  }
+
   private record ControlSpeedOverrides(
       OptionalDouble approachLimitBps,
       OptionalDouble movementAuthorityLimitBps,
@@ -504,6 +532,38 @@ public final class RuntimeDispatchService {
       StorageManager storageManager,
       TrainConfigResolver trainConfigResolver,
       Consumer<String> debugLogger) {
+    this(
+        occupancyManager,
+        railGraphService,
+        routeDefinitions,
+        progressRegistry,
+        signNodeRegistry,
+        layoverRegistry,
+        dwellRegistry,
+        configManager,
+        storageManager,
+        trainConfigResolver,
+        debugLogger,
+        null);
+  }
+
+  /**
+   * @param flightRecorder 信号 trace 的飞行记录器（可为 null）；与 debug 开关一起注入本实例的 {@link
+   *     SignalComputationTrace.Sink}，不写入全局状态
+   */
+  public RuntimeDispatchService(
+      OccupancyManager occupancyManager,
+      RailGraphService railGraphService,
+      RouteDefinitionCache routeDefinitions,
+      RouteProgressRegistry progressRegistry,
+      SignNodeRegistry signNodeRegistry,
+      LayoverRegistry layoverRegistry,
+      DwellRegistry dwellRegistry,
+      ConfigManager configManager,
+      StorageManager storageManager,
+      TrainConfigResolver trainConfigResolver,
+      Consumer<String> debugLogger,
+      DispatchFlightRecorder flightRecorder) {
     this.occupancyManager = Objects.requireNonNull(occupancyManager, "occupancyManager");
     this.railGraphService = Objects.requireNonNull(railGraphService, "railGraphService");
     this.routeDefinitions = Objects.requireNonNull(routeDefinitions, "routeDefinitions");
@@ -515,14 +575,16 @@ public final class RuntimeDispatchService {
     this.storageManager = storageManager;
     this.trainConfigResolver = Objects.requireNonNull(trainConfigResolver, "trainConfigResolver");
     this.debugLogger = debugLogger != null ? debugLogger : message -> {};
-    SignalComputationTrace.configureLogger(this.debugLogger);
+    this.signalTraceSink =
+        new SignalComputationTrace.Sink(this.debugLogger, this::debugEnabled, flightRecorder);
     this.launchAuthorizationService =
         new LaunchAuthorizationService(
             occupancyManager,
             (trainName, decision, now, scope) -> updateBlockerSnapshot(trainName, decision, now),
             this.debugLogger);
     this.movementAuthorizationCoordinator =
-        new MovementAuthorizationCoordinator(occupancyManager, this.debugLogger);
+        new MovementAuthorizationCoordinator(occupancyManager, signalTraceSink);
+    this.signalTickPlanner = new SignalTickPlanner(this.debugLogger);
     this.dynamicAllocator =
         new DynamicPlatformAllocator(routeDefinitions, occupancyManager, this.debugLogger);
     this.dynamicDestinationResolver =
@@ -533,6 +595,9 @@ public final class RuntimeDispatchService {
             Duration.ofSeconds(resolveDistanceCacheRefreshSeconds()),
             resolvePathCacheMaxSize(),
             this.debugLogger);
+    // 快照替换时整体清空距离缓存，缓存项不持有旧图实例
+    this.snapshotListener = shortestPathDistanceCache::onSnapshotChanged;
+    railGraphService.addSnapshotListener(snapshotListener);
   }
 
   private int resolveDistanceCacheRefreshSeconds() {
@@ -569,6 +634,15 @@ public final class RuntimeDispatchService {
     this.etaService = etaService;
   }
 
+  /**
+   * 设置 debug 开关来源（默认始终开启）。
+   *
+   * <p>关闭时 debug 日志在拼接消息前即被跳过，{@link SignalComputationTrace} 也只保留飞行记录器所需的结构化字段。
+   */
+  public void setDebugEnabled(BooleanSupplier debugEnabled) {
+    this.debugEnabled = debugEnabled != null ? debugEnabled : () -> true;
+  }
+
   /**
    * 获取列车是否持有“发车许可锁”。
    *
@@ -658,7 +732,222 @@ public final class RuntimeDispatchService {
         dirtyEventSignals.size(),
         coalescedEventCount.sum(),
         reentrantStopSuppressed.sum(),
-        0);
+        0,
+        resourceRefreshQueries.sum(),
+        resourceRefreshHits.sum(),
+        resourceRefreshNanos.sum(),
+        pathStats.evictions(),
+        pathStats.staleServes(),
+        pathStats.invalidations());
+  }
+
+  /** 周期巡检使用的信号 tick 调度器。 */
+  public SignalTickScheduler signalTickScheduler() {
+    return signalTickScheduler;
+  }
+
+  /** 信号 tick 的并行 plan 阶段。 */
+  public SignalTickPlanner signalTickPlanner() {
+    return signalTickPlanner;
+  }
+
+  /**
+   * 为即将在本轮巡检中评估的列车提交 plan 任务（主线程）。
+   *
+   * <p>只读取已有状态，不初始化进度、不写覆盖表；Layover、停站、发车门控（与 {@link #resolveSignalHold} 同一判定）以及终点等不会构建运行请求的分支直接跳过。
+   */
+  public void prefetchSignalPlan(com.bergerkiller.bukkit.tc.controller.MinecartGroup group) {
+    if (!signalTickPlanner.enabled() || group == null) {
+      return;
+    }
+    RuntimeTrainHandle train = new TrainCartsRuntimeHandle(group);
+    if (!train.isValid()) {
+      return;
+    }
+    TrainProperties properties = train.properties();
+    if (properties == null || !isFtaManagedTrain(properties)) {
+      return;
+    }
+    String trainName = resolveTrackedTrainName(properties).orElse(properties.getTrainName());
+    if (trainName == null
+        || trainName.isBlank()
+        || resolveSignalHold(trainName, train.isMoving()) != SignalHold.NONE) {
+      return;
+    }
+    Optional<RouteProgressRegistry.RouteProgressEntry> entryOpt = progressRegistry.get(trainName);
+    if (entryOpt.isEmpty()) {
+      return;
+    }
+    Optional<RouteDefinition> routeOpt = resolveRouteDefinition(properties);
+    if (routeOpt.isEmpty()) {
+      return;
+    }
+    RouteDefinition route = routeOpt.get();
+    int currentIndex = entryOpt.get().currentIndex();
+    if (currentIndex < 0 || currentIndex >= route.waypoints().size() - 1) {
+      return;
+    }
+    Instant now = Instant.now();
+    Optional<RailGraph> graphOpt = resolveGraph(train.worldId(), now);
+    if (graphOpt.isEmpty()) {
+      return;
+    }
+    signalTickPlanner.submit(
+        signalPlanInput(
+            trainName,
+            route,
+            currentIndex,
+            graphOpt.get(),
+            configManager.current().runtimeSettings(),
+            now));
+  }
+
+  /**
+   * 信号 tick 的保持判定：命中时本 tick 只保持停车，不构建运行请求。
+   *
+   * <p>{@link #handleSignalTick(RuntimeTrainHandle, boolean)} 与 {@link #prefetchSignalPlan} 共用此判定，
+   * 避免两侧跳过条件漂移。发车门控在列车已恢复移动时不算保持（由信号 tick 清理遗留 gate）。
+   */
+  private SignalHold resolveSignalHold(String trainName, boolean moving) {
+    if (layoverRegistry.get(trainName).isPresent()) {
+      return SignalHold.LAYOVER;
+    }
+    if (!moving && hasDepartureGate(trainName)) {
+      return SignalHold.DEPARTURE_GATE;
+    }
+    if (dwellRegistry != null && dwellRegistry.remainingSeconds(trainName).isPresent()) {
+      return SignalHold.DWELL;
+    }
+    return SignalHold.NONE;
+  }
+
+  /** 构建 plan 输入快照；预提交与 commit 时使用同一入口，保证两侧输入可比较。 */
+  private SignalTickPlanner.PlanInput signalPlanInput(
+      String trainName,
+      RouteDefinition route,
+      int currentIndex,
+      RailGraph graph,
+      ConfigManager.RuntimeSettings runtimeSettings,
+      Instant now) {
+    return new SignalTickPlanner.PlanInput(
+        trainName,
+        Optional.ofNullable(route.id()),
+        resolveEffectiveWaypoints(trainName, route),
+        currentIndex,
+        progressRegistry
+            .get(trainName)
+            .flatMap(RouteProgressRegistry.RouteProgressEntry::lastPassedGraphNode),
+        graph,
+        runtimeSettings.lookaheadEdges(),
+        runtimeSettings.minClearEdges(),
+        runtimeSettings.rearGuardEdges(),
+        runtimeSettings.switcherZoneEdges(),
+        now);
+  }
+
+  /** 标记列车在下一轮周期巡检中必须重新评估信号。 */
+  public void markSignalDirty(String trainName, SignalTickScheduler.DirtyReason reason) {
+    signalTickScheduler.markDirty(trainName, reason);
+  }
+
+  /**
+   * 资源释放后标记受影响列车为 dirty：仍占用这些资源的列车与在冲突队列中等待它们的列车。
+   *
+   * <p>只打标记，不在释放调用栈内控车；实际评估由下一轮周期巡检完成。
+   *
+   * @param resources 被释放的资源
+   * @param sourceTrainName 释放资源的列车（排除）
+   */
+  public void markSignalDirtyForResources(
+      List<OccupancyResource> resources, String sourceTrainName) {
+    if (resources == null || resources.isEmpty() || occupancyManager == null) {
+      return;
+    }
+    Set<OccupancyResource> targets = new LinkedHashSet<>();
+    for (OccupancyResource resource : resources) {
+      if (resource != null) {
+        targets.add(resource);
+      }
+    }
+    if (targets.isEmpty()) {
+      return;
+    }
+    Map<String, String> impactedByKey =
+        collectImpactedTrainsForResourceRefresh(targets, normalizeTrainKey(sourceTrainName));
+    for (String impactedTrain : impactedByKey.values()) {
+      signalTickScheduler.markDirty(
+          impactedTrain, SignalTickScheduler.DirtyReason.OCCUPANCY_RELEASED);
+    }
+  }
+
+  /** 插件卸载时释放后台资源（最短路距离缓存的刷新线程）。 */
+  public void shutdown() {
+    progressRegistry.flushPendingTags();
+    railGraphService.removeSnapshotListener(snapshotListener);
+    shortestPathDistanceCache.close();
+    signalTickPlanner.close();
+  }
+
+  /** 写回所有尚未落到 TrainProperties 的进度 tag（世界保存时调用）。 */
+  public int flushProgressTags() {
+    return progressRegistry.flushPendingTags();
+  }
+
+  /** 读取列车 routeIndex：优先返回尚未写回的待写值，其次为 tag。 */
+  public Optional<Integer> readRouteIndex(TrainProperties properties) {
+    return progressRegistry.readRouteIndex(properties);
+  }
+
+  /** 进度 tag write-behind 指标。 */
+  public RouteProgressRegistry.WriteBehindStats progressTagStats() {
+    return progressRegistry.writeBehindStats();
+  }
+
+  /** 写回单列车的进度 tag（列车卸载前调用，保证 TrainCarts 保存到最新进度）。 */
+  public void flushProgressTags(TrainProperties properties) {
+    if (properties == null) {
+      return;
+    }
+    progressRegistry.flushPendingTags(properties.getTrainName());
+  }
+
+  /** debug 日志是否开启。 */
+  private boolean debugEnabled() {
+    return debugEnabled.getAsBoolean();
+  }
+
+  /** 输出 debug 日志：开关关闭时不调用 supplier，消息不会被拼接。 */
+  private void trace(Supplier<String> message) {
+    if (debugEnabled.getAsBoolean()) {
+      debugLogger.accept(message.get());
+    }
+  }
+
+  /**
+   * 输出 debug 日志（{@link String#format} 模板）：开关关闭时不格式化。
+   *
+   * <p>供引用了会被重新赋值的局部变量、无法写成 lambda 的调用点使用；{@link OptionalLong}/{@link OptionalDouble}
+   * 参数输出其值，空值输出 "-"。
+   */
+  private void trace(String format, Object... args) {
+    if (!debugEnabled.getAsBoolean()) {
+      return;
+    }
+    Object[] values = new Object[args.length];
+    for (int i = 0; i < args.length; i++) {
+      values[i] = traceArg(args[i]);
+    }
+    debugLogger.accept(String.format(Locale.ROOT, format, values));
+  }
+
+  private static Object traceArg(Object arg) {
+    if (arg instanceof OptionalLong value) {
+      return value.isPresent() ? value.getAsLong() : "-";
+    }
+    if (arg instanceof OptionalDouble value) {
+      return value.isPresent() ? value.getAsDouble() : "-";
+    }
+    return arg;
   }
 
   private SignalComputationTrace.Builder signalTrace(
@@ -668,15 +957,22 @@ public final class RuntimeDispatchService {
       SignalAspect previousAspect,
       SignalAspect newAspect,
       String reason) {
+    SignalComputationTrace.Builder trace =
+        signalTraceSink
+            .builder(
+                trainName,
+                properties == null ? trainName : properties.getTrainName(),
+                source,
+                newAspect)
+            .previousAspect(previousAspect)
+            .primaryReason(reason);
+    if (!trace.detailed()) {
+      // debug 关闭：只保留飞行记录器字段，跳过 token/目的地等附加查询
+      return trace;
+    }
     MovementAuthorizationToken token = movementToken(trainName).orElse(null);
     String destination = properties == null ? "" : readDestination(properties);
-    return SignalComputationTrace.builder(
-            trainName,
-            properties == null ? trainName : properties.getTrainName(),
-            source,
-            newAspect)
-        .previousAspect(previousAspect)
-        .primaryReason(reason)
+    return trace
         .field("progressVersion", progressRegistry.version())
         .field("occupancyVersion", occupancyVersion())
         .field("dirtyEventPending", dirtyEventSignals.containsKey(normalizeTrainKey(trainName)))
@@ -726,6 +1022,9 @@ public final class RuntimeDispatchService {
     if (trace == null) {
       return null;
     }
+    if (!trace.detailed()) {
+      return trace;
+    }
     DrainGateContext context = resolveDrainGateContext(request, decision);
     boolean drainGateApplied =
         publication != null && publication.inputType() == SignalDecisionInputType.DRAIN_THROUGH;
@@ -985,6 +1284,29 @@ public final class RuntimeDispatchService {
         : -1L;
   }
 
+  /**
+   * 列车当前持有的占用（按逻辑列车匹配）。
+   *
+   * <p>{@link SimpleOccupancyManager} 走按列车的反向索引；其它实现退化为过滤全量快照。调用方仍按自身语义做精确过滤。
+   */
+  private List<OccupancyClaim> claimsOfTrain(String trainName) {
+    if (occupancyManager == null || trainName == null || trainName.isBlank()) {
+      return List.of();
+    }
+    if (occupancyManager instanceof SimpleOccupancyManager manager) {
+      return manager.claimsOf(trainName);
+    }
+    List<OccupancyClaim> result = new ArrayList<>();
+    for (OccupancyClaim claim : occupancyManager.snapshotClaims()) {
+      if (claim != null
+          && claim.trainName() != null
+          && TrainNameNormalizer.sameLogicalTrain(claim.trainName(), trainName)) {
+        result.add(claim);
+      }
+    }
+    return result;
+  }
+
   private OccupancyRequest markDirectedRequest(
       OccupancyRequest request, SignalComputationTrace.Source source) {
     if (request == null) {
@@ -1037,17 +1359,16 @@ public final class RuntimeDispatchService {
       return true;
     }
     TrainProperties properties = train.properties();
-    String trainName = resolveTrackedTrainName(properties).orElse(null);
-    if (trainName == null || trainName.isBlank()) {
-      trainName = "unknown";
-    }
+    String trainName =
+        resolveTrackedTrainName(properties).filter(name -> !name.isBlank()).orElse("unknown");
     Optional<RouteDefinition> routeOpt = resolveRouteDefinition(properties);
     if (routeOpt.isEmpty()) {
       return true;
     }
     RouteDefinition route = routeOpt.get();
     OptionalInt tagIndex =
-        TrainTagHelper.readIntTag(properties, RouteProgressRegistry.TAG_ROUTE_INDEX)
+        progressRegistry
+            .readRouteIndex(properties)
             .map(OptionalInt::of)
             .orElse(OptionalInt.empty());
     int currentIndex =
@@ -1104,7 +1425,7 @@ public final class RuntimeDispatchService {
             AuthorizationPurpose.STATION_DEPARTURE);
 
     if (contextOpt.isEmpty()) {
-      debugLogger.accept("发车门控失败: 构建占用请求失败 train=" + trainName);
+      trace(() -> "发车门控失败: 构建占用请求失败 train=" + trainName);
       retainStopOccupancy(trainName, route, currentIndex, definition.nodeId(), graph, now);
       return false;
     }
@@ -1170,7 +1491,7 @@ public final class RuntimeDispatchService {
                 }));
     if (!authorization.allowed()) {
       OccupancyDecision decision = authorization.effectiveDecision();
-      SignalComputationTrace.emit(
+      signalTraceSink.emit(
           signalTrace(
                   trainName,
                   properties,
@@ -1195,23 +1516,23 @@ public final class RuntimeDispatchService {
               .request(authorizationRequest)
               .decision(decision, authorizationRequest));
       if (authorization.yielded()) {
-        debugLogger.accept("发车门控让行: train=" + trainName + " priority=" + priority);
+        trace(() -> "发车门控让行: train=" + trainName + " priority=" + priority);
       } else {
         SignalAspect signal = decision == null ? SignalAspect.STOP : decision.signal();
         String blockers = decision == null ? "-" : summarizeBlockers(decision);
-        debugLogger.accept(
-            "发车门控阻塞: train=" + trainName + " aspect=" + signal + " blockers=" + blockers);
+        trace(() -> "发车门控阻塞: train=" + trainName + " aspect=" + signal + " blockers=" + blockers);
       }
       return false;
     }
     if (authorization.acquireAttempted() && !authorization.acquired()) {
-      debugLogger.accept(
-          "发车门控阻塞: train="
-              + trainName
-              + " aspect="
-              + authorization.signal()
-              + " blockers="
-              + summarizeBlockers(authorization.effectiveDecision()));
+      trace(
+          () ->
+              "发车门控阻塞: train="
+                  + trainName
+                  + " aspect="
+                  + authorization.signal()
+                  + " blockers="
+                  + summarizeBlockers(authorization.effectiveDecision()));
       return false;
     }
     retainRearGuardOccupancyBestEffort(
@@ -1247,23 +1568,27 @@ public final class RuntimeDispatchService {
       return;
     }
 
-    String trainName = handleRenameIfNeeded(properties);
-    if (trainName == null || trainName.isBlank()) {
-      trainName = resolveTrackedTrainName(properties).orElse("unknown");
-    }
+    String renamed = handleRenameIfNeeded(properties);
+    String trainName =
+        renamed == null || renamed.isBlank()
+            ? resolveTrackedTrainName(properties).orElse("unknown")
+            : renamed;
+    signalTickScheduler.markDirty(trainName, SignalTickScheduler.DirtyReason.WAYPOINT_PASSED);
     Optional<UUID> routeUuidOpt = readRouteUuid(properties);
     Optional<RouteDefinition> routeOpt = resolveRouteDefinition(properties);
     if (routeOpt.isEmpty()) {
-      debugLogger.accept(
-          "Station 推进失败: 未找到线路定义 train="
-              + trainName
-              + " "
-              + describeRouteTags(properties, routeUuidOpt));
+      trace(
+          () ->
+              "Station 推进失败: 未找到线路定义 train="
+                  + trainName
+                  + " "
+                  + describeRouteTags(properties, routeUuidOpt));
       return;
     }
     RouteDefinition route = routeOpt.get();
     OptionalInt tagIndex =
-        TrainTagHelper.readIntTag(properties, RouteProgressRegistry.TAG_ROUTE_INDEX)
+        progressRegistry
+            .readRouteIndex(properties)
             .map(OptionalInt::of)
             .orElse(OptionalInt.empty());
     int currentIndex =
@@ -1274,13 +1599,14 @@ public final class RuntimeDispatchService {
         handleDestroy(train, properties, trainName, "DSTY");
         return;
       }
-      debugLogger.accept(
-          "Station 推进跳过: 当前节点不在线路定义内 train="
-              + trainName
-              + " node="
-              + definition.nodeId().value()
-              + " route="
-              + route.id().value());
+      trace(
+          () ->
+              "Station 推进跳过: 当前节点不在线路定义内 train="
+                  + trainName
+                  + " node="
+                  + definition.nodeId().value()
+                  + " route="
+                  + route.id().value());
       return;
     }
     NodeId currentNode = definition.nodeId();
@@ -1302,15 +1628,16 @@ public final class RuntimeDispatchService {
     progressRegistry.advance(
         trainName, routeUuidOpt.orElse(null), route, currentIndex, properties, now);
     invalidateTrainEta(trainName);
-    debugLogger.accept(
-        "Station 推进: train="
-            + trainName
-            + " idx="
-            + currentIndex
-            + " node="
-            + currentNode.value()
-            + " route="
-            + route.id().value());
+    trace(
+        () ->
+            "Station 推进: train="
+                + trainName
+                + " idx="
+                + currentIndex
+                + " node="
+                + currentNode.value()
+                + " route="
+                + route.id().value());
     // 计算下一站并设置 destination
     int nextIndex = currentIndex + 1;
     if (nextIndex >= route.waypoints().size()) {
@@ -1321,26 +1648,28 @@ public final class RuntimeDispatchService {
             tryAllocateDstyDynamicDepot(
                 trainName, train, properties, route, currentNode, graphOpt.get());
         if (allocated) {
-          debugLogger.accept(
-              "Station 推进: 继续前往 DSTY DYNAMIC depot train="
-                  + trainName
-                  + " node="
-                  + currentNode.value()
-                  + " route="
-                  + route.id().value());
+          trace(
+              () ->
+                  "Station 推进: 继续前往 DSTY DYNAMIC depot train="
+                      + trainName
+                      + " node="
+                      + currentNode.value()
+                      + " route="
+                      + route.id().value());
           return;
         }
       }
       // 已到终点，清除 destination
       properties.clearDestinationRoute();
       properties.setDestination("");
-      debugLogger.accept(
-          "Station 推进: 已到终点 train="
-              + trainName
-              + " node="
-              + currentNode.value()
-              + " route="
-              + route.id().value());
+      trace(
+          () ->
+              "Station 推进: 已到终点 train="
+                  + trainName
+                  + " node="
+                  + currentNode.value()
+                  + " route="
+                  + route.id().value());
       return;
     }
     NodeId nextNode = resolveEffectiveNode(trainName, route, nextIndex);
@@ -1362,13 +1691,14 @@ public final class RuntimeDispatchService {
     if (destinationName != null && !destinationName.isBlank()) {
       properties.clearDestinationRoute();
       properties.setDestination(destinationName);
-      debugLogger.accept(
-          "Station 设置 destination: train="
-              + trainName
-              + " dest="
-              + destinationName
-              + " nextIdx="
-              + nextIndex);
+      trace(
+          () ->
+              "Station 设置 destination: train="
+                  + trainName
+                  + " dest="
+                  + destinationName
+                  + " nextIdx="
+                  + nextIndex);
     }
   }
 
@@ -1395,7 +1725,8 @@ public final class RuntimeDispatchService {
     }
     RouteDefinition route = routeOpt.get();
     OptionalInt tagIndex =
-        TrainTagHelper.readIntTag(properties, RouteProgressRegistry.TAG_ROUTE_INDEX)
+        progressRegistry
+            .readRouteIndex(properties)
             .map(OptionalInt::of)
             .orElse(OptionalInt.empty());
     int currentIndex =
@@ -1454,20 +1785,27 @@ public final class RuntimeDispatchService {
       return;
     }
 
-    String trainName = handleRenameIfNeeded(properties);
-    if (trainName == null || trainName.isBlank()) {
-      trainName = resolveTrackedTrainName(properties).orElse("unknown");
-    }
+    String renamed = handleRenameIfNeeded(properties);
+    String trainName =
+        renamed == null || renamed.isBlank()
+            ? resolveTrackedTrainName(properties).orElse("unknown")
+            : renamed;
+    signalTickScheduler.markDirty(trainName, SignalTickScheduler.DirtyReason.WAYPOINT_PASSED);
     Optional<UUID> routeUuidOpt = readRouteUuid(properties);
     Optional<RouteDefinition> routeOpt = resolveRouteDefinition(properties);
     if (routeOpt.isEmpty()) {
-      debugLogger.accept(
-          "调度推进失败: 未找到线路定义 train=" + trainName + " " + describeRouteTags(properties, routeUuidOpt));
+      trace(
+          () ->
+              "调度推进失败: 未找到线路定义 train="
+                  + trainName
+                  + " "
+                  + describeRouteTags(properties, routeUuidOpt));
       return;
     }
     RouteDefinition route = routeOpt.get();
     OptionalInt tagIndex =
-        TrainTagHelper.readIntTag(properties, RouteProgressRegistry.TAG_ROUTE_INDEX)
+        progressRegistry
+            .readRouteIndex(properties)
             .map(OptionalInt::of)
             .orElse(OptionalInt.empty());
     int currentIndex =
@@ -1484,13 +1822,14 @@ public final class RuntimeDispatchService {
         }
         updateLastPassedGraphNode(event, definition);
       }
-      debugLogger.accept(
-          "调度推进跳过: 当前节点不在线路定义内 train="
-              + trainName
-              + " node="
-              + definition.nodeId().value()
-              + " route="
-              + route.id().value());
+      trace(
+          () ->
+              "调度推进跳过: 当前节点不在线路定义内 train="
+                  + trainName
+                  + " node="
+                  + definition.nodeId().value()
+                  + " route="
+                  + route.id().value());
       return;
     }
     NodeId currentNode = definition.nodeId();
@@ -1543,18 +1882,19 @@ public final class RuntimeDispatchService {
         properties.setDestination("");
         // 传入 dwellSeconds，readyAt = now + dwell
         handleLayoverRegistrationIfNeeded(trainName, route, currentNode, properties, dwellSeconds);
-        debugLogger.accept(
-            "调度终到: 进入 Layover train="
-                + trainName
-                + " node="
-                + currentNode.value()
-                + " idx="
-                + currentIndex
-                + " route="
-                + route.id().value()
-                + " readyIn="
-                + dwellSeconds
-                + "s");
+        trace(
+            () ->
+                "调度终到: 进入 Layover train="
+                    + trainName
+                    + " node="
+                    + currentNode.value()
+                    + " idx="
+                    + currentIndex
+                    + " route="
+                    + route.id().value()
+                    + " readyIn="
+                    + dwellSeconds
+                    + "s");
         return;
       }
       if (shouldStopAtWaypoint(definition, stop)) {
@@ -1574,26 +1914,28 @@ public final class RuntimeDispatchService {
             tryAllocateDstyDynamicDepot(
                 trainName, train, properties, route, definition.nodeId(), graphOpt.get());
         if (allocated) {
-          debugLogger.accept(
-              "调度推进: 继续前往 DSTY DYNAMIC depot train="
-                  + trainName
-                  + " node="
-                  + definition.nodeId().value()
-                  + " route="
-                  + route.id().value());
+          trace(
+              () ->
+                  "调度推进: 继续前往 DSTY DYNAMIC depot train="
+                      + trainName
+                      + " node="
+                      + definition.nodeId().value()
+                      + " route="
+                      + route.id().value());
           return;
         }
       }
       // 无下一目标时清除 destination 防止继续寻路
       properties.clearDestinationRoute();
       properties.setDestination("");
-      debugLogger.accept(
-          "调度推进结束: 已到终点 train="
-              + trainName
-              + " node="
-              + definition.nodeId().value()
-              + " route="
-              + route.id().value());
+      trace(
+          () ->
+              "调度推进结束: 已到终点 train="
+                  + trainName
+                  + " node="
+                  + definition.nodeId().value()
+                  + " route="
+                  + route.id().value());
       return;
     }
     NodeId nextNode = resolveEffectiveNode(trainName, route, nextIndex);
@@ -1633,13 +1975,14 @@ public final class RuntimeDispatchService {
       return;
     }
     if (graphOpt.isEmpty()) {
-      debugLogger.accept(
-          "调度推进失败: 未找到调度图 train="
-              + trainName
-              + " node="
-              + definition.nodeId().value()
-              + " route="
-              + route.id().value());
+      trace(
+          () ->
+              "调度推进失败: 未找到调度图 train="
+                  + trainName
+                  + " node="
+                  + definition.nodeId().value()
+                  + " route="
+                  + route.id().value());
       return;
     }
     ConfigManager.RuntimeSettings runtimeSettings = configManager.current().runtimeSettings();
@@ -1686,16 +2029,17 @@ public final class RuntimeDispatchService {
               priority,
               AuthorizationPurpose.RUNTIME_MOVE);
       if (contextOpt.isEmpty()) {
-        debugLogger.accept(
-            "调度推进失败: 构建占用请求失败 train="
-                + trainName
-                + " node="
-                + definition.nodeId().value()
-                + " route="
-                + route.id().value()
-                + " reason="
-                + diagnoseBuildFailure(
-                    graph, route, currentIndex, Math.max(lookaheadEdges, minClearEdges)));
+        trace(
+            () ->
+                "调度推进失败: 构建占用请求失败 train="
+                    + trainName
+                    + " node="
+                    + definition.nodeId().value()
+                    + " route="
+                    + route.id().value()
+                    + " reason="
+                    + diagnoseBuildFailure(
+                        graph, route, currentIndex, Math.max(lookaheadEdges, minClearEdges)));
         return;
       }
       context = contextOpt.get();
@@ -1751,26 +2095,27 @@ public final class RuntimeDispatchService {
     OccupancyDecision decision = authorization.decision();
     boolean proceedAllowed = authorization.proceedAllowed();
     // 诊断：输出请求资源与判定结果
-    debugLogger.accept(
-        "调度推进判定: train="
-            + trainName
-            + " idx="
-            + currentIndex
-            + " node="
-            + definition.nodeId().value()
-            + " resources="
-            + request.resourceList().size()
-            + " allowed="
-            + proceedAllowed
-            + " rawAllowed="
-            + authorization.rawAllowed()
-            + " blockers="
-            + decision.blockers().size()
-            + " signal="
-            + decision.signal());
+    trace(
+        () ->
+            "调度推进判定: train="
+                + trainName
+                + " idx="
+                + currentIndex
+                + " node="
+                + definition.nodeId().value()
+                + " resources="
+                + request.resourceList().size()
+                + " allowed="
+                + proceedAllowed
+                + " rawAllowed="
+                + authorization.rawAllowed()
+                + " blockers="
+                + decision.blockers().size()
+                + " signal="
+                + decision.signal());
     if (!proceedAllowed) {
       SignalAspect aspect = deriveBlockedAspect(decision, authorizationContext);
-      SignalComputationTrace.emit(
+      signalTraceSink.emit(
           withStopFields(
                   signalTrace(
                       trainName,
@@ -1796,17 +2141,18 @@ public final class RuntimeDispatchService {
                   Optional.of(currentNode))
               .request(request)
               .decision(decision, request));
-      debugLogger.accept(
-          "调度推进阻塞: train="
-              + trainName
-              + " node="
-              + definition.nodeId().value()
-              + " signal="
-              + aspect
-              + " earliest="
-              + decision.earliestTime()
-              + " blockers="
-              + summarizeBlockers(decision));
+      trace(
+          () ->
+              "调度推进阻塞: train="
+                  + trainName
+                  + " node="
+                  + definition.nodeId().value()
+                  + " signal="
+                  + aspect
+                  + " earliest="
+                  + decision.earliestTime()
+                  + " blockers="
+                  + summarizeBlockers(decision));
       // 阻塞时：已到达当前节点，但前方资源尚未 acquire 成功，不能写入下一跳 destination。
       progressRegistry.advance(
           trainName, routeUuidOpt.orElse(null), route, currentIndex, properties, now);
@@ -1864,7 +2210,7 @@ public final class RuntimeDispatchService {
           AuthorityEnd.none());
       return;
     }
-    SignalComputationTrace.emit(
+    signalTraceSink.emit(
         withStopFields(
                 signalTrace(
                     trainName,
@@ -1977,6 +2323,11 @@ public final class RuntimeDispatchService {
       }
     }
 
+    // 判定路径只清理请求自身涉及的队列，全量过期清理放在周期性自愈中
+    if (occupancyManager instanceof SimpleOccupancyManager manager) {
+      manager.purgeExpiredQueues(java.time.Instant.now());
+    }
+
     java.util.Set<String> released = new java.util.HashSet<>();
     int releasedTrains = 0;
     List<OccupancyClaim> claims = occupancyManager.snapshotClaims();
@@ -2139,7 +2490,13 @@ public final class RuntimeDispatchService {
   public record CleanupResult(
       java.time.Instant at, int removedProgress, int releasedTrains, int removedLayovers) {}
 
-  /** 信号事件合并与缓存统计。 */
+  /**
+   * 信号事件合并与缓存统计。
+   *
+   * <p>resourceQuery* 统计“按资源联动刷新”对占用管理器的 holder/waiter 查询：调用次数、命中受影响列车的次数与累计耗时（纳秒）。
+   *
+   * <p>pathCache* 后三项来自最短路距离缓存：LRU 淘汰次数、返回过期值（触发后台刷新）次数、因图快照切换丢弃旧项的次数。
+   */
   public record SignalRuntimeStats(
       long pathCacheHit,
       long pathCacheMiss,
@@ -2149,7 +2506,47 @@ public final class RuntimeDispatchService {
       int dirtyTrainCount,
       long coalescedEventCount,
       long reentrantStopSuppressed,
-      long staleQueueCleanupCount) {}
+      long staleQueueCleanupCount,
+      long resourceQueryCount,
+      long resourceQueryHits,
+      long resourceQueryNanos,
+      long pathCacheEvictions,
+      long pathCacheStaleServes,
+      long pathCacheInvalidations) {
+
+    public SignalRuntimeStats(
+        long pathCacheHit,
+        long pathCacheMiss,
+        long directionCacheHit,
+        long directionCacheMiss,
+        long envelopeBuildCount,
+        int dirtyTrainCount,
+        long coalescedEventCount,
+        long reentrantStopSuppressed,
+        long staleQueueCleanupCount) {
+      this(
+          pathCacheHit,
+          pathCacheMiss,
+          directionCacheHit,
+          directionCacheMiss,
+          envelopeBuildCount,
+          dirtyTrainCount,
+          coalescedEventCount,
+          reentrantStopSuppressed,
+          staleQueueCleanupCount,
+          0L,
+          0L,
+          0L,
+          0L,
+          0L,
+          0L);
+    }
+
+    /** 资源联动查询的平均耗时（微秒）；无查询时为 0。 */
+    public double resourceQueryAvgMicros() {
+      return resourceQueryCount <= 0 ? 0.0 : resourceQueryNanos / 1000.0 / resourceQueryCount;
+    }
+  }
 
   /**
    * 启动/重载后扫描现存列车，重建占用快照并修复孤儿占用。
@@ -2232,6 +2629,7 @@ public final class RuntimeDispatchService {
     blockerSnapshots.remove(key);
     movementAuthorizationTokens.remove(key);
     movementInhibitors.remove(key);
+    signalTickScheduler.forget(trainName);
   }
 
   /**
@@ -2274,14 +2672,15 @@ public final class RuntimeDispatchService {
     AbnormalCleanupPolicy cleanupPolicy =
         resolveAbnormalCleanupPolicy(ftaManaged, normalizedReason);
     if (!cleanupPolicy.process()) {
-      debugLogger.accept(
-          "异常列车清理跳过: train="
-              + (properties != null
-                  ? normalizeTrainName(properties.getTrainName()).orElse("-")
-                  : "-")
-              + " reason="
-              + normalizedReason
-              + " ftaManaged=false");
+      trace(
+          () ->
+              "异常列车清理跳过: train="
+                  + (properties != null
+                      ? normalizeTrainName(properties.getTrainName()).orElse("-")
+                      : "-")
+                  + " reason="
+                  + normalizedReason
+                  + " ftaManaged=false");
       return;
     }
     String rawTrainName =
@@ -2306,12 +2705,12 @@ public final class RuntimeDispatchService {
         && !snapshot.cleanupTrainName().isBlank()) {
       boolean skipStateCleanup = shouldSkipDuplicateAbnormalCleanup(snapshot.cleanupKey());
       if (!skipStateCleanup) {
-        debugLogger.accept(
-            "异常列车清理: train=" + snapshot.cleanupTrainName() + " reason=" + normalizedReason);
+        trace(() -> "异常列车清理: train=" + snapshot.cleanupTrainName() + " reason=" + normalizedReason);
         handleTrainRemoved(snapshot.cleanupTrainName());
       } else {
-        debugLogger.accept(
-            "异常列车状态清理去重: train=" + snapshot.cleanupTrainName() + " reason=" + normalizedReason);
+        trace(
+            () ->
+                "异常列车状态清理去重: train=" + snapshot.cleanupTrainName() + " reason=" + normalizedReason);
       }
     }
     // 状态清理按 trainName 去重，但实体销毁必须始终尝试覆盖当前事件组。
@@ -2393,9 +2792,10 @@ public final class RuntimeDispatchService {
       if (target.isValid()) {
         new TrainCartsRuntimeHandle(target).destroy();
       } else {
-        debugLogger.accept(
-            "异常列车销毁跳过（group 已 invalid）: train="
-                + (trainName == null || trainName.isBlank() ? "-" : trainName));
+        trace(
+            () ->
+                "异常列车销毁跳过（group 已 invalid）: train="
+                    + (trainName == null || trainName.isBlank() ? "-" : trainName));
       }
     }
   }
@@ -2488,10 +2888,7 @@ public final class RuntimeDispatchService {
           entry.lastSignal() != null ? entry.lastSignal().name() : null);
     }
     Integer taggedIndex =
-        properties != null
-            ? TrainTagHelper.readIntTag(properties, RouteProgressRegistry.TAG_ROUTE_INDEX)
-                .orElse(null)
-            : null;
+        properties != null ? progressRegistry.readRouteIndex(properties).orElse(null) : null;
     String routeCode =
         properties != null
             ? TrainTagHelper.readTagValue(properties, RouteProgressRegistry.TAG_ROUTE_CODE)
@@ -2970,7 +3367,7 @@ public final class RuntimeDispatchService {
       return Set.of();
     }
     Set<String> keys = new LinkedHashSet<>();
-    for (OccupancyClaim claim : occupancyManager.snapshotClaims()) {
+    for (OccupancyClaim claim : claimsOfTrain(trainName)) {
       if (claim == null
           || claim.trainName() == null
           || claim.resource() == null
@@ -3369,13 +3766,16 @@ public final class RuntimeDispatchService {
     for (String impactedTrain : impactedByKey.values()) {
       refreshSignalByName(impactedTrain);
     }
-    debugLogger.accept(
-        "占用联动刷新: source="
-            + (sourceTrainName == null || sourceTrainName.isBlank() ? "unknown" : sourceTrainName)
-            + " resources="
-            + targets.size()
-            + " trains="
-            + impactedByKey.values().size());
+    trace(
+        () ->
+            "占用联动刷新: source="
+                + (sourceTrainName == null || sourceTrainName.isBlank()
+                    ? "unknown"
+                    : sourceTrainName)
+                + " resources="
+                + targets.size()
+                + " trains="
+                + impactedByKey.values().size());
   }
 
   /**
@@ -3390,52 +3790,41 @@ public final class RuntimeDispatchService {
       return impactedByKey;
     }
 
-    List<OccupancyClaim> claims = occupancyManager.snapshotClaims();
-    if (claims == null || claims.isEmpty()) {
-      return impactedByKey;
-    }
-    for (OccupancyClaim claim : claims) {
-      if (claim == null || claim.resource() == null) {
-        continue;
-      }
-      if (!targets.contains(claim.resource())) {
-        continue;
-      }
-      String candidate = claim.trainName();
-      if (candidate == null || candidate.isBlank()) {
-        continue;
-      }
-      String key = normalizeTrainKey(candidate);
-      if (key.isEmpty() || key.equals(sourceTrainKey)) {
+    long startedAt = System.nanoTime();
+    for (OccupancyClaim claim : occupancyManager.holdersOf(targets)) {
+      if (claim == null) {
         continue;
       }
-      impactedByKey.putIfAbsent(key, candidate);
-    }
-
-    if (!(occupancyManager instanceof OccupancyQueueSupport queueSupport)) {
-      return impactedByKey;
+      addImpactedTrain(impactedByKey, claim.trainName(), sourceTrainKey);
     }
-    for (OccupancyQueueSnapshot snapshot : queueSupport.snapshotQueues()) {
-      if (snapshot == null || snapshot.resource() == null) {
-        continue;
-      }
-      if (!targets.contains(snapshot.resource())) {
-        continue;
-      }
-      for (OccupancyQueueEntry entry : snapshot.entries()) {
-        if (entry == null || entry.trainName() == null || entry.trainName().isBlank()) {
-          continue;
-        }
-        String key = normalizeTrainKey(entry.trainName());
-        if (key.isEmpty() || key.equals(sourceTrainKey)) {
+    if (occupancyManager instanceof OccupancyQueueSupport queueSupport) {
+      for (OccupancyQueueEntry entry : queueSupport.waitersOf(targets)) {
+        if (entry == null) {
           continue;
         }
-        impactedByKey.putIfAbsent(key, entry.trainName());
+        addImpactedTrain(impactedByKey, entry.trainName(), sourceTrainKey);
       }
     }
+    resourceRefreshNanos.add(System.nanoTime() - startedAt);
+    resourceRefreshQueries.increment();
+    if (!impactedByKey.isEmpty()) {
+      resourceRefreshHits.increment();
+    }
     return impactedByKey;
   }
 
+  private static void addImpactedTrain(
+      Map<String, String> impactedByKey, String candidate, String sourceTrainKey) {
+    if (candidate == null || candidate.isBlank()) {
+      return;
+    }
+    String key = normalizeTrainKey(candidate);
+    if (key.isEmpty() || key.equals(sourceTrainKey)) {
+      return;
+    }
+    impactedByKey.putIfAbsent(key, candidate);
+  }
+
   /**
    * 通过列车名重下发“下一跳 destination”（不强制重发）。
    *
@@ -3472,10 +3861,11 @@ public final class RuntimeDispatchService {
       return false;
     }
     if (isRecoveryMovementBlocked(trainName, entry)) {
-      debugLogger.accept(
-          "HealthMonitor reissueDestination blocked: train="
-              + trainName
-              + " reason=blocked:hard-stop-inhibited");
+      trace(
+          () ->
+              "HealthMonitor reissueDestination blocked: train="
+                  + trainName
+                  + " reason=blocked:hard-stop-inhibited");
       return false;
     }
     Optional<RailGraph> graphOpt = resolveGraphByGroup(group);
@@ -3529,11 +3919,12 @@ public final class RuntimeDispatchService {
         validateSingleCorridorEntrySafety(
             trainName, graph, authorizationContext, authorityEnd, true);
     if (singleFailure.isPresent()) {
-      debugLogger.accept(
-          "HealthMonitor reissueDestination blocked: train="
-              + trainName
-              + " reason="
-              + singleFailure.get());
+      trace(
+          () ->
+              "HealthMonitor reissueDestination blocked: train="
+                  + trainName
+                  + " reason="
+                  + singleFailure.get());
       return false;
     }
     if (occupancyManager == null) {
@@ -3615,15 +4006,16 @@ public final class RuntimeDispatchService {
           authorityEnd);
       return false;
     }
-    debugLogger.accept(
-        "HealthMonitor reissueDestination: train="
-            + trainName
-            + " idx="
-            + currentIndex
-            + " next="
-            + nextNode.value()
-            + " dest="
-            + destinationName.get());
+    trace(
+        () ->
+            "HealthMonitor reissueDestination: train="
+                + trainName
+                + " idx="
+                + currentIndex
+                + " next="
+                + nextNode.value()
+                + " dest="
+                + destinationName.get());
     return true;
   }
 
@@ -3675,10 +4067,11 @@ public final class RuntimeDispatchService {
       return false;
     }
     if (isRecoveryMovementBlocked(trainName, entry)) {
-      debugLogger.accept(
-          "HealthMonitor forceRelaunch blocked: train="
-              + trainName
-              + " reason=blocked:hard-stop-inhibited");
+      trace(
+          () ->
+              "HealthMonitor forceRelaunch blocked: train="
+                  + trainName
+                  + " reason=blocked:hard-stop-inhibited");
       return false;
     }
     NodeId currentNode = resolveEffectiveNode(trainName, route, currentIndex);
@@ -3703,10 +4096,9 @@ public final class RuntimeDispatchService {
     }
 
     // 健康修复边界：force relaunch 只用于人工/健康检查恢复，保留在 Dispatcher 恢复路径内。
-    String destinationName = resolveDestinationName(nextNode);
-    if (destinationName == null || destinationName.isBlank()) {
-      destinationName = nextNode.value();
-    }
+    String displayName = resolveDestinationName(nextNode);
+    String destinationName =
+        displayName == null || displayName.isBlank() ? nextNode.value() : displayName;
     properties.clearDestinationRoute();
     properties.setDestination(destinationName);
 
@@ -3716,15 +4108,16 @@ public final class RuntimeDispatchService {
     RuntimeTrainHandle handle = new TrainCartsRuntimeHandle(group);
     runtimeTrainController.forceRelaunch(handle, properties, direction.get(), targetBps, config);
 
-    debugLogger.accept(
-        "HealthMonitor forceRelaunch: train="
-            + trainName
-            + " from="
-            + currentNode.value()
-            + " to="
-            + nextNode.value()
-            + " dir="
-            + direction.get().name());
+    trace(
+        () ->
+            "HealthMonitor forceRelaunch: train="
+                + trainName
+                + " from="
+                + currentNode.value()
+                + " to="
+                + nextNode.value()
+                + " dir="
+                + direction.get().name());
     return true;
   }
 
@@ -4030,7 +4423,7 @@ public final class RuntimeDispatchService {
     }
     healthTraceFingerprints.put(traceKey, fingerprint);
     healthTraceLastAtMs.put(traceKey, nowMs);
-    debugLogger.accept(event + ": " + message);
+    trace(() -> event + ": " + message);
   }
 
   private String summarizeRuntimeTrainNames(int limit) {
@@ -4164,7 +4557,7 @@ public final class RuntimeDispatchService {
       if (proceedLike && movementInhibited) {
         coalescedEventCount.increment();
         SignalAspect traceAspect = previous == null ? SignalAspect.STOP : previous;
-        SignalComputationTrace.emit(
+        signalTraceSink.emit(
             signalTrace(
                     trainName,
                     resolveTrainPropertiesByName(trainName).orElse(null),
@@ -4182,22 +4575,24 @@ public final class RuntimeDispatchService {
                 .field(
                     "inhibitorReason",
                     Optional.ofNullable(movementInhibitors.get(key)).map(Enum::name).orElse("-")));
-        debugLogger.accept(
-            "事件信号合并抑制: train="
-                + trainName
-                + " signal="
-                + signal
-                + " computedAspect="
-                + signal
-                + " publishedAspect=PRESERVE"
-                + " physicalPublished=false"
-                + " dirtyOnly=false"
-                + " reason=movement-inhibited");
+        trace(
+            () ->
+                "事件信号合并抑制: train="
+                    + trainName
+                    + " signal="
+                    + signal
+                    + " computedAspect="
+                    + signal
+                    + " publishedAspect=PRESERVE"
+                    + " physicalPublished=false"
+                    + " dirtyOnly=false"
+                    + " reason=movement-inhibited");
         return;
       }
       dirtyEventSignals.put(key, signal);
+      signalTickScheduler.markDirty(key, SignalTickScheduler.DirtyReason.SIGNAL_EVENT);
       coalescedEventCount.increment();
-      SignalComputationTrace.emit(
+      signalTraceSink.emit(
           signalTrace(
                   trainName,
                   resolveTrainPropertiesByName(trainName).orElse(null),
@@ -4210,17 +4605,18 @@ public final class RuntimeDispatchService {
               .field("publishedAspect", "DIRTY_ONLY")
               .field("physicalPublished", false)
               .field("dirtyOnly", true));
-      debugLogger.accept(
-          "事件信号合并: train="
-              + trainName
-              + " signal="
-              + signal
-              + " computedAspect="
-              + signal
-              + " publishedAspect=DIRTY_ONLY"
-              + " physicalPublished=false"
-              + " dirtyOnly=true"
-              + " mode=dirty");
+      trace(
+          () ->
+              "事件信号合并: train="
+                  + trainName
+                  + " signal="
+                  + signal
+                  + " computedAspect="
+                  + signal
+                  + " publishedAspect=DIRTY_ONLY"
+                  + " physicalPublished=false"
+                  + " dirtyOnly=true"
+                  + " mode=dirty");
       return;
     }
     if (!applyingEventSignals.add(key)) {
@@ -4228,6 +4624,7 @@ public final class RuntimeDispatchService {
         reentrantStopSuppressed.increment();
       }
       dirtyEventSignals.put(key, signal);
+      signalTickScheduler.markDirty(key, SignalTickScheduler.DirtyReason.SIGNAL_EVENT);
       return;
     }
     try {
@@ -4264,15 +4661,16 @@ public final class RuntimeDispatchService {
       handleSignalTick(train, true);
       return;
     }
-    debugLogger.accept(
-        "事件信号下发: train="
-            + trainName
-            + " signal="
-            + signal
-            + " current="
-            + (currentSignal == null ? "null" : currentSignal)
-            + " forceApply="
-            + forceApply);
+    trace(
+        () ->
+            "事件信号下发: train="
+                + trainName
+                + " signal="
+                + signal
+                + " current="
+                + (currentSignal == null ? "null" : currentSignal)
+                + " forceApply="
+                + forceApply);
     if (!forceApply) {
       return;
     }
@@ -4347,16 +4745,17 @@ public final class RuntimeDispatchService {
     if (properties == null) {
       return;
     }
-    String trainName = resolveTrackedTrainName(properties).orElse(properties.getTrainName());
     // 非 FTA 管控列车：静默跳过
     if (!isFtaManagedTrain(properties)) {
-      clearDepartureGate(trainName);
+      clearDepartureGate(
+          resolveTrackedTrainName(properties).orElse(properties.getTrainName()));
       return;
     }
     Instant now = Instant.now();
-    trainName = handleRenameIfNeeded(properties);
+    String trainName = handleRenameIfNeeded(properties);
     dirtyEventSignals.remove(normalizeTrainKey(trainName));
-    if (layoverRegistry.get(trainName).isPresent()) {
+    SignalHold hold = resolveSignalHold(trainName, train.isMoving());
+    if (hold == SignalHold.LAYOVER) {
       clearDepartureGate(trainName);
       // Layover 状态：保留当前位置节点的占用，防止后车"反向占用"导致死锁
       // 只释放前方 lookahead 资源，不释放当前节点
@@ -4395,7 +4794,7 @@ public final class RuntimeDispatchService {
       }
       return;
     }
-    if (TrainTagHelper.readIntTag(properties, RouteProgressRegistry.TAG_ROUTE_INDEX).isEmpty()) {
+    if (progressRegistry.readRouteIndex(properties).isEmpty()) {
       clearDepartureGate(trainName);
       if (progressRegistry.get(trainName).isPresent()) {
         if (occupancyManager != null) {
@@ -4438,7 +4837,7 @@ public final class RuntimeDispatchService {
         NodeId declared = route.waypoints().get(0);
         // 只有当实际起点与声明不同时才打印日志
         if (!actualStartNode.equals(declared)) {
-          debugLogger.accept("首站位置初始化: train=" + trainName + " depotId=" + actualStartNode.value());
+          trace(() -> "首站位置初始化: train=" + trainName + " depotId=" + actualStartNode.value());
         }
         // 无论是否与声明相同，都强制写入覆盖表以防止重复检查
         forceRecordEffectiveNode(trainName, 0, actualStartNode);
@@ -4446,14 +4845,13 @@ public final class RuntimeDispatchService {
     }
 
     NodeId currentNode = resolveEffectiveNode(trainName, route, boundedIndex);
+    if (hold == SignalHold.DEPARTURE_GATE) {
+      holdStopAtCurrentNode(train, properties, trainName, route, currentIndex, currentNode, now);
+      return;
+    }
     if (hasDepartureGate(trainName)) {
-      if (train.isMoving()) {
-        // 容错：列车已恢复移动时清理遗留 gate，避免后续长时间锁死。
-        clearDepartureGate(trainName);
-      } else {
-        holdStopAtCurrentNode(train, properties, trainName, route, currentIndex, currentNode, now);
-        return;
-      }
+      // 容错：列车已恢复移动时清理遗留 gate，避免后续长时间锁死。
+      clearDepartureGate(trainName);
     }
 
     // 动态站台分配：检查前方是否有 DYNAMIC 站点，提前分配具体站台
@@ -4467,14 +4865,11 @@ public final class RuntimeDispatchService {
       handleDestroy(train, properties, trainName, "DSTY");
       return;
     }
-    if (dwellRegistry != null) {
-      Optional<Integer> remaining = dwellRegistry.remainingSeconds(trainName);
-      if (remaining.isPresent()) {
-        // 只要列车仍处于 dwell 窗口，就必须保持 STOP。
-        // 不能依赖当前 index 重新命中 RouteStop：在动态站台/中间点跳过场景下，索引可能短暂偏移，导致”停站后被信号 tick 提前放行”。
-        holdStopAtCurrentNode(train, properties, trainName, route, currentIndex, currentNode, now);
-        return;
-      }
+    if (hold == SignalHold.DWELL) {
+      // 只要列车仍处于 dwell 窗口，就必须保持 STOP。
+      // 不能依赖当前 index 重新命中 RouteStop：在动态站台/中间点跳过场景下，索引可能短暂偏移，导致”停站后被信号 tick 提前放行”。
+      holdStopAtCurrentNode(train, properties, trainName, route, currentIndex, currentNode, now);
+      return;
     }
 
     Optional<WaypointStopState> waypointStopState =
@@ -4532,45 +4927,20 @@ public final class RuntimeDispatchService {
     shortestPathDistanceCache.setRefreshAfter(
         Duration.ofSeconds(Math.max(1, runtimeSettings.distanceCacheRefreshSeconds())));
     shortestPathDistanceCache.setMaxCacheSize(runtimeSettings.pathCacheMaxSize());
-    OccupancyRequestBuilder builder =
-        new OccupancyRequestBuilder(
-            graph,
-            runtimeSettings.lookaheadEdges(),
-            runtimeSettings.minClearEdges(),
-            runtimeSettings.rearGuardEdges(),
-            runtimeSettings.switcherZoneEdges(),
-            debugLogger);
-    NodeId currentNodeForSignal =
-        resolveEffectiveCurrentNodeForSignal(trainName, route, currentIndex, graph);
-    List<NodeId> effectiveNodes =
-        applyCurrentNodeOverride(
-            resolveEffectiveWaypoints(trainName, route), currentIndex, currentNodeForSignal);
-    Optional<OccupancyRequestContext> contextOpt =
-        builder.buildContextFromNodes(
-            trainName,
-            Optional.ofNullable(route.id()),
-            effectiveNodes,
-            currentIndex,
-            now,
-            0,
-            AuthorizationPurpose.RUNTIME_MOVE);
+    // plan 阶段：优先取巡检器在工作线程预计算的结果，输入变化或未预提交时同步计算
+    SignalTickPlanner.SignalPlan plan =
+        signalTickPlanner.take(
+            signalPlanInput(trainName, route, currentIndex, graph, runtimeSettings, now));
+    NodeId currentNodeForSignal = plan.currentNode();
+    List<NodeId> effectiveNodes = plan.effectiveNodes();
+    Optional<OccupancyRequestContext> contextOpt = plan.context();
     if (contextOpt.isEmpty()) {
       return;
     }
+    // commit 阶段：以下占用判定、授权与控车均在主线程串行执行
     OccupancyRequestContext context = contextOpt.get();
     OccupancyRequest request = context.request();
-    OccupancyRequestContext authorizationContext =
-        buildForwardAuthorizationContext(
-                graph,
-                runtimeSettings,
-                trainName,
-                route,
-                effectiveNodes,
-                currentIndex,
-                now,
-                0,
-                AuthorizationPurpose.RUNTIME_MOVE)
-            .orElse(context);
+    OccupancyRequestContext authorizationContext = plan.authorizationContext().orElse(context);
     OccupancyRequest authorizationRequest =
         markDirectedRequest(
             withRuntimeConflictClearingEvidence(
@@ -4636,7 +5006,7 @@ public final class RuntimeDispatchService {
     ProceedDecision proceedDecision = evaluateProceedDecision(trainName, decision, now, "signal");
     boolean proceedAllowed = proceedDecision.proceedAllowed();
     if (!proceedAllowed) {
-      SignalComputationTrace.emit(
+      signalTraceSink.emit(
           signalTrace(
                   trainName,
                   properties,
@@ -4700,7 +5070,7 @@ public final class RuntimeDispatchService {
     ProceedDecision acquiredProceed =
         evaluateProceedDecision(trainName, acquired, now, "signal-acquire");
     if (!acquiredProceed.proceedAllowed()) {
-      SignalComputationTrace.emit(
+      signalTraceSink.emit(
           signalTrace(
                   trainName,
                   properties,
@@ -4727,15 +5097,16 @@ public final class RuntimeDispatchService {
                   authorityEnd.resource(),
                   authorizationContext.edges().size()));
       retainStopOccupancy(trainName, route, currentIndex, currentNodeForSignal, graph, now);
-      debugLogger.accept(
-          "信号Tick acquire 阻塞: train="
-              + trainName
-              + " idx="
-              + currentIndex
-              + " signal="
-              + acquired.signal()
-              + " blockers="
-              + summarizeBlockers(acquired));
+      trace(
+          () ->
+              "信号Tick acquire 阻塞: train="
+                  + trainName
+                  + " idx="
+                  + currentIndex
+                  + " signal="
+                  + acquired.signal()
+                  + " blockers="
+                  + summarizeBlockers(acquired));
       applyHardStop(
           train,
           properties,
@@ -4826,13 +5197,14 @@ public final class RuntimeDispatchService {
             blocked,
             authorizationRequest,
             authorityEnd);
-        debugLogger.accept(
-            "调度 failover: 目标不可达 train="
-                + trainName
-                + " from="
-                + currentNodeOpt.get().value()
-                + " to="
-                + nextNode.get().value());
+        trace(
+            () ->
+                "调度 failover: 目标不可达 train="
+                    + trainName
+                    + " from="
+                    + currentNodeOpt.get().value()
+                    + " to="
+                    + nextNode.get().value());
         return;
       }
     }
@@ -4906,7 +5278,7 @@ public final class RuntimeDispatchService {
                   runtimeSettings.movementAuthorityCautionMarginBlocks()));
       SignalAspect authorityAspect = authorityDecision.effectiveAspect();
       if (signalSeverity(authorityAspect) > signalSeverity(nextAspect)) {
-        SignalComputationTrace.emit(
+        signalTraceSink.emit(
             withAuthorityTraceFields(
                 signalTrace(
                         trainName,
@@ -4935,19 +5307,14 @@ public final class RuntimeDispatchService {
                         authorityEnd.authorizedEdgeCount()),
                 authorityEnd,
                 authorityEndReason));
-        debugLogger.accept(
-            "移动授权降级: train="
-                + trainName
-                + " idx="
-                + currentIndex
-                + " "
-                + nextAspect
-                + " -> "
-                + authorityAspect
-                + " source="
-                + authoritySource
-                + " authorityDistance="
-                + formatOptionalLong(authorityDecision.authorityDistanceBlocks()));
+        trace(
+            "移动授权降级: train=%s idx=%s %s -> %s source=%s authorityDistance=%s",
+            trainName,
+            currentIndex,
+            nextAspect,
+            authorityAspect,
+            authoritySource,
+            authorityDecision.authorityDistanceBlocks());
         nextAspect = authorityAspect;
       }
       movementAuthorityLimitBps = authorityDecision.recommendedMaxSpeedBps();
@@ -4957,7 +5324,7 @@ public final class RuntimeDispatchService {
       }
     }
     if (nextAspect == SignalAspect.STOP && !stopAtNextWaypoint) {
-      SignalComputationTrace.emit(
+      signalTraceSink.emit(
           signalTrace(
                   trainName,
                   properties,
@@ -5002,21 +5369,14 @@ public final class RuntimeDispatchService {
     }
 
     if (lastAspect != nextAspect) {
-      debugLogger.accept(
-          "信号Tick变化: train="
-              + trainName
-              + " idx="
-              + currentIndex
-              + " "
-              + lastAspect
-              + " -> "
-              + nextAspect
-              + " allowed="
-              + true
-              + " rawAllowed="
-              + decision.allowed()
-              + " blockers="
-              + decision.blockers().size());
+      trace(
+          "信号Tick变化: train=%s idx=%s %s -> %s allowed=true rawAllowed=%s blockers=%s",
+          trainName,
+          currentIndex,
+          lastAspect,
+          nextAspect,
+          decision.allowed(),
+          decision.blockers().size());
     }
     retainRearGuardOccupancyBestEffort(
         trainName, route, currentIndex, effectiveNodes, graph, runtimeSettings, now);
@@ -5076,7 +5436,7 @@ public final class RuntimeDispatchService {
         evaluatePublicationGate(trainName, authorizationRequest, decision, nextAspect);
     if (publication.blocked()) {
       if (publication.localOnlyStop()) {
-        SignalComputationTrace.emit(
+        signalTraceSink.emit(
             withDrainGateTraceFields(
                 withAuthorityTraceFields(
                     signalTrace(
@@ -5145,7 +5505,7 @@ public final class RuntimeDispatchService {
               decision.blockers(),
               false,
               "publication-gate:" + publication.reason());
-      SignalComputationTrace.emit(
+      signalTraceSink.emit(
           withDrainGateTraceFields(
               withAuthorityTraceFields(
                   signalTrace(
@@ -5201,7 +5561,7 @@ public final class RuntimeDispatchService {
       return;
     }
     nextAspect = publication.visibleAspect();
-    SignalComputationTrace.emit(
+    signalTraceSink.emit(
         withDrainGateTraceFields(
             withAuthorityTraceFields(
                 withStopFields(
@@ -5251,29 +5611,21 @@ public final class RuntimeDispatchService {
 
     if (stopAtNextWaypoint
         && shouldLogStopWaypoint(trainName, currentIndex, nextNode.orElse(null), nextAspect)) {
-      debugLogger.accept(
-          "STOP/TERM waypoint 进站: train="
-              + trainName
-              + " idx="
-              + currentIndex
-              + " next="
-              + nextNode.get().value()
-              + " aspect="
-              + nextAspect
-              + " allowLaunch="
-              + allowLaunch
-              + " speedCurve="
-              + runtimeSettings.speedCurveEnabled()
-              + " failoverUnreachableStop="
-              + runtimeSettings.failoverUnreachableStop()
-              + " approachSpeedBps="
-              + (approachOverrideBps.isPresent() ? approachOverrideBps.getAsDouble() : "-")
-              + " distanceOpt="
-              + formatOptionalLong(distanceOpt)
-              + " blockerDistance="
-              + formatOptionalLong(blockerDistanceOpt)
-              + " constraintDistance="
-              + formatOptionalLong(constraintDistanceOpt));
+      trace(
+          "STOP/TERM waypoint 进站: train=%s idx=%s next=%s aspect=%s allowLaunch=%s"
+              + " speedCurve=%s failoverUnreachableStop=%s approachSpeedBps=%s distanceOpt=%s"
+              + " blockerDistance=%s constraintDistance=%s",
+          trainName,
+          currentIndex,
+          nextNode.get().value(),
+          nextAspect,
+          allowLaunch,
+          runtimeSettings.speedCurveEnabled(),
+          runtimeSettings.failoverUnreachableStop(),
+          approachOverrideBps,
+          distanceOpt,
+          blockerDistanceOpt,
+          constraintDistanceOpt);
     }
     StallDecision stallDecision = updateStallState(trainName, train, currentIndex, nextAspect);
     if (stallDecision.forceLaunch()) {
@@ -5404,13 +5756,14 @@ public final class RuntimeDispatchService {
     // readyAt = 当前时间 + 停站时长
     Instant readyAt = dwellSeconds > 0 ? Instant.now().plusSeconds(dwellSeconds) : Instant.now();
     layoverRegistry.register(trainName, terminalKey, location, readyAt, tags);
-    debugLogger.accept(
-        "Layover 注册: train="
-            + trainName
-            + " terminalKey="
-            + terminalKey
-            + " station="
-            + TerminalKeyResolver.extractStationName(location));
+    trace(
+        () ->
+            "Layover 注册: train="
+                + trainName
+                + " terminalKey="
+                + terminalKey
+                + " station="
+                + TerminalKeyResolver.extractStationName(location));
     layoverRegistry.get(trainName).ifPresent(layoverListener);
   }
 
@@ -5447,13 +5800,13 @@ public final class RuntimeDispatchService {
     String trainName = candidate.trainName();
     TrainProperties properties = TrainPropertiesStore.get(trainName);
     if (properties == null || properties.getHolder() == null) {
-      debugLogger.accept("Layover 发车失败: 列车未找到 " + trainName);
+      trace(() -> "Layover 发车失败: 列车未找到 " + trainName);
       layoverRegistry.unregister(trainName);
       return false;
     }
     RuntimeTrainHandle trainHandle = new TrainCartsRuntimeHandle(properties.getHolder());
     if (!trainHandle.isValid()) {
-      debugLogger.accept("Layover 发车失败: 列车无效 " + trainName);
+      trace(() -> "Layover 发车失败: 列车无效 " + trainName);
       layoverRegistry.unregister(trainName);
       return false;
     }
@@ -5463,7 +5816,7 @@ public final class RuntimeDispatchService {
 
     Optional<RouteDefinition> routeOpt = routeDefinitions.findById(ticket.routeId());
     if (routeOpt.isEmpty()) {
-      debugLogger.accept("Layover 发车失败: Route 未找到 " + ticket.routeId());
+      trace(() -> "Layover 发车失败: Route 未找到 " + ticket.routeId());
       return false;
     }
     RouteDefinition route = routeOpt.get();
@@ -5481,19 +5834,21 @@ public final class RuntimeDispatchService {
       RouteStop firstStop = stops.get(0);
       if (firstStop != null && DynamicStopMatcher.matchesStop(startNode, firstStop)) {
         firstStopMatches = true;
-        debugLogger.accept(
-            "Layover 发车: DYNAMIC 首站匹配 train=" + trainName + " location=" + startNode.value());
+        trace(
+            () ->
+                "Layover 发车: DYNAMIC 首站匹配 train=" + trainName + " location=" + startNode.value());
       }
     }
 
     if (!firstStopMatches) {
-      debugLogger.accept(
-          "Layover 发车失败: 位置与首站不匹配 train="
-              + trainName
-              + " location="
-              + startNode.value()
-              + " routeFirst="
-              + routeFirstNode.value());
+      trace(
+          () ->
+              "Layover 发车失败: 位置与首站不匹配 train="
+                  + trainName
+                  + " location="
+                  + startNode.value()
+                  + " routeFirst="
+                  + routeFirstNode.value());
       return false;
     }
 
@@ -5504,17 +5859,18 @@ public final class RuntimeDispatchService {
     if (startIndex < 0) {
       // 同站不同站台：从索引 0 开始
       startIndex = 0;
-      debugLogger.accept(
-          "Layover 发车: 同站不同站台复用 train="
-              + trainName
-              + " location="
-              + startNode.value()
-              + " routeFirst="
-              + routeFirstNode.value());
+      trace(
+          () ->
+              "Layover 发车: 同站不同站台复用 train="
+                  + trainName
+                  + " location="
+                  + startNode.value()
+                  + " routeFirst="
+                  + routeFirstNode.value());
     }
 
     if (startIndex + 1 >= route.waypoints().size()) {
-      debugLogger.accept("Layover 发车失败: 线路无下一站 train=" + trainName);
+      trace(() -> "Layover 发车失败: 线路无下一站 train=" + trainName);
       return false;
     }
     recordEffectiveNode(trainName, route, startIndex, startNode);
@@ -5523,7 +5879,7 @@ public final class RuntimeDispatchService {
     Instant now = Instant.now();
     Optional<RailGraph> graphOpt = resolveGraph(trainHandle.worldId(), now);
     if (graphOpt.isEmpty()) {
-      debugLogger.accept("Layover 发车失败: 图快照缺失 train=" + trainName);
+      trace(() -> "Layover 发车失败: 图快照缺失 train=" + trainName);
       return false;
     }
     RailGraph graph = graphOpt.get();
@@ -5566,7 +5922,7 @@ public final class RuntimeDispatchService {
               ticket.priority(),
               AuthorizationPurpose.LAYOVER_REUSE);
       if (ctxOpt.isEmpty()) {
-        debugLogger.accept("Layover 发车失败: 无法构建占用请求 train=" + trainName);
+        trace(() -> "Layover 发车失败: 无法构建占用请求 train=" + trainName);
         return false;
       }
       ctx = ctxOpt.get();
@@ -5583,13 +5939,14 @@ public final class RuntimeDispatchService {
                 true,
                 LaunchAuthorizationService.LaunchActions.none()));
     if (!authorization.allowed()) {
-      debugLogger.accept(
-          "Layover 发车受阻: train="
-              + trainName
-              + " signal="
-              + authorization.signal()
-              + " blockers="
-              + summarizeBlockers(authorization.effectiveDecision()));
+      trace(
+          () ->
+              "Layover 发车受阻: train="
+                  + trainName
+                  + " signal="
+                  + authorization.signal()
+                  + " blockers="
+                  + summarizeBlockers(authorization.effectiveDecision()));
       return false;
     }
 
@@ -5625,28 +5982,28 @@ public final class RuntimeDispatchService {
     // 重新生成 trainName（使用新的 destination）
     String newTrainName =
         regenerateTrainName(route, destInfoOpt.map(DestinationDisplayInfo::name).orElse(null));
-    if (newTrainName != null && !newTrainName.equals(trainName)) {
+    boolean renamed = newTrainName != null && !newTrainName.equals(trainName);
+    if (renamed) {
       // 迁移注册：先取消旧 trainName 的注册，再用新 trainName 重新注册
       layoverRegistry.unregister(trainName); // 已在前面 unregister 过，这里是确保
       occupancyManager.releaseByTrain(trainName);
       progressRegistry.remove(trainName);
       properties.setTrainName(newTrainName);
-      trainName = newTrainName;
-      debugLogger.accept("Layover 复用: trainName 更新为 " + newTrainName);
+      trace(() -> "Layover 复用: trainName 更新为 " + newTrainName);
     }
+    String activeTrainName = renamed ? newTrainName : trainName;
     TrainTagHelper.writeTag(properties, "FTA_TICKET_ID", ticket.ticketId());
-    progressRegistry.advance(trainName, ticket.routeId(), route, startIndex, properties, now);
-    invalidateTrainEta(trainName);
+    progressRegistry.advance(activeTrainName, ticket.routeId(), route, startIndex, properties, now);
+    invalidateTrainEta(activeTrainName);
 
-    NodeId nextNode = resolveEffectiveNode(trainName, route, startIndex + 1);
-    String destinationName = resolveDestinationName(nextNode);
-    if (destinationName == null || destinationName.isBlank()) {
-      destinationName = nextNode.value();
-    }
+    NodeId nextNode = resolveEffectiveNode(activeTrainName, route, startIndex + 1);
+    String displayName = resolveDestinationName(nextNode);
+    String destinationName =
+        displayName == null || displayName.isBlank() ? nextNode.value() : displayName;
     MovementAuthorizationToken token =
         issueMovementAuthorizationToken(
-            trainName,
-            resolveEffectiveNode(trainName, route, startIndex),
+            activeTrainName,
+            resolveEffectiveNode(activeTrainName, route, startIndex),
             nextNode,
             request,
             SignalAspect.PROCEED,
@@ -5654,9 +6011,9 @@ public final class RuntimeDispatchService {
     // 授权路径：Layover 复用已经通过 LaunchAuthorizationService.authorize 后才写 destination。
     properties.clearDestinationRoute();
     trainHandle.setDestination(destinationName);
-    if (!activateMovementAuthorizationToken(trainName, token, destinationName)) {
+    if (!activateMovementAuthorizationToken(activeTrainName, token, destinationName)) {
       rollbackMovementAuthorization(
-          trainName, token, request, HardStopReason.AUTHORIZATION_FAILURE);
+          activeTrainName, token, request, HardStopReason.AUTHORIZATION_FAILURE);
       return false;
     }
 
@@ -5666,7 +6023,7 @@ public final class RuntimeDispatchService {
     double targetBps = configManager.current().graphSettings().defaultSpeedBlocksPerSecond();
     java.util.Optional<org.bukkit.block.BlockFace> fallbackDirection =
         resolveLaunchDirectionByGraph(
-            graph, resolveEffectiveNode(trainName, route, startIndex), nextNode);
+            graph, resolveEffectiveNode(activeTrainName, route, startIndex), nextNode);
     runtimeTrainController.applyControl(
         trainHandle,
         properties,
@@ -5677,9 +6034,9 @@ public final class RuntimeDispatchService {
         OptionalLong.empty(),
         fallbackDirection,
         configManager.current().runtimeSettings());
-    updateSignalOrWarn(trainName, SignalAspect.PROCEED, now);
+    updateSignalOrWarn(activeTrainName, SignalAspect.PROCEED, now);
 
-    debugLogger.accept("Layover 发车成功: train=" + trainName + " route=" + route.id().value());
+    trace(() -> "Layover 发车成功: train=" + activeTrainName + " route=" + route.id().value());
     return true;
   }
 
@@ -5972,7 +6329,7 @@ public final class RuntimeDispatchService {
       return;
     }
     if (missingSignalWarned.add(key)) {
-      debugLogger.accept("信号更新失败: entry 缺失 train=" + trainName + " aspect=" + aspect.name());
+      trace(() -> "信号更新失败: entry 缺失 train=" + trainName + " aspect=" + aspect.name());
     }
   }
 
@@ -6143,7 +6500,7 @@ public final class RuntimeDispatchService {
               blockedDestination.retainedDestination(),
               reasonText);
     }
-    SignalComputationTrace.emit(
+    signalTraceSink.emit(
         signalTrace(
                 trainName,
                 properties,
@@ -6258,11 +6615,12 @@ public final class RuntimeDispatchService {
         null,
         null,
         AuthorityEnd.none());
-    debugLogger.accept(
-        "HealthMonitor reapplyHardStop: train="
-            + resolvedTrainName
-            + " reason="
-            + (reason == null || reason.isBlank() ? "health" : reason));
+    trace(
+        () ->
+            "HealthMonitor reapplyHardStop: train="
+                + resolvedTrainName
+                + " reason="
+                + (reason == null || reason.isBlank() ? "health" : reason));
     return true;
   }
 
@@ -6686,11 +7044,18 @@ public final class RuntimeDispatchService {
         dz >= 0.0 ? org.bukkit.block.BlockFace.SOUTH : org.bukkit.block.BlockFace.NORTH);
   }
 
+  /**
+   * 最短距离查询：世界与快照版本均从 graph 所属的快照对象取得，graph 已不是当前快照时由缓存直接计算且不写入。
+   */
   private OptionalLong resolveShortestDistance(RailGraph graph, NodeId from, NodeId to) {
     if (graph == null || from == null || to == null) {
       return OptionalLong.empty();
     }
-    return shortestPathDistanceCache.resolve(graph, from, to);
+    RailGraph base = graph instanceof EdgeOverrideRailGraph overlay ? overlay.delegate() : graph;
+    Optional<UUID> worldId = railGraphService.findWorldIdForGraph(base);
+    RailGraphService.RailGraphSnapshot snapshot =
+        worldId.flatMap(railGraphService::getSnapshot).orElse(null);
+    return shortestPathDistanceCache.resolve(worldId.orElse(null), snapshot, graph, from, to);
   }
 
   /**
@@ -6854,19 +7219,20 @@ public final class RuntimeDispatchService {
       group.getActions().launchReset();
       station.centerTrain();
 
-      debugLogger.accept(
-          "Waypoint 居中: train="
-              + trainName
-              + " node="
-              + nodeId.value()
-              + " dwell="
-              + dwellSeconds
-              + "s reason="
-              + reason
-              + " signMode="
-              + (event.isTrainSign() ? "train" : event.isCartSign() ? "cart" : "unknown")
-              + " centeredAs="
-              + (centerEvent.isTrainSign() ? "train" : "cart"));
+      trace(
+          () ->
+              "Waypoint 居中: train="
+                  + trainName
+                  + " node="
+                  + nodeId.value()
+                  + " dwell="
+                  + dwellSeconds
+                  + "s reason="
+                  + reason
+                  + " signMode="
+                  + (event.isTrainSign() ? "train" : event.isCartSign() ? "cart" : "unknown")
+                  + " centeredAs="
+                  + (centerEvent.isTrainSign() ? "train" : "cart"));
 
       if (dwellSeconds > 0 && dwellRegistry != null) {
         scheduleWaypointDwellAfterCenter(group, trainName, dwellSeconds, key, sessionId);
@@ -6876,13 +7242,14 @@ public final class RuntimeDispatchService {
       }
     } catch (Throwable ex) {
       clearWaypointStopState(key, sessionId);
-      debugLogger.accept(
-          "Waypoint 居中失败: train="
-              + trainName
-              + " node="
-              + nodeId.value()
-              + " error="
-              + ex.getClass().getSimpleName());
+      trace(
+          () ->
+              "Waypoint 居中失败: train="
+                  + trainName
+                  + " node="
+                  + nodeId.value()
+                  + " error="
+                  + ex.getClass().getSimpleName());
     }
   }
 
@@ -7039,10 +7406,6 @@ public final class RuntimeDispatchService {
     }
   }
 
-  private static String formatOptionalLong(OptionalLong value) {
-    return value != null && value.isPresent() ? String.valueOf(value.getAsLong()) : "-";
-  }
-
   private static String formatApproachDouble(double value) {
     return Double.isFinite(value) ? String.format(Locale.ROOT, "%.3f", value) : "-";
   }
@@ -7103,13 +7466,14 @@ public final class RuntimeDispatchService {
     properties.clearDestinationRoute();
     properties.setDestination(destination);
     applyControl(train, properties, aspect, route, currentNode, nextNode, graph, true, distanceOpt);
-    debugLogger.accept(
-        "调度 failover: 低速按已授权信号重下发 destination train="
-            + trainName
-            + " signal="
-            + aspect
-            + " dest="
-            + destination);
+    trace(
+        () ->
+            "调度 failover: 低速按已授权信号重下发 destination train="
+                + trainName
+                + " signal="
+                + aspect
+                + " dest="
+                + destination);
   }
 
   /**
@@ -7148,7 +7512,7 @@ public final class RuntimeDispatchService {
     clearRuntimeCachesForTrain(trainName);
     TrainTagHelper.removeTagKey(properties, RouteProgressRegistry.TAG_ROUTE_INDEX);
     TrainTagHelper.removeTagKey(properties, RouteProgressRegistry.TAG_ROUTE_UPDATED_AT);
-    debugLogger.accept("调度销毁: reason=" + reason + " train=" + trainName);
+    trace(() -> "调度销毁: reason=" + reason + " train=" + trainName);
   }
 
   private StallDecision updateStallState(
@@ -7221,22 +7585,8 @@ public final class RuntimeDispatchService {
     if (properties == null) {
       return false;
     }
-    // 检查 route UUID tag
-    Optional<String> routeIdTag =
-        TrainTagHelper.readTagValue(properties, RouteProgressRegistry.TAG_ROUTE_ID);
-    if (routeIdTag.isPresent() && !routeIdTag.get().isBlank()) {
-      return true;
-    }
-    // 检查 route code tags (operator/line/route)
-    Optional<String> operatorTag =
-        TrainTagHelper.readTagValue(properties, RouteProgressRegistry.TAG_OPERATOR_CODE);
-    Optional<String> lineTag =
-        TrainTagHelper.readTagValue(properties, RouteProgressRegistry.TAG_LINE_CODE);
-    Optional<String> routeTag =
-        TrainTagHelper.readTagValue(properties, RouteProgressRegistry.TAG_ROUTE_CODE);
-    return (operatorTag.isPresent() && !operatorTag.get().isBlank())
-        || (lineTag.isPresent() && !lineTag.get().isBlank())
-        || (routeTag.isPresent() && !routeTag.get().isBlank());
+    // route UUID 或 route code tags (operator/line/route) 任一非空；由缓存视图在解析时一次算好
+    return TrainTagHelper.view(properties).ftaRouteTagged();
   }
 
   /**
@@ -7252,15 +7602,18 @@ public final class RuntimeDispatchService {
     if (properties == null) {
       return false;
     }
-    if (isFtaManagedTrain(properties)) {
+    TrainTagView view = TrainTagHelper.view(properties);
+    if (!view.ftaTagged()) {
+      // 普通 TrainCarts 列车：没有任何 FTA_* 标签，只需排除尚未写回 tag 的进度
+      return progressRegistry.readRouteIndex(properties).isPresent();
+    }
+    if (view.ftaRouteTagged()) {
       return true;
     }
-    if (TrainTagHelper.readIntTag(properties, RouteProgressRegistry.TAG_ROUTE_INDEX).isPresent()) {
+    if (progressRegistry.readRouteIndex(properties).isPresent()) {
       return true;
     }
-    return TrainTagHelper.readTagValue(properties, RouteProgressRegistry.TAG_TRAIN_NAME)
-        .filter(value -> !value.isBlank())
-        .isPresent();
+    return view.value(RouteProgressRegistry.TAG_TRAIN_NAME).isPresent();
   }
 
   /**
@@ -7374,13 +7727,14 @@ public final class RuntimeDispatchService {
     }
     RouteStopActionResolver.ChangeIntent intent = intentOpt.get();
     if (!intent.valid()) {
-      debugLogger.accept(
-          "CHANGE 解析失败: reason="
-              + intent.reason()
-              + " train="
-              + trainName
-              + " raw="
-              + intent.raw());
+      trace(
+          () ->
+              "CHANGE 解析失败: reason="
+                  + intent.reason()
+                  + " train="
+                  + trainName
+                  + " raw="
+                  + intent.raw());
       return false;
     }
 
@@ -7389,13 +7743,14 @@ public final class RuntimeDispatchService {
         properties, RouteProgressRegistry.TAG_OPERATOR_CODE, intent.operatorCode());
     TrainTagHelper.writeTag(properties, RouteProgressRegistry.TAG_LINE_CODE, intent.lineCode());
 
-    debugLogger.accept(
-        "CHANGE 移交成功: train="
-            + trainName
-            + " newOp="
-            + intent.operatorCode()
-            + " newLine="
-            + intent.lineCode());
+    trace(
+        () ->
+            "CHANGE 移交成功: train="
+                + trainName
+                + " newOp="
+                + intent.operatorCode()
+                + " newLine="
+                + intent.lineCode());
     return true;
   }
 
@@ -7445,28 +7800,29 @@ public final class RuntimeDispatchService {
     Optional<NodeId> allocatedOpt =
         dynamicAllocator.allocateDirect(trainName, spec, graph, currentNode);
     if (allocatedOpt.isEmpty()) {
-      debugLogger.accept(
-          "DSTY DYNAMIC depot 分配失败: train="
-              + trainName
-              + " spec="
-              + DynamicStopMatcher.specToStationKey(spec));
+      trace(
+          () ->
+              "DSTY DYNAMIC depot 分配失败: train="
+                  + trainName
+                  + " spec="
+                  + DynamicStopMatcher.specToStationKey(spec));
       return false;
     }
     NodeId depotNode = allocatedOpt.get();
-    String destinationName = resolveDestinationName(depotNode);
-    if (destinationName == null || destinationName.isBlank()) {
-      destinationName = depotNode.value();
-    }
+    String displayName = resolveDestinationName(depotNode);
+    String destinationName =
+        displayName == null || displayName.isBlank() ? depotNode.value() : displayName;
     // DYNAMIC materialize 例外：这里仅把已选车库写给 TrainCarts 寻路，发车/控车不在此处分发。
     properties.clearDestinationRoute();
     properties.setDestination(destinationName);
-    debugLogger.accept(
-        "DSTY DYNAMIC depot 分配成功: train="
-            + trainName
-            + " depot="
-            + depotNode.value()
-            + " dest="
-            + destinationName);
+    trace(
+        () ->
+            "DSTY DYNAMIC depot 分配成功: train="
+                + trainName
+                + " depot="
+                + depotNode.value()
+                + " dest="
+                + destinationName);
     return true;
   }
 
@@ -7641,8 +7997,14 @@ public final class RuntimeDispatchService {
     }
     Optional<DynamicStopSpec> specOpt = parseDynamicStopSpec(remainder.get());
     if (specOpt.isEmpty()) {
-      debugLogger.accept(
-          "DYNAMIC 解析失败: train=" + trainName + " idx=" + targetIndex + " raw=" + remainder.get());
+      trace(
+          () ->
+              "DYNAMIC 解析失败: train="
+                  + trainName
+                  + " idx="
+                  + targetIndex
+                  + " raw="
+                  + remainder.get());
       return Optional.empty();
     }
     DynamicStopSpec spec = specOpt.get();
@@ -7701,30 +8063,32 @@ public final class RuntimeDispatchService {
       if (resolveShortestDistance(graph, fromNode, candidate).isEmpty()) {
         continue;
       }
-      debugLogger.accept(
-          "DYNAMIC 回退: 无空闲站台，选择可达站台 train="
-              + trainName
-              + " from="
-              + fromNode.value()
-              + " target="
-              + candidate.value());
+      trace(
+          () ->
+              "DYNAMIC 回退: 无空闲站台，选择可达站台 train="
+                  + trainName
+                  + " from="
+                  + fromNode.value()
+                  + " target="
+                  + candidate.value());
       return Optional.of(candidate);
     }
-    debugLogger.accept(
-        "DYNAMIC 失败: 未找到可达站台 train="
-            + trainName
-            + " from="
-            + fromNode.value()
-            + " operator="
-            + operator
-            + " type="
-            + nodeType
-            + " name="
-            + nodeName
-            + " range="
-            + spec.fromTrack()
-            + ":"
-            + spec.toTrack());
+    trace(
+        () ->
+            "DYNAMIC 失败: 未找到可达站台 train="
+                + trainName
+                + " from="
+                + fromNode.value()
+                + " operator="
+                + operator
+                + " type="
+                + nodeType
+                + " name="
+                + nodeName
+                + " range="
+                + spec.fromTrack()
+                + ":"
+                + spec.toTrack());
     return Optional.empty();
   }
 
@@ -7765,8 +8129,14 @@ public final class RuntimeDispatchService {
     }
     Optional<DynamicStopSpec> specOpt = parseDynamicStopSpec(remainder.get());
     if (specOpt.isEmpty()) {
-      debugLogger.accept(
-          "DYNAMIC 解析失败: train=" + trainName + " idx=" + targetIndex + " raw=" + remainder.get());
+      trace(
+          () ->
+              "DYNAMIC 解析失败: train="
+                  + trainName
+                  + " idx="
+                  + targetIndex
+                  + " raw="
+                  + remainder.get());
       return Optional.empty();
     }
     DynamicStopSpec spec = specOpt.get();
@@ -7873,13 +8243,14 @@ public final class RuntimeDispatchService {
     if (candidates.size() == 1) {
       DynamicCandidate single = candidates.get(0);
       if (!requireFree) {
-        debugLogger.accept(
-            "DYNAMIC 回退: 无空闲站台，选择可进入站台 train="
-                + trainName
-                + " from="
-                + fromNode.value()
-                + " target="
-                + single.candidate.value());
+        trace(
+            () ->
+                "DYNAMIC 回退: 无空闲站台，选择可进入站台 train="
+                    + trainName
+                    + " from="
+                    + fromNode.value()
+                    + " target="
+                    + single.candidate.value());
       }
       return Optional.of(new DynamicSelection(single.candidate, single.context, single.decision));
     }
@@ -7890,16 +8261,17 @@ public final class RuntimeDispatchService {
             trainName, fromNode, baseNodes, currentIndex, candidates, graph);
 
     if (!requireFree && best != null) {
-      debugLogger.accept(
-          "DYNAMIC 方向优选: train="
-              + trainName
-              + " from="
-              + fromNode.value()
-              + " target="
-              + best.candidate.value()
-              + " (共 "
-              + candidates.size()
-              + " 个候选)");
+      trace(
+          () ->
+              "DYNAMIC 方向优选: train="
+                  + trainName
+                  + " from="
+                  + fromNode.value()
+                  + " target="
+                  + best.candidate.value()
+                  + " (共 "
+                  + candidates.size()
+                  + " 个候选)");
     }
 
     if (best != null) {
@@ -7981,10 +8353,8 @@ public final class RuntimeDispatchService {
 
     for (DynamicCandidate cand : candidates) {
       // 获取路径中第一个"引导节点"：过了 switcher 区域后的第一个非 switcher 节点
-      NodeId guideNode = findPathGuideNode(cand.context.pathNodes(), graph, fromNode);
-      if (guideNode == null) {
-        guideNode = cand.candidate;
-      }
+      NodeId pathGuide = findPathGuideNode(cand.context.pathNodes(), graph, fromNode);
+      NodeId guideNode = pathGuide != null ? pathGuide : cand.candidate;
 
       org.bukkit.util.Vector guidePos = getNodePosition(graph, guideNode);
       if (guidePos == null) {
@@ -8004,15 +8374,16 @@ public final class RuntimeDispatchService {
       // 计算方向相似度（点积，范围 -1 到 1，越大越顺）
       double dotProduct = travelDx * guideDx + travelDz * guideDz;
 
-      debugLogger.accept(
-          "DYNAMIC 候选方向评估: train="
-              + trainName
-              + " candidate="
-              + cand.candidate.value()
-              + " guide="
-              + guideNode.value()
-              + " score="
-              + String.format("%.3f", dotProduct));
+      trace(
+          () ->
+              "DYNAMIC 候选方向评估: train="
+                  + trainName
+                  + " candidate="
+                  + cand.candidate.value()
+                  + " guide="
+                  + guideNode.value()
+                  + " score="
+                  + String.format("%.3f", dotProduct));
 
       if (dotProduct > bestScore) {
         bestScore = dotProduct;
@@ -8319,24 +8690,26 @@ public final class RuntimeDispatchService {
     // 冷却检查：避免短时间内反复 relaunch
     long now = System.currentTimeMillis();
     if (now - history.lastRelaunchAtMs() < RELAUNCH_COOLDOWN_MS) {
-      debugLogger.accept(
-          "回退检测冷却中: train="
-              + trainName
-              + " node="
-              + currentNode.value()
-              + " cooldownMs="
-              + RELAUNCH_COOLDOWN_MS);
-      return false;
-    }
-    debugLogger.accept(
-        "回退检测触发: train="
-            + trainName
-            + " node="
-            + currentNode.value()
-            + " regressionIdx="
-            + regressionIdx
-            + " history="
-            + history.snapshot());
+      trace(
+          () ->
+              "回退检测冷却中: train="
+                  + trainName
+                  + " node="
+                  + currentNode.value()
+                  + " cooldownMs="
+                  + RELAUNCH_COOLDOWN_MS);
+      return false;
+    }
+    trace(
+        () ->
+            "回退检测触发: train="
+                + trainName
+                + " node="
+                + currentNode.value()
+                + " regressionIdx="
+                + regressionIdx
+                + " history="
+                + history.snapshot());
 
     // 执行停车 + 重新 launch
     boolean success =
@@ -8369,13 +8742,14 @@ public final class RuntimeDispatchService {
     // 找到当前节点在 route 中的索引
     int currentIndex = findIndexInRoute(route, currentNode);
     if (currentIndex < 0) {
-      debugLogger.accept(
-          "relaunch 失败: 当前节点不在 route 中 train=" + trainName + " node=" + currentNode.value());
+      trace(
+          () ->
+              "relaunch 失败: 当前节点不在 route 中 train=" + trainName + " node=" + currentNode.value());
       return false;
     }
     int nextIndex = currentIndex + 1;
     if (nextIndex >= route.waypoints().size()) {
-      debugLogger.accept("relaunch 失败: 已到终点 train=" + trainName);
+      trace(() -> "relaunch 失败: 已到终点 train=" + trainName);
       return false;
     }
     NodeId nextNode = route.waypoints().get(nextIndex);
@@ -8383,16 +8757,15 @@ public final class RuntimeDispatchService {
     // 获取图以计算 launch 方向
     Optional<RailGraph> graphOpt = resolveGraph(event);
     if (graphOpt.isEmpty()) {
-      debugLogger.accept("relaunch 失败: 未找到调度图 train=" + trainName);
+      trace(() -> "relaunch 失败: 未找到调度图 train=" + trainName);
       return false;
     }
     RailGraph graph = graphOpt.get();
 
     // 手动 relaunch 恢复边界：由明确恢复入口触发，不作为常规信号放行路径。
-    String destinationName = resolveDestinationName(nextNode);
-    if (destinationName == null || destinationName.isBlank()) {
-      destinationName = nextNode.value();
-    }
+    String displayName = resolveDestinationName(nextNode);
+    String destinationName =
+        displayName == null || displayName.isBlank() ? nextNode.value() : displayName;
     properties.clearDestinationRoute();
     properties.setDestination(destinationName);
 
@@ -8400,13 +8773,14 @@ public final class RuntimeDispatchService {
     java.util.Optional<org.bukkit.block.BlockFace> launchDirection =
         resolveLaunchDirectionByGraph(graph, currentNode, nextNode);
     if (launchDirection.isEmpty()) {
-      debugLogger.accept(
-          "relaunch 失败: 无法计算方向 train="
-              + trainName
-              + " from="
-              + currentNode.value()
-              + " to="
-              + nextNode.value());
+      trace(
+          () ->
+              "relaunch 失败: 无法计算方向 train="
+                  + trainName
+                  + " from="
+                  + currentNode.value()
+                  + " to="
+                  + nextNode.value());
       return false;
     }
 
@@ -8420,15 +8794,16 @@ public final class RuntimeDispatchService {
     Instant now = Instant.now();
     updateSignalOrWarn(trainName, SignalAspect.PROCEED, now);
 
-    debugLogger.accept(
-        "relaunch 成功: train="
-            + trainName
-            + " from="
-            + currentNode.value()
-            + " to="
-            + nextNode.value()
-            + " direction="
-            + launchDirection.get().name());
+    trace(
+        () ->
+            "relaunch 成功: train="
+                + trainName
+                + " from="
+                + currentNode.value()
+                + " to="
+                + nextNode.value()
+                + " direction="
+                + launchDirection.get().name());
     return true;
   }
 
@@ -8474,7 +8849,7 @@ public final class RuntimeDispatchService {
         keepResources == null ? java.util.Set.of() : java.util.Set.copyOf(keepResources);
     java.util.Set<OccupancyResource> protectedSet =
         protectedResources == null ? java.util.Set.of() : Set.copyOf(protectedResources);
-    for (OccupancyClaim claim : occupancyManager.snapshotClaims()) {
+    for (OccupancyClaim claim : claimsOfTrain(trainName)) {
       if (claim == null || claim.resource() == null) {
         continue;
       }
@@ -8650,30 +9025,32 @@ public final class RuntimeDispatchService {
     Optional<OccupancyClaim> hardBlocker = drainPathHardBlocker(request);
     if (hardBlocker.isPresent()) {
       OccupancyClaim blocker = hardBlocker.get();
-      debugLogger.accept(
-          "DRAIN_THROUGH_BLOCKED train="
-              + request.trainName()
-              + " zoneIds="
-              + hints.keySet()
-              + " blockerResource="
-              + blocker.resource()
-              + " blockerOwner="
-              + blocker.trainName()
-              + " reason=hard-blocker-on-drain-path"
-              + " occupancyVersion="
-              + occupancyVersion());
+      trace(
+          () ->
+              "DRAIN_THROUGH_BLOCKED train="
+                  + request.trainName()
+                  + " zoneIds="
+                  + hints.keySet()
+                  + " blockerResource="
+                  + blocker.resource()
+                  + " blockerOwner="
+                  + blocker.trainName()
+                  + " reason=hard-blocker-on-drain-path"
+                  + " occupancyVersion="
+                  + occupancyVersion());
       return request;
     }
-    debugLogger.accept(
-        "DRAIN_THROUGH_AUTHORITY train="
-            + request.trainName()
-            + " zoneIds="
-            + hints.keySet()
-            + " path="
-            + context.pathNodes()
-            + " reason=topology-exit-hint-only"
-            + " occupancyVersion="
-            + occupancyVersion());
+    trace(
+        () ->
+            "DRAIN_THROUGH_AUTHORITY train="
+                + request.trainName()
+                + " zoneIds="
+                + hints.keySet()
+                + " path="
+                + context.pathNodes()
+                + " reason=topology-exit-hint-only"
+                + " occupancyVersion="
+                + occupancyVersion());
     return request.withConflictClearingEvidence(hints);
   }
 
@@ -8722,7 +9099,7 @@ public final class RuntimeDispatchService {
     if (occupancyManager == null || trainName == null || trainName.isBlank() || resource == null) {
       return false;
     }
-    List<OccupancyClaim> claims = occupancyManager.snapshotClaims();
+    List<OccupancyClaim> claims = claimsOfTrain(trainName);
     if (claims == null || claims.isEmpty()) {
       return false;
     }
@@ -8833,8 +9210,8 @@ public final class RuntimeDispatchService {
       }
     }
     if (released > 0) {
-      debugLogger.accept(
-          "清理后车前瞻占用: train=" + trainName + " released=" + released + " owners=" + releasedOwners);
+      trace(
+          "清理后车前瞻占用: train=%s released=%s owners=%s", trainName, released, releasedOwners);
     }
     return released;
   }
@@ -8890,13 +9267,11 @@ public final class RuntimeDispatchService {
       removed += queueSupport.removeQueueEntries(entry.getKey(), List.copyOf(entry.getValue()));
     }
     if (removed > 0) {
-      debugLogger.accept(
-          "清理后车冲突队列: train="
-              + trainName
-              + " removed="
-              + removed
-              + " owners="
-              + resourcesByTrain.keySet());
+      trace(
+          "清理后车冲突队列: train=%s removed=%s owners=%s",
+          trainName,
+          removed,
+          resourcesByTrain.keySet());
     }
     return removed;
   }
@@ -9237,7 +9612,7 @@ public final class RuntimeDispatchService {
       OccupancyResource conflict,
       EntryLookaheadEvaluator.Result lookahead) {
     OccupancyRequest request = context == null ? null : context.request();
-    SignalComputationTrace.emit(
+    signalTraceSink.emit(
         signalTrace(
                 trainName,
                 null,
@@ -9282,7 +9657,7 @@ public final class RuntimeDispatchService {
     if (occupancyManager == null || resource == null || trainName == null || trainName.isBlank()) {
       return false;
     }
-    return occupancyManager.snapshotClaims().stream()
+    return claimsOfTrain(trainName).stream()
         .anyMatch(
             claim ->
                 claim != null
@@ -9299,7 +9674,7 @@ public final class RuntimeDispatchService {
     Set<OccupancyResource> keep =
         keepResources == null ? Set.of() : new LinkedHashSet<>(keepResources);
     Set<OccupancyResource> protectedResources = new LinkedHashSet<>();
-    for (OccupancyClaim claim : occupancyManager.snapshotClaims()) {
+    for (OccupancyClaim claim : claimsOfTrain(trainName)) {
       if (claim == null
           || claim.resource() == null
           || claim.trainName() == null
@@ -9341,7 +9716,7 @@ public final class RuntimeDispatchService {
         currentIndex + 1 < route.waypoints().size()
             ? Optional.ofNullable(resolveEffectiveNode(trainName, route, currentIndex + 1))
             : Optional.empty();
-    for (OccupancyClaim claim : occupancyManager.snapshotClaims()) {
+    for (OccupancyClaim claim : claimsOfTrain(trainName)) {
       if (claim == null
           || claim.resource() == null
           || claim.trainName() == null
@@ -9357,24 +9732,25 @@ public final class RuntimeDispatchService {
         continue;
       }
       protectedResources.add(claim.resource());
-      debugLogger.accept(
-          "保护道岔占用: train="
-              + trainName
-              + " key="
-              + normalizeTrainKey(trainName)
-              + " resource=CONFLICT:"
-              + claim.resource().key()
-              + " reason=still-inside-switcher-zone"
-              + " currentNode="
-              + currentNode.value()
-              + " lastPassedGraphNode="
-              + lastPassed.map(NodeId::value).orElse("-")
-              + " nextTarget="
-              + nextTarget.map(NodeId::value).orElse("-")
-              + " currentIndex="
-              + currentIndex
-              + " source="
-              + (source == null || source.isBlank() ? "RELEASE_OUTSIDE_WINDOW" : source));
+      trace(
+          () ->
+              "保护道岔占用: train="
+                  + trainName
+                  + " key="
+                  + normalizeTrainKey(trainName)
+                  + " resource=CONFLICT:"
+                  + claim.resource().key()
+                  + " reason=still-inside-switcher-zone"
+                  + " currentNode="
+                  + currentNode.value()
+                  + " lastPassedGraphNode="
+                  + lastPassed.map(NodeId::value).orElse("-")
+                  + " nextTarget="
+                  + nextTarget.map(NodeId::value).orElse("-")
+                  + " currentIndex="
+                  + currentIndex
+                  + " source="
+                  + (source == null || source.isBlank() ? "RELEASE_OUTSIDE_WINDOW" : source));
     }
     return Set.copyOf(protectedResources);
   }
@@ -10216,15 +10592,16 @@ public final class RuntimeDispatchService {
     // 写入节点覆盖表
     recordEffectiveNode(trainName, route, result.stopIndex(), result.node());
 
-    debugLogger.accept(
-        "DYNAMIC effective node 写入: train="
-            + trainName
-            + ", node="
-            + result.node().value()
-            + ", idx="
-            + result.stopIndex()
-            + ", reason="
-            + result.reason());
+    trace(
+        () ->
+            "DYNAMIC effective node 写入: train="
+                + trainName
+                + ", node="
+                + result.node().value()
+                + ", idx="
+                + result.stopIndex()
+                + ", reason="
+                + result.reason());
   }
 
   /**
@@ -10242,24 +10619,24 @@ public final class RuntimeDispatchService {
     if (properties == null || targetNode == null) {
       return Optional.empty();
     }
-    String destinationName = resolveDestinationName(targetNode);
-    if (destinationName == null || destinationName.isBlank()) {
-      destinationName = targetNode.value();
-    }
+    String displayName = resolveDestinationName(targetNode);
+    String destinationName =
+        displayName == null || displayName.isBlank() ? targetNode.value() : displayName;
     if (destinationName == null || destinationName.isBlank()) {
       return Optional.empty();
     }
     properties.clearDestinationRoute();
     properties.setDestination(destinationName);
-    debugLogger.accept(
-        "destination 授权提交: train="
-            + trainName
-            + ", dest="
-            + destinationName
-            + ", idx="
-            + targetIndex
-            + ", dynamic="
-            + (route != null && isDynamicMaterializedStop(route, targetIndex)));
+    trace(
+        () ->
+            "destination 授权提交: train="
+                + trainName
+                + ", dest="
+                + destinationName
+                + ", idx="
+                + targetIndex
+                + ", dynamic="
+                + (route != null && isDynamicMaterializedStop(route, targetIndex)));
     return Optional.of(destinationName);
   }
 
@@ -10298,35 +10675,19 @@ public final class RuntimeDispatchService {
     if (routeNode == null || trainName == null || trainName.isBlank() || graph == null) {
       return routeNode;
     }
-    Optional<RouteProgressRegistry.RouteProgressEntry> entryOpt = progressRegistry.get(trainName);
-    if (entryOpt.isEmpty()) {
-      return routeNode;
-    }
-    Optional<NodeId> lastPassedOpt = entryOpt.get().lastPassedGraphNode();
+    Optional<NodeId> lastPassedOpt =
+        progressRegistry
+            .get(trainName)
+            .flatMap(RouteProgressRegistry.RouteProgressEntry::lastPassedGraphNode);
     if (lastPassedOpt.isEmpty()) {
       return routeNode;
     }
-    NodeId lastPassed = lastPassedOpt.get();
-    if (lastPassed.equals(routeNode)) {
-      return routeNode;
-    }
-    if (currentIndex + 1 >= route.waypoints().size()) {
-      return routeNode;
-    }
-    NodeId nextNode = resolveEffectiveNode(trainName, route, currentIndex + 1);
-    if (nextNode == null) {
-      return routeNode;
-    }
-    Optional<RailGraphPath> pathOpt =
-        pathFinder.shortestPath(
-            graph, routeNode, nextNode, RailGraphPathFinder.Options.shortestDistance());
-    if (pathOpt.isEmpty()) {
-      return routeNode;
-    }
-    if (!pathOpt.get().nodes().contains(lastPassed)) {
-      return routeNode;
-    }
-    return lastPassed;
+    return SignalTickPlanner.resolveCurrentNode(
+        pathFinder,
+        graph,
+        routeNode,
+        resolveEffectiveNode(trainName, route, currentIndex + 1),
+        lastPassedOpt.get());
   }
 
   private List<NodeId> resolveEffectiveWaypoints(String trainName, RouteDefinition route) {
@@ -10383,24 +10744,7 @@ public final class RuntimeDispatchService {
     }
     NodeId currentNode =
         resolveEffectiveCurrentNodeForSignal(trainName, route, currentIndex, graph);
-    return applyCurrentNodeOverride(effectiveNodes, currentIndex, currentNode);
-  }
-
-  private List<NodeId> applyCurrentNodeOverride(
-      List<NodeId> nodes, int currentIndex, NodeId currentNode) {
-    if (nodes == null || nodes.isEmpty() || currentNode == null) {
-      return nodes;
-    }
-    if (currentIndex < 0 || currentIndex >= nodes.size()) {
-      return nodes;
-    }
-    NodeId existing = nodes.get(currentIndex);
-    if (currentNode.equals(existing)) {
-      return nodes;
-    }
-    List<NodeId> copy = new java.util.ArrayList<>(nodes);
-    copy.set(currentIndex, currentNode);
-    return List.copyOf(copy);
+    return SignalTickPlanner.applyCurrentNodeOverride(effectiveNodes, currentIndex, currentNode);
   }
 
   /**
@@ -10885,7 +11229,7 @@ public final class RuntimeDispatchService {
     }
     int max = Math.max(1, limit);
     List<String> result = new ArrayList<>();
-    for (OccupancyClaim claim : occupancyManager.snapshotClaims()) {
+    for (OccupancyClaim claim : claimsOfTrain(trainName)) {
       if (claim == null || claim.resource() == null || claim.trainName() == null) {
         continue;
       }
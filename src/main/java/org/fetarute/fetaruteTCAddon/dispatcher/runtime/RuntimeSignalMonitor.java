@@ -8,6 +8,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
@@ -15,13 +16,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime.EtaRuntimeSampler;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime.TrainSnapshotStore;
 import org.fetarute.fetaruteTCAddon.dispatcher.health.TrainHealthMonitor;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinitionCache;
+import org.fetarute.fetaruteTCAddon.dispatcher.runtime.control.ControlDiagnostics;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
 
 /**
@@ -30,7 +34,13 @@ import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
  * <p>该类只负责周期性扫描在线列车、清理异常编组、采样 ETA 以及把结果送入 {@link RuntimeDispatchService}。真正的信号控制核心仍位于 {@link
  * RuntimeDispatchService#handleSignalTick(RuntimeTrainHandle, boolean)}，这里不直接承担运行时控车决策。
  *
- * <p>执行频率由配置 {@code runtime.dispatch-tick-interval-ticks} 控制。
+ * <p>执行频率由配置 {@code runtime.dispatch-tick-interval-ticks} 控制。每轮是否真正执行信号评估由 {@link
+ * SignalTickScheduler} 决定：静止且无变化的列车跳过评估，但 ETA 采样、脱管检测与清理仍覆盖全部列车。
+ *
+ * <p>配置 {@code runtime.monitor-tick-budget-ms} 大于 0 时，一轮巡检按单 tick 预算拆分到多个 tick 执行：
+ * 优先处理临近授权终点/进站的运行列车，清理类工作推迟到有剩余预算的 tick；各阶段耗时见 {@link #lastCycleStats()}。
+ *
+ * <p>占用请求的路径展开由 {@link SignalTickPlanner} 在工作线程上领先处理游标预计算，主线程只做占用判定与控车。
  */
 public final class RuntimeSignalMonitor implements Runnable {
 
@@ -52,6 +62,33 @@ public final class RuntimeSignalMonitor implements Runnable {
   /** "脱管"列车被判定为异常前需连续被观测到的 tick 次数。 */
   private static final int STALE_THRESHOLD_TICKS = 60;
 
+  /** 巡检排序优先级：越小越先处理。 */
+  static final int PRIORITY_URGENT = 0;
+
+  static final int PRIORITY_MOVING = 1;
+  static final int PRIORITY_IDLE = 2;
+
+  /** 紧急窗口：按当前速度再行驶多少 tick 内会到达授权终点/进站点。 */
+  private static final int URGENT_HORIZON_TICKS = 40;
+
+  /** 紧急窗口的最小距离（blocks），避免低速列车窗口过小。 */
+  private static final long URGENT_HORIZON_MIN_BLOCKS = 16L;
+
+  /** 并行 plan 的提交窗口：领先处理游标多少列车提交 plan 任务，使预计算紧贴 commit，减少输入变化导致的重算。 */
+  static final int PLAN_PREFETCH_WINDOW = 32;
+
+  /** 单 tick 预算（纳秒）；0 表示每次运行完成整轮巡检。 */
+  private final long tickBudgetNanos;
+
+  /** 分片模式下两轮巡检起点之间的 tick 数。 */
+  private final int cycleIntervalTicks;
+
+  private Cycle cycle;
+  private int ticksSinceCycleStart;
+  private int rotation;
+  private long completedCycles;
+  private volatile CycleStats lastCycleStats = CycleStats.EMPTY;
+
   public RuntimeSignalMonitor(
       RuntimeDispatchService dispatchService,
       EtaRuntimeSampler etaSampler,
@@ -59,22 +96,109 @@ public final class RuntimeSignalMonitor implements Runnable {
       DwellRegistry dwellRegistry,
       RouteProgressRegistry routeProgressRegistry,
       RouteDefinitionCache routeDefinitions) {
+    this(
+        dispatchService,
+        etaSampler,
+        snapshotStore,
+        dwellRegistry,
+        routeProgressRegistry,
+        routeDefinitions,
+        0L,
+        1);
+  }
+
+  /**
+   * 构建巡检器。
+   *
+   * <p>{@code tickBudgetNanos > 0} 时为分片模式：任务需每 tick 调度一次，每 {@code cycleIntervalTicks} 开始新一轮巡检，
+   * 每 tick 只在预算内处理部分列车，清理类工作推迟到有剩余预算的 tick。
+   *
+   * @param tickBudgetNanos 单 tick 预算（纳秒）；0 表示每次运行完成整轮巡检
+   * @param cycleIntervalTicks 分片模式下两轮巡检起点之间的 tick 数
+   */
+  public RuntimeSignalMonitor(
+      RuntimeDispatchService dispatchService,
+      EtaRuntimeSampler etaSampler,
+      TrainSnapshotStore snapshotStore,
+      DwellRegistry dwellRegistry,
+      RouteProgressRegistry routeProgressRegistry,
+      RouteDefinitionCache routeDefinitions,
+      long tickBudgetNanos,
+      int cycleIntervalTicks) {
     this.dispatchService = Objects.requireNonNull(dispatchService, "dispatchService");
     this.etaSampler = etaSampler;
     this.snapshotStore = snapshotStore;
     this.dwellRegistry = dwellRegistry;
     this.routeProgressRegistry = routeProgressRegistry;
     this.routeDefinitions = routeDefinitions;
+    this.tickBudgetNanos = Math.max(0L, tickBudgetNanos);
+    this.cycleIntervalTicks = Math.max(1, cycleIntervalTicks);
+    this.ticksSinceCycleStart = this.cycleIntervalTicks;
   }
 
   @Override
   public void run() {
+    long sliceStart = System.nanoTime();
+    if (tickBudgetNanos <= 0L) {
+      Cycle full = collectCycle();
+      if (full != null) {
+        processCycle(full, Long.MAX_VALUE);
+        finishCycle(full, sliceStart);
+      }
+      return;
+    }
+    if (ticksSinceCycleStart < Integer.MAX_VALUE) {
+      ticksSinceCycleStart++;
+    }
+    if (cycle == null) {
+      if (ticksSinceCycleStart < cycleIntervalTicks) {
+        return;
+      }
+      ticksSinceCycleStart = 0;
+      cycle = collectCycle();
+      if (cycle == null) {
+        return;
+      }
+    }
+    Cycle current = cycle;
+    long deadline = sliceStart + tickBudgetNanos;
+    boolean drained = processCycle(current, deadline);
+    if (drained && System.nanoTime() < deadline) {
+      cycle = null;
+      finishCycle(current, sliceStart);
+      return;
+    }
+    if (drained) {
+      // 本 tick 预算已用完：清理类工作推迟到下一个 tick
+      current.cleanupDeferrals++;
+    }
+    current.recordSlice(System.nanoTime() - sliceStart, tickBudgetNanos);
+  }
+
+  /** 最近一轮完成的巡检统计。 */
+  public CycleStats lastCycleStats() {
+    return lastCycleStats;
+  }
+
+  /** 已完成的巡检轮数。 */
+  public long completedCycles() {
+    return completedCycles;
+  }
+
+  /**
+   * 开始新一轮巡检：收集在线编组、处理脱轨与重复逻辑列车，并按优先级排队。
+   *
+   * <p>排序先做轮转（每轮起点后移一位，避免同一批列车总排在末尾），再按优先级稳定排序：临近授权终点/进站的运行列车最先处理，其次是其他运行列车，最后是静止列车。
+   */
+  private Cycle collectCycle() {
     Collection<MinecartGroup> groups = MinecartGroupStore.getGroups();
     if (groups == null) {
-      return;
+      return null;
     }
+    long collectStart = System.nanoTime();
     Instant now = Instant.now();
-    long tick = now.toEpochMilli() / 50L;
+    SignalTickScheduler scheduler = dispatchService.signalTickScheduler();
+    scheduler.beginRun(now.toEpochMilli() / 50L);
     List<GroupTickTarget> candidates = new ArrayList<>();
     Map<String, List<GroupTickTarget>> groupsByLogicalName = new LinkedHashMap<>();
     for (MinecartGroup group : groups) {
@@ -102,41 +226,258 @@ public final class RuntimeSignalMonitor implements Runnable {
     }
 
     Set<MinecartGroup> duplicateGroups = cleanupDuplicateLogicalTrains(groupsByLogicalName);
-    Set<String> activeTrainNames = new HashSet<>();
+    List<QueuedTarget> queued = new ArrayList<>(candidates.size());
+    int urgent = 0;
     for (GroupTickTarget candidate : candidates) {
-      MinecartGroup group = candidate.group();
-      if (duplicateGroups.contains(group)) {
+      if (duplicateGroups.contains(candidate.group())) {
         continue;
       }
-      String trainName = candidate.trainName();
-      if (trainName != null && !trainName.isBlank()) {
-        activeTrainNames.add(trainName);
+      int priority = resolvePriority(candidate);
+      if (priority == PRIORITY_URGENT) {
+        urgent++;
       }
-      dispatchService.handleSignalTick(group);
-      // 检测"脱管"列车：有 FTA tag 但 route 无法解析，连续多 tick 后视为异常并清理
-      if (trainName != null && !trainName.isBlank()) {
-        detectStaleFtaTrain(group, trainName);
+      queued.add(new QueuedTarget(candidate, priority));
+    }
+    List<QueuedTarget> ordered = orderByPriority(queued, QueuedTarget::priority, rotation++);
+    if (rotation == Integer.MAX_VALUE) {
+      rotation = 0;
+    }
+    return new Cycle(ordered, scheduler, urgent, System.nanoTime() - collectStart);
+  }
+
+  /**
+   * 在预算内处理队列；每次调用至少处理一列车，保证超载时也能推进。
+   *
+   * @return true 表示本轮队列已处理完
+   */
+  private boolean processCycle(Cycle current, long deadline) {
+    Instant now = Instant.now();
+    long tick = now.toEpochMilli() / 50L;
+    int processed = 0;
+    while (current.cursor < current.queue.size()) {
+      if (processed > 0 && System.nanoTime() >= deadline) {
+        return false;
+      }
+      prefetchPlans(current);
+      GroupTickTarget target = current.queue.get(current.cursor++).target();
+      processTarget(current, target, now, tick);
+      processed++;
+    }
+    return true;
+  }
+
+  /**
+   * 为游标之后窗口内可能被评估的列车提交 plan 任务。
+   *
+   * <p>只提交运行中、带 dirty 标记或调度器关闭时的列车；静止列车大多会被调度器跳过，按需在主线程同步计算。
+   */
+  private void prefetchPlans(Cycle current) {
+    SignalTickPlanner planner = dispatchService.signalTickPlanner();
+    if (!planner.enabled()) {
+      return;
+    }
+    int limit = Math.min(current.queue.size(), current.cursor + PLAN_PREFETCH_WINDOW);
+    while (current.planCursor < limit) {
+      QueuedTarget queued = current.queue.get(current.planCursor++);
+      if (queued.priority() == PRIORITY_IDLE
+          && current.scheduler.enabled()
+          && !current.scheduler.isDirty(queued.target().trainName())) {
+        continue;
       }
-      if (etaSampler != null && trainName != null && !trainName.isBlank()) {
-        Optional<Integer> dwellRemainingSec =
-            dwellRegistry != null ? dwellRegistry.remainingSeconds(trainName) : Optional.empty();
-        NodeSampleInfo nodeInfo = resolveNodeInfo(trainName);
-        etaSampler.sample(
-            group,
-            tick,
-            now,
-            nodeInfo.currentNodeId,
-            nodeInfo.lastPassedNodeId,
-            dwellRemainingSec,
-            nodeInfo.signalAspect);
+      MinecartGroup group = queued.target().group();
+      if (group != null && group.isValid()) {
+        dispatchService.prefetchSignalPlan(group);
       }
     }
+  }
+
+  private void processTarget(Cycle current, GroupTickTarget target, Instant now, long tick) {
+    MinecartGroup group = target.group();
+    // 分片模式下列车可能在两次切片之间被移除
+    if (group == null || !group.isValid()) {
+      return;
+    }
+    String trainName = target.trainName();
+    boolean named = trainName != null && !trainName.isBlank();
+    if (named) {
+      current.activeTrainNames.add(trainName);
+    }
+    Optional<Integer> dwellRemainingSec =
+        dwellRegistry != null && named
+            ? dwellRegistry.remainingSeconds(trainName)
+            : Optional.empty();
+    long signalStart = System.nanoTime();
+    tickSignal(current.scheduler, group, trainName, tick, dwellRemainingSec);
+    long sampleStart = System.nanoTime();
+    current.signalNanos += sampleStart - signalStart;
+    // 检测"脱管"列车：有 FTA tag 但 route 无法解析，连续多 tick 后视为异常并清理
+    if (named) {
+      detectStaleFtaTrain(group, trainName);
+    }
+    if (etaSampler != null && named) {
+      NodeSampleInfo nodeInfo = resolveNodeInfo(trainName);
+      etaSampler.sample(
+          group,
+          tick,
+          now,
+          nodeInfo.currentNodeId,
+          nodeInfo.lastPassedNodeId,
+          dwellRemainingSec,
+          nodeInfo.signalAspect);
+    }
+    current.sampleNanos += System.nanoTime() - sampleStart;
+  }
+
+  /**
+   * 结束一轮巡检：孤儿占用、快照与各注册表清理，并发布本轮统计。
+   *
+   * <p>跨多个 tick 的巡检期间可能有新列车上线，清理前需补扫一次在线列车名，避免误释放新车的占用。
+   */
+  private void finishCycle(Cycle current, long sliceStart) {
+    long cleanupStart = System.nanoTime();
+    Set<String> activeTrainNames = current.activeTrainNames;
+    if (current.slices > 0) {
+      collectLiveTrainNames(activeTrainNames);
+    }
     dispatchService.cleanupOrphanOccupancyClaims(activeTrainNames);
     cleanupSnapshotStore(activeTrainNames);
     staleTrainTicks.keySet().removeIf(name -> !activeTrainNames.contains(name));
     if (dwellRegistry != null) {
       dwellRegistry.retain(activeTrainNames);
     }
+    current.scheduler.retain(activeTrainNames);
+    dispatchService.signalTickPlanner().clear();
+    SignalTickScheduler.RunStats runStats = current.scheduler.endRun();
+    long finishedAt = System.nanoTime();
+    current.cleanupNanos = finishedAt - cleanupStart;
+    current.recordSlice(finishedAt - sliceStart, tickBudgetNanos);
+    completedCycles++;
+    lastCycleStats =
+        new CycleStats(
+            tickBudgetNanos > 0L,
+            tickBudgetNanos,
+            current.queue.size(),
+            current.urgentTrains,
+            current.slices,
+            current.overBudgetSlices,
+            current.cleanupDeferrals,
+            current.maxSliceNanos,
+            current.collectNanos,
+            current.signalNanos,
+            current.sampleNanos,
+            current.cleanupNanos,
+            runStats.evaluated(),
+            runStats.skipped(),
+            Instant.now());
+  }
+
+  private void collectLiveTrainNames(Set<String> names) {
+    Collection<MinecartGroup> groups = MinecartGroupStore.getGroups();
+    if (groups == null) {
+      return;
+    }
+    for (MinecartGroup group : groups) {
+      if (group == null
+          || !group.isValid()
+          || !dispatchService.hasFtaRuntimeTag(group.getProperties())) {
+        continue;
+      }
+      String trainName = resolveLogicalTrainName(group);
+      if (trainName != null && !trainName.isBlank()) {
+        names.add(trainName);
+      }
+    }
+  }
+
+  private int resolvePriority(GroupTickTarget target) {
+    double speed = new TrainCartsRuntimeHandle(target.group()).currentSpeedBlocksPerTick();
+    String trainName = target.trainName();
+    if (trainName == null || trainName.isBlank()) {
+      return classifyPriority(speed, OptionalLong.empty(), OptionalLong.empty());
+    }
+    Optional<ControlDiagnostics> diagnostics = dispatchService.getDiagnostics(trainName);
+    return classifyPriority(
+        speed,
+        diagnostics.map(ControlDiagnostics::distanceToAuthorityEnd).orElse(OptionalLong.empty()),
+        diagnostics.map(ControlDiagnostics::distanceToApproach).orElse(OptionalLong.empty()));
+  }
+
+  /**
+   * 计算巡检优先级。
+   *
+   * <p>运行中且按当前速度在 {@value #URGENT_HORIZON_TICKS} tick（至少 {@value #URGENT_HORIZON_MIN_BLOCKS}
+   * 格）内到达授权终点或进站点的列车为紧急；其他运行列车次之；静止列车最后。
+   *
+   * @param speedBlocksPerTick 当前速度（blocks/tick）
+   * @param distanceToAuthorityEnd 上次控车诊断记录的授权终点距离
+   * @param distanceToApproach 上次控车诊断记录的进站点距离
+   */
+  static int classifyPriority(
+      double speedBlocksPerTick,
+      OptionalLong distanceToAuthorityEnd,
+      OptionalLong distanceToApproach) {
+    double speed = Math.abs(speedBlocksPerTick);
+    if (speed < SignalTickScheduler.STATIONARY_SPEED_BPT) {
+      return PRIORITY_IDLE;
+    }
+    long horizon =
+        Math.max(URGENT_HORIZON_MIN_BLOCKS, (long) Math.ceil(speed * URGENT_HORIZON_TICKS));
+    if (isWithin(distanceToAuthorityEnd, horizon) || isWithin(distanceToApproach, horizon)) {
+      return PRIORITY_URGENT;
+    }
+    return PRIORITY_MOVING;
+  }
+
+  private static boolean isWithin(OptionalLong distance, long horizon) {
+    return distance != null && distance.isPresent() && distance.getAsLong() <= horizon;
+  }
+
+  /**
+   * 轮转后按优先级稳定排序。
+   *
+   * @param items 原始顺序
+   * @param priority 优先级（越小越先）
+   * @param rotation 轮转偏移（每轮递增）
+   * @return 新列表，不修改入参
+   */
+  static <T> List<T> orderByPriority(List<T> items, ToIntFunction<T> priority, int rotation) {
+    if (items == null || items.isEmpty()) {
+      return List.of();
+    }
+    int size = items.size();
+    int offset = Math.floorMod(rotation, size);
+    List<T> rotated = new ArrayList<>(size);
+    rotated.addAll(items.subList(offset, size));
+    rotated.addAll(items.subList(0, offset));
+    rotated.sort(Comparator.comparingInt(priority));
+    return rotated;
+  }
+
+  /**
+   * 按调度结论执行或跳过单列车的信号评估。
+   *
+   * <p>评估后以“静止复查周期 / 停站结束时刻”中较早者作为下一次截止时间，保证停站结束后不必等到安全巡检才发车。
+   */
+  private void tickSignal(
+      SignalTickScheduler scheduler,
+      MinecartGroup group,
+      String trainName,
+      long tick,
+      Optional<Integer> dwellRemainingSec) {
+    if (trainName == null || trainName.isBlank()) {
+      dispatchService.handleSignalTick(group);
+      return;
+    }
+    double speed = new TrainCartsRuntimeHandle(group).currentSpeedBlocksPerTick();
+    if (!scheduler.decide(trainName, tick, speed).evaluate()) {
+      return;
+    }
+    dispatchService.handleSignalTick(group);
+    OptionalLong dwellEndTick =
+        dwellRemainingSec.isPresent()
+            ? OptionalLong.of(tick + dwellRemainingSec.get() * 20L)
+            : OptionalLong.empty();
+    scheduler.recordEvaluated(trainName, tick, speed, dwellEndTick);
   }
 
   /**
@@ -470,6 +811,74 @@ public final class RuntimeSignalMonitor implements Runnable {
 
   private record GroupTickTarget(MinecartGroup group, String trainName, String rawTrainName) {}
 
+  private record QueuedTarget(GroupTickTarget target, int priority) {}
+
+  /** 进行中的一轮巡检；只在主线程访问。 */
+  private static final class Cycle {
+    private final List<QueuedTarget> queue;
+    private final SignalTickScheduler scheduler;
+    private final int urgentTrains;
+    private final long collectNanos;
+    private final Set<String> activeTrainNames = new HashSet<>();
+    private int cursor;
+    private int planCursor;
+    private int slices;
+    private int overBudgetSlices;
+    private int cleanupDeferrals;
+    private long maxSliceNanos;
+    private long signalNanos;
+    private long sampleNanos;
+    private long cleanupNanos;
+
+    private Cycle(
+        List<QueuedTarget> queue,
+        SignalTickScheduler scheduler,
+        int urgentTrains,
+        long collectNanos) {
+      this.queue = queue;
+      this.scheduler = scheduler;
+      this.urgentTrains = urgentTrains;
+      this.collectNanos = collectNanos;
+    }
+
+    private void recordSlice(long nanos, long budgetNanos) {
+      slices++;
+      maxSliceNanos = Math.max(maxSliceNanos, nanos);
+      if (budgetNanos > 0L && nanos > budgetNanos) {
+        overBudgetSlices++;
+      }
+    }
+  }
+
+  /**
+   * 一轮巡检的统计。
+   *
+   * <p>各阶段耗时为整轮累计值（纳秒）：collect=收集与排序，signal=信号评估，sample=脱管检测与 ETA 采样，cleanup=孤儿占用与注册表清理。
+   *
+   * @param slices 本轮跨越的 tick 数
+   * @param overBudgetSlices 单 tick 耗时超过预算的次数（单列车耗时超过预算时无法避免）
+   * @param cleanupDeferrals 清理因预算耗尽而推迟的次数
+   */
+  public record CycleStats(
+      boolean sliced,
+      long tickBudgetNanos,
+      int trains,
+      int urgentTrains,
+      int slices,
+      int overBudgetSlices,
+      int cleanupDeferrals,
+      long maxSliceNanos,
+      long collectNanos,
+      long signalNanos,
+      long sampleNanos,
+      long cleanupNanos,
+      int evaluated,
+      int skipped,
+      Instant completedAt) {
+    static final CycleStats EMPTY =
+        new CycleStats(false, 0L, 0, 0, 0, 0, 0, 0L, 0L, 0L, 0L, 0L, 0, 0, Instant.EPOCH);
+  }
+
   private void cleanupSnapshotStore(Set<String> activeTrainNames) {
     if (snapshotStore == null || activeTrainNames == null) {
       return;
@@ -0,0 +1,515 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.control.EdgeOverrideRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteId;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.AuthorizationPurpose;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyRequestBuilder;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyRequestContext;
+
+/**
+ * 信号 tick 的并行 plan 阶段：在工作线程上预先构建占用请求上下文，主线程只做 commit。
+ *
+ * <p>plan 阶段只依赖不可变输入（调度图快照、effective waypoints、进度 index、lastPassedGraphNode 与配置），包括：
+ *
+ * <ul>
+ *   <li>信号评估位置：lastPassedGraphNode 是否位于当前段最短路上
+ *   <li>运行请求（含尾部保护）与前向授权请求的路径展开、资源解析与 directed context
+ * </ul>
+ *
+ * <p>canEnter/acquire、信号前瞻与控车依赖占用结果与实时速度，仍在主线程串行执行。
+ *
+ * <p>巡检器在每轮开始时 {@link #submit} 本轮待评估列车；{@link #take} 在主线程取回结果：
+ *
+ * <ul>
+ *   <li>尚未开始的任务由主线程直接接管计算，不等待队列
+ *   <li>仍在计算的任务不等待：放弃其结果并同步计算，主线程从不阻塞在工作线程上
+ *   <li>输入与提交时不一致（进度推进、图快照或封锁变化）时丢弃结果并重算
+ * </ul>
+ *
+ * <p>工作队列有界（{@value #QUEUE_CAPACITY}），队列满时拒绝提交并计数，对应列车在 commit 时同步计算。
+ *
+ * <p>因此无论工作线程是否及时完成，commit 阶段看到的请求都与同步计算一致；请求时间戳统一替换为 commit 时刻。
+ */
+public final class SignalTickPlanner implements AutoCloseable {
+
+  public static final int DEFAULT_WORKERS = 2;
+  static final int MAX_WORKERS = 8;
+  static final int QUEUE_CAPACITY = 256;
+
+  private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+  private final Consumer<String> debugLogger;
+  private final ConcurrentMap<String, PlanTask> pending = new ConcurrentHashMap<>();
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder stolen = new LongAdder();
+  private final LongAdder stale = new LongAdder();
+  private final LongAdder inline = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder abandoned = new LongAdder();
+  private final LongAdder workerNanos = new LongAdder();
+  private final LongAdder mainNanos = new LongAdder();
+
+  private final IntFunction<Executor> executorFactory;
+  private volatile Executor executor;
+  private volatile int workers;
+
+  /**
+   * @param debugLogger 调试日志（可为空）；构建失败日志可能在工作线程输出
+   */
+  public SignalTickPlanner(Consumer<String> debugLogger) {
+    this(debugLogger, SignalTickPlanner::newExecutor);
+  }
+
+  /**
+   * @param executorFactory 按线程数创建执行器（测试可注入同步或延迟执行器）；{@link ExecutorService} 会在关闭时停止
+   */
+  SignalTickPlanner(Consumer<String> debugLogger, IntFunction<Executor> executorFactory) {
+    this.debugLogger = debugLogger != null ? debugLogger : unused -> {};
+    this.executorFactory = Objects.requireNonNull(executorFactory, "executorFactory");
+  }
+
+  /**
+   * 调整工作线程数（reload 时调用）。
+   *
+   * @param workers 0 表示关闭并行 plan，全部在主线程同步计算；上限 {@value #MAX_WORKERS}
+   */
+  public synchronized void configure(int workers) {
+    int normalized = Math.max(0, Math.min(MAX_WORKERS, workers));
+    if (normalized == this.workers && (normalized == 0) == (executor == null)) {
+      return;
+    }
+    shutdownExecutor();
+    this.workers = normalized;
+    this.executor = normalized > 0 ? executorFactory.apply(normalized) : null;
+  }
+
+  /** 是否启用并行 plan。 */
+  public boolean enabled() {
+    return executor != null;
+  }
+
+  /**
+   * 提交一列车的 plan 任务（主线程）。
+   *
+   * <p>同一列车尚未被取走的旧任务会被替换；线程池拒绝（队列已满）时只计数，由 {@link #take} 同步计算。
+   */
+  public void submit(PlanInput input) {
+    Executor service = executor;
+    if (service == null || input == null) {
+      return;
+    }
+    String key = normalize(input.trainName());
+    if (key.isEmpty()) {
+      return;
+    }
+    PlanTask task = new PlanTask(input);
+    PlanTask previous = pending.put(key, task);
+    if (previous != null) {
+      previous.claim();
+    }
+    try {
+      service.execute(() -> runTask(task));
+      submitted.increment();
+    } catch (RejectedExecutionException ex) {
+      pending.remove(key, task);
+      rejected.increment();
+    }
+  }
+
+  /**
+   * 取回 plan 结果（主线程）；没有可用的预计算结果时同步计算。
+   *
+   * @param input commit 时刻的输入快照，用于校验预计算结果是否仍有效
+   */
+  public SignalPlan take(PlanInput input) {
+    Objects.requireNonNull(input, "input");
+    PlanTask task = pending.remove(normalize(input.trainName()));
+    if (task != null) {
+      if (task.claim()) {
+        stolen.increment();
+      } else if (!task.result.isDone()) {
+        // 工作线程仍在计算：不等待，放弃其结果（完成时被忽略）并在主线程同步计算
+        task.result.cancel(false);
+        abandoned.increment();
+      } else {
+        SignalPlan planned = task.result.getNow(null);
+        if (planned == null) {
+          failures.increment();
+        } else if (!task.input.sameInputs(input)) {
+          stale.increment();
+        } else {
+          hits.increment();
+          return planned.withRequestTime(input.now());
+        }
+      }
+    } else {
+      inline.increment();
+    }
+    long start = System.nanoTime();
+    SignalPlan plan = plan(input, debugLogger);
+    mainNanos.add(System.nanoTime() - start);
+    return plan;
+  }
+
+  /** 丢弃所有未取走的任务（巡检轮结束时调用），避免结果跨轮复用。 */
+  public void clear() {
+    for (PlanTask task : pending.values()) {
+      task.claim();
+    }
+    pending.clear();
+  }
+
+  /** 返回统计快照。 */
+  public Stats stats() {
+    return new Stats(
+        workers,
+        pending.size(),
+        submitted.sum(),
+        hits.sum(),
+        stolen.sum(),
+        stale.sum(),
+        inline.sum(),
+        failures.sum(),
+        rejected.sum(),
+        abandoned.sum(),
+        workerNanos.sum(),
+        mainNanos.sum());
+  }
+
+  /** 关闭工作线程（插件卸载时调用）；未开始的任务被丢弃。 */
+  @Override
+  public synchronized void close() {
+    shutdownExecutor();
+    workers = 0;
+  }
+
+  private void shutdownExecutor() {
+    Executor service = executor;
+    executor = null;
+    clear();
+    if (service instanceof ExecutorService pool) {
+      pool.shutdownNow();
+    }
+  }
+
+  private void runTask(PlanTask task) {
+    if (!task.start()) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      task.result.complete(plan(task.input, debugLogger));
+    } catch (RuntimeException ex) {
+      debugLogger.accept(
+          "信号 plan 计算失败: train="
+              + task.input.trainName()
+              + " error="
+              + ex.getClass().getSimpleName());
+    } finally {
+      // 失败时以 null 完成，主线程据此回退同步计算；成功时此调用无效果
+      task.result.complete(null);
+      workerNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * 计算一列车的 plan（纯函数，可在任意线程调用）。
+   *
+   * <p>与信号 tick 同步路径完全一致：先解析信号评估位置并覆盖 effective waypoints，再构建运行请求与前向授权请求。
+   */
+  static SignalPlan plan(PlanInput input, Consumer<String> debugLogger) {
+    Consumer<String> logger = debugLogger != null ? debugLogger : unused -> {};
+    List<NodeId> waypoints = input.waypoints();
+    int index = input.currentIndex();
+    NodeId routeNode = index >= 0 && index < waypoints.size() ? waypoints.get(index) : null;
+    NodeId nextNode = index + 1 < waypoints.size() ? waypoints.get(index + 1) : null;
+    NodeId currentNode =
+        resolveCurrentNode(
+            new RailGraphPathFinder(),
+            input.graph(),
+            routeNode,
+            nextNode,
+            input.lastPassedGraphNode().orElse(null));
+    List<NodeId> nodes = applyCurrentNodeOverride(waypoints, index, currentNode);
+    OccupancyRequestBuilder builder =
+        new OccupancyRequestBuilder(
+            input.graph(),
+            input.lookaheadEdges(),
+            input.minClearEdges(),
+            input.rearGuardEdges(),
+            input.switcherZoneEdges(),
+            logger);
+    Optional<OccupancyRequestContext> context =
+        builder.buildContextFromNodes(
+            input.trainName(),
+            input.routeId(),
+            nodes,
+            index,
+            input.now(),
+            0,
+            AuthorizationPurpose.RUNTIME_MOVE);
+    Optional<OccupancyRequestContext> authorization = Optional.empty();
+    if (context.isPresent()) {
+      OccupancyRequestBuilder authorizationBuilder =
+          new OccupancyRequestBuilder(
+              input.graph(),
+              input.lookaheadEdges(),
+              input.minClearEdges(),
+              0,
+              input.switcherZoneEdges(),
+              logger);
+      authorization =
+          authorizationBuilder.buildContextFromNodes(
+              input.trainName(),
+              input.routeId(),
+              nodes,
+              index,
+              input.now(),
+              0,
+              AuthorizationPurpose.RUNTIME_MOVE);
+    }
+    return new SignalPlan(currentNode, nodes, context, authorization);
+  }
+
+  /**
+   * 解析信号评估位置：lastPassedGraphNode 位于 routeNode -> nextNode 最短路上时采用它，否则沿用 routeNode。
+   *
+   * @return routeNode 或 lastPassed
+   */
+  static NodeId resolveCurrentNode(
+      RailGraphPathFinder pathFinder,
+      RailGraph graph,
+      NodeId routeNode,
+      NodeId nextNode,
+      NodeId lastPassed) {
+    if (routeNode == null || graph == null || lastPassed == null || nextNode == null) {
+      return routeNode;
+    }
+    if (lastPassed.equals(routeNode)) {
+      return routeNode;
+    }
+    Optional<RailGraphPath> pathOpt =
+        pathFinder.shortestPath(
+            graph, routeNode, nextNode, RailGraphPathFinder.Options.shortestDistance());
+    if (pathOpt.isEmpty() || !pathOpt.get().nodes().contains(lastPassed)) {
+      return routeNode;
+    }
+    return lastPassed;
+  }
+
+  /** 用信号评估位置覆盖 currentIndex 处的节点；未变化时返回原列表。 */
+  static List<NodeId> applyCurrentNodeOverride(
+      List<NodeId> nodes, int currentIndex, NodeId currentNode) {
+    if (nodes == null || nodes.isEmpty() || currentNode == null) {
+      return nodes;
+    }
+    if (currentIndex < 0 || currentIndex >= nodes.size()) {
+      return nodes;
+    }
+    NodeId existing = nodes.get(currentIndex);
+    if (currentNode.equals(existing)) {
+      return nodes;
+    }
+    List<NodeId> copy = new ArrayList<>(nodes);
+    copy.set(currentIndex, currentNode);
+    return List.copyOf(copy);
+  }
+
+  private static Executor newExecutor(int workers) {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            30L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> {
+              Thread thread =
+                  new Thread(
+                      runnable, "FetaruteTCAddon-SignalPlan-" + THREAD_SEQUENCE.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static String normalize(String trainName) {
+    if (trainName == null) {
+      return "";
+    }
+    return trainName.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * plan 输入快照（主线程采集）。
+   *
+   * @param waypoints 应用 DYNAMIC 覆盖后的 effective waypoints（尚未应用信号评估位置）
+   * @param lastPassedGraphNode 进度中记录的最后经过图节点
+   * @param now 请求时间；不参与有效性比较
+   */
+  public record PlanInput(
+      String trainName,
+      Optional<RouteId> routeId,
+      List<NodeId> waypoints,
+      int currentIndex,
+      Optional<NodeId> lastPassedGraphNode,
+      RailGraph graph,
+      int lookaheadEdges,
+      int minClearEdges,
+      int rearGuardEdges,
+      int switcherZoneEdges,
+      Instant now) {
+
+    public PlanInput {
+      Objects.requireNonNull(trainName, "trainName");
+      Objects.requireNonNull(graph, "graph");
+      Objects.requireNonNull(now, "now");
+      routeId = routeId == null ? Optional.empty() : routeId;
+      waypoints = waypoints == null ? List.of() : List.copyOf(waypoints);
+      lastPassedGraphNode = lastPassedGraphNode == null ? Optional.empty() : lastPassedGraphNode;
+    }
+
+    /**
+     * 除请求时间外的输入是否一致。
+     *
+     * <p>图按快照实例与生效中的封锁覆盖比较：每次解析都会新建封锁覆盖视图，不能直接比较实例。
+     */
+    boolean sameInputs(PlanInput other) {
+      return other != null
+          && currentIndex == other.currentIndex
+          && lookaheadEdges == other.lookaheadEdges
+          && minClearEdges == other.minClearEdges
+          && rearGuardEdges == other.rearGuardEdges
+          && switcherZoneEdges == other.switcherZoneEdges
+          && normalize(trainName).equals(normalize(other.trainName))
+          && routeId.equals(other.routeId)
+          && lastPassedGraphNode.equals(other.lastPassedGraphNode)
+          && waypoints.equals(other.waypoints)
+          && sameGraph(graph, other.graph);
+    }
+
+    private static boolean sameGraph(RailGraph a, RailGraph b) {
+      if (a == b) {
+        return true;
+      }
+      return snapshotOf(a) == snapshotOf(b) && blockedOverridesOf(a).equals(blockedOverridesOf(b));
+    }
+
+    private static RailGraph snapshotOf(RailGraph graph) {
+      return graph instanceof EdgeOverrideRailGraph overlay ? overlay.delegate() : graph;
+    }
+
+    private static Set<EdgeId> blockedOverridesOf(RailGraph graph) {
+      return graph instanceof EdgeOverrideRailGraph overlay
+          ? overlay.blockedOverrides()
+          : Set.of();
+    }
+  }
+
+  /**
+   * plan 结果。
+   *
+   * @param currentNode 信号评估位置
+   * @param effectiveNodes 应用信号评估位置后的 effective waypoints
+   * @param context 运行请求上下文（含尾部保护）；路径不连通时为空
+   * @param authorizationContext 前向授权请求上下文（不含尾部保护）
+   */
+  public record SignalPlan(
+      NodeId currentNode,
+      List<NodeId> effectiveNodes,
+      Optional<OccupancyRequestContext> context,
+      Optional<OccupancyRequestContext> authorizationContext) {
+
+    SignalPlan withRequestTime(Instant now) {
+      return new SignalPlan(
+          currentNode,
+          effectiveNodes,
+          context.map(value -> value.withRequestTime(now)),
+          authorizationContext.map(value -> value.withRequestTime(now)));
+    }
+  }
+
+  /**
+   * 统计快照。
+   *
+   * @param hits 直接使用已完成结果的次数
+   * @param stolen 任务尚未开始、由主线程接管计算的次数
+   * @param stale 输入已变化而丢弃结果的次数
+   * @param inline 没有预提交任务（事件/强制刷新、未启用或提交被拒绝）的同步计算次数
+   * @param rejected 工作队列已满而拒绝提交的次数
+   * @param abandoned commit 时工作线程仍在计算、放弃其结果改为同步计算的次数
+   */
+  public record Stats(
+      int workers,
+      int pending,
+      long submitted,
+      long hits,
+      long stolen,
+      long stale,
+      long inline,
+      long failures,
+      long rejected,
+      long abandoned,
+      long workerNanos,
+      long mainNanos) {
+
+    /** 预提交任务中被工作线程结果命中的比例（0~1）。 */
+    public double offloadRatio() {
+      long total = hits + stolen + stale + failures + abandoned;
+      return total == 0 ? 0.0 : (double) hits / total;
+    }
+  }
+
+  /** 单个 plan 任务：PENDING -> RUNNING（工作线程）或 PENDING -> CLAIMED（主线程接管/丢弃）。 */
+  private static final class PlanTask {
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int CLAIMED = 2;
+
+    private final PlanInput input;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private final CompletableFuture<SignalPlan> result = new CompletableFuture<>();
+
+    private PlanTask(PlanInput input) {
+      this.input = input;
+    }
+
+    boolean start() {
+      return state.compareAndSet(PENDING, RUNNING);
+    }
+
+    /** 主线程接管：尚未开始或已被接管时返回 true，此时结果不会再被填充。 */
+    boolean claim() {
+      return state.compareAndSet(PENDING, CLAIMED) || state.get() == CLAIMED;
+    }
+  }
+}
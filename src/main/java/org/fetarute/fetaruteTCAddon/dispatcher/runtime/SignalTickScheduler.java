@@ -0,0 +1,301 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 信号 tick 调度器：决定周期巡检中哪些列车需要重新执行 {@code handleSignalTick}。
+ *
+ * <p>停站、待命、红灯等待中的静止列车在状态不变时，每轮重建占用请求与前瞻只会得到相同结论。调度器只在以下情况放行评估：
+ *
+ * <ul>
+ *   <li>被标记 dirty：相关资源释放、经过 waypoint、信号事件合并等（见 {@link DirtyReason}）
+ *   <li>首次出现、速度变化超过阈值、仍在运行（到 blocker 的距离与速度曲线持续变化）或上一轮仍在运行（需完成停稳后的处理）
+ *   <li>到达截止时间：静止复查周期或停站结束时刻（取较早者）
+ *   <li>低频安全巡检：整轮评估全部列车，兜底遗漏的事件
+ * </ul>
+ *
+ * <p>{@link #markDirty} 可在任意线程调用；其余方法只由主线程的巡检任务调用。列车名统一按小写归一。
+ */
+public final class SignalTickScheduler {
+
+  /** 速度低于该值视为静止（blocks/tick），与终点停稳判定一致。 */
+  static final double STATIONARY_SPEED_BPT = 0.001;
+
+  /** 相对上次评估的速度变化超过该值（blocks/tick）即重新评估。 */
+  static final double SPEED_CHANGE_THRESHOLD_BPT = 0.05;
+
+  public static final int DEFAULT_IDLE_RECHECK_TICKS = 40;
+  public static final int DEFAULT_SAFETY_SWEEP_TICKS = 200;
+
+  /** 外部标记 dirty 的来源。 */
+  public enum DirtyReason {
+    /** 列车占用或等待的资源被释放。 */
+    OCCUPANCY_RELEASED,
+    /** 列车经过推进点（waypoint/站点牌子）。 */
+    WAYPOINT_PASSED,
+    /** 信号事件被合并为 dirty，等待周期 tick 统一处理。 */
+    SIGNAL_EVENT,
+    /** 其他调用方显式请求。 */
+    MANUAL
+  }
+
+  /** 单列车的调度结论；除 {@link #SKIP} 外均需评估。 */
+  public enum Decision {
+    DISABLED,
+    DIRTY,
+    FIRST_SEEN,
+    SPEED_CHANGED,
+    MOVING,
+    SAFETY_SWEEP,
+    DEADLINE,
+    SKIP;
+
+    public boolean evaluate() {
+      return this != SKIP;
+    }
+  }
+
+  private final ConcurrentMap<String, DirtyReason> dirtyTrains = new ConcurrentHashMap<>();
+  private final Map<String, TrainState> states = new ConcurrentHashMap<>();
+  private final Map<Decision, LongAdder> decisionTotals = new EnumMap<>(Decision.class);
+  private final LongAdder totalEvaluated = new LongAdder();
+  private final LongAdder totalSkipped = new LongAdder();
+  private final LongAdder totalSweeps = new LongAdder();
+
+  private volatile boolean enabled = true;
+  private volatile int idleRecheckTicks = DEFAULT_IDLE_RECHECK_TICKS;
+  private volatile int safetySweepTicks = DEFAULT_SAFETY_SWEEP_TICKS;
+
+  private long lastSweepTick = Long.MIN_VALUE;
+  private boolean sweepThisRun;
+  private int runEvaluated;
+  private int runSkipped;
+  private int runDirty;
+  private volatile RunStats lastRun = RunStats.EMPTY;
+
+  public SignalTickScheduler() {
+    for (Decision decision : Decision.values()) {
+      decisionTotals.put(decision, new LongAdder());
+    }
+  }
+
+  /**
+   * 更新调度参数（reload 时调用）。
+   *
+   * @param enabled false 时每轮评估全部列车（旧行为）
+   * @param idleRecheckTicks 静止列车的最长复查间隔
+   * @param safetySweepTicks 全量安全巡检间隔
+   */
+  public void configure(boolean enabled, int idleRecheckTicks, int safetySweepTicks) {
+    this.enabled = enabled;
+    this.idleRecheckTicks = Math.max(1, idleRecheckTicks);
+    this.safetySweepTicks = Math.max(1, safetySweepTicks);
+    this.lastSweepTick = Long.MIN_VALUE;
+  }
+
+  public boolean enabled() {
+    return enabled;
+  }
+
+  /** 标记列车在下一轮巡检中必须评估；同一轮内多次标记只保留最后一次原因。 */
+  public void markDirty(String trainName, DirtyReason reason) {
+    String key = normalize(trainName);
+    if (key.isEmpty()) {
+      return;
+    }
+    dirtyTrains.put(key, reason == null ? DirtyReason.MANUAL : reason);
+  }
+
+  /** 列车是否带有尚未消费的 dirty 标记（不消费标记）。 */
+  public boolean isDirty(String trainName) {
+    String key = normalize(trainName);
+    return !key.isEmpty() && dirtyTrains.containsKey(key);
+  }
+
+  /**
+   * 开始一轮巡检：判断本轮是否为安全巡检并重置本轮计数。
+   *
+   * @param nowTick 当前 tick（单调递增即可）
+   */
+  public void beginRun(long nowTick) {
+    runEvaluated = 0;
+    runSkipped = 0;
+    runDirty = 0;
+    sweepThisRun =
+        enabled && (lastSweepTick == Long.MIN_VALUE || nowTick - lastSweepTick >= safetySweepTicks);
+    if (sweepThisRun) {
+      lastSweepTick = nowTick;
+      totalSweeps.increment();
+    }
+  }
+
+  /**
+   * 判定列车本轮是否需要评估，并计入本轮统计。
+   *
+   * <p>dirty 标记在判定时消费；评估完成后需调用 {@link #recordEvaluated} 设置下一次截止时间。
+   *
+   * @param trainName 逻辑列车名
+   * @param nowTick 当前 tick
+   * @param speedBlocksPerTick 当前速度（blocks/tick）
+   * @return 调度结论
+   */
+  public Decision decide(String trainName, long nowTick, double speedBlocksPerTick) {
+    Decision decision = resolve(normalize(trainName), nowTick, Math.abs(speedBlocksPerTick));
+    decisionTotals.get(decision).increment();
+    if (decision.evaluate()) {
+      runEvaluated++;
+      if (decision == Decision.DIRTY) {
+        runDirty++;
+      }
+    } else {
+      runSkipped++;
+    }
+    return decision;
+  }
+
+  private Decision resolve(String key, long nowTick, double speed) {
+    if (!enabled || key.isEmpty()) {
+      return Decision.DISABLED;
+    }
+    if (dirtyTrains.remove(key) != null) {
+      return Decision.DIRTY;
+    }
+    TrainState state = states.get(key);
+    if (state == null) {
+      return Decision.FIRST_SEEN;
+    }
+    if (Math.abs(speed - state.speed()) >= SPEED_CHANGE_THRESHOLD_BPT) {
+      return Decision.SPEED_CHANGED;
+    }
+    if (speed >= STATIONARY_SPEED_BPT || state.speed() >= STATIONARY_SPEED_BPT) {
+      return Decision.MOVING;
+    }
+    if (sweepThisRun) {
+      return Decision.SAFETY_SWEEP;
+    }
+    if (nowTick >= state.dueTick()) {
+      return Decision.DEADLINE;
+    }
+    return Decision.SKIP;
+  }
+
+  /**
+   * 记录一次评估结果并设置下一次截止时间。
+   *
+   * @param trainName 逻辑列车名
+   * @param nowTick 当前 tick
+   * @param speedBlocksPerTick 评估时速度
+   * @param deadlineTick 额外截止时间（如停站结束时刻）；与静止复查周期取较早者
+   */
+  public void recordEvaluated(
+      String trainName, long nowTick, double speedBlocksPerTick, OptionalLong deadlineTick) {
+    String key = normalize(trainName);
+    if (key.isEmpty()) {
+      return;
+    }
+    long due = nowTick + idleRecheckTicks;
+    if (deadlineTick != null && deadlineTick.isPresent()) {
+      due = Math.min(due, Math.max(nowTick, deadlineTick.getAsLong()));
+    }
+    states.put(key, new TrainState(Math.abs(speedBlocksPerTick), due));
+  }
+
+  /** 结束本轮巡检，发布本轮统计。 */
+  public RunStats endRun() {
+    totalEvaluated.add(runEvaluated);
+    totalSkipped.add(runSkipped);
+    RunStats stats = new RunStats(runEvaluated, runSkipped, runDirty, sweepThisRun);
+    lastRun = stats;
+    return stats;
+  }
+
+  /** 列车移除时清理调度状态。 */
+  public void forget(String trainName) {
+    String key = normalize(trainName);
+    if (key.isEmpty()) {
+      return;
+    }
+    states.remove(key);
+    dirtyTrains.remove(key);
+  }
+
+  /** 仅保留在线列车的调度状态。 */
+  public void retain(Set<String> activeTrainNames) {
+    if (activeTrainNames == null || activeTrainNames.isEmpty()) {
+      states.clear();
+      dirtyTrains.clear();
+      return;
+    }
+    Set<String> keys = new HashSet<>();
+    for (String name : activeTrainNames) {
+      String key = normalize(name);
+      if (!key.isEmpty()) {
+        keys.add(key);
+      }
+    }
+    states.keySet().retainAll(keys);
+    dirtyTrains.keySet().retainAll(keys);
+  }
+
+  /** 返回调度统计快照。 */
+  public Stats stats() {
+    Map<Decision, Long> byDecision = new EnumMap<>(Decision.class);
+    for (Map.Entry<Decision, LongAdder> entry : decisionTotals.entrySet()) {
+      byDecision.put(entry.getKey(), entry.getValue().sum());
+    }
+    return new Stats(
+        enabled,
+        lastRun,
+        totalEvaluated.sum(),
+        totalSkipped.sum(),
+        totalSweeps.sum(),
+        dirtyTrains.size(),
+        states.size(),
+        Map.copyOf(byDecision));
+  }
+
+  private static String normalize(String trainName) {
+    if (trainName == null) {
+      return "";
+    }
+    return trainName.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /** 上次评估时的速度与下一次截止 tick。 */
+  private record TrainState(double speed, long dueTick) {}
+
+  /** 单轮巡检统计：评估数、跳过数、其中由 dirty 触发的评估数、是否为安全巡检。 */
+  public record RunStats(int evaluated, int skipped, int dirty, boolean safetySweep) {
+    static final RunStats EMPTY = new RunStats(0, 0, 0, false);
+  }
+
+  /**
+   * 调度统计快照。
+   *
+   * @param byDecision 各调度结论的累计次数
+   */
+  public record Stats(
+      boolean enabled,
+      RunStats lastRun,
+      long totalEvaluated,
+      long totalSkipped,
+      long safetySweeps,
+      int pendingDirty,
+      int trackedTrains,
+      Map<Decision, Long> byDecision) {
+
+    /** 累计跳过比例（0~1）。 */
+    public double skipRatio() {
+      long total = totalEvaluated + totalSkipped;
+      return total == 0 ? 0.0 : (double) totalSkipped / total;
+    }
+  }
+}
@@ -2,53 +2,71 @@ package org.fetarute.fetaruteTCAddon.dispatcher.runtime;
 
 import com.bergerkiller.bukkit.tc.properties.TrainProperties;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.WeakHashMap;
 
 /**
  * TrainProperties tag 读取与写入工具，避免重复解析逻辑。
  *
  * <p>约定 tag 采用 {@code key=value} 形式，忽略大小写匹配 key；空值会被视为缺失。
+ *
+ * <p>读取走按列车缓存的 {@link TrainTagView}：tag 序列未变化时直接复用解析结果，每 tick 每列车的读取成本与 tag
+ * 数量线性相关且不再产生字符串拆分；通过本类写入/删除 tag 时会主动失效缓存。缓存以弱引用持有 TrainProperties，列车卸载后自动回收。
  */
 public final class TrainTagHelper {
 
+  private static final Map<TrainProperties, TrainTagView> VIEWS =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
   private TrainTagHelper() {}
 
   /**
-   * 读取指定 key 的 tag 值。
+   * 返回列车 tag 的解析视图。
    *
-   * <p>若 tag 缺失或值为空则返回 empty。
+   * <p>缓存命中条件：当前 {@code getTags()} 的遍历序列与解析时逐项一致。TrainCarts 没有 tag 变更事件，这一比较即变更检测。
    */
-  public static Optional<String> readTagValue(TrainProperties properties, String key) {
-    if (properties == null || key == null || key.isBlank() || !properties.hasTags()) {
-      return Optional.empty();
+  public static TrainTagView view(TrainProperties properties) {
+    if (properties == null || !properties.hasTags()) {
+      return TrainTagView.EMPTY;
     }
     Collection<String> tags = properties.getTags();
     if (tags == null || tags.isEmpty()) {
-      return Optional.empty();
+      return TrainTagView.EMPTY;
     }
-    for (String tag : tags) {
-      if (tag == null) {
-        continue;
-      }
-      String trimmed = tag.trim();
-      if (trimmed.isEmpty()) {
-        continue;
-      }
-      int idx = trimmed.indexOf('=');
-      if (idx <= 0) {
-        continue;
-      }
-      String currentKey = trimmed.substring(0, idx).trim();
-      if (!key.equalsIgnoreCase(currentKey)) {
-        continue;
-      }
-      String value = trimmed.substring(idx + 1).trim();
-      if (!value.isEmpty()) {
-        return Optional.of(value);
-      }
+    TrainTagView cached = VIEWS.get(properties);
+    if (cached != null && cached.matches(tags)) {
+      return cached;
+    }
+    TrainTagView parsed = TrainTagView.parse(tags);
+    VIEWS.put(properties, parsed);
+    return parsed;
+  }
+
+  /** 丢弃列车的缓存视图（插件直接调用 {@code addTags/removeTags} 后使用）。 */
+  public static void invalidate(TrainProperties properties) {
+    if (properties != null) {
+      VIEWS.remove(properties);
+    }
+  }
+
+  /** 是否带有任意 {@code FTA_*} 标签；用于在每 tick 遍历 TrainCarts 编组时快速跳过普通列车。 */
+  public static boolean hasFtaTags(TrainProperties properties) {
+    return view(properties).ftaTagged();
+  }
+
+  /**
+   * 读取指定 key 的 tag 值。
+   *
+   * <p>若 tag 缺失或值为空则返回 empty。
+   */
+  public static Optional<String> readTagValue(TrainProperties properties, String key) {
+    if (properties == null || key == null || key.isBlank()) {
+      return Optional.empty();
     }
-    return Optional.empty();
+    return view(properties).value(key);
   }
 
   /** 读取整数 tag，解析失败时返回 empty。 */
@@ -103,6 +121,7 @@ public final class TrainTagHelper {
     String normalizedValue = value == null ? "" : value.trim();
     removeTagKey(properties, normalizedKey);
     properties.addTags(normalizedKey + "=" + normalizedValue);
+    invalidate(properties);
   }
 
   /** 删除指定 key 的 tag。 */
@@ -123,6 +142,7 @@ public final class TrainTagHelper {
       String currentKey = idx > 0 ? trimmed.substring(0, idx).trim() : trimmed;
       if (currentKey.toLowerCase(Locale.ROOT).equals(target)) {
         properties.removeTags(trimmed);
+        invalidate(properties);
         return;
       }
     }
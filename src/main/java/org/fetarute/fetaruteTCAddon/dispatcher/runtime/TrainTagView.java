@@ -0,0 +1,124 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * TrainProperties tags 的解析视图：一次性完成 trim/拆分 {@code key=value}，之后按 key 直接查表。
+ *
+ * <p>视图不可变；由 {@link TrainTagHelper#view} 按列车缓存。解析时记录原始 tag 的遍历序列，{@link #matches} 逐项比较，
+ * 序列一致才复用缓存，因此 TrainCarts 侧（命令、牌子、编组合并）改动 tag 时不会读到旧值。
+ *
+ * <p>语义与旧的逐条扫描一致：key 忽略大小写，空值视为缺失；同名 key 取第一个非空值。
+ */
+public final class TrainTagView {
+
+  /** 没有任何 tag 的列车共享的空视图。 */
+  public static final TrainTagView EMPTY = new TrainTagView(new String[0], Map.of(), false, false);
+
+  private static final String FTA_KEY_PREFIX = "FTA_";
+
+  private final String[] source;
+  private final Map<String, String> values;
+  private final boolean ftaTagged;
+  private final boolean ftaRouteTagged;
+
+  private TrainTagView(
+      String[] source, Map<String, String> values, boolean ftaTagged, boolean ftaRouteTagged) {
+    this.source = source;
+    this.values = values;
+    this.ftaTagged = ftaTagged;
+    this.ftaRouteTagged = ftaRouteTagged;
+  }
+
+  /** 解析一组原始 tag。 */
+  public static TrainTagView parse(Collection<String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      return EMPTY;
+    }
+    String[] source = new String[tags.size()];
+    Map<String, String> values = new HashMap<>();
+    int i = 0;
+    for (String tag : tags) {
+      if (i >= source.length) {
+        // 并发修改导致 size 与遍历不一致：放弃缓存意义上的序列，仍返回可用的解析结果
+        break;
+      }
+      source[i++] = tag;
+      if (tag == null) {
+        continue;
+      }
+      String trimmed = tag.trim();
+      int idx = trimmed.indexOf('=');
+      if (idx <= 0) {
+        continue;
+      }
+      String value = trimmed.substring(idx + 1).trim();
+      if (value.isEmpty()) {
+        continue;
+      }
+      values.putIfAbsent(normalizeKey(trimmed.substring(0, idx)), value);
+    }
+    boolean ftaTagged = false;
+    for (String key : values.keySet()) {
+      if (key.startsWith(FTA_KEY_PREFIX)) {
+        ftaTagged = true;
+        break;
+      }
+    }
+    boolean ftaRouteTagged =
+        values.containsKey(RouteProgressRegistry.TAG_ROUTE_ID)
+            || values.containsKey(RouteProgressRegistry.TAG_OPERATOR_CODE)
+            || values.containsKey(RouteProgressRegistry.TAG_LINE_CODE)
+            || values.containsKey(RouteProgressRegistry.TAG_ROUTE_CODE);
+    return new TrainTagView(source, Map.copyOf(values), ftaTagged, ftaRouteTagged);
+  }
+
+  /** 判断当前原始 tag 序列是否与解析时一致（逐项比较，顺序不同视为不一致）。 */
+  public boolean matches(Collection<String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      return source.length == 0;
+    }
+    if (tags.size() != source.length) {
+      return false;
+    }
+    Iterator<String> iterator = tags.iterator();
+    for (String expected : source) {
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      String actual = iterator.next();
+      if (actual != expected && (actual == null || !actual.equals(expected))) {
+        return false;
+      }
+    }
+    return !iterator.hasNext();
+  }
+
+  /** 读取 key 对应的值（忽略大小写；缺失或空值返回 empty）。 */
+  public Optional<String> value(String key) {
+    if (key == null || key.isBlank() || values.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(values.get(normalizeKey(key)));
+  }
+
+  /** 是否带有任意 {@code FTA_*} 标签（非空值）。 */
+  public boolean ftaTagged() {
+    return ftaTagged;
+  }
+
+  /** 是否带有可解析交路的标签：{@code FTA_ROUTE_ID} 或 operator/line/route code 任一非空。 */
+  public boolean ftaRouteTagged() {
+    return ftaRouteTagged;
+  }
+
+  /** key 统一为大写；常量 key 本身已是大写时不会产生新字符串。 */
+  private static String normalizeKey(String key) {
+    return key.trim().toUpperCase(Locale.ROOT);
+  }
+}
@@ -1,14 +1,28 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.runtime.control;
 
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalLong;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphService.RailGraphSnapshot;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.control.EdgeOverrideRailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 
@@ -16,20 +30,34 @@ import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
  * 最短路距离缓存（含异步刷新）。
  *
  * <p>主线程命中缓存时直接返回；缓存过期后在后台刷新，避免在道岔密集区连续发车时反复同步跑最短路。
+ *
+ * <p>缓存键包含世界 UUID（不同世界可复用同名节点）；每个缓存项都标记了计算时的快照版本与生效中的封锁覆盖，只保存基础值，不持有图实例。
+ * 快照版本与图取自同一个 {@link RailGraphSnapshot}，版本不一致的缓存项视为未命中并同步重算；快照替换时由 {@link
+ * #onSnapshotChanged(long)} 一次性清空缓存，旧快照的异步刷新结果随之作废。
+ *
+ * <p>异步刷新在专用的小线程池上执行（有界队列，同一节点对的刷新会合并）；队列满时丢弃本次刷新，继续返回旧值，下次命中再尝试。
  */
-public final class ShortestPathDistanceCache {
+public final class ShortestPathDistanceCache implements AutoCloseable {
 
   private static final int DEFAULT_MAX_CACHE_SIZE = 4096;
   private static final long MIN_REFRESH_MILLIS = 1_000L;
+  private static final int REFRESH_THREADS = 1;
+  private static final int REFRESH_QUEUE_CAPACITY = 64;
+  private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
 
   private final RailGraphPathFinder pathFinder;
   private volatile long refreshAfterMillis;
   private volatile int maxCacheSize;
   private final Consumer<String> debugLogger;
-  private final ConcurrentMap<DistanceKey, CacheEntry> cache = new ConcurrentHashMap<>();
+  private final Executor refreshExecutor;
+  private final Map<DistanceKey, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
   private final ConcurrentMap<DistanceKey, Boolean> refreshing = new ConcurrentHashMap<>();
   private final LongAdder cacheHits = new LongAdder();
   private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder staleServes = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+  private final LongAdder refreshRejected = new LongAdder();
 
   /**
    * @param pathFinder 最短路求解器
@@ -52,10 +80,23 @@ public final class ShortestPathDistanceCache {
       Duration refreshAfter,
       int maxCacheSize,
       Consumer<String> debugLogger) {
+    this(pathFinder, refreshAfter, maxCacheSize, debugLogger, newRefreshExecutor());
+  }
+
+  /**
+   * @param refreshExecutor 异步刷新执行器（测试可注入同步执行器）；拒绝执行时视为丢弃本次刷新
+   */
+  ShortestPathDistanceCache(
+      RailGraphPathFinder pathFinder,
+      Duration refreshAfter,
+      int maxCacheSize,
+      Consumer<String> debugLogger,
+      Executor refreshExecutor) {
     this.pathFinder = Objects.requireNonNull(pathFinder, "pathFinder");
     this.refreshAfterMillis = normalizeRefreshMillis(refreshAfter);
     this.maxCacheSize = normalizeMaxCacheSize(maxCacheSize);
     this.debugLogger = debugLogger != null ? debugLogger : unused -> {};
+    this.refreshExecutor = Objects.requireNonNull(refreshExecutor, "refreshExecutor");
   }
 
   /** 动态调整异步刷新间隔。 */
@@ -63,15 +104,33 @@ public final class ShortestPathDistanceCache {
     this.refreshAfterMillis = normalizeRefreshMillis(refreshAfter);
   }
 
-  /** 动态调整最大缓存项数量。 */
+  /** 动态调整最大缓存项数量（缩小时立即按 LRU 淘汰多余项）。 */
   public void setMaxCacheSize(int maxCacheSize) {
-    this.maxCacheSize = normalizeMaxCacheSize(maxCacheSize);
-    pruneIfNeeded(System.currentTimeMillis());
+    int normalized = normalizeMaxCacheSize(maxCacheSize);
+    if (normalized == this.maxCacheSize) {
+      return;
+    }
+    this.maxCacheSize = normalized;
+    synchronized (cache) {
+      evictOverflow();
+    }
   }
 
   /** 返回缓存命中统计。 */
   public Stats stats() {
-    return new Stats(cacheHits.sum(), cacheMisses.sum(), cache.size(), refreshing.size());
+    int size;
+    synchronized (cache) {
+      size = cache.size();
+    }
+    return new Stats(
+        cacheHits.sum(),
+        cacheMisses.sum(),
+        size,
+        refreshing.size(),
+        evictions.sum(),
+        staleServes.sum(),
+        invalidations.sum(),
+        refreshRejected.sum());
   }
 
   /**
@@ -80,53 +139,129 @@ public final class ShortestPathDistanceCache {
    * <p>行为：
    *
    * <ul>
-   *   <li>缓存命中：立即返回；
+   *   <li>缓存命中（同一图快照）：立即返回；
    *   <li>命中但过期：先返回旧值，再异步刷新；
-   *   <li>未命中：同步计算并写入缓存（保证首帧可用）。
+   *   <li>未命中或缓存项属于旧快照：同步计算并写入缓存（保证首帧可用）；
+   *   <li>缺少世界/快照，或 graph 不是 snapshot 的图（或其封锁覆盖视图）：同步计算，不读写缓存。
    * </ul>
+   *
+   * @param worldId 快照所属世界（可为空）
+   * @param snapshot 提供快照版本的快照对象（可为空）
+   * @param graph 查询用的图：snapshot 的图本身，或叠加在其上的 {@link EdgeOverrideRailGraph}
    */
-  public OptionalLong resolve(RailGraph graph, NodeId from, NodeId to) {
+  public OptionalLong resolve(
+      UUID worldId, RailGraphSnapshot snapshot, RailGraph graph, NodeId from, NodeId to) {
     if (graph == null || from == null || to == null) {
       return OptionalLong.empty();
     }
-    DistanceKey key = new DistanceKey(from.value(), to.value());
+    RailGraph base = graph instanceof EdgeOverrideRailGraph overlay ? overlay.delegate() : graph;
+    if (worldId == null || snapshot == null || base != snapshot.graph()) {
+      return computeDistance(graph, from, to);
+    }
+    DistanceKey key = new DistanceKey(worldId, from.value(), to.value());
+    GraphTag tag = GraphTag.of(snapshot.version(), graph);
     long nowMs = System.currentTimeMillis();
-    CacheEntry cached = cache.get(key);
-    if (cached != null) {
+    CacheEntry cached;
+    synchronized (cache) {
+      cached = cache.get(key);
+    }
+    if (cached != null && cached.tag().equals(tag)) {
       cacheHits.increment();
       if (nowMs - cached.sampledAtMs() >= refreshAfterMillis) {
-        refreshAsync(key, graph, from, to);
+        staleServes.increment();
+        refreshAsync(key, tag, graph, from, to);
       }
       return cached.distance();
     }
+    if (cached != null) {
+      invalidations.increment();
+    }
     cacheMisses.increment();
     OptionalLong computed = computeDistance(graph, from, to);
-    cache.put(key, new CacheEntry(computed, nowMs));
-    pruneIfNeeded(nowMs);
+    store(key, new CacheEntry(computed, nowMs, tag), false);
     return computed;
   }
 
-  private void refreshAsync(DistanceKey key, RailGraph graph, NodeId from, NodeId to) {
+  /**
+   * 图快照已替换：清空全部缓存项，尽早释放旧快照的距离（{@code RailGraphService} 快照变更监听）。
+   *
+   * <p>进行中的异步刷新找不到原缓存项，写回时会被丢弃。
+   *
+   * @param version 变更后的快照版本（仅用于调试日志）
+   */
+  public void onSnapshotChanged(long version) {
+    synchronized (cache) {
+      if (!cache.isEmpty()) {
+        debugLogger.accept("最短路距离缓存已清空: snapshotVersion=" + version + " size=" + cache.size());
+      }
+      invalidations.add(cache.size());
+      cache.clear();
+    }
+  }
+
+  /** 关闭专用刷新线程池（插件卸载时调用）；未完成的刷新会被丢弃。 */
+  @Override
+  public void close() {
+    if (refreshExecutor instanceof ExecutorService service) {
+      service.shutdownNow();
+    }
+    refreshing.clear();
+  }
+
+  private void refreshAsync(
+      DistanceKey key, GraphTag tag, RailGraph graph, NodeId from, NodeId to) {
     if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
       return;
     }
-    CompletableFuture.runAsync(
-        () -> {
-          try {
-            OptionalLong refreshed = computeDistance(graph, from, to);
-            cache.put(key, new CacheEntry(refreshed, System.currentTimeMillis()));
-          } catch (RuntimeException ex) {
-            debugLogger.accept(
-                "最短路异步刷新失败: from="
-                    + from.value()
-                    + " to="
-                    + to.value()
-                    + " error="
-                    + ex.getClass().getSimpleName());
-          } finally {
-            refreshing.remove(key);
-          }
-        });
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              OptionalLong refreshed = computeDistance(graph, from, to);
+              store(key, new CacheEntry(refreshed, System.currentTimeMillis(), tag), true);
+            } catch (RuntimeException ex) {
+              debugLogger.accept(
+                  "最短路异步刷新失败: from="
+                      + from.value()
+                      + " to="
+                      + to.value()
+                      + " error="
+                      + ex.getClass().getSimpleName());
+            } finally {
+              refreshing.remove(key);
+            }
+          });
+    } catch (RejectedExecutionException ex) {
+      refreshing.remove(key);
+      refreshRejected.increment();
+    }
+  }
+
+  /**
+   * 写入缓存。
+   *
+   * @param refresh 是否为异步刷新结果：原缓存项已被淘汰或标记已变时丢弃，只刷新仍然存在的同标记项
+   */
+  private void store(DistanceKey key, CacheEntry entry, boolean refresh) {
+    synchronized (cache) {
+      CacheEntry current = cache.get(key);
+      if (refresh && (current == null || !current.tag().equals(entry.tag()))) {
+        return;
+      }
+      cache.put(key, entry);
+      evictOverflow();
+    }
+  }
+
+  /** 调用方需持有 cache 锁。 */
+  private void evictOverflow() {
+    int limit = maxCacheSize;
+    Iterator<DistanceKey> iterator = cache.keySet().iterator();
+    while (cache.size() > limit && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+      evictions.increment();
+    }
   }
 
   private OptionalLong computeDistance(RailGraph graph, NodeId from, NodeId to) {
@@ -136,24 +271,54 @@ public final class ShortestPathDistanceCache {
         .orElse(OptionalLong.empty());
   }
 
-  private void pruneIfNeeded(long nowMs) {
-    if (cache.size() <= maxCacheSize) {
-      return;
-    }
-    long expireBefore = nowMs - refreshAfterMillis * 4L;
-    cache.entrySet().removeIf(entry -> entry.getValue().sampledAtMs() < expireBefore);
+  private static ExecutorService newRefreshExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            REFRESH_THREADS,
+            REFRESH_THREADS,
+            30L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+            runnable -> {
+              Thread thread =
+                  new Thread(
+                      runnable,
+                      "FetaruteTCAddon-PathDistance-" + THREAD_SEQUENCE.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
-  private record DistanceKey(String from, String to) {
+  private record DistanceKey(UUID worldId, String from, String to) {
     private DistanceKey {
+      Objects.requireNonNull(worldId, "worldId");
       Objects.requireNonNull(from, "from");
       Objects.requireNonNull(to, "to");
     }
   }
 
-  private record CacheEntry(OptionalLong distance, long sampledAtMs) {
+  /**
+   * 图快照标记：快照版本 + 生效中的封锁覆盖集合。
+   *
+   * <p>{@link EdgeOverrideRailGraph} 每次查询都会新建，因此只取其封锁覆盖，快照身份由版本号表示。
+   */
+  private record GraphTag(long snapshotVersion, Set<EdgeId> blockedOverrides) {
+
+    static GraphTag of(long snapshotVersion, RailGraph graph) {
+      if (graph instanceof EdgeOverrideRailGraph overlay) {
+        return new GraphTag(snapshotVersion, overlay.blockedOverrides());
+      }
+      return new GraphTag(snapshotVersion, Set.of());
+    }
+  }
+
+  private record CacheEntry(OptionalLong distance, long sampledAtMs, GraphTag tag) {
     private CacheEntry {
       Objects.requireNonNull(distance, "distance");
+      Objects.requireNonNull(tag, "tag");
     }
   }
 
@@ -167,6 +332,21 @@ public final class ShortestPathDistanceCache {
     return maxCacheSize > 0 ? maxCacheSize : DEFAULT_MAX_CACHE_SIZE;
   }
 
-  /** 缓存运行统计。 */
-  public record Stats(long hits, long misses, int size, int refreshing) {}
+  /**
+   * 缓存运行统计。
+   *
+   * @param evictions LRU 淘汰次数
+   * @param staleServes 返回过期值（同时触发异步刷新）的次数
+   * @param invalidations 因图快照/封锁覆盖变化而丢弃旧缓存项的次数
+   * @param refreshRejected 刷新队列已满而丢弃的异步刷新次数
+   */
+  public record Stats(
+      long hits,
+      long misses,
+      int size,
+      int refreshing,
+      long evictions,
+      long staleServes,
+      long invalidations,
+      long refreshRejected) {}
 }
@@ -12,30 +12,48 @@ import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteId;
  * <p>释放由事件驱动触发，headway 不再依赖 releaseAt 计算。
  *
  * <p>corridorDirection 仅用于单线走廊方向锁判定。
+ *
+ * <p>不可变值对象。{@link #trainKey()} 在构造时由 trainName 归一化一次并保存，不参与 equals/hashCode。
  */
-public record OccupancyClaim(
-    OccupancyResource resource,
-    String trainName,
-    Optional<RouteId> routeId,
-    Instant acquiredAt,
-    Duration headway,
-    Optional<CorridorDirection> corridorDirection,
-    ClaimRole role) {
-
-  public OccupancyClaim {
+public final class OccupancyClaim {
+
+  private final OccupancyResource resource;
+  private final String trainName;
+  private final Optional<RouteId> routeId;
+  private final Instant acquiredAt;
+  private final Duration headway;
+  private final Optional<CorridorDirection> corridorDirection;
+  private final ClaimRole role;
+  private final String trainKey;
+
+  public OccupancyClaim(
+      OccupancyResource resource,
+      String trainName,
+      Optional<RouteId> routeId,
+      Instant acquiredAt,
+      Duration headway,
+      Optional<CorridorDirection> corridorDirection,
+      ClaimRole role) {
     Objects.requireNonNull(resource, "resource");
     Objects.requireNonNull(trainName, "trainName");
     Objects.requireNonNull(routeId, "routeId");
     Objects.requireNonNull(acquiredAt, "acquiredAt");
     Objects.requireNonNull(headway, "headway");
     Objects.requireNonNull(corridorDirection, "corridorDirection");
-    role = role == null ? ClaimRole.MOVEMENT_REQUIRED : role;
     if (trainName.isBlank()) {
       throw new IllegalArgumentException("trainName 不能为空");
     }
     if (headway.isNegative()) {
       throw new IllegalArgumentException("headway 不能为负");
     }
+    this.resource = resource;
+    this.trainName = trainName;
+    this.routeId = routeId;
+    this.acquiredAt = acquiredAt;
+    this.headway = headway;
+    this.corridorDirection = corridorDirection;
+    this.role = role == null ? ClaimRole.MOVEMENT_REQUIRED : role;
+    this.trainKey = TrainNameNormalizer.normalizeKey(trainName);
   }
 
   public OccupancyClaim(
@@ -54,4 +72,78 @@ public record OccupancyClaim(
         corridorDirection,
         ClaimRole.MOVEMENT_REQUIRED);
   }
+
+  public OccupancyResource resource() {
+    return resource;
+  }
+
+  public String trainName() {
+    return trainName;
+  }
+
+  public Optional<RouteId> routeId() {
+    return routeId;
+  }
+
+  public Instant acquiredAt() {
+    return acquiredAt;
+  }
+
+  public Duration headway() {
+    return headway;
+  }
+
+  public Optional<CorridorDirection> corridorDirection() {
+    return corridorDirection;
+  }
+
+  public ClaimRole role() {
+    return role;
+  }
+
+  /** 归一化列车 key（{@link TrainNameNormalizer#normalizeKey(String)}），用于按列车索引与比较。 */
+  public String trainKey() {
+    return trainKey;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof OccupancyClaim that)) {
+      return false;
+    }
+    return resource.equals(that.resource)
+        && trainName.equals(that.trainName)
+        && routeId.equals(that.routeId)
+        && acquiredAt.equals(that.acquiredAt)
+        && headway.equals(that.headway)
+        && corridorDirection.equals(that.corridorDirection)
+        && role == that.role;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(resource, trainName, routeId, acquiredAt, headway, corridorDirection, role);
+  }
+
+  @Override
+  public String toString() {
+    return "OccupancyClaim[resource="
+        + resource
+        + ", trainName="
+        + trainName
+        + ", routeId="
+        + routeId
+        + ", acquiredAt="
+        + acquiredAt
+        + ", headway="
+        + headway
+        + ", corridorDirection="
+        + corridorDirection
+        + ", role="
+        + role
+        + "]";
+  }
 }
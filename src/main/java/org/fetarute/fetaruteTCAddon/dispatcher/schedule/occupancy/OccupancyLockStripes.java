@@ -0,0 +1,158 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 占用状态的分段锁：按资源 key 哈希映射到固定数量的 stripe。
+ *
+ * <p>一次请求只锁住其资源所落入的 stripe，并始终按 stripe 下标升序加锁，避免多资源请求之间互相死锁。全局操作（如按列车释放全部占用）使用 {@link
+ * #lockAll()}。
+ *
+ * <p>stripe 由资源自身的 key 决定，不依赖调度图的连通分量：图重建后 componentKey 可能变化，而已有 claim 仍需落在同一把锁下。
+ */
+final class OccupancyLockStripes {
+
+  /** 默认 stripe 数量：150 列车规模下足以让不同走廊的请求基本不碰撞。 */
+  static final int DEFAULT_STRIPES = 64;
+
+  private static final int MAX_STRIPES = 1024;
+
+  private final ReentrantLock[] locks;
+  private final int mask;
+  private final AtomicLong contendedAcquisitions = new AtomicLong();
+
+  OccupancyLockStripes(int stripeCount) {
+    int size = 1;
+    int target = Math.max(1, Math.min(MAX_STRIPES, stripeCount));
+    while (size < target) {
+      size <<= 1;
+    }
+    this.locks = new ReentrantLock[size];
+    for (int i = 0; i < size; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    this.mask = size - 1;
+  }
+
+  int stripeCount() {
+    return locks.length;
+  }
+
+  /** 返回因锁竞争而需要阻塞等待的加锁次数（诊断用）。 */
+  long contendedAcquisitions() {
+    return contendedAcquisitions.get();
+  }
+
+  int stripeOf(OccupancyResource resource) {
+    if (resource == null) {
+      return 0;
+    }
+    int hash = resource.hashCode();
+    hash ^= hash >>> 16;
+    return hash & mask;
+  }
+
+  int stripeOfConflictKey(String conflictKey) {
+    if (conflictKey == null || conflictKey.isBlank()) {
+      return 0;
+    }
+    return stripeOf(OccupancyResource.forConflict(conflictKey));
+  }
+
+  /** 锁住请求涉及的所有 stripe（资源 + lookahead 冲突候选）。 */
+  Held lock(OccupancyRequest request) {
+    BitSet stripes = new BitSet(locks.length);
+    if (request != null) {
+      for (OccupancyResource resource : request.resourceList()) {
+        if (resource != null) {
+          stripes.set(stripeOf(resource));
+        }
+      }
+      for (String conflictKey : request.conflictEntryOrders().keySet()) {
+        if (conflictKey != null && !conflictKey.isBlank()) {
+          stripes.set(stripeOfConflictKey(conflictKey));
+        }
+      }
+    }
+    return lock(stripes);
+  }
+
+  Held lock(Collection<OccupancyResource> resources) {
+    BitSet stripes = new BitSet(locks.length);
+    if (resources != null) {
+      for (OccupancyResource resource : resources) {
+        if (resource != null) {
+          stripes.set(stripeOf(resource));
+        }
+      }
+    }
+    return lock(stripes);
+  }
+
+  Held lockAll() {
+    BitSet stripes = new BitSet(locks.length);
+    stripes.set(0, locks.length);
+    return lock(stripes);
+  }
+
+  /**
+   * 尝试锁住单个 stripe（已被当前线程持有时总是成功）。
+   *
+   * <p>仅用于后台清理：拿不到锁说明其他线程正在处理该 stripe，由它在自己的判定中顺带清理即可。
+   */
+  boolean tryLock(int stripe) {
+    return locks[stripe & mask].tryLock();
+  }
+
+  void unlock(int stripe) {
+    locks[stripe & mask].unlock();
+  }
+
+  private Held lock(BitSet stripes) {
+    int[] order = new int[stripes.cardinality()];
+    int count = 0;
+    for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+      ReentrantLock lock = locks[i];
+      if (!lock.tryLock()) {
+        contendedAcquisitions.incrementAndGet();
+        lock.lock();
+      }
+      order[count++] = i;
+    }
+    return new Held(order);
+  }
+
+  /** 已持有的 stripe 集合；关闭时按加锁逆序释放。 */
+  final class Held implements AutoCloseable {
+
+    private final int[] order;
+
+    private Held(int[] order) {
+      this.order = order;
+    }
+
+    /** 当前持有的 stripe 是否覆盖给定资源。 */
+    boolean covers(Collection<OccupancyResource> resources) {
+      if (resources == null) {
+        return true;
+      }
+      for (OccupancyResource resource : resources) {
+        if (resource != null && Arrays.binarySearch(order, stripeOf(resource)) < 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void close() {
+      for (int i = order.length - 1; i >= 0; i--) {
+        locks[order[i]].unlock();
+      }
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
@@ -22,6 +24,27 @@ public interface OccupancyManager {
   /** 获取占用快照（只读）。 */
   List<OccupancyClaim> snapshotClaims();
 
+  /**
+   * 查询指定资源上的当前占用者。
+   *
+   * <p>用于事件驱动的信号联动等高频路径。默认实现过滤 {@link #snapshotClaims()}；按资源索引的实现应直接查表，避免复制全局占用。
+   *
+   * @param resources 待查询的资源集合
+   * @return 命中这些资源的占用记录（只读）
+   */
+  default List<OccupancyClaim> holdersOf(Collection<OccupancyResource> resources) {
+    if (resources == null || resources.isEmpty()) {
+      return List.of();
+    }
+    List<OccupancyClaim> holders = new ArrayList<>();
+    for (OccupancyClaim claim : snapshotClaims()) {
+      if (claim != null && resources.contains(claim.resource())) {
+        holders.add(claim);
+      }
+    }
+    return List.copyOf(holders);
+  }
+
   /** 按列车名称释放所有占用记录。 */
   int releaseByTrain(String trainName);
 
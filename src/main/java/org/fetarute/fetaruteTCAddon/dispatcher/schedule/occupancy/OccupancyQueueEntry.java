@@ -6,22 +6,33 @@ import java.util.Objects;
 /**
  * 占用队列条目，用于诊断输出。
  *
- * @param trainName 列车名（标准化后用于去重）
- * @param direction 进入走廊的方向
- * @param firstSeen 首次进入排队时间
- * @param lastSeen 最近刷新时间
- * @param priority 排队优先级（越大越优先）
- * @param entryOrder 进入冲突区的边序号（越小越接近入口）
+ * <p>不可变值对象。{@link #trainKey()} 在构造时由 trainName 归一化一次并保存，不参与 equals/hashCode。
  */
-public record OccupancyQueueEntry(
-    String trainName,
-    CorridorDirection direction,
-    Instant firstSeen,
-    Instant lastSeen,
-    int priority,
-    int entryOrder) {
-
-  public OccupancyQueueEntry {
+public final class OccupancyQueueEntry {
+
+  private final String trainName;
+  private final CorridorDirection direction;
+  private final Instant firstSeen;
+  private final Instant lastSeen;
+  private final int priority;
+  private final int entryOrder;
+  private final String trainKey;
+
+  /**
+   * @param trainName 列车名（标准化后用于去重）
+   * @param direction 进入走廊的方向
+   * @param firstSeen 首次进入排队时间
+   * @param lastSeen 最近刷新时间
+   * @param priority 排队优先级（越大越优先）
+   * @param entryOrder 进入冲突区的边序号（越小越接近入口）
+   */
+  public OccupancyQueueEntry(
+      String trainName,
+      CorridorDirection direction,
+      Instant firstSeen,
+      Instant lastSeen,
+      int priority,
+      int entryOrder) {
     Objects.requireNonNull(trainName, "trainName");
     Objects.requireNonNull(direction, "direction");
     Objects.requireNonNull(firstSeen, "firstSeen");
@@ -32,5 +43,79 @@ public record OccupancyQueueEntry(
     if (entryOrder < 0) {
       throw new IllegalArgumentException("entryOrder 不能为负");
     }
+    this.trainName = trainName;
+    this.direction = direction;
+    this.firstSeen = firstSeen;
+    this.lastSeen = lastSeen;
+    this.priority = priority;
+    this.entryOrder = entryOrder;
+    this.trainKey = TrainNameNormalizer.normalizeKey(trainName);
+  }
+
+  public String trainName() {
+    return trainName;
+  }
+
+  public CorridorDirection direction() {
+    return direction;
+  }
+
+  public Instant firstSeen() {
+    return firstSeen;
+  }
+
+  public Instant lastSeen() {
+    return lastSeen;
+  }
+
+  public int priority() {
+    return priority;
+  }
+
+  public int entryOrder() {
+    return entryOrder;
+  }
+
+  /** 归一化列车 key（{@link TrainNameNormalizer#normalizeKey(String)}），用于按列车索引与比较。 */
+  public String trainKey() {
+    return trainKey;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof OccupancyQueueEntry that)) {
+      return false;
+    }
+    return trainName.equals(that.trainName)
+        && direction == that.direction
+        && firstSeen.equals(that.firstSeen)
+        && lastSeen.equals(that.lastSeen)
+        && priority == that.priority
+        && entryOrder == that.entryOrder;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(trainName, direction, firstSeen, lastSeen, priority, entryOrder);
+  }
+
+  @Override
+  public String toString() {
+    return "OccupancyQueueEntry[trainName="
+        + trainName
+        + ", direction="
+        + direction
+        + ", firstSeen="
+        + firstSeen
+        + ", lastSeen="
+        + lastSeen
+        + ", priority="
+        + priority
+        + ", entryOrder="
+        + entryOrder
+        + "]";
   }
 }
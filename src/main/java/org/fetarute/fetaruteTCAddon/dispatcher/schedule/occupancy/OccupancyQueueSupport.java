@@ -1,5 +1,7 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /** 提供占用队列快照的扩展接口。 */
@@ -12,6 +14,27 @@ public interface OccupancyQueueSupport {
    */
   List<OccupancyQueueSnapshot> snapshotQueues();
 
+  /**
+   * 查询在指定资源上排队等待的列车条目。
+   *
+   * <p>默认实现过滤 {@link #snapshotQueues()}；实现方应尽量只读取目标资源的队列，供高频联动刷新使用。
+   *
+   * @param resources 待查询的资源集合
+   * @return 这些资源上的排队条目（按资源分组，组内按队列顺序）
+   */
+  default List<OccupancyQueueEntry> waitersOf(Collection<OccupancyResource> resources) {
+    if (resources == null || resources.isEmpty()) {
+      return List.of();
+    }
+    List<OccupancyQueueEntry> waiters = new ArrayList<>();
+    for (OccupancyQueueSnapshot snapshot : snapshotQueues()) {
+      if (snapshot != null && resources.contains(snapshot.resource())) {
+        waiters.addAll(snapshot.entries());
+      }
+    }
+    return List.copyOf(waiters);
+  }
+
   /**
    * 刷新指定请求在冲突队列中的排队位次（不写入占用 claim）。
    *
@@ -238,6 +238,22 @@ public record OccupancyRequest(
         directedContext.map(context -> context.withSource(nextPurpose.name())));
   }
 
+  /** 返回同一请求但替换请求时间（预计算的请求在提交时刻重新打时间戳）。 */
+  public OccupancyRequest withNow(Instant nextNow) {
+    return new OccupancyRequest(
+        trainName,
+        routeId,
+        nextNow,
+        resources,
+        corridorDirections,
+        conflictEntryOrders,
+        priority,
+        purpose,
+        conflictReleaseHints,
+        resourceIntents,
+        directedContext);
+  }
+
   /** 返回同一资源集合但附加冲突清空证据后的请求。 */
   public OccupancyRequest withConflictReleaseHints(
       AuthorizationPurpose nextPurpose, Map<String, ConflictReleaseHint> hints) {
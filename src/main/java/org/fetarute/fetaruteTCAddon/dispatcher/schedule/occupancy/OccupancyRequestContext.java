@@ -1,5 +1,6 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -31,6 +32,11 @@ public record OccupancyRequestContext(
     edges = List.copyOf(edges);
   }
 
+  /** 返回同一路径但替换请求时间的上下文。 */
+  public OccupancyRequestContext withRequestTime(Instant now) {
+    return new OccupancyRequestContext(request.withNow(now), pathNodes, edges, directedContext);
+  }
+
   private static OccupancyRequest requireRequest(OccupancyRequest request) {
     return Objects.requireNonNull(request, "request");
   }
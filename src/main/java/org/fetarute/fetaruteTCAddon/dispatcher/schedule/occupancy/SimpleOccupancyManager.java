@@ -3,6 +3,7 @@ package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -12,12 +13,14 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalComputationTrace;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalDecisionInputClassifier;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalDecisionInputType;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.OccupancyAcquiredEvent;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.OccupancyReleasedEvent;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.SignalEvent;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.SignalEventBus;
 
 /**
@@ -33,6 +36,12 @@ import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.SignalEventBus;
  * 释放粒度，而不是时刻表本身。
  *
  * <p>冲突区放行只处理已证明正在清空冲突区出口的 CONFLICT blocker；真实 NODE/EDGE 硬占用始终按 STOP 处理。
+ *
+ * <p>并发模型：状态按资源分段加锁（{@link OccupancyLockStripes}），互不相交的走廊可以并行判定；claim 列表以不可变 List
+ * 发布，{@link #getClaim} / {@link #snapshotClaims()} 无需加锁。事件在释放锁之后才发布，订阅者回调本管理器不会形成锁顺序反转。
+ *
+ * <p>claim 与 queue 各维护一份“列车 -> 资源”反向索引（{@link TrainOccupancyIndex}），按列车释放/查询只访问该列车自己的资源，
+ * 并且只锁住这些资源所在的 stripe。
  */
 public final class SimpleOccupancyManager
     implements OccupancyManager, OccupancyQueueSupport, OccupancyPreviewSupport {
@@ -42,16 +51,32 @@ public final class SimpleOccupancyManager
   /** 冲突区放行锁定时长：一旦放行某车，在此期间内不允许对手车放行，避免信号乒乓。 */
   private static final Duration DEADLOCK_RELEASE_LOCK_TTL = Duration.ofSeconds(8);
 
+  /** 按列车加锁时重读索引的最大次数，超过后退化为锁住全部 stripe。 */
+  private static final int FOOTPRINT_LOCK_ATTEMPTS = 3;
+
   private final HeadwayRule headwayRule;
   private final SignalAspectPolicy signalPolicy;
   private final SignalEventBus eventBus;
-  private final Map<OccupancyResource, List<OccupancyClaim>> claims = new LinkedHashMap<>();
-  private final Map<OccupancyResource, ConflictQueue> queues = new LinkedHashMap<>();
+  private final OccupancyLockStripes stripes;
+  private final SignalComputationTrace.Sink traceSink;
+
+  /** 资源 -> 占用列表；value 为不可变 List，写入方在 stripe 锁内整体替换，读取方无需加锁。 */
+  private final Map<OccupancyResource, List<OccupancyClaim>> claims = new ConcurrentHashMap<>();
+
+  /** 冲突队列；{@link ConflictQueue} 本身非线程安全，只能在对应资源的 stripe 锁内访问。 */
+  private final Map<OccupancyResource, ConflictQueue> queues = new ConcurrentHashMap<>();
+
+  /** 列车 -> 持有 claim 的资源；与 {@link #claims} 在同一 stripe 锁内同步维护。 */
+  private final TrainOccupancyIndex claimIndex = new TrainOccupancyIndex();
+
+  /** 列车 -> 存在排队条目的资源；与 {@link #queues} 在同一 stripe 锁内同步维护。 */
+  private final TrainOccupancyIndex queueIndex = new TrainOccupancyIndex();
+
   private final AtomicLong version = new AtomicLong();
   private final AtomicLong staleQueueCleanupCount = new AtomicLong();
 
-  /** 冲突区放行锁：key=冲突资源 key，value=被放行列车与锁定过期时间。 */
-  private final Map<String, DeadlockReleaseLock> deadlockReleaseLocks = new LinkedHashMap<>();
+  /** 冲突区放行锁：key=冲突资源 key，value=被放行列车与锁定过期时间（受该冲突资源的 stripe 锁保护）。 */
+  private final Map<String, DeadlockReleaseLock> deadlockReleaseLocks = new ConcurrentHashMap<>();
 
   /**
    * 构建占用管理器（无事件总线）。
@@ -72,9 +97,54 @@ public final class SimpleOccupancyManager
    */
   public SimpleOccupancyManager(
       HeadwayRule headwayRule, SignalAspectPolicy signalPolicy, SignalEventBus eventBus) {
+    this(headwayRule, signalPolicy, eventBus, OccupancyLockStripes.DEFAULT_STRIPES);
+  }
+
+  /**
+   * 构建占用管理器并注入信号 trace 输出目标。
+   *
+   * @param headwayRule 追踪间隔策略
+   * @param signalPolicy 信号优先级与放行策略
+   * @param eventBus 信号事件总线（可选，为 null 时不发布事件）
+   * @param traceSink 占用层信号 trace 的 logger/debug 开关/飞行记录器（为 null 时使用全局 logger）
+   */
+  public SimpleOccupancyManager(
+      HeadwayRule headwayRule,
+      SignalAspectPolicy signalPolicy,
+      SignalEventBus eventBus,
+      SignalComputationTrace.Sink traceSink) {
+    this(headwayRule, signalPolicy, eventBus, OccupancyLockStripes.DEFAULT_STRIPES, traceSink);
+  }
+
+  /**
+   * 构建占用管理器并指定分段锁数量。
+   *
+   * <p>{@code lockStripes=1} 等价于旧版“整个管理器一把锁”的行为，主要用于基准对比。
+   *
+   * @param headwayRule 追踪间隔策略
+   * @param signalPolicy 信号优先级与放行策略
+   * @param eventBus 信号事件总线（可选，为 null 时不发布事件）
+   * @param lockStripes 分段锁数量（向上取整为 2 的幂）
+   */
+  public SimpleOccupancyManager(
+      HeadwayRule headwayRule,
+      SignalAspectPolicy signalPolicy,
+      SignalEventBus eventBus,
+      int lockStripes) {
+    this(headwayRule, signalPolicy, eventBus, lockStripes, null);
+  }
+
+  private SimpleOccupancyManager(
+      HeadwayRule headwayRule,
+      SignalAspectPolicy signalPolicy,
+      SignalEventBus eventBus,
+      int lockStripes,
+      SignalComputationTrace.Sink traceSink) {
     this.headwayRule = Objects.requireNonNull(headwayRule, "headwayRule");
     this.signalPolicy = signalPolicy != null ? signalPolicy : SignalAspectPolicy.defaultPolicy();
     this.eventBus = eventBus;
+    this.stripes = new OccupancyLockStripes(lockStripes);
+    this.traceSink = traceSink != null ? traceSink : SignalComputationTrace.defaultSink();
   }
 
   /** 返回占用/队列快照版本。claim 或 queue 发生真实变更时递增。 */
@@ -87,16 +157,32 @@ public final class SimpleOccupancyManager
     return staleQueueCleanupCount.get();
   }
 
+  /** 返回分段锁数量。 */
+  public int lockStripeCount() {
+    return stripes.stripeCount();
+  }
+
+  /** 返回因 stripe 竞争而阻塞等待的加锁次数。 */
+  public long lockContentionCount() {
+    return stripes.contendedAcquisitions();
+  }
+
   /**
    * 预判是否允许进入指定资源集合（不写入状态）。
    *
    * <p>用于运行时”尝试放行”的决策预演。
    */
   @Override
-  public synchronized OccupancyDecision canEnter(OccupancyRequest request) {
+  public OccupancyDecision canEnter(OccupancyRequest request) {
     Objects.requireNonNull(request, "request");
+    try (OccupancyLockStripes.Held ignored = stripes.lock(request)) {
+      return canEnterLocked(request);
+    }
+  }
+
+  private OccupancyDecision canEnterLocked(OccupancyRequest request) {
     Instant now = request.now();
-    purgeExpiredQueueEntries(now);
+    purgeExpiredQueueEntries(request, now);
     List<OccupancyClaim> blockers = new ArrayList<>();
     Set<OccupancyResource> blockedResources = new LinkedHashSet<>();
     for (OccupancyResource resource : request.resourceList()) {
@@ -201,10 +287,16 @@ public final class SimpleOccupancyManager
    * <p>用于 ETA 估算，避免对运行时队列造成副作用。
    */
   @Override
-  public synchronized OccupancyDecision canEnterPreview(OccupancyRequest request) {
+  public OccupancyDecision canEnterPreview(OccupancyRequest request) {
     Objects.requireNonNull(request, "request");
+    try (OccupancyLockStripes.Held ignored = stripes.lock(request)) {
+      return canEnterPreviewLocked(request);
+    }
+  }
+
+  private OccupancyDecision canEnterPreviewLocked(OccupancyRequest request) {
     Instant now = request.now();
-    purgeExpiredQueueEntries(now);
+    purgeExpiredQueueEntries(request, now);
     List<OccupancyClaim> blockers = new ArrayList<>();
     for (OccupancyResource resource : request.resourceList()) {
       if (resource == null) {
@@ -316,19 +408,31 @@ public final class SimpleOccupancyManager
    * <p>成功获取后会发布 {@link OccupancyAcquiredEvent}，通知订阅者重新评估信号。
    */
   @Override
-  public synchronized OccupancyDecision acquire(OccupancyRequest request) {
+  public OccupancyDecision acquire(OccupancyRequest request) {
     Objects.requireNonNull(request, "request");
-    OccupancyDecision decision = canEnter(request);
+    AcquireOutcome outcome;
+    try (OccupancyLockStripes.Held ignored = stripes.lock(request)) {
+      outcome = acquireLocked(request);
+    }
+    // 事件在释放锁之后发布，订阅者可安全地回调 canEnterPreview 等方法。
+    publish(outcome.event());
+    return outcome.decision();
+  }
+
+  private AcquireOutcome acquireLocked(OccupancyRequest request) {
+    OccupancyDecision decision = canEnterLocked(request);
     if (!decision.allowed()) {
-      return decision;
+      return new AcquireOutcome(decision, null);
     }
     Instant now = request.now();
     if (decision.conflictRelease()) {
       Optional<String> hardBlockerReason =
           conflictReleaseHardBlockerReason(request, decision.blockers());
       if (hardBlockerReason.isPresent()) {
-        return new OccupancyDecision(
-            false, now, SignalAspect.STOP, decision.blockers(), false, hardBlockerReason.get());
+        return new AcquireOutcome(
+            new OccupancyDecision(
+                false, now, SignalAspect.STOP, decision.blockers(), false, hardBlockerReason.get()),
+            null);
       }
     }
     Set<OccupancyResource> blockedResources =
@@ -344,7 +448,7 @@ public final class SimpleOccupancyManager
         continue;
       }
       Duration headway = headwayRule.headwayFor(request.routeId(), resource);
-      List<OccupancyClaim> existing = claims.computeIfAbsent(resource, unused -> new ArrayList<>());
+      List<OccupancyClaim> existing = claims.getOrDefault(resource, List.of());
       OccupancyClaim current = findClaim(existing, request.trainName());
       if (current == null
           && !request.intentFor(resource).hardAuthority()
@@ -363,8 +467,9 @@ public final class SimpleOccupancyManager
             current.headway().compareTo(headway) >= 0 ? current.headway() : headway;
         Optional<CorridorDirection> nextDirection =
             direction.isPresent() ? direction : current.corridorDirection();
-        existing.remove(current);
-        existing.add(
+        List<OccupancyClaim> updated = new ArrayList<>(existing);
+        updated.remove(current);
+        updated.add(
             new OccupancyClaim(
                 resource,
                 current.trainName(),
@@ -373,21 +478,22 @@ public final class SimpleOccupancyManager
                 nextHeadway,
                 nextDirection,
                 role));
+        putClaims(resource, updated);
         acquiredResources.add(resource);
         continue;
       }
-      existing.add(
+      List<OccupancyClaim> updated = new ArrayList<>(existing);
+      updated.add(
           new OccupancyClaim(
               resource, request.trainName(), request.routeId(), now, headway, direction, role));
+      putClaims(resource, updated);
       acquiredResources.add(resource);
     }
     if (!acquiredResources.isEmpty()) {
       removeFromQueuesForResources(request.trainName(), acquiredResources);
       version.incrementAndGet();
     }
-    // 发布占用获取事件
-    publishAcquiredEvent(request, acquiredResources, now);
-    return decision;
+    return new AcquireOutcome(decision, acquiredEvent(request, acquiredResources, now));
   }
 
   /**
@@ -396,7 +502,7 @@ public final class SimpleOccupancyManager
    * <p>用于诊断，不保证公平队列顺序。
    */
   @Override
-  public synchronized Optional<OccupancyClaim> getClaim(OccupancyResource resource) {
+  public Optional<OccupancyClaim> getClaim(OccupancyResource resource) {
     if (resource == null) {
       return Optional.empty();
     }
@@ -410,10 +516,10 @@ public final class SimpleOccupancyManager
   /**
    * 获取全部占用快照。
    *
-   * <p>用于诊断，不建议高频调用。
+   * <p>用于诊断，不建议高频调用。读取不加锁：各资源的 claim 列表分别是一致的，但跨资源只保证弱一致（与并发写入交错）。
    */
   @Override
-  public synchronized List<OccupancyClaim> snapshotClaims() {
+  public List<OccupancyClaim> snapshotClaims() {
     List<OccupancyClaim> snapshot = new ArrayList<>();
     for (List<OccupancyClaim> list : claims.values()) {
       if (list == null || list.isEmpty()) {
@@ -424,25 +530,73 @@ public final class SimpleOccupancyManager
     return List.copyOf(snapshot);
   }
 
+  /**
+   * 按资源直接查表返回占用者，不复制全局占用；读取不加锁（弱一致，同 {@link #snapshotClaims()}）。
+   */
+  @Override
+  public List<OccupancyClaim> holdersOf(Collection<OccupancyResource> resources) {
+    if (resources == null || resources.isEmpty()) {
+      return List.of();
+    }
+    List<OccupancyClaim> holders = new ArrayList<>();
+    for (OccupancyResource resource : distinct(resources)) {
+      holders.addAll(claims.getOrDefault(resource, List.of()));
+    }
+    return List.copyOf(holders);
+  }
+
+  /** 只读取目标资源的队列，每个队列短暂持有其 stripe。 */
+  @Override
+  public List<OccupancyQueueEntry> waitersOf(Collection<OccupancyResource> resources) {
+    if (resources == null || resources.isEmpty()) {
+      return List.of();
+    }
+    List<OccupancyQueueEntry> waiters = new ArrayList<>();
+    for (OccupancyResource resource : distinct(resources)) {
+      if (!queues.containsKey(resource)) {
+        continue;
+      }
+      try (OccupancyLockStripes.Held ignored = stripes.lock(List.of(resource))) {
+        ConflictQueue queue = queues.get(resource);
+        if (queue != null && !queue.isEmpty()) {
+          waiters.addAll(queue.snapshotEntries());
+        }
+      }
+    }
+    return List.copyOf(waiters);
+  }
+
+  private static Set<OccupancyResource> distinct(Collection<OccupancyResource> resources) {
+    Set<OccupancyResource> distinct = new LinkedHashSet<>();
+    for (OccupancyResource resource : resources) {
+      if (resource != null) {
+        distinct.add(resource);
+      }
+    }
+    return distinct;
+  }
+
   /**
    * 获取排队快照。
    *
    * <p>用于诊断单线走廊方向与排队情况。
    */
   @Override
-  public synchronized List<OccupancyQueueSnapshot> snapshotQueues() {
+  public List<OccupancyQueueSnapshot> snapshotQueues() {
     List<OccupancyQueueSnapshot> snapshots = new ArrayList<>();
-    for (Map.Entry<OccupancyResource, ConflictQueue> entry : queues.entrySet()) {
-      ConflictQueue queue = entry.getValue();
-      if (queue == null || queue.isEmpty()) {
-        continue;
+    for (OccupancyResource resource : List.copyOf(queues.keySet())) {
+      // 每个队列只在读取时短暂持有其所属 stripe，不阻塞其它走廊的判定。
+      try (OccupancyLockStripes.Held ignored = stripes.lock(List.of(resource))) {
+        ConflictQueue queue = queues.get(resource);
+        if (queue == null || queue.isEmpty()) {
+          continue;
+        }
+        Optional<CorridorDirection> activeDirection = activeDirectionFor(resource);
+        int activeClaims = claims.getOrDefault(resource, List.of()).size();
+        snapshots.add(
+            new OccupancyQueueSnapshot(
+                resource, activeDirection, activeClaims, queue.snapshotEntries()));
       }
-      OccupancyResource resource = entry.getKey();
-      Optional<CorridorDirection> activeDirection = activeDirectionFor(resource);
-      int activeClaims = claims.getOrDefault(resource, List.of()).size();
-      snapshots.add(
-          new OccupancyQueueSnapshot(
-              resource, activeDirection, activeClaims, queue.snapshotEntries()));
     }
     return List.copyOf(snapshots);
   }
@@ -453,12 +607,18 @@ public final class SimpleOccupancyManager
    * <p>用于停站/门控场景：列车还停在当前位置，但需要持续保留自己在前方冲突区的排队顺序，避免后车先抢到队头。
    */
   @Override
-  public synchronized void touchQueues(OccupancyRequest request) {
+  public void touchQueues(OccupancyRequest request) {
     if (request == null) {
       return;
     }
+    try (OccupancyLockStripes.Held ignored = stripes.lock(request)) {
+      touchQueuesLocked(request);
+    }
+  }
+
+  private void touchQueuesLocked(OccupancyRequest request) {
     Instant now = request.now();
-    purgeExpiredQueueEntries(now);
+    purgeExpiredQueueEntries(request, now);
     for (OccupancyResource resource : request.resourceList()) {
       if (!isQueueableConflict(resource)) {
         continue;
@@ -479,10 +639,16 @@ public final class SimpleOccupancyManager
    * <p>只清理 queue，不释放 claim。调用方必须先判断该条目确实是可丢弃的前瞻位次，避免破坏真实会车或道岔让行顺序。
    */
   @Override
-  public synchronized int removeQueueEntries(String trainName, List<OccupancyResource> resources) {
+  public int removeQueueEntries(String trainName, List<OccupancyResource> resources) {
     if (trainName == null || trainName.isBlank() || resources == null || resources.isEmpty()) {
       return 0;
     }
+    try (OccupancyLockStripes.Held ignored = stripes.lock(resources)) {
+      return removeQueueEntriesLocked(trainName, resources);
+    }
+  }
+
+  private int removeQueueEntriesLocked(String trainName, List<OccupancyResource> resources) {
     int removed = 0;
     for (OccupancyResource resource : resources) {
       if (!isQueueableConflict(resource)) {
@@ -492,12 +658,9 @@ public final class SimpleOccupancyManager
       if (queue == null || !queue.contains(trainName)) {
         continue;
       }
-      queue.remove(trainName);
+      removeQueueEntry(resource, queue, trainName);
       removed++;
       version.incrementAndGet();
-      if (queue.isEmpty()) {
-        queues.remove(resource);
-      }
     }
     return removed;
   }
@@ -510,42 +673,85 @@ public final class SimpleOccupancyManager
    * @return 实际释放的占用数量
    */
   @Override
-  public synchronized int releaseByTrain(String trainName) {
-    if (trainName == null || trainName.isBlank()) {
+  public int releaseByTrain(String trainName) {
+    String trainKey = TrainNameNormalizer.normalizeKey(trainName);
+    if (trainKey.isEmpty()) {
       return 0;
     }
-    int removed = 0;
     List<OccupancyResource> releasedResources = new ArrayList<>();
-    Iterator<Map.Entry<OccupancyResource, List<OccupancyClaim>>> iterator =
-        claims.entrySet().iterator();
-    while (iterator.hasNext()) {
-      Map.Entry<OccupancyResource, List<OccupancyClaim>> entry = iterator.next();
-      List<OccupancyClaim> list = entry.getValue();
-      if (list == null || list.isEmpty()) {
-        iterator.remove();
-        continue;
-      }
-      Iterator<OccupancyClaim> claimIterator = list.iterator();
-      while (claimIterator.hasNext()) {
-        OccupancyClaim claim = claimIterator.next();
-        if (claim != null && TrainNameNormalizer.sameLogicalTrain(claim.trainName(), trainName)) {
-          claimIterator.remove();
-          releasedResources.add(entry.getKey());
-          removed++;
+    try (OccupancyLockStripes.Held ignored = lockTrainFootprint(trainKey, trainName)) {
+      for (OccupancyResource resource : claimIndex.resourcesOf(trainKey)) {
+        List<OccupancyClaim> list = claims.getOrDefault(resource, List.of());
+        List<OccupancyClaim> remaining = new ArrayList<>(list.size());
+        for (OccupancyClaim claim : list) {
+          if (claim != null && trainKey.equals(claim.trainKey())) {
+            releasedResources.add(resource);
+            continue;
+          }
+          remaining.add(claim);
         }
+        putClaims(resource, remaining);
       }
-      if (list.isEmpty()) {
-        iterator.remove();
+      removeFromQueuesForTrain(trainName);
+      releaseDeadlockLocksForTrain(trainName);
+      if (!releasedResources.isEmpty()) {
+        version.incrementAndGet();
       }
     }
-    removeFromQueuesForTrain(trainName);
-    releaseDeadlockLocksForTrain(trainName);
     // 发布占用释放事件
     if (!releasedResources.isEmpty()) {
-      version.incrementAndGet();
       publishReleasedEvent(trainName, releasedResources, Instant.now());
     }
-    return removed;
+    return releasedResources.size();
+  }
+
+  /**
+   * 查询列车当前持有的全部占用（按逻辑列车匹配，含 split 别名）。
+   *
+   * <p>通过反向索引定位资源，开销只与该列车自身的占用数量相关；读取不加锁，语义与 {@link #snapshotClaims()} 相同（弱一致）。
+   */
+  public List<OccupancyClaim> claimsOf(String trainName) {
+    String trainKey = TrainNameNormalizer.normalizeKey(trainName);
+    if (trainKey.isEmpty()) {
+      return List.of();
+    }
+    List<OccupancyClaim> result = new ArrayList<>();
+    for (OccupancyResource resource : claimIndex.resourcesOf(trainKey)) {
+      for (OccupancyClaim claim : claims.getOrDefault(resource, List.of())) {
+        if (claim != null && trainKey.equals(claim.trainKey())) {
+          result.add(claim);
+        }
+      }
+    }
+    return List.copyOf(result);
+  }
+
+  /**
+   * 锁住列车所涉及资源（claim、queue、冲突区放行锁）所在的 stripe。
+   *
+   * <p>索引在加锁前读取，可能与并发写入交错：加锁后重新读取一次，若出现未覆盖的资源则重试，多次失败后退化为锁住全部 stripe。
+   */
+  private OccupancyLockStripes.Held lockTrainFootprint(String trainKey, String trainName) {
+    for (int attempt = 0; attempt < FOOTPRINT_LOCK_ATTEMPTS; attempt++) {
+      OccupancyLockStripes.Held held = stripes.lock(trainFootprint(trainKey, trainName));
+      if (held.covers(trainFootprint(trainKey, trainName))) {
+        return held;
+      }
+      held.close();
+    }
+    return stripes.lockAll();
+  }
+
+  private Set<OccupancyResource> trainFootprint(String trainKey, String trainName) {
+    Set<OccupancyResource> footprint = new LinkedHashSet<>(claimIndex.resourcesOf(trainKey));
+    footprint.addAll(queueIndex.resourcesOf(trainKey));
+    for (Map.Entry<String, DeadlockReleaseLock> entry : deadlockReleaseLocks.entrySet()) {
+      DeadlockReleaseLock lock = entry.getValue();
+      if (lock != null && lock.matches(trainName)) {
+        footprint.add(OccupancyResource.forConflict(entry.getKey()));
+      }
+    }
+    return footprint;
   }
 
   /**
@@ -556,46 +762,55 @@ public final class SimpleOccupancyManager
    * @return 是否存在并成功移除
    */
   @Override
-  public synchronized boolean releaseResource(
-      OccupancyResource resource, Optional<String> trainName) {
+  public boolean releaseResource(OccupancyResource resource, Optional<String> trainName) {
     if (resource == null) {
       return false;
     }
-    List<OccupancyClaim> list = claims.get(resource);
-    if (list == null || list.isEmpty()) {
-      return false;
-    }
     if (trainName != null && trainName.isPresent()) {
       String expected = trainName.get();
-      boolean removed =
-          list.removeIf(
-              claim ->
-                  claim != null
-                      && TrainNameNormalizer.sameLogicalTrain(claim.trainName(), expected));
-      if (list.isEmpty()) {
-        claims.remove(resource);
-      }
-      removeFromQueuesForResources(expected, List.of(resource));
+      boolean removed;
+      try (OccupancyLockStripes.Held ignored = stripes.lock(List.of(resource))) {
+        List<OccupancyClaim> list = claims.get(resource);
+        if (list == null || list.isEmpty()) {
+          return false;
+        }
+        String expectedKey = TrainNameNormalizer.normalizeKey(expected);
+        List<OccupancyClaim> remaining = new ArrayList<>(list);
+        removed =
+            !expectedKey.isEmpty()
+                && remaining.removeIf(
+                    claim -> claim != null && expectedKey.equals(claim.trainKey()));
+        putClaims(resource, remaining);
+        removeFromQueuesForResources(expected, List.of(resource));
+        if (removed) {
+          version.incrementAndGet();
+        }
+      }
       // 发布占用释放事件
       if (removed) {
-        version.incrementAndGet();
         publishReleasedEvent(expected, List.of(resource), Instant.now());
       }
       return removed;
     }
-    // 全量释放：先收集被驱逐的列车名，再逐一清理队列条目
-    List<String> evictedTrains = new ArrayList<>();
-    for (OccupancyClaim claim : list) {
-      if (claim != null && claim.trainName() != null && !claim.trainName().isBlank()) {
-        evictedTrains.add(claim.trainName());
+    try (OccupancyLockStripes.Held ignored = stripes.lock(List.of(resource))) {
+      List<OccupancyClaim> list = claims.get(resource);
+      if (list == null || list.isEmpty()) {
+        return false;
       }
-    }
-    claims.remove(resource);
-    for (String evicted : evictedTrains) {
-      removeFromQueuesForResources(evicted, List.of(resource));
+      // 全量释放：先收集被驱逐的列车名，再逐一清理队列条目
+      List<String> evictedTrains = new ArrayList<>();
+      for (OccupancyClaim claim : list) {
+        if (claim != null && claim.trainName() != null && !claim.trainName().isBlank()) {
+          evictedTrains.add(claim.trainName());
+        }
+      }
+      putClaims(resource, List.of());
+      for (String evicted : evictedTrains) {
+        removeFromQueuesForResources(evicted, List.of(resource));
+      }
+      version.incrementAndGet();
     }
     publishReleasedEvent("*", List.of(resource), Instant.now());
-    version.incrementAndGet();
     return true;
   }
 
@@ -605,12 +820,18 @@ public final class SimpleOccupancyManager
    * <p>仅针对单线走廊与道岔冲突资源；同向单线不触发让行。
    */
   @Override
-  public synchronized boolean shouldYield(OccupancyRequest request) {
+  public boolean shouldYield(OccupancyRequest request) {
     if (request == null || request.trainName() == null || request.trainName().isBlank()) {
       return false;
     }
+    try (OccupancyLockStripes.Held ignored = stripes.lock(request)) {
+      return shouldYieldLocked(request);
+    }
+  }
+
+  private boolean shouldYieldLocked(OccupancyRequest request) {
     Instant now = request.now();
-    purgeExpiredQueueEntries(now);
+    purgeExpiredQueueEntries(request, now);
     int priority = request.priority();
     for (OccupancyResource resource : request.resourceList()) {
       if (!isQueueableConflict(resource)) {
@@ -1255,6 +1476,7 @@ public final class SimpleOccupancyManager
         now,
         request.priority(),
         queueEntryOrderFor(request, resource));
+    queueIndex.add(TrainNameNormalizer.normalizeKey(request.trainName()), resource);
     return effectiveDirection;
   }
 
@@ -1286,8 +1508,9 @@ public final class SimpleOccupancyManager
       CorridorDirection requestedDirection,
       CorridorDirection effectiveDirection,
       String source) {
-    SignalComputationTrace.emit(
-        SignalComputationTrace.builder(
+    traceSink.emit(
+        traceSink
+            .builder(
                 request.trainName(),
                 request.trainName(),
                 SignalComputationTrace.Source.OCCUPANCY,
@@ -1302,37 +1525,99 @@ public final class SimpleOccupancyManager
             .request(request));
   }
 
-  private void purgeExpiredQueueEntries(Instant now) {
-    if (now == null) {
+  /**
+   * 清理当前请求涉及的过期队列条目与冲突放行锁（调用方已持有请求对应的 stripe）。
+   *
+   * <p>只处理请求自身的资源与 lookahead 冲突候选，判定路径不再扫描全量队列；其余过期条目由 {@link #purgeExpiredQueues}
+   * 在周期性自愈中统一清理。
+   */
+  private void purgeExpiredQueueEntries(OccupancyRequest request, Instant now) {
+    if (now == null || request == null) {
       return;
     }
-    // 清理过期的冲突放行锁
-    if (!deadlockReleaseLocks.isEmpty()) {
-      deadlockReleaseLocks
-          .entrySet()
-          .removeIf(e -> e.getValue() == null || e.getValue().isExpired(now));
+    for (OccupancyResource resource : request.resourceList()) {
+      if (resource == null) {
+        continue;
+      }
+      purgeExpiredQueue(resource, now);
+      if (resource.kind() == ResourceKind.CONFLICT) {
+        purgeExpiredDeadlockLock(resource.key(), now);
+      }
+    }
+    for (String conflictKey : request.conflictEntryOrders().keySet()) {
+      if (conflictKey == null || conflictKey.isBlank()) {
+        continue;
+      }
+      purgeExpiredQueue(OccupancyResource.forConflict(conflictKey), now);
+      purgeExpiredDeadlockLock(conflictKey, now);
     }
-    // 清理过期的队列条目
-    if (queues.isEmpty()) {
-      return;
+  }
+
+  /**
+   * 全量清理过期的队列条目与冲突放行锁（周期性自愈调用）。
+   *
+   * <p>只清理能拿到 stripe 的条目：被其他线程持有的 stripe 由持有者在自己的判定中顺带清理，或留到下一轮。
+   *
+   * @return 本次移除的队列条目数量
+   */
+  public int purgeExpiredQueues(Instant now) {
+    if (now == null) {
+      return 0;
     }
-    Iterator<Map.Entry<OccupancyResource, ConflictQueue>> iterator = queues.entrySet().iterator();
-    while (iterator.hasNext()) {
-      Map.Entry<OccupancyResource, ConflictQueue> entry = iterator.next();
-      ConflictQueue queue = entry.getValue();
-      if (queue == null) {
-        iterator.remove();
+    for (Map.Entry<String, DeadlockReleaseLock> entry : deadlockReleaseLocks.entrySet()) {
+      int stripe = stripes.stripeOfConflictKey(entry.getKey());
+      if (!stripes.tryLock(stripe)) {
         continue;
       }
-      int removed = queue.purgeExpired(now, QUEUE_ENTRY_TTL);
-      if (removed > 0) {
-        staleQueueCleanupCount.addAndGet(removed);
-        version.incrementAndGet();
+      try {
+        purgeExpiredDeadlockLock(entry.getKey(), now);
+      } finally {
+        stripes.unlock(stripe);
       }
-      if (queue.isEmpty()) {
-        iterator.remove();
+    }
+    int removed = 0;
+    for (OccupancyResource resource : queues.keySet()) {
+      int stripe = stripes.stripeOf(resource);
+      if (!stripes.tryLock(stripe)) {
+        continue;
+      }
+      try {
+        removed += purgeExpiredQueue(resource, now);
+      } finally {
+        stripes.unlock(stripe);
+      }
+    }
+    return removed;
+  }
+
+  /** 清理单个冲突 key 的过期放行锁（调用方已持有对应 stripe）。 */
+  private void purgeExpiredDeadlockLock(String conflictKey, Instant now) {
+    DeadlockReleaseLock lock = deadlockReleaseLocks.get(conflictKey);
+    if (lock != null && lock.isExpired(now)) {
+      deadlockReleaseLocks.remove(conflictKey, lock);
+    }
+  }
+
+  /** 清理单个资源队列的过期条目（调用方已持有对应 stripe），返回移除数量。 */
+  private int purgeExpiredQueue(OccupancyResource resource, Instant now) {
+    ConflictQueue queue = queues.get(resource);
+    if (queue == null) {
+      return 0;
+    }
+    List<OccupancyQueueEntry> removed = queue.purgeExpired(now, QUEUE_ENTRY_TTL);
+    if (!removed.isEmpty()) {
+      staleQueueCleanupCount.addAndGet(removed.size());
+      version.incrementAndGet();
+      for (OccupancyQueueEntry entry : removed) {
+        if (!queue.containsTrainKey(entry.trainKey())) {
+          queueIndex.remove(entry.trainKey(), resource);
+        }
       }
     }
+    if (queue.isEmpty()) {
+      queues.remove(resource);
+    }
+    return removed.size();
   }
 
   private OccupancyDecision traceDecision(
@@ -1376,8 +1661,9 @@ public final class SimpleOccupancyManager
                 SignalComputationTrace.TokenState.NONE,
                 false);
     SignalAspect traceSignal = publishSuppressed ? SignalAspect.STOP : computedSignal;
-    SignalComputationTrace.emit(
-        SignalComputationTrace.builder(
+    traceSink.emit(
+        traceSink
+            .builder(
                 request != null ? request.trainName() : "-",
                 request != null ? request.trainName() : "-",
                 SignalComputationTrace.Source.OCCUPANCY,
@@ -1478,32 +1764,36 @@ public final class SimpleOccupancyManager
       if (queue == null) {
         continue;
       }
-      queue.remove(trainName);
-      if (queue.isEmpty()) {
-        queues.remove(resource);
-      }
+      removeQueueEntry(resource, queue, trainName);
     }
   }
 
+  /** 从该列车出现过的所有队列中移除它；调用方需持有这些队列所在的 stripe。 */
   private void removeFromQueuesForTrain(String trainName) {
     if (trainName == null || trainName.isBlank()) {
       return;
     }
-    Iterator<Map.Entry<OccupancyResource, ConflictQueue>> iterator = queues.entrySet().iterator();
-    while (iterator.hasNext()) {
-      Map.Entry<OccupancyResource, ConflictQueue> entry = iterator.next();
-      ConflictQueue queue = entry.getValue();
-      if (queue == null) {
-        iterator.remove();
-        continue;
-      }
-      queue.remove(trainName);
-      if (queue.isEmpty()) {
-        iterator.remove();
+    for (OccupancyResource resource :
+        queueIndex.resourcesOf(TrainNameNormalizer.normalizeKey(trainName))) {
+      ConflictQueue queue = queues.get(resource);
+      if (queue != null) {
+        removeQueueEntry(resource, queue, trainName);
       }
     }
   }
 
+  /** 从单个队列移除列车条目，并同步反向索引与空队列。调用方需持有该资源的 stripe。 */
+  private void removeQueueEntry(OccupancyResource resource, ConflictQueue queue, String trainName) {
+    queue.remove(trainName);
+    String trainKey = TrainNameNormalizer.normalizeKey(trainName);
+    if (!queue.containsTrainKey(trainKey)) {
+      queueIndex.remove(trainKey, resource);
+    }
+    if (queue.isEmpty()) {
+      queues.remove(resource);
+    }
+  }
+
   /** 释放指定列车持有的冲突区放行锁。 */
   private void releaseDeadlockLocksForTrain(String trainName) {
     if (trainName == null || trainName.isBlank() || deadlockReleaseLocks.isEmpty()) {
@@ -1527,8 +1817,12 @@ public final class SimpleOccupancyManager
     if (list == null || trainName == null) {
       return null;
     }
+    String trainKey = TrainNameNormalizer.normalizeKey(trainName);
+    if (trainKey.isEmpty()) {
+      return null;
+    }
     for (OccupancyClaim claim : list) {
-      if (claim != null && TrainNameNormalizer.sameLogicalTrain(claim.trainName(), trainName)) {
+      if (claim != null && trainKey.equals(claim.trainKey())) {
         return claim;
       }
     }
@@ -1573,20 +1867,19 @@ public final class SimpleOccupancyManager
    *
    * <p>收集受影响的列车（等待这些资源的列车），通知它们重新评估信号。
    */
-  private void publishAcquiredEvent(
+  private OccupancyAcquiredEvent acquiredEvent(
       OccupancyRequest request, List<OccupancyResource> acquiredResources, Instant now) {
     if (eventBus == null) {
-      return;
+      return null;
     }
     List<OccupancyResource> resources =
         acquiredResources == null ? List.of() : List.copyOf(acquiredResources);
     if (resources.isEmpty()) {
-      return;
+      return null;
     }
+    // 受影响列车需要在锁内收集（读取队列），事件本身在锁外发布。
     List<String> affectedTrains = collectAffectedTrains(resources, request.trainName());
-    OccupancyAcquiredEvent event =
-        new OccupancyAcquiredEvent(now, request.trainName(), resources, affectedTrains);
-    eventBus.publish(event);
+    return new OccupancyAcquiredEvent(now, request.trainName(), resources, affectedTrains);
   }
 
   /** 发布占用释放事件。 */
@@ -1599,6 +1892,52 @@ public final class SimpleOccupancyManager
     eventBus.publish(event);
   }
 
+  private void publish(SignalEvent event) {
+    if (eventBus == null || event == null) {
+      return;
+    }
+    eventBus.publish(event);
+  }
+
+  /**
+   * 将资源的 claim 列表替换为不可变副本；为空时移除条目。调用方需持有该资源的 stripe。
+   *
+   * <p>同时按新旧列表差异同步 {@link #claimIndex}。
+   */
+  private void putClaims(OccupancyResource resource, List<OccupancyClaim> list) {
+    List<OccupancyClaim> previous;
+    if (list == null || list.isEmpty()) {
+      previous = claims.remove(resource);
+    } else {
+      previous = claims.put(resource, List.copyOf(list));
+    }
+    Set<String> before = trainKeysOf(previous);
+    Set<String> after = trainKeysOf(list);
+    for (String trainKey : before) {
+      if (!after.contains(trainKey)) {
+        claimIndex.remove(trainKey, resource);
+      }
+    }
+    for (String trainKey : after) {
+      if (!before.contains(trainKey)) {
+        claimIndex.add(trainKey, resource);
+      }
+    }
+  }
+
+  private static Set<String> trainKeysOf(List<OccupancyClaim> list) {
+    if (list == null || list.isEmpty()) {
+      return Set.of();
+    }
+    Set<String> keys = new LinkedHashSet<>();
+    for (OccupancyClaim claim : list) {
+      if (claim != null) {
+        keys.add(claim.trainKey());
+      }
+    }
+    return keys;
+  }
+
   /**
    * 收集等待指定资源的列车名单（排除自己）。
    *
@@ -1956,36 +2295,52 @@ public final class SimpleOccupancyManager
       return List.copyOf(entries);
     }
 
-    int purgeExpired(Instant now, Duration ttl) {
+    /** 清理过期条目，返回被移除的条目（供调用方同步反向索引）。 */
+    List<OccupancyQueueEntry> purgeExpired(Instant now, Duration ttl) {
       if (now == null || ttl == null || ttl.isNegative()) {
-        return 0;
+        return List.of();
       }
-      int removed = 0;
-      removed += purgeExpired(forward, now, ttl);
-      removed += purgeExpired(backward, now, ttl);
-      removed += purgeExpired(neutral, now, ttl);
+      List<OccupancyQueueEntry> removed = new ArrayList<>();
+      purgeExpired(forward, now, ttl, removed);
+      purgeExpired(backward, now, ttl, removed);
+      purgeExpired(neutral, now, ttl, removed);
       pruneDetachedMetadata();
       return removed;
     }
 
-    private int purgeExpired(
-        LinkedHashMap<String, OccupancyQueueEntry> map, Instant now, Duration ttl) {
-      int removed = 0;
+    private void purgeExpired(
+        LinkedHashMap<String, OccupancyQueueEntry> map,
+        Instant now,
+        Duration ttl,
+        List<OccupancyQueueEntry> removed) {
       Iterator<Map.Entry<String, OccupancyQueueEntry>> iterator = map.entrySet().iterator();
       while (iterator.hasNext()) {
         Map.Entry<String, OccupancyQueueEntry> entry = iterator.next();
         OccupancyQueueEntry value = entry.getValue();
         if (value == null) {
           iterator.remove();
-          removed++;
           continue;
         }
         if (value.lastSeen().plus(ttl).isBefore(now)) {
           iterator.remove();
-          removed++;
+          removed.add(value);
         }
       }
-      return removed;
+    }
+
+    /** 队列中是否仍有属于该逻辑列车的条目（含 split 别名）。 */
+    boolean containsTrainKey(String trainKey) {
+      if (trainKey == null || trainKey.isEmpty()) {
+        return false;
+      }
+      for (LinkedHashMap<String, OccupancyQueueEntry> map : List.of(forward, backward, neutral)) {
+        for (OccupancyQueueEntry entry : map.values()) {
+          if (trainKey.equals(entry.trainKey())) {
+            return true;
+          }
+        }
+      }
+      return false;
     }
 
     /**
@@ -2070,6 +2425,9 @@ public final class SimpleOccupancyManager
     }
   }
 
+  /** acquire 的结果：最终决策 + 需要在锁外发布的事件。 */
+  private record AcquireOutcome(OccupancyDecision decision, SignalEvent event) {}
+
   /**
    * 冲突区放行锁：记录被放行的列车与锁定过期时间。
    *
@@ -0,0 +1,56 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 列车 → 资源反向索引：记录每个逻辑列车（{@link TrainNameNormalizer#normalizeKey(String)}）出现在哪些资源上。
+ *
+ * <p>由 {@link SimpleOccupancyManager} 在修改 claim/queue 的同时维护，使按列车释放与查询只与该列车自身的占用规模相关。
+ * 单个资源的增删由调用方持有该资源的 stripe 保证顺序；同一列车跨 stripe 的并发更新通过 {@code compute} 原子完成。
+ */
+final class TrainOccupancyIndex {
+
+  private final ConcurrentMap<String, Set<OccupancyResource>> byTrain = new ConcurrentHashMap<>();
+
+  void add(String trainKey, OccupancyResource resource) {
+    if (trainKey == null || trainKey.isEmpty() || resource == null) {
+      return;
+    }
+    byTrain.compute(
+        trainKey,
+        (key, resources) -> {
+          Set<OccupancyResource> target =
+              resources != null ? resources : ConcurrentHashMap.newKeySet();
+          target.add(resource);
+          return target;
+        });
+  }
+
+  void remove(String trainKey, OccupancyResource resource) {
+    if (trainKey == null || trainKey.isEmpty() || resource == null) {
+      return;
+    }
+    byTrain.computeIfPresent(
+        trainKey,
+        (key, resources) -> {
+          resources.remove(resource);
+          return resources.isEmpty() ? null : resources;
+        });
+  }
+
+  /** 返回列车当前关联资源的只读副本（弱一致）。 */
+  Set<OccupancyResource> resourcesOf(String trainKey) {
+    if (trainKey == null || trainKey.isEmpty()) {
+      return Set.of();
+    }
+    Set<OccupancyResource> resources = byTrain.get(trainKey);
+    return resources == null ? Set.of() : Set.copyOf(resources);
+  }
+
+  /** 已索引的逻辑列车数量（诊断用）。 */
+  int trainCount() {
+    return byTrain.size();
+  }
+}
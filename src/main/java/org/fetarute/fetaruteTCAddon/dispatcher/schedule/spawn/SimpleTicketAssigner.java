@@ -2236,15 +2236,13 @@ public final class SimpleTicketAssigner implements TicketAssigner {
       return resolveDynamicDepotWorldId(depotSpec);
     }
 
-    // 普通 depot：精确匹配 nodeId。测试或重载早期 registry 可能尚未返回快照，按缺失处理。
-    Map<String, SignNodeRegistry.SignNodeInfo> infos = signNodeRegistry.snapshotInfos();
+    // 普通 depot：按 NodeId 索引匹配（忽略大小写）。测试或重载早期 registry 可能尚未返回结果，按缺失处理。
+    List<SignNodeRegistry.SignNodeInfo> infos = signNodeRegistry.findAllByNodeId(depotSpec);
     if (infos == null || infos.isEmpty()) {
       return Optional.empty();
     }
-    return infos.values().stream()
-        .filter(info -> info != null && info.definition() != null)
+    return infos.stream()
         .filter(info -> info.definition().nodeType() == NodeType.DEPOT)
-        .filter(info -> depotSpec.equalsIgnoreCase(info.definition().nodeId().value()))
         .sorted(
             Comparator.comparing(
                 info -> info.definition().nodeId().value(), String.CASE_INSENSITIVE_ORDER))
@@ -2961,9 +2959,6 @@ public final class SimpleTicketAssigner implements TicketAssigner {
       return Map.of();
     }
     Map<String, String> aliases = new HashMap<>();
-    Map<String, SignNodeRegistry.SignNodeInfo> registeredNodes = signNodeRegistry.snapshotInfos();
-    Map<String, SignNodeRegistry.SignNodeInfo> safeRegisteredNodes =
-        registeredNodes == null ? Map.of() : registeredNodes;
     for (SpawnDepot depot : depots) {
       if (depot == null) {
         continue;
@@ -2973,20 +2968,12 @@ public final class SimpleTicketAssigner implements TicketAssigner {
       if (!SpawnDirectiveParser.isDynamicTarget(depot.nodeId())) {
         continue;
       }
-      if (safeRegisteredNodes.isEmpty()) {
-        continue;
-      }
-      for (SignNodeRegistry.SignNodeInfo info : safeRegisteredNodes.values()) {
-        if (info == null || info.definition() == null || info.definition().nodeId() == null) {
-          continue;
-        }
+      for (SignNodeRegistry.SignNodeInfo info : findDynamicDepotNodeInfos(depot.nodeId())) {
         if (info.definition().nodeType() != NodeType.DEPOT) {
           continue;
         }
         NodeId actualNode = info.definition().nodeId();
-        if (matchesDynamicDepotNode(depot.nodeId(), actualNode.value())) {
-          aliases.put(actualNode.value().toLowerCase(Locale.ROOT), configuredKey);
-        }
+        aliases.put(actualNode.value().toLowerCase(Locale.ROOT), configuredKey);
       }
     }
     return Map.copyOf(aliases);
@@ -3443,12 +3430,13 @@ public final class SimpleTicketAssigner implements TicketAssigner {
     if (operatorCode.isEmpty() || nodeType.isEmpty() || nodeName.isEmpty()) {
       return List.of();
     }
-    Map<String, SignNodeRegistry.SignNodeInfo> infos = signNodeRegistry.snapshotInfos();
+    // 前缀索引只返回 operator:type:name 相同的股道节点，再按轨道范围过滤
+    List<SignNodeRegistry.SignNodeInfo> infos =
+        signNodeRegistry.findByStationPrefix(operatorCode, nodeType, nodeName);
     if (infos == null || infos.isEmpty()) {
       return List.of();
     }
-    return infos.values().stream()
-        .filter(info -> info != null && info.definition() != null)
+    return infos.stream()
         .filter(
             info -> {
               String nodeIdValue = info.definition().nodeId().value();
@@ -0,0 +1,131 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import org.fetarute.fetaruteTCAddon.company.model.Company;
+import org.fetarute.fetaruteTCAddon.company.model.Line;
+import org.fetarute.fetaruteTCAddon.company.model.Operator;
+import org.fetarute.fetaruteTCAddon.company.model.Route;
+import org.fetarute.fetaruteTCAddon.company.model.RouteStop;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+
+/**
+ * 发车计划构建所需的线网内存模型：Company → Operator → Line → Route → RouteStop。
+ *
+ * <p>通过 5 次全表查询一次性加载，再在内存中按外键关联；取代旧版“每层每个父节点一次查询”的 N+1 遍历，使一次计划刷新的查询次数与线网规模无关。
+ *
+ * <p>同一父节点下的子行保持批量查询的返回顺序（仓库按父 ID + 原排序键排序，与逐层查询一致）；RouteStop 额外按 sequence 排序。
+ * 引用了不存在父节点的孤儿行会被忽略。
+ *
+ * <p>实例不可变，可在异步线程构建后交给主线程使用。
+ */
+final class SpawnCatalog {
+
+  /** 每次 {@link #load(StorageProvider)} 执行的查询次数（诊断用）。 */
+  static final int QUERY_COUNT = 5;
+
+  private final List<LineEntry> lines;
+
+  private SpawnCatalog(List<LineEntry> lines) {
+    this.lines = List.copyOf(lines);
+  }
+
+  /** 空模型（无公司或存储为空时使用）。 */
+  static SpawnCatalog empty() {
+    return new SpawnCatalog(List.of());
+  }
+
+  /**
+   * 批量加载线网模型。
+   *
+   * @throws org.fetarute.fetaruteTCAddon.storage.api.StorageException 查询失败时抛出
+   */
+  static SpawnCatalog load(StorageProvider provider) {
+    Objects.requireNonNull(provider, "provider");
+    List<Company> companies = provider.companies().listAll();
+    if (companies.isEmpty()) {
+      return empty();
+    }
+    Map<UUID, List<Operator>> operatorsByCompany =
+        groupBy(provider.operators().listAll(), Operator::companyId);
+    Map<UUID, List<Line>> linesByOperator = groupBy(provider.lines().listAll(), Line::operatorId);
+    Map<UUID, List<Route>> routesByLine = groupBy(provider.routes().listAll(), Route::lineId);
+    Map<UUID, List<RouteStop>> stopsByRoute =
+        groupBy(provider.routeStops().listAll(), RouteStop::routeId);
+    for (List<RouteStop> stops : stopsByRoute.values()) {
+      // 首站决定出库点，不依赖仓库实现的返回顺序
+      stops.sort(Comparator.comparingInt(RouteStop::sequence));
+    }
+
+    List<LineEntry> entries = new ArrayList<>();
+    for (Company company : companies) {
+      if (company == null) {
+        continue;
+      }
+      for (Operator operator : operatorsByCompany.getOrDefault(company.id(), List.of())) {
+        for (Line line : linesByOperator.getOrDefault(operator.id(), List.of())) {
+          List<RouteEntry> routes = new ArrayList<>();
+          for (Route route : routesByLine.getOrDefault(line.id(), List.of())) {
+            routes.add(new RouteEntry(route, stopsByRoute.getOrDefault(route.id(), List.of())));
+          }
+          entries.add(new LineEntry(company, operator, line, routes));
+        }
+      }
+    }
+    return new SpawnCatalog(entries);
+  }
+
+  /** 按 Company → Operator → Line 顺序展开的全部线路。 */
+  List<LineEntry> lines() {
+    return lines;
+  }
+
+  int routeCount() {
+    int count = 0;
+    for (LineEntry entry : lines) {
+      count += entry.routes().size();
+    }
+    return count;
+  }
+
+  private static <T> Map<UUID, List<T>> groupBy(List<T> rows, Function<T, UUID> parentId) {
+    Map<UUID, List<T>> grouped = new HashMap<>();
+    if (rows == null) {
+      return grouped;
+    }
+    for (T row : rows) {
+      if (row == null) {
+        continue;
+      }
+      UUID parent = parentId.apply(row);
+      if (parent != null) {
+        grouped.computeIfAbsent(parent, ignored -> new ArrayList<>()).add(row);
+      }
+    }
+    return grouped;
+  }
+
+  /** 一条线路及其所属公司/运营商与全部 route。 */
+  record LineEntry(Company company, Operator operator, Line line, List<RouteEntry> routes) {
+    LineEntry {
+      Objects.requireNonNull(company, "company");
+      Objects.requireNonNull(operator, "operator");
+      Objects.requireNonNull(line, "line");
+      routes = routes == null ? List.of() : List.copyOf(routes);
+    }
+  }
+
+  /** 一条 route 及其按 sequence 排序的停靠表。 */
+  record RouteEntry(Route route, List<RouteStop> stops) {
+    RouteEntry {
+      Objects.requireNonNull(route, "route");
+      stops = stops == null ? List.of() : List.copyOf(stops);
+    }
+  }
+}
@@ -12,8 +12,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import org.fetarute.fetaruteTCAddon.company.model.Company;
 import org.fetarute.fetaruteTCAddon.company.model.Line;
@@ -23,6 +30,8 @@ import org.fetarute.fetaruteTCAddon.company.model.Route;
 import org.fetarute.fetaruteTCAddon.company.model.RouteOperationType;
 import org.fetarute.fetaruteTCAddon.company.model.RouteStop;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.TerminalKeyResolver;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.SpawnCatalog.LineEntry;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn.SpawnCatalog.RouteEntry;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
 
 /**
@@ -53,12 +62,29 @@ import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
  * <p>这意味着它不会修改列车的生命周期标签，也不会触碰 pending layover 或 reclaim 状态。
  *
  * <p>长期运行时会按票据首次 due 时间清理过旧队列项，并同步释放对应 service 的 backlog，避免堵塞 route 在数天后形成幽灵积压。
+ *
+ * <p>计划刷新：TTL 到期时把“批量加载 {@link SpawnCatalog} + 构建 plan/forecast”提交到 {@code
+ * planExecutor}，构建过程不读写任何可变字段；结果经 {@link AtomicReference} 交回，由下一次 {@link #pollDueTickets}
+ * 在调用线程上一次性发布（替换计划、初始相位并清理失效状态）。同一时刻最多一个构建在途；构建失败时沿用上一版计划，等下一个 TTL 再试。
  */
 public final class StorageSpawnManager
     implements SpawnManager, SpawnForecastSupport, SpawnResetSupport {
 
+  private static final Logger LOGGER = Logger.getLogger("FetaruteTCAddon");
+
   private final SpawnManagerSettings settings;
   private final Consumer<String> debugLogger;
+  private final Executor planExecutor;
+
+  /** 已构建完成、等待在 tick 线程发布的计划。 */
+  private final AtomicReference<PlanBuild> pendingBuild = new AtomicReference<>();
+
+  private final AtomicBoolean planBuildInFlight = new AtomicBoolean();
+
+  /** reset 时递增：丢弃 reset 之前提交、之后才完成的构建结果。 */
+  private long planEpoch = 0;
+
+  private volatile PlanBuildStats planBuildStats = PlanBuildStats.empty();
 
   private SpawnPlan plan = SpawnPlan.empty();
   private SpawnPlan forecastPlan = SpawnPlan.empty();
@@ -81,9 +107,19 @@ public final class StorageSpawnManager
   /** 计划生成游标：在多线路/多交路组长期积压时按服务轮转出票，避免固定排序饿死后续服务。 */
   private int generationCursor = 0;
 
+  /** 同步构建计划（计划刷新在 {@link #pollDueTickets} 内完成），用于测试与离线规划。 */
   public StorageSpawnManager(SpawnManagerSettings settings, Consumer<String> debugLogger) {
+    this(settings, debugLogger, Runnable::run);
+  }
+
+  /**
+   * @param planExecutor 计划构建执行器；传入异步执行器时构建结果在其完成后的下一次 {@link #pollDueTickets} 发布
+   */
+  public StorageSpawnManager(
+      SpawnManagerSettings settings, Consumer<String> debugLogger, Executor planExecutor) {
     this.settings = settings == null ? SpawnManagerSettings.defaults() : settings;
     this.debugLogger = debugLogger != null ? debugLogger : message -> {};
+    this.planExecutor = Objects.requireNonNull(planExecutor, "planExecutor");
   }
 
   @Override
@@ -122,6 +158,11 @@ public final class StorageSpawnManager
     return plan;
   }
 
+  /** 返回计划刷新的计时统计（诊断用）。 */
+  public PlanBuildStats planBuildStats() {
+    return planBuildStats;
+  }
+
   @Override
   public List<SpawnTicket> snapshotQueue() {
     if (queue.isEmpty()) {
@@ -149,6 +190,10 @@ public final class StorageSpawnManager
     forecastPlan = SpawnPlan.empty();
     lastPlanRefresh = Instant.EPOCH;
     generationCursor = 0;
+    planEpoch++;
+    if (pendingBuild.getAndSet(null) != null) {
+      planBuildInFlight.set(false);
+    }
     debugLogger.accept(
         "SpawnManager reset: queue=" + queueSize + " states=" + stateSize + " at " + now);
     return new SpawnResetResult(queueSize, stateSize, true);
@@ -205,16 +250,94 @@ public final class StorageSpawnManager
   }
 
   private void refreshPlanIfNeeded(StorageProvider provider, Instant now) {
+    publishPendingPlan();
     Duration ttl = settings.planRefreshInterval();
     if (!ttl.isZero() && !ttl.isNegative() && now.isBefore(lastPlanRefresh.plus(ttl))) {
       return;
     }
-    SpawnPlan refreshed = buildPlan(provider, now);
-    plan = refreshed;
-    forecastPlan = buildForecastPlan(provider, now, refreshed);
+    if (!planBuildInFlight.compareAndSet(false, true)) {
+      return;
+    }
     lastPlanRefresh = now;
+    long epoch = planEpoch;
+    try {
+      planExecutor.execute(() -> pendingBuild.set(buildPlanSnapshot(provider, now, epoch)));
+    } catch (RejectedExecutionException ex) {
+      planBuildInFlight.set(false);
+      debugLogger.accept("SpawnPlan 构建任务被拒绝: " + ex.getMessage());
+      return;
+    }
+    // 同步执行器下构建已完成，本 tick 直接发布
+    publishPendingPlan();
+  }
+
+  /**
+   * 在构建线程上执行：批量加载线网模型并生成 plan/forecast。
+   *
+   * <p>只读取 {@link #settings} 与 {@link #debugLogger}，不触碰任何可变字段。
+   */
+  private PlanBuild buildPlanSnapshot(StorageProvider provider, Instant now, long epoch) {
+    long startedAt = System.nanoTime();
+    long loadNanos = 0L;
+    try {
+      SpawnCatalog catalog = SpawnCatalog.load(provider);
+      long loadedAt = System.nanoTime();
+      loadNanos = loadedAt - startedAt;
+      Map<SpawnServiceKey, Duration> offsets = new HashMap<>();
+      SpawnPlan refreshed = buildPlan(catalog, now, offsets);
+      SpawnPlan forecast = buildForecastPlan(catalog, now, refreshed);
+      return new PlanBuild(
+          epoch,
+          refreshed,
+          forecast,
+          offsets,
+          catalog.routeCount(),
+          loadNanos,
+          System.nanoTime() - loadedAt,
+          null);
+    } catch (Throwable ex) {
+      // 包括 Error：必须产出一个失败结果，否则 tick 线程永远等不到发布，planBuildInFlight 不会复位
+      LOGGER.log(Level.WARNING, "SpawnPlan 构建失败，沿用上一版计划", ex);
+      long buildNanos = System.nanoTime() - startedAt - loadNanos;
+      return new PlanBuild(epoch, null, null, Map.of(), 0, loadNanos, buildNanos, ex);
+    }
+  }
+
+  /** 在 tick 线程上发布已完成的构建结果，并清理已不存在的 service 状态与票据。 */
+  private void publishPendingPlan() {
+    PlanBuild build = pendingBuild.getAndSet(null);
+    if (build == null) {
+      return;
+    }
+    planBuildInFlight.set(false);
+    if (build.epoch() != planEpoch) {
+      planBuildStats = planBuildStats.recordDiscarded();
+      debugLogger.accept("SpawnPlan 丢弃 reset 前提交的构建结果");
+      return;
+    }
+    if (build.failure() != null) {
+      planBuildStats = planBuildStats.recordFailure(build.loadNanos(), build.buildNanos());
+      return;
+    }
+    SpawnPlan refreshed = build.plan();
+    plan = refreshed;
+    forecastPlan = build.forecastPlan();
+    initialOffsets.clear();
+    initialOffsets.putAll(build.initialOffsets());
+    planBuildStats =
+        planBuildStats.recordSuccess(
+            refreshed.size(), build.routes(), build.loadNanos(), build.buildNanos());
+    debugLogger.accept(
+        "SpawnPlan 发布: services="
+            + refreshed.size()
+            + " routes="
+            + build.routes()
+            + " loadMs="
+            + build.loadNanos() / 1_000_000L
+            + " buildMs="
+            + build.buildNanos() / 1_000_000L);
     // 清理已不存在的 service 状态
-    java.util.Set<SpawnServiceKey> live = new java.util.HashSet<>();
+    Set<SpawnServiceKey> live = new HashSet<>();
     for (SpawnService service : refreshed.services()) {
       if (service != null) {
         live.add(service.key());
@@ -434,8 +557,8 @@ public final class StorageSpawnManager
     return out;
   }
 
-  private SpawnPlan buildForecastPlan(StorageProvider provider, Instant now, SpawnPlan basePlan) {
-    if (provider == null) {
+  private SpawnPlan buildForecastPlan(SpawnCatalog catalog, Instant now, SpawnPlan basePlan) {
+    if (catalog == null) {
       return basePlan == null ? SpawnPlan.empty() : basePlan;
     }
     List<SpawnService> services = new ArrayList<>();
@@ -451,7 +574,7 @@ public final class StorageSpawnManager
       }
     }
 
-    List<SpawnService> returnServices = buildReturnServices(provider);
+    List<SpawnService> returnServices = buildReturnServices(catalog);
     for (SpawnService service : returnServices) {
       if (service == null || service.key() == null) {
         continue;
@@ -469,71 +592,55 @@ public final class StorageSpawnManager
     return new SpawnPlan(now, services);
   }
 
-  private List<SpawnService> buildReturnServices(StorageProvider provider) {
+  private List<SpawnService> buildReturnServices(SpawnCatalog catalog) {
     List<SpawnService> services = new ArrayList<>();
-    List<Company> companies = provider.companies().listAll();
-    for (Company company : companies) {
-      if (company == null) {
+    for (LineEntry entry : catalog.lines()) {
+      Line line = entry.line();
+      if (line.status() != LineStatus.ACTIVE) {
         continue;
       }
-      for (Operator operator : provider.operators().listByCompany(company.id())) {
-        if (operator == null) {
-          continue;
-        }
-        for (Line line : provider.lines().listByOperator(operator.id())) {
-          if (line == null) {
-            continue;
-          }
-          if (line.status() != LineStatus.ACTIVE) {
-            continue;
-          }
-          Optional<Duration> lineHeadway = resolveLineBaselineHeadway(line);
-          List<RouteSelection> selections = selectForecastRoutes(provider, line);
-          if (selections.isEmpty()) {
-            continue;
-          }
-          appendCirculationServices(
-              services, company, operator, line, lineHeadway, selections, new HashMap<>());
-        }
+      Optional<Duration> lineHeadway = resolveLineBaselineHeadway(line);
+      List<RouteSelection> selections = selectForecastRoutes(line, entry.routes());
+      if (selections.isEmpty()) {
+        continue;
       }
+      appendCirculationServices(
+          services,
+          entry.company(),
+          entry.operator(),
+          line,
+          lineHeadway,
+          selections,
+          new HashMap<>());
     }
     return services;
   }
 
-  private SpawnPlan buildPlan(StorageProvider provider, Instant now) {
+  private SpawnPlan buildPlan(
+      SpawnCatalog catalog, Instant now, Map<SpawnServiceKey, Duration> computedOffsets) {
     List<SpawnService> services = new ArrayList<>();
-    Map<SpawnServiceKey, Duration> computedOffsets = new HashMap<>();
-    List<Company> companies = provider.companies().listAll();
-    for (Company company : companies) {
-      if (company == null) {
+    for (LineEntry entry : catalog.lines()) {
+      Line line = entry.line();
+      if (line.status() != LineStatus.ACTIVE) {
         continue;
       }
-      for (Operator operator : provider.operators().listByCompany(company.id())) {
-        if (operator == null) {
-          continue;
-        }
-        for (Line line : provider.lines().listByOperator(operator.id())) {
-          if (line == null) {
-            continue;
-          }
-          if (line.status() != LineStatus.ACTIVE) {
-            continue;
-          }
-          Optional<Duration> lineHeadway = resolveLineBaselineHeadway(line);
-          List<RouteSelection> selections = new ArrayList<>(selectSpawnRoutes(provider, line));
-          List<RouteSelection> returnSelections = selectForecastRoutes(provider, line);
-          selections.addAll(returnSelections);
-          appendCirculationServices(
-              services, company, operator, line, lineHeadway, selections, computedOffsets);
-        }
-      }
+      Optional<Duration> lineHeadway = resolveLineBaselineHeadway(line);
+      List<RouteSelection> selections = new ArrayList<>(selectSpawnRoutes(line, entry.routes()));
+      List<RouteSelection> returnSelections = selectForecastRoutes(line, entry.routes());
+      selections.addAll(returnSelections);
+      appendCirculationServices(
+          services,
+          entry.company(),
+          entry.operator(),
+          line,
+          lineHeadway,
+          selections,
+          computedOffsets);
     }
     services.sort(
         Comparator.comparing((SpawnService s) -> s.operatorCode().toLowerCase(Locale.ROOT))
             .thenComparing(s -> s.lineCode().toLowerCase(Locale.ROOT))
             .thenComparing(s -> s.routeCode().toLowerCase(Locale.ROOT)));
-    initialOffsets.clear();
-    initialOffsets.putAll(computedOffsets);
     debugLogger.accept("SpawnPlan 刷新: services=" + services.size() + " at " + now);
     return new SpawnPlan(now, services);
   }
@@ -909,26 +1016,19 @@ public final class StorageSpawnManager
     }
   }
 
-  private List<RouteSelection> selectSpawnRoutes(StorageProvider provider, Line line) {
-    Objects.requireNonNull(provider, "provider");
-    if (line == null) {
-      return List.of();
-    }
-    List<Route> routes = provider.routes().listByLine(line.id());
-    if (routes.isEmpty()) {
+  private List<RouteSelection> selectSpawnRoutes(Line line, List<RouteEntry> routes) {
+    if (line == null || routes == null || routes.isEmpty()) {
       return List.of();
     }
     List<RouteSelection> operationCandidates = new ArrayList<>();
     List<RouteSelection> createCandidates = new ArrayList<>();
-    for (Route route : routes) {
-      if (route == null) {
-        continue;
-      }
+    for (RouteEntry entry : routes) {
+      Route route = entry.route();
       if (route.operationType() != RouteOperationType.OPERATION
           && route.operationType() != RouteOperationType.CREATE) {
         continue;
       }
-      List<RouteStop> stops = provider.routeStops().listByRoute(route.id());
+      List<RouteStop> stops = entry.stops();
       if (stops.isEmpty()) {
         continue;
       }
@@ -1103,21 +1203,17 @@ public final class StorageSpawnManager
             + routes);
   }
 
-  private List<RouteSelection> selectForecastRoutes(StorageProvider provider, Line line) {
-    Objects.requireNonNull(provider, "provider");
-    if (line == null) {
-      return List.of();
-    }
-    List<Route> routes = provider.routes().listByLine(line.id());
-    if (routes.isEmpty()) {
+  private List<RouteSelection> selectForecastRoutes(Line line, List<RouteEntry> routes) {
+    if (line == null || routes == null || routes.isEmpty()) {
       return List.of();
     }
     List<RouteSelection> candidates = new ArrayList<>();
-    for (Route route : routes) {
-      if (route == null || route.operationType() != RouteOperationType.RETURN) {
+    for (RouteEntry entry : routes) {
+      Route route = entry.route();
+      if (route.operationType() != RouteOperationType.RETURN) {
         continue;
       }
-      List<RouteStop> stops = provider.routeStops().listByRoute(route.id());
+      List<RouteStop> stops = entry.stops();
       if (stops.isEmpty()) {
         continue;
       }
@@ -1260,6 +1356,94 @@ public final class StorageSpawnManager
     }
   }
 
+  /** 一次计划构建的结果；{@code failure} 非空时其余计划字段为空。 */
+  private record PlanBuild(
+      long epoch,
+      SpawnPlan plan,
+      SpawnPlan forecastPlan,
+      Map<SpawnServiceKey, Duration> initialOffsets,
+      int routes,
+      long loadNanos,
+      long buildNanos,
+      Throwable failure) {}
+
+  /**
+   * 计划刷新计时统计。
+   *
+   * <p>load 为批量加载 {@link SpawnCatalog} 的耗时，build 为内存中生成 plan/forecast 的耗时；二者均发生在构建线程上。
+   *
+   * @param builds 成功发布次数
+   * @param failures 构建失败次数
+   * @param discarded 因 reset 被丢弃的构建次数
+   * @param lastServices 最近一次发布的服务数
+   * @param lastRoutes 最近一次加载的 route 数
+   * @param lastLoadNanos 最近一次加载耗时
+   * @param lastBuildNanos 最近一次构建耗时
+   * @param maxTotalNanos 单次（加载 + 构建）最大耗时
+   * @param totalNanos 成功构建的累计耗时（用于求平均）
+   */
+  public record PlanBuildStats(
+      long builds,
+      long failures,
+      long discarded,
+      int lastServices,
+      int lastRoutes,
+      long lastLoadNanos,
+      long lastBuildNanos,
+      long maxTotalNanos,
+      long totalNanos) {
+
+    static PlanBuildStats empty() {
+      return new PlanBuildStats(0L, 0L, 0L, 0, 0, 0L, 0L, 0L, 0L);
+    }
+
+    /** 成功构建的平均耗时（加载 + 构建）。 */
+    public long averageTotalNanos() {
+      return builds <= 0L ? 0L : totalNanos / builds;
+    }
+
+    private PlanBuildStats recordSuccess(
+        int services, int routes, long loadNanos, long buildNanos) {
+      long total = loadNanos + buildNanos;
+      return new PlanBuildStats(
+          builds + 1L,
+          failures,
+          discarded,
+          services,
+          routes,
+          loadNanos,
+          buildNanos,
+          Math.max(maxTotalNanos, total),
+          totalNanos + total);
+    }
+
+    private PlanBuildStats recordFailure(long loadNanos, long buildNanos) {
+      return new PlanBuildStats(
+          builds,
+          failures + 1L,
+          discarded,
+          lastServices,
+          lastRoutes,
+          loadNanos,
+          buildNanos,
+          maxTotalNanos,
+          totalNanos);
+    }
+
+    private PlanBuildStats recordDiscarded() {
+      return new PlanBuildStats(
+          builds,
+          failures,
+          discarded + 1L,
+          lastServices,
+          lastRoutes,
+          lastLoadNanos,
+          lastBuildNanos,
+          maxTotalNanos,
+          totalNanos);
+    }
+  }
+
   /** SpawnManager 的内部参数（独立于 config.yml，便于测试/调参）。 */
   public record SpawnManagerSettings(
       Duration planRefreshInterval,
@@ -173,8 +173,7 @@ public final class TrainCartsDepotSpawner implements DepotSpawner {
 
   private static Optional<SignNodeRegistry.SignNodeInfo> findDepotNode(
       SignNodeRegistry registry, NodeId nodeId) {
-    return registry.snapshotInfos().values().stream()
-        .filter(info -> info != null && info.definition() != null)
+    return registry.findAllByNodeId(nodeId.value()).stream()
         .filter(info -> nodeId.equals(info.definition().nodeId()))
         .filter(info -> info.definition().nodeType() == NodeType.DEPOT)
         .findFirst();
@@ -403,6 +402,7 @@ public final class TrainCartsDepotSpawner implements DepotSpawner {
     }
     if (!out.isEmpty()) {
       properties.addTags(out.toArray(new String[0]));
+      TrainTagHelper.invalidate(properties);
     }
   }
 
@@ -479,22 +479,13 @@ public final class TrainCartsDepotSpawner implements DepotSpawner {
       }
     }
 
-    // 构建 nodeId 前缀用于匹配
+    // 构建 nodeId 前缀用于日志
     String nodeIdPrefix = operatorCode + ":" + nodeType + ":" + nodeName + ":";
 
-    // 查找所有匹配的 depot 节点
+    // 按 operator:type:name 前缀索引查找所有匹配的 depot 节点
     List<SignNodeRegistry.SignNodeInfo> candidates =
-        signNodeRegistry.snapshotInfos().values().stream()
-            .filter(info -> info != null && info.definition() != null)
+        signNodeRegistry.findByStationPrefix(operatorCode, nodeType, nodeName).stream()
             .filter(info -> info.definition().nodeType() == NodeType.DEPOT)
-            .filter(
-                info -> {
-                  String nodeIdValue = info.definition().nodeId().value();
-                  return nodeIdValue != null
-                      && nodeIdValue
-                          .toUpperCase(java.util.Locale.ROOT)
-                          .startsWith(nodeIdPrefix.toUpperCase(java.util.Locale.ROOT));
-                })
             .toList();
 
     if (candidates.isEmpty()) {
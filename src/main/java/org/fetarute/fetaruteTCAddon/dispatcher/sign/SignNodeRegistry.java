@@ -1,8 +1,13 @@
 package org.fetarute.fetaruteTCAddon.dispatcher.sign;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -15,11 +20,30 @@ import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 /**
  * 保存牌子注册的节点定义，供调度图构建或 TC 路由同步使用。
  *
- * <p>本注册表以“世界 UUID + 方块坐标”作为唯一键，确保多世界不冲突；同时提供按 {@link NodeId} 查询用于冲突检测与诊断。
+ * <p>本注册表以“世界 UUID + 方块坐标”作为唯一键，确保多世界不冲突；坐标按 {@link #packPosition} 压缩为 long，避免拼接字符串键。
+ *
+ * <p>同时维护三组二级索引，写入/删除时同步更新，查询不再全表扫描：
+ *
+ * <ul>
+ *   <li>NodeId（忽略大小写）→ 节点：冲突检测、depot 定位、站点类型判断
+ *   <li>世界 + 区块 → 节点：区块级清理与诊断
+ *   <li>{@code operator:type:name} 前缀 → 股道/站台节点：DYNAMIC depot/站台解析
+ * </ul>
+ *
+ * <p>写操作在注册表锁内串行执行；读操作不加锁，可能在并发写入时短暂看到主表与索引不一致，调用方需容忍。
  */
 public final class SignNodeRegistry {
 
-  private final ConcurrentMap<String, SignNodeInfo> definitions = new ConcurrentHashMap<>();
+  private static final Comparator<SignNodeInfo> INFO_ORDER =
+      Comparator.comparing(SignNodeInfo::worldName)
+          .thenComparingInt(SignNodeInfo::x)
+          .thenComparingInt(SignNodeInfo::y)
+          .thenComparingInt(SignNodeInfo::z);
+
+  private final ConcurrentMap<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<SignNodeInfo>> byNodeId = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<SignNodeInfo>> byStationPrefix =
+      new ConcurrentHashMap<>();
   private final Consumer<String> debugLogger;
 
   public SignNodeRegistry() {
@@ -59,13 +83,20 @@ public final class SignNodeRegistry {
     Objects.requireNonNull(worldId, "worldId");
     Objects.requireNonNull(definition, "definition");
     String safeWorldName = worldName == null ? "unknown" : worldName;
-    definitions.put(
-        key(worldId, x, y, z), new SignNodeInfo(definition, worldId, safeWorldName, x, y, z));
+    SignNodeInfo info = new SignNodeInfo(definition, worldId, safeWorldName, x, y, z);
+    synchronized (this) {
+      WorldIndex index = worlds.computeIfAbsent(worldId, ignored -> new WorldIndex());
+      SignNodeInfo previous = index.byPosition.put(packPosition(x, y, z), info);
+      if (previous != null) {
+        unindex(index, previous);
+      }
+      index(index, info);
+    }
   }
 
   public Optional<SignNodeDefinition> get(Block block) {
     Objects.requireNonNull(block, "block");
-    return Optional.ofNullable(definitions.get(key(block))).map(SignNodeInfo::definition);
+    return lookup(block).map(SignNodeInfo::definition);
   }
 
   /**
@@ -76,17 +107,84 @@ public final class SignNodeRegistry {
    */
   public Optional<SignNodeInfo> findByNodeId(NodeId nodeId, Block excludeBlock) {
     Objects.requireNonNull(nodeId, "nodeId");
-    String excludeKey = excludeBlock != null ? key(excludeBlock) : null;
-    return definitions.entrySet().stream()
-        .filter(entry -> excludeKey == null || !excludeKey.equals(entry.getKey()))
-        .map(Map.Entry::getValue)
-        .filter(definition -> definition.definition().nodeId().equals(nodeId))
-        .findFirst();
+    Set<SignNodeInfo> bucket = byNodeId.get(nodeIdKey(nodeId.value()));
+    if (bucket == null || bucket.isEmpty()) {
+      return Optional.empty();
+    }
+    BlockKey exclude = excludeBlock != null ? blockKey(excludeBlock) : null;
+    for (SignNodeInfo info : bucket) {
+      if (!info.definition().nodeId().equals(nodeId)) {
+        continue;
+      }
+      if (exclude != null && exclude.matches(info)) {
+        continue;
+      }
+      return Optional.of(info);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * 按 NodeId 文本查找全部注册信息（忽略大小写）。
+   *
+   * <p>同一 NodeId 正常只有一块牌子；冲突未清理时可能返回多条，按世界名与坐标排序保证结果稳定。
+   */
+  public List<SignNodeInfo> findAllByNodeId(String nodeIdValue) {
+    if (nodeIdValue == null || nodeIdValue.isBlank()) {
+      return List.of();
+    }
+    return sorted(byNodeId.get(nodeIdKey(nodeIdValue.trim())));
+  }
+
+  /**
+   * 按 {@code operator:type:name} 前缀查找股道/站台节点（忽略大小写）。
+   *
+   * <p>只包含至少四段的 NodeId（如 {@code OP:D:DEPOT:1}、{@code OP:S:PTK:2}），等价于对 NodeId 做 {@code
+   * startsWith("operator:type:name:")} 匹配；用于 DYNAMIC depot/站台解析。
+   */
+  public List<SignNodeInfo> findByStationPrefix(
+      String operatorCode, String nodeType, String nodeName) {
+    if (operatorCode == null || nodeType == null || nodeName == null) {
+      return List.of();
+    }
+    String key =
+        (operatorCode.trim() + ":" + nodeType.trim() + ":" + nodeName.trim())
+            .toUpperCase(Locale.ROOT);
+    return sorted(byStationPrefix.get(key));
+  }
+
+  /** 返回指定区块内的注册信息（不会触发区块加载）。 */
+  public List<SignNodeInfo> findInChunk(UUID worldId, int chunkX, int chunkZ) {
+    if (worldId == null) {
+      return List.of();
+    }
+    WorldIndex index = worlds.get(worldId);
+    if (index == null) {
+      return List.of();
+    }
+    return sorted(index.byChunk.get(packChunk(chunkX, chunkZ)));
+  }
+
+  /** 返回指定世界的注册信息（不可变 copy）。 */
+  public List<SignNodeInfo> findInWorld(UUID worldId) {
+    if (worldId == null) {
+      return List.of();
+    }
+    WorldIndex index = worlds.get(worldId);
+    return index == null ? List.of() : List.copyOf(index.byPosition.values());
   }
 
   public Optional<SignNodeDefinition> remove(Block block) {
     Objects.requireNonNull(block, "block");
-    SignNodeInfo removed = definitions.remove(key(block));
+    BlockKey key = blockKey(block);
+    SignNodeInfo removed;
+    synchronized (this) {
+      WorldIndex index = worlds.get(key.worldId());
+      removed = index != null ? index.byPosition.remove(key.position()) : null;
+      if (removed != null) {
+        unindex(index, removed);
+      }
+    }
     if (removed != null) {
       debugLogger.accept(
           "移除节点注册 " + removed.definition().nodeId().value() + " @ " + formatLocation(block));
@@ -102,8 +200,8 @@ public final class SignNodeRegistry {
   public Map<String, SignNodeDefinition> snapshot() {
     // 返回快照以保护内部可变状态
     Map<String, SignNodeDefinition> snapshot = new java.util.HashMap<>();
-    for (Map.Entry<String, SignNodeInfo> entry : definitions.entrySet()) {
-      snapshot.put(entry.getKey(), entry.getValue().definition());
+    for (SignNodeInfo info : infos()) {
+      snapshot.put(legacyKey(info), info.definition());
     }
     return Map.copyOf(snapshot);
   }
@@ -111,41 +209,157 @@ public final class SignNodeRegistry {
   /**
    * 返回包含坐标信息的注册表快照。
    *
-   * <p>用于图构建与诊断输出；调用方不得依赖返回值的可变性。
+   * <p>键沿用 {@code worldUuid:x:y:z} 文本格式；只需要遍历时请使用 {@link #infos()}，避免逐条拼接键。
    */
   public Map<String, SignNodeInfo> snapshotInfos() {
-    return Map.copyOf(definitions);
+    Map<String, SignNodeInfo> snapshot = new java.util.HashMap<>();
+    for (SignNodeInfo info : infos()) {
+      snapshot.put(legacyKey(info), info);
+    }
+    return Map.copyOf(snapshot);
+  }
+
+  /** 返回全部注册信息（不可变 copy）。 */
+  public List<SignNodeInfo> infos() {
+    List<SignNodeInfo> all = new ArrayList<>();
+    for (WorldIndex index : worlds.values()) {
+      all.addAll(index.byPosition.values());
+    }
+    return List.copyOf(all);
+  }
+
+  /** 当前注册的牌子数量。 */
+  public int size() {
+    int size = 0;
+    for (WorldIndex index : worlds.values()) {
+      size += index.byPosition.size();
+    }
+    return size;
   }
 
   public void clear() {
-    definitions.clear();
+    synchronized (this) {
+      worlds.clear();
+      byNodeId.clear();
+      byStationPrefix.clear();
+    }
   }
 
   /** 删除指定世界的所有注册项（不会触发区块加载）。 */
   public void removeWorld(UUID worldId) {
     Objects.requireNonNull(worldId, "worldId");
-    definitions
-        .entrySet()
-        .removeIf(entry -> entry != null && worldId.equals(entry.getValue().worldId()));
+    synchronized (this) {
+      WorldIndex index = worlds.remove(worldId);
+      if (index == null) {
+        return;
+      }
+      for (SignNodeInfo info : index.byPosition.values()) {
+        removeFromGlobalIndexes(info);
+      }
+    }
   }
 
   /**
-   * 将方块位置编码为稳定键。
+   * 将方块坐标压缩为 long：x/z 各 26 位、y 12 位（与原版 BlockPos 编码一致，覆盖 ±33554431 与 -2048..2047）。
    *
-   * <p>必须使用 block 坐标的离散值，避免浮点位置引入误差；同时使用世界 UUID 而不是 world name，避免改名造成冲突。
+   * <p>必须使用 block 坐标的离散值，避免浮点位置引入误差。
    */
-  private String key(Block block) {
+  static long packPosition(int x, int y, int z) {
+    return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFFL);
+  }
+
+  /** 将区块坐标压缩为 long。 */
+  static long packChunk(int chunkX, int chunkZ) {
+    return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+  }
+
+  private Optional<SignNodeInfo> lookup(Block block) {
+    BlockKey key = blockKey(block);
+    WorldIndex index = worlds.get(key.worldId());
+    return index == null
+        ? Optional.empty()
+        : Optional.ofNullable(index.byPosition.get(key.position()));
+  }
+
+  private void index(WorldIndex index, SignNodeInfo info) {
+    long chunkKey = packChunk(info.x() >> 4, info.z() >> 4);
+    index.byChunk.computeIfAbsent(chunkKey, ignored -> newBucket()).add(info);
+    String nodeIdValue = info.definition().nodeId().value();
+    byNodeId.computeIfAbsent(nodeIdKey(nodeIdValue), ignored -> newBucket()).add(info);
+    String prefix = stationPrefixKey(nodeIdValue);
+    if (prefix != null) {
+      byStationPrefix.computeIfAbsent(prefix, ignored -> newBucket()).add(info);
+    }
+  }
+
+  private void unindex(WorldIndex index, SignNodeInfo info) {
+    removeFromBucket(index.byChunk, packChunk(info.x() >> 4, info.z() >> 4), info);
+    removeFromGlobalIndexes(info);
+  }
+
+  private void removeFromGlobalIndexes(SignNodeInfo info) {
+    String nodeIdValue = info.definition().nodeId().value();
+    removeFromBucket(byNodeId, nodeIdKey(nodeIdValue), info);
+    String prefix = stationPrefixKey(nodeIdValue);
+    if (prefix != null) {
+      removeFromBucket(byStationPrefix, prefix, info);
+    }
+  }
+
+  private static <K> void removeFromBucket(
+      ConcurrentMap<K, Set<SignNodeInfo>> buckets, K key, SignNodeInfo info) {
+    Set<SignNodeInfo> bucket = buckets.get(key);
+    if (bucket == null) {
+      return;
+    }
+    bucket.remove(info);
+    if (bucket.isEmpty()) {
+      buckets.remove(key, bucket);
+    }
+  }
+
+  private static Set<SignNodeInfo> newBucket() {
+    return ConcurrentHashMap.newKeySet();
+  }
+
+  private static List<SignNodeInfo> sorted(Set<SignNodeInfo> bucket) {
+    if (bucket == null || bucket.isEmpty()) {
+      return List.of();
+    }
+    List<SignNodeInfo> list = new ArrayList<>(bucket);
+    list.sort(INFO_ORDER);
+    return List.copyOf(list);
+  }
+
+  private static String nodeIdKey(String nodeIdValue) {
+    return nodeIdValue.toLowerCase(Locale.ROOT);
+  }
+
+  /** 取 NodeId 的前三段作为站点前缀；不足四段（没有股道/站台号）时不建索引。 */
+  private static String stationPrefixKey(String nodeIdValue) {
+    String[] parts = nodeIdValue.split(":", 4);
+    if (parts.length < 4) {
+      return null;
+    }
+    return (parts[0] + ":" + parts[1] + ":" + parts[2]).toUpperCase(Locale.ROOT);
+  }
+
+  /** 兼容旧快照的文本键（世界 UUID + 方块坐标）。 */
+  private static String legacyKey(SignNodeInfo info) {
+    return info.worldId() + ":" + info.x() + ":" + info.y() + ":" + info.z();
+  }
+
+  /** 解析方块所在的世界与压缩坐标；使用世界 UUID 而不是 world name，避免改名造成冲突。 */
+  private static BlockKey blockKey(Block block) {
     Location location = block.getLocation();
     World world = location.getWorld();
     if (world == null) {
       throw new IllegalArgumentException("牌子所在方块缺少世界信息");
     }
-    return key(world.getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
-  }
-
-  private String key(UUID worldId, int x, int y, int z) {
-    // 直接使用 block 坐标的离散键，不参与浮点运算
-    return worldId + ":" + x + ":" + y + ":" + z;
+    int x = location.getBlockX();
+    int y = location.getBlockY();
+    int z = location.getBlockZ();
+    return new BlockKey(world.getUID(), packPosition(x, y, z));
   }
 
   /** 生成用于日志/提示的可读位置字符串（world + x,y,z）。 */
@@ -175,4 +389,17 @@ public final class SignNodeRegistry {
       return worldName + " (" + x + "," + y + "," + z + ")";
     }
   }
+
+  /** 单个世界的主表（压缩坐标 → 节点）与区块索引。 */
+  private static final class WorldIndex {
+    private final ConcurrentMap<Long, SignNodeInfo> byPosition = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<SignNodeInfo>> byChunk = new ConcurrentHashMap<>();
+  }
+
+  private record BlockKey(UUID worldId, long position) {
+    private boolean matches(SignNodeInfo info) {
+      return worldId.equals(info.worldId())
+          && position == packPosition(info.x(), info.y(), info.z());
+    }
+  }
 }
@@ -35,6 +35,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointKind;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointMetadata;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.DynamicStopMatcher;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RouteProgressRegistry;
+import org.fetarute.fetaruteTCAddon.dispatcher.runtime.TrainTagHelper;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.NodeSignDefinitionParser;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeDefinition;
 import org.fetarute.fetaruteTCAddon.dispatcher.sign.SignNodeRegistry;
@@ -174,7 +175,10 @@ public final class AutoStationSignAction extends AbstractNodeSignAction {
     }
     UUID routeId = routeIdOpt.get();
     Optional<Integer> routeIndexOpt =
-        readIntTagValue(properties, RouteProgressRegistry.TAG_ROUTE_INDEX);
+        plugin
+            .getRuntimeDispatchService()
+            .map(service -> service.readRouteIndex(properties))
+            .orElseGet(() -> readIntTagValue(properties, RouteProgressRegistry.TAG_ROUTE_INDEX));
     Optional<SignNodeDefinition> definitionOpt =
         registry.get(info.getBlock()).or(() -> parseDefinition(info));
     if (definitionOpt.isEmpty()) {
@@ -956,33 +960,15 @@ public final class AutoStationSignAction extends AbstractNodeSignAction {
    * <p>格式为 {@code FTA_ROUTE_ID=<uuid>}，否则返回空。
    */
   private static Optional<UUID> readRouteId(TrainProperties properties) {
-    if (properties == null || !properties.hasTags()) {
+    Optional<String> valueOpt = readTagValue(properties, TAG_ROUTE_ID);
+    if (valueOpt.isEmpty()) {
       return Optional.empty();
     }
-    for (String tag : properties.getTags()) {
-      if (tag == null) {
-        continue;
-      }
-      String trimmed = tag.trim();
-      if (trimmed.isEmpty()) {
-        continue;
-      }
-      int idx = trimmed.indexOf('=');
-      if (idx <= 0) {
-        continue;
-      }
-      String key = trimmed.substring(0, idx).trim();
-      if (!TAG_ROUTE_ID.equalsIgnoreCase(key)) {
-        continue;
-      }
-      String value = trimmed.substring(idx + 1).trim();
-      try {
-        return Optional.of(UUID.fromString(value));
-      } catch (IllegalArgumentException ex) {
-        return Optional.empty();
-      }
+    try {
+      return Optional.of(UUID.fromString(valueOpt.get()));
+    } catch (IllegalArgumentException ex) {
+      return Optional.empty();
     }
-    return Optional.empty();
   }
 
   private static boolean isFirstStop(TrainProperties properties) {
@@ -997,6 +983,7 @@ public final class AutoStationSignAction extends AbstractNodeSignAction {
       return;
     }
     properties.addTags(TAG_DOOR_FIRST_STOP_DONE + "=1");
+    TrainTagHelper.invalidate(properties);
   }
 
   private static boolean hasTagKey(TrainProperties properties, String key) {
@@ -1035,31 +1022,7 @@ public final class AutoStationSignAction extends AbstractNodeSignAction {
   }
 
   private static Optional<String> readTagValue(TrainProperties properties, String key) {
-    if (properties == null || key == null || key.isBlank() || !properties.hasTags()) {
-      return Optional.empty();
-    }
-    for (String tag : properties.getTags()) {
-      if (tag == null) {
-        continue;
-      }
-      String trimmed = tag.trim();
-      if (trimmed.isEmpty()) {
-        continue;
-      }
-      int idx = trimmed.indexOf('=');
-      if (idx <= 0) {
-        continue;
-      }
-      String current = trimmed.substring(0, idx).trim();
-      if (!key.equalsIgnoreCase(current)) {
-        continue;
-      }
-      String value = trimmed.substring(idx + 1).trim();
-      if (!value.isEmpty()) {
-        return Optional.of(value);
-      }
-    }
-    return Optional.empty();
+    return TrainTagHelper.readTagValue(properties, key);
   }
 
   private static Optional<Integer> readIntTagValue(TrainProperties properties, String key) {
@@ -0,0 +1,320 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.signal;
+
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
+
+/**
+ * 调度决策飞行记录器：为每列车保留最近 N 条结构化信号决策。
+ *
+ * <p>写入路径只做原始字段的数组写入（无字符串拼接、无锁），与 debug 开关无关，始终开启；格式化只发生在 {@link #snapshot} 与
+ * {@link Entry#format()} 读取时。用于 {@code /fta train trace} 诊断与健康告警时落盘。
+ *
+ * <p>并发：每列车一个环形缓冲，写入方通过 {@link AtomicLong} 领取序号后写槽位，最后发布槽位序号；读取方在读前后比对序号，
+ * 被覆盖或正在写入的槽位直接丢弃。
+ */
+public final class DispatchFlightRecorder {
+
+  /** 默认每列车保留的决策条数。 */
+  public static final int DEFAULT_CAPACITY = 64;
+
+  /** 默认最多保留记录的列车数；超出时淘汰最久未写入的列车。 */
+  public static final int DEFAULT_MAX_TRAINS = 512;
+
+  /** 距离缺省值（对应 {@code OptionalLong.empty()}）。 */
+  public static final long NO_DISTANCE = -1L;
+
+  private static final SignalComputationTrace.Source[] SOURCES =
+      SignalComputationTrace.Source.values();
+  private static final SignalAspect[] ASPECTS = SignalAspect.values();
+
+  private final int capacity;
+  private final int maxTrains;
+  private final ConcurrentMap<String, Ring> rings = new ConcurrentHashMap<>();
+
+  public DispatchFlightRecorder() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_TRAINS);
+  }
+
+  /**
+   * @param capacity 每列车容量（向上取整为 2 的幂，至少 8）
+   * @param maxTrains 最多保留记录的列车数（至少 1）
+   */
+  public DispatchFlightRecorder(int capacity, int maxTrains) {
+    int size = 8;
+    while (size < capacity && size < (1 << 16)) {
+      size <<= 1;
+    }
+    this.capacity = size;
+    this.maxTrains = Math.max(1, maxTrains);
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * 记录一条决策。
+   *
+   * @param trainKey 规范化列车名（{@code TrainNameNormalizer.normalizeKey}）
+   * @param reason 主要原因；调用方通常传入常量或已有字符串，这里只保存引用
+   * @param decisionAllowed 占用判定结果：1=允许，0=拒绝，-1=未判定
+   */
+  public void record(
+      String trainKey,
+      long tick,
+      SignalComputationTrace.Source source,
+      SignalAspect previousAspect,
+      SignalAspect newAspect,
+      String reason,
+      NodeId currentNode,
+      NodeId nextNode,
+      int blockerCount,
+      int decisionAllowed,
+      long distanceToBlocker,
+      long distanceToAuthorityEnd) {
+    if (trainKey == null || trainKey.isBlank()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    Ring ring = rings.get(trainKey);
+    if (ring == null) {
+      ring = rings.computeIfAbsent(trainKey, key -> new Ring(capacity));
+      evictIfNeeded(trainKey);
+    }
+    ring.write(
+        now,
+        tick,
+        source == null ? -1 : source.ordinal(),
+        previousAspect == null ? -1 : previousAspect.ordinal(),
+        newAspect == null ? -1 : newAspect.ordinal(),
+        reason,
+        currentNode,
+        nextNode,
+        blockerCount,
+        decisionAllowed,
+        distanceToBlocker,
+        distanceToAuthorityEnd);
+  }
+
+  /** 新列车加入后若超出上限，淘汰最久未写入的列车（只在新建环形缓冲时扫描）。 */
+  private void evictIfNeeded(String keep) {
+    while (rings.size() > maxTrains) {
+      String oldestKey = null;
+      long oldestAt = Long.MAX_VALUE;
+      for (var entry : rings.entrySet()) {
+        long at = entry.getValue().lastWriteMillis;
+        if (!entry.getKey().equals(keep) && at < oldestAt) {
+          oldestAt = at;
+          oldestKey = entry.getKey();
+        }
+      }
+      if (oldestKey == null) {
+        return;
+      }
+      rings.remove(oldestKey);
+    }
+  }
+
+  /** 返回某列车最近的决策（按时间从旧到新）。 */
+  public List<Entry> snapshot(String trainKey) {
+    if (trainKey == null) {
+      return List.of();
+    }
+    Ring ring = rings.get(trainKey);
+    return ring == null ? List.of() : ring.snapshot();
+  }
+
+  /** 已有记录的列车（规范化名）。 */
+  public Set<String> trainKeys() {
+    return Collections.unmodifiableSet(rings.keySet());
+  }
+
+  /** 列车卸载后丢弃其记录。 */
+  public void forget(String trainKey) {
+    if (trainKey != null) {
+      rings.remove(trainKey);
+    }
+  }
+
+  public void clear() {
+    rings.clear();
+  }
+
+  /** 把某列车的记录格式化为多行文本（用于落盘）。 */
+  public List<String> formatLines(String trainKey) {
+    List<Entry> entries = snapshot(trainKey);
+    List<String> lines = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      lines.add(entry.format());
+    }
+    return lines;
+  }
+
+  /** 一条已读出的决策记录。 */
+  public record Entry(
+      long sequence,
+      long epochMillis,
+      long tick,
+      SignalComputationTrace.Source source,
+      SignalAspect previousAspect,
+      SignalAspect newAspect,
+      String reason,
+      NodeId currentNode,
+      NodeId nextNode,
+      int blockerCount,
+      int decisionAllowed,
+      long distanceToBlocker,
+      long distanceToAuthorityEnd) {
+
+    /** 单行格式：{@code #seq time tick source prev->new reason cur->next blockers allowed dist}。 */
+    public String format() {
+      return "#"
+          + sequence
+          + " "
+          + Instant.ofEpochMilli(epochMillis)
+          + " tick="
+          + tick
+          + " source="
+          + (source == null ? "-" : source.name())
+          + " aspect="
+          + (previousAspect == null ? "null" : previousAspect.name())
+          + "->"
+          + (newAspect == null ? "null" : newAspect.name())
+          + " reason="
+          + (reason == null || reason.isBlank() ? "-" : reason)
+          + " node="
+          + (currentNode == null ? "-" : currentNode.value())
+          + "->"
+          + (nextNode == null ? "-" : nextNode.value())
+          + " blockers="
+          + blockerCount
+          + " allowed="
+          + (decisionAllowed < 0 ? "-" : decisionAllowed > 0 ? "true" : "false")
+          + " distBlocker="
+          + formatDistance(distanceToBlocker)
+          + " distAuthorityEnd="
+          + formatDistance(distanceToAuthorityEnd);
+    }
+
+    private static String formatDistance(long value) {
+      return value < 0 ? "-" : String.valueOf(value);
+    }
+  }
+
+  /** 单列车环形缓冲：字段按列存储，槽位序号为 0 表示未写入。 */
+  private static final class Ring {
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLongArray published;
+    private final long[] epochMillis;
+    private final long[] ticks;
+    private final byte[] sources;
+    private final byte[] previousAspects;
+    private final byte[] newAspects;
+    private final String[] reasons;
+    private final NodeId[] currentNodes;
+    private final NodeId[] nextNodes;
+    private final int[] blockerCounts;
+    private final byte[] decisionAllowed;
+    private final long[] distanceToBlocker;
+    private final long[] distanceToAuthorityEnd;
+    private volatile long lastWriteMillis = System.currentTimeMillis();
+
+    private Ring(int capacity) {
+      this.mask = capacity - 1;
+      this.published = new AtomicLongArray(capacity);
+      this.epochMillis = new long[capacity];
+      this.ticks = new long[capacity];
+      this.sources = new byte[capacity];
+      this.previousAspects = new byte[capacity];
+      this.newAspects = new byte[capacity];
+      this.reasons = new String[capacity];
+      this.currentNodes = new NodeId[capacity];
+      this.nextNodes = new NodeId[capacity];
+      this.blockerCounts = new int[capacity];
+      this.decisionAllowed = new byte[capacity];
+      this.distanceToBlocker = new long[capacity];
+      this.distanceToAuthorityEnd = new long[capacity];
+    }
+
+    private void write(
+        long millis,
+        long tick,
+        int source,
+        int previousAspect,
+        int newAspect,
+        String reason,
+        NodeId currentNode,
+        NodeId nextNode,
+        int blockers,
+        int allowed,
+        long blockerDistance,
+        long authorityEndDistance) {
+      long sequence = cursor.incrementAndGet();
+      int slot = (int) (sequence & mask);
+      // 先作废槽位，读取方看到 0 或序号变化即丢弃
+      published.set(slot, 0L);
+      VarHandle.storeStoreFence();
+      epochMillis[slot] = millis;
+      ticks[slot] = tick;
+      sources[slot] = (byte) source;
+      previousAspects[slot] = (byte) previousAspect;
+      newAspects[slot] = (byte) newAspect;
+      reasons[slot] = reason;
+      currentNodes[slot] = currentNode;
+      nextNodes[slot] = nextNode;
+      blockerCounts[slot] = blockers;
+      decisionAllowed[slot] = (byte) allowed;
+      distanceToBlocker[slot] = blockerDistance;
+      distanceToAuthorityEnd[slot] = authorityEndDistance;
+      published.set(slot, sequence);
+      lastWriteMillis = millis;
+    }
+
+    private List<Entry> snapshot() {
+      long end = cursor.get();
+      long start = Math.max(1L, end - mask);
+      List<Entry> entries = new ArrayList<>((int) Math.max(0L, end - start + 1));
+      for (long sequence = start; sequence <= end; sequence++) {
+        int slot = (int) (sequence & mask);
+        if (published.get(slot) != sequence) {
+          continue;
+        }
+        Entry entry =
+            new Entry(
+                sequence,
+                epochMillis[slot],
+                ticks[slot],
+                enumAt(SOURCES, sources[slot]),
+                enumAt(ASPECTS, previousAspects[slot]),
+                enumAt(ASPECTS, newAspects[slot]),
+                reasons[slot],
+                currentNodes[slot],
+                nextNodes[slot],
+                blockerCounts[slot],
+                decisionAllowed[slot],
+                distanceToBlocker[slot],
+                distanceToAuthorityEnd[slot]);
+        VarHandle.loadLoadFence();
+        if (published.get(slot) == sequence) {
+          entries.add(entry);
+        }
+      }
+      return entries;
+    }
+
+    private static <E> E enumAt(E[] values, int ordinal) {
+      return ordinal < 0 || ordinal >= values.length ? null : values[ordinal];
+    }
+  }
+}
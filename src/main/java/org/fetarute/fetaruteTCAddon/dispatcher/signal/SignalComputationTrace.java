@@ -8,6 +8,7 @@ import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.BlockerClassifier;
@@ -26,6 +27,9 @@ import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.TrainNameNorma
  * 信号计算诊断跟踪器。
  *
  * <p>该类只输出诊断日志，不参与信号判定。输出条件刻意收窄到红/黄、短窗口翻转、无 blocker 红/黄等异常边界，避免每 tick 刷屏。
+ *
+ * <p>debug 关闭时 builder 不再收集字符串字段（{@link Builder#detailed()} 为 false），只保留原始类型的关键字段并写入
+ * {@link DispatchFlightRecorder}，因此热路径上不产生字符串拼接。
  */
 public final class SignalComputationTrace {
 
@@ -33,6 +37,8 @@ public final class SignalComputationTrace {
   private static final long FLIP_WINDOW_TICKS = 2L;
   private static final ConcurrentMap<String, LastSignal> LAST_SIGNALS = new ConcurrentHashMap<>();
   private static volatile Consumer<String> globalLogger = message -> {};
+  private static final Sink GLOBAL_SINK =
+      new Sink(message -> globalLogger.accept(message), () -> true, null);
 
   private SignalComputationTrace() {}
 
@@ -57,15 +63,46 @@ public final class SignalComputationTrace {
     INVALID
   }
 
-  /** 设置全局诊断 logger，供没有实例 logger 的占用层使用。 */
+  /**
+   * trace 输出目标：logger、debug 开关与飞行记录器由构建 trace 的实例持有并注入，不写入全局静态状态。
+   *
+   * @param enabled debug 开关来源；关闭时 builder 只收集飞行记录器字段，为 null 时视为始终开启
+   * @param recorder 飞行记录器，为 null 时不记录
+   */
+  public record Sink(
+      Consumer<String> logger, BooleanSupplier enabled, DispatchFlightRecorder recorder) {
+
+    public Sink {
+      logger = logger != null ? logger : message -> {};
+      enabled = enabled != null ? enabled : () -> true;
+    }
+
+    /** 创建一条输出到该目标的 trace。 */
+    public Builder builder(
+        String trainName, String rawTrainName, Source source, SignalAspect newAspect) {
+      return new Builder(this, trainName, rawTrainName, source, newAspect);
+    }
+
+    /** 输出一条已收集的 trace。 */
+    public void emit(Builder builder) {
+      SignalComputationTrace.emit(builder, logger);
+    }
+  }
+
+  /** 设置全局诊断 logger，供没有注入 {@link Sink} 的调用方使用。 */
   public static void configureLogger(Consumer<String> logger) {
     globalLogger = logger != null ? logger : message -> {};
   }
 
-  /** 创建一条 trace。 */
+  /** 全局 logger 对应的输出目标：始终收集完整字段，不写飞行记录器。 */
+  public static Sink defaultSink() {
+    return GLOBAL_SINK;
+  }
+
+  /** 创建一条输出到全局 logger 的 trace。 */
   public static Builder builder(
       String trainName, String rawTrainName, Source source, SignalAspect newAspect) {
-    return new Builder(trainName, rawTrainName, source, newAspect);
+    return GLOBAL_SINK.builder(trainName, rawTrainName, source, newAspect);
   }
 
   /** 输出一条已收集的 trace。 */
@@ -76,28 +113,41 @@ public final class SignalComputationTrace {
     builder.emit(logger);
   }
 
-  /** 用全局 logger 输出。 */
+  /** 用 builder 所属 {@link Sink} 的 logger 输出。 */
   public static void emit(Builder builder) {
-    emit(builder, globalLogger);
+    emit(builder, null);
   }
 
   /** trace builder。 */
   public static final class Builder {
     private final LinkedHashMap<String, String> fields = new LinkedHashMap<>();
     private final List<String> blockers = new ArrayList<>();
+    private final Sink sink;
     private final String canonicalName;
     private final SignalAspect newAspect;
     private final Source source;
     private final long tick;
+    private final boolean detailed;
     private SignalAspect previousAspect;
     private boolean hasBlockers;
     private boolean hasDistanceOnlyConstraint;
-
-    private Builder(String trainName, String rawTrainName, Source source, SignalAspect newAspect) {
+    // 飞行记录器字段：无论 debug 是否开启都保留
+    private String reason;
+    private NodeId currentNode;
+    private NodeId nextNode;
+    private int blockerCount;
+    private int decisionAllowed = -1;
+    private long distanceToBlocker = DispatchFlightRecorder.NO_DISTANCE;
+    private long distanceToAuthorityEnd = DispatchFlightRecorder.NO_DISTANCE;
+
+    private Builder(
+        Sink sink, String trainName, String rawTrainName, Source source, SignalAspect newAspect) {
+      this.sink = sink;
       this.canonicalName = TrainNameNormalizer.normalizeKey(trainName);
       this.newAspect = newAspect == null ? SignalAspect.STOP : newAspect;
       this.source = source == null ? Source.PERIODIC_TICK : source;
       this.tick = currentTick();
+      this.detailed = sink.enabled().getAsBoolean();
       field("trainName", trainName);
       field("canonicalName", canonicalName);
       field("rawTrainName", rawTrainName);
@@ -106,6 +156,11 @@ public final class SignalComputationTrace {
       field("newAspect", this.newAspect.name());
     }
 
+    /** 是否收集完整字段；为 false 时调用方可跳过昂贵的附加字段计算。 */
+    public boolean detailed() {
+      return detailed;
+    }
+
     public Builder previousAspect(SignalAspect aspect) {
       previousAspect = aspect;
       field("previousAspect", aspect == null ? "null" : aspect.name());
@@ -113,12 +168,13 @@ public final class SignalComputationTrace {
     }
 
     public Builder primaryReason(String reason) {
+      this.reason = reason;
       field("primaryReason", reason);
       return this;
     }
 
     public Builder field(String key, Object value) {
-      if (key == null || key.isBlank()) {
+      if (!detailed || key == null || key.isBlank()) {
         return this;
       }
       fields.put(key, value == null ? "-" : String.valueOf(value));
@@ -126,6 +182,8 @@ public final class SignalComputationTrace {
     }
 
     public Builder nodes(NodeId currentNode, NodeId nextNode) {
+      this.currentNode = currentNode;
+      this.nextNode = nextNode;
       field("currentNode", currentNode == null ? "-" : currentNode.value());
       field("nextNode", nextNode == null ? "-" : nextNode.value());
       return this;
@@ -137,6 +195,9 @@ public final class SignalComputationTrace {
         int routeIndexAfter,
         Optional<NodeId> lastPassedBefore,
         Optional<NodeId> lastPassedAfter) {
+      if (!detailed) {
+        return this;
+      }
       field("progressVersion", progressVersion);
       field("routeIndexBefore", routeIndexBefore);
       field("routeIndexAfter", routeIndexAfter);
@@ -146,6 +207,9 @@ public final class SignalComputationTrace {
     }
 
     public Builder request(OccupancyRequest request) {
+      if (!detailed) {
+        return this;
+      }
       if (request == null) {
         field("requestPurpose", "-");
         field("requestResourceCount", 0);
@@ -193,7 +257,7 @@ public final class SignalComputationTrace {
     }
 
     public Builder directedContext(DirectedTraversalContext context) {
-      if (context == null) {
+      if (!detailed || context == null) {
         return this;
       }
       field("requestId", context.requestId());
@@ -221,13 +285,18 @@ public final class SignalComputationTrace {
         field("blockerCount", 0);
         return this;
       }
+      decisionAllowed = decision.allowed() ? 1 : 0;
+      blockerCount = decision.blockers().size();
+      hasBlockers = blockerCount > 0;
+      if (!detailed) {
+        return this;
+      }
       field("decisionAllowed", decision.allowed());
       field("decisionReason", decision.reason());
       field("decisionSignal", decision.signal());
       field("blockerCount", decision.blockers().size());
       field("canEnterConflictRelease", decision.conflictRelease());
       field("canEnterReleaseLeader", decision.conflictRelease());
-      hasBlockers = !decision.blockers().isEmpty();
       for (OccupancyClaim claim : decision.blockers()) {
         if (claim == null || claim.resource() == null) {
           continue;
@@ -265,6 +334,11 @@ public final class SignalComputationTrace {
         OptionalLong distanceToAuthorityEnd,
         String authorityEndResource,
         int authorizedEdgeCount) {
+      this.distanceToBlocker = recordedDistance(distanceToBlocker);
+      this.distanceToAuthorityEnd = recordedDistance(distanceToAuthorityEnd);
+      if (!detailed) {
+        return this;
+      }
       field("distanceToBlocker", formatLong(distanceToBlocker));
       field("distanceToCaution", formatLong(distanceToCaution));
       field("distanceToApproach", formatLong(distanceToApproach));
@@ -285,6 +359,9 @@ public final class SignalComputationTrace {
         Long tokenClaimVersion,
         boolean destinationPresent,
         String destination) {
+      if (!detailed) {
+        return this;
+      }
       field("movementInhibited", movementInhibited);
       field("movementTokenState", tokenState == null ? TokenState.NONE : tokenState);
       field("tokenClaimVersion", tokenClaimVersion == null ? "-" : tokenClaimVersion);
@@ -294,7 +371,26 @@ public final class SignalComputationTrace {
     }
 
     public Builder emit(Consumer<String> logger) {
-      Consumer<String> out = logger != null ? logger : globalLogger;
+      DispatchFlightRecorder recorder = sink.recorder();
+      if (recorder != null) {
+        recorder.record(
+            canonicalName,
+            tick,
+            source,
+            previousAspect,
+            newAspect,
+            reason,
+            currentNode,
+            nextNode,
+            blockerCount,
+            decisionAllowed,
+            distanceToBlocker,
+            distanceToAuthorityEnd);
+      }
+      if (!detailed) {
+        return this;
+      }
+      Consumer<String> out = logger != null ? logger : sink.logger();
       LastSignal previous =
           canonicalName == null || canonicalName.isBlank() ? null : LAST_SIGNALS.get(canonicalName);
       SignalAspect effectivePrevious =
@@ -339,6 +435,10 @@ public final class SignalComputationTrace {
     return value != null && value.isPresent();
   }
 
+  private static long recordedDistance(OptionalLong value) {
+    return present(value) ? value.getAsLong() : DispatchFlightRecorder.NO_DISTANCE;
+  }
+
   private static String formatLong(OptionalLong value) {
     return present(value) ? String.valueOf(value.getAsLong()) : "-";
   }
@@ -1,6 +1,7 @@
 package org.fetarute.fetaruteTCAddon.display;
 
 import java.util.Objects;
+import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitTask;
 import org.fetarute.fetaruteTCAddon.FetaruteTCAddon;
 import org.fetarute.fetaruteTCAddon.config.ConfigManager;
@@ -8,6 +9,8 @@ import org.fetarute.fetaruteTCAddon.dispatcher.eta.EtaService;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinitionCache;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.LayoverRegistry;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RouteProgressRegistry;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContextResolver;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudFrameSource;
 import org.fetarute.fetaruteTCAddon.display.hud.actionbar.ActionBarTrainHudManager;
 import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarTrainHudManager;
 import org.fetarute.fetaruteTCAddon.display.hud.scoreboard.ScoreboardTrainHudManager;
@@ -15,9 +18,10 @@ import org.fetarute.fetaruteTCAddon.display.template.HudDefaultTemplateService;
 import org.fetarute.fetaruteTCAddon.display.template.HudTemplateService;
 
 /**
- * 展示层实现：目前包含车上 BossBar 与 ActionBar HUD。
+ * 展示层实现：目前包含车上 BossBar、ActionBar 与 Scoreboard HUD。
  *
- * <p>根据配置分别启动定时任务，互不影响，可独立启停。
+ * <p>根据配置分别启动定时任务，互不影响，可独立启停。三种 HUD 共用一个 {@link TrainHudFrameSource}：
+ * 同一 tick 内每列车只解析一次上下文/占位符/ETA。
  */
 public final class SimpleDisplayService implements DisplayService {
 
@@ -26,6 +30,7 @@ public final class SimpleDisplayService implements DisplayService {
   private final BossBarTrainHudManager bossBarHud;
   private final ActionBarTrainHudManager actionBarHud;
   private final ScoreboardTrainHudManager scoreboardHud;
+  private final TrainHudFrameSource frameSource;
 
   private BukkitTask bossBarTask;
   private BukkitTask actionBarTask;
@@ -42,15 +47,24 @@ public final class SimpleDisplayService implements DisplayService {
     this.plugin = Objects.requireNonNull(plugin, "plugin");
     this.configManager = Objects.requireNonNull(configManager, "configManager");
     HudDefaultTemplateService defaultTemplateService = plugin.getHudDefaultTemplateService();
+    this.frameSource =
+        new TrainHudFrameSource(
+            new TrainHudContextResolver(
+                plugin,
+                plugin.getLocaleManager(),
+                etaService,
+                routeDefinitions,
+                routeProgressRegistry,
+                layoverRegistry,
+                templateService,
+                plugin::debug),
+            Bukkit::getCurrentTick);
     this.bossBarHud =
         new BossBarTrainHudManager(
             plugin,
             plugin.getLocaleManager(),
             configManager,
-            etaService,
-            routeDefinitions,
-            routeProgressRegistry,
-            layoverRegistry,
+            frameSource,
             templateService,
             defaultTemplateService,
             plugin::debug);
@@ -59,27 +73,25 @@ public final class SimpleDisplayService implements DisplayService {
             plugin,
             plugin.getLocaleManager(),
             configManager,
-            etaService,
-            routeDefinitions,
-            routeProgressRegistry,
-            layoverRegistry,
+            frameSource,
             templateService,
             defaultTemplateService,
             plugin::debug);
     this.scoreboardHud =
         new ScoreboardTrainHudManager(
             plugin,
-            plugin.getLocaleManager(),
             configManager,
-            etaService,
-            routeDefinitions,
-            routeProgressRegistry,
-            layoverRegistry,
+            frameSource,
             templateService,
             defaultTemplateService,
             plugin::debug);
   }
 
+  /** 共享 HUD 帧管线（含帧计算/复用计数）。 */
+  public TrainHudFrameSource frameSource() {
+    return frameSource;
+  }
+
   @Override
   /** 根据配置启动 HUD 定时刷新。 */
   public void start() {
@@ -146,12 +158,19 @@ public final class SimpleDisplayService implements DisplayService {
     actionBarHud.unregister();
     scoreboardHud.shutdown();
     scoreboardHud.unregister();
+    TrainHudFrameSource.Stats stats = frameSource.stats();
+    plugin.debug(
+        "HUD 帧统计: computed="
+            + stats.framesComputed()
+            + " reused="
+            + stats.framesReused()
+            + " playersServed="
+            + stats.playersServed());
+    frameSource.clear();
   }
 
   @Override
   public void clearStationCaches() {
-    bossBarHud.clearCaches();
-    actionBarHud.clearCaches();
-    scoreboardHud.clearCaches();
+    frameSource.clearCaches();
   }
 }
@@ -0,0 +1,90 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 预编译的 HUD 模板行：把 {@code {placeholder}} 模板拆成“字面量 + 槽位”交替的 token 列表。
+ *
+ * <p>拆分规则与逐次扫描的 {@code applyPlaceholders} 完全一致：从 {@code '{'} 到其后第一个 {@code '}'} 为一个槽位，
+ * 缺少右括号时剩余部分按字面量处理；渲染时未知 key 原样输出 {@code {key}}。
+ */
+public final class CompiledHudLine {
+
+  private final String template;
+  private final List<String> literals;
+  private final List<String> keys;
+  private final int literalLength;
+
+  private CompiledHudLine(String template, List<String> literals, List<String> keys) {
+    this.template = template;
+    this.literals = List.copyOf(literals);
+    this.keys = List.copyOf(keys);
+    int length = 0;
+    for (String literal : this.literals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  /** 编译模板行。 */
+  public static CompiledHudLine compile(String template) {
+    Objects.requireNonNull(template, "template");
+    List<String> literals = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    int length = template.length();
+    int index = 0;
+    StringBuilder literal = new StringBuilder();
+    while (index < length) {
+      int open = template.indexOf('{', index);
+      if (open < 0) {
+        literal.append(template, index, length);
+        break;
+      }
+      int close = template.indexOf('}', open + 1);
+      if (close < 0) {
+        literal.append(template, index, length);
+        break;
+      }
+      literal.append(template, index, open);
+      literals.add(literal.toString());
+      literal.setLength(0);
+      keys.add(template.substring(open + 1, close));
+      index = close + 1;
+    }
+    literals.add(literal.toString());
+    return new CompiledHudLine(template, literals, keys);
+  }
+
+  public String template() {
+    return template;
+  }
+
+  /** 是否不含任何占位符。 */
+  public boolean isStatic() {
+    return keys.isEmpty();
+  }
+
+  /** 用占位符值拼接出最终文本；未知 key 保持 {@code {key}}。 */
+  public String resolve(Map<String, String> placeholders) {
+    Objects.requireNonNull(placeholders, "placeholders");
+    if (keys.isEmpty()) {
+      return literals.get(0);
+    }
+    StringBuilder out = new StringBuilder(literalLength + keys.size() * 8);
+    for (int i = 0; i < keys.size(); i++) {
+      out.append(literals.get(i));
+      String key = keys.get(i);
+      String value = placeholders.get(key);
+      if (value == null) {
+        out.append('{').append(key).append('}');
+      } else {
+        out.append(value);
+      }
+    }
+    out.append(literals.get(keys.size()));
+    return out.toString();
+  }
+}
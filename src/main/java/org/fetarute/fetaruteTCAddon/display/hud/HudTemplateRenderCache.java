@@ -0,0 +1,123 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+
+/**
+ * HUD 模板渲染缓存：模板行只编译一次（{@link CompiledHudLine}），MiniMessage 解析结果按最终文本记忆。
+ *
+ * <p>占位符值本身可能携带 MiniMessage 标签（如线路颜色、信号颜色），且标签可以跨越占位符边界，
+ * 因此字面量片段不能单独预解析为组件再拼接；这里对“替换后的完整文本”做 LRU 记忆。
+ * 同一列车的所有乘客、以及内容未变化的后续 tick 都会命中缓存，只有文本变化时才重新解析。
+ *
+ * <p>不含 {@code '<'} 与转义符的文本直接生成纯文本组件，不经过 MiniMessage。
+ *
+ * <p>每个 HUD 管理器持有一份，仅在主线程使用。
+ */
+public final class HudTemplateRenderCache {
+
+  public static final int DEFAULT_MAX_COMPONENTS = 2048;
+  private static final int MAX_COMPILED_LINES = 512;
+  private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+
+  private final String label;
+  private final Consumer<String> debugLogger;
+  private final Map<String, CompiledHudLine> compiled = new HashMap<>();
+  private final Map<String, Component> components;
+  private long renders;
+  private long parses;
+
+  /**
+   * @param label 日志前缀（如 "BossBar"）
+   * @param maxComponents 组件缓存上限（按最近使用淘汰）
+   * @param debugLogger 调试日志输出（可为 null）
+   */
+  public HudTemplateRenderCache(String label, int maxComponents, Consumer<String> debugLogger) {
+    this.label = label == null ? "HUD" : label;
+    this.debugLogger = debugLogger != null ? debugLogger : msg -> {};
+    int limit = Math.max(16, maxComponents);
+    this.components =
+        new LinkedHashMap<>(64, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+            return size() > limit;
+          }
+        };
+  }
+
+  public HudTemplateRenderCache(String label, Consumer<String> debugLogger) {
+    this(label, DEFAULT_MAX_COMPONENTS, debugLogger);
+  }
+
+  /** 获取（必要时编译）模板行。 */
+  public CompiledHudLine compile(String template) {
+    String key = template == null ? "" : template;
+    CompiledHudLine line = compiled.get(key);
+    if (line == null) {
+      if (compiled.size() >= MAX_COMPILED_LINES) {
+        compiled.clear();
+      }
+      line = CompiledHudLine.compile(key);
+      compiled.put(key, line);
+    }
+    return line;
+  }
+
+  /** 替换占位符（使用编译后的 token 列表）。 */
+  public String resolve(String template, Map<String, String> placeholders) {
+    return compile(template).resolve(placeholders);
+  }
+
+  /** 替换占位符并解析为组件。 */
+  public Component render(String template, Map<String, String> placeholders) {
+    if (template == null || template.isBlank()) {
+      return Component.empty();
+    }
+    return renderResolved(resolve(template, placeholders));
+  }
+
+  /** 解析已完成占位符替换的文本。 */
+  public Component renderResolved(String resolved) {
+    renders++;
+    if (resolved == null || resolved.isBlank()) {
+      return Component.empty();
+    }
+    Component cached = components.get(resolved);
+    if (cached != null) {
+      return cached;
+    }
+    Component component = parse(resolved);
+    components.put(resolved, component);
+    return component;
+  }
+
+  /** 渲染次数与实际解析次数（解析次数越接近 0，缓存命中越高）。 */
+  public Stats stats() {
+    return new Stats(renders, parses, components.size());
+  }
+
+  public void clear() {
+    compiled.clear();
+    components.clear();
+  }
+
+  private Component parse(String resolved) {
+    parses++;
+    if (resolved.indexOf('<') < 0 && resolved.indexOf('\\') < 0) {
+      return Component.text(resolved);
+    }
+    try {
+      return MINI_MESSAGE.deserialize(resolved);
+    } catch (Exception ex) {
+      debugLogger.accept(label + " 模板解析失败: " + ex.getMessage());
+      return Component.text(resolved);
+    }
+  }
+
+  /** 渲染计数快照。 */
+  public record Stats(long renders, long parses, int cachedComponents) {}
+}
@@ -59,6 +59,7 @@ import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContext.StationDisplay;
 import org.fetarute.fetaruteTCAddon.display.hud.bossbar.HudWaypointLabel;
 import org.fetarute.fetaruteTCAddon.display.template.HudTemplateService;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+import org.fetarute.fetaruteTCAddon.storage.async.AsyncStorage;
 import org.fetarute.fetaruteTCAddon.utils.LocaleManager;
 
 /**
@@ -91,8 +92,12 @@ public final class TrainHudContextResolver {
   private final Map<UUID, StationDisplay> stationById = new HashMap<>();
   private final Map<UUID, Optional<NodeId>> stationNodeById = new HashMap<>();
   private boolean stationCacheLoaded = false;
+  private boolean stationCacheLoading = false;
   private final Map<String, CompanyDisplay> companyByOperatorCode = new HashMap<>();
   private boolean companyCacheLoaded = false;
+  private boolean companyCacheLoading = false;
+  // clearCaches 时递增：丢弃清理前发起的异步加载结果
+  private int cacheGeneration = 0;
   private final Map<UUID, Optional<RoutePatternType>> routePatternById = new HashMap<>();
   private final Map<String, Map<RoutePatternType, String>> patternTextByLocale = new HashMap<>();
   private final Map<String, EtaStatusTemplates> etaStatusByLocale = new HashMap<>();
@@ -286,8 +291,11 @@ public final class TrainHudContextResolver {
     stationById.clear();
     stationNodeById.clear();
     stationCacheLoaded = false;
+    stationCacheLoading = false;
     companyByOperatorCode.clear();
     companyCacheLoaded = false;
+    companyCacheLoading = false;
+    cacheGeneration++;
     routePatternById.clear();
     patternTextByLocale.clear();
     etaStatusByLocale.clear();
@@ -1227,6 +1235,9 @@ public final class TrainHudContextResolver {
     if (cached != null) {
       return cached;
     }
+    if (stationCacheLoading) {
+      return StationDisplay.empty();
+    }
     Optional<StorageProvider> providerOpt = providerIfReady();
     if (providerOpt.isEmpty()) {
       return StationDisplay.empty();
@@ -1326,6 +1337,9 @@ public final class TrainHudContextResolver {
     if (cached != null) {
       return cached;
     }
+    if (stationCacheLoading) {
+      return Optional.empty();
+    }
     Optional<StorageProvider> providerOpt = providerIfReady();
     if (providerOpt.isEmpty()) {
       return Optional.empty();
@@ -1341,75 +1355,140 @@ public final class TrainHudContextResolver {
     return nodeId;
   }
 
+  /**
+   * 确保站点缓存已加载。
+   *
+   * <p>异步存储可用时在存储线程全量加载，回到主线程后整体替换缓存；加载期间本次渲染先用已有缓存（可能为空），不阻塞主线程。
+   */
   private void ensureStationCache() {
-    if (stationCacheLoaded) {
+    if (stationCacheLoaded || stationCacheLoading) {
+      return;
+    }
+    Optional<AsyncStorage> asyncOpt = asyncIfReady();
+    if (asyncOpt.isPresent()) {
+      stationCacheLoading = true;
+      int generation = cacheGeneration;
+      AsyncStorage async = asyncOpt.get();
+      async
+          .onMain(async.query(TrainHudContextResolver::loadStationCache))
+          .whenComplete(
+              (loaded, error) -> {
+                if (generation != cacheGeneration) {
+                  return;
+                }
+                stationCacheLoading = false;
+                if (error != null) {
+                  debugLogger.accept("HUD station cache load failed: " + error.getMessage());
+                  return;
+                }
+                installStationCache(loaded);
+              });
       return;
     }
     Optional<StorageProvider> providerOpt = providerIfReady();
     if (providerOpt.isEmpty()) {
       return;
     }
-    StorageProvider provider = providerOpt.get();
     try {
-      for (Company company : provider.companies().listAll()) {
-        if (company == null) {
+      installStationCache(loadStationCache(providerOpt.get()));
+    } catch (Exception ex) {
+      debugLogger.accept("HUD station cache load failed: " + ex.getMessage());
+    }
+  }
+
+  /** 在存储线程执行：只读取仓库并构建新 Map，不触碰解析器状态。 */
+  private static StationCache loadStationCache(StorageProvider provider) {
+    StationCache loaded = new StationCache();
+    for (Company company : provider.companies().listAll()) {
+      if (company == null) {
+        continue;
+      }
+      for (Operator operator : provider.operators().listByCompany(company.id())) {
+        if (operator == null) {
           continue;
         }
-        for (Operator operator : provider.operators().listByCompany(company.id())) {
-          if (operator == null) {
+        for (Station station : provider.stations().listByOperator(operator.id())) {
+          if (station == null) {
             continue;
           }
-          for (Station station : provider.stations().listByOperator(operator.id())) {
-            if (station == null) {
-              continue;
-            }
-            StationDisplay display = StationDisplay.fromStation(station);
-            Optional<NodeId> nodeId =
-                station.graphNodeId().filter(id -> !id.isBlank()).map(NodeId::of);
-            stationById.put(station.id(), display);
-            stationNodeById.put(station.id(), nodeId);
-            String key = stationKey(operator.code(), station.code());
-            if (!key.isBlank()) {
-              stationByKey.put(key, display);
-            }
+          StationDisplay display = StationDisplay.fromStation(station);
+          Optional<NodeId> nodeId =
+              station.graphNodeId().filter(id -> !id.isBlank()).map(NodeId::of);
+          loaded.byId.put(station.id(), display);
+          loaded.nodeById.put(station.id(), nodeId);
+          String key = stationKey(operator.code(), station.code());
+          if (!key.isBlank()) {
+            loaded.byKey.put(key, display);
           }
         }
       }
-      stationCacheLoaded = true;
-    } catch (Exception ex) {
-      debugLogger.accept("HUD station cache load failed: " + ex.getMessage());
     }
+    return loaded;
+  }
+
+  private void installStationCache(StationCache loaded) {
+    stationById.putAll(loaded.byId);
+    stationNodeById.putAll(loaded.nodeById);
+    stationByKey.putAll(loaded.byKey);
+    stationCacheLoaded = true;
   }
 
   private void ensureCompanyCache() {
-    if (companyCacheLoaded) {
+    if (companyCacheLoaded || companyCacheLoading) {
+      return;
+    }
+    Optional<AsyncStorage> asyncOpt = asyncIfReady();
+    if (asyncOpt.isPresent()) {
+      companyCacheLoading = true;
+      int generation = cacheGeneration;
+      AsyncStorage async = asyncOpt.get();
+      async
+          .onMain(async.query(TrainHudContextResolver::loadCompanyCache))
+          .whenComplete(
+              (loaded, error) -> {
+                if (generation != cacheGeneration) {
+                  return;
+                }
+                companyCacheLoading = false;
+                if (error != null) {
+                  debugLogger.accept("HUD company cache load failed: " + error.getMessage());
+                  return;
+                }
+                loaded.forEach(companyByOperatorCode::putIfAbsent);
+                companyCacheLoaded = true;
+              });
       return;
     }
     Optional<StorageProvider> providerOpt = providerIfReady();
     if (providerOpt.isEmpty()) {
       return;
     }
-    StorageProvider provider = providerOpt.get();
     try {
-      for (Company company : provider.companies().listAll()) {
-        if (company == null) {
-          continue;
-        }
-        CompanyDisplay display = CompanyDisplay.fromCompany(company);
-        for (Operator operator : provider.operators().listByCompany(company.id())) {
-          if (operator == null || operator.code() == null || operator.code().isBlank()) {
-            continue;
-          }
-          String key = operator.code().trim().toLowerCase(Locale.ROOT);
-          companyByOperatorCode.putIfAbsent(key, display);
-        }
-      }
+      loadCompanyCache(providerOpt.get()).forEach(companyByOperatorCode::putIfAbsent);
       companyCacheLoaded = true;
     } catch (Exception ex) {
       debugLogger.accept("HUD company cache load failed: " + ex.getMessage());
     }
   }
 
+  private static Map<String, CompanyDisplay> loadCompanyCache(StorageProvider provider) {
+    Map<String, CompanyDisplay> loaded = new HashMap<>();
+    for (Company company : provider.companies().listAll()) {
+      if (company == null) {
+        continue;
+      }
+      CompanyDisplay display = CompanyDisplay.fromCompany(company);
+      for (Operator operator : provider.operators().listByCompany(company.id())) {
+        if (operator == null || operator.code() == null || operator.code().isBlank()) {
+          continue;
+        }
+        String key = operator.code().trim().toLowerCase(Locale.ROOT);
+        loaded.putIfAbsent(key, display);
+      }
+    }
+    return loaded;
+  }
+
   private Optional<String> resolveOperatorCode(UUID operatorId) {
     if (operatorId == null) {
       return Optional.empty();
@@ -1422,6 +1501,13 @@ public final class TrainHudContextResolver {
     return provider.operators().findById(operatorId).map(Operator::code);
   }
 
+  private Optional<AsyncStorage> asyncIfReady() {
+    if (plugin.getStorageManager() == null) {
+      return Optional.empty();
+    }
+    return plugin.getStorageManager().async();
+  }
+
   private Optional<StorageProvider> providerIfReady() {
     if (plugin.getStorageManager() == null || !plugin.getStorageManager().isReady()) {
       return Optional.empty();
@@ -1429,7 +1515,7 @@ public final class TrainHudContextResolver {
     return plugin.getStorageManager().provider();
   }
 
-  private String stationKey(String operator, String station) {
+  private static String stationKey(String operator, String station) {
     if (operator == null || operator.isBlank() || station == null || station.isBlank()) {
       return "";
     }
@@ -1610,6 +1696,13 @@ public final class TrainHudContextResolver {
     }
   }
 
+  /** 异步加载的站点缓存（存储线程构建，主线程安装）。 */
+  private static final class StationCache {
+    private final Map<UUID, StationDisplay> byId = new HashMap<>();
+    private final Map<UUID, Optional<NodeId>> nodeById = new HashMap<>();
+    private final Map<String, StationDisplay> byKey = new HashMap<>();
+  }
+
   private record CompanyDisplay(String label, String code, String name) {
     private CompanyDisplay {
       label = sanitize(label);
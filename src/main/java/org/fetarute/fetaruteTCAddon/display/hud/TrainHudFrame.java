@@ -0,0 +1,33 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 单列车单 tick 的 HUD 帧：上下文 + 基础进度 + 列车级占位符。
+ *
+ * <p>由 {@link TrainHudFrameSource} 每 tick 每列车计算一次，BossBar/ActionBar/Scoreboard 三种 HUD 共用。
+ * 占位符为只读视图；玩家侧差异（车厢号、模板 progress 表达式）应写入 {@link #placeholdersCopy()} 返回的副本。
+ */
+public record TrainHudFrame(
+    TrainHudContext context, float baseProgress, Map<String, String> placeholders, long tick) {
+
+  public TrainHudFrame {
+    Objects.requireNonNull(context, "context");
+    placeholders =
+        placeholders == null
+            ? Map.of()
+            : Collections.unmodifiableMap(new HashMap<>(placeholders));
+  }
+
+  public String trainName() {
+    return context.trainName();
+  }
+
+  /** 返回可写的占位符副本（供单个玩家追加差异）。 */
+  public Map<String, String> placeholdersCopy() {
+    return new HashMap<>(placeholders);
+  }
+}
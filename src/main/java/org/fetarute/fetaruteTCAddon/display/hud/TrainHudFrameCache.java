@@ -0,0 +1,82 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * HUD 帧缓存：按列车名 + tick 记忆帧计算结果。
+ *
+ * <p>同一 tick 内同一编组的重复请求直接复用（包括“非 FTA 管控”的空结果）；编组对象变化或 tick 前进时重新计算。 超过 {@link #EXPIRE_TICKS}
+ * 未被请求的列车会在下次 {@link #sweepIfDue(long)} 时移除。
+ *
+ * <p>仅在主线程使用，不做同步。
+ */
+final class TrainHudFrameCache {
+
+  static final long EXPIRE_TICKS = 200L;
+
+  private final Map<String, Entry> entries = new HashMap<>();
+  private long lastSweepTick = Long.MIN_VALUE;
+  private long framesComputed;
+  private long framesReused;
+
+  /**
+   * 获取列车帧，必要时调用 loader 计算。
+   *
+   * @param trainName 列车名（缓存 key）
+   * @param owner 编组对象；与缓存中的不一致时视为新列车
+   * @param tick 当前服务器 tick
+   * @param loader 帧计算函数
+   */
+  Optional<TrainHudFrame> get(
+      String trainName, Object owner, long tick, Supplier<Optional<TrainHudFrame>> loader) {
+    Entry entry = entries.get(trainName);
+    if (entry != null && entry.tick() == tick && entry.owner() == owner) {
+      framesReused++;
+      return entry.frame();
+    }
+    Optional<TrainHudFrame> frame = loader.get();
+    if (frame == null) {
+      frame = Optional.empty();
+    }
+    entries.put(trainName, new Entry(owner, tick, frame));
+    framesComputed++;
+    return frame;
+  }
+
+  /**
+   * 距上次清理超过 {@link #EXPIRE_TICKS} 时移除过期列车。
+   *
+   * @return 是否执行了清理
+   */
+  boolean sweepIfDue(long tick) {
+    if (lastSweepTick != Long.MIN_VALUE && tick - lastSweepTick < EXPIRE_TICKS) {
+      return false;
+    }
+    lastSweepTick = tick;
+    entries.values().removeIf(entry -> tick - entry.tick() > EXPIRE_TICKS);
+    return true;
+  }
+
+  Set<String> trainNames() {
+    return Set.copyOf(entries.keySet());
+  }
+
+  long framesComputed() {
+    return framesComputed;
+  }
+
+  long framesReused() {
+    return framesReused;
+  }
+
+  void clear() {
+    entries.clear();
+    lastSweepTick = Long.MIN_VALUE;
+  }
+
+  private record Entry(Object owner, long tick, Optional<TrainHudFrame> frame) {}
+}
@@ -0,0 +1,133 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.properties.TrainProperties;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import org.bukkit.entity.Player;
+import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarProgressTracker;
+
+/**
+ * 共享 HUD 帧管线：每 tick 每列车只解析一次上下文与占位符，供三种 HUD 的所有乘客复用。
+ *
+ * <p>帧内包含 {@link TrainHudContext}（线路/站点/ETA 查询结果）、基础进度与列车级占位符； 玩家侧只追加车厢号等差异（{@link
+ * #placeholdersFor(TrainHudFrame, Player, MinecartGroup)}）。未来停靠列表同样按 tick 记忆。
+ *
+ * <p>计数器：{@link Stats#framesComputed()} 为实际计算的帧数，{@link Stats#framesReused()} 为同 tick 复用次数，
+ * {@link Stats#playersServed()} 为下发给玩家的次数。
+ *
+ * <p>仅在主线程使用。
+ */
+public final class TrainHudFrameSource {
+
+  private final TrainHudContextResolver resolver;
+  private final LongSupplier tickSource;
+  private final TrainHudFrameCache cache = new TrainHudFrameCache();
+  private final BossBarProgressTracker progressTracker = new BossBarProgressTracker();
+  private final Map<UpcomingKey, TrainHudContextResolver.UpcomingStops> upcomingStops =
+      new HashMap<>();
+  private long upcomingTick = Long.MIN_VALUE;
+  private long playersServed;
+
+  /**
+   * @param resolver 上下文解析器（三种 HUD 共用一份，站点/公司缓存只加载一次）
+   * @param tickSource 当前服务器 tick（生产环境为 {@code Bukkit::getCurrentTick}）
+   */
+  public TrainHudFrameSource(TrainHudContextResolver resolver, LongSupplier tickSource) {
+    this.resolver = Objects.requireNonNull(resolver, "resolver");
+    this.tickSource = Objects.requireNonNull(tickSource, "tickSource");
+  }
+
+  public TrainHudContextResolver resolver() {
+    return resolver;
+  }
+
+  /** 从玩家载具链路反查 TrainCarts 编组。 */
+  public Optional<MinecartGroup> resolveGroup(Player player) {
+    return resolver.resolveGroup(player);
+  }
+
+  /**
+   * 获取编组当前 tick 的 HUD 帧。
+   *
+   * @return 非 FTA 管控列车或无列车名时返回 empty
+   */
+  public Optional<TrainHudFrame> frame(MinecartGroup group) {
+    if (group == null) {
+      return Optional.empty();
+    }
+    TrainProperties properties = group.getProperties();
+    String trainName = properties == null ? null : properties.getTrainName();
+    if (trainName == null || trainName.isBlank()) {
+      return Optional.empty();
+    }
+    long tick = tickSource.getAsLong();
+    if (cache.sweepIfDue(tick)) {
+      progressTracker.retain(cache.trainNames());
+    }
+    return cache.get(trainName, group, tick, () -> computeFrame(group, trainName, tick));
+  }
+
+  /** 复制帧占位符并注入玩家侧差异（车厢号/编组总数）。 */
+  public Map<String, String> placeholdersFor(
+      TrainHudFrame frame, Player player, MinecartGroup group) {
+    Map<String, String> placeholders = frame.placeholdersCopy();
+    resolver.applyPlayerPlaceholders(placeholders, player, group);
+    playersServed++;
+    return placeholders;
+  }
+
+  /** 解析未来停靠列表；同一 tick 内同一列车同一 limit 只查询一次 ETA。 */
+  public TrainHudContextResolver.UpcomingStops upcomingStops(TrainHudFrame frame, int limit) {
+    if (upcomingTick != frame.tick()) {
+      upcomingStops.clear();
+      upcomingTick = frame.tick();
+    }
+    return upcomingStops.computeIfAbsent(
+        new UpcomingKey(frame.trainName(), limit),
+        key -> resolver.resolveUpcomingStops(frame.context(), limit));
+  }
+
+  public Stats stats() {
+    return new Stats(cache.framesComputed(), cache.framesReused(), playersServed);
+  }
+
+  /** 清理站点/公司等缓存，下次 tick 时重新从存储加载。 */
+  public void clearCaches() {
+    resolver.clearCaches();
+  }
+
+  /** 清空帧与进度状态（HUD 停止时调用）。 */
+  public void clear() {
+    cache.clear();
+    upcomingStops.clear();
+    upcomingTick = Long.MIN_VALUE;
+    progressTracker.clear();
+    resolver.clearCaches();
+  }
+
+  private Optional<TrainHudFrame> computeFrame(MinecartGroup group, String trainName, long tick) {
+    Optional<TrainHudContext> contextOpt = resolver.resolveContext(group);
+    if (contextOpt.isEmpty()) {
+      return Optional.empty();
+    }
+    TrainHudContext context = contextOpt.get();
+    float baseProgress =
+        progressTracker.progress(
+            trainName,
+            context.routeIndex(),
+            context.eta().etaEpochMillis(),
+            System.currentTimeMillis(),
+            context.moving());
+    Map<String, String> placeholders = resolver.buildPlaceholders(context, baseProgress);
+    return Optional.of(new TrainHudFrame(context, baseProgress, placeholders, tick));
+  }
+
+  /** 帧计数器快照。 */
+  public record Stats(long framesComputed, long framesReused, long playersServed) {}
+
+  private record UpcomingKey(String trainName, int limit) {}
+}
@@ -5,6 +5,7 @@ import com.bergerkiller.bukkit.tc.properties.TrainProperties;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.Set;
@@ -20,19 +21,15 @@ import org.bukkit.event.player.PlayerKickEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.fetarute.fetaruteTCAddon.FetaruteTCAddon;
 import org.fetarute.fetaruteTCAddon.config.ConfigManager;
-import org.fetarute.fetaruteTCAddon.dispatcher.eta.EtaService;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
-import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinitionCache;
-import org.fetarute.fetaruteTCAddon.dispatcher.runtime.LayoverRegistry;
-import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RouteProgressRegistry;
 import org.fetarute.fetaruteTCAddon.display.hud.HudState;
 import org.fetarute.fetaruteTCAddon.display.hud.HudStateTracker;
+import org.fetarute.fetaruteTCAddon.display.hud.HudTemplateRenderCache;
 import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContext;
-import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContextResolver;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudFrame;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudFrameSource;
 import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarHudTemplate;
-import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarHudTemplateRenderer;
 import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarProgressExpression;
-import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarProgressTracker;
 import org.fetarute.fetaruteTCAddon.display.template.HudDefaultTemplateService;
 import org.fetarute.fetaruteTCAddon.display.template.HudTemplateService;
 import org.fetarute.fetaruteTCAddon.display.template.HudTemplateType;
@@ -42,10 +39,14 @@ import org.fetarute.fetaruteTCAddon.utils.LocaleManager;
  * 车上 ActionBar HUD：以纯文本输出线路/下一站等状态。
  *
  * <p>模板解析与状态分支逻辑与 BossBar 共用（HudState + BossBarHudTemplate）。 ActionBar 仅负责按 tick 推送文本，不持久化 UI 状态。
+ *
+ * <p>渲染结果按文本缓存（{@link HudTemplateRenderCache}）；内容未变化时只在接近淡出前续发。
  */
 public final class ActionBarTrainHudManager implements Listener {
 
   private static final long DEPARTING_WINDOW_TICKS = 60L;
+  /** 内容未变化时的重发间隔：客户端 ActionBar 约 3 秒后淡出，需要在此之前续发。 */
+  private static final long RESEND_INTERVAL_MILLIS = 1500L;
   private static final String DEFAULT_TEMPLATE =
       "<white>欢迎乘坐 {company}/{operator} 列车</white> <gray>|</gray> <white>{line}</white>"
           + " <gray>|</gray> <white>前往 {dest_eop}</white>";
@@ -56,22 +57,19 @@ public final class ActionBarTrainHudManager implements Listener {
   private final HudTemplateService templateService;
   private final HudDefaultTemplateService defaultTemplateService;
   private final Consumer<String> debugLogger;
-  private final TrainHudContextResolver contextResolver;
+  private final TrainHudFrameSource frames;
+  private final HudTemplateRenderCache renderCache;
 
-  private final BossBarProgressTracker progressTracker = new BossBarProgressTracker();
   private final HudStateTracker stateTracker = new HudStateTracker(DEPARTING_WINDOW_TICKS * 50L);
   private final Map<String, BossBarHudTemplate> templateCache = new HashMap<>();
-  private final Set<UUID> showingPlayers = new HashSet<>();
+  private final Map<UUID, SentActionBar> showingPlayers = new HashMap<>();
   private long tickCounter = 0L;
 
   public ActionBarTrainHudManager(
       FetaruteTCAddon plugin,
       LocaleManager locale,
       ConfigManager configManager,
-      EtaService etaService,
-      RouteDefinitionCache routeDefinitions,
-      RouteProgressRegistry routeProgressRegistry,
-      LayoverRegistry layoverRegistry,
+      TrainHudFrameSource frameSource,
       HudTemplateService templateService,
       HudDefaultTemplateService defaultTemplateService,
       Consumer<String> debugLogger) {
@@ -81,16 +79,8 @@ public final class ActionBarTrainHudManager implements Listener {
     this.templateService = templateService;
     this.defaultTemplateService = defaultTemplateService;
     this.debugLogger = debugLogger != null ? debugLogger : msg -> {};
-    this.contextResolver =
-        new TrainHudContextResolver(
-            plugin,
-            locale,
-            etaService,
-            routeDefinitions,
-            routeProgressRegistry,
-            layoverRegistry,
-            templateService,
-            this.debugLogger);
+    this.frames = Objects.requireNonNull(frameSource, "frameSource");
+    this.renderCache = new HudTemplateRenderCache("ActionBar", this.debugLogger);
   }
 
   public void register() {
@@ -109,7 +99,7 @@ public final class ActionBarTrainHudManager implements Listener {
     Set<String> activeTrains = new HashSet<>();
     Set<UUID> currentPlayers = new HashSet<>();
     for (Player player : Bukkit.getOnlinePlayers()) {
-      Optional<MinecartGroup> groupOpt = contextResolver.resolveGroup(player);
+      Optional<MinecartGroup> groupOpt = frames.resolveGroup(player);
       if (groupOpt.isEmpty()) {
         clear(player);
         continue;
@@ -120,7 +110,6 @@ public final class ActionBarTrainHudManager implements Listener {
         currentPlayers.add(player.getUniqueId());
       }
     }
-    progressTracker.retain(activeTrains);
     stateTracker.retain(activeTrains);
     clearInactivePlayers(currentPlayers);
   }
@@ -129,19 +118,13 @@ public final class ActionBarTrainHudManager implements Listener {
     for (Player player : Bukkit.getOnlinePlayers()) {
       clear(player);
     }
-    progressTracker.clear();
     stateTracker.clear();
     templateCache.clear();
-    contextResolver.clearCaches();
+    renderCache.clear();
     showingPlayers.clear();
     debugLogger.accept("ActionBarTrainHudManager shutdown");
   }
 
-  /** 清理站点/公司等缓存，下次 tick 时重新从存储加载。 */
-  public void clearCaches() {
-    contextResolver.clearCaches();
-  }
-
   @EventHandler
   public void onQuit(PlayerQuitEvent event) {
     clear(event.getPlayer());
@@ -165,12 +148,13 @@ public final class ActionBarTrainHudManager implements Listener {
       return Optional.empty();
     }
 
-    Optional<TrainHudContext> contextOpt = contextResolver.resolveContext(group);
-    if (contextOpt.isEmpty()) {
+    Optional<TrainHudFrame> frameOpt = frames.frame(group);
+    if (frameOpt.isEmpty()) {
       showDestinationOnly(player, properties);
       return Optional.of(trainName);
     }
-    TrainHudContext context = contextOpt.get();
+    TrainHudFrame frame = frameOpt.get();
+    TrainHudContext context = frame.context();
 
     Optional<String> templateOpt =
         templateService != null
@@ -180,15 +164,8 @@ public final class ActionBarTrainHudManager implements Listener {
             : Optional.empty();
     BossBarHudTemplate template = resolveParsedTemplate(resolveTemplate(templateOpt));
     long nowMillis = System.currentTimeMillis();
-    float baseProgress =
-        progressTracker.progress(
-            trainName,
-            context.routeIndex(),
-            context.eta().etaEpochMillis(),
-            nowMillis,
-            context.moving());
-    Map<String, String> placeholders = contextResolver.buildPlaceholders(context, baseProgress);
-    contextResolver.applyPlayerPlaceholders(placeholders, player, group);
+    float baseProgress = frame.baseProgress();
+    Map<String, String> placeholders = frames.placeholdersFor(frame, player, group);
     resolveProgress(template, placeholders, baseProgress);
     boolean terminalArriving = context.terminalNextStop() && context.eta().arriving();
     HudState state =
@@ -202,9 +179,8 @@ public final class ActionBarTrainHudManager implements Listener {
             terminalArriving,
             nowMillis);
     String templateLine = template.resolveLine(state, tickCounter).orElse("");
-    Component title = BossBarHudTemplateRenderer.render(templateLine, placeholders, debugLogger);
-    player.sendActionBar(title);
-    showingPlayers.add(player.getUniqueId());
+    Component title = renderCache.render(templateLine, placeholders);
+    send(player, title, nowMillis);
     return Optional.of(trainName);
   }
 
@@ -215,22 +191,34 @@ public final class ActionBarTrainHudManager implements Listener {
     } else {
       destination = destination.trim();
     }
-    player.sendActionBar(Component.text(destination));
-    showingPlayers.add(player.getUniqueId());
+    send(player, Component.text(destination), System.currentTimeMillis());
+  }
+
+  /** 仅在内容变化或接近淡出时发送，避免每 tick 重复下发相同文本。 */
+  private void send(Player player, Component text, long nowMillis) {
+    UUID uuid = player.getUniqueId();
+    SentActionBar last = showingPlayers.get(uuid);
+    if (last != null
+        && last.text().equals(text)
+        && nowMillis - last.sentAtMillis() < RESEND_INTERVAL_MILLIS) {
+      return;
+    }
+    player.sendActionBar(text);
+    showingPlayers.put(uuid, new SentActionBar(text, nowMillis));
   }
 
   private void clear(Player player) {
     if (player == null) {
       return;
     }
-    if (showingPlayers.remove(player.getUniqueId())) {
+    if (showingPlayers.remove(player.getUniqueId()) != null) {
       player.sendActionBar(Component.empty());
     }
   }
 
   private void clearInactivePlayers(Set<UUID> currentPlayers) {
     if (currentPlayers == null || currentPlayers.isEmpty()) {
-      for (UUID uuid : new HashSet<>(showingPlayers)) {
+      for (UUID uuid : new HashSet<>(showingPlayers.keySet())) {
         Player player = Bukkit.getPlayer(uuid);
         if (player != null) {
           player.sendActionBar(Component.empty());
@@ -239,7 +227,7 @@ public final class ActionBarTrainHudManager implements Listener {
       showingPlayers.clear();
       return;
     }
-    for (UUID uuid : new HashSet<>(showingPlayers)) {
+    for (UUID uuid : new HashSet<>(showingPlayers.keySet())) {
       if (!currentPlayers.contains(uuid)) {
         Player player = Bukkit.getPlayer(uuid);
         if (player != null) {
@@ -294,7 +282,7 @@ public final class ActionBarTrainHudManager implements Listener {
     }
     float value = (float) parsed.getAsDouble();
     float clamped = clampProgress(value);
-    contextResolver.applyProgressPlaceholders(placeholders, clamped);
+    frames.resolver().applyProgressPlaceholders(placeholders, clamped);
   }
 
   private int resolveIntervalTicks() {
@@ -322,4 +310,6 @@ public final class ActionBarTrainHudManager implements Listener {
     }
     return progress;
   }
+
+  private record SentActionBar(Component text, long sentAtMillis) {}
 }
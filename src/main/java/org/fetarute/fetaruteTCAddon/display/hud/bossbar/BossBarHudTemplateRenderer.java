@@ -5,6 +5,7 @@ import java.util.Objects;
 import java.util.function.Consumer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.fetarute.fetaruteTCAddon.display.hud.CompiledHudLine;
 
 /**
  * BossBar 模板渲染器：先替换 {@code {placeholder}}，再用 MiniMessage 解析为组件。
@@ -46,33 +47,6 @@ public final class BossBarHudTemplateRenderer {
   static String applyPlaceholders(String template, Map<String, String> placeholders) {
     Objects.requireNonNull(template, "template");
     Objects.requireNonNull(placeholders, "placeholders");
-    int length = template.length();
-    if (length == 0) {
-      return template;
-    }
-    StringBuilder out = new StringBuilder(length + 32);
-    int index = 0;
-    while (index < length) {
-      int open = template.indexOf('{', index);
-      if (open < 0) {
-        out.append(template, index, length);
-        break;
-      }
-      int close = template.indexOf('}', open + 1);
-      if (close < 0) {
-        out.append(template, index, length);
-        break;
-      }
-      out.append(template, index, open);
-      String key = template.substring(open + 1, close);
-      String value = placeholders.get(key);
-      if (value == null) {
-        out.append('{').append(key).append('}');
-      } else {
-        out.append(value);
-      }
-      index = close + 1;
-    }
-    return out.toString();
+    return CompiledHudLine.compile(template).resolve(placeholders);
   }
 }
@@ -5,6 +5,7 @@ import com.bergerkiller.bukkit.tc.properties.TrainProperties;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.Set;
@@ -22,16 +23,14 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import org.fetarute.fetaruteTCAddon.FetaruteTCAddon;
 import org.fetarute.fetaruteTCAddon.config.ConfigManager;
 import org.fetarute.fetaruteTCAddon.dispatcher.eta.EtaResult;
-import org.fetarute.fetaruteTCAddon.dispatcher.eta.EtaService;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
-import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinitionCache;
-import org.fetarute.fetaruteTCAddon.dispatcher.runtime.LayoverRegistry;
-import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RouteProgressRegistry;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
 import org.fetarute.fetaruteTCAddon.display.hud.HudState;
 import org.fetarute.fetaruteTCAddon.display.hud.HudStateTracker;
+import org.fetarute.fetaruteTCAddon.display.hud.HudTemplateRenderCache;
 import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContext;
-import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContextResolver;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudFrame;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudFrameSource;
 import org.fetarute.fetaruteTCAddon.display.template.HudDefaultTemplateService;
 import org.fetarute.fetaruteTCAddon.display.template.HudTemplateService;
 import org.fetarute.fetaruteTCAddon.utils.LocaleManager;
@@ -57,9 +56,9 @@ public final class BossBarTrainHudManager implements Listener {
   private final HudTemplateService templateService;
   private final HudDefaultTemplateService defaultTemplateService;
   private final Consumer<String> debugLogger;
-  private final TrainHudContextResolver contextResolver;
+  private final TrainHudFrameSource frames;
+  private final HudTemplateRenderCache renderCache;
 
-  private final BossBarProgressTracker progressTracker = new BossBarProgressTracker();
   private final HudStateTracker stateTracker = new HudStateTracker(DEPARTING_WINDOW_TICKS * 50L);
   private final Map<String, BossBarHudTemplate> templateCache = new HashMap<>();
   private final Map<UUID, BossBar> bars = new HashMap<>();
@@ -69,10 +68,7 @@ public final class BossBarTrainHudManager implements Listener {
       FetaruteTCAddon plugin,
       LocaleManager locale,
       ConfigManager configManager,
-      EtaService etaService,
-      RouteDefinitionCache routeDefinitions,
-      RouteProgressRegistry routeProgressRegistry,
-      LayoverRegistry layoverRegistry,
+      TrainHudFrameSource frameSource,
       HudTemplateService templateService,
       HudDefaultTemplateService defaultTemplateService,
       Consumer<String> debugLogger) {
@@ -82,16 +78,8 @@ public final class BossBarTrainHudManager implements Listener {
     this.templateService = templateService;
     this.defaultTemplateService = defaultTemplateService;
     this.debugLogger = debugLogger != null ? debugLogger : msg -> {};
-    this.contextResolver =
-        new TrainHudContextResolver(
-            plugin,
-            locale,
-            etaService,
-            routeDefinitions,
-            routeProgressRegistry,
-            layoverRegistry,
-            templateService,
-            this.debugLogger);
+    this.frames = Objects.requireNonNull(frameSource, "frameSource");
+    this.renderCache = new HudTemplateRenderCache("BossBar", this.debugLogger);
   }
 
   public void register() {
@@ -109,14 +97,13 @@ public final class BossBarTrainHudManager implements Listener {
     tickCounter += intervalTicks;
     Set<String> activeTrains = new HashSet<>();
     for (Player player : Bukkit.getOnlinePlayers()) {
-      Optional<MinecartGroup> groupOpt = contextResolver.resolveGroup(player);
+      Optional<MinecartGroup> groupOpt = frames.resolveGroup(player);
       if (groupOpt.isEmpty()) {
         hide(player);
         continue;
       }
       showOrUpdate(player, groupOpt.get()).ifPresent(activeTrains::add);
     }
-    progressTracker.retain(activeTrains);
     stateTracker.retain(activeTrains);
   }
 
@@ -124,19 +111,13 @@ public final class BossBarTrainHudManager implements Listener {
     for (Player player : Bukkit.getOnlinePlayers()) {
       hide(player);
     }
-    progressTracker.clear();
     stateTracker.clear();
     templateCache.clear();
-    contextResolver.clearCaches();
+    renderCache.clear();
     bars.clear();
     debugLogger.accept("BossBarTrainHudManager shutdown");
   }
 
-  /** 清理站点/公司等缓存，下次 tick 时重新从存储加载。 */
-  public void clearCaches() {
-    contextResolver.clearCaches();
-  }
-
   @EventHandler
   public void onQuit(PlayerQuitEvent event) {
     hide(event.getPlayer());
@@ -160,12 +141,13 @@ public final class BossBarTrainHudManager implements Listener {
       return Optional.empty();
     }
 
-    Optional<TrainHudContext> contextOpt = contextResolver.resolveContext(group);
-    if (contextOpt.isEmpty()) {
+    Optional<TrainHudFrame> frameOpt = frames.frame(group);
+    if (frameOpt.isEmpty()) {
       showDestinationOnly(player, properties);
       return Optional.of(trainName);
     }
-    TrainHudContext context = contextOpt.get();
+    TrainHudFrame frame = frameOpt.get();
+    TrainHudContext context = frame.context();
 
     Optional<String> templateOpt =
         templateService != null
@@ -174,15 +156,8 @@ public final class BossBarTrainHudManager implements Listener {
             : Optional.empty();
     BossBarHudTemplate template = resolveParsedTemplate(resolveTemplate(templateOpt));
     long nowMillis = System.currentTimeMillis();
-    float baseProgress =
-        progressTracker.progress(
-            trainName,
-            context.routeIndex(),
-            context.eta().etaEpochMillis(),
-            nowMillis,
-            context.moving());
-    Map<String, String> placeholders = contextResolver.buildPlaceholders(context, baseProgress);
-    contextResolver.applyPlayerPlaceholders(placeholders, player, group);
+    float baseProgress = frame.baseProgress();
+    Map<String, String> placeholders = frames.placeholdersFor(frame, player, group);
     float progress = resolveProgress(template, placeholders, baseProgress);
     boolean terminalArriving = context.terminalNextStop() && context.eta().arriving();
     HudState state =
@@ -196,7 +171,7 @@ public final class BossBarTrainHudManager implements Listener {
             terminalArriving,
             nowMillis);
     String templateLine = template.resolveLine(state, tickCounter).orElse("");
-    Component title = BossBarHudTemplateRenderer.render(templateLine, placeholders, debugLogger);
+    Component title = renderCache.render(templateLine, placeholders);
 
     BossBar bar =
         bars.computeIfAbsent(
@@ -302,7 +277,7 @@ public final class BossBarTrainHudManager implements Listener {
     }
     float value = (float) parsed.getAsDouble();
     float clamped = clampProgress(value);
-    contextResolver.applyProgressPlaceholders(placeholders, clamped);
+    frames.resolver().applyProgressPlaceholders(placeholders, clamped);
     return clamped;
   }
 
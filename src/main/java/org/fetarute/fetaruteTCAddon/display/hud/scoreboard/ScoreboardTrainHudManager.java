@@ -31,25 +31,24 @@ import org.bukkit.scoreboard.ScoreboardManager;
 import org.bukkit.scoreboard.Team;
 import org.fetarute.fetaruteTCAddon.FetaruteTCAddon;
 import org.fetarute.fetaruteTCAddon.config.ConfigManager;
-import org.fetarute.fetaruteTCAddon.dispatcher.eta.EtaService;
 import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
-import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinitionCache;
-import org.fetarute.fetaruteTCAddon.dispatcher.runtime.LayoverRegistry;
-import org.fetarute.fetaruteTCAddon.dispatcher.runtime.RouteProgressRegistry;
 import org.fetarute.fetaruteTCAddon.display.hud.HudState;
 import org.fetarute.fetaruteTCAddon.display.hud.HudStateTracker;
+import org.fetarute.fetaruteTCAddon.display.hud.HudTemplateRenderCache;
 import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContext;
 import org.fetarute.fetaruteTCAddon.display.hud.TrainHudContextResolver;
-import org.fetarute.fetaruteTCAddon.display.hud.bossbar.BossBarProgressTracker;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudFrame;
+import org.fetarute.fetaruteTCAddon.display.hud.TrainHudFrameSource;
 import org.fetarute.fetaruteTCAddon.display.template.HudDefaultTemplateService;
 import org.fetarute.fetaruteTCAddon.display.template.HudTemplateService;
 import org.fetarute.fetaruteTCAddon.display.template.HudTemplateType;
-import org.fetarute.fetaruteTCAddon.utils.LocaleManager;
 
 /**
  * 车上 Scoreboard HUD：用于车内 LCD/PIDS 多行展示。
  *
  * <p>仅在玩家乘坐列车时显示，离车后恢复原有 Scoreboard。
+ *
+ * <p>行文本按模板编译结果替换占位符；只有内容变化的行才会重新解析并更新 Team 前缀。
  */
 public final class ScoreboardTrainHudManager implements Listener {
 
@@ -103,9 +102,10 @@ public final class ScoreboardTrainHudManager implements Listener {
   private final HudTemplateService templateService;
   private final HudDefaultTemplateService defaultTemplateService;
   private final Consumer<String> debugLogger;
+  private final TrainHudFrameSource frames;
   private final TrainHudContextResolver contextResolver;
+  private final HudTemplateRenderCache renderCache;
 
-  private final BossBarProgressTracker progressTracker = new BossBarProgressTracker();
   private final HudStateTracker stateTracker = new HudStateTracker(DEPARTING_WINDOW_TICKS * 50L);
   private final Map<String, ScoreboardHudTemplate> templateCache = new HashMap<>();
   private final Map<UUID, PlayerHudState> playerStates = new HashMap<>();
@@ -115,12 +115,8 @@ public final class ScoreboardTrainHudManager implements Listener {
 
   public ScoreboardTrainHudManager(
       FetaruteTCAddon plugin,
-      LocaleManager locale,
       ConfigManager configManager,
-      EtaService etaService,
-      RouteDefinitionCache routeDefinitions,
-      RouteProgressRegistry routeProgressRegistry,
-      LayoverRegistry layoverRegistry,
+      TrainHudFrameSource frameSource,
       HudTemplateService templateService,
       HudDefaultTemplateService defaultTemplateService,
       Consumer<String> debugLogger) {
@@ -129,16 +125,9 @@ public final class ScoreboardTrainHudManager implements Listener {
     this.templateService = templateService;
     this.defaultTemplateService = defaultTemplateService;
     this.debugLogger = debugLogger != null ? debugLogger : msg -> {};
-    this.contextResolver =
-        new TrainHudContextResolver(
-            plugin,
-            locale,
-            Objects.requireNonNull(etaService, "etaService"),
-            Objects.requireNonNull(routeDefinitions, "routeDefinitions"),
-            routeProgressRegistry,
-            layoverRegistry,
-            templateService,
-            this.debugLogger);
+    this.frames = Objects.requireNonNull(frameSource, "frameSource");
+    this.contextResolver = frameSource.resolver();
+    this.renderCache = new HudTemplateRenderCache("Scoreboard", this.debugLogger);
   }
 
   public void register() {
@@ -157,7 +146,7 @@ public final class ScoreboardTrainHudManager implements Listener {
     Set<String> activeTrains = new HashSet<>();
     Set<UUID> activePlayers = new HashSet<>();
     for (Player player : Bukkit.getOnlinePlayers()) {
-      Optional<MinecartGroup> groupOpt = contextResolver.resolveGroup(player);
+      Optional<MinecartGroup> groupOpt = frames.resolveGroup(player);
       if (groupOpt.isEmpty()) {
         clear(player);
         continue;
@@ -168,7 +157,6 @@ public final class ScoreboardTrainHudManager implements Listener {
         activePlayers.add(player.getUniqueId());
       }
     }
-    progressTracker.retain(activeTrains);
     stateTracker.retain(activeTrains);
     retainWindowStates(activeTrains);
     clearInactivePlayers(activePlayers);
@@ -178,21 +166,15 @@ public final class ScoreboardTrainHudManager implements Listener {
     for (Player player : Bukkit.getOnlinePlayers()) {
       clear(player);
     }
-    progressTracker.clear();
     stateTracker.clear();
     templateCache.clear();
-    contextResolver.clearCaches();
+    renderCache.clear();
     playerStates.clear();
     windowStates.clear();
     trainFrames.clear();
     debugLogger.accept("ScoreboardTrainHudManager shutdown");
   }
 
-  /** 清理站点/公司等缓存，下次 tick 时重新从存储加载。 */
-  public void clearCaches() {
-    contextResolver.clearCaches();
-  }
-
   @EventHandler
   public void onQuit(PlayerQuitEvent event) {
     clear(event.getPlayer());
@@ -216,12 +198,13 @@ public final class ScoreboardTrainHudManager implements Listener {
       return Optional.empty();
     }
 
-    Optional<TrainHudContext> contextOpt = contextResolver.resolveContext(group);
-    if (contextOpt.isEmpty()) {
+    Optional<TrainHudFrame> frameOpt = frames.frame(group);
+    if (frameOpt.isEmpty()) {
       clear(player);
       return Optional.empty();
     }
-    TrainHudContext context = contextOpt.get();
+    TrainHudFrame frame = frameOpt.get();
+    TrainHudContext context = frame.context();
 
     Optional<String> templateOpt =
         templateService != null
@@ -231,15 +214,7 @@ public final class ScoreboardTrainHudManager implements Listener {
             : Optional.empty();
     ScoreboardHudTemplate template = resolveParsedTemplate(resolveTemplate(templateOpt));
     long nowMillis = System.currentTimeMillis();
-    float baseProgress =
-        progressTracker.progress(
-            trainName,
-            context.routeIndex(),
-            context.eta().etaEpochMillis(),
-            nowMillis,
-            context.moving());
-    Map<String, String> placeholders = contextResolver.buildPlaceholders(context, baseProgress);
-    contextResolver.applyPlayerPlaceholders(placeholders, player, group);
+    Map<String, String> placeholders = frames.placeholdersFor(frame, player, group);
     boolean terminalArriving = context.terminalNextStop() && context.eta().arriving();
     HudState state =
         stateTracker.resolve(
@@ -255,7 +230,7 @@ public final class ScoreboardTrainHudManager implements Listener {
     Optional<ScoreboardHudTemplate.Page> pageOpt = template.resolvePage(state, tickCounter);
     String title = resolveTitle(template, pageOpt, placeholders);
     List<String> resolvedLines =
-        renderPage(pageOpt, trainName, context, placeholders, state, frameDelta, tickCounter);
+        renderPage(pageOpt, trainName, frame, placeholders, state, frameDelta, tickCounter);
     List<String> normalized = normalizeLines(resolvedLines, template.lineCount());
 
     PlayerHudState stateHolder = ensureScoreboard(player, template.lineCount());
@@ -321,14 +296,18 @@ public final class ScoreboardTrainHudManager implements Listener {
       return;
     }
     int lineCount = Math.min(state.lineCount, lines.size());
+    List<String> previous = state.lastLines;
     for (int i = 0; i < lineCount; i++) {
+      String raw = lines.get(i);
+      if (i < previous.size() && raw.equals(previous.get(i))) {
+        continue;
+      }
       String entry = lineEntry(i);
       Team team = state.scoreboard.getTeam(teamName(i));
       if (team == null) {
         continue;
       }
-      String raw = lines.get(i);
-      Component component = ScoreboardHudTemplateRenderer.renderResolved(raw, debugLogger);
+      Component component = renderCache.renderResolved(raw);
       team.prefix(component);
       team.suffix(Component.empty());
       if (!team.hasEntry(entry)) {
@@ -345,7 +324,7 @@ public final class ScoreboardTrainHudManager implements Listener {
     if (resolved.equals(state.lastTitle)) {
       return;
     }
-    Component component = ScoreboardHudTemplateRenderer.renderResolved(resolved, debugLogger);
+    Component component = renderCache.renderResolved(resolved);
     state.objective.displayName(component);
     state.lastTitle = resolved;
   }
@@ -385,13 +364,13 @@ public final class ScoreboardTrainHudManager implements Listener {
         pageOpt
             .flatMap(ScoreboardHudTemplate.Page::title)
             .orElseGet(() -> template.title().orElse(""));
-    return ScoreboardHudTemplateRenderer.applyPlaceholders(title, placeholders);
+    return renderCache.resolve(title, placeholders);
   }
 
   private List<String> renderPage(
       Optional<ScoreboardHudTemplate.Page> pageOpt,
       String trainName,
-      TrainHudContext context,
+      TrainHudFrame frame,
       Map<String, String> placeholders,
       HudState state,
       TrainFrameDelta frameDelta,
@@ -404,7 +383,7 @@ public final class ScoreboardTrainHudManager implements Listener {
       return renderStaticPage(staticPage, placeholders);
     }
     if (page instanceof ScoreboardHudTemplate.ListPage listPage) {
-      return renderListPage(listPage, trainName, context, placeholders, state, frameDelta, tick);
+      return renderListPage(listPage, trainName, frame, placeholders, state, frameDelta, tick);
     }
     return List.of();
   }
@@ -413,7 +392,7 @@ public final class ScoreboardTrainHudManager implements Listener {
       ScoreboardHudTemplate.StaticPage page, Map<String, String> placeholders) {
     List<String> output = new ArrayList<>();
     for (String line : page.lines()) {
-      output.add(ScoreboardHudTemplateRenderer.applyPlaceholders(line, placeholders));
+      output.add(renderCache.resolve(line, placeholders));
     }
     return output;
   }
@@ -421,13 +400,13 @@ public final class ScoreboardTrainHudManager implements Listener {
   private List<String> renderListPage(
       ScoreboardHudTemplate.ListPage page,
       String trainName,
-      TrainHudContext context,
+      TrainHudFrame frame,
       Map<String, String> placeholders,
       HudState state,
       TrainFrameDelta frameDelta,
       long tick) {
     List<String> output = new ArrayList<>();
-    int totalStops = contextResolver.resolveUpcomingStops(context, 0).total();
+    int totalStops = frames.upcomingStops(frame, 0).total();
     int cappedTotalStops = Math.min(totalStops, page.limit());
     int fixedRows = Math.min(page.window().fixed(), page.limit());
     int windowRows = Math.max(0, page.window().size());
@@ -439,8 +418,7 @@ public final class ScoreboardTrainHudManager implements Listener {
             key, frameDelta, remainingStops, page.window(), frameDelta.nextStopChanged(), tick);
     int windowOffset = computeWindowOffset(windowState, tick, remainingStops, page.window());
     int limit = Math.min(page.limit(), fixedRows + windowOffset + windowRows);
-    TrainHudContextResolver.UpcomingStops upcoming =
-        contextResolver.resolveUpcomingStops(context, limit);
+    TrainHudContextResolver.UpcomingStops upcoming = frames.upcomingStops(frame, limit);
 
     output.addAll(renderLineList(page.header(), placeholders));
     if (fixedRows + windowRows <= 0) {
@@ -449,7 +427,7 @@ public final class ScoreboardTrainHudManager implements Listener {
     }
     if (cappedTotalStops <= 0) {
       String empty = page.empty().orElse("-");
-      String rendered = ScoreboardHudTemplateRenderer.applyPlaceholders(empty, placeholders);
+      String rendered = renderCache.resolve(empty, placeholders);
       for (int i = 0; i < fixedRows + windowRows; i++) {
         for (int j = 0; j < rowLines; j++) {
           output.add(rendered);
@@ -476,7 +454,7 @@ public final class ScoreboardTrainHudManager implements Listener {
     }
     List<String> output = new ArrayList<>();
     for (String line : lines) {
-      output.add(ScoreboardHudTemplateRenderer.applyPlaceholders(line, placeholders));
+      output.add(renderCache.resolve(line, placeholders));
     }
     return output;
   }
@@ -515,7 +493,7 @@ public final class ScoreboardTrainHudManager implements Listener {
         contextResolver.applyEtaStatusPlaceholders(itemPlaceholders, null);
       }
       for (String rowFormat : rowLines) {
-        output.add(ScoreboardHudTemplateRenderer.applyPlaceholders(rowFormat, itemPlaceholders));
+        output.add(renderCache.resolve(rowFormat, itemPlaceholders));
       }
     }
     return output;
@@ -1,10 +1,14 @@
 package org.fetarute.fetaruteTCAddon.storage;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import org.fetarute.fetaruteTCAddon.FetaruteTCAddon;
 import org.fetarute.fetaruteTCAddon.config.ConfigManager;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+import org.fetarute.fetaruteTCAddon.storage.async.AsyncStorage;
+import org.fetarute.fetaruteTCAddon.storage.async.AsyncStorageExecutor;
 import org.fetarute.fetaruteTCAddon.storage.dialect.MySqlDialect;
 import org.fetarute.fetaruteTCAddon.storage.dialect.SqlDialect;
 import org.fetarute.fetaruteTCAddon.storage.dialect.SqliteDialect;
@@ -16,15 +20,26 @@ import org.fetarute.fetaruteTCAddon.utils.LoggerManager;
  * 管理存储后端生命周期：读取配置、选择 SQL 方言、生成 schema 与创建 StorageProvider。
  *
  * <p>目前 provider 仍为占位实现，但暴露 readiness 标记便于命令层做友好提示。
+ *
+ * <p>同时持有存储专用异步执行器（{@link #async()}）：SQLite 单 worker，MySQL 按连接池大小放宽（最多 {@link
+ * #MAX_MYSQL_WORKERS}）。reload 时先排空旧执行器，再切换 provider。
  */
 public final class StorageManager {
 
+  /** MySQL 后端异步 worker 上限。 */
+  static final int MAX_MYSQL_WORKERS = 4;
+
+  /** reload/关闭时等待异步队列排空的超时。 */
+  private static final Duration ASYNC_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
   private final FetaruteTCAddon plugin;
   private final LoggerManager logger;
   private ConfigManager.StorageSettings storageSettings;
   private StorageSchema storageSchema = new StorageSchema();
   private SqlDialect dialect = new SqliteDialect();
-  private StorageProvider storageProvider;
+  private volatile StorageProvider storageProvider;
+  private AsyncStorageExecutor asyncExecutor;
+  private AsyncStorage asyncStorage;
 
   public StorageManager(FetaruteTCAddon plugin, LoggerManager logger) {
     this.plugin = plugin;
@@ -40,8 +55,10 @@ public final class StorageManager {
     this.storageSettings = configView.storageSettings();
     this.dialect = resolveDialect(storageSettings.backend());
     this.storageSchema = resolveSchema(storageSettings);
+    closeAsyncQuietly();
     bootstrapProvider();
     applySchemaIfReady();
+    startAsync();
     logCurrentBackend();
   }
 
@@ -76,13 +93,67 @@ public final class StorageManager {
   }
 
   public boolean isReady() {
-    return storageProvider != null && !(storageProvider instanceof UnavailableStorageProvider);
+    StorageProvider provider = storageProvider;
+    return provider != null && !(provider instanceof UnavailableStorageProvider);
+  }
+
+  /**
+   * 异步存储门面；后端未就绪或尚未 apply 时为空，调用方应回退到同步路径或跳过。
+   *
+   * <p>注意：门面在执行时才解析 provider，reload 后旧引用提交的任务会以 {@code StorageException} 失败。
+   */
+  public Optional<AsyncStorage> async() {
+    return isReady() ? Optional.ofNullable(asyncStorage) : Optional.empty();
   }
 
   public void shutdown() {
+    closeAsyncQuietly();
     closeProviderQuietly();
   }
 
+  private void startAsync() {
+    int workers = 1;
+    if (storageSettings.backend() == ConfigManager.StorageBackend.MYSQL) {
+      workers =
+          Math.max(
+              1, Math.min(MAX_MYSQL_WORKERS, storageSettings.poolSettings().maximumPoolSize() / 2));
+    }
+    AsyncStorageExecutor executor =
+        new AsyncStorageExecutor(
+            "fta-storage",
+            workers,
+            AsyncStorageExecutor.DEFAULT_QUEUE_CAPACITY,
+            mainThreadExecutor(),
+            logger::debug);
+    this.asyncExecutor = executor;
+    this.asyncStorage =
+        new AsyncStorage(
+            () -> isReady() ? Optional.ofNullable(storageProvider) : Optional.empty(), executor);
+  }
+
+  private Executor mainThreadExecutor() {
+    if (plugin == null) {
+      return Runnable::run;
+    }
+    return task -> {
+      if (plugin.isEnabled()) {
+        plugin.getServer().getScheduler().runTask(plugin, task);
+      }
+    };
+  }
+
+  private void closeAsyncQuietly() {
+    AsyncStorageExecutor executor = asyncExecutor;
+    asyncExecutor = null;
+    asyncStorage = null;
+    if (executor == null) {
+      return;
+    }
+    if (!executor.shutdown(ASYNC_DRAIN_TIMEOUT)) {
+      logger.warn("存储异步队列未能在超时内排空，剩余写入已丢弃");
+    }
+  }
+
   private void logCurrentBackend() {
     if (storageSettings == null) {
       logger.warn("存储后端尚未配置，跳过状态输出");
@@ -169,6 +240,7 @@ public final class StorageManager {
    *
    * <ul>
    *   <li>routes.operation_type 列补齐（默认 OPERATION）
+   *   <li>rail_graph_snapshots.component_signatures 列补齐（可空，缺失时按全量差异写入）
    *   <li>RoutePatternType 历史值迁移
    * </ul>
    *
@@ -179,6 +251,7 @@ public final class StorageManager {
    */
   private void applyCompatibilityMigrations(java.sql.Connection connection) {
     ensureRailGraphSnapshotSignatureColumn(connection);
+    ensureRailGraphSnapshotComponentSignaturesColumn(connection);
     ensureRouteOperationTypeColumn(connection);
     migrateRoutePatternTypeEnums(connection);
   }
@@ -207,6 +280,31 @@ public final class StorageManager {
     }
   }
 
+  /** 兼容性迁移：为旧版 rail_graph_snapshots 补齐 component_signatures 列。 */
+  private void ensureRailGraphSnapshotComponentSignaturesColumn(java.sql.Connection connection) {
+    String snapshotsTable = storageSchema.tablePrefix() + "rail_graph_snapshots";
+    String sql =
+        "ALTER TABLE "
+            + snapshotsTable
+            + " ADD COLUMN component_signatures "
+            + dialect.textType();
+    try (var statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+      logger.debug("已应用兼容性迁移: rail_graph_snapshots.component_signatures (added)");
+    } catch (java.sql.SQLException ex) {
+      String message =
+          ex.getMessage() == null ? "" : ex.getMessage().toLowerCase(java.util.Locale.ROOT);
+      if (message.contains("duplicate") || message.contains("already exists")) {
+        return;
+      }
+      logger.warn(
+          "应用兼容性迁移失败: 添加 rail_graph_snapshots.component_signatures: " + ex.getMessage());
+    } catch (Exception ex) {
+      logger.warn(
+          "应用兼容性迁移失败: 添加 rail_graph_snapshots.component_signatures: " + ex.getMessage());
+    }
+  }
+
   /** 兼容性迁移：为旧版 routes 表补齐 operation_type 列。 */
   private void ensureRouteOperationTypeColumn(java.sql.Connection connection) {
     String routesTable = storageSchema.tablePrefix() + "routes";
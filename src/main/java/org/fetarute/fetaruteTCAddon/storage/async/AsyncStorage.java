@@ -0,0 +1,107 @@
+package org.fetarute.fetaruteTCAddon.storage.async;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageException;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+
+/**
+ * 非阻塞仓库门面：把任意仓库调用包装为在存储执行器上运行的 {@link CompletableFuture}。
+ *
+ * <p>不为每个仓库单独生成 async 变体，而是以 {@code provider -> provider.xxx().yyy(...)} 的形式提交；provider 在执行时才解析，
+ * 因此 reload 期间排队的任务会使用新的 provider（或在后端不可用时以 {@link StorageException} 失败）。
+ *
+ * <p>返回的 future 在存储线程完成；需要触碰 Bukkit 世界/实体时请经 {@link #onMain} 切回主线程。
+ */
+public final class AsyncStorage {
+
+  private final Supplier<Optional<StorageProvider>> providerSupplier;
+  private final AsyncStorageExecutor executor;
+
+  public AsyncStorage(
+      Supplier<Optional<StorageProvider>> providerSupplier, AsyncStorageExecutor executor) {
+    this.providerSupplier = Objects.requireNonNull(providerSupplier, "providerSupplier");
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  /** 只读查询（不开启事务）。 */
+  public <T> CompletableFuture<T> query(StorageFunction<T> function) {
+    Objects.requireNonNull(function, "function");
+    return executor.submit(() -> function.apply(requireProvider()));
+  }
+
+  /** 在单个事务内执行（事务连接绑定在存储线程上，整个回调都在同一线程运行）。 */
+  public <T> CompletableFuture<T> transaction(StorageFunction<T> function) {
+    Objects.requireNonNull(function, "function");
+    return executor.submit(() -> runInTransaction(requireProvider(), function));
+  }
+
+  /**
+   * 可合并的事务写入：同一 key 尚未执行的写入只保留最后一次（适合“最终状态”类写入，如按节点 upsert）。
+   *
+   * @param key 合并键（建议带类型前缀，如 {@code rail-node:<world>:<nodeId>}）
+   */
+  public CompletableFuture<Void> write(String key, StorageAction action) {
+    Objects.requireNonNull(action, "action");
+    return executor.submitCoalesced(
+        key,
+        () -> {
+          StorageProvider provider = requireProvider();
+          runInTransaction(
+              provider,
+              p -> {
+                action.accept(p);
+                return null;
+              });
+          return null;
+        });
+  }
+
+  /** 把 future 的完成切回主线程。 */
+  public <T> CompletableFuture<T> onMain(CompletableFuture<T> future) {
+    return executor.onMain(future);
+  }
+
+  /** 主线程 executor。 */
+  public Executor mainThread() {
+    return executor.mainThread();
+  }
+
+  public AsyncStorageExecutor.Stats stats() {
+    return executor.stats();
+  }
+
+  private StorageProvider requireProvider() {
+    return providerSupplier.get().orElseThrow(() -> new StorageException("存储后端未就绪"));
+  }
+
+  private static <T> T runInTransaction(StorageProvider provider, StorageFunction<T> function) {
+    return provider
+        .transactionManager()
+        .execute(
+            () -> {
+              try {
+                return function.apply(provider);
+              } catch (RuntimeException ex) {
+                throw ex;
+              } catch (Exception ex) {
+                throw new StorageException("存储事务执行失败: " + ex.getMessage(), ex);
+              }
+            });
+  }
+
+  /** 带返回值的仓库调用。 */
+  @FunctionalInterface
+  public interface StorageFunction<T> {
+    T apply(StorageProvider provider) throws Exception;
+  }
+
+  /** 无返回值的仓库写入。 */
+  @FunctionalInterface
+  public interface StorageAction {
+    void accept(StorageProvider provider) throws Exception;
+  }
+}
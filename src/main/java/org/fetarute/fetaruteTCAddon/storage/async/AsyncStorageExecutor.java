@@ -0,0 +1,286 @@
+package org.fetarute.fetaruteTCAddon.storage.async;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageException;
+
+/**
+ * 存储专用有界执行器：所有异步仓库调用都在这里排队执行，避免 JDBC 阻塞主线程。
+ *
+ * <p>特性：
+ *
+ * <ul>
+ *   <li>固定 worker 数 + 有界队列；队列满时返回失败的 future（{@link StorageException}），不阻塞提交方。
+ *   <li>运行时支持虚拟线程（Java 21+）时 worker 使用虚拟线程，否则使用守护平台线程。
+ *   <li>{@link #submitCoalesced}：同一 key 尚未开始执行的写入会被最新一次覆盖；同 key 写入严格串行。
+ *   <li>{@link #onMain}：把结果回调切回主线程（由调用方注入主线程 executor）。
+ *   <li>队列深度、执行/等待耗时等指标通过 {@link #stats()} 暴露。
+ * </ul>
+ *
+ * <p>SQLite 只有单连接，worker 数应为 1；MySQL 可按连接池大小放宽。
+ */
+public final class AsyncStorageExecutor {
+
+  /** 默认队列容量。 */
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+  private final String name;
+  private final ThreadPoolExecutor pool;
+  private final Executor mainThread;
+  private final Consumer<String> debugLogger;
+  private final boolean virtualThreads;
+  private final Map<String, PendingWrite> pendingWrites = new HashMap<>();
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAdder runNanos = new LongAdder();
+  private final AtomicLong maxRunNanos = new AtomicLong();
+
+  /**
+   * @param name 线程名前缀
+   * @param workers worker 数（至少 1）
+   * @param queueCapacity 队列容量（至少 16）
+   * @param mainThread 主线程 executor（用于 {@link #onMain}）
+   * @param debugLogger 调试日志输出（可为 null）
+   */
+  public AsyncStorageExecutor(
+      String name,
+      int workers,
+      int queueCapacity,
+      Executor mainThread,
+      Consumer<String> debugLogger) {
+    this.name = name == null || name.isBlank() ? "fta-storage" : name;
+    this.mainThread = Objects.requireNonNull(mainThread, "mainThread");
+    this.debugLogger = debugLogger != null ? debugLogger : msg -> {};
+    int size = Math.max(1, workers);
+    ThreadFactory virtualFactory = virtualThreadFactory(this.name);
+    this.virtualThreads = virtualFactory != null;
+    this.pool =
+        new ThreadPoolExecutor(
+            size,
+            size,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(16, queueCapacity)),
+            virtualFactory != null ? virtualFactory : platformThreadFactory(this.name));
+  }
+
+  /** 提交一次存储任务；返回的 future 在 worker 线程完成。 */
+  public <T> CompletableFuture<T> submit(StorageCall<T> call) {
+    Objects.requireNonNull(call, "call");
+    CompletableFuture<T> future = new CompletableFuture<>();
+    long enqueuedAt = System.nanoTime();
+    submitted.increment();
+    try {
+      pool.execute(
+          () -> {
+            long startedAt = System.nanoTime();
+            waitNanos.add(startedAt - enqueuedAt);
+            try {
+              T result = call.call();
+              completed.increment();
+              future.complete(result);
+            } catch (Throwable ex) {
+              failed.increment();
+              future.completeExceptionally(ex);
+            } finally {
+              long elapsed = System.nanoTime() - startedAt;
+              runNanos.add(elapsed);
+              maxRunNanos.accumulateAndGet(elapsed, Math::max);
+            }
+          });
+    } catch (RejectedExecutionException ex) {
+      rejected.increment();
+      future.completeExceptionally(
+          new StorageException(
+              "存储队列已满或已关闭: queue=" + pool.getQueue().size() + " executor=" + name, ex));
+    }
+    return future;
+  }
+
+  /**
+   * 提交可合并的写入：同一 key 尚未开始执行的写入只保留最后一次。
+   *
+   * <p>被合并的调用方拿到同一个 future（完成于最终执行的那次写入）。同 key 正在执行时，新写入排在其完成之后，
+   * 保证同 key 写入顺序。
+   */
+  public CompletableFuture<Void> submitCoalesced(String key, StorageCall<Void> call) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(call, "call");
+    PendingWrite pending;
+    PendingWrite running;
+    synchronized (pendingWrites) {
+      PendingWrite existing = pendingWrites.get(key);
+      if (existing != null && !existing.started) {
+        existing.call = call;
+        coalesced.increment();
+        return existing.future;
+      }
+      pending = new PendingWrite(key, call);
+      pendingWrites.put(key, pending);
+      running = existing;
+    }
+    if (running == null) {
+      enqueue(pending);
+    } else {
+      running.future.whenComplete((ignored, error) -> enqueue(pending));
+    }
+    return pending.future;
+  }
+
+  /** 返回一个在主线程完成的 future（结果/异常与原 future 一致）。 */
+  public <T> CompletableFuture<T> onMain(CompletableFuture<T> future) {
+    return future.whenCompleteAsync((result, error) -> {}, mainThread);
+  }
+
+  public Executor mainThread() {
+    return mainThread;
+  }
+
+  /** 当前指标快照。 */
+  public Stats stats() {
+    long done = completed.sum() + failed.sum();
+    long started = Math.max(1L, done);
+    int pendingKeys;
+    synchronized (pendingWrites) {
+      pendingKeys = pendingWrites.size();
+    }
+    return new Stats(
+        pool.getMaximumPoolSize(),
+        virtualThreads,
+        pool.getQueue().size(),
+        pool.getActiveCount(),
+        pendingKeys,
+        submitted.sum(),
+        completed.sum(),
+        failed.sum(),
+        rejected.sum(),
+        coalesced.sum(),
+        done == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / started,
+        done == 0 ? 0.0 : runNanos.sum() / 1_000_000.0 / started,
+        maxRunNanos.get() / 1_000_000.0);
+  }
+
+  /**
+   * 停止接收新任务并等待已排队任务执行完毕。
+   *
+   * @return 是否在超时前全部完成
+   */
+  public boolean shutdown(Duration timeout) {
+    pool.shutdown();
+    try {
+      boolean drained =
+          pool.awaitTermination(
+              timeout == null ? 10_000L : Math.max(0L, timeout.toMillis()), TimeUnit.MILLISECONDS);
+      if (!drained) {
+        debugLogger.accept("存储执行器关闭超时，丢弃剩余任务: queue=" + pool.getQueue().size());
+        pool.shutdownNow();
+      }
+      return drained;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      pool.shutdownNow();
+      return false;
+    }
+  }
+
+  private void enqueue(PendingWrite pending) {
+    submit(
+            () -> {
+              StorageCall<Void> call;
+              synchronized (pendingWrites) {
+                pending.started = true;
+                call = pending.call;
+              }
+              return call.call();
+            })
+        .whenComplete(
+            (result, error) -> {
+              synchronized (pendingWrites) {
+                pendingWrites.remove(pending.key, pending);
+              }
+              if (error != null) {
+                pending.future.completeExceptionally(error);
+              } else {
+                pending.future.complete(result);
+              }
+            });
+  }
+
+  private static ThreadFactory platformThreadFactory(String name) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /** Java 21+ 时通过反射创建虚拟线程工厂；编译目标为 17，不能直接引用 API。 */
+  private static ThreadFactory virtualThreadFactory(String name) {
+    try {
+      Method ofVirtual = Thread.class.getMethod("ofVirtual");
+      Object builder = ofVirtual.invoke(null);
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      builder =
+          builderType
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, name + "-", 1L);
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      return null;
+    }
+  }
+
+  /** 存储调用（允许抛出受检异常）。 */
+  @FunctionalInterface
+  public interface StorageCall<T> {
+    T call() throws Exception;
+  }
+
+  /** 执行器指标快照（耗时单位：毫秒）。 */
+  public record Stats(
+      int workers,
+      boolean virtualThreads,
+      int queueDepth,
+      int active,
+      int pendingWriteKeys,
+      long submitted,
+      long completed,
+      long failed,
+      long rejected,
+      long coalesced,
+      double avgWaitMillis,
+      double avgRunMillis,
+      double maxRunMillis) {}
+
+  private static final class PendingWrite {
+    private final String key;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private StorageCall<Void> call;
+    private boolean started;
+
+    private PendingWrite(String key, StorageCall<Void> call) {
+      this.key = key;
+      this.call = call;
+    }
+  }
+}
@@ -90,6 +90,25 @@ public final class JdbcOperatorRepository extends JdbcRepositorySupport
     }
   }
 
+  @Override
+  public List<Operator> listAll() {
+    String sql =
+        "SELECT id, code, company_id, name, secondary_name, color_theme, priority, description, metadata, created_at, updated_at FROM "
+            + table("operators")
+            + " ORDER BY company_id ASC, priority DESC, code ASC";
+    List<Operator> results = new ArrayList<>();
+    try (var connection = openConnection();
+        var statement = connection.prepareStatement(sql);
+        var rs = statement.executeQuery()) {
+      while (rs.next()) {
+        results.add(mapRow(rs));
+      }
+      return results;
+    } catch (SQLException ex) {
+      throw new StorageException("列出全部运营商失败", ex);
+    }
+  }
+
   @Override
   public Operator save(Operator operator) {
     Objects.requireNonNull(operator, "operator");
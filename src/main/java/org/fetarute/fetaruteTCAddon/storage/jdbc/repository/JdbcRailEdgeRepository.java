@@ -79,6 +79,68 @@ public final class JdbcRailEdgeRepository extends JdbcRepositorySupport
     }
   }
 
+  @Override
+  public void applyDelta(
+      UUID worldId, Collection<RailEdgeRecord> upserts, Collection<EdgeId> deletes) {
+    Objects.requireNonNull(worldId, "worldId");
+    Objects.requireNonNull(upserts, "upserts");
+    Objects.requireNonNull(deletes, "deletes");
+    if (upserts.isEmpty() && deletes.isEmpty()) {
+      return;
+    }
+    String deleteSql =
+        "DELETE FROM " + table("rail_edges") + " WHERE world_id = ? AND node_a = ? AND node_b = ?";
+    String insert =
+        "INSERT INTO "
+            + table("rail_edges")
+            + " (world_id, node_a, node_b, length_blocks, base_speed_limit, bidirectional)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+    String upsertSql =
+        dialect.applyUpsert(
+            insert,
+            List.of("world_id", "node_a", "node_b"),
+            List.of("length_blocks", "base_speed_limit", "bidirectional"));
+    try (var connection = openConnection()) {
+      if (!deletes.isEmpty()) {
+        try (var statement = connection.prepareStatement(deleteSql)) {
+          int pending = 0;
+          for (EdgeId edgeId : deletes) {
+            setUuid(statement, 1, worldId);
+            statement.setString(2, edgeId.a().value());
+            statement.setString(3, edgeId.b().value());
+            statement.addBatch();
+            if (++pending >= BATCH_CHUNK_SIZE) {
+              statement.executeBatch();
+              pending = 0;
+            }
+          }
+          if (pending > 0) {
+            statement.executeBatch();
+          }
+        }
+      }
+      if (!upserts.isEmpty()) {
+        try (var statement = connection.prepareStatement(upsertSql)) {
+          int pending = 0;
+          for (RailEdgeRecord edge : upserts) {
+            writeRow(statement, edge);
+            statement.addBatch();
+            if (++pending >= BATCH_CHUNK_SIZE) {
+              statement.executeBatch();
+              pending = 0;
+            }
+          }
+          if (pending > 0) {
+            statement.executeBatch();
+          }
+        }
+      }
+      connection.commitIfNecessary();
+    } catch (SQLException ex) {
+      throw new StorageException("增量写入 rail_edges 失败", ex);
+    }
+  }
+
   @Override
   public void deleteWorld(UUID worldId) {
     Objects.requireNonNull(worldId, "worldId");
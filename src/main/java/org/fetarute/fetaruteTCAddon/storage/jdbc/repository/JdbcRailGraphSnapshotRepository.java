@@ -4,10 +4,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import javax.sql.DataSource;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphComponentSignatures;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphSnapshotRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailGraphSnapshotRepository;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageException;
@@ -29,7 +31,8 @@ public final class JdbcRailGraphSnapshotRepository extends JdbcRepositorySupport
   public Optional<RailGraphSnapshotRecord> findByWorld(UUID worldId) {
     Objects.requireNonNull(worldId, "worldId");
     String sql =
-        "SELECT world_id, built_at, node_count, edge_count, node_signature FROM "
+        "SELECT world_id, built_at, node_count, edge_count, node_signature, component_signatures"
+            + " FROM "
             + table("rail_graph_snapshots")
             + " WHERE world_id = ?";
     try (var connection = openConnection();
@@ -52,13 +55,14 @@ public final class JdbcRailGraphSnapshotRepository extends JdbcRepositorySupport
     String insert =
         "INSERT INTO "
             + table("rail_graph_snapshots")
-            + " (world_id, built_at, node_count, edge_count, node_signature)"
-            + " VALUES (?, ?, ?, ?, ?)";
+            + " (world_id, built_at, node_count, edge_count, node_signature, component_signatures)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
     String sql =
         dialect.applyUpsert(
             insert,
             List.of("world_id"),
-            List.of("built_at", "node_count", "edge_count", "node_signature"));
+            List.of(
+                "built_at", "node_count", "edge_count", "node_signature", "component_signatures"));
     try (var connection = openConnection();
         var statement = connection.prepareStatement(sql)) {
       setUuid(statement, 1, snapshot.worldId());
@@ -66,6 +70,8 @@ public final class JdbcRailGraphSnapshotRepository extends JdbcRepositorySupport
       statement.setInt(3, snapshot.nodeCount());
       statement.setInt(4, snapshot.edgeCount());
       statement.setString(5, snapshot.nodeSignature());
+      statement.setString(
+          6, RailGraphComponentSignatures.encode(snapshot.componentSignatures()));
       statement.executeUpdate();
       connection.commitIfNecessary();
       return snapshot;
@@ -94,9 +100,12 @@ public final class JdbcRailGraphSnapshotRepository extends JdbcRepositorySupport
     Integer nodeCount = readNullableInteger(rs, "node_count");
     Integer edgeCount = readNullableInteger(rs, "edge_count");
     String signature = rs.getString("node_signature");
+    Map<String, String> componentSignatures =
+        RailGraphComponentSignatures.decode(rs.getString("component_signatures"));
     if (nodeCount == null || edgeCount == null) {
       throw new StorageException("rail_graph_snapshots 行缺少必要字段");
     }
-    return new RailGraphSnapshotRecord(worldId, builtAt, nodeCount, edgeCount, signature);
+    return new RailGraphSnapshotRecord(
+        worldId, builtAt, nodeCount, edgeCount, signature, componentSignatures);
   }
 }
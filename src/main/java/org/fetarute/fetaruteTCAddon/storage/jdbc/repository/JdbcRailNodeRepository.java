@@ -57,27 +57,7 @@ public final class JdbcRailNodeRepository extends JdbcRepositorySupport
   @Override
   public void upsert(RailNodeRecord node) {
     Objects.requireNonNull(node, "node");
-    String insert =
-        "INSERT INTO "
-            + table("rail_nodes")
-            + " (world_id, node_id, node_type, x, y, z, tc_destination, waypoint_operator, waypoint_origin, waypoint_destination, waypoint_track, waypoint_sequence, waypoint_kind)"
-            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-    String sql =
-        dialect.applyUpsert(
-            insert,
-            List.of("world_id", "node_id"),
-            List.of(
-                "node_type",
-                "x",
-                "y",
-                "z",
-                "tc_destination",
-                "waypoint_operator",
-                "waypoint_origin",
-                "waypoint_destination",
-                "waypoint_track",
-                "waypoint_sequence",
-                "waypoint_kind"));
+    String sql = upsertSql();
 
     try (var connection = openConnection();
         var statement = connection.prepareStatement(sql)) {
@@ -151,6 +131,56 @@ public final class JdbcRailNodeRepository extends JdbcRepositorySupport
     }
   }
 
+  @Override
+  public void applyDelta(
+      UUID worldId, Collection<RailNodeRecord> upserts, Collection<NodeId> deletes) {
+    Objects.requireNonNull(worldId, "worldId");
+    Objects.requireNonNull(upserts, "upserts");
+    Objects.requireNonNull(deletes, "deletes");
+    if (upserts.isEmpty() && deletes.isEmpty()) {
+      return;
+    }
+    String deleteSql = "DELETE FROM " + table("rail_nodes") + " WHERE world_id = ? AND node_id = ?";
+    try (var connection = openConnection()) {
+      if (!deletes.isEmpty()) {
+        try (var statement = connection.prepareStatement(deleteSql)) {
+          int pending = 0;
+          for (NodeId nodeId : deletes) {
+            setUuid(statement, 1, worldId);
+            statement.setString(2, nodeId.value());
+            statement.addBatch();
+            if (++pending >= BATCH_CHUNK_SIZE) {
+              statement.executeBatch();
+              pending = 0;
+            }
+          }
+          if (pending > 0) {
+            statement.executeBatch();
+          }
+        }
+      }
+      if (!upserts.isEmpty()) {
+        try (var statement = connection.prepareStatement(upsertSql())) {
+          int pending = 0;
+          for (RailNodeRecord node : upserts) {
+            writeRow(statement, node);
+            statement.addBatch();
+            if (++pending >= BATCH_CHUNK_SIZE) {
+              statement.executeBatch();
+              pending = 0;
+            }
+          }
+          if (pending > 0) {
+            statement.executeBatch();
+          }
+        }
+      }
+      connection.commitIfNecessary();
+    } catch (SQLException ex) {
+      throw new StorageException("增量写入 rail_nodes 失败", ex);
+    }
+  }
+
   @Override
   public void deleteWorld(UUID worldId) {
     Objects.requireNonNull(worldId, "worldId");
@@ -165,6 +195,29 @@ public final class JdbcRailNodeRepository extends JdbcRepositorySupport
     }
   }
 
+  private String upsertSql() {
+    String insert =
+        "INSERT INTO "
+            + table("rail_nodes")
+            + " (world_id, node_id, node_type, x, y, z, tc_destination, waypoint_operator, waypoint_origin, waypoint_destination, waypoint_track, waypoint_sequence, waypoint_kind)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    return dialect.applyUpsert(
+        insert,
+        List.of("world_id", "node_id"),
+        List.of(
+            "node_type",
+            "x",
+            "y",
+            "z",
+            "tc_destination",
+            "waypoint_operator",
+            "waypoint_origin",
+            "waypoint_destination",
+            "waypoint_track",
+            "waypoint_sequence",
+            "waypoint_kind"));
+  }
+
   private void writeRow(PreparedStatement statement, RailNodeRecord node) throws SQLException {
     setUuid(statement, 1, node.worldId());
     statement.setString(2, node.nodeId().value());
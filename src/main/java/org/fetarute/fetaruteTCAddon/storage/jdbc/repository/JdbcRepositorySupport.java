@@ -27,6 +27,9 @@ abstract class JdbcRepositorySupport {
 
   private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
 
+  /** 批量写入时单次 executeBatch 的最大行数，避免大批次占用过多驱动内存与锁时间。 */
+  protected static final int BATCH_CHUNK_SIZE = 500;
+
   protected final DataSource dataSource;
   protected final SqlDialect dialect;
   protected final String tablePrefix;
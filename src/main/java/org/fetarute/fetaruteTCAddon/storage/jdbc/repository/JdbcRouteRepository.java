@@ -95,6 +95,25 @@ public final class JdbcRouteRepository extends JdbcRepositorySupport implements
     }
   }
 
+  @Override
+  public List<Route> listAll() {
+    String sql =
+        "SELECT id, code, line_id, name, secondary_name, pattern_type, operation_type, distance_m, runtime_secs, metadata, created_at, updated_at FROM "
+            + table("routes")
+            + " ORDER BY line_id ASC, code ASC";
+    List<Route> results = new ArrayList<>();
+    try (var connection = openConnection();
+        var statement = connection.prepareStatement(sql);
+        var rs = statement.executeQuery()) {
+      while (rs.next()) {
+        results.add(mapRow(rs));
+      }
+      return results;
+    } catch (SQLException ex) {
+      throw new StorageException("列出全部 Route 失败", ex);
+    }
+  }
+
   @Override
   public Route save(Route route) {
     Objects.requireNonNull(route, "route");
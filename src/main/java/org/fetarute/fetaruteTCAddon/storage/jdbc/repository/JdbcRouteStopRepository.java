@@ -52,6 +52,25 @@ public final class JdbcRouteStopRepository extends JdbcRepositorySupport
     }
   }
 
+  @Override
+  public List<RouteStop> listAll() {
+    String sql =
+        "SELECT route_id, sequence, station_id, waypoint_node_id, dwell_secs, pass_type, notes FROM "
+            + table("route_stops")
+            + " ORDER BY route_id ASC, sequence ASC";
+    List<RouteStop> results = new ArrayList<>();
+    try (var connection = openConnection();
+        var statement = connection.prepareStatement(sql);
+        var rs = statement.executeQuery()) {
+      while (rs.next()) {
+        results.add(mapRow(rs));
+      }
+      return results;
+    } catch (SQLException ex) {
+      throw new StorageException("列出全部 RouteStop 失败", ex);
+    }
+  }
+
   @Override
   public RouteStop save(RouteStop stop) {
     String insert =
@@ -510,7 +510,8 @@ public final class StorageSchema {
                     built_at %s NOT NULL,
                     node_count %s NOT NULL,
                     edge_count %s NOT NULL,
-                    node_signature %s NOT NULL
+                    node_signature %s NOT NULL,
+                    component_signatures %s
                 );
                 """,
         table("rail_graph_snapshots"),
@@ -518,7 +519,8 @@ public final class StorageSchema {
         dialect.timestampType(),
         dialect.intType(),
         dialect.intType(),
-        dialect.stringType());
+        dialect.stringType(),
+        dialect.textType());
   }
 
   private String formatDdl(String template, Object... args) {
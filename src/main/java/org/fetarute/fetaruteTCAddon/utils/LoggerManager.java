@@ -22,6 +22,11 @@ public final class LoggerManager {
     this.debugEnabled = debugEnabled;
   }
 
+  /** debug 是否开启；调用方可据此跳过昂贵的日志参数求值。 */
+  public boolean isDebugEnabled() {
+    return debugEnabled;
+  }
+
   public void info(String message) {
     logger.info(message);
   }
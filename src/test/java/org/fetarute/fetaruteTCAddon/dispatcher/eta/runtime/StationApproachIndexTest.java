@@ -0,0 +1,124 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteDefinition;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteId;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
+import org.junit.jupiter.api.Test;
+
+class StationApproachIndexTest {
+
+  private static final UUID WORLD = UUID.randomUUID();
+
+  @Test
+  void candidatesOnlyIncludeTrainsAheadOfStation() {
+    UUID routeUuid = UUID.randomUUID();
+    RouteDefinition route = route("SURN:S:AAA:1", "SURN:S:BBB:1", "SURN:S:CCC:1");
+    StationApproachIndex index = new StationApproachIndex(id -> Optional.of(route));
+
+    index.onUpdate("train-1", snapshot(routeUuid, route, 0));
+    index.onUpdate("train-2", snapshot(routeUuid, route, 1));
+
+    assertEquals(Set.of("train-1"), index.candidates("BBB"));
+    assertEquals(Set.of("train-1", "train-2"), index.candidates("SURN:CCC"));
+    assertEquals(Set.of("train-1", "train-2"), index.candidates("surn:s:ccc:1"));
+    assertTrue(index.candidates("AAA").isEmpty(), "已驶过的站点不应返回");
+
+    index.onUpdate("train-1", snapshot(routeUuid, route, 1));
+    assertTrue(index.candidates("BBB").isEmpty());
+
+    index.remove("train-2");
+    assertEquals(Set.of("train-1"), index.candidates("CCC"));
+  }
+
+  @Test
+  void unchangedProgressDoesNotReindex() {
+    UUID routeUuid = UUID.randomUUID();
+    RouteDefinition route = route("SURN:S:AAA:1", "SURN:S:BBB:1");
+    StationApproachIndex index = new StationApproachIndex(id -> Optional.of(route));
+
+    index.onUpdate("train-1", snapshot(routeUuid, route, 0));
+    index.onUpdate("train-1", snapshot(routeUuid, route, 0));
+
+    assertEquals(1L, index.reindexCount());
+  }
+
+  @Test
+  void reloadedRouteDefinitionIsReindexed() {
+    UUID routeUuid = UUID.randomUUID();
+    Map<UUID, RouteDefinition> routes = new HashMap<>();
+    routes.put(routeUuid, route("SURN:S:AAA:1", "SURN:S:BBB:1"));
+    StationApproachIndex index =
+        new StationApproachIndex(id -> Optional.ofNullable(routes.get(id)));
+
+    index.onUpdate("train-1", snapshot(routeUuid, routes.get(routeUuid), 0));
+    assertTrue(index.candidates("CCC").isEmpty());
+
+    routes.put(routeUuid, route("SURN:S:AAA:1", "SURN:S:BBB:1", "SURN:S:CCC:1"));
+    index.onUpdate("train-1", snapshot(routeUuid, routes.get(routeUuid), 0));
+
+    assertEquals(Set.of("train-1"), index.candidates("CCC"));
+  }
+
+  @Test
+  void unresolvedRouteIsAlwaysCandidate() {
+    UUID routeUuid = UUID.randomUUID();
+    RouteDefinition route = route("SURN:S:AAA:1");
+    StationApproachIndex index = new StationApproachIndex(id -> Optional.empty());
+
+    index.onUpdate("train-1", snapshot(routeUuid, route, 0));
+
+    assertEquals(Set.of("train-1"), index.candidates("ZZZ"));
+  }
+
+  @Test
+  void storeChangeFeedMaintainsIndex() {
+    UUID routeUuid = UUID.randomUUID();
+    RouteDefinition route = route("SURN:S:AAA:1", "SURN:S:BBB:1");
+    TrainSnapshotStore store = new TrainSnapshotStore();
+    store.update("train-1", snapshot(routeUuid, route, 0));
+
+    StationApproachIndex index = new StationApproachIndex(id -> Optional.of(route));
+    store.subscribe(index::onChange);
+    index.rebuild(store.snapshot());
+    assertEquals(Set.of("train-1"), index.candidates("BBB"), "绑定时应按现有快照重建");
+
+    store.update("train-2", snapshot(routeUuid, route, -1));
+    assertEquals(Set.of("train-1", "train-2"), index.candidates("BBB"));
+
+    store.remove("train-1");
+    assertEquals(Set.of("train-2"), index.candidates("BBB"));
+    assertEquals(1, index.trainCount());
+  }
+
+  private static RouteDefinition route(String... nodes) {
+    List<NodeId> waypoints = Arrays.stream(nodes).map(NodeId::of).toList();
+    return new RouteDefinition(RouteId.of("SURN:L1:R1"), waypoints, Optional.empty());
+  }
+
+  private static TrainRuntimeSnapshot snapshot(UUID routeUuid, RouteDefinition route, int index) {
+    return new TrainRuntimeSnapshot(
+        1L,
+        Instant.now(),
+        WORLD,
+        routeUuid,
+        route.id(),
+        index,
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.of(SignalAspect.PROCEED),
+        Optional.empty());
+  }
+}
@@ -0,0 +1,119 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.eta.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteId;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
+import org.junit.jupiter.api.Test;
+
+class TrainSnapshotStoreTest {
+
+  private static final RouteId ROUTE_ID = RouteId.of("SURN:L1:R1");
+
+  @Test
+  void generationIsSharedUntilNextWrite() {
+    TrainSnapshotStore store = new TrainSnapshotStore();
+    UUID world = UUID.randomUUID();
+    UUID route = UUID.randomUUID();
+    store.update("train-1", snapshot(world, route, 0));
+
+    TrainSnapshotStore.Generation first = store.generation();
+    assertSame(first, store.generation(), "无写入时应复用同一 generation");
+    assertSame(first.trains(), store.snapshot());
+
+    store.update("train-2", snapshot(world, route, 0));
+    TrainSnapshotStore.Generation second = store.generation();
+    assertNotSame(first, second);
+    assertEquals(store.version(), second.version());
+    assertEquals(1, first.trains().size(), "旧 generation 不应被修改");
+    assertEquals(2, second.trains().size());
+  }
+
+  @Test
+  void generationProvidesWorldAndRouteViews() {
+    TrainSnapshotStore store = new TrainSnapshotStore();
+    UUID worldA = UUID.randomUUID();
+    UUID worldB = UUID.randomUUID();
+    UUID routeA = UUID.randomUUID();
+    UUID routeB = UUID.randomUUID();
+    store.update("train-1", snapshot(worldA, routeA, 0));
+    store.update("train-2", snapshot(worldA, routeB, 0));
+    store.update("train-3", snapshot(worldB, routeA, 0));
+
+    TrainSnapshotStore.Generation generation = store.generation();
+
+    assertEquals(Set.of("train-1", "train-2"), generation.inWorld(worldA).keySet());
+    assertEquals(Set.of("train-1", "train-3"), generation.onRoute(routeA).keySet());
+    assertTrue(generation.inWorld(UUID.randomUUID()).isEmpty());
+  }
+
+  @Test
+  void changeFeedClassifiesUpdates() {
+    TrainSnapshotStore store = new TrainSnapshotStore();
+    List<TrainSnapshotChange.Kind> kinds = new ArrayList<>();
+    store.subscribe(change -> kinds.add(change.kind()));
+    UUID world = UUID.randomUUID();
+    UUID route = UUID.randomUUID();
+
+    store.update("train-1", snapshot(world, route, 0));
+    store.update("train-1", snapshot(world, route, 0));
+    store.update("train-1", snapshot(world, route, 1));
+    store.remove("train-1");
+    store.remove("train-1");
+
+    assertEquals(
+        List.of(
+            TrainSnapshotChange.Kind.ADDED,
+            TrainSnapshotChange.Kind.UPDATED,
+            TrainSnapshotChange.Kind.ADVANCED,
+            TrainSnapshotChange.Kind.REMOVED),
+        kinds);
+    assertEquals(4L, store.version(), "移除不存在的列车不应推进版本");
+  }
+
+  @Test
+  void listenerFailureIsCountedAndLoggedWithoutBlockingOthers() {
+    List<String> logs = new ArrayList<>();
+    TrainSnapshotStore store = new TrainSnapshotStore(logs::add);
+    List<String> delivered = new ArrayList<>();
+    store.subscribe(
+        change -> {
+          throw new IllegalStateException("boom");
+        });
+    store.subscribe(change -> delivered.add(change.trainName()));
+    UUID world = UUID.randomUUID();
+    UUID route = UUID.randomUUID();
+
+    store.update("train-1", snapshot(world, route, 0));
+    store.update("train-2", snapshot(world, route, 0));
+
+    assertEquals(List.of("train-1", "train-2"), delivered);
+    assertEquals(2L, store.listenerFailures());
+    assertEquals(1, logs.size(), "首次失败立即告警，之后按间隔告警");
+    assertTrue(logs.get(0).contains("train-1"));
+  }
+
+  private static TrainRuntimeSnapshot snapshot(UUID world, UUID route, int index) {
+    return new TrainRuntimeSnapshot(
+        1L,
+        Instant.now(),
+        world,
+        route,
+        ROUTE_ID,
+        index,
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.of(SignalAspect.PROCEED),
+        Optional.empty());
+  }
+}
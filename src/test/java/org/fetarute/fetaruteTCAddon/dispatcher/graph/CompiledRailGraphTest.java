@@ -0,0 +1,133 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailEdgeCostModel;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailEdgeCostModels;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.junit.jupiter.api.Test;
+
+final class CompiledRailGraphTest {
+
+  @Test
+  void compiledIsBuiltOnceAndInternsNodes() {
+    SimpleRailGraph graph = graph(List.of("A", "B", "C"), List.of(edge("A", "B", 3)), Set.of());
+
+    CompiledRailGraph compiled = graph.compiled();
+
+    assertSame(compiled, graph.compiled());
+    assertEquals(3, compiled.nodeCount());
+    assertEquals(1, compiled.edgeCount());
+    int index = compiled.indexOf(NodeId.of("B")).orElseThrow();
+    assertEquals(NodeId.of("B"), compiled.nodeId(index));
+    assertTrue(compiled.indexOf(NodeId.of("X")).isEmpty());
+  }
+
+  @Test
+  void respectsBlockedEdgesUnlessAllowed() {
+    EdgeId blocked = EdgeId.undirected(NodeId.of("A"), NodeId.of("B"));
+    SimpleRailGraph graph = graph(List.of("A", "B"), List.of(edge("A", "B", 5)), Set.of(blocked));
+    CompiledRailGraph compiled = graph.compiled();
+
+    assertTrue(compiled.shortestPath(NodeId.of("A"), NodeId.of("B"), false).isEmpty());
+    assertTrue(compiled.shortestDistance(NodeId.of("A"), NodeId.of("B"), false).isEmpty());
+    assertEquals(5L, compiled.shortestDistance(NodeId.of("A"), NodeId.of("B"), true).orElseThrow());
+  }
+
+  @Test
+  void matchesGenericDijkstraOnRandomGraphs() {
+    Random random = new Random(42L);
+    RailGraphPathFinder finder = new RailGraphPathFinder();
+    RailEdgeCostModel lengthBlocks = RailEdgeCostModels.lengthBlocks();
+    // 包一层使 PathFinder 无法识别为 lengthBlocks 单例，从而走通用实现作为对照
+    RailEdgeCostModel generic =
+        (graph, edge, from, to) -> lengthBlocks.cost(graph, edge, from, to);
+
+    for (int round = 0; round < 20; round++) {
+      int nodeCount = 30;
+      List<String> names = new ArrayList<>();
+      for (int i = 0; i < nodeCount; i++) {
+        names.add("N" + i);
+      }
+      Map<EdgeId, RailEdge> edges = new HashMap<>();
+      for (int i = 0; i < nodeCount * 2; i++) {
+        String a = names.get(random.nextInt(nodeCount));
+        String b = names.get(random.nextInt(nodeCount));
+        if (a.equals(b)) {
+          continue;
+        }
+        RailEdge edge = edge(a, b, random.nextInt(20));
+        edges.putIfAbsent(edge.id(), edge);
+      }
+      Set<EdgeId> blocked = new HashSet<>();
+      for (EdgeId id : edges.keySet()) {
+        if (random.nextInt(8) == 0) {
+          blocked.add(id);
+        }
+      }
+      SimpleRailGraph graph = graph(names, List.copyOf(edges.values()), blocked);
+
+      for (int q = 0; q < 30; q++) {
+        NodeId from = NodeId.of(names.get(random.nextInt(nodeCount)));
+        NodeId to = NodeId.of(names.get(random.nextInt(nodeCount)));
+        boolean allowBlocked = random.nextBoolean();
+        Optional<RailGraphPath> expected =
+            finder.shortestPath(
+                graph, from, to, new RailGraphPathFinder.Options(generic, allowBlocked));
+        Optional<RailGraphPath> actual =
+            finder.shortestPath(
+                graph, from, to, new RailGraphPathFinder.Options(lengthBlocks, allowBlocked));
+
+        assertEquals(expected.isPresent(), actual.isPresent());
+        if (expected.isPresent()) {
+          RailGraphPath path = actual.get();
+          assertEquals(expected.get().totalLengthBlocks(), path.totalLengthBlocks());
+          assertEquals(from, path.nodes().get(0));
+          assertEquals(to, path.nodes().get(path.nodes().size() - 1));
+          assertEquals(path.nodes().size() - 1, path.edges().size());
+          long sum = path.edges().stream().mapToLong(RailEdge::lengthBlocks).sum();
+          assertEquals(path.totalLengthBlocks(), sum);
+        }
+      }
+    }
+  }
+
+  private static SimpleRailGraph graph(
+      List<String> nodeNames, List<RailEdge> edges, Set<EdgeId> blockedEdges) {
+    Map<NodeId, RailNode> nodesById = new HashMap<>();
+    for (String name : nodeNames) {
+      RailNode node = node(name);
+      nodesById.put(node.id(), node);
+    }
+    Map<EdgeId, RailEdge> edgesById = new HashMap<>();
+    for (RailEdge edge : edges) {
+      edgesById.put(edge.id(), edge);
+    }
+    return new SimpleRailGraph(nodesById, edgesById, blockedEdges);
+  }
+
+  private static RailNode node(String id) {
+    return new SignRailNode(
+        NodeId.of(id), NodeType.WAYPOINT, new Vector(0, 0, 0), Optional.empty(), Optional.empty());
+  }
+
+  private static RailEdge edge(String a, String b, int lengthBlocks) {
+    EdgeId id = EdgeId.undirected(NodeId.of(a), NodeId.of(b));
+    return new RailEdge(id, id.a(), id.b(), lengthBlocks, 0.0, true, Optional.empty());
+  }
+}
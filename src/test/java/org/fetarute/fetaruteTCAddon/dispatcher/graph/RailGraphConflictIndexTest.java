@@ -95,4 +95,93 @@ class RailGraphConflictIndexTest {
 
     assertNotEquals(keyAS, keySB);
   }
+
+  @Test
+  void incrementalMatchesFullRebuildAfterSplice() {
+    // 两条走廊：A~B~C（经 C 处道岔）与 C~D~E；在 A~B 中插入 N，只影响第一条走廊
+    SimpleRailGraph base =
+        graph(
+            Map.of(
+                "A", NodeType.WAYPOINT,
+                "B", NodeType.WAYPOINT,
+                "C", NodeType.SWITCHER,
+                "D", NodeType.WAYPOINT,
+                "E", NodeType.WAYPOINT),
+            Set.of("A-B", "B-C", "C-D", "D-E"));
+    RailGraphConflictIndex previous = RailGraphConflictIndex.fromGraph(base);
+
+    SimpleRailGraph next =
+        graph(
+            Map.of(
+                "A", NodeType.WAYPOINT,
+                "B", NodeType.WAYPOINT,
+                "C", NodeType.SWITCHER,
+                "D", NodeType.WAYPOINT,
+                "E", NodeType.WAYPOINT,
+                "N", NodeType.WAYPOINT),
+            Set.of("A-N", "N-B", "B-C", "C-D", "D-E"));
+    Set<NodeId> touched = Set.of(NodeId.of("A"), NodeId.of("B"), NodeId.of("N"));
+
+    RailGraphConflictIndex incremental =
+        RailGraphConflictIndex.incremental(previous, next, touched);
+    RailGraphConflictIndex full = RailGraphConflictIndex.fromGraph(next);
+
+    assertEquals(full.snapshot(), incremental.snapshot());
+    EdgeId edgeDE = EdgeId.undirected(NodeId.of("D"), NodeId.of("E"));
+    assertEquals(
+        full.corridorInfoForEdge(edgeDE).orElseThrow(),
+        incremental.corridorInfoForEdge(edgeDE).orElseThrow());
+  }
+
+  @Test
+  void incrementalRecomputesCorridorsWhenComponentKeyChanges() {
+    // 删除 A 后，分量 key 从 A 变为 B：即使 C~D 走廊未被触及，其 key 也需要更新
+    SimpleRailGraph base =
+        graph(
+            Map.of(
+                "A", NodeType.WAYPOINT,
+                "B", NodeType.SWITCHER,
+                "C", NodeType.WAYPOINT,
+                "D", NodeType.WAYPOINT),
+            Set.of("A-B", "B-C", "C-D"));
+    RailGraphConflictIndex previous = RailGraphConflictIndex.fromGraph(base);
+    SimpleRailGraph next =
+        graph(
+            Map.of("B", NodeType.SWITCHER, "C", NodeType.WAYPOINT, "D", NodeType.WAYPOINT),
+            Set.of("B-C", "C-D"));
+
+    RailGraphConflictIndex incremental =
+        RailGraphConflictIndex.incremental(previous, next, Set.of(NodeId.of("A")));
+
+    assertEquals(RailGraphConflictIndex.fromGraph(next).snapshot(), incremental.snapshot());
+    assertEquals(
+        "single:B:B~D",
+        incremental
+            .conflictKeyForEdge(EdgeId.undirected(NodeId.of("C"), NodeId.of("D")))
+            .orElseThrow());
+  }
+
+  private static SimpleRailGraph graph(Map<String, NodeType> nodes, Set<String> edges) {
+    Map<NodeId, org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode> nodesById =
+        new java.util.HashMap<>();
+    int x = 0;
+    for (Map.Entry<String, NodeType> entry : nodes.entrySet()) {
+      NodeId id = NodeId.of(entry.getKey());
+      nodesById.put(
+          id,
+          new SignRailNode(
+              id,
+              entry.getValue(),
+              new Vector(x++, 64.0, 0.0),
+              Optional.empty(),
+              Optional.empty()));
+    }
+    Map<EdgeId, RailEdge> edgesById = new java.util.HashMap<>();
+    for (String edge : edges) {
+      String[] ends = edge.split("-");
+      EdgeId id = EdgeId.undirected(NodeId.of(ends[0]), NodeId.of(ends[1]));
+      edgesById.put(id, new RailEdge(id, id.a(), id.b(), 10, 8.0, true, Optional.empty()));
+    }
+    return new SimpleRailGraph(nodesById, edgesById, Set.of());
+  }
 }
@@ -215,6 +215,52 @@ final class RailGraphMergerTest {
     assertTrue(removed.graph().isBlocked(blocked));
   }
 
+  @Test
+  void spliceReplacesEdgesOfRefreshedNodesOnly() {
+    EdgeId blocked = EdgeId.undirected(NodeId.of("C"), NodeId.of("D"));
+    SimpleRailGraph base =
+        graph(
+            Set.of(node("A"), node("B"), node("C"), node("D")),
+            Set.of(edge("A", "B", 10), edge("B", "C", 5), edge("C", "D", 7)),
+            Set.of(blocked));
+    // N 插入 A~B 之间：A/B 重新探索，A~B 被 A~N + N~B 替换
+    RailGraph update =
+        graph(Set.of(node("N")), Set.of(edge("A", "N", 4), edge("N", "B", 6)), Set.of());
+
+    RailGraphMerger.MergeResult merged =
+        RailGraphMerger.splice(
+            base, update, Set.of(NodeId.of("A"), NodeId.of("B"), NodeId.of("N")), Set.of());
+
+    assertEquals(RailGraphMerger.MergeAction.SPLICE, merged.action());
+    assertEquals(5, merged.totalNodes());
+    assertEquals(3, merged.totalEdges());
+    assertEquals(2, merged.removedEdges());
+    assertFalse(merged.graph().findNode(NodeId.of("N")).isEmpty());
+    assertTrue(
+        merged.graph().edges().stream()
+            .noneMatch(e -> e.id().equals(EdgeId.undirected(NodeId.of("A"), NodeId.of("B")))));
+    assertTrue(merged.graph().isBlocked(blocked));
+  }
+
+  @Test
+  void spliceRemovesDeletedNodes() {
+    SimpleRailGraph base =
+        graph(
+            Set.of(node("A"), node("N"), node("B")),
+            Set.of(edge("A", "N", 4), edge("N", "B", 6)),
+            Set.of());
+    RailGraph update = graph(Set.of(), Set.of(edge("A", "B", 10)), Set.of());
+
+    RailGraphMerger.MergeResult merged =
+        RailGraphMerger.splice(
+            base, update, Set.of(NodeId.of("A"), NodeId.of("B")), Set.of(NodeId.of("N")));
+
+    assertEquals(1, merged.removedNodes());
+    assertEquals(2, merged.totalNodes());
+    assertEquals(1, merged.totalEdges());
+    assertEquals(10, merged.graph().edges().iterator().next().lengthBlocks());
+  }
+
   private static SimpleRailGraph graph(
       Set<org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode> nodes,
       Set<RailEdge> edges,
@@ -0,0 +1,132 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPath;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.junit.jupiter.api.Test;
+
+final class RailGraphPathCacheTest {
+
+  @Test
+  void repeatedQueriesHitSnapshotCache() {
+    SimpleRailGraph graph = triangle();
+    RailGraphPathFinder finder = new RailGraphPathFinder();
+
+    RailGraphPath first =
+        finder
+            .shortestPath(
+                graph,
+                NodeId.of("A"),
+                NodeId.of("B"),
+                RailGraphPathFinder.Options.shortestDistance())
+            .orElseThrow();
+    RailGraphPath second =
+        finder
+            .shortestPath(
+                graph,
+                NodeId.of("A"),
+                NodeId.of("B"),
+                RailGraphPathFinder.Options.shortestDistance())
+            .orElseThrow();
+
+    assertSame(first, second);
+    RailGraphPathCache.Stats stats = graph.pathCache().stats();
+    assertEquals(1L, stats.misses());
+    assertEquals(1L, stats.hits());
+    assertEquals(1, stats.size());
+  }
+
+  @Test
+  void extraBlockedEdgesUseSeparateEntries() {
+    SimpleRailGraph graph = triangle();
+    EdgeId shortcut = EdgeId.undirected(NodeId.of("A"), NodeId.of("C"));
+
+    RailGraphPath open =
+        graph.shortestPathByLength(NodeId.of("A"), NodeId.of("B"), false).orElseThrow();
+    RailGraphPath detour =
+        graph
+            .shortestPathByLength(NodeId.of("A"), NodeId.of("B"), false, Set.of(shortcut))
+            .orElseThrow();
+    RailGraphPath ignored =
+        graph
+            .shortestPathByLength(NodeId.of("A"), NodeId.of("B"), true, Set.of(shortcut))
+            .orElseThrow();
+
+    assertEquals(7L, open.totalLengthBlocks());
+    assertEquals(10L, detour.totalLengthBlocks());
+    assertEquals(7L, ignored.totalLengthBlocks());
+    assertEquals(3, graph.pathCache().stats().size());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntries() {
+    RailGraphPathCache cache = new RailGraphPathCache(2);
+    AtomicInteger loads = new AtomicInteger();
+    RailGraphPathCache.PathKey ab = key("A", "B");
+    RailGraphPathCache.PathKey ac = key("A", "C");
+    RailGraphPathCache.PathKey bc = key("B", "C");
+
+    cache.resolve(ab, () -> load(loads));
+    cache.resolve(ac, () -> load(loads));
+    cache.resolve(ab, () -> load(loads));
+    cache.resolve(bc, () -> load(loads));
+    cache.resolve(ab, () -> load(loads));
+    cache.resolve(ac, () -> load(loads));
+
+    assertEquals(4, loads.get());
+    RailGraphPathCache.Stats stats = cache.stats();
+    assertEquals(2, stats.size());
+    assertEquals(2L, stats.evictions());
+  }
+
+  @Test
+  void clearDropsEntries() {
+    SimpleRailGraph graph = triangle();
+    graph.shortestPathByLength(NodeId.of("A"), NodeId.of("B"), false);
+
+    graph.pathCache().clear();
+
+    assertEquals(0, graph.pathCache().stats().size());
+  }
+
+  private static Optional<RailGraphPath> load(AtomicInteger loads) {
+    loads.incrementAndGet();
+    return Optional.empty();
+  }
+
+  private static RailGraphPathCache.PathKey key(String from, String to) {
+    return new RailGraphPathCache.PathKey(NodeId.of(from), NodeId.of(to), false, Set.of());
+  }
+
+  private static SimpleRailGraph triangle() {
+    Map<NodeId, RailNode> nodes =
+        Map.of(NodeId.of("A"), node("A"), NodeId.of("B"), node("B"), NodeId.of("C"), node("C"));
+    Map<EdgeId, RailEdge> edges = new HashMap<>();
+    for (RailEdge edge : List.of(edge("A", "B", 10), edge("A", "C", 3), edge("C", "B", 4))) {
+      edges.put(edge.id(), edge);
+    }
+    return new SimpleRailGraph(nodes, edges, Set.of());
+  }
+
+  private static RailNode node(String id) {
+    return new SignRailNode(
+        NodeId.of(id), NodeType.WAYPOINT, new Vector(0, 0, 0), Optional.empty(), Optional.empty());
+  }
+
+  private static RailEdge edge(String a, String b, int lengthBlocks) {
+    EdgeId id = EdgeId.undirected(NodeId.of(a), NodeId.of(b));
+    return new RailEdge(id, id.a(), id.b(), lengthBlocks, 0.0, true, Optional.empty());
+  }
+}
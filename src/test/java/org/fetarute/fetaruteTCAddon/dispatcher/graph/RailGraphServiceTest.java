@@ -3,9 +3,13 @@ package org.fetarute.fetaruteTCAddon.dispatcher.graph;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -13,13 +17,30 @@ import java.util.Set;
 import java.util.UUID;
 import org.bukkit.World;
 import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.build.RailGraphSignature;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphBinaryCache;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphBinarySnapshot;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphSnapshotRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailComponentCautionRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailEdgeOverrideRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailEdgeRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailGraphSnapshotRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailNodeRepository;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class RailGraphServiceTest {
 
+  private static final Instant CACHE_BUILT_AT = Instant.ofEpochMilli(1_700_000_000_123L);
+
+  @TempDir private Path tempDir;
+
   @Test
   void findWorldIdForPathUsesSingleGraph() {
     NodeId a = NodeId.of("A");
@@ -39,6 +60,30 @@ class RailGraphServiceTest {
     assertEquals(Optional.of(worldId), found);
   }
 
+  @Test
+  void installedSnapshotCarriesVersionAndOnlyCurrentGraphResolvesToWorld() {
+    NodeId a = NodeId.of("A");
+    NodeId b = NodeId.of("B");
+    RailGraph before = graphWithEdges(edge(a, b));
+    RailGraph after = graphWithEdges(edge(a, b));
+
+    RailGraphService service = new RailGraphService(world -> before);
+    World world = mock(World.class);
+    UUID worldId = UUID.randomUUID();
+    when(world.getUID()).thenReturn(worldId);
+    service.putSnapshot(world, before, Instant.now());
+    long firstVersion = service.getSnapshot(worldId).orElseThrow().version();
+    assertEquals(Optional.of(worldId), service.findWorldIdForGraph(before));
+
+    service.putSnapshot(world, after, Instant.now());
+
+    RailGraphService.RailGraphSnapshot current = service.getSnapshot(worldId).orElseThrow();
+    assertEquals(service.snapshotVersion(), current.version());
+    assertTrue(current.version() > firstVersion);
+    assertEquals(Optional.empty(), service.findWorldIdForGraph(before));
+    assertEquals(Optional.of(worldId), service.findWorldIdForGraph(after));
+  }
+
   @Test
   void findWorldIdForPathReturnsEmptyWhenEdgesSplitAcrossWorlds() {
     NodeId a = NodeId.of("A");
@@ -65,6 +110,119 @@ class RailGraphServiceTest {
     assertTrue(found.isEmpty());
   }
 
+  @Test
+  void prewarmTriggersCoalescePerWorldUntilRunStarts() {
+    NodeId a = NodeId.of("A");
+    NodeId b = NodeId.of("B");
+    RailEdge ab = edge(a, b);
+    SimpleRailGraph graph =
+        new SimpleRailGraph(Map.of(a, node(a), b, node(b)), Map.of(ab.id(), ab), Set.of());
+    List<Runnable> queued = new ArrayList<>();
+    RailGraphService service = new RailGraphService(world -> graph, null, queued::add);
+    service.setPathPrewarmSource(() -> List.of(List.of(a, b)));
+    World world = mock(World.class);
+    when(world.getUID()).thenReturn(UUID.randomUUID());
+
+    service.putSnapshot(world, graph, Instant.now());
+    service.putSnapshot(world, graph, Instant.now());
+    service.prewarmRoutePaths();
+    assertEquals(1, queued.size());
+
+    queued.remove(0).run();
+    service.prewarmRoutePaths();
+    assertEquals(1, queued.size());
+  }
+
+  @Test
+  void binaryCacheHitIsInstalledWhenRailNodesMatch() {
+    UUID worldId = UUID.randomUUID();
+    List<RailNodeRecord> nodes = List.of(nodeRecord(worldId, "A", 0), nodeRecord(worldId, "B", 10));
+    StorageProvider provider = cachedStorage(worldId, nodes, nodes);
+    RailGraphService service = new RailGraphService(world -> null);
+    service.setBinaryCache(writtenCache(worldId, nodes));
+    World world = mock(World.class);
+    when(world.getUID()).thenReturn(worldId);
+
+    service.loadFromStorage(provider, List.of(world));
+
+    assertTrue(service.getSnapshot(worldId).isPresent());
+    assertEquals(1, service.getSnapshot(worldId).get().graph().edges().size());
+    verify(provider.railEdges(), never()).listByWorld(worldId);
+  }
+
+  @Test
+  void binaryCacheIsIgnoredWhenRailNodesDiverge() {
+    UUID worldId = UUID.randomUUID();
+    List<RailNodeRecord> cachedNodes =
+        List.of(nodeRecord(worldId, "A", 0), nodeRecord(worldId, "B", 10));
+    List<RailNodeRecord> currentNodes =
+        List.of(nodeRecord(worldId, "A", 0), nodeRecord(worldId, "B", 12));
+    StorageProvider provider = cachedStorage(worldId, cachedNodes, currentNodes);
+    RailGraphService service = new RailGraphService(world -> null);
+    service.setBinaryCache(writtenCache(worldId, cachedNodes));
+    World world = mock(World.class);
+    when(world.getUID()).thenReturn(worldId);
+
+    service.loadFromStorage(provider, List.of(world));
+
+    assertTrue(service.getSnapshot(worldId).isEmpty());
+    assertTrue(service.getStaleState(world).isPresent());
+  }
+
+  private RailGraphBinaryCache writtenCache(UUID worldId, List<RailNodeRecord> nodes) {
+    RailGraphBinaryCache cache = new RailGraphBinaryCache(tempDir, Runnable::run, null);
+    assertTrue(
+        cache.write(
+            cache.stamp(worldId),
+            new RailGraphBinarySnapshot(
+                worldId,
+                CACHE_BUILT_AT,
+                RailGraphSignature.signatureForNodes(nodes),
+                nodes,
+                List.of(edgeRecord(worldId)))));
+    return cache;
+  }
+
+  /** 快照记录与缓存文件一致（签名取自 cachedNodes），rail_nodes 返回 currentNodes。 */
+  private static StorageProvider cachedStorage(
+      UUID worldId, List<RailNodeRecord> cachedNodes, List<RailNodeRecord> currentNodes) {
+    RailNodeRepository nodeRepo = mock(RailNodeRepository.class);
+    when(nodeRepo.listByWorld(worldId)).thenReturn(currentNodes);
+    RailEdgeRepository edgeRepo = mock(RailEdgeRepository.class);
+    when(edgeRepo.listByWorld(worldId)).thenReturn(List.of(edgeRecord(worldId)));
+    RailEdgeOverrideRepository overrideRepo = mock(RailEdgeOverrideRepository.class);
+    when(overrideRepo.listByWorld(worldId)).thenReturn(List.of());
+    RailComponentCautionRepository cautionRepo = mock(RailComponentCautionRepository.class);
+    when(cautionRepo.listByWorld(worldId)).thenReturn(List.of());
+    RailGraphSnapshotRepository snapshotRepo = mock(RailGraphSnapshotRepository.class);
+    when(snapshotRepo.findByWorld(worldId))
+        .thenReturn(
+            Optional.of(
+                new RailGraphSnapshotRecord(
+                    worldId,
+                    CACHE_BUILT_AT,
+                    cachedNodes.size(),
+                    1,
+                    RailGraphSignature.signatureForNodes(cachedNodes))));
+    StorageProvider provider = mock(StorageProvider.class);
+    when(provider.railNodes()).thenReturn(nodeRepo);
+    when(provider.railEdges()).thenReturn(edgeRepo);
+    when(provider.railEdgeOverrides()).thenReturn(overrideRepo);
+    when(provider.railComponentCautions()).thenReturn(cautionRepo);
+    when(provider.railGraphSnapshots()).thenReturn(snapshotRepo);
+    return provider;
+  }
+
+  private static RailNodeRecord nodeRecord(UUID worldId, String id, int x) {
+    return new RailNodeRecord(
+        worldId, NodeId.of(id), NodeType.WAYPOINT, x, 64, 0, Optional.empty(), Optional.empty());
+  }
+
+  private static RailEdgeRecord edgeRecord(UUID worldId) {
+    return new RailEdgeRecord(
+        worldId, EdgeId.undirected(NodeId.of("A"), NodeId.of("B")), 10, 0.0, true);
+  }
+
   private static RailEdge edge(NodeId a, NodeId b) {
     return new RailEdge(EdgeId.undirected(a, b), a, b, 10, -1.0, true, Optional.empty());
   }
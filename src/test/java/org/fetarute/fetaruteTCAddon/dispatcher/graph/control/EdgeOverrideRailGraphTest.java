@@ -16,6 +16,7 @@ import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRailNode;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeOverrideRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
@@ -100,6 +101,36 @@ final class EdgeOverrideRailGraphTest {
     assertTrue(wrapped.isBlocked(edgeId));
   }
 
+  @Test
+  void shortestPathAvoidsOverrideBlockedEdges() {
+    EdgeId edgeId = EdgeId.undirected(NodeId.of("A"), NodeId.of("B"));
+    SimpleRailGraph base = (SimpleRailGraph) graph(edgeId, false);
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    RailEdgeOverrideRecord override =
+        new RailEdgeOverrideRecord(
+            UUID.randomUUID(),
+            edgeId,
+            OptionalDouble.empty(),
+            OptionalDouble.empty(),
+            Optional.empty(),
+            true,
+            Optional.empty(),
+            now);
+    RailGraph wrapped = new EdgeOverrideRailGraph(base, Map.of(edgeId, override), now);
+    RailGraphPathFinder finder = new RailGraphPathFinder();
+
+    assertTrue(
+        finder
+            .shortestPath(
+                wrapped, edgeId.a(), edgeId.b(), RailGraphPathFinder.Options.shortestDistance())
+            .isEmpty());
+    assertTrue(
+        finder
+            .shortestPath(
+                base, edgeId.a(), edgeId.b(), RailGraphPathFinder.Options.shortestDistance())
+            .isPresent());
+  }
+
   private static RailGraph graph(EdgeId edgeId, boolean blocked) {
     Map<NodeId, RailNode> nodesById =
         Map.of(
@@ -0,0 +1,78 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+final class PrimitiveExplorerStructuresTest {
+
+  @Test
+  void packedRailPosRoundTripsNegativeAndExtremeCoordinates() {
+    int[][] samples = {
+      {0, 0, 0},
+      {-1, -64, -1},
+      {29_999_999, 319, -29_999_999},
+      {-29_999_999, -64, 29_999_999},
+      {12345, 70, -6789}
+    };
+    for (int[] sample : samples) {
+      long packed = PackedRailPos.pack(sample[0], sample[1], sample[2]);
+      assertEquals(sample[0], PackedRailPos.x(packed));
+      assertEquals(sample[1], PackedRailPos.y(packed));
+      assertEquals(sample[2], PackedRailPos.z(packed));
+      assertEquals(
+          new RailBlockPos(sample[0], sample[1], sample[2]), PackedRailPos.unpack(packed));
+    }
+    assertNotEquals(PackedRailPos.pack(1, 0, 0), PackedRailPos.pack(0, 0, 1));
+  }
+
+  @Test
+  void longIntHashMapSurvivesGrowth() {
+    LongIntHashMap map = new LongIntHashMap();
+    for (int i = 0; i < 10_000; i++) {
+      map.put(PackedRailPos.pack(i, i % 256 - 64, -i), i);
+    }
+    map.put(PackedRailPos.pack(5, 5 - 64, -5), -5);
+
+    assertEquals(10_000, map.size());
+    assertEquals(-5, map.get(PackedRailPos.pack(5, 5 - 64, -5), -1));
+    assertEquals(9_999, map.get(PackedRailPos.pack(9_999, 9_999 % 256 - 64, -9_999), -1));
+    assertTrue(map.containsKey(PackedRailPos.pack(0, -64, 0)));
+    assertFalse(map.containsKey(PackedRailPos.pack(10_000, 0, 0)));
+    assertEquals(-1, map.get(PackedRailPos.pack(10_000, 0, 0), -1));
+  }
+
+  @Test
+  void longDoubleHashMapReturnsMissingForUnknownKeys() {
+    LongDoubleHashMap map = new LongDoubleHashMap();
+    for (int i = 0; i < 1_000; i++) {
+      map.put(i * 31L, i * 0.5);
+    }
+    assertEquals(1_000, map.size());
+    assertEquals(250.0, map.get(500 * 31L, Double.NaN));
+    assertTrue(Double.isNaN(map.get(7L, Double.NaN)));
+  }
+
+  @Test
+  void indexedMinHeapPollsInPriorityOrderAfterDecreaseKey() {
+    IndexedMinHeap heap = new IndexedMinHeap();
+    heap.insertOrDecrease(0, 5.0);
+    heap.insertOrDecrease(1, 3.0);
+    heap.insertOrDecrease(40, 9.0);
+    heap.insertOrDecrease(2, 7.0);
+    heap.insertOrDecrease(40, 1.0);
+    heap.insertOrDecrease(1, 8.0);
+
+    assertEquals(4, heap.size());
+    assertTrue(heap.contains(40));
+    assertEquals(40, heap.poll());
+    assertFalse(heap.contains(40));
+    assertEquals(1, heap.poll());
+    assertEquals(0, heap.poll());
+    assertEquals(2, heap.poll());
+    assertTrue(heap.isEmpty());
+  }
+}
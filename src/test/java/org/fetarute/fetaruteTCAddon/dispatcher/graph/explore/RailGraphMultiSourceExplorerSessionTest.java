@@ -39,6 +39,34 @@ final class RailGraphMultiSourceExplorerSessionTest {
     assertEquals(5, lengths.get(edge));
   }
 
+  @Test
+  void sourceRestrictedSessionOnlyExpandsFromSources() {
+    InMemoryRailBlockAccess access = InMemoryRailBlockAccess.line(0, 10);
+    NodeId a = NodeId.of("A");
+    NodeId b = NodeId.of("B");
+    NodeId c = NodeId.of("C");
+    RailGraphMultiSourceExplorerSession session =
+        new RailGraphMultiSourceExplorerSession(
+            Map.of(
+                a, Set.of(new RailBlockPos(0, 0, 0)),
+                b, Set.of(new RailBlockPos(4, 0, 0)),
+                c, Set.of(new RailBlockPos(10, 0, 0))),
+            Set.of(b),
+            access,
+            64);
+
+    while (!session.isDone()) {
+      session.step(4);
+    }
+
+    Map<EdgeId, Integer> lengths = session.edgeLengths();
+    assertEquals(2, lengths.size());
+    assertEquals(4, lengths.get(EdgeId.undirected(a, b)));
+    assertEquals(6, lengths.get(EdgeId.undirected(b, c)));
+    // 非源节点不会扩展：只访问了 B 两侧到相邻锚点之间的方块
+    assertEquals(9, session.visitedRailBlocks());
+  }
+
   @Test
   void doesNotSkipIntermediateNodeWhenExploring() {
     InMemoryRailBlockAccess access = InMemoryRailBlockAccess.line(0, 5);
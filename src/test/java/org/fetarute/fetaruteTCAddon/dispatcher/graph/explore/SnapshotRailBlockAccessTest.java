@@ -0,0 +1,144 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.explore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.junit.jupiter.api.Test;
+
+final class SnapshotRailBlockAccessTest {
+
+  @Test
+  void offThreadExplorationMatchesLiveAccess() throws Exception {
+    GridRailBlockAccess live = GridRailBlockAccess.ladder(40);
+    Map<NodeId, Set<RailBlockPos>> anchors =
+        Map.of(
+            NodeId.of("A"), Set.of(new RailBlockPos(0, 0, 0)),
+            NodeId.of("B"), Set.of(new RailBlockPos(40, 0, 0)),
+            NodeId.of("C"), Set.of(new RailBlockPos(20, 0, 4)));
+    Map<EdgeId, Integer> expected = explore(anchors, live);
+
+    SnapshotRailBlockAccess snapshot = new SnapshotRailBlockAccess(live, 4);
+    anchors.values().forEach(snapshot::seed);
+    ExecutorService worker = Executors.newSingleThreadExecutor();
+    try {
+      CompletableFuture<Map<EdgeId, Integer>> result =
+          CompletableFuture.supplyAsync(() -> explore(anchors, snapshot), worker);
+      // 模拟主线程 tick：每次只给很小的预算，live 访问器只会在这里被调用
+      while (!result.isDone()) {
+        snapshot.capture(System.nanoTime() + 50_000L);
+        Thread.sleep(1L);
+      }
+      assertEquals(expected, result.get());
+      assertEquals(Thread.currentThread(), live.callerThread);
+      assertEquals(0, snapshot.pendingRequests());
+      assertTrue(snapshot.capturedCells() > 0);
+    } finally {
+      worker.shutdownNow();
+    }
+  }
+
+  @Test
+  void stepCostAndNonRailAreCaptured() {
+    GridRailBlockAccess live = GridRailBlockAccess.ladder(2);
+    live.costs.put(new RailBlockPos(0, 0, 0), 2.5);
+    SnapshotRailBlockAccess snapshot = new SnapshotRailBlockAccess(live, 8);
+    snapshot.seed(Set.of(new RailBlockPos(0, 0, 0), new RailBlockPos(9, 9, 9)));
+    snapshot.capture(Long.MAX_VALUE);
+
+    assertTrue(snapshot.isRail(new RailBlockPos(1, 0, 0)));
+    assertFalse(snapshot.isRail(new RailBlockPos(9, 9, 9)));
+    assertEquals(2.5, snapshot.stepCost(new RailBlockPos(0, 0, 0), new RailBlockPos(1, 0, 0)));
+    assertEquals(
+        live.neighbors(new RailBlockPos(1, 0, 0)), snapshot.neighbors(new RailBlockPos(1, 0, 0)));
+  }
+
+  @Test
+  void closeReleasesWaitingWorker() throws Exception {
+    SnapshotRailBlockAccess snapshot =
+        new SnapshotRailBlockAccess(GridRailBlockAccess.ladder(2), 0);
+    ExecutorService worker = Executors.newSingleThreadExecutor();
+    try {
+      CompletableFuture<Boolean> waiting =
+          CompletableFuture.supplyAsync(
+              () -> snapshot.isRail(new RailBlockPos(1, 0, 0)), worker);
+      while (snapshot.pendingRequests() == 0) {
+        Thread.sleep(1L);
+      }
+      snapshot.close();
+
+      Throwable error =
+          assertThrows(
+              java.util.concurrent.ExecutionException.class,
+              () -> waiting.get(5, TimeUnit.SECONDS));
+      assertTrue(error.getCause() instanceof CancellationException);
+    } finally {
+      worker.shutdownNow();
+    }
+  }
+
+  private static Map<EdgeId, Integer> explore(
+      Map<NodeId, Set<RailBlockPos>> anchors, RailBlockAccess access) {
+    RailGraphMultiSourceExplorerSession session =
+        new RailGraphMultiSourceExplorerSession(anchors, access, 512);
+    while (!session.isDone()) {
+      session.step(16);
+    }
+    return session.edgeLengths();
+  }
+
+  /** 梯形轨道：z=0 与 z=4 两条平行线，在 x=20 处以竖线相连。记录 live 访问的调用线程。 */
+  private static final class GridRailBlockAccess implements RailBlockAccess {
+
+    private final Map<RailBlockPos, Set<RailBlockPos>> adjacency = new HashMap<>();
+    private final Map<RailBlockPos, Double> costs = new HashMap<>();
+    private volatile Thread callerThread;
+
+    static GridRailBlockAccess ladder(int length) {
+      GridRailBlockAccess access = new GridRailBlockAccess();
+      for (int x = 1; x <= length; x++) {
+        access.connect(new RailBlockPos(x - 1, 0, 0), new RailBlockPos(x, 0, 0));
+        access.connect(new RailBlockPos(x - 1, 0, 4), new RailBlockPos(x, 0, 4));
+      }
+      int mid = length / 2;
+      for (int z = 1; z <= 4; z++) {
+        access.connect(new RailBlockPos(mid, 0, z - 1), new RailBlockPos(mid, 0, z));
+      }
+      return access;
+    }
+
+    private void connect(RailBlockPos a, RailBlockPos b) {
+      adjacency.computeIfAbsent(a, ignored -> new HashSet<>()).add(b);
+      adjacency.computeIfAbsent(b, ignored -> new HashSet<>()).add(a);
+    }
+
+    @Override
+    public boolean isRail(RailBlockPos pos) {
+      callerThread = Thread.currentThread();
+      return adjacency.containsKey(pos);
+    }
+
+    @Override
+    public Set<RailBlockPos> neighbors(RailBlockPos pos) {
+      callerThread = Thread.currentThread();
+      return Set.copyOf(adjacency.getOrDefault(pos, Set.of()));
+    }
+
+    @Override
+    public double stepCost(RailBlockPos from, RailBlockPos to) {
+      return costs.getOrDefault(from, 1.0);
+    }
+  }
+}
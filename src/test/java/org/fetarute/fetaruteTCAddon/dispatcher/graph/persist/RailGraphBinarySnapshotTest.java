@@ -0,0 +1,149 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.WaypointMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RailGraphBinarySnapshotTest {
+
+  private static final UUID WORLD = UUID.randomUUID();
+  private static final Instant BUILT_AT = Instant.parse("2026-01-01T00:00:00.123456Z");
+
+  @TempDir private Path tempDir;
+
+  @Test
+  void roundTripPreservesRecords() throws Exception {
+    RailGraphBinarySnapshot snapshot = sample("sig-1");
+    Path file = tempDir.resolve("world.ftgraph");
+
+    snapshot.write(file);
+    Optional<RailGraphBinarySnapshot> loaded = RailGraphBinarySnapshot.read(file);
+
+    assertTrue(loaded.isPresent());
+    assertEquals(WORLD, loaded.get().worldId());
+    assertEquals(BUILT_AT, loaded.get().builtAt());
+    assertEquals("sig-1", loaded.get().nodeSignature());
+    assertEquals(snapshot.nodes(), loaded.get().nodes());
+    assertEquals(snapshot.edges(), loaded.get().edges());
+    assertFalse(Files.exists(tempDir.resolve("world.ftgraph.tmp")));
+  }
+
+  @Test
+  void corruptedOrTruncatedFileIsRejected() throws Exception {
+    Path file = tempDir.resolve("world.ftgraph");
+    sample("sig-1").write(file);
+    byte[] bytes = Files.readAllBytes(file);
+
+    byte[] flipped = bytes.clone();
+    flipped[bytes.length / 2] ^= 0x5A;
+    Files.write(file, flipped);
+    assertTrue(RailGraphBinarySnapshot.read(file).isEmpty());
+
+    Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+    assertTrue(RailGraphBinarySnapshot.read(file).isEmpty());
+
+    // 删除失败时 invalidate 会把文件清空，空文件必须视为未命中
+    Files.write(file, new byte[0]);
+    assertTrue(RailGraphBinarySnapshot.read(file).isEmpty());
+
+    assertTrue(RailGraphBinarySnapshot.read(tempDir.resolve("missing.ftgraph")).isEmpty());
+  }
+
+  @Test
+  void matchesRequiresSameSignatureAndCounts() {
+    RailGraphBinarySnapshot snapshot = sample("sig-1");
+    // 存储端时间戳只保留毫秒精度
+    Instant storedBuiltAt = Instant.ofEpochMilli(BUILT_AT.toEpochMilli());
+
+    assertTrue(snapshot.matches(new RailGraphSnapshotRecord(WORLD, storedBuiltAt, 3, 2, "sig-1")));
+    assertFalse(
+        snapshot.matches(new RailGraphSnapshotRecord(WORLD, storedBuiltAt, 3, 2, "sig-2")));
+    assertFalse(
+        snapshot.matches(new RailGraphSnapshotRecord(WORLD, storedBuiltAt, 4, 2, "sig-1")));
+    assertFalse(
+        snapshot.matches(
+            new RailGraphSnapshotRecord(WORLD, storedBuiltAt.plusSeconds(1), 3, 2, "sig-1")));
+    assertFalse(
+        sample("").matches(new RailGraphSnapshotRecord(WORLD, storedBuiltAt, 3, 2, "")));
+  }
+
+  @Test
+  void cacheDropsWritesWithStaleStamp() {
+    RailGraphBinaryCache cache = new RailGraphBinaryCache(tempDir, Runnable::run, null);
+    RailGraphSnapshotRecord record = new RailGraphSnapshotRecord(WORLD, BUILT_AT, 3, 2, "sig-1");
+    RailGraphBinarySnapshot snapshot = sample("sig-1");
+
+    long stamp = cache.stamp(WORLD);
+    cache.invalidate(WORLD);
+    assertFalse(cache.write(stamp, snapshot));
+    assertTrue(cache.read(record).isEmpty());
+
+    assertTrue(cache.write(cache.stamp(WORLD), snapshot));
+    assertEquals(snapshot.nodes(), cache.read(record).orElseThrow().nodes());
+    assertTrue(
+        cache.read(new RailGraphSnapshotRecord(WORLD, BUILT_AT, 3, 2, "sig-2")).isEmpty());
+
+    cache.invalidate(WORLD);
+    assertTrue(cache.read(record).isEmpty());
+  }
+
+  private static RailGraphBinarySnapshot sample(String signature) {
+    List<RailNodeRecord> nodes =
+        List.of(
+            new RailNodeRecord(
+                WORLD,
+                NodeId.of("OP:S:AAA:1"),
+                NodeType.STATION,
+                0,
+                64,
+                0,
+                Optional.of("AAA"),
+                Optional.of(WaypointMetadata.station("OP", "AAA", 1))),
+            new RailNodeRecord(
+                WORLD,
+                NodeId.of("OP:AAA:BBB:1:00"),
+                NodeType.WAYPOINT,
+                50,
+                64,
+                -3,
+                Optional.empty(),
+                Optional.of(WaypointMetadata.interval("OP", "AAA", "BBB", 1, "00"))),
+            new RailNodeRecord(
+                WORLD,
+                NodeId.of("SWITCHER:10:64:0"),
+                NodeType.WAYPOINT,
+                10,
+                64,
+                0,
+                Optional.empty(),
+                Optional.empty()));
+    List<RailEdgeRecord> edges =
+        List.of(
+            new RailEdgeRecord(
+                WORLD,
+                EdgeId.undirected(NodeId.of("OP:S:AAA:1"), NodeId.of("SWITCHER:10:64:0")),
+                10,
+                8.0,
+                true),
+            new RailEdgeRecord(
+                WORLD,
+                EdgeId.undirected(NodeId.of("OP:AAA:BBB:1:00"), NodeId.of("SWITCHER:10:64:0")),
+                41,
+                0.0,
+                false));
+    return new RailGraphBinarySnapshot(WORLD, BUILT_AT, signature, nodes, edges);
+  }
+}
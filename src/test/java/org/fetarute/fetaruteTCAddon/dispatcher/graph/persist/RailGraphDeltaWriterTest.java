@@ -0,0 +1,218 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.build.RailGraphSignature;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailEdgeRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailGraphSnapshotRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailNodeRepository;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageException;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageTransaction;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageTransactionManager;
+import org.fetarute.fetaruteTCAddon.storage.api.TransactionCallback;
+import org.junit.jupiter.api.Test;
+
+class RailGraphDeltaWriterTest {
+
+  private static final UUID WORLD = UUID.randomUUID();
+  private static final Instant BUILT_AT = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Test
+  void writeAppliesOnlyChangedRowsAndRecordsSignatures() {
+    Store store = new Store();
+    List<RailNodeRecord> first = List.of(node("A", 0), node("B", 10), node("X", 100));
+    List<RailEdgeRecord> firstEdges = List.of(edge("A", "B"));
+    RailGraphDeltaWriter.write(store.provider, snapshot(first, firstEdges), first, firstEdges);
+    assertEquals(3, store.nodes.size());
+    assertEquals(2, store.snapshot.componentSignatures().size());
+    store.nodeUpsertCalls = 0;
+
+    List<RailNodeRecord> second = List.of(node("A", 0), node("B", 10), node("X", 105));
+    RailGraphPersistDelta delta =
+        RailGraphDeltaWriter.write(
+            store.provider, snapshot(second, firstEdges), second, firstEdges);
+
+    assertEquals(List.of(node("X", 105)), delta.nodeUpserts());
+    assertEquals(1, delta.skippedComponents());
+    assertEquals(1, store.nodeUpsertCalls);
+    assertEquals(node("X", 105), store.nodes.get(NodeId.of("X")));
+  }
+
+  @Test
+  void externalNodeWritesInvalidateRecordedSignatures() {
+    Store store = new Store();
+    List<RailNodeRecord> nodes = List.of(node("A", 0), node("B", 10));
+    List<RailEdgeRecord> edges = List.of(edge("A", "B"));
+    RailGraphDeltaWriter.write(store.provider, snapshot(nodes, edges), nodes, edges);
+    // 模拟建牌增量同步直接改写 rail_nodes（签名未随之更新）
+    store.nodes.put(NodeId.of("B"), node("B", 12));
+
+    RailGraphPersistDelta delta =
+        RailGraphDeltaWriter.write(store.provider, snapshot(nodes, edges), nodes, edges);
+
+    assertEquals(0, delta.skippedComponents());
+    assertEquals(List.of(node("B", 10)), delta.nodeUpserts());
+    assertEquals(node("B", 10), store.nodes.get(NodeId.of("B")));
+  }
+
+  @Test
+  void submitRunsOnExecutorAndCompletesWithDelta() throws Exception {
+    Store store = new Store();
+    List<Runnable> queued = new ArrayList<>();
+    RailGraphDeltaWriter writer = new RailGraphDeltaWriter(queued::add, message -> {});
+    List<RailNodeRecord> nodes = List.of(node("A", 0), node("B", 10));
+    List<RailEdgeRecord> edges = List.of(edge("A", "B"));
+
+    var future = writer.submit(store.provider, snapshot(nodes, edges), nodes, edges);
+    assertFalse(future.isDone());
+    assertTrue(store.nodes.isEmpty());
+
+    queued.remove(0).run();
+    assertEquals(2, future.get().nodeUpserts().size());
+    assertEquals(2, store.nodes.size());
+    assertTrue(writer.awaitPending(WORLD, java.time.Duration.ofMillis(10)));
+  }
+
+  private static RailGraphSnapshotRecord snapshot(
+      List<RailNodeRecord> nodes, List<RailEdgeRecord> edges) {
+    return new RailGraphSnapshotRecord(
+        WORLD, BUILT_AT, nodes.size(), edges.size(), RailGraphSignature.signatureForNodes(nodes));
+  }
+
+  private static RailNodeRecord node(String id, int x) {
+    return new RailNodeRecord(
+        WORLD, NodeId.of(id), NodeType.WAYPOINT, x, 64, 0, Optional.empty(), Optional.empty());
+  }
+
+  private static RailEdgeRecord edge(String a, String b) {
+    return new RailEdgeRecord(WORLD, EdgeId.undirected(NodeId.of(a), NodeId.of(b)), 10, 8.0, true);
+  }
+
+  /** 内存中的 rail_nodes/rail_edges/rail_graph_snapshots。 */
+  private static final class Store {
+
+    private final Map<NodeId, RailNodeRecord> nodes = new HashMap<>();
+    private final Map<EdgeId, RailEdgeRecord> edges = new HashMap<>();
+    private RailGraphSnapshotRecord snapshot;
+    private int nodeUpsertCalls;
+    private final StorageProvider provider = mock(StorageProvider.class);
+
+    private Store() {
+      when(provider.railNodes()).thenReturn(new NodeRepo());
+      when(provider.railEdges()).thenReturn(new EdgeRepo());
+      when(provider.railGraphSnapshots()).thenReturn(new SnapshotRepo());
+      when(provider.transactionManager()).thenReturn(new InlineTransactionManager());
+    }
+
+    private final class NodeRepo implements RailNodeRepository {
+      @Override
+      public List<RailNodeRecord> listByWorld(UUID worldId) {
+        return List.copyOf(nodes.values());
+      }
+
+      @Override
+      public void upsert(RailNodeRecord node) {
+        nodes.put(node.nodeId(), node);
+      }
+
+      @Override
+      public void delete(UUID worldId, NodeId nodeId) {
+        nodes.remove(nodeId);
+      }
+
+      @Override
+      public void deleteByPosition(UUID worldId, int x, int y, int z) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public void replaceWorld(UUID worldId, Collection<RailNodeRecord> records) {
+        throw new UnsupportedOperationException("增量写入不应走全量替换");
+      }
+
+      @Override
+      public void applyDelta(
+          UUID worldId, Collection<RailNodeRecord> upserts, Collection<NodeId> deletes) {
+        nodeUpsertCalls += upserts.size();
+        deletes.forEach(nodes::remove);
+        upserts.forEach(node -> nodes.put(node.nodeId(), node));
+      }
+
+      @Override
+      public void deleteWorld(UUID worldId) {
+        nodes.clear();
+      }
+    }
+
+    private final class EdgeRepo implements RailEdgeRepository {
+      @Override
+      public List<RailEdgeRecord> listByWorld(UUID worldId) {
+        return List.copyOf(edges.values());
+      }
+
+      @Override
+      public void replaceWorld(UUID worldId, Collection<RailEdgeRecord> records) {
+        throw new UnsupportedOperationException("增量写入不应走全量替换");
+      }
+
+      @Override
+      public void applyDelta(
+          UUID worldId, Collection<RailEdgeRecord> upserts, Collection<EdgeId> deletes) {
+        deletes.forEach(edges::remove);
+        upserts.forEach(edge -> edges.put(edge.edgeId(), edge));
+      }
+
+      @Override
+      public void deleteWorld(UUID worldId) {
+        edges.clear();
+      }
+    }
+
+    private final class SnapshotRepo implements RailGraphSnapshotRepository {
+      @Override
+      public Optional<RailGraphSnapshotRecord> findByWorld(UUID worldId) {
+        return Optional.ofNullable(snapshot);
+      }
+
+      @Override
+      public RailGraphSnapshotRecord save(RailGraphSnapshotRecord record) {
+        snapshot = record;
+        return record;
+      }
+
+      @Override
+      public void delete(UUID worldId) {
+        snapshot = null;
+      }
+    }
+  }
+
+  private static final class InlineTransactionManager implements StorageTransactionManager {
+
+    @Override
+    public StorageTransaction begin() throws StorageException {
+      throw new UnsupportedOperationException("not used");
+    }
+
+    @Override
+    public <T> T execute(TransactionCallback<T> callback) throws StorageException {
+      return callback.doInTransaction();
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.persist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.junit.jupiter.api.Test;
+
+class RailGraphPersistDeltaTest {
+
+  private static final UUID WORLD = UUID.randomUUID();
+
+  @Test
+  void identicalRowsProduceEmptyDelta() {
+    List<RailNodeRecord> nodes = List.of(node("A", 0), node("B", 10), node("C", 20));
+    List<RailEdgeRecord> edges = List.of(edge("A", "B", 10), edge("B", "C", 10));
+    RailGraphComponentSignatures.Partition partition =
+        RailGraphComponentSignatures.compute(nodes, edges);
+
+    RailGraphPersistDelta delta =
+        RailGraphPersistDelta.compute(nodes, edges, Map.of(), nodes, edges, partition);
+
+    assertTrue(delta.isEmpty());
+    assertEquals(1, delta.changedComponents());
+  }
+
+  @Test
+  void onlyChangedComponentRowsAreWritten() {
+    List<RailNodeRecord> stored =
+        List.of(node("A", 0), node("B", 10), node("X", 100), node("Y", 110));
+    List<RailEdgeRecord> storedEdges = List.of(edge("A", "B", 10), edge("X", "Y", 10));
+    Map<String, String> storedSignatures =
+        RailGraphComponentSignatures.compute(stored, storedEdges).signatures();
+
+    // X-Y 分量：Y 移动、新增 Z；A-B 分量保持不变
+    List<RailNodeRecord> next =
+        List.of(node("A", 0), node("B", 10), node("X", 100), node("Y", 115), node("Z", 130));
+    List<RailEdgeRecord> nextEdges =
+        List.of(edge("A", "B", 10), edge("X", "Y", 15), edge("Y", "Z", 15));
+    RailGraphComponentSignatures.Partition partition =
+        RailGraphComponentSignatures.compute(next, nextEdges);
+
+    RailGraphPersistDelta delta =
+        RailGraphPersistDelta.compute(
+            stored, storedEdges, storedSignatures, next, nextEdges, partition);
+
+    assertEquals(1, delta.skippedComponents());
+    assertEquals(1, delta.changedComponents());
+    assertEquals(List.of(node("Y", 115), node("Z", 130)), sortNodes(delta.nodeUpserts()));
+    assertEquals(2, delta.edgeUpserts().size());
+    assertTrue(delta.nodeDeletes().isEmpty());
+    assertTrue(delta.edgeDeletes().isEmpty());
+  }
+
+  @Test
+  void removedComponentsAndOrphanRowsAreDeleted() {
+    List<RailNodeRecord> stored =
+        List.of(node("A", 0), node("B", 10), node("X", 100), node("Y", 110), node("O", 500));
+    List<RailEdgeRecord> storedEdges = List.of(edge("A", "B", 10), edge("X", "Y", 10));
+    List<RailNodeRecord> next = List.of(node("A", 0), node("B", 10));
+    List<RailEdgeRecord> nextEdges = List.of(edge("A", "B", 10));
+    Map<String, String> signatures =
+        RailGraphComponentSignatures.compute(next, nextEdges).signatures();
+
+    RailGraphPersistDelta delta =
+        RailGraphPersistDelta.compute(
+            stored,
+            storedEdges,
+            signatures,
+            next,
+            nextEdges,
+            RailGraphComponentSignatures.compute(next, nextEdges));
+
+    assertTrue(delta.nodeUpserts().isEmpty());
+    assertEquals(3, delta.nodeDeletes().size());
+    assertTrue(delta.nodeDeletes().contains(NodeId.of("O")));
+    assertEquals(List.of(EdgeId.undirected(NodeId.of("X"), NodeId.of("Y"))), delta.edgeDeletes());
+  }
+
+  @Test
+  void canonicalEdgesMatchStoredPrimaryKey() {
+    RailEdgeRecord reversed =
+        new RailEdgeRecord(WORLD, new EdgeId(NodeId.of("B"), NodeId.of("A")), 10, 8.0, true);
+    List<RailEdgeRecord> canonical = RailGraphPersistDelta.canonicalEdges(List.of(reversed));
+
+    assertEquals(List.of(edge("A", "B", 10)), canonical);
+  }
+
+  @Test
+  void signaturesChangeWithAnyPersistedFieldAndRoundTrip() {
+    List<RailEdgeRecord> edges = List.of(edge("A", "B", 10));
+    Map<String, String> base =
+        RailGraphComponentSignatures.compute(List.of(node("A", 0), node("B", 10)), edges)
+            .signatures();
+    RailNodeRecord retyped =
+        new RailNodeRecord(
+            WORLD,
+            NodeId.of("B"),
+            NodeType.SWITCHER,
+            10,
+            64,
+            0,
+            Optional.empty(),
+            Optional.empty());
+    Map<String, String> changed =
+        RailGraphComponentSignatures.compute(List.of(node("A", 0), retyped), edges).signatures();
+
+    assertEquals(Map.of("A", base.get("A")), base);
+    assertNotEquals(base.get("A"), changed.get("A"));
+    assertEquals(
+        base, RailGraphComponentSignatures.decode(RailGraphComponentSignatures.encode(base)));
+  }
+
+  private static List<RailNodeRecord> sortNodes(List<RailNodeRecord> nodes) {
+    return nodes.stream()
+        .sorted((a, b) -> a.nodeId().value().compareTo(b.nodeId().value()))
+        .toList();
+  }
+
+  private static RailNodeRecord node(String id, int x) {
+    return new RailNodeRecord(
+        WORLD, NodeId.of(id), NodeType.WAYPOINT, x, 64, 0, Optional.empty(), Optional.empty());
+  }
+
+  private static RailEdgeRecord edge(String a, String b, int length) {
+    return new RailEdgeRecord(
+        WORLD, EdgeId.undirected(NodeId.of(a), NodeId.of(b)), length, 8.0, true);
+  }
+}
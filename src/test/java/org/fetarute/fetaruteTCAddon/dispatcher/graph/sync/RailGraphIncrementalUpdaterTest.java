@@ -0,0 +1,207 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.graph.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRailNode;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailBlockAccess;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.RailBlockPos;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.explore.SnapshotRailBlockAccess;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.junit.jupiter.api.Test;
+
+final class RailGraphIncrementalUpdaterTest {
+
+  @Test
+  void insertedNodeSplitsExistingEdge() {
+    LineRailBlockAccess access = new LineRailBlockAccess(0, 20);
+    access.addLine(100, 110);
+    RailGraph base =
+        graph(
+            List.of(node("A", 0), node("B", 20), node("Y", 100), node("Z", 110)),
+            Map.of("A-B", 20, "Y-Z", 10),
+            Set.of(edgeId("Y", "Z")));
+    RailGraphIncrementalUpdater updater = new RailGraphIncrementalUpdater(access, type -> 0);
+
+    RailGraphIncrementalUpdater.Update update =
+        updater.apply(base, List.of(node("N", 8)), Set.of()).orElseThrow();
+    RailGraph next = update.merge().graph();
+
+    assertEquals(5, next.nodes().size());
+    assertEquals(
+        Map.of(edgeId("A", "N"), 8, edgeId("B", "N"), 12, edgeId("Y", "Z"), 10), lengths(next));
+    assertTrue(next.isBlocked(edgeId("Y", "Z")));
+    assertEquals(Set.of(NodeId.of("A"), NodeId.of("B"), NodeId.of("N")), update.refreshedNodes());
+  }
+
+  @Test
+  void removedNodeReconnectsNeighbours() {
+    LineRailBlockAccess access = new LineRailBlockAccess(0, 20);
+    RailGraph base =
+        graph(
+            List.of(node("A", 0), node("N", 8), node("B", 20)),
+            Map.of("A-N", 8, "B-N", 12),
+            Set.of());
+    RailGraphIncrementalUpdater updater = new RailGraphIncrementalUpdater(access, type -> 0);
+
+    RailGraphIncrementalUpdater.Update update =
+        updater.apply(base, List.of(), Set.of(NodeId.of("N"))).orElseThrow();
+    RailGraph next = update.merge().graph();
+
+    assertEquals(2, next.nodes().size());
+    assertEquals(Map.of(edgeId("A", "B"), 20), lengths(next));
+    assertEquals(Set.of(NodeId.of("N")), update.removedNodes());
+  }
+
+  @Test
+  void replacingSignAtSamePositionRemovesOldNode() {
+    LineRailBlockAccess access = new LineRailBlockAccess(0, 20);
+    RailGraph base =
+        graph(
+            List.of(node("A", 0), node("OLD", 8), node("B", 20)),
+            Map.of("A-OLD", 8, "B-OLD", 12),
+            Set.of());
+    RailGraphIncrementalUpdater updater = new RailGraphIncrementalUpdater(access, type -> 0);
+
+    RailGraph next =
+        updater.apply(base, List.of(node("NEW", 8)), Set.of()).orElseThrow().merge().graph();
+
+    assertTrue(next.findNode(NodeId.of("OLD")).isEmpty());
+    assertEquals(Map.of(edgeId("A", "NEW"), 8, edgeId("B", "NEW"), 12), lengths(next));
+  }
+
+  @Test
+  void returnsEmptyWhenStepBudgetExceeded() {
+    LineRailBlockAccess access = new LineRailBlockAccess(0, 200);
+    RailGraph base = graph(List.of(node("A", 0), node("B", 200)), Map.of("A-B", 200), Set.of());
+    RailGraphIncrementalUpdater updater =
+        new RailGraphIncrementalUpdater(access, type -> 0, 512, 10L);
+
+    assertFalse(updater.apply(base, List.of(node("N", 100)), Set.of()).isPresent());
+  }
+
+  @Test
+  // 工作线程读取轨道快照的结果与 live 访问一致，live 访问器（含锚点查询）只在“主线程”调用
+  void offThreadSnapshotMatchesLiveAccess() throws Exception {
+    RailGraph base =
+        graph(
+            List.of(node("A", 0), node("B", 20), node("Y", 100), node("Z", 110)),
+            Map.of("A-B", 20, "Y-Z", 10),
+            Set.of());
+    LineRailBlockAccess reference = new LineRailBlockAccess(0, 20);
+    reference.addLine(100, 110);
+    RailGraph expected =
+        new RailGraphIncrementalUpdater(reference, type -> 2)
+            .apply(base, List.of(node("N", 8)), Set.of())
+            .orElseThrow()
+            .merge()
+            .graph();
+
+    LineRailBlockAccess live = new LineRailBlockAccess(0, 20);
+    live.addLine(100, 110);
+    SnapshotRailBlockAccess snapshot =
+        new SnapshotRailBlockAccess(live, SnapshotRailBlockAccess.DEFAULT_PREFETCH_HOPS);
+    RailGraphIncrementalUpdater updater = new RailGraphIncrementalUpdater(snapshot, type -> 2);
+    ExecutorService worker = Executors.newSingleThreadExecutor();
+    try {
+      CompletableFuture<Optional<RailGraphIncrementalUpdater.Update>> result =
+          CompletableFuture.supplyAsync(
+              () -> updater.apply(base, List.of(node("N", 8)), Set.of()), worker);
+      while (!result.isDone()) {
+        snapshot.capture(System.nanoTime() + 50_000L);
+        Thread.sleep(1L);
+      }
+      assertEquals(lengths(expected), lengths(result.get().orElseThrow().merge().graph()));
+      assertEquals(Set.of(Thread.currentThread()), live.callerThreads);
+    } finally {
+      snapshot.close();
+      worker.shutdownNow();
+    }
+  }
+
+  private static Map<EdgeId, Integer> lengths(RailGraph graph) {
+    Map<EdgeId, Integer> lengths = new HashMap<>();
+    for (RailEdge edge : graph.edges()) {
+      lengths.put(edge.id(), edge.lengthBlocks());
+    }
+    return lengths;
+  }
+
+  private static SimpleRailGraph graph(
+      List<RailNode> nodes, Map<String, Integer> edges, Set<EdgeId> blocked) {
+    Map<NodeId, RailNode> nodesById = new HashMap<>();
+    for (RailNode node : nodes) {
+      nodesById.put(node.id(), node);
+    }
+    Map<EdgeId, RailEdge> edgesById = new HashMap<>();
+    for (Map.Entry<String, Integer> entry : edges.entrySet()) {
+      String[] ends = entry.getKey().split("-");
+      EdgeId id = edgeId(ends[0], ends[1]);
+      edgesById.put(
+          id, new RailEdge(id, id.a(), id.b(), entry.getValue(), 0.0, true, Optional.empty()));
+    }
+    return new SimpleRailGraph(nodesById, edgesById, blocked);
+  }
+
+  private static RailNode node(String id, int x) {
+    return new SignRailNode(
+        NodeId.of(id), NodeType.WAYPOINT, new Vector(x, 0, 0), Optional.empty(), Optional.empty());
+  }
+
+  private static EdgeId edgeId(String a, String b) {
+    return EdgeId.undirected(NodeId.of(a), NodeId.of(b));
+  }
+
+  /** 沿 x 轴的直线轨道。 */
+  private static final class LineRailBlockAccess implements RailBlockAccess {
+
+    private final Set<RailBlockPos> rails = new HashSet<>();
+    private final Set<Thread> callerThreads = ConcurrentHashMap.newKeySet();
+
+    private LineRailBlockAccess(int from, int to) {
+      addLine(from, to);
+    }
+
+    void addLine(int from, int to) {
+      for (int x = from; x <= to; x++) {
+        rails.add(new RailBlockPos(x, 0, 0));
+      }
+    }
+
+    @Override
+    public boolean isRail(RailBlockPos pos) {
+      callerThreads.add(Thread.currentThread());
+      return rails.contains(pos);
+    }
+
+    @Override
+    public Set<RailBlockPos> neighbors(RailBlockPos pos) {
+      callerThreads.add(Thread.currentThread());
+      Set<RailBlockPos> result = new HashSet<>();
+      for (RailBlockPos candidate : List.of(pos.offset(1, 0, 0), pos.offset(-1, 0, 0))) {
+        if (rails.contains(candidate)) {
+          result.add(candidate);
+        }
+      }
+      return result;
+    }
+  }
+}
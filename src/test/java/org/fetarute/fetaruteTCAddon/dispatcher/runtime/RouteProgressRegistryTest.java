@@ -63,6 +63,68 @@ class RouteProgressRegistryTest {
             .isPresent());
   }
 
+  @Test
+  void writeBehindDefersTagsUntilFlush() {
+    UUID routeId = UUID.randomUUID();
+    TagStore store = new TagStore("FTA_ROUTE_ID=" + routeId, "FTA_ROUTE_INDEX=0");
+    when(store.properties().getTrainName()).thenReturn("train-1");
+    RouteDefinition route =
+        new RouteDefinition(
+            RouteId.of("route"),
+            List.of(NodeId.of("A"), NodeId.of("B"), NodeId.of("C")),
+            Optional.empty());
+    RouteProgressRegistry registry = new RouteProgressRegistry();
+    registry.setWriteBehind(true);
+
+    registry.advance("train-1", routeId, route, 1, store.properties(), Instant.ofEpochMilli(1000));
+    registry.advance("train-1", routeId, route, 2, store.properties(), Instant.ofEpochMilli(2000));
+
+    assertEquals(
+        Optional.of(0),
+        TrainTagHelper.readIntTag(store.properties(), RouteProgressRegistry.TAG_ROUTE_INDEX));
+    assertEquals(Optional.of(2), registry.readRouteIndex(store.properties()));
+    assertEquals(1, registry.writeBehindStats().pending());
+
+    assertEquals(1, registry.flushPendingTags());
+    assertEquals(
+        Optional.of(2),
+        TrainTagHelper.readIntTag(store.properties(), RouteProgressRegistry.TAG_ROUTE_INDEX));
+    assertEquals(
+        Optional.of("2000"),
+        TrainTagHelper.readTagValue(
+            store.properties(), RouteProgressRegistry.TAG_ROUTE_UPDATED_AT));
+    RouteProgressRegistry.WriteBehindStats stats = registry.writeBehindStats();
+    assertEquals(0, stats.pending());
+    assertEquals(2L, stats.deferredWrites());
+    assertEquals(1L, stats.flushBatches());
+    assertEquals(1L, stats.flushedEntries());
+  }
+
+  @Test
+  void removeDiscardsPendingTagsAndUnloadFlushesSingleTrain() {
+    RouteDefinition route =
+        new RouteDefinition(
+            RouteId.of("route"), List.of(NodeId.of("A"), NodeId.of("B")), Optional.empty());
+    RouteProgressRegistry registry = new RouteProgressRegistry();
+    registry.setWriteBehind(true);
+    TagStore removed = new TagStore("FTA_ROUTE_INDEX=0");
+    TagStore unloaded = new TagStore("FTA_ROUTE_INDEX=0");
+
+    registry.advance("train-1", null, route, 1, removed.properties(), Instant.ofEpochMilli(1000));
+    registry.advance("train-2", null, route, 1, unloaded.properties(), Instant.ofEpochMilli(1000));
+    registry.remove("train-1");
+
+    assertTrue(registry.flushPendingTags("TRAIN-2"));
+    assertFalse(registry.flushPendingTags("train-1"));
+    assertEquals(0, registry.flushPendingTags());
+    assertEquals(
+        Optional.of(0),
+        TrainTagHelper.readIntTag(removed.properties(), RouteProgressRegistry.TAG_ROUTE_INDEX));
+    assertEquals(
+        Optional.of(1),
+        TrainTagHelper.readIntTag(unloaded.properties(), RouteProgressRegistry.TAG_ROUTE_INDEX));
+  }
+
   @Test
   void updateSignalReportsMissingEntry() {
     RouteProgressRegistry registry = new RouteProgressRegistry();
@@ -62,7 +62,6 @@ import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyClaim
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyDecision;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyManager;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyQueueEntry;
-import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyQueueSnapshot;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyQueueSupport;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyRequest;
 import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyRequestContext;
@@ -4835,31 +4834,26 @@ class RuntimeDispatchServiceTest {
             org.mockito.Mockito.withSettings().extraInterfaces(OccupancyQueueSupport.class));
     OccupancyQueueSupport queueSupport = (OccupancyQueueSupport) occupancyManager;
     OccupancyResource target = OccupancyResource.forConflict("switcher:test");
-    OccupancyResource other = OccupancyResource.forConflict("switcher:other");
     Instant now = Instant.now();
 
-    when(occupancyManager.snapshotClaims())
+    when(occupancyManager.holdersOf(Set.of(target)))
         .thenReturn(
             List.of(
                 new OccupancyClaim(
                     target, "Train-A", Optional.empty(), now, Duration.ZERO, Optional.empty()),
                 new OccupancyClaim(
-                    target, "spawn-train", Optional.empty(), now, Duration.ZERO, Optional.empty()),
-                new OccupancyClaim(
-                    other, "Train-B", Optional.empty(), now, Duration.ZERO, Optional.empty())));
-    when(queueSupport.snapshotQueues())
-        .thenReturn(
-            List.of(
-                new OccupancyQueueSnapshot(
                     target,
+                    "spawn-train",
                     Optional.empty(),
-                    0,
-                    List.of(
-                        new OccupancyQueueEntry(
-                            "Train-C", CorridorDirection.UNKNOWN, now, now, 0, 0),
-                        new OccupancyQueueEntry(
-                            "spawn-train", CorridorDirection.UNKNOWN, now, now, 0, 1))),
-                new OccupancyQueueSnapshot(other, Optional.empty(), 0, List.of())));
+                    now,
+                    Duration.ZERO,
+                    Optional.empty())));
+    when(queueSupport.waitersOf(Set.of(target)))
+        .thenReturn(
+            List.of(
+                new OccupancyQueueEntry("Train-C", CorridorDirection.UNKNOWN, now, now, 0, 0),
+                new OccupancyQueueEntry(
+                    "spawn-train", CorridorDirection.UNKNOWN, now, now, 0, 1)));
 
     ConfigManager configManager = mock(ConfigManager.class);
     when(configManager.current()).thenReturn(testConfigView(20, 20.0));
@@ -4888,6 +4882,12 @@ class RuntimeDispatchServiceTest {
     assertTrue(impacted.containsKey("train-a"));
     assertTrue(impacted.containsKey("train-c"));
     assertFalse(impacted.containsKey("spawn-train"));
+    // 只按目标资源查询，不再复制全局快照
+    verify(occupancyManager, never()).snapshotClaims();
+    verify(queueSupport, never()).snapshotQueues();
+    RuntimeDispatchService.SignalRuntimeStats stats = service.signalRuntimeStats();
+    assertEquals(1, stats.resourceQueryCount());
+    assertEquals(1, stats.resourceQueryHits());
   }
 
   @Test
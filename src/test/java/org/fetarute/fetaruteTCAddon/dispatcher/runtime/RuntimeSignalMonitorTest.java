@@ -6,7 +6,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -84,4 +86,40 @@ class RuntimeSignalMonitorTest {
 
     assertTrue(duplicates.isEmpty());
   }
+
+  @Test
+  @DisplayName("临近授权终点或进站点的运行列车优先，静止列车最后")
+  void classifyPriorityOrdersUrgentMovingIdle() {
+    assertEquals(
+        RuntimeSignalMonitor.PRIORITY_IDLE,
+        RuntimeSignalMonitor.classifyPriority(0.0, OptionalLong.of(1L), OptionalLong.empty()));
+    assertEquals(
+        RuntimeSignalMonitor.PRIORITY_URGENT,
+        RuntimeSignalMonitor.classifyPriority(0.2, OptionalLong.of(12L), OptionalLong.empty()));
+    assertEquals(
+        RuntimeSignalMonitor.PRIORITY_URGENT,
+        RuntimeSignalMonitor.classifyPriority(1.0, OptionalLong.empty(), OptionalLong.of(35L)));
+    assertEquals(
+        RuntimeSignalMonitor.PRIORITY_MOVING,
+        RuntimeSignalMonitor.classifyPriority(0.2, OptionalLong.of(80L), OptionalLong.empty()));
+    assertEquals(
+        RuntimeSignalMonitor.PRIORITY_MOVING,
+        RuntimeSignalMonitor.classifyPriority(0.2, OptionalLong.empty(), OptionalLong.empty()));
+  }
+
+  @Test
+  @DisplayName("同优先级按轮转偏移公平排序，且不修改入参")
+  void orderByPriorityRotatesWithinSamePriority() {
+    List<String> items = List.of("a0", "b2", "c1", "d0", "e1");
+    ToIntFunction<String> priority = s -> s.charAt(1) - '0';
+
+    assertEquals(
+        List.of("a0", "d0", "c1", "e1", "b2"),
+        RuntimeSignalMonitor.orderByPriority(items, priority, 0));
+    assertEquals(
+        List.of("d0", "a0", "e1", "c1", "b2"),
+        RuntimeSignalMonitor.orderByPriority(items, priority, 3));
+    assertEquals(List.of("a0", "b2", "c1", "d0", "e1"), items);
+    assertTrue(RuntimeSignalMonitor.orderByPriority(List.of(), priority, 5).isEmpty());
+  }
 }
@@ -0,0 +1,244 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRailNode;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.fetarute.fetaruteTCAddon.dispatcher.route.RouteId;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.AuthorizationPurpose;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyRequestBuilder;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.OccupancyRequestContext;
+import org.junit.jupiter.api.Test;
+
+class SignalTickPlannerTest {
+
+  private static final NodeId A = NodeId.of("A");
+  private static final NodeId M = NodeId.of("M");
+  private static final NodeId C = NodeId.of("C");
+  private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Test
+  // plan 结果与同步路径一致：lastPassed 位于当前段最短路上时作为信号评估位置，两份请求按同一节点列表构建
+  void planMatchesSynchronousBuilders() {
+    SimpleRailGraph graph = graph();
+    SignalTickPlanner.PlanInput input = input(graph, Optional.of(M), T0);
+
+    SignalTickPlanner.SignalPlan plan = SignalTickPlanner.plan(input, null);
+
+    assertEquals(M, plan.currentNode());
+    assertEquals(List.of(M, C), plan.effectiveNodes());
+    OccupancyRequestContext expected =
+        new OccupancyRequestBuilder(graph, 2, 0, 1, 0)
+            .buildContextFromNodes(
+                "T1",
+                Optional.of(RouteId.of("OP:L:R")),
+                List.of(M, C),
+                0,
+                T0,
+                0,
+                AuthorizationPurpose.RUNTIME_MOVE)
+            .orElseThrow();
+    OccupancyRequestContext planned = plan.context().orElseThrow();
+    assertEquals(expected.request().resources(), planned.request().resources());
+    assertEquals(expected.request().corridorDirections(), planned.request().corridorDirections());
+    assertEquals(expected.pathNodes(), plan.authorizationContext().orElseThrow().pathNodes());
+
+    SignalTickPlanner.SignalPlan unchanged =
+        SignalTickPlanner.plan(input(graph, Optional.of(NodeId.of("X")), T0), null);
+    assertEquals(A, unchanged.currentNode());
+    assertEquals(List.of(A, C), unchanged.effectiveNodes());
+  }
+
+  @Test
+  // 工作线程已完成且输入一致时直接复用，并把请求时间替换为 commit 时刻；输入变化时丢弃重算
+  void takeReusesMatchingPlanAndRestampsTime() {
+    SimpleRailGraph graph = graph();
+    SignalTickPlanner planner = new SignalTickPlanner(null, workers -> Runnable::run);
+    planner.configure(1);
+    assertTrue(planner.enabled());
+
+    planner.submit(input(graph, Optional.empty(), T0));
+    Instant commit = T0.plusMillis(150);
+    SignalTickPlanner.SignalPlan plan = planner.take(input(graph, Optional.empty(), commit));
+    assertEquals(commit, plan.context().orElseThrow().request().now());
+    assertEquals(commit, plan.authorizationContext().orElseThrow().request().now());
+
+    planner.submit(input(graph, Optional.empty(), T0));
+    SignalTickPlanner.SignalPlan restale = planner.take(input(graph, Optional.of(M), commit));
+    assertEquals(M, restale.currentNode());
+
+    planner.take(input(graph, Optional.empty(), commit));
+    SignalTickPlanner.Stats stats = planner.stats();
+    assertEquals(2L, stats.submitted());
+    assertEquals(1L, stats.hits());
+    assertEquals(1L, stats.stale());
+    assertEquals(1L, stats.inline());
+  }
+
+  @Test
+  // 尚未开始的任务由主线程接管，之后工作线程不会再执行；关闭后回到同步计算
+  void takeStealsPendingTaskAndCloseDisables() {
+    SimpleRailGraph graph = graph();
+    List<Runnable> queued = new ArrayList<>();
+    SignalTickPlanner planner = new SignalTickPlanner(null, workers -> queued::add);
+    planner.configure(2);
+
+    planner.submit(input(graph, Optional.empty(), T0));
+    SignalTickPlanner.SignalPlan plan = planner.take(input(graph, Optional.empty(), T0));
+    assertTrue(plan.context().isPresent());
+    queued.forEach(Runnable::run);
+    assertEquals(1L, planner.stats().stolen());
+    assertEquals(0L, planner.stats().workerNanos());
+
+    planner.submit(input(graph, Optional.empty(), T0));
+    planner.clear();
+    assertEquals(0, planner.stats().pending());
+
+    planner.close();
+    assertFalse(planner.enabled());
+    planner.submit(input(graph, Optional.empty(), T0));
+    assertEquals(2L, planner.stats().submitted());
+  }
+
+  @Test
+  // 工作线程仍在计算时主线程不等待：放弃其结果并同步计算，晚到的结果也不会被复用
+  void takeNeverWaitsForRunningTask() throws InterruptedException {
+    SimpleRailGraph graph = graph();
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    RailGraph blocking = new BlockingRailGraph(graph, entered, release);
+    SignalTickPlanner planner =
+        new SignalTickPlanner(null, workers -> runnable -> new Thread(runnable).start());
+    planner.configure(1);
+
+    planner.submit(input(blocking, Optional.empty(), T0));
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+    try {
+      long start = System.nanoTime();
+      SignalTickPlanner.SignalPlan plan = planner.take(input(graph, Optional.empty(), T0));
+      long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertEquals(List.of(A, C), plan.effectiveNodes());
+      assertTrue(plan.context().isPresent());
+      // 工作线程被阻塞到 release 为止；主线程只花费一次同步 plan 的时间
+      assertTrue(waitedMillis < 1000L, "take waited " + waitedMillis + "ms");
+      assertEquals(1L, release.getCount());
+    } finally {
+      release.countDown();
+    }
+    SignalTickPlanner.Stats stats = planner.stats();
+    assertEquals(1L, stats.abandoned());
+    assertEquals(0L, stats.hits());
+  }
+
+  @Test
+  // 工作队列已满时拒绝提交并计数，commit 时同步计算
+  void submitCountsRejectionsAndTakePlansInline() {
+    SimpleRailGraph graph = graph();
+    SignalTickPlanner planner =
+        new SignalTickPlanner(
+            null,
+            workers ->
+                runnable -> {
+                  throw new RejectedExecutionException("full");
+                });
+    planner.configure(1);
+
+    planner.submit(input(graph, Optional.empty(), T0));
+    assertEquals(0, planner.stats().pending());
+    SignalTickPlanner.SignalPlan plan = planner.take(input(graph, Optional.empty(), T0));
+    assertTrue(plan.context().isPresent());
+    SignalTickPlanner.Stats stats = planner.stats();
+    assertEquals(1L, stats.rejected());
+    assertEquals(0L, stats.submitted());
+    assertEquals(1L, stats.inline());
+  }
+
+  private static SignalTickPlanner.PlanInput input(
+      RailGraph graph, Optional<NodeId> lastPassed, Instant now) {
+    return new SignalTickPlanner.PlanInput(
+        "T1",
+        Optional.of(RouteId.of("OP:L:R")),
+        List.of(A, C),
+        0,
+        lastPassed,
+        graph,
+        2,
+        0,
+        1,
+        0,
+        now);
+  }
+
+  private static SimpleRailGraph graph() {
+    EdgeId am = EdgeId.undirected(A, M);
+    EdgeId mc = EdgeId.undirected(M, C);
+    return new SimpleRailGraph(
+        Map.of(A, node(A, 0.0), M, node(M, 10.0), C, node(C, 20.0)),
+        Map.of(
+            am,
+            new RailEdge(am, A, M, 10, 8.0, true, Optional.empty()),
+            mc,
+            new RailEdge(mc, M, C, 10, 8.0, true, Optional.empty())),
+        Set.of());
+  }
+
+  /** 首次查询邻接边时阻塞，模拟耗时较长的工作线程计算。 */
+  private record BlockingRailGraph(
+      RailGraph delegate, CountDownLatch entered, CountDownLatch release) implements RailGraph {
+
+    @Override
+    public Collection<RailNode> nodes() {
+      return delegate.nodes();
+    }
+
+    @Override
+    public Collection<RailEdge> edges() {
+      return delegate.edges();
+    }
+
+    @Override
+    public Optional<RailNode> findNode(NodeId id) {
+      return delegate.findNode(id);
+    }
+
+    @Override
+    public Set<RailEdge> edgesFrom(NodeId id) {
+      entered.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return delegate.edgesFrom(id);
+    }
+
+    @Override
+    public boolean isBlocked(EdgeId id) {
+      return delegate.isBlocked(id);
+    }
+  }
+
+  private static SignRailNode node(NodeId id, double x) {
+    return new SignRailNode(
+        id, NodeType.WAYPOINT, new Vector(x, 64.0, 0.0), Optional.empty(), Optional.empty());
+  }
+}
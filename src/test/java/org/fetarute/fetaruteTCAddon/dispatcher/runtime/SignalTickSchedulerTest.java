@@ -0,0 +1,99 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.OptionalLong;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SignalTickSchedulerTest {
+
+  @Test
+  // 静止列车在截止时间前跳过；dirty 标记与到期都会重新评估
+  void skipsIdleTrainUntilDirtyOrDeadline() {
+    SignalTickScheduler scheduler = new SignalTickScheduler();
+    scheduler.configure(true, 40, 10_000);
+
+    scheduler.beginRun(0L);
+    assertEquals(SignalTickScheduler.Decision.FIRST_SEEN, scheduler.decide("T1", 0L, 0.0));
+    scheduler.recordEvaluated("T1", 0L, 0.0, OptionalLong.empty());
+    scheduler.endRun();
+
+    scheduler.beginRun(10L);
+    assertEquals(SignalTickScheduler.Decision.SKIP, scheduler.decide("T1", 10L, 0.0));
+    SignalTickScheduler.RunStats skipped = scheduler.endRun();
+    assertEquals(0, skipped.evaluated());
+    assertEquals(1, skipped.skipped());
+
+    scheduler.markDirty("t1", SignalTickScheduler.DirtyReason.OCCUPANCY_RELEASED);
+    scheduler.beginRun(20L);
+    assertEquals(SignalTickScheduler.Decision.DIRTY, scheduler.decide("T1", 20L, 0.0));
+    scheduler.recordEvaluated("T1", 20L, 0.0, OptionalLong.empty());
+    assertEquals(1, scheduler.endRun().dirty());
+
+    scheduler.beginRun(50L);
+    assertEquals(SignalTickScheduler.Decision.SKIP, scheduler.decide("T1", 50L, 0.0));
+    scheduler.endRun();
+    scheduler.beginRun(60L);
+    assertEquals(SignalTickScheduler.Decision.DEADLINE, scheduler.decide("T1", 60L, 0.0));
+    scheduler.endRun();
+
+    SignalTickScheduler.Stats stats = scheduler.stats();
+    assertEquals(3L, stats.totalEvaluated());
+    assertEquals(2L, stats.totalSkipped());
+    assertEquals(0, stats.pendingDirty());
+  }
+
+  @Test
+  // 运行中与刚停稳的一轮必须评估；停站结束时刻早于复查周期时以停站结束为准
+  void evaluatesMovingTrainsAndHonorsDwellDeadline() {
+    SignalTickScheduler scheduler = new SignalTickScheduler();
+    scheduler.configure(true, 100, 10_000);
+    scheduler.beginRun(0L);
+    scheduler.decide("T1", 0L, 0.4);
+    scheduler.recordEvaluated("T1", 0L, 0.4, OptionalLong.empty());
+    scheduler.endRun();
+
+    scheduler.beginRun(10L);
+    assertEquals(SignalTickScheduler.Decision.MOVING, scheduler.decide("T1", 10L, 0.41));
+    scheduler.recordEvaluated("T1", 10L, 0.41, OptionalLong.empty());
+    assertEquals(SignalTickScheduler.Decision.SPEED_CHANGED, scheduler.decide("T1", 20L, 0.0));
+    scheduler.recordEvaluated("T1", 20L, 0.0005, OptionalLong.of(30L));
+    scheduler.endRun();
+
+    scheduler.beginRun(25L);
+    assertEquals(SignalTickScheduler.Decision.SKIP, scheduler.decide("T1", 25L, 0.0));
+    scheduler.endRun();
+    scheduler.beginRun(30L);
+    assertEquals(SignalTickScheduler.Decision.DEADLINE, scheduler.decide("T1", 30L, 0.0));
+    scheduler.endRun();
+  }
+
+  @Test
+  // 安全巡检按间隔覆盖全部静止列车；关闭调度时每轮都评估
+  void safetySweepAndDisabledModeEvaluateEverything() {
+    SignalTickScheduler scheduler = new SignalTickScheduler();
+    scheduler.configure(true, 1_000, 100);
+    scheduler.beginRun(0L);
+    scheduler.decide("T1", 0L, 0.0);
+    scheduler.recordEvaluated("T1", 0L, 0.0, OptionalLong.empty());
+    assertTrue(scheduler.endRun().safetySweep());
+
+    scheduler.beginRun(50L);
+    assertEquals(SignalTickScheduler.Decision.SKIP, scheduler.decide("T1", 50L, 0.0));
+    assertFalse(scheduler.endRun().safetySweep());
+    scheduler.beginRun(100L);
+    assertEquals(SignalTickScheduler.Decision.SAFETY_SWEEP, scheduler.decide("T1", 100L, 0.0));
+    scheduler.endRun();
+
+    scheduler.retain(Set.of("T2"));
+    assertEquals(0, scheduler.stats().trackedTrains());
+
+    scheduler.configure(false, 1_000, 100);
+    scheduler.beginRun(120L);
+    assertEquals(SignalTickScheduler.Decision.DISABLED, scheduler.decide("T1", 120L, 0.0));
+    assertEquals(1, scheduler.endRun().evaluated());
+  }
+}
@@ -0,0 +1,60 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class TrainTagViewTest {
+
+  @Test
+  // 与逐条扫描语义一致：key 忽略大小写、值去空白、空值视为缺失、同名取第一个非空值
+  void parsesKeyValueTagsLikeLinearScan() {
+    TrainTagView view =
+        TrainTagView.parse(
+            List.of(
+                " fta_route_index = 3 ",
+                "FTA_TRAIN_NAME=",
+                "FTA_TRAIN_NAME=T1",
+                "FTA_TRAIN_NAME=T2",
+                "plain",
+                "=orphan"));
+
+    assertEquals(Optional.of("3"), view.value("FTA_ROUTE_INDEX"));
+    assertEquals(Optional.of("T1"), view.value("fta_train_name"));
+    assertTrue(view.value("plain").isEmpty());
+    assertTrue(view.value("").isEmpty());
+    assertTrue(view.ftaTagged());
+    assertFalse(view.ftaRouteTagged());
+  }
+
+  @Test
+  // 交路标签任一存在即视为可调度列车；普通 TrainCarts tag 不影响判定
+  void detectsFtaRouteAndPlainTrains() {
+    assertTrue(TrainTagView.parse(List.of("FTA_OPERATOR_CODE=SURN")).ftaRouteTagged());
+    assertTrue(TrainTagView.parse(List.of("FTA_ROUTE_CODE=R1")).ftaRouteTagged());
+
+    TrainTagView plain = TrainTagView.parse(List.of("vip", "color=red"));
+    assertFalse(plain.ftaTagged());
+    assertFalse(plain.ftaRouteTagged());
+    assertFalse(TrainTagView.EMPTY.ftaTagged());
+  }
+
+  @Test
+  // 序列逐项一致才复用缓存；改值、增删、顺序变化都视为变更
+  void matchesOnlyIdenticalTagSequence() {
+    List<String> tags = new ArrayList<>(List.of("FTA_ROUTE_INDEX=1", "vip"));
+    TrainTagView view = TrainTagView.parse(tags);
+
+    assertTrue(view.matches(new ArrayList<>(tags)));
+    assertFalse(view.matches(List.of("FTA_ROUTE_INDEX=2", "vip")));
+    assertFalse(view.matches(List.of("vip", "FTA_ROUTE_INDEX=1")));
+    assertFalse(view.matches(List.of("FTA_ROUTE_INDEX=1")));
+    assertFalse(view.matches(List.of()));
+    assertTrue(TrainTagView.EMPTY.matches(List.of()));
+  }
+}
@@ -0,0 +1,193 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.runtime.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import org.bukkit.util.Vector;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailEdge;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.RailGraphService.RailGraphSnapshot;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SignRailNode;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.SimpleRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.control.EdgeOverrideRailGraph;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeOverrideRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.query.RailGraphPathFinder;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.RailNode;
+import org.junit.jupiter.api.Test;
+
+final class ShortestPathDistanceCacheTest {
+
+  private static final NodeId A = NodeId.of("A");
+  private static final NodeId B = NodeId.of("B");
+  private static final NodeId C = NodeId.of("C");
+  private static final UUID WORLD = UUID.fromString("00000000-0000-0000-0000-000000000001");
+  private static final UUID OTHER_WORLD = UUID.fromString("00000000-0000-0000-0000-000000000002");
+  private static final Instant BUILT_AT = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Test
+  void snapshotSwapInvalidatesEntriesImmediately() {
+    ShortestPathDistanceCache cache = cache(16);
+    RailGraphSnapshot before = snapshot(graph(10), 1L);
+    RailGraphSnapshot after = snapshot(graph(25), 2L);
+
+    assertEquals(OptionalLong.of(10L), resolve(cache, before, A, B));
+    assertEquals(OptionalLong.of(10L), resolve(cache, before, A, B));
+    cache.onSnapshotChanged(2L);
+    assertEquals(0, cache.stats().size());
+    assertEquals(OptionalLong.of(25L), resolve(cache, after, A, B));
+
+    ShortestPathDistanceCache.Stats stats = cache.stats();
+    assertEquals(1L, stats.hits());
+    assertEquals(2L, stats.misses());
+    assertEquals(1L, stats.invalidations());
+    assertEquals(1, stats.size());
+  }
+
+  @Test
+  void entriesFromOlderSnapshotVersionAreRecomputed() {
+    ShortestPathDistanceCache cache = cache(16);
+    RailGraphSnapshot before = snapshot(graph(10), 1L);
+    RailGraphSnapshot after = snapshot(graph(25), 2L);
+
+    assertEquals(OptionalLong.of(10L), resolve(cache, before, A, B));
+    assertEquals(OptionalLong.of(25L), resolve(cache, after, A, B));
+
+    ShortestPathDistanceCache.Stats stats = cache.stats();
+    assertEquals(0L, stats.hits());
+    assertEquals(1L, stats.invalidations());
+  }
+
+  @Test
+  void sameNodeIdsInDifferentWorldsDoNotShareEntries() {
+    ShortestPathDistanceCache cache = cache(16);
+    RailGraphSnapshot first = snapshot(graph(10), 1L);
+    RailGraphSnapshot second = snapshot(graph(25), 1L);
+
+    assertEquals(OptionalLong.of(10L), cache.resolve(WORLD, first, first.graph(), A, B));
+    assertEquals(OptionalLong.of(25L), cache.resolve(OTHER_WORLD, second, second.graph(), A, B));
+    assertEquals(OptionalLong.of(10L), cache.resolve(WORLD, first, first.graph(), A, B));
+
+    ShortestPathDistanceCache.Stats stats = cache.stats();
+    assertEquals(2, stats.size());
+    assertEquals(1L, stats.hits());
+    assertEquals(0L, stats.invalidations());
+  }
+
+  @Test
+  void graphOutsideSnapshotIsComputedWithoutCaching() {
+    ShortestPathDistanceCache cache = cache(16);
+    RailGraphSnapshot current = snapshot(graph(10), 1L);
+
+    assertEquals(OptionalLong.of(25L), cache.resolve(WORLD, current, graph(25), A, B));
+    assertEquals(OptionalLong.of(25L), cache.resolve(null, null, graph(25), A, B));
+
+    ShortestPathDistanceCache.Stats stats = cache.stats();
+    assertEquals(0, stats.size());
+    assertEquals(0L, stats.misses());
+  }
+
+  @Test
+  void overrideViewsOfSameSnapshotShareEntriesUntilBlockingChanges() {
+    ShortestPathDistanceCache cache = cache(16);
+    SimpleRailGraph base = graph(10);
+    RailGraphSnapshot snapshot = snapshot(base, 1L);
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    EdgeId direct = EdgeId.undirected(A, B);
+
+    cache.resolve(WORLD, snapshot, new EdgeOverrideRailGraph(base, Map.of(), now), A, B);
+    cache.resolve(
+        WORLD, snapshot, new EdgeOverrideRailGraph(base, Map.of(), now.plusSeconds(1)), A, B);
+    OptionalLong blocked =
+        cache.resolve(
+            WORLD,
+            snapshot,
+            new EdgeOverrideRailGraph(base, Map.of(direct, blockedOverride(direct, now)), now),
+            A,
+            B);
+
+    assertEquals(OptionalLong.of(30L), blocked);
+    ShortestPathDistanceCache.Stats stats = cache.stats();
+    assertEquals(1L, stats.hits());
+    assertEquals(1L, stats.invalidations());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntries() {
+    ShortestPathDistanceCache cache = cache(2);
+    RailGraphSnapshot snapshot = snapshot(graph(10), 1L);
+
+    resolve(cache, snapshot, A, B);
+    resolve(cache, snapshot, A, C);
+    resolve(cache, snapshot, A, B);
+    resolve(cache, snapshot, B, C);
+    resolve(cache, snapshot, A, B);
+
+    ShortestPathDistanceCache.Stats stats = cache.stats();
+    assertEquals(2, stats.size());
+    assertEquals(1L, stats.evictions());
+    assertEquals(2L, stats.hits());
+
+    cache.setMaxCacheSize(1);
+    assertEquals(1, cache.stats().size());
+    assertTrue(cache.stats().evictions() >= 2L);
+  }
+
+  private static ShortestPathDistanceCache cache(int maxSize) {
+    return new ShortestPathDistanceCache(
+        new RailGraphPathFinder(), Duration.ofMinutes(10), maxSize, null, Runnable::run);
+  }
+
+  private static OptionalLong resolve(
+      ShortestPathDistanceCache cache, RailGraphSnapshot snapshot, NodeId from, NodeId to) {
+    return cache.resolve(WORLD, snapshot, snapshot.graph(), from, to);
+  }
+
+  private static RailGraphSnapshot snapshot(RailGraph graph, long version) {
+    return new RailGraphSnapshot(graph, BUILT_AT, version);
+  }
+
+  private static RailEdgeOverrideRecord blockedOverride(EdgeId edgeId, Instant now) {
+    return new RailEdgeOverrideRecord(
+        UUID.randomUUID(),
+        edgeId,
+        OptionalDouble.empty(),
+        OptionalDouble.empty(),
+        Optional.empty(),
+        true,
+        Optional.empty(),
+        now);
+  }
+
+  /** A-B 直连（长度可调），另有 A-C-B 绕行（15 + 15）。 */
+  private static SimpleRailGraph graph(int directLength) {
+    Map<NodeId, RailNode> nodes = new HashMap<>();
+    for (NodeId id : Set.of(A, B, C)) {
+      nodes.put(
+          id,
+          new SignRailNode(
+              id, NodeType.WAYPOINT, new Vector(0, 0, 0), Optional.empty(), Optional.empty()));
+    }
+    Map<EdgeId, RailEdge> edges = new HashMap<>();
+    putEdge(edges, A, B, directLength);
+    putEdge(edges, A, C, 15);
+    putEdge(edges, C, B, 15);
+    return new SimpleRailGraph(nodes, edges, Set.of());
+  }
+
+  private static void putEdge(Map<EdgeId, RailEdge> edges, NodeId a, NodeId b, int length) {
+    EdgeId id = EdgeId.undirected(a, b);
+    edges.put(id, new RailEdge(id, id.a(), id.b(), length, 0.0, true, Optional.empty()));
+  }
+}
@@ -6,12 +6,21 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.signal.SignalComputationTrace;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.OccupancyAcquiredEvent;
+import org.fetarute.fetaruteTCAddon.dispatcher.signal.event.SignalEventBus;
 import org.junit.jupiter.api.Test;
 
 class SimpleOccupancyManagerTest {
@@ -1037,6 +1046,73 @@ class SimpleOccupancyManagerTest {
     assertTrue(manager.snapshotClaims().isEmpty());
   }
 
+  @Test
+  void claimsOfAndReleaseByTrainOnlyTouchOwnFootprint() {
+    HeadwayRule headwayRule = (routeId, resource) -> Duration.ZERO;
+    SimpleOccupancyManager manager =
+        new SimpleOccupancyManager(headwayRule, SignalAspectPolicy.defaultPolicy());
+
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    OccupancyResource switcher = OccupancyResource.forConflict("switcher:SW-1");
+    OccupancyResource nodeA = OccupancyResource.forNode(NodeId.of("NODE-A"));
+    OccupancyResource nodeB = OccupancyResource.forNode(NodeId.of("NODE-B"));
+    OccupancyResource nodeC = OccupancyResource.forNode(NodeId.of("NODE-C"));
+    manager.acquire(
+        new OccupancyRequest("t1", Optional.empty(), now, List.of(switcher, nodeA), Map.of()));
+    // split 临时别名与原列车属于同一逻辑列车
+    manager.acquire(new OccupancyRequest("T1~2", Optional.empty(), now, List.of(nodeB), Map.of()));
+    manager.acquire(new OccupancyRequest("t2", Optional.empty(), now, List.of(nodeC), Map.of()));
+    // t2 在道岔冲突上排队
+    assertFalse(
+        manager
+            .canEnter(
+                new OccupancyRequest("t2", Optional.empty(), now, List.of(switcher), Map.of()))
+            .allowed());
+
+    assertEquals(3, manager.claimsOf("t1").size());
+    assertEquals(
+        List.of(nodeC), manager.claimsOf("T2").stream().map(OccupancyClaim::resource).toList());
+
+    assertEquals(1, manager.releaseByTrain("t2"));
+    assertTrue(manager.claimsOf("t2").isEmpty());
+    assertTrue(manager.snapshotQueues().isEmpty(), "释放列车时应同步清理其排队条目");
+    assertEquals(3, manager.snapshotClaims().size());
+
+    assertEquals(3, manager.releaseByTrain("t1"));
+    assertTrue(manager.claimsOf("t1").isEmpty());
+    assertTrue(manager.snapshotClaims().isEmpty());
+  }
+
+  @Test
+  void holdersAndWaitersOfReturnOnlyRequestedResources() {
+    HeadwayRule headwayRule = (routeId, resource) -> Duration.ZERO;
+    SimpleOccupancyManager manager =
+        new SimpleOccupancyManager(headwayRule, SignalAspectPolicy.defaultPolicy());
+
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    OccupancyResource switcher = OccupancyResource.forConflict("switcher:SW-1");
+    OccupancyResource node = OccupancyResource.forNode(NodeId.of("NODE-A"));
+    OccupancyResource other = OccupancyResource.forNode(NodeId.of("NODE-Z"));
+    manager.acquire(new OccupancyRequest("t1", Optional.empty(), now, List.of(switcher), Map.of()));
+    manager.acquire(new OccupancyRequest("t2", Optional.empty(), now, List.of(node), Map.of()));
+    manager.acquire(new OccupancyRequest("t3", Optional.empty(), now, List.of(other), Map.of()));
+    manager.canEnter(
+        new OccupancyRequest("t4", Optional.empty(), now, List.of(switcher), Map.of()));
+
+    List<String> holders =
+        manager.holdersOf(List.of(switcher, node, switcher)).stream()
+            .map(OccupancyClaim::trainName)
+            .sorted()
+            .toList();
+    assertEquals(List.of("t1", "t2"), holders);
+    assertEquals(
+        List.of("t4"),
+        manager.waitersOf(Set.of(switcher, node)).stream()
+            .map(OccupancyQueueEntry::trainName)
+            .toList());
+    assertTrue(manager.waitersOf(List.of(other)).isEmpty());
+  }
+
   @Test
   void queueEntryOrderResetsAfterExpiredEntryIsPurged() {
     HeadwayRule headwayRule = (routeId, resource) -> Duration.ZERO;
@@ -1128,6 +1204,47 @@ class SimpleOccupancyManagerTest {
     assertTrue(manager.staleQueueCleanupCount() > 0);
   }
 
+  @Test
+  void requestPathPurgesOnlyOwnQueuesAndPeriodicSweepPurgesRest() {
+    HeadwayRule headwayRule = (routeId, resource) -> Duration.ZERO;
+    SimpleOccupancyManager manager =
+        new SimpleOccupancyManager(headwayRule, SignalAspectPolicy.defaultPolicy());
+
+    Instant now = Instant.parse("2026-03-15T10:00:00Z");
+    OccupancyResource own = OccupancyResource.forConflict("switcher:SW-1");
+    OccupancyResource other = OccupancyResource.forConflict("switcher:SW-2");
+    for (OccupancyResource resource : List.of(own, other)) {
+      manager.canEnter(
+          new OccupancyRequest(
+              "stale-" + resource.key(),
+              Optional.empty(),
+              now,
+              List.of(resource),
+              Map.of(),
+              Map.of(resource.key(), 0),
+              0));
+    }
+
+    Instant later = now.plusSeconds(31);
+    manager.canEnter(
+        new OccupancyRequest(
+            "requester",
+            Optional.empty(),
+            later,
+            List.of(own),
+            Map.of(),
+            Map.of(own.key(), 0),
+            0));
+    assertEquals(1L, manager.staleQueueCleanupCount());
+    assertTrue(
+        manager.snapshotQueues().stream().anyMatch(snapshot -> snapshot.resource().equals(other)));
+
+    assertEquals(1, manager.purgeExpiredQueues(later));
+    assertEquals(2L, manager.staleQueueCleanupCount());
+    assertFalse(
+        manager.snapshotQueues().stream().anyMatch(snapshot -> snapshot.resource().equals(other)));
+  }
+
   @Test
   void canEnterPreviewKeepsUnexpiredUnknownDirectionEntryFailClosed() {
     HeadwayRule headwayRule = (routeId, resource) -> Duration.ZERO;
@@ -1449,6 +1566,79 @@ class SimpleOccupancyManagerTest {
     }
   }
 
+  @Test
+  void independentCorridorsCanBeAcquiredConcurrently() throws Exception {
+    HeadwayRule headwayRule = (routeId, resource) -> Duration.ZERO;
+    SimpleOccupancyManager manager =
+        new SimpleOccupancyManager(headwayRule, SignalAspectPolicy.defaultPolicy(), null, 16);
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    int threads = 4;
+    int rounds = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        String trainName = "train-" + t;
+        List<OccupancyResource> resources =
+            List.of(
+                OccupancyResource.forNode(NodeId.of("N" + t)),
+                OccupancyResource.forEdge(
+                    EdgeId.undirected(NodeId.of("N" + t), NodeId.of("M" + t))));
+        futures.add(
+            executor.submit(
+                () -> {
+                  int allowed = 0;
+                  for (int i = 0; i < rounds; i++) {
+                    OccupancyRequest request =
+                        new OccupancyRequest(trainName, Optional.empty(), now, resources, Map.of());
+                    if (manager.acquire(request).allowed()) {
+                      allowed++;
+                    }
+                    manager.releaseByTrain(trainName);
+                  }
+                  return allowed;
+                }));
+      }
+      for (Future<Integer> future : futures) {
+        assertEquals(rounds, future.get().intValue());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(manager.snapshotClaims().isEmpty());
+  }
+
+  @Test
+  void acquiredEventIsPublishedAfterLocksAreReleased() throws Exception {
+    HeadwayRule headwayRule = (routeId, resource) -> Duration.ZERO;
+    SignalEventBus eventBus = new SignalEventBus();
+    SimpleOccupancyManager manager =
+        new SimpleOccupancyManager(headwayRule, SignalAspectPolicy.defaultPolicy(), eventBus, 4);
+    Instant now = Instant.parse("2026-01-01T00:00:00Z");
+    OccupancyResource resource = OccupancyResource.forNode(NodeId.of("NODE-1"));
+    OccupancyRequest preview =
+        new OccupancyRequest("train-B", Optional.empty(), now, List.of(resource), Map.of());
+    List<Boolean> previewAllowed = new ArrayList<>();
+    eventBus.subscribe(
+        OccupancyAcquiredEvent.class,
+        event -> {
+          // 订阅者在其它线程回调管理器：若事件仍在锁内发布，这里会一直等待直到超时。
+          CompletableFuture<Boolean> future =
+              CompletableFuture.supplyAsync(() -> manager.canEnterPreview(preview).allowed());
+          try {
+            previewAllowed.add(future.get(5, TimeUnit.SECONDS));
+          } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+          }
+        });
+    manager.acquire(
+        new OccupancyRequest("train-C", Optional.empty(), now, List.of(resource), Map.of()));
+    manager.acquire(
+        new OccupancyRequest("train-A", Optional.empty(), now, List.of(resource), Map.of()));
+
+    assertEquals(List.of(false), previewAllowed);
+  }
+
   private static OccupancyRequest withClearingHint(
       OccupancyRequest request, OccupancyResource conflict) {
     return request.withConflictReleaseHints(
@@ -6,6 +6,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -292,10 +293,16 @@ class SchedulePlannerTest {
     when(lines.listByOperator(fixture.operator().id())).thenReturn(List.of(fixture.line()));
     when(lines.findById(fixture.line().id())).thenReturn(Optional.of(fixture.line()));
     when(routes.listByLine(fixture.line().id())).thenReturn(fixture.routes());
+    when(operators.listAll()).thenReturn(List.of(fixture.operator()));
+    when(lines.listAll()).thenReturn(List.of(fixture.line()));
+    when(routes.listAll()).thenReturn(fixture.routes());
+    List<RouteStop> allStops = new ArrayList<>();
     for (Route route : fixture.routes()) {
       when(routes.findById(route.id())).thenReturn(Optional.of(route));
       when(stops.listByRoute(route.id())).thenReturn(fixture.stopsByRoute().get(route.id()));
+      allStops.addAll(fixture.stopsByRoute().get(route.id()));
     }
+    when(stops.listAll()).thenReturn(allStops);
     return provider;
   }
 
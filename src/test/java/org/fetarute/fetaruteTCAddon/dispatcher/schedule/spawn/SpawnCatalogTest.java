@@ -0,0 +1,171 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.schedule.spawn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.fetarute.fetaruteTCAddon.company.model.Company;
+import org.fetarute.fetaruteTCAddon.company.model.CompanyStatus;
+import org.fetarute.fetaruteTCAddon.company.model.Line;
+import org.fetarute.fetaruteTCAddon.company.model.LineServiceType;
+import org.fetarute.fetaruteTCAddon.company.model.LineStatus;
+import org.fetarute.fetaruteTCAddon.company.model.Operator;
+import org.fetarute.fetaruteTCAddon.company.model.Route;
+import org.fetarute.fetaruteTCAddon.company.model.RouteOperationType;
+import org.fetarute.fetaruteTCAddon.company.model.RoutePatternType;
+import org.fetarute.fetaruteTCAddon.company.model.RouteStop;
+import org.fetarute.fetaruteTCAddon.company.model.RouteStopPassType;
+import org.fetarute.fetaruteTCAddon.company.repository.CompanyRepository;
+import org.fetarute.fetaruteTCAddon.company.repository.LineRepository;
+import org.fetarute.fetaruteTCAddon.company.repository.OperatorRepository;
+import org.fetarute.fetaruteTCAddon.company.repository.RouteRepository;
+import org.fetarute.fetaruteTCAddon.company.repository.RouteStopRepository;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
+import org.junit.jupiter.api.Test;
+
+class SpawnCatalogTest {
+
+  private static final Instant TS = Instant.parse("2026-01-01T00:00:00Z");
+
+  @Test
+  void loadJoinsBulkRowsByParentAndSkipsOrphans() {
+    Company company = company();
+    Operator operator = operator(company.id());
+    Line line = line(operator.id(), "L1");
+    Line orphanLine = line(UUID.randomUUID(), "L2");
+    Route route = route(line.id(), "R1");
+    Route orphanRoute = route(UUID.randomUUID(), "R2");
+    RouteStop second = stop(route.id(), 1);
+    RouteStop first = stop(route.id(), 0);
+
+    StorageProvider provider =
+        provider(
+            List.of(company),
+            List.of(operator),
+            List.of(orphanLine, line),
+            List.of(route, orphanRoute),
+            List.of(second, first));
+
+    SpawnCatalog catalog = SpawnCatalog.load(provider);
+
+    assertEquals(1, catalog.lines().size());
+    SpawnCatalog.LineEntry entry = catalog.lines().get(0);
+    assertEquals(company, entry.company());
+    assertEquals(operator, entry.operator());
+    assertEquals(line, entry.line());
+    assertEquals(1, catalog.routeCount());
+    SpawnCatalog.RouteEntry routeEntry = entry.routes().get(0);
+    assertEquals(route, routeEntry.route());
+    assertEquals(List.of(first, second), routeEntry.stops(), "停靠表应按 sequence 排序");
+  }
+
+  @Test
+  void loadReturnsEmptyCatalogWithoutCompanies() {
+    StorageProvider provider = provider(List.of(), List.of(), List.of(), List.of(), List.of());
+
+    assertTrue(SpawnCatalog.load(provider).lines().isEmpty());
+  }
+
+  private static StorageProvider provider(
+      List<Company> companies,
+      List<Operator> operators,
+      List<Line> lines,
+      List<Route> routes,
+      List<RouteStop> stops) {
+    StorageProvider provider = mock(StorageProvider.class);
+    CompanyRepository companyRepo = mock(CompanyRepository.class);
+    OperatorRepository operatorRepo = mock(OperatorRepository.class);
+    LineRepository lineRepo = mock(LineRepository.class);
+    RouteRepository routeRepo = mock(RouteRepository.class);
+    RouteStopRepository stopRepo = mock(RouteStopRepository.class);
+    when(provider.companies()).thenReturn(companyRepo);
+    when(provider.operators()).thenReturn(operatorRepo);
+    when(provider.lines()).thenReturn(lineRepo);
+    when(provider.routes()).thenReturn(routeRepo);
+    when(provider.routeStops()).thenReturn(stopRepo);
+    when(companyRepo.listAll()).thenReturn(companies);
+    when(operatorRepo.listAll()).thenReturn(operators);
+    when(lineRepo.listAll()).thenReturn(lines);
+    when(routeRepo.listAll()).thenReturn(routes);
+    when(stopRepo.listAll()).thenReturn(stops);
+    return provider;
+  }
+
+  private static Company company() {
+    return new Company(
+        UUID.randomUUID(),
+        "C1",
+        "Company",
+        Optional.empty(),
+        UUID.randomUUID(),
+        CompanyStatus.ACTIVE,
+        0L,
+        Map.of(),
+        TS,
+        TS);
+  }
+
+  private static Operator operator(UUID companyId) {
+    return new Operator(
+        UUID.randomUUID(),
+        "SURN",
+        companyId,
+        "Operator",
+        Optional.empty(),
+        Optional.empty(),
+        0,
+        Optional.empty(),
+        Map.of(),
+        TS,
+        TS);
+  }
+
+  private static Line line(UUID operatorId, String code) {
+    return new Line(
+        UUID.randomUUID(),
+        code,
+        operatorId,
+        "Line",
+        Optional.empty(),
+        LineServiceType.METRO,
+        Optional.empty(),
+        LineStatus.ACTIVE,
+        Optional.of(300),
+        Map.of(),
+        TS,
+        TS);
+  }
+
+  private static Route route(UUID lineId, String code) {
+    return new Route(
+        UUID.randomUUID(),
+        code,
+        lineId,
+        "Route",
+        Optional.empty(),
+        RoutePatternType.LOCAL,
+        RouteOperationType.OPERATION,
+        Optional.empty(),
+        Optional.empty(),
+        Map.of(),
+        TS,
+        TS);
+  }
+
+  private static RouteStop stop(UUID routeId, int sequence) {
+    return new RouteStop(
+        routeId,
+        sequence,
+        Optional.empty(),
+        Optional.of("SURN:S:ST" + sequence + ":1"),
+        Optional.empty(),
+        RouteStopPassType.PASS,
+        Optional.empty());
+  }
+}
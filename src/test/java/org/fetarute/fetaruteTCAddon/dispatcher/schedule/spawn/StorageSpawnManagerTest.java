@@ -8,6 +8,7 @@ import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -361,6 +362,71 @@ class StorageSpawnManagerTest {
     assertEquals(Duration.ofSeconds(200), servicesByRoute.get("R-RET").baseHeadway());
   }
 
+  @Test
+  void asyncPlanBuildIsPublishedOnNextPoll() {
+    StorageProvider provider = mockProvider(enabledRoute());
+    StorageSpawnManager.SpawnManagerSettings settings =
+        new StorageSpawnManager.SpawnManagerSettings(
+            Duration.ofSeconds(999), Duration.ZERO, 5, 5, 10);
+    List<Runnable> submitted = new ArrayList<>();
+    StorageSpawnManager manager = new StorageSpawnManager(settings, null, submitted::add);
+
+    Instant now = Instant.parse("2026-01-19T00:00:00Z");
+    assertTrue(manager.pollDueTickets(provider, now).isEmpty(), "构建完成前沿用空计划");
+    assertTrue(manager.pollDueTickets(provider, now.plusSeconds(1)).isEmpty());
+    assertEquals(1, submitted.size(), "同一时刻最多一个构建在途");
+
+    submitted.get(0).run();
+    assertEquals(0, manager.snapshotPlan().size(), "构建结果只在 tick 线程发布");
+
+    List<SpawnTicket> due = manager.pollDueTickets(provider, now.plusSeconds(2));
+    assertEquals(1, due.size());
+    assertEquals("R1", due.get(0).service().routeCode());
+    StorageSpawnManager.PlanBuildStats stats = manager.planBuildStats();
+    assertEquals(1L, stats.builds());
+    assertEquals(1, stats.lastServices());
+    assertEquals(1, stats.lastRoutes());
+  }
+
+  @Test
+  void resetDiscardsInFlightPlanBuild() {
+    StorageProvider provider = mockProvider(enabledRoute());
+    StorageSpawnManager.SpawnManagerSettings settings =
+        new StorageSpawnManager.SpawnManagerSettings(
+            Duration.ofSeconds(999), Duration.ZERO, 5, 5, 10);
+    List<Runnable> submitted = new ArrayList<>();
+    StorageSpawnManager manager = new StorageSpawnManager(settings, null, submitted::add);
+
+    Instant now = Instant.parse("2026-01-19T00:00:00Z");
+    manager.pollDueTickets(provider, now);
+    manager.reset(now);
+    submitted.get(0).run();
+
+    assertTrue(manager.pollDueTickets(provider, now.plusSeconds(1)).isEmpty());
+    assertEquals(0, manager.snapshotPlan().size());
+    assertEquals(1L, manager.planBuildStats().discarded());
+    assertEquals(2, submitted.size(), "reset 后应重新提交构建");
+  }
+
+  @Test
+  void planBuildErrorStillClearsInFlightBuild() {
+    StorageProvider provider = mock(StorageProvider.class);
+    when(provider.companies()).thenThrow(new LinkageError("catalog unavailable"));
+    StorageSpawnManager.SpawnManagerSettings settings =
+        new StorageSpawnManager.SpawnManagerSettings(
+            Duration.ofSeconds(30), Duration.ZERO, 5, 5, 10);
+    List<Runnable> submitted = new ArrayList<>();
+    StorageSpawnManager manager = new StorageSpawnManager(settings, null, submitted::add);
+
+    Instant now = Instant.parse("2026-01-19T00:00:00Z");
+    manager.pollDueTickets(provider, now);
+    submitted.get(0).run();
+
+    assertTrue(manager.pollDueTickets(provider, now.plusSeconds(31)).isEmpty());
+    assertEquals(1L, manager.planBuildStats().failures());
+    assertEquals(2, submitted.size(), "构建抛出 Error 后仍应允许下一次构建");
+  }
+
   private static Fixture enabledRoute() {
     UUID companyId = UUID.randomUUID();
     UUID ownerIdentityId = UUID.randomUUID();
@@ -1418,15 +1484,16 @@ class StorageSpawnManagerTest {
     when(provider.routes()).thenReturn(routeRepo);
     when(provider.routeStops()).thenReturn(stopRepo);
 
+    // 计划构建只走批量查询（SpawnCatalog）
     when(companyRepo.listAll()).thenReturn(List.of(fixture.company()));
-    when(operatorRepo.listByCompany(fixture.company().id()))
-        .thenReturn(List.of(fixture.operator()));
-    when(lineRepo.listByOperator(fixture.operator().id())).thenReturn(List.of(fixture.line()));
-    when(routeRepo.listByLine(fixture.line().id())).thenReturn(fixture.routes());
-
+    when(operatorRepo.listAll()).thenReturn(List.of(fixture.operator()));
+    when(lineRepo.listAll()).thenReturn(List.of(fixture.line()));
+    when(routeRepo.listAll()).thenReturn(fixture.routes());
+    List<RouteStop> allStops = new ArrayList<>();
     for (Route route : fixture.routes()) {
-      when(stopRepo.listByRoute(route.id())).thenReturn(fixture.stopsByRouteId().get(route.id()));
+      allStops.addAll(fixture.stopsByRouteId().getOrDefault(route.id(), List.of()));
     }
+    when(stopRepo.listAll()).thenReturn(allStops);
 
     // 不相关仓库：提供空实现即可
     when(provider.playerIdentities())
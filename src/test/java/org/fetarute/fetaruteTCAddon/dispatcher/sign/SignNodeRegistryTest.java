@@ -92,6 +92,55 @@ class SignNodeRegistryTest {
     assertTrue(registry.findByNodeId(definition.nodeId(), otherBlock).isPresent());
   }
 
+  @Test
+  // 覆盖同一坐标与删除世界时，NodeId/前缀/区块索引应同步更新
+  void secondaryIndexesFollowOverwriteAndRemoveWorld() {
+    SignNodeRegistry registry = new SignNodeRegistry();
+    UUID worldId = UUID.randomUUID();
+    registry.put(worldId, "world", 1, 64, 2, depot("SURN:D:DEPOT:1"));
+    registry.put(worldId, "world", 40, 64, 2, depot("SURN:D:DEPOT:2"));
+    registry.put(worldId, "world", 3, 64, 3, depot("SURN:D:DEPOT"));
+
+    assertEquals(1, registry.findAllByNodeId("surn:d:depot:1").size());
+    assertEquals(
+        List.of("SURN:D:DEPOT:1", "SURN:D:DEPOT:2"),
+        registry.findByStationPrefix("surn", "D", "depot").stream()
+            .map(info -> info.definition().nodeId().value())
+            .toList());
+    assertEquals(2, registry.findInChunk(worldId, 0, 0).size());
+    assertEquals(1, registry.findInChunk(worldId, 2, 0).size());
+
+    // 同一坐标重建为其它节点：旧 NodeId 不应残留在索引中
+    registry.put(worldId, "world", 1, 64, 2, depot("SURN:D:YARD:1"));
+    assertTrue(registry.findAllByNodeId("SURN:D:DEPOT:1").isEmpty());
+    assertEquals(1, registry.findByStationPrefix("SURN", "D", "DEPOT").size());
+    assertEquals(1, registry.findByStationPrefix("SURN", "D", "YARD").size());
+    assertEquals(3, registry.size());
+
+    registry.removeWorld(worldId);
+    assertEquals(0, registry.size());
+    assertTrue(registry.findAllByNodeId("SURN:D:YARD:1").isEmpty());
+    assertTrue(registry.findByStationPrefix("SURN", "D", "DEPOT").isEmpty());
+    assertTrue(registry.findInChunk(worldId, 0, 0).isEmpty());
+  }
+
+  @Test
+  // 压缩坐标应区分负坐标与相邻方块
+  void packedPositionsAreDistinctForNegativeCoordinates() {
+    assertFalse(
+        SignNodeRegistry.packPosition(-1, 64, 0) == SignNodeRegistry.packPosition(1, 64, 0));
+    assertFalse(
+        SignNodeRegistry.packPosition(0, -64, 0) == SignNodeRegistry.packPosition(0, 64, 0));
+    assertFalse(
+        SignNodeRegistry.packPosition(0, 64, -1) == SignNodeRegistry.packPosition(0, 63, 0));
+    assertFalse(SignNodeRegistry.packChunk(-1, 0) == SignNodeRegistry.packChunk(0, -1));
+  }
+
+  private static SignNodeDefinition depot(String nodeId) {
+    return new SignNodeDefinition(
+        NodeId.of(nodeId), NodeType.DEPOT, Optional.of(nodeId), Optional.empty());
+  }
+
   @Test
   // snapshot 返回不可变视图，防止外部篡改内部状态
   void snapshotIsImmutable() {
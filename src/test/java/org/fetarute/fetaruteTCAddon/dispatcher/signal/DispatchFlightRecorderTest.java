@@ -0,0 +1,168 @@
+package org.fetarute.fetaruteTCAddon.dispatcher.signal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.SignalAspect;
+import org.fetarute.fetaruteTCAddon.dispatcher.schedule.occupancy.TrainNameNormalizer;
+import org.junit.jupiter.api.Test;
+
+/** 飞行记录器与 trace 开关测试。 */
+class DispatchFlightRecorderTest {
+
+  @Test
+  void snapshotReturnsEntriesInOrderAndFormatsOnRead() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(8, 4);
+    NodeId from = NodeId.of("OP:L1:S:A:1");
+    NodeId to = NodeId.of("OP:L1:S:B:1");
+
+    recorder.record(
+        "t1",
+        100L,
+        SignalComputationTrace.Source.PERIODIC_TICK,
+        SignalAspect.PROCEED,
+        SignalAspect.STOP,
+        "signal-canenter-blocked",
+        from,
+        to,
+        2,
+        0,
+        15L,
+        DispatchFlightRecorder.NO_DISTANCE);
+    recorder.record(
+        "t1",
+        101L,
+        SignalComputationTrace.Source.EVENT,
+        SignalAspect.STOP,
+        SignalAspect.PROCEED,
+        "signal-final",
+        from,
+        to,
+        0,
+        1,
+        DispatchFlightRecorder.NO_DISTANCE,
+        40L);
+
+    List<DispatchFlightRecorder.Entry> entries = recorder.snapshot("t1");
+    assertEquals(2, entries.size());
+    assertEquals(100L, entries.get(0).tick());
+    assertEquals(SignalAspect.STOP, entries.get(0).newAspect());
+    assertEquals(SignalComputationTrace.Source.EVENT, entries.get(1).source());
+    String line = entries.get(0).format();
+    assertTrue(line.contains("aspect=PROCEED->STOP"));
+    assertTrue(line.contains("node=OP:L1:S:A:1->OP:L1:S:B:1"));
+    assertTrue(line.contains("blockers=2 allowed=false distBlocker=15 distAuthorityEnd=-"));
+    assertTrue(recorder.snapshot("missing").isEmpty());
+  }
+
+  @Test
+  void ringKeepsOnlyLatestCapacityEntries() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(8, 4);
+    for (int i = 0; i < 20; i++) {
+      record(recorder, "t1", i);
+    }
+
+    List<DispatchFlightRecorder.Entry> entries = recorder.snapshot("t1");
+    assertEquals(8, entries.size());
+    assertEquals(12L, entries.get(0).tick());
+    assertEquals(19L, entries.get(7).tick());
+  }
+
+  @Test
+  void evictsLeastRecentlyWrittenTrainBeyondLimit() throws InterruptedException {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder(8, 2);
+    record(recorder, "old", 1);
+    Thread.sleep(2L);
+    record(recorder, "mid", 1);
+    Thread.sleep(2L);
+    record(recorder, "new", 1);
+
+    assertEquals(2, recorder.trainKeys().size());
+    assertFalse(recorder.trainKeys().contains("old"));
+    assertTrue(recorder.trainKeys().contains("new"));
+  }
+
+  @Test
+  void disabledTraceStillRecordsButSkipsLogging() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder();
+    List<String> logs = new ArrayList<>();
+    AtomicBoolean debug = new AtomicBoolean(false);
+    SignalComputationTrace.Sink sink =
+        new SignalComputationTrace.Sink(logs::add, debug::get, recorder);
+    SignalComputationTrace.Builder trace =
+        sink.builder(
+                "Train-1",
+                "Train-1",
+                SignalComputationTrace.Source.PERIODIC_TICK,
+                SignalAspect.STOP)
+            .previousAspect(SignalAspect.PROCEED)
+            .primaryReason("signal-final")
+            .field("expensive", "value")
+            .distances(
+                OptionalLong.of(12L),
+                OptionalLong.empty(),
+                OptionalLong.empty(),
+                OptionalLong.of(30L),
+                "EDGE:a~b",
+                3);
+    assertFalse(trace.detailed());
+    sink.emit(trace);
+
+    assertTrue(logs.isEmpty());
+    List<DispatchFlightRecorder.Entry> entries =
+        recorder.snapshot(TrainNameNormalizer.normalizeKey("Train-1"));
+    assertEquals(1, entries.size());
+    DispatchFlightRecorder.Entry entry = entries.get(0);
+    assertEquals(SignalAspect.PROCEED, entry.previousAspect());
+    assertEquals("signal-final", entry.reason());
+    assertEquals(12L, entry.distanceToBlocker());
+    assertEquals(30L, entry.distanceToAuthorityEnd());
+    assertNull(entry.currentNode());
+
+    debug.set(true);
+    sink.emit(
+        sink.builder(
+            "Train-1", "Train-1", SignalComputationTrace.Source.PERIODIC_TICK, SignalAspect.STOP));
+    assertEquals(1, logs.size());
+    assertTrue(logs.get(0).startsWith("SignalTrace "));
+  }
+
+  @Test
+  void sinkDoesNotLeakIntoGlobalTrace() {
+    DispatchFlightRecorder recorder = new DispatchFlightRecorder();
+    List<String> logs = new ArrayList<>();
+    new SignalComputationTrace.Sink(logs::add, () -> false, recorder);
+
+    SignalComputationTrace.Builder trace =
+        SignalComputationTrace.builder(
+            "Train-2", "Train-2", SignalComputationTrace.Source.OCCUPANCY, SignalAspect.STOP);
+    assertTrue(trace.detailed());
+    SignalComputationTrace.emit(trace);
+
+    assertTrue(logs.isEmpty());
+    assertTrue(recorder.trainKeys().isEmpty());
+  }
+
+  private static void record(DispatchFlightRecorder recorder, String train, long tick) {
+    recorder.record(
+        train,
+        tick,
+        SignalComputationTrace.Source.PERIODIC_TICK,
+        null,
+        SignalAspect.PROCEED,
+        "r",
+        null,
+        null,
+        0,
+        -1,
+        DispatchFlightRecorder.NO_DISTANCE,
+        DispatchFlightRecorder.NO_DISTANCE);
+  }
+}
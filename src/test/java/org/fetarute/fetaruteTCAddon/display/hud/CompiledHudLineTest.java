@@ -0,0 +1,38 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class CompiledHudLineTest {
+
+  @Test
+  void resolvesKnownAndKeepsUnknownPlaceholders() {
+    CompiledHudLine line = CompiledHudLine.compile("<white>{line}</white>-{next_station}-{unknown}");
+
+    String resolved = line.resolve(Map.of("line", "L1", "next_station", "<red>Central</red>"));
+
+    assertEquals("<white>L1</white>-<red>Central</red>-{unknown}", resolved);
+    assertFalse(line.isStatic());
+  }
+
+  @Test
+  void unmatchedBracesAreLiteral() {
+    Map<String, String> placeholders = Map.of("a", "A", "b{c", "X");
+
+    assertEquals("x{a", CompiledHudLine.compile("x{a").resolve(placeholders));
+    assertEquals("A}y", CompiledHudLine.compile("{a}}y").resolve(placeholders));
+    assertEquals("X", CompiledHudLine.compile("{b{c}").resolve(placeholders));
+  }
+
+  @Test
+  void staticLineReturnsTemplate() {
+    CompiledHudLine line = CompiledHudLine.compile("<gray>|</gray>");
+
+    assertTrue(line.isStatic());
+    assertEquals("<gray>|</gray>", line.resolve(Map.of()));
+  }
+}
@@ -0,0 +1,124 @@
+package org.fetarute.fetaruteTCAddon.display.hud;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fetarute.fetaruteTCAddon.dispatcher.eta.EtaResult;
+import org.junit.jupiter.api.Test;
+
+class TrainHudFrameCacheTest {
+
+  @Test
+  void reusesFrameWithinSameTick() {
+    TrainHudFrameCache cache = new TrainHudFrameCache();
+    Object group = new Object();
+    AtomicInteger loads = new AtomicInteger();
+
+    Optional<TrainHudFrame> first =
+        cache.get("T1", group, 10L, () -> Optional.of(frame("T1", 10L, loads)));
+    for (int i = 0; i < 39; i++) {
+      Optional<TrainHudFrame> again =
+          cache.get("T1", group, 10L, () -> Optional.of(frame("T1", 10L, loads)));
+      assertSame(first.orElseThrow(), again.orElseThrow());
+    }
+
+    assertEquals(1, loads.get());
+    assertEquals(1L, cache.framesComputed());
+    assertEquals(39L, cache.framesReused());
+  }
+
+  @Test
+  void recomputesOnNewTickOrDifferentGroup() {
+    TrainHudFrameCache cache = new TrainHudFrameCache();
+    Object group = new Object();
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get("T1", group, 10L, () -> Optional.of(frame("T1", 10L, loads)));
+    cache.get("T1", group, 11L, () -> Optional.of(frame("T1", 11L, loads)));
+    cache.get("T1", new Object(), 11L, () -> Optional.of(frame("T1", 11L, loads)));
+
+    assertEquals(3, loads.get());
+    assertEquals(0L, cache.framesReused());
+  }
+
+  @Test
+  void cachesEmptyResultForUnmanagedTrains() {
+    TrainHudFrameCache cache = new TrainHudFrameCache();
+    Object group = new Object();
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      Optional<TrainHudFrame> frame =
+          cache.get(
+              "T1",
+              group,
+              5L,
+              () -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+              });
+      assertTrue(frame.isEmpty());
+    }
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void sweepDropsExpiredTrains() {
+    TrainHudFrameCache cache = new TrainHudFrameCache();
+    AtomicInteger loads = new AtomicInteger();
+    cache.get("OLD", new Object(), 0L, () -> Optional.of(frame("OLD", 0L, loads)));
+    assertTrue(cache.sweepIfDue(0L));
+
+    long later = TrainHudFrameCache.EXPIRE_TICKS + 1L;
+    cache.get("NEW", new Object(), later, () -> Optional.of(frame("NEW", later, loads)));
+    assertFalse(cache.sweepIfDue(1L));
+    assertTrue(cache.sweepIfDue(later));
+
+    assertEquals(Set.of("NEW"), cache.trainNames());
+  }
+
+  @Test
+  void framePlaceholdersAreReadOnlyAndCopiesAreIndependent() {
+    TrainHudFrame frame = frame("T1", 1L, new AtomicInteger());
+
+    Map<String, String> copy = frame.placeholdersCopy();
+    copy.put("player_carriage_no", "2");
+
+    assertThrows(UnsupportedOperationException.class, () -> frame.placeholders().put("x", "y"));
+    assertFalse(frame.placeholders().containsKey("player_carriage_no"));
+    assertEquals("L1", copy.get("line"));
+  }
+
+  private static TrainHudFrame frame(String trainName, long tick, AtomicInteger loads) {
+    loads.incrementAndGet();
+    TrainHudContext context =
+        new TrainHudContext(
+            trainName,
+            0,
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty(),
+            TrainHudContext.StationDisplay.empty(),
+            TrainHudContext.StationDisplay.empty(),
+            "-",
+            TrainHudContext.Destinations.empty(),
+            EtaResult.unavailable("-", List.of()),
+            null,
+            Optional.empty(),
+            false,
+            true,
+            false,
+            false,
+            0.0);
+    return new TrainHudFrame(context, 0.0f, Map.of("line", "L1"), tick);
+  }
+}
@@ -42,8 +42,12 @@ import org.fetarute.fetaruteTCAddon.company.repository.StationRepository;
 import org.fetarute.fetaruteTCAddon.config.ConfigManager;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.EdgeId;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeOverrideRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailEdgeRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailGraphSnapshotRecord;
+import org.fetarute.fetaruteTCAddon.dispatcher.graph.persist.RailNodeRecord;
 import org.fetarute.fetaruteTCAddon.dispatcher.graph.repository.RailEdgeOverrideRepository;
 import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeId;
+import org.fetarute.fetaruteTCAddon.dispatcher.node.NodeType;
 import org.fetarute.fetaruteTCAddon.dispatcher.runtime.config.SpeedCurveType;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageException;
 import org.fetarute.fetaruteTCAddon.storage.api.StorageProvider;
@@ -321,6 +325,7 @@ final class JdbcRepositoryTest {
 
     assertTrue(operatorRepo.findByCompanyAndCode(companyId, "SURN").isPresent());
     assertFalse(operatorRepo.listByCompany(companyId).isEmpty());
+    assertEquals(List.of(loaded), operatorRepo.listAll());
   }
 
   /**
@@ -484,6 +489,11 @@ final class JdbcRepositoryTest {
 
     RouteStop loadedStop = stopRepo.listByRoute(route.id()).get(0);
     assertTrue(loadedStop.dwellSeconds().isEmpty());
+
+    // 批量查询与逐层查询读到同一批行
+    assertEquals(lineRepo.listByOperator(operator.id()), lineRepo.listAll());
+    assertEquals(routeRepo.listByLine(line.id()), routeRepo.listAll());
+    assertEquals(stopRepo.listByRoute(route.id()), stopRepo.listAll());
   }
 
   @Test
@@ -622,6 +632,44 @@ final class JdbcRepositoryTest {
     assertEquals("", snapshot.nodeSignature());
   }
 
+  @Test
+  void shouldApplyRailGraphDeltaAndPersistComponentSignatures() {
+    StorageProvider provider = setupProvider(TEST_DB);
+    UUID worldId = UUID.randomUUID();
+    RailNodeRecord a = railNode(worldId, "A", 0);
+    RailNodeRecord b = railNode(worldId, "B", 10);
+    RailNodeRecord c = railNode(worldId, "C", 20);
+    EdgeId ab = EdgeId.undirected(NodeId.of("A"), NodeId.of("B"));
+    EdgeId bc = EdgeId.undirected(NodeId.of("B"), NodeId.of("C"));
+    provider.railNodes().replaceWorld(worldId, List.of(a, b, c));
+    provider
+        .railEdges()
+        .replaceWorld(
+            worldId,
+            List.of(
+                new RailEdgeRecord(worldId, ab, 10, 8.0, true),
+                new RailEdgeRecord(worldId, bc, 10, 8.0, true)));
+
+    RailNodeRecord movedB = railNode(worldId, "B", 12);
+    provider.railNodes().applyDelta(worldId, List.of(movedB), List.of(NodeId.of("C")));
+    provider
+        .railEdges()
+        .applyDelta(worldId, List.of(new RailEdgeRecord(worldId, ab, 12, 6.0, true)), List.of(bc));
+
+    assertEquals(List.of(a, movedB), provider.railNodes().listByWorld(worldId));
+    List<RailEdgeRecord> edges = provider.railEdges().listByWorld(worldId);
+    assertEquals(1, edges.size());
+    assertEquals(12, edges.get(0).lengthBlocks());
+
+    Map<String, String> signatures = Map.of("A", "abc123", "X:Y", "def456");
+    provider
+        .railGraphSnapshots()
+        .save(new RailGraphSnapshotRecord(worldId, Instant.EPOCH, 2, 1, "sig", signatures));
+    assertEquals(
+        signatures,
+        provider.railGraphSnapshots().findByWorld(worldId).orElseThrow().componentSignatures());
+  }
+
   @Test
   void shouldPersistRailEdgeOverrides() {
     StorageProvider provider = setupProvider(TEST_DB);
@@ -689,6 +737,11 @@ final class JdbcRepositoryTest {
     assertTrue(repository.listByWorld(worldId).isEmpty());
   }
 
+  private static RailNodeRecord railNode(UUID worldId, String id, int x) {
+    return new RailNodeRecord(
+        worldId, NodeId.of(id), NodeType.WAYPOINT, x, 64, 0, Optional.empty(), Optional.empty());
+  }
+
   private StorageProvider setupProvider(Path dbFile) {
     ConfigManager.StorageSettings settings =
         new ConfigManager.StorageSettings(
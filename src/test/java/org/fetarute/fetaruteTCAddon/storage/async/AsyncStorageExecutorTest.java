@@ -0,0 +1,142 @@
+package org.fetarute.fetaruteTCAddon.storage.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.fetarute.fetaruteTCAddon.storage.api.StorageException;
+import org.junit.jupiter.api.Test;
+
+final class AsyncStorageExecutorTest {
+
+  @Test
+  void coalescesPendingWritesForSameKey() throws Exception {
+    AsyncStorageExecutor executor = new AsyncStorageExecutor("test", 1, 16, Runnable::run, null);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> applied = Collections.synchronizedList(new ArrayList<>());
+    try {
+      CompletableFuture<Void> blocker =
+          executor.submit(
+              () -> {
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+              });
+
+      CompletableFuture<Void> first = executor.submitCoalesced("node:a", write(applied, "a1"));
+      CompletableFuture<Void> second = executor.submitCoalesced("node:a", write(applied, "a2"));
+      CompletableFuture<Void> other = executor.submitCoalesced("node:b", write(applied, "b1"));
+      assertSame(first, second);
+
+      release.countDown();
+      CompletableFuture.allOf(blocker, first, other).get(5, TimeUnit.SECONDS);
+
+      assertEquals(List.of("a2", "b1"), applied);
+      assertEquals(1L, executor.stats().coalesced());
+      assertEquals(0, executor.stats().pendingWriteKeys());
+    } finally {
+      release.countDown();
+      executor.shutdown(Duration.ofSeconds(5));
+    }
+  }
+
+  @Test
+  void writeForRunningKeyIsQueuedBehindIt() throws Exception {
+    AsyncStorageExecutor executor = new AsyncStorageExecutor("test", 2, 16, Runnable::run, null);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> applied = Collections.synchronizedList(new ArrayList<>());
+    try {
+      CompletableFuture<Void> first =
+          executor.submitCoalesced(
+              "node:a",
+              () -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                applied.add("a1");
+                return null;
+              });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      CompletableFuture<Void> second = executor.submitCoalesced("node:a", write(applied, "a2"));
+
+      release.countDown();
+      CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+      assertEquals(List.of("a1", "a2"), applied);
+      assertEquals(0L, executor.stats().coalesced());
+    } finally {
+      release.countDown();
+      executor.shutdown(Duration.ofSeconds(5));
+    }
+  }
+
+  @Test
+  void rejectsWhenQueueIsFull() throws Exception {
+    AsyncStorageExecutor executor = new AsyncStorageExecutor("test", 1, 16, Runnable::run, null);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      List<CompletableFuture<Integer>> accepted = new ArrayList<>();
+      for (int i = 0; i < 17; i++) {
+        int value = i;
+        accepted.add(
+            executor.submit(
+                () -> {
+                  release.await(5, TimeUnit.SECONDS);
+                  return value;
+                }));
+      }
+      CompletableFuture<Integer> overflow = executor.submit(() -> -1);
+
+      ExecutionException error =
+          assertThrows(ExecutionException.class, () -> overflow.get(1, TimeUnit.SECONDS));
+      assertTrue(error.getCause() instanceof StorageException);
+      assertEquals(1L, executor.stats().rejected());
+
+      release.countDown();
+      assertEquals(16, accepted.get(16).get(5, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+      executor.shutdown(Duration.ofSeconds(5));
+    }
+  }
+
+  @Test
+  void recordsFailuresAndCompletions() throws Exception {
+    AsyncStorageExecutor executor = new AsyncStorageExecutor("test", 1, 16, Runnable::run, null);
+    try {
+      assertEquals("ok", executor.submit(() -> "ok").get(5, TimeUnit.SECONDS));
+      CompletableFuture<Object> failed =
+          executor.submit(
+              () -> {
+                throw new IllegalStateException("boom");
+              });
+      ExecutionException error =
+          assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+      assertTrue(error.getCause() instanceof IllegalStateException);
+
+      AsyncStorageExecutor.Stats stats = executor.stats();
+      assertEquals(2L, stats.submitted());
+      assertEquals(1L, stats.completed());
+      assertEquals(1L, stats.failed());
+      assertEquals(0, stats.queueDepth());
+      assertEquals(1, stats.workers());
+    } finally {
+      executor.shutdown(Duration.ofSeconds(5));
+    }
+  }
+
+  private static AsyncStorageExecutor.StorageCall<Void> write(List<String> applied, String value) {
+    return () -> {
+      applied.add(value);
+      return null;
+    };
+  }
+}